@@ -70,7 +70,8 @@ public class AuditManagerMongoDB implements IAuditManager
 
   public void stop ()
   {
-    // Nothing to do
+    // Write all pending audit items
+    m_aAuditor.stop ();
   }
 
   @Nullable
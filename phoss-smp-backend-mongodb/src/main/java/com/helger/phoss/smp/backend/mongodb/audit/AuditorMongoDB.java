@@ -35,27 +35,28 @@ import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.state.ESuccess;
-import com.helger.commons.string.StringHelper;
-import com.helger.commons.type.ObjectType;
 import com.helger.commons.typeconvert.TypeConverter;
 import com.helger.phoss.smp.backend.mongodb.MongoClientProvider;
 import com.helger.phoss.smp.backend.mongodb.MongoClientSingleton;
+import com.helger.phoss.smp.audit.AbstractSMPAsyncAuditor;
+import com.helger.phoss.smp.audit.SMPAuditWriteException;
 import com.helger.photon.audit.AuditItem;
 import com.helger.photon.audit.EAuditActionType;
 import com.helger.photon.audit.IAuditActionStringProvider;
 import com.helger.photon.audit.IAuditItem;
 import com.helger.photon.audit.IAuditor;
-import com.helger.security.authentication.subject.user.CUserID;
 import com.helger.security.authentication.subject.user.ICurrentUserIDProvider;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.client.MongoCollection;
 
 /**
  * A special implementation of {@link IAuditor} writing data to a MongoDB
- * collection
+ * collection. Since 7.1.1 the audit items are written asynchronously with
+ * {@link MongoCollection#insertMany(List)}.
  *
  * @author Philip Helger
  */
-public class AuditorMongoDB implements IAuditor
+public class AuditorMongoDB extends AbstractSMPAsyncAuditor
 {
   private static final String BSON_DT = "dt";
   private static final String BSON_USERID = "userid";
@@ -69,7 +70,6 @@ public class AuditorMongoDB implements IAuditor
   public static final String DEFAULT_COLLECTION_NAME = "smp-audit";
 
   private final MongoCollection <Document> m_aCollection;
-  private final ICurrentUserIDProvider m_aCurrentUserIDProvider;
 
   /**
    * Default constructor using {@link #DEFAULT_COLLECTION_NAME} as the
@@ -94,9 +94,9 @@ public class AuditorMongoDB implements IAuditor
   public AuditorMongoDB (@Nonnull @Nonempty final String sCollectionName,
                          @Nonnull final ICurrentUserIDProvider aCurrentUserIDProvider)
   {
+    super (aCurrentUserIDProvider, "smp-audit-mongodb");
     ValueEnforcer.notEmpty (sCollectionName, "CollectionName");
     m_aCollection = MongoClientSingleton.getInstance ().getCollection (sCollectionName);
-    m_aCurrentUserIDProvider = ValueEnforcer.notNull (aCurrentUserIDProvider, "UserIDProvider");
   }
 
   @Nonnull
@@ -139,26 +139,31 @@ public class AuditorMongoDB implements IAuditor
                           sAction);
   }
 
-  public void createAuditItem (@Nonnull final EAuditActionType eActionType,
-                               @Nonnull final ESuccess eSuccess,
-                               @Nullable final ObjectType aActionObjectType,
-                               @Nullable final String sAction,
-                               @Nullable final Object... aArgs)
+  @Override
+  @Nonnegative
+  protected int writeAuditItems (@Nonnull @Nonempty final ICommonsList <IAuditItem> aItems)
   {
-    final String sUserID = StringHelper.getNotEmpty (m_aCurrentUserIDProvider.getCurrentUserID (),
-                                                     CUserID.USER_ID_GUEST);
-    final String sFullAction = IAuditActionStringProvider.JSON.apply (aActionObjectType != null ? aActionObjectType.getName ()
-                                                                                                : sAction,
-                                                                      aArgs);
-    final IAuditItem aAuditItem = new AuditItem (sUserID, eActionType, eSuccess, sFullAction);
-
-    if (MongoClientSingleton.isDBWritable ())
+    if (!MongoClientSingleton.isDBWritable ())
     {
-      if (!m_aCollection.insertOne (toBson (aAuditItem)).wasAcknowledged ())
+      LOGGER.warn ("Dropping " + aItems.size () + " audit item(s), because MongoDB is in non-writable state");
+      return 0;
+    }
+
+    final ICommonsList <Document> aDocs = aItems.getAllMapped (AuditorMongoDB::toBson);
+    try
+    {
+      if (!m_aCollection.insertMany (aDocs).wasAcknowledged ())
         throw new IllegalStateException ("Failed to insert into MongoDB Collection");
     }
-    else
-      LOGGER.warn ("Dropping audit item, because MongoDB is in non-writable state");
+    catch (final MongoBulkWriteException ex)
+    {
+      // insertMany is ordered - all documents before the first error were
+      // inserted
+      throw new SMPAuditWriteException ("Failed to insert all audit items into MongoDB Collection",
+                                        ex.getWriteResult ().getInsertedCount (),
+                                        ex);
+    }
+    return aItems.size ();
   }
 
   @Nonnull
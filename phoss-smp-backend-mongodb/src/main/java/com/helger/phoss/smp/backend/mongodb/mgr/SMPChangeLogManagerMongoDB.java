@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2019-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.mongodb.mgr;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.typeconvert.TypeConverter;
+import com.helger.phoss.smp.domain.changelog.ESMPChangeLogAction;
+import com.helger.phoss.smp.domain.changelog.ESMPChangeLogObjectType;
+import com.helger.phoss.smp.domain.changelog.ISMPChangeLogManager;
+import com.helger.phoss.smp.domain.changelog.SMPChangeLogEntry;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
+
+/**
+ * Implementation of {@link ISMPChangeLogManager} for MongoDB. The next sequence
+ * number is the highest existing one plus one. Appends of this instance are
+ * serialized, and if another instance sharing the same database used the same
+ * sequence number, the unique index fails and the append is retried. This
+ * ensures that a sequence number is only visible after all lower sequence
+ * numbers are visible, so consumers never skip a change.<br>
+ * Every {@link #PRUNE_INTERVAL} sequence numbers, all but the last
+ * {@link #MAX_ENTRIES} entries are deleted.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class SMPChangeLogManagerMongoDB extends AbstractManagerMongoDB implements ISMPChangeLogManager
+{
+  private static final String BSON_SEQUENCE = "seq";
+  private static final String BSON_CHANGE_DT = "changedt";
+  private static final String BSON_OBJECT_TYPE = "objtype";
+  private static final String BSON_ACTION = "action";
+  private static final String BSON_PARTICIPANT_ID = "pid";
+  private static final String BSON_OBJECT_ID = "objid";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPChangeLogManagerMongoDB.class);
+  private static final int MAX_APPEND_TRIES = 5;
+  /** Delete the old entries every this many appended entries */
+  public static final int PRUNE_INTERVAL = 1_000;
+
+  private final Lock m_aAppendLock = new ReentrantLock ();
+
+  public SMPChangeLogManagerMongoDB ()
+  {
+    super ("smp-change-log");
+    getCollection ().createIndex (Indexes.ascending (BSON_SEQUENCE), new IndexOptions ().unique (true));
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public static Document toBson (@Nonnull final SMPChangeLogEntry aValue)
+  {
+    return new Document ().append (BSON_SEQUENCE, Long.valueOf (aValue.getSequence ()))
+                          .append (BSON_CHANGE_DT, TypeConverter.convert (aValue.getChangeDateTime (), Date.class))
+                          .append (BSON_OBJECT_TYPE, aValue.getObjectType ().getID ())
+                          .append (BSON_ACTION, aValue.getAction ().getID ())
+                          .append (BSON_PARTICIPANT_ID, aValue.getParticipantID ())
+                          .append (BSON_OBJECT_ID, aValue.getObjectID ());
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public static SMPChangeLogEntry toDomain (@Nonnull final Document aDoc)
+  {
+    return new SMPChangeLogEntry (aDoc.getLong (BSON_SEQUENCE).longValue (),
+                                  TypeConverter.convert (aDoc.getDate (BSON_CHANGE_DT), LocalDateTime.class),
+                                  ESMPChangeLogObjectType.getFromIDOrNull (aDoc.getString (BSON_OBJECT_TYPE)),
+                                  ESMPChangeLogAction.getFromIDOrNull (aDoc.getString (BSON_ACTION)),
+                                  aDoc.getString (BSON_PARTICIPANT_ID),
+                                  aDoc.getString (BSON_OBJECT_ID));
+  }
+
+  private void _deleteOldEntries (final long nLastSequence)
+  {
+    final long nMaxDeleteSequence = nLastSequence - MAX_ENTRIES;
+    if (nMaxDeleteSequence > 0)
+      try
+      {
+        final long nDeleted = getCollection ().deleteMany (new Document (BSON_SEQUENCE,
+                                                                         new Document ("$lte",
+                                                                                       Long.valueOf (nMaxDeleteSequence))))
+                                              .getDeletedCount ();
+        if (nDeleted > 0 && LOGGER.isDebugEnabled ())
+          LOGGER.debug ("Deleted " + nDeleted + " old change log entries");
+      }
+      catch (final MongoException ex)
+      {
+        // The next try happens with the next interval
+        LOGGER.warn ("Failed to delete the old change log entries", ex);
+      }
+  }
+
+  @Nonnull
+  public SMPChangeLogEntry appendChange (@Nonnull final ESMPChangeLogObjectType eObjectType,
+                                        @Nonnull final ESMPChangeLogAction eAction,
+                                        @Nonnull @Nonempty final String sParticipantID,
+                                        @Nullable final String sObjectID)
+  {
+    ValueEnforcer.notNull (eObjectType, "ObjectType");
+    ValueEnforcer.notNull (eAction, "Action");
+    ValueEnforcer.notEmpty (sParticipantID, "ParticipantID");
+
+    final LocalDateTime aNow = PDTFactory.getCurrentLocalDateTime ();
+    m_aAppendLock.lock ();
+    try
+    {
+      for (int nTry = 1; nTry <= MAX_APPEND_TRIES; ++nTry)
+      {
+        final SMPChangeLogEntry ret = new SMPChangeLogEntry (getLastSequence () + 1,
+                                                             aNow,
+                                                             eObjectType,
+                                                             eAction,
+                                                             sParticipantID,
+                                                             sObjectID);
+        try
+        {
+          if (!getCollection ().insertOne (toBson (ret)).wasAcknowledged ())
+            throw new IllegalStateException ("Failed to insert into MongoDB Collection");
+          if (ret.getSequence () % PRUNE_INTERVAL == 0)
+            _deleteOldEntries (ret.getSequence ());
+          return ret;
+        }
+        catch (final MongoWriteException ex)
+        {
+          if (ex.getError ().getCategory () != ErrorCategory.DUPLICATE_KEY)
+            throw ex;
+
+          // Another instance used the same sequence number
+          LOGGER.warn ("Failed to append change log entry " + ret.getSequence () + " in try " + nTry);
+        }
+      }
+    }
+    finally
+    {
+      m_aAppendLock.unlock ();
+    }
+    throw new IllegalStateException ("Failed to append change log entry after " + MAX_APPEND_TRIES + " tries");
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <SMPChangeLogEntry> getAllChangesAfter (@Nonnegative final long nSequence,
+                                                              @Nonnegative final int nMaxCount)
+  {
+    ValueEnforcer.isGE0 (nSequence, "Sequence");
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+
+    final ICommonsList <SMPChangeLogEntry> ret = new CommonsArrayList <> ();
+    getCollection ().find (new Document (BSON_SEQUENCE, new Document ("$gt", Long.valueOf (nSequence))))
+                    .sort (Sorts.ascending (BSON_SEQUENCE))
+                    .limit (nMaxCount)
+                    .forEach (x -> ret.add (toDomain (x)));
+    return ret;
+  }
+
+  @Nonnegative
+  public long getLastSequence ()
+  {
+    final Document aLast = getCollection ().find ().sort (Sorts.descending (BSON_SEQUENCE)).limit (1).first ();
+    return aLast == null ? 0 : aLast.getLong (BSON_SEQUENCE).longValue ();
+  }
+
+  @Nonnegative
+  public long getFirstSequence ()
+  {
+    final Document aFirst = getCollection ().find ().sort (Sorts.ascending (BSON_SEQUENCE)).limit (1).first ();
+    return aFirst == null ? getLastSequence () + 1 : aFirst.getLong (BSON_SEQUENCE).longValue ();
+  }
+}
@@ -25,6 +25,7 @@ import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.backend.mongodb.PhotonSecurityManagerFactoryMongoDB;
 import com.helger.phoss.smp.domain.ISMPManagerProvider;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.changelog.ISMPChangeLogManager;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -106,6 +107,12 @@ public final class SMPManagerProviderMongoDB implements ISMPManagerProvider
     return new SMPBusinessCardManagerMongoDB (aIdentifierFactory);
   }
 
+  @Nonnull
+  public ISMPChangeLogManager createChangeLogMgr ()
+  {
+    return new SMPChangeLogManagerMongoDB ();
+  }
+
   @Override
   public String toString ()
   {
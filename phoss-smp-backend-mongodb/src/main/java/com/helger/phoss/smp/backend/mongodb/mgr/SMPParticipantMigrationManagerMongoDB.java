@@ -28,6 +28,8 @@ import org.bson.conversions.Bson;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.annotation.ReturnsMutableObject;
+import com.helger.commons.callback.CallbackList;
 import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.state.EChange;
@@ -37,6 +39,7 @@ import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.phoss.smp.domain.pmigration.EParticipantMigrationDirection;
 import com.helger.phoss.smp.domain.pmigration.EParticipantMigrationState;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigration;
+import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationCallback;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.pmigration.SMPParticipantMigration;
 import com.helger.photon.audit.AuditHelper;
@@ -60,12 +63,21 @@ public final class SMPParticipantMigrationManagerMongoDB extends AbstractManager
   private static final String BSON_INIT_DT = "initdt";
   private static final String BSON_MIGRATION_KEY = "migkey";
 
+  private final CallbackList <ISMPParticipantMigrationCallback> m_aCallbacks = new CallbackList <> ();
+
   public SMPParticipantMigrationManagerMongoDB ()
   {
     super ("smp-participant-migration");
     getCollection ().createIndex (Indexes.ascending (BSON_ID));
   }
 
+  @Nonnull
+  @ReturnsMutableObject
+  public CallbackList <ISMPParticipantMigrationCallback> participantMigrationCallbacks ()
+  {
+    return m_aCallbacks;
+  }
+
   @Nonnull
   @ReturnsMutableCopy
   public static Document toBson (@Nonnull final ISMPParticipantMigration aValue)
@@ -103,6 +115,7 @@ public final class SMPParticipantMigrationManagerMongoDB extends AbstractManager
                                       aSMPParticipantMigration.getParticipantIdentifier ().getURIEncoded (),
                                       aSMPParticipantMigration.getInitiationDateTime (),
                                       aSMPParticipantMigration.getMigrationKey ());
+    m_aCallbacks.forEach (x -> x.onSMPParticipantMigrationCreated (aSMPParticipantMigration));
   }
 
   @Nonnull
@@ -131,6 +144,9 @@ public final class SMPParticipantMigrationManagerMongoDB extends AbstractManager
     if (StringHelper.hasNoText (sParticipantMigrationID))
       return EChange.UNCHANGED;
 
+    // Remember for the callbacks
+    final SMPParticipantMigration aParticipantMigration = getParticipantMigrationOfID (sParticipantMigrationID);
+
     final DeleteResult aDR = getCollection ().deleteMany (new Document (BSON_ID, sParticipantMigrationID));
     if (!aDR.wasAcknowledged () || aDR.getDeletedCount () == 0)
     {
@@ -139,6 +155,8 @@ public final class SMPParticipantMigrationManagerMongoDB extends AbstractManager
     }
 
     AuditHelper.onAuditDeleteSuccess (SMPParticipantMigration.OT, sParticipantMigrationID);
+    if (aParticipantMigration != null)
+      m_aCallbacks.forEach (x -> x.onSMPParticipantMigrationDeleted (aParticipantMigration));
     return EChange.CHANGED;
   }
 
@@ -147,7 +165,13 @@ public final class SMPParticipantMigrationManagerMongoDB extends AbstractManager
   {
     ValueEnforcer.notNull (aParticipantID, "ParticipantID");
 
-    final DeleteResult aDR = getCollection ().deleteMany (new Document (BSON_PARTICIPANT_ID, toBson (aParticipantID)));
+    final Document aFilter = new Document (BSON_PARTICIPANT_ID, toBson (aParticipantID));
+
+    // Remember for the callbacks
+    final ICommonsList <ISMPParticipantMigration> aDeleted = new CommonsArrayList <> ();
+    getCollection ().find (aFilter).forEach (x -> aDeleted.add (toDomain (x)));
+
+    final DeleteResult aDR = getCollection ().deleteMany (aFilter);
     if (!aDR.wasAcknowledged () || aDR.getDeletedCount () == 0)
     {
       AuditHelper.onAuditDeleteFailure (SMPParticipantMigration.OT,
@@ -157,6 +181,8 @@ public final class SMPParticipantMigrationManagerMongoDB extends AbstractManager
     }
 
     AuditHelper.onAuditDeleteSuccess (SMPParticipantMigration.OT, aParticipantID.getURIEncoded ());
+    for (final ISMPParticipantMigration aParticipantMigration : aDeleted)
+      m_aCallbacks.forEach (x -> x.onSMPParticipantMigrationDeleted (aParticipantMigration));
     return EChange.CHANGED;
   }
 
@@ -188,6 +214,7 @@ public final class SMPParticipantMigrationManagerMongoDB extends AbstractManager
                                       "set-migration-state",
                                       sParticipantMigrationID,
                                       eNewState);
+    m_aCallbacks.forEach (x -> x.onSMPParticipantMigrationUpdated (aPM));
     return EChange.CHANGED;
   }
 
@@ -16,11 +16,15 @@
  */
 package com.helger.phoss.smp.backend.mongodb.mgr;
 
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,6 +37,7 @@ import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.CommonsHashSet;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.compare.ESortOrder;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.StringHelper;
 import com.helger.peppolid.IParticipantIdentifier;
@@ -50,7 +55,9 @@ import com.helger.phoss.smp.smlhook.IRegistrationHook;
 import com.helger.phoss.smp.smlhook.RegistrationHookException;
 import com.helger.phoss.smp.smlhook.RegistrationHookFactory;
 import com.helger.photon.audit.AuditHelper;
+import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
 
@@ -73,6 +80,8 @@ public final class SMPServiceGroupManagerMongoDB extends AbstractManagerMongoDB
   {
     super ("smp-servicegroup");
     getCollection ().createIndex (Indexes.ascending (BSON_ID));
+    // For paging through the service groups of a single owner
+    getCollection ().createIndex (Indexes.ascending (BSON_OWNER_ID, BSON_ID));
   }
 
   @Nonnull
@@ -314,6 +323,63 @@ public final class SMPServiceGroupManagerMongoDB extends AbstractManagerMongoDB
     return getCollection ().countDocuments (new Document (BSON_OWNER_ID, sOwnerID));
   }
 
+  @Override
+  public void forEachSMPServiceGroupOfOwner (@Nonnull final String sOwnerID,
+                                             @Nullable final IParticipantIdentifier aAfterID,
+                                             @Nonnegative final long nOffset,
+                                             @Nonnegative final long nMaxCount,
+                                             @Nonnull final Consumer <? super ISMPServiceGroup> aConsumer)
+  {
+    ValueEnforcer.isBetweenInclusive (nOffset, "Offset", 0, Integer.MAX_VALUE);
+    ValueEnforcer.isBetweenInclusive (nMaxCount, "MaxCount", 1, Integer.MAX_VALUE);
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    final Document aFilter = new Document (BSON_OWNER_ID, sOwnerID);
+    if (aAfterID != null)
+      aFilter.append (BSON_ID, new Document ("$gt", SMPServiceGroup.createSMPServiceGroupID (aAfterID)));
+    getCollection ().find (aFilter)
+                    .sort (Sorts.ascending (BSON_ID))
+                    .skip ((int) nOffset)
+                    .limit ((int) nMaxCount)
+                    .forEach (x -> aConsumer.accept (toDomain (x)));
+  }
+
+  @Nonnull
+  private static Bson _getFilter (@Nullable final String sFilterText)
+  {
+    if (StringHelper.hasNoText (sFilterText))
+      return new Document ();
+
+    final String sRegEx = Pattern.quote (sFilterText);
+    return Filters.or (Filters.regex (BSON_ID, sRegEx, "i"), Filters.regex (BSON_OWNER_ID, sRegEx, "i"));
+  }
+
+  @Override
+  @Nonnegative
+  public long getSMPServiceGroupCount (@Nullable final String sFilterText)
+  {
+    return getCollection ().countDocuments (_getFilter (sFilterText));
+  }
+
+  @Override
+  public void forEachSMPServiceGroup (@Nullable final String sFilterText,
+                                      @Nonnull final ESortOrder eSortOrder,
+                                      @Nonnegative final long nOffset,
+                                      @Nonnegative final long nMaxCount,
+                                      @Nonnull final Consumer <? super ISMPServiceGroup> aConsumer)
+  {
+    ValueEnforcer.notNull (eSortOrder, "SortOrder");
+    ValueEnforcer.isBetweenInclusive (nOffset, "Offset", 0, Integer.MAX_VALUE);
+    ValueEnforcer.isBetweenInclusive (nMaxCount, "MaxCount", 1, Integer.MAX_VALUE);
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    getCollection ().find (_getFilter (sFilterText))
+                    .sort (eSortOrder.isAscending () ? Sorts.ascending (BSON_ID) : Sorts.descending (BSON_ID))
+                    .skip ((int) nOffset)
+                    .limit ((int) nMaxCount)
+                    .forEach (x -> aConsumer.accept (toDomain (x)));
+  }
+
   public ISMPServiceGroup getSMPServiceGroupOfID (@Nullable final IParticipantIdentifier aParticipantID)
   {
     if (aParticipantID == null)
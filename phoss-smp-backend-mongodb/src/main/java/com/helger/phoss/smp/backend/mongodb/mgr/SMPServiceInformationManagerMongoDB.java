@@ -16,6 +16,8 @@
  */
 package com.helger.phoss.smp.backend.mongodb.mgr;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.function.Consumer;
@@ -33,7 +35,9 @@ import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.callback.CallbackList;
 import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsHashMap;
 import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsMap;
 import com.helger.commons.datetime.XMLOffsetDateTime;
 import com.helger.commons.equals.EqualsHelper;
 import com.helger.commons.state.EChange;
@@ -47,15 +51,19 @@ import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpointConsumer;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationCallback;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
 import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpointFilter;
 import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
 import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformationCount;
 import com.helger.photon.audit.AuditHelper;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
 import com.mongodb.client.result.DeleteResult;
 
 /**
@@ -96,6 +104,11 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
     super ("smp-serviceinfo");
     m_aIdentifierFactory = aIdentifierFactory;
     m_aServiceGroupMgr = aServiceGroupMgr;
+    getCollection ().createIndex (Indexes.ascending (BSON_ID));
+    getCollection ().createIndex (Indexes.ascending (BSON_SERVICE_GROUP_ID));
+    // For the server-side filtering of endpoints
+    getCollection ().createIndex (Indexes.ascending (BSON_PROCESSES + "." + BSON_ENDPOINTS + "." + BSON_TRANSPORT_PROFILE));
+    getCollection ().createIndex (Indexes.ascending (BSON_PROCESSES + "." + BSON_ENDPOINTS + "." + BSON_ENDPOINT_REFERENCE));
   }
 
   @Nonnull
@@ -453,6 +466,141 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
     return ret;
   }
 
+  @Override
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsMap <String, SMPServiceInformationCount> getServiceInformationCountOfServiceGroups (@Nonnull final Iterable <? extends ISMPServiceGroup> aServiceGroups)
+  {
+    ValueEnforcer.notNull (aServiceGroups, "ServiceGroups");
+
+    final ICommonsMap <String, SMPServiceInformationCount> ret = new CommonsHashMap <> ();
+    for (final ISMPServiceGroup aServiceGroup : aServiceGroups)
+      ret.put (aServiceGroup.getID (), SMPServiceInformationCount.EMPTY);
+
+    if (ret.isNotEmpty ())
+    {
+      // Processes and endpoints are only stored if not empty
+      final Document aProcesses = new Document ("$ifNull", Arrays.asList ("$" + BSON_PROCESSES, Collections.emptyList ()));
+      final Document aEndpoints = new Document ("$ifNull", Arrays.asList ("$$p." + BSON_ENDPOINTS, Collections.emptyList ()));
+      final Document aEndpointCounts = new Document ("$map",
+                                                     new Document ("input", aProcesses).append ("as", "p")
+                                                                                       .append ("in", new Document ("$size", aEndpoints)));
+
+      final ICommonsList <Document> aPipeline = new CommonsArrayList <> ();
+      aPipeline.add (new Document ("$match",
+                                   new Document (BSON_SERVICE_GROUP_ID, new Document ("$in", new CommonsArrayList <> (ret.keySet ())))));
+      aPipeline.add (new Document ("$project",
+                                   new Document (BSON_SERVICE_GROUP_ID, Integer.valueOf (1)).append ("procs", new Document ("$size", aProcesses))
+                                                                                            .append ("eps", new Document ("$sum", aEndpointCounts))));
+      aPipeline.add (new Document ("$group",
+                                   new Document ("_id", "$" + BSON_SERVICE_GROUP_ID).append ("docs", new Document ("$sum", Integer.valueOf (1)))
+                                                                                   .append ("procs", new Document ("$sum", "$procs"))
+                                                                                   .append ("eps", new Document ("$sum", "$eps"))));
+      getCollection ().aggregate (aPipeline)
+                      .forEach (x -> ret.put (x.getString ("_id"),
+                                              new SMPServiceInformationCount (x.get ("docs", Number.class).intValue (),
+                                                                              x.get ("procs", Number.class).intValue (),
+                                                                              x.get ("eps", Number.class).intValue ())));
+    }
+    return ret;
+  }
+
+  @Nonnull
+  private static String _getRegExEscaped (@Nonnull final String s)
+  {
+    final StringBuilder aSB = new StringBuilder (s.length () * 2);
+    for (final char c : s.toCharArray ())
+    {
+      if ("\\^$.|?*+()[]{}".indexOf (c) >= 0)
+        aSB.append ('\\');
+      aSB.append (c);
+    }
+    return aSB.toString ();
+  }
+
+  /**
+   * Get the filter for endpoints. The field names are valid both on the
+   * original documents (to use the indexes) and after the processes and
+   * endpoints were unwound (to filter the single endpoints).
+   *
+   * @param aFilter
+   *        The filter to apply. May not be <code>null</code>.
+   * @return The filter document. Never <code>null</code> but maybe empty.
+   */
+  @Nonnull
+  private static Document _getEndpointFilter (@Nonnull final SMPEndpointFilter aFilter)
+  {
+    final String sPrefix = BSON_PROCESSES + "." + BSON_ENDPOINTS + ".";
+    final Document ret = new Document ();
+    if (aFilter.getParticipantIDPart () != null)
+      ret.append (BSON_SERVICE_GROUP_ID,
+                  new Document ("$regex", _getRegExEscaped (aFilter.getParticipantIDPart ())).append ("$options", "i"));
+    if (aFilter.getTransportProfile () != null)
+      ret.append (sPrefix + BSON_TRANSPORT_PROFILE, aFilter.getTransportProfile ());
+    if (aFilter.getEndpointReferencePrefix () != null)
+    {
+      // Anchored regular expressions can use the index
+      ret.append (sPrefix + BSON_ENDPOINT_REFERENCE,
+                  new Document ("$regex", "^" + _getRegExEscaped (aFilter.getEndpointReferencePrefix ())));
+    }
+    if (aFilter.getCertificatePart () != null)
+      ret.append (sPrefix + BSON_CERTIFICATE, new Document ("$regex", _getRegExEscaped (aFilter.getCertificatePart ())));
+    return ret;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  private static ICommonsList <Document> _getEndpointPipeline (@Nonnull final SMPEndpointFilter aFilter)
+  {
+    final Document aMatch = _getEndpointFilter (aFilter);
+    final ICommonsList <Document> ret = new CommonsArrayList <> ();
+    if (!aMatch.isEmpty ())
+      ret.add (new Document ("$match", aMatch));
+    ret.add (new Document ("$sort", new Document (BSON_ID, Integer.valueOf (1))));
+    ret.add (new Document ("$unwind", "$" + BSON_PROCESSES));
+    ret.add (new Document ("$unwind", "$" + BSON_PROCESSES + "." + BSON_ENDPOINTS));
+    if (!aMatch.isEmpty ())
+      ret.add (new Document ("$match", aMatch));
+    return ret;
+  }
+
+  @Override
+  @Nonnegative
+  public long getEndpointCount (@Nonnull final SMPEndpointFilter aFilter)
+  {
+    ValueEnforcer.notNull (aFilter, "Filter");
+
+    final ICommonsList <Document> aPipeline = _getEndpointPipeline (aFilter);
+    aPipeline.add (new Document ("$count", "cnt"));
+    final Document aResult = getCollection ().aggregate (aPipeline).first ();
+    return aResult == null ? 0 : aResult.get ("cnt", Number.class).longValue ();
+  }
+
+  @Override
+  public void forEachEndpoint (@Nonnull final SMPEndpointFilter aFilter,
+                               @Nonnegative final long nOffset,
+                               @Nonnegative final long nMaxCount,
+                               @Nonnull final ISMPEndpointConsumer aConsumer)
+  {
+    ValueEnforcer.notNull (aFilter, "Filter");
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    final ICommonsList <Document> aPipeline = _getEndpointPipeline (aFilter);
+    if (nOffset > 0)
+      aPipeline.add (new Document ("$skip", Long.valueOf (nOffset)));
+    aPipeline.add (new Document ("$limit", Long.valueOf (nMaxCount)));
+    getCollection ().aggregate (aPipeline).forEach ((Consumer <Document>) x -> {
+      // After unwinding, the processes and endpoints are single documents
+      final Document aProcess = x.get (BSON_PROCESSES, Document.class);
+      aConsumer.accept (m_aIdentifierFactory.parseParticipantIdentifier (x.getString (BSON_SERVICE_GROUP_ID)),
+                        toDocumentTypeID (x.get (BSON_DOCTYPE_ID, Document.class)),
+                        toProcessID (aProcess.get (BSON_PROCESS_ID, Document.class)),
+                        toEndpoint (aProcess.get (BSON_ENDPOINTS, Document.class)));
+    });
+  }
+
   @Nonnull
   @ReturnsMutableCopy
   public ICommonsList <IDocumentTypeIdentifier> getAllSMPDocumentTypesOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
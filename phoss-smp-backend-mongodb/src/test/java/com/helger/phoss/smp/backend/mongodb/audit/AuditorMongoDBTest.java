@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2019-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.mongodb.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.ESuccess;
+import com.helger.phoss.smp.audit.ESMPAuditOverflowPolicy;
+import com.helger.phoss.smp.backend.mongodb.MongoClientSingleton;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.audit.EAuditActionType;
+import com.helger.photon.audit.IAuditItem;
+
+/**
+ * Test class for class {@link AuditorMongoDB}.
+ *
+ * @author Philip Helger
+ */
+public final class AuditorMongoDBTest
+{
+  private static final String COLLECTION_NAME = "smp-audit-junit";
+
+  @Rule
+  public final SMPServerTestRule m_aRule = new SMPServerTestRule ();
+
+  @Test
+  public void testBatchWriteAndStop ()
+  {
+    MongoClientSingleton.getInstance ().getCollection (COLLECTION_NAME).drop ();
+    try
+    {
+      final AuditorMongoDB aAuditor = new AuditorMongoDB (COLLECTION_NAME, () -> "junit");
+      // The default settings must be used
+      assertTrue (aAuditor.isAsync ());
+      assertEquals (ESMPAuditOverflowPolicy.WRITE_SYNC, aAuditor.getOverflowPolicy ());
+
+      final int nCount = 250;
+      for (int i = 0; i < nCount; ++i)
+        aAuditor.createAuditItem (EAuditActionType.CREATE, ESuccess.SUCCESS, null, "junit", Integer.valueOf (i));
+
+      // Writes everything that is still queued
+      aAuditor.stop ();
+      assertEquals (nCount, aAuditor.getWrittenCount ());
+      assertEquals (0, aAuditor.getFailedCount ());
+      assertEquals (0, aAuditor.getDroppedCount ());
+      assertEquals (0, aAuditor.getQueueSize ());
+
+      final ICommonsList <IAuditItem> aItems = aAuditor.getLastAuditItems (nCount + 10);
+      assertEquals (nCount, aItems.size ());
+      for (final IAuditItem aItem : aItems)
+      {
+        assertEquals ("junit", aItem.getUserID ());
+        assertEquals (EAuditActionType.CREATE, aItem.getType ());
+        assertTrue (aItem.isSuccess ());
+      }
+      assertNotNull (aAuditor.getEarliestAuditDate ());
+
+      // Written synchronously after stop
+      aAuditor.createAuditItem (EAuditActionType.DELETE, ESuccess.FAILURE, null, "junit");
+      assertEquals (nCount + 1, aAuditor.getWrittenCount ());
+      assertEquals (nCount + 1, aAuditor.getLastAuditItems (nCount + 10).size ());
+    }
+    finally
+    {
+      MongoClientSingleton.getInstance ().getCollection (COLLECTION_NAME).drop ();
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2019-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.db.jdbc.executor.DBExecutor;
+import com.helger.phoss.smp.backend.sql.audit.SMPAuditManagerJDBC;
+import com.helger.photon.audit.IAuditManager;
+import com.helger.photon.jdbc.PhotonSecurityManagerFactoryJDBC;
+import com.helger.photon.security.mgr.PhotonSecurityManager;
+import com.helger.photon.security.role.IRoleManager;
+import com.helger.photon.security.token.user.IUserTokenManager;
+import com.helger.photon.security.user.IUserManager;
+import com.helger.photon.security.usergroup.IUserGroupManager;
+
+/**
+ * The SMP specific JDBC factory for the {@link PhotonSecurityManager}. It uses
+ * the {@link SMPAuditManagerJDBC} that writes audit items asynchronously in
+ * batches and takes all other managers from
+ * {@link PhotonSecurityManagerFactoryJDBC}.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public class PhotonSecurityManagerFactorySQL implements PhotonSecurityManager.IFactory
+{
+  private final Supplier <? extends DBExecutor> m_aDBExecSupplier;
+  private final Function <String, String> m_aTableNameCustomizer;
+  private final PhotonSecurityManager.IFactory m_aDelegate;
+
+  public PhotonSecurityManagerFactorySQL (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
+                                          @Nonnull final Function <String, String> aTableNameCustomizer)
+  {
+    ValueEnforcer.notNull (aDBExecSupplier, "DBExecSupplier");
+    ValueEnforcer.notNull (aTableNameCustomizer, "TableNameCustomizer");
+    m_aDBExecSupplier = aDBExecSupplier;
+    m_aTableNameCustomizer = aTableNameCustomizer;
+    m_aDelegate = new PhotonSecurityManagerFactoryJDBC (aDBExecSupplier, aTableNameCustomizer);
+  }
+
+  @Nonnull
+  public IAuditManager createAuditManager () throws Exception
+  {
+    return new SMPAuditManagerJDBC (m_aDBExecSupplier, m_aTableNameCustomizer);
+  }
+
+  @Nonnull
+  public IUserManager createUserMgr () throws Exception
+  {
+    return m_aDelegate.createUserMgr ();
+  }
+
+  @Nonnull
+  public IRoleManager createRoleMgr () throws Exception
+  {
+    return m_aDelegate.createRoleMgr ();
+  }
+
+  @Nonnull
+  public IUserGroupManager createUserGroupMgr (@Nonnull final IUserManager aUserMgr,
+                                               @Nonnull final IRoleManager aRoleMgr) throws Exception
+  {
+    return m_aDelegate.createUserGroupMgr (aUserMgr, aRoleMgr);
+  }
+
+  @Nonnull
+  public IUserTokenManager createUserTokenMgr (@Nonnull final IUserManager aUserMgr) throws Exception
+  {
+    return m_aDelegate.createUserTokenMgr (aUserMgr);
+  }
+
+  /**
+   * Install this factory in the {@link PhotonSecurityManager}.
+   *
+   * @param aDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects. May not be
+   *        <code>null</code>.
+   * @param aTableNameCustomizer
+   *        A customizer for table names. May not be <code>null</code>.
+   */
+  public static void install (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
+                              @Nonnull final Function <String, String> aTableNameCustomizer)
+  {
+    PhotonSecurityManager.setFactory (new PhotonSecurityManagerFactorySQL (aDBExecSupplier, aTableNameCustomizer));
+  }
+}
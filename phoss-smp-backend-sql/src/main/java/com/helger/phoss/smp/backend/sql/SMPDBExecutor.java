@@ -47,7 +47,7 @@ public final class SMPDBExecutor extends DBExecutor
 
   public SMPDBExecutor ()
   {
-    super (SMPDataSourceSingleton.getInstance ().getDataSourceProvider ());
+    super (SMPDataSourceSingleton.getInstance ().getDataSourceProvider ().getExecutorDataSourceProvider ());
 
     // This is ONLY for debugging
     setDebugConnections (SMPJDBCConfiguration.isJdbcDebugConnections ());
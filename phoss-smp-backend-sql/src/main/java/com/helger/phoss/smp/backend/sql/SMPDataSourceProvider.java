@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.sql.SQLException;
 
 import javax.annotation.Nonnull;
+import javax.sql.DataSource;
 
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.slf4j.Logger;
@@ -38,6 +39,7 @@ public final class SMPDataSourceProvider implements IHasDataSource, Closeable
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPDataSourceProvider.class);
   private final BasicDataSource m_aDataSource;
+  private final IHasDataSource m_aStatisticsDataSourceProvider;
 
   SMPDataSourceProvider ()
   {
@@ -59,6 +61,15 @@ public final class SMPDataSourceProvider implements IHasDataSource, Closeable
     m_aDataSource.setPoolPreparedStatements (true);
 
     LOGGER.info ("Created new DataSource " + m_aDataSource);
+
+    if (SMPJDBCConfiguration.isJdbcStatisticsEnabled ())
+    {
+      final DataSource aStatisticsDataSource = SMPStatisticsDataSourceFactory.createDataSource (m_aDataSource);
+      m_aStatisticsDataSourceProvider = () -> aStatisticsDataSource;
+      LOGGER.info ("Collecting the execution statistics of all SQL statements");
+    }
+    else
+      m_aStatisticsDataSourceProvider = null;
   }
 
   @Nonnull
@@ -67,6 +78,19 @@ public final class SMPDataSourceProvider implements IHasDataSource, Closeable
     return m_aDataSource;
   }
 
+  /**
+   * @return The data source provider to be used by the DB executor. If the
+   *         statement statistics are enabled, this is a wrapper around
+   *         {@link #getDataSource()} that collects the statistics, otherwise
+   *         it is this object. Never <code>null</code>.
+   * @since 7.1.1
+   */
+  @Nonnull
+  public IHasDataSource getExecutorDataSourceProvider ()
+  {
+    return m_aStatisticsDataSourceProvider != null ? m_aStatisticsDataSourceProvider : this;
+  }
+
   public void close () throws IOException
   {
     try
@@ -16,9 +16,11 @@
  */
 package com.helger.phoss.smp.backend.sql;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 
+import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.UsedViaReflection;
 import com.helger.commons.io.stream.StreamHelper;
 import com.helger.commons.string.StringHelper;
@@ -60,6 +62,38 @@ public final class SMPDataSourceSingleton extends AbstractGlobalSingleton
     return DB_TYPE;
   }
 
+  /**
+   * Get the database specific SQL clause to restrict the number of result
+   * rows. It must be appended after the ORDER BY clause.
+   *
+   * @param nOffset
+   *        The number of rows to skip. Must be &ge; 0.
+   * @param nMaxCount
+   *        The maximum number of rows to return. Must be &gt; 0.
+   * @return The SQL clause including a leading blank. Never <code>null</code>.
+   * @throws IllegalStateException
+   *         If the database type is not supported
+   * @since 7.1.1
+   */
+  @Nonnull
+  public static String getLimitClause (@Nonnegative final long nOffset, @Nonnegative final long nMaxCount)
+  {
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+    switch (DB_TYPE)
+    {
+      case MYSQL:
+      case POSTGRESQL:
+        return " LIMIT " + nMaxCount + (nOffset > 0 ? " OFFSET " + nOffset : "");
+      case ORACLE:
+      case DB2:
+        return nOffset > 0 ? " OFFSET " + nOffset + " ROWS FETCH NEXT " + nMaxCount + " ROWS ONLY"
+                           : " FETCH FIRST " + nMaxCount + " ROWS ONLY";
+      default:
+        throw new IllegalStateException ("Unsupported database type " + DB_TYPE);
+    }
+  }
+
   private final SMPDataSourceProvider m_aDSP = new SMPDataSourceProvider ();
 
   /**
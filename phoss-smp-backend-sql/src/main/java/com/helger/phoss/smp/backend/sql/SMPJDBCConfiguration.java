@@ -66,6 +66,10 @@ public final class SMPJDBCConfiguration
   private static final String CONFIG_JDBC_DEBUG_SQL = "jdbc.debug.sql";
   private static final boolean DEFAULT_JDBC_DEBUG_SQL = false;
 
+  @Since ("7.1.1")
+  private static final String CONFIG_JDBC_STATISTICS_ENABLED = "jdbc.statistics.enabled";
+  private static final boolean DEFAULT_JDBC_STATISTICS_ENABLED = false;
+
   private static final String CONFIG_SMP_STATUS_SQL_ENABLED = "smp.status.sql.enabled";
   private static final boolean DEFAULT_SMP_STATUS_SQL_ENABLED = true;
 
@@ -154,6 +158,16 @@ public final class SMPJDBCConfiguration
     return _getConfig ().getAsBoolean (CONFIG_JDBC_DEBUG_SQL, DEFAULT_JDBC_DEBUG_SQL);
   }
 
+  /**
+   * @return <code>true</code> if the execution statistics of all SQL
+   *         statements should be collected.
+   * @since 7.1.1
+   */
+  public static boolean isJdbcStatisticsEnabled ()
+  {
+    return _getConfig ().getAsBoolean (CONFIG_JDBC_STATISTICS_ENABLED, DEFAULT_JDBC_STATISTICS_ENABLED);
+  }
+
   public static boolean isStatusEnabled ()
   {
     return _getConfig ().getAsBoolean (CONFIG_SMP_STATUS_SQL_ENABLED, DEFAULT_SMP_STATUS_SQL_ENABLED);
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2019-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.sql.DataSource;
+
+import com.helger.phoss.smp.statistics.SMPStatementStatistics;
+
+/**
+ * Creates a wrapper around a {@link DataSource} that records the execution
+ * duration and the row counts of all SQL statements as well as the connection
+ * acquisition time in {@link SMPStatementStatistics}. The wrapping is done with
+ * dynamic proxies of the JDBC interfaces, so that it works independent of the
+ * JDBC driver and the connection pool.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+final class SMPStatisticsDataSourceFactory
+{
+  private static final Pattern PATTERN_WHITESPACES = Pattern.compile ("\\s+");
+
+  private SMPStatisticsDataSourceFactory ()
+  {}
+
+  @Nonnull
+  static String getStatementKey (@Nonnull final String sSQL)
+  {
+    return PATTERN_WHITESPACES.matcher (sSQL.trim ()).replaceAll (" ");
+  }
+
+  @Nullable
+  private static Object _invoke (@Nonnull final Object aTarget,
+                                 @Nonnull final Method aMethod,
+                                 @Nullable final Object [] aArgs) throws Throwable
+  {
+    try
+    {
+      return aMethod.invoke (aTarget, aArgs);
+    }
+    catch (final InvocationTargetException ex)
+    {
+      // Throw the original exception
+      throw ex.getCause ();
+    }
+  }
+
+  @Nonnull
+  private static Object _wrap (@Nonnull final Class <?> aInterface,
+                               @Nonnull final InvocationHandler aHandler)
+  {
+    return Proxy.newProxyInstance (SMPStatisticsDataSourceFactory.class.getClassLoader (),
+                                   new Class <?> [] { aInterface },
+                                   aHandler);
+  }
+
+  private static long _getRowCount (@Nullable final Object aResult)
+  {
+    if (aResult instanceof Integer || aResult instanceof Long)
+      return Math.max (((Number) aResult).longValue (), 0);
+    long ret = 0;
+    if (aResult instanceof int [])
+      for (final int n : (int []) aResult)
+        ret += Math.max (n, 0);
+    else
+      if (aResult instanceof long [])
+        for (final long n : (long []) aResult)
+          ret += Math.max (n, 0);
+    return ret;
+  }
+
+  private static final class ResultSetHandler implements InvocationHandler
+  {
+    private final ResultSet m_aResultSet;
+    private final String m_sKey;
+    private long m_nRows = 0;
+    private boolean m_bClosed = false;
+
+    ResultSetHandler (@Nonnull final ResultSet aResultSet, @Nonnull final String sKey)
+    {
+      m_aResultSet = aResultSet;
+      m_sKey = sKey;
+    }
+
+    public Object invoke (final Object aProxy, final Method aMethod, final Object [] aArgs) throws Throwable
+    {
+      final Object ret = _invoke (m_aResultSet, aMethod, aArgs);
+      switch (aMethod.getName ())
+      {
+        case "next":
+          if (Boolean.TRUE.equals (ret))
+            m_nRows++;
+          break;
+        case "close":
+          if (!m_bClosed)
+          {
+            m_bClosed = true;
+            SMPStatementStatistics.addRows (m_sKey, m_nRows);
+          }
+          break;
+      }
+      return ret;
+    }
+  }
+
+  private static final class StatementHandler implements InvocationHandler
+  {
+    private final Statement m_aStatement;
+    private final String m_sPreparedSQL;
+    private String m_sLastKey;
+
+    StatementHandler (@Nonnull final Statement aStatement, @Nullable final String sPreparedSQL)
+    {
+      m_aStatement = aStatement;
+      m_sPreparedSQL = sPreparedSQL;
+    }
+
+    public Object invoke (final Object aProxy, final Method aMethod, final Object [] aArgs) throws Throwable
+    {
+      final String sName = aMethod.getName ();
+      if ("getResultSet".equals (sName) && m_sLastKey != null)
+      {
+        final Object ret = _invoke (m_aStatement, aMethod, aArgs);
+        return ret == null ? null : _wrap (ResultSet.class, new ResultSetHandler ((ResultSet) ret, m_sLastKey));
+      }
+
+      if (!sName.startsWith ("execute"))
+        return _invoke (m_aStatement, aMethod, aArgs);
+
+      // The SQL is either passed as the first parameter or was prepared
+      final String sSQL = aArgs != null && aArgs.length > 0 && aArgs[0] instanceof String ? (String) aArgs[0]
+                                                                                           : m_sPreparedSQL;
+      if (sSQL == null)
+      {
+        // E.g. batch of a non-prepared statement
+        return _invoke (m_aStatement, aMethod, aArgs);
+      }
+
+      final String sKey = getStatementKey (sSQL);
+      m_sLastKey = sKey;
+      final long nStart = System.nanoTime ();
+      boolean bError = true;
+      long nRows = 0;
+      try
+      {
+        final Object ret = _invoke (m_aStatement, aMethod, aArgs);
+        bError = false;
+        if (ret instanceof ResultSet)
+          return _wrap (ResultSet.class, new ResultSetHandler ((ResultSet) ret, sKey));
+        nRows = _getRowCount (ret);
+        return ret;
+      }
+      finally
+      {
+        SMPStatementStatistics.recordExecution (sKey, System.nanoTime () - nStart, nRows, bError);
+      }
+    }
+  }
+
+  private static final class ConnectionHandler implements InvocationHandler
+  {
+    private final Connection m_aConnection;
+
+    ConnectionHandler (@Nonnull final Connection aConnection)
+    {
+      m_aConnection = aConnection;
+    }
+
+    public Object invoke (final Object aProxy, final Method aMethod, final Object [] aArgs) throws Throwable
+    {
+      final Object ret = _invoke (m_aConnection, aMethod, aArgs);
+      if (ret instanceof Statement)
+      {
+        // createStatement, prepareStatement or prepareCall
+        final String sName = aMethod.getName ();
+        final String sPreparedSQL = "prepareStatement".equals (sName) || "prepareCall".equals (sName) ? (String) aArgs[0]
+                                                                                                      : null;
+        return _wrap (aMethod.getReturnType (), new StatementHandler ((Statement) ret, sPreparedSQL));
+      }
+      return ret;
+    }
+  }
+
+  private static final class DataSourceHandler implements InvocationHandler
+  {
+    private final DataSource m_aDataSource;
+
+    DataSourceHandler (@Nonnull final DataSource aDataSource)
+    {
+      m_aDataSource = aDataSource;
+    }
+
+    public Object invoke (final Object aProxy, final Method aMethod, final Object [] aArgs) throws Throwable
+    {
+      if (!"getConnection".equals (aMethod.getName ()))
+        return _invoke (m_aDataSource, aMethod, aArgs);
+
+      final long nStart = System.nanoTime ();
+      final Connection aConnection = (Connection) _invoke (m_aDataSource, aMethod, aArgs);
+      SMPStatementStatistics.recordConnectionAcquire (System.nanoTime () - nStart);
+      return aConnection == null ? null : _wrap (Connection.class, new ConnectionHandler (aConnection));
+    }
+  }
+
+  /**
+   * Create a new statistics collecting wrapper around the provided data
+   * source.
+   *
+   * @param aDataSource
+   *        The data source to be wrapped. May not be <code>null</code>.
+   * @return The wrapping data source. Never <code>null</code>.
+   */
+  @Nonnull
+  static DataSource createDataSource (@Nonnull final DataSource aDataSource)
+  {
+    return (DataSource) _wrap (DataSource.class, new DataSourceHandler (aDataSource));
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2019-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.audit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.ESuccess;
+import com.helger.db.api.helper.DBValueHelper;
+import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
+import com.helger.db.jdbc.executor.DBExecutor;
+import com.helger.db.jdbc.executor.DBResultRow;
+import com.helger.phoss.smp.audit.AbstractSMPAsyncAuditor;
+import com.helger.phoss.smp.backend.sql.EDatabaseType;
+import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
+import com.helger.photon.audit.AuditItem;
+import com.helger.photon.audit.EAuditActionType;
+import com.helger.photon.audit.IAuditItem;
+import com.helger.photon.audit.IAuditor;
+import com.helger.security.authentication.subject.user.ICurrentUserIDProvider;
+
+/**
+ * A special implementation of {@link IAuditor} writing data to the
+ * <code>smp_audit</code> table. The audit items are written asynchronously and
+ * all items of a batch are inserted in a single transaction. Except for Oracle,
+ * a single multi-row INSERT statement is used per batch.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public class SMPAuditorJDBC extends AbstractSMPAsyncAuditor
+{
+  private static final int COLUMNS_PER_ROW = 5;
+  // Upper limit of rows per statement, to stay below the maximum number of
+  // parameters of all databases
+  private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+  private final Supplier <? extends DBExecutor> m_aDBExecSupplier;
+  private final String m_sTableName;
+
+  /**
+   * Constructor
+   *
+   * @param aDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects. May not be
+   *        <code>null</code>.
+   * @param aTableNameCustomizer
+   *        A customizer for table names used by this class. May not be
+   *        <code>null</code>.
+   * @param aCurrentUserIDProvider
+   *        The current user ID provider. May not be <code>null</code>.
+   */
+  public SMPAuditorJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
+                         @Nonnull final Function <String, String> aTableNameCustomizer,
+                         @Nonnull final ICurrentUserIDProvider aCurrentUserIDProvider)
+  {
+    super (aCurrentUserIDProvider, "smp-audit-jdbc");
+    ValueEnforcer.notNull (aDBExecSupplier, "DBExecSupplier");
+    ValueEnforcer.notNull (aTableNameCustomizer, "TableNameCustomizer");
+    m_aDBExecSupplier = aDBExecSupplier;
+    m_sTableName = aTableNameCustomizer.apply ("audit");
+  }
+
+  private static void _addValues (@Nonnull final IAuditItem aItem, @Nonnull final ICommonsList <Object> aValues)
+  {
+    aValues.add (DBValueHelper.toTimestamp (aItem.getDateTime ()));
+    aValues.add (DBValueHelper.getTrimmedToLength (aItem.getUserID (), 20));
+    aValues.add (DBValueHelper.getTrimmedToLength (aItem.getTypeID (), 10));
+    aValues.add (Boolean.valueOf (aItem.isSuccess ()));
+    aValues.add (aItem.getAction ());
+  }
+
+  private void _insert (@Nonnull final DBExecutor aExecutor, @Nonnull @Nonempty final ICommonsList <IAuditItem> aItems)
+  {
+    final StringBuilder aSQL = new StringBuilder ("INSERT INTO ").append (m_sTableName)
+                                                                  .append (" (dt, userid, actiontype, success, action) VALUES ");
+    final ICommonsList <Object> aValues = new CommonsArrayList <> (aItems.size () * COLUMNS_PER_ROW);
+    for (final IAuditItem aItem : aItems)
+    {
+      if (aValues.isNotEmpty ())
+        aSQL.append (", ");
+      aSQL.append ("(?, ?, ?, ?, ?)");
+      _addValues (aItem, aValues);
+    }
+
+    final long nCreated = aExecutor.insertOrUpdateOrDelete (aSQL.toString (),
+                                                            new ConstantPreparedStatementDataProvider (aValues.toArray ()));
+    if (nCreated != aItems.size ())
+      throw new IllegalStateException ("Failed to create new DB entries (" + nCreated + "/" + aItems.size () + ")");
+  }
+
+  @Override
+  @Nonnegative
+  protected int writeAuditItems (@Nonnull @Nonempty final ICommonsList <IAuditItem> aItems)
+  {
+    final boolean bMultiRow = SMPDataSourceSingleton.getDatabaseType () != EDatabaseType.ORACLE;
+    final DBExecutor aExecutor = m_aDBExecSupplier.get ();
+    final ESuccess eSuccess = aExecutor.performInTransaction ( () -> {
+      if (bMultiRow)
+      {
+        for (int nStart = 0; nStart < aItems.size (); nStart += MAX_ROWS_PER_STATEMENT)
+          _insert (aExecutor,
+                   new CommonsArrayList <> (aItems.subList (nStart,
+                                                            Math.min (nStart + MAX_ROWS_PER_STATEMENT, aItems.size ()))));
+      }
+      else
+      {
+        // Oracle doesn't support multiple rows in VALUES
+        for (final IAuditItem aItem : aItems)
+          _insert (aExecutor, new CommonsArrayList <> (aItem));
+      }
+    });
+    if (eSuccess.isFailure ())
+      throw new IllegalStateException ("Failed to write " + aItems.size () + " audit item(s) to the database");
+    // All or nothing because of the transaction
+    return aItems.size ();
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IAuditItem> getLastAuditItems (@Nonnegative final int nMaxItems)
+  {
+    ValueEnforcer.isGT0 (nMaxItems, "MaxItems");
+
+    final ICommonsList <IAuditItem> ret = new CommonsArrayList <> ();
+    final ICommonsList <DBResultRow> aDBResult = m_aDBExecSupplier.get ()
+                                                                  .queryAll ("SELECT dt, userid, actiontype, success, action FROM " +
+                                                                             m_sTableName +
+                                                                             " ORDER BY id DESC" +
+                                                                             SMPDataSourceSingleton.getLimitClause (0, nMaxItems));
+    if (aDBResult != null)
+      for (final DBResultRow aRow : aDBResult)
+        ret.add (new AuditItem (aRow.getAsLocalDateTime (0),
+                                aRow.getAsString (1),
+                                EAuditActionType.getFromIDOrNull (aRow.getAsString (2)),
+                                ESuccess.valueOf (aRow.getAsBoolean (3)),
+                                aRow.getAsString (4)));
+    return ret;
+  }
+
+  @Nullable
+  public LocalDate getEarliestAuditDate ()
+  {
+    final ICommonsList <DBResultRow> aDBResult = m_aDBExecSupplier.get ()
+                                                                  .queryAll ("SELECT MIN(dt) FROM " + m_sTableName);
+    if (aDBResult != null && aDBResult.isNotEmpty ())
+    {
+      final LocalDateTime aLDT = aDBResult.getFirst ().getAsLocalDateTime (0);
+      if (aLDT != null)
+        return aLDT.toLocalDate ();
+    }
+    return null;
+  }
+}
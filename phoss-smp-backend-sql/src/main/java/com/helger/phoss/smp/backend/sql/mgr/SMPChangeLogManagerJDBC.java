@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2019-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.mgr;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.mutable.MutableLong;
+import com.helger.commons.state.ESuccess;
+import com.helger.db.api.helper.DBValueHelper;
+import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
+import com.helger.db.jdbc.executor.DBExecutor;
+import com.helger.db.jdbc.mgr.AbstractJDBCEnabledManager;
+import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
+import com.helger.phoss.smp.domain.changelog.ESMPChangeLogAction;
+import com.helger.phoss.smp.domain.changelog.ESMPChangeLogObjectType;
+import com.helger.phoss.smp.domain.changelog.ISMPChangeLogManager;
+import com.helger.phoss.smp.domain.changelog.SMPChangeLogEntry;
+
+/**
+ * Implementation of {@link ISMPChangeLogManager} for JDBC. The next sequence
+ * number is determined inside the inserting transaction. Appends of this
+ * instance are serialized, and if another instance sharing the same database
+ * used the same sequence number, the primary key constraint fails and the
+ * append is retried.<br>
+ * Every {@link #PRUNE_INTERVAL} sequence numbers, all but the last
+ * {@link #MAX_ENTRIES} entries are deleted.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public class SMPChangeLogManagerJDBC extends AbstractJDBCEnabledManager implements ISMPChangeLogManager
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPChangeLogManagerJDBC.class);
+  private static final int MAX_APPEND_TRIES = 5;
+  /** Delete the old entries every this many appended entries */
+  public static final int PRUNE_INTERVAL = 1_000;
+
+  private final Lock m_aAppendLock = new ReentrantLock ();
+
+  /**
+   * Constructor
+   *
+   * @param aDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects. May not be
+   *        <code>null</code>.
+   */
+  public SMPChangeLogManagerJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier)
+  {
+    super (aDBExecSupplier);
+  }
+
+  private static long _getLastSequence (@Nonnull final DBExecutor aExecutor)
+  {
+    // queryCount returns the first column of the single result row
+    final long ret = aExecutor.queryCount ("SELECT COALESCE(MAX(seq), 0) FROM smp_changelog");
+    if (ret < 0)
+      throw new IllegalStateException ("Failed to determine the last change log sequence number");
+    return ret;
+  }
+
+  private void _deleteOldEntries (final long nLastSequence)
+  {
+    final long nMaxDeleteSequence = nLastSequence - MAX_ENTRIES;
+    if (nMaxDeleteSequence > 0)
+    {
+      // Errors are logged by the executor and the next try happens with the
+      // next interval
+      final long nDeleted = newExecutor ().insertOrUpdateOrDelete ("DELETE FROM smp_changelog WHERE seq<=?",
+                                                                   new ConstantPreparedStatementDataProvider (Long.valueOf (nMaxDeleteSequence)));
+      if (nDeleted > 0 && LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Deleted " + nDeleted + " old change log entries");
+    }
+  }
+
+  @Nonnull
+  public SMPChangeLogEntry appendChange (@Nonnull final ESMPChangeLogObjectType eObjectType,
+                                        @Nonnull final ESMPChangeLogAction eAction,
+                                        @Nonnull @Nonempty final String sParticipantID,
+                                        @Nullable final String sObjectID)
+  {
+    ValueEnforcer.notNull (eObjectType, "ObjectType");
+    ValueEnforcer.notNull (eAction, "Action");
+    ValueEnforcer.notEmpty (sParticipantID, "ParticipantID");
+
+    final LocalDateTime aNow = PDTFactory.getCurrentLocalDateTime ();
+    m_aAppendLock.lock ();
+    try
+    {
+      for (int nTry = 1; nTry <= MAX_APPEND_TRIES; ++nTry)
+      {
+        final MutableLong aSequence = new MutableLong (0);
+        final DBExecutor aExecutor = newExecutor ();
+        final ESuccess eSuccess = aExecutor.performInTransaction ( () -> {
+          aSequence.set (_getLastSequence (aExecutor) + 1);
+          final long nCreated = aExecutor.insertOrUpdateOrDelete ("INSERT INTO smp_changelog (seq, changedt, objtype, action, pid, objid)" +
+                                                                  " VALUES (?, ?, ?, ?, ?, ?)",
+                                                                  new ConstantPreparedStatementDataProvider (Long.valueOf (aSequence.longValue ()),
+                                                                                                             DBValueHelper.toTimestamp (aNow),
+                                                                                                             eObjectType.getID (),
+                                                                                                             eAction.getID (),
+                                                                                                             sParticipantID,
+                                                                                                             sObjectID));
+          if (nCreated != 1)
+            throw new IllegalStateException ("Failed to create new DB entry (" + nCreated + ")");
+        });
+        if (eSuccess.isSuccess ())
+        {
+          if (aSequence.longValue () % PRUNE_INTERVAL == 0)
+            _deleteOldEntries (aSequence.longValue ());
+          return new SMPChangeLogEntry (aSequence.longValue (),
+                                        aNow,
+                                        eObjectType,
+                                        eAction,
+                                        sParticipantID,
+                                        sObjectID);
+        }
+
+        // Most likely another instance used the same sequence number
+        LOGGER.warn ("Failed to append change log entry " + aSequence.longValue () + " in try " + nTry);
+      }
+    }
+    finally
+    {
+      m_aAppendLock.unlock ();
+    }
+    throw new IllegalStateException ("Failed to append change log entry after " + MAX_APPEND_TRIES + " tries");
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <SMPChangeLogEntry> getAllChangesAfter (@Nonnegative final long nSequence,
+                                                              @Nonnegative final int nMaxCount)
+  {
+    ValueEnforcer.isGE0 (nSequence, "Sequence");
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+
+    final ICommonsList <SMPChangeLogEntry> ret = new CommonsArrayList <> ();
+    newExecutor ().queryAll ("SELECT seq, changedt, objtype, action, pid, objid FROM smp_changelog" +
+                             " WHERE seq>?" +
+                             " ORDER BY seq" +
+                             SMPDataSourceSingleton.getLimitClause (0, nMaxCount),
+                             new ConstantPreparedStatementDataProvider (Long.valueOf (nSequence)),
+                             aRow -> ret.add (new SMPChangeLogEntry (aRow.getAsLong (0),
+                                                                     aRow.getAsLocalDateTime (1),
+                                                                     ESMPChangeLogObjectType.getFromIDOrNull (aRow.getAsString (2)),
+                                                                     ESMPChangeLogAction.getFromIDOrNull (aRow.getAsString (3)),
+                                                                     aRow.getAsString (4),
+                                                                     aRow.getAsString (5))));
+    return ret;
+  }
+
+  @Nonnegative
+  public long getLastSequence ()
+  {
+    return _getLastSequence (newExecutor ());
+  }
+
+  @Nonnegative
+  public long getFirstSequence ()
+  {
+    final long ret = newExecutor ().queryCount ("SELECT COALESCE(MIN(seq), 0) FROM smp_changelog");
+    if (ret < 0)
+      throw new IllegalStateException ("Failed to determine the first change log sequence number");
+    return ret == 0 ? getLastSequence () + 1 : ret;
+  }
+}
@@ -28,6 +28,7 @@ import com.helger.dao.DAOException;
 import com.helger.db.jdbc.executor.DBExecutor;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.backend.sql.EDatabaseType;
+import com.helger.phoss.smp.backend.sql.PhotonSecurityManagerFactorySQL;
 import com.helger.phoss.smp.backend.sql.SMPDBExecutor;
 import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
 import com.helger.phoss.smp.backend.sql.SMPFlywayConfiguration;
@@ -35,6 +36,7 @@ import com.helger.phoss.smp.backend.sql.SMPJDBCConfiguration;
 import com.helger.phoss.smp.domain.ISMPManagerProvider;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.changelog.ISMPChangeLogManager;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -43,7 +45,6 @@ import com.helger.phoss.smp.domain.sml.ISMLInfoManager;
 import com.helger.phoss.smp.domain.sml.SMLInfoManagerXML;
 import com.helger.phoss.smp.domain.transportprofile.ISMPTransportProfileManager;
 import com.helger.phoss.smp.settings.ISMPSettingsManager;
-import com.helger.photon.jdbc.PhotonSecurityManagerFactoryJDBC;
 
 /**
  * A JDBC based implementation of the {@link ISMPManagerProvider} interface.
@@ -69,7 +70,7 @@ public final class SMPManagerProviderSQL implements ISMPManagerProvider
   {
     // Set the special PhotonSecurityManager factory
     // Must be before Flyway, so that auditing of Flyway actions (may) work
-    PhotonSecurityManagerFactoryJDBC.install (SMPDBExecutor::new, SMPDBExecutor.TABLE_NAME_CUSTOMIZER);
+    PhotonSecurityManagerFactorySQL.install (SMPDBExecutor::new, SMPDBExecutor.TABLE_NAME_CUSTOMIZER);
 
     // Flyway migration is enabled by default
     if (SMPFlywayConfiguration.isFlywayEnabled ())
@@ -156,6 +157,12 @@ public final class SMPManagerProviderSQL implements ISMPManagerProvider
     return new SMPBusinessCardManagerJDBC (SMPDBExecutor::new);
   }
 
+  @Nonnull
+  public ISMPChangeLogManager createChangeLogMgr ()
+  {
+    return new SMPChangeLogManagerJDBC (SMPDBExecutor::new);
+  }
+
   @Override
   public String toString ()
   {
@@ -24,6 +24,8 @@ import javax.annotation.Nullable;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.annotation.ReturnsMutableObject;
+import com.helger.commons.callback.CallbackList;
 import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.mutable.MutableLong;
@@ -41,6 +43,7 @@ import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.pmigration.EParticipantMigrationDirection;
 import com.helger.phoss.smp.domain.pmigration.EParticipantMigrationState;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigration;
+import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationCallback;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.pmigration.SMPParticipantMigration;
 import com.helger.photon.audit.AuditHelper;
@@ -54,6 +57,8 @@ import com.helger.photon.audit.AuditHelper;
 public class SMPParticipantMigrationManagerJDBC extends AbstractJDBCEnabledManager implements
                                                 ISMPParticipantMigrationManager
 {
+  private final CallbackList <ISMPParticipantMigrationCallback> m_aCallbacks = new CallbackList <> ();
+
   /**
    * Constructor
    *
@@ -66,6 +71,13 @@ public class SMPParticipantMigrationManagerJDBC extends AbstractJDBCEnabledManag
     super (aDBExecSupplier);
   }
 
+  @Nonnull
+  @ReturnsMutableObject
+  public CallbackList <ISMPParticipantMigrationCallback> participantMigrationCallbacks ()
+  {
+    return m_aCallbacks;
+  }
+
   @Nullable
   private ISMPParticipantMigration _createParticipantMigration (@Nonnull final SMPParticipantMigration aSMPParticipantMigration)
   {
@@ -103,6 +115,7 @@ public class SMPParticipantMigrationManagerJDBC extends AbstractJDBCEnabledManag
                                       aSMPParticipantMigration.getParticipantIdentifier ().getURIEncoded (),
                                       aSMPParticipantMigration.getInitiationDateTime (),
                                       aSMPParticipantMigration.getMigrationKey ());
+    m_aCallbacks.forEach (x -> x.onSMPParticipantMigrationCreated (aSMPParticipantMigration));
     return aSMPParticipantMigration;
   }
 
@@ -130,6 +143,9 @@ public class SMPParticipantMigrationManagerJDBC extends AbstractJDBCEnabledManag
     if (StringHelper.hasNoText (sParticipantMigrationID))
       return EChange.UNCHANGED;
 
+    // Remember for the callbacks
+    final ISMPParticipantMigration aParticipantMigration = getParticipantMigrationOfID (sParticipantMigrationID);
+
     final long nDeleted = newExecutor ().insertOrUpdateOrDelete ("DELETE FROM smp_pmigration" + " WHERE id=?",
                                                                  new ConstantPreparedStatementDataProvider (sParticipantMigrationID));
     if (nDeleted == 0)
@@ -139,14 +155,37 @@ public class SMPParticipantMigrationManagerJDBC extends AbstractJDBCEnabledManag
     }
 
     AuditHelper.onAuditDeleteSuccess (SMPParticipantMigration.OT, sParticipantMigrationID);
+    if (aParticipantMigration != null)
+      m_aCallbacks.forEach (x -> x.onSMPParticipantMigrationDeleted (aParticipantMigration));
     return EChange.CHANGED;
   }
 
+  @Nonnull
+  @ReturnsMutableCopy
+  private ICommonsList <ISMPParticipantMigration> _getAllParticipantMigrationsOfParticipant (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    final ICommonsList <ISMPParticipantMigration> ret = new CommonsArrayList <> ();
+    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT id, direction, state, initdt, migkey FROM smp_pmigration WHERE pid=?",
+                                                                          new ConstantPreparedStatementDataProvider (aParticipantID.getURIEncoded ()));
+    if (aDBResult != null)
+      for (final DBResultRow aRow : aDBResult)
+        ret.add (new SMPParticipantMigration (aRow.getAsString (0),
+                                              EParticipantMigrationDirection.getFromIDOrNull (aRow.getAsString (1)),
+                                              EParticipantMigrationState.getFromIDOrNull (aRow.getAsString (2)),
+                                              aParticipantID,
+                                              aRow.getAsLocalDateTime (3),
+                                              aRow.getAsString (4)));
+    return ret;
+  }
+
   @Nonnull
   public EChange deleteAllParticipantMigrationsOfParticipant (@Nonnull final IParticipantIdentifier aParticipantID)
   {
     ValueEnforcer.notNull (aParticipantID, "ParticipantID");
 
+    // Remember for the callbacks
+    final ICommonsList <ISMPParticipantMigration> aDeleted = _getAllParticipantMigrationsOfParticipant (aParticipantID);
+
     final long nDeleted = newExecutor ().insertOrUpdateOrDelete ("DELETE FROM smp_pmigration" + " WHERE pid=?",
                                                                  new ConstantPreparedStatementDataProvider (aParticipantID.getURIEncoded ()));
     if (nDeleted == 0)
@@ -158,6 +197,8 @@ public class SMPParticipantMigrationManagerJDBC extends AbstractJDBCEnabledManag
     }
 
     AuditHelper.onAuditDeleteSuccess (SMPParticipantMigration.OT, aParticipantID.getURIEncoded ());
+    for (final ISMPParticipantMigration aParticipantMigration : aDeleted)
+      m_aCallbacks.forEach (x -> x.onSMPParticipantMigrationDeleted (aParticipantMigration));
     return EChange.CHANGED;
   }
 
@@ -202,6 +243,9 @@ public class SMPParticipantMigrationManagerJDBC extends AbstractJDBCEnabledManag
                                       "set-migration-state",
                                       sParticipantMigrationID,
                                       eNewState);
+    final ISMPParticipantMigration aParticipantMigration = getParticipantMigrationOfID (sParticipantMigrationID);
+    if (aParticipantMigration != null)
+      m_aCallbacks.forEach (x -> x.onSMPParticipantMigrationUpdated (aParticipantMigration));
     return EChange.CHANGED;
   }
 
@@ -16,7 +16,9 @@
  */
 package com.helger.phoss.smp.backend.sql.mgr;
 
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import javax.annotation.CheckForSigned;
@@ -36,6 +38,7 @@ import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.CommonsHashSet;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.compare.ESortOrder;
 import com.helger.commons.equals.EqualsHelper;
 import com.helger.commons.mutable.MutableBoolean;
 import com.helger.commons.state.EChange;
@@ -49,6 +52,7 @@ import com.helger.db.jdbc.mgr.AbstractJDBCEnabledManager;
 import com.helger.peppolid.CIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
+import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupCallback;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -450,6 +454,149 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     return ret;
   }
 
+  @Override
+  public void forEachSMPServiceGroupOfOwner (@Nonnull final String sOwnerID,
+                                             @Nullable final IParticipantIdentifier aAfterID,
+                                             @Nonnegative final long nOffset,
+                                             @Nonnegative final long nMaxCount,
+                                             @Nonnull final Consumer <? super ISMPServiceGroup> aConsumer)
+  {
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("forEachSMPServiceGroupOfOwner(" +
+                    sOwnerID +
+                    ", " +
+                    (aAfterID == null ? "null" : aAfterID.getURIEncoded ()) +
+                    ", " +
+                    nOffset +
+                    ", " +
+                    nMaxCount +
+                    ")");
+
+    // Keyset paging on the primary key - the offset is applied on top
+    final StringBuilder aSQL = new StringBuilder ("SELECT sg.businessIdentifierScheme, sg.businessIdentifier, sg.extension" +
+                                                  " FROM smp_service_group sg, smp_ownership so" +
+                                                  " WHERE so.username=?" +
+                                                  " AND so.businessIdentifierScheme=sg.businessIdentifierScheme AND so.businessIdentifier=sg.businessIdentifier");
+    final ConstantPreparedStatementDataProvider aPSDP;
+    if (aAfterID != null)
+    {
+      aSQL.append (" AND (sg.businessIdentifierScheme>? OR (sg.businessIdentifierScheme=? AND sg.businessIdentifier>?))");
+      aPSDP = new ConstantPreparedStatementDataProvider (sOwnerID,
+                                                         aAfterID.getScheme (),
+                                                         aAfterID.getScheme (),
+                                                         aAfterID.getValue ());
+    }
+    else
+      aPSDP = new ConstantPreparedStatementDataProvider (sOwnerID);
+    aSQL.append (" ORDER BY sg.businessIdentifierScheme, sg.businessIdentifier");
+    aSQL.append (SMPDataSourceSingleton.getLimitClause (nOffset, nMaxCount));
+
+    newExecutor ().queryAll (aSQL.toString (),
+                             aPSDP,
+                             aRow -> aConsumer.accept (new SMPServiceGroup (sOwnerID,
+                                                                            new SimpleParticipantIdentifier (aRow.getAsString (0),
+                                                                                                             aRow.getAsString (1)),
+                                                                            aRow.getAsString (2))));
+  }
+
+  /**
+   * Create the SQL condition and the parameters to filter service groups by
+   * the URI encoded participant identifier or owner.
+   *
+   * @param sFilterText
+   *        The filter text. May neither be <code>null</code> nor empty.
+   * @param aParams
+   *        The list of SQL parameters to be extended. May not be
+   *        <code>null</code>.
+   * @return The SQL condition to be added.
+   */
+  @Nonnull
+  private static String _getFilterCondition (@Nonnull @Nonempty final String sFilterText,
+                                             @Nonnull final ICommonsList <Object> aParams)
+  {
+    // Use "!" as the escape character because it is not special in any SQL
+    // dialect
+    final String sLike = "%" +
+                         sFilterText.toLowerCase (Locale.ROOT)
+                                    .replace ("!", "!!")
+                                    .replace ("%", "!%")
+                                    .replace ("_", "!_") +
+                         "%";
+    aParams.add (sLike);
+    aParams.add (sLike);
+    // Match the URI encoded participant identifier ("scheme::value") like the
+    // other backends do. This includes matches in the scheme or value only.
+    // CONCAT with two arguments is the only variant supported by all
+    // databases.
+    return " AND (LOWER(CONCAT(CONCAT(sg.businessIdentifierScheme, '" +
+           CIdentifier.URL_SCHEME_VALUE_SEPARATOR +
+           "'), sg.businessIdentifier)) LIKE ? ESCAPE '!'" +
+           " OR LOWER(so.username) LIKE ? ESCAPE '!')";
+  }
+
+  @Override
+  @Nonnegative
+  public long getSMPServiceGroupCount (@Nullable final String sFilterText)
+  {
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("getSMPServiceGroupCount(" + sFilterText + ")");
+
+    if (StringHelper.hasNoText (sFilterText))
+      return Math.max (getSMPServiceGroupCount (), 0);
+
+    final ICommonsList <Object> aParams = new CommonsArrayList <> ();
+    final String sSQL = "SELECT COUNT(sg.businessIdentifier)" +
+                        " FROM smp_service_group sg, smp_ownership so" +
+                        " WHERE so.businessIdentifierScheme=sg.businessIdentifierScheme AND so.businessIdentifier=sg.businessIdentifier" +
+                        _getFilterCondition (sFilterText, aParams);
+    return Math.max (newExecutor ().queryCount (sSQL, new ConstantPreparedStatementDataProvider (aParams.toArray ())), 0);
+  }
+
+  @Override
+  public void forEachSMPServiceGroup (@Nullable final String sFilterText,
+                                      @Nonnull final ESortOrder eSortOrder,
+                                      @Nonnegative final long nOffset,
+                                      @Nonnegative final long nMaxCount,
+                                      @Nonnull final Consumer <? super ISMPServiceGroup> aConsumer)
+  {
+    ValueEnforcer.notNull (eSortOrder, "SortOrder");
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("forEachSMPServiceGroup(" +
+                    sFilterText +
+                    ", " +
+                    eSortOrder +
+                    ", " +
+                    nOffset +
+                    ", " +
+                    nMaxCount +
+                    ")");
+
+    final ICommonsList <Object> aParams = new CommonsArrayList <> ();
+    final StringBuilder aSQL = new StringBuilder ("SELECT sg.businessIdentifierScheme, sg.businessIdentifier, sg.extension, so.username" +
+                                                  " FROM smp_service_group sg, smp_ownership so" +
+                                                  " WHERE so.businessIdentifierScheme=sg.businessIdentifierScheme AND so.businessIdentifier=sg.businessIdentifier");
+    if (StringHelper.hasText (sFilterText))
+      aSQL.append (_getFilterCondition (sFilterText, aParams));
+    final String sDir = eSortOrder.isAscending () ? "" : " DESC";
+    aSQL.append (" ORDER BY sg.businessIdentifierScheme").append (sDir).append (", sg.businessIdentifier").append (sDir);
+    aSQL.append (SMPDataSourceSingleton.getLimitClause (nOffset, nMaxCount));
+
+    newExecutor ().queryAll (aSQL.toString (),
+                             new ConstantPreparedStatementDataProvider (aParams.toArray ()),
+                             aRow -> aConsumer.accept (new SMPServiceGroup (aRow.getAsString (3),
+                                                                            new SimpleParticipantIdentifier (aRow.getAsString (0),
+                                                                                                             aRow.getAsString (1)),
+                                                                            aRow.getAsString (2))));
+  }
+
   @Nonnegative
   public long getSMPServiceGroupCountOfOwner (@Nonnull final String sOwnerID)
   {
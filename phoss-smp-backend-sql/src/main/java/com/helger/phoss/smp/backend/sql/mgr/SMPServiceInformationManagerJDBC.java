@@ -16,6 +16,7 @@
  */
 package com.helger.phoss.smp.backend.sql.mgr;
 
+import java.util.Locale;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -25,6 +26,7 @@ import javax.annotation.Nullable;
 
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.MustImplementEqualsAndHashcode;
+import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.callback.CallbackList;
@@ -45,22 +47,28 @@ import com.helger.db.jdbc.executor.DBExecutor;
 import com.helger.db.jdbc.executor.DBResultRow;
 import com.helger.db.jdbc.mgr.AbstractJDBCEnabledManager;
 import com.helger.peppol.smp.ISMPTransportProfile;
+import com.helger.peppolid.CIdentifier;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.IProcessIdentifier;
 import com.helger.peppolid.simple.doctype.SimpleDocumentTypeIdentifier;
 import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
 import com.helger.peppolid.simple.process.SimpleProcessIdentifier;
+import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpointConsumer;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationCallback;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
 import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpointFilter;
 import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
 import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformationCount;
 import com.helger.photon.audit.AuditHelper;
 
 /**
@@ -103,6 +111,9 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     }
   }
 
+  // Limit the size of the generated statements
+  private static final int MAX_SERVICE_GROUPS_PER_COUNT_QUERY = 100;
+
   private final ISMPServiceGroupManager m_aServiceGroupMgr;
   private final CallbackList <ISMPServiceInformationCallback> m_aCBs = new CallbackList <> ();
 
@@ -549,6 +560,180 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     return ret;
   }
 
+  private void _countPerServiceGroup (@Nonnull @Nonempty final String sTableName,
+                                      @Nonnull @Nonempty final ICommonsList <IParticipantIdentifier> aPIDs,
+                                      @Nonnull final ICommonsMap <String, int []> aCounts,
+                                      final int nIndex)
+  {
+    final StringBuilder aSQL = new StringBuilder ("SELECT businessIdentifierScheme, businessIdentifier, COUNT(*) FROM ").append (sTableName)
+                                                                                                                      .append (" WHERE ");
+    final Object [] aParams = new Object [aPIDs.size () * 2];
+    int nParamIndex = 0;
+    for (final IParticipantIdentifier aPID : aPIDs)
+    {
+      if (nParamIndex > 0)
+        aSQL.append (" OR ");
+      aSQL.append ("(businessIdentifierScheme=? AND businessIdentifier=?)");
+      aParams[nParamIndex++] = aPID.getScheme ();
+      aParams[nParamIndex++] = aPID.getValue ();
+    }
+    aSQL.append (" GROUP BY businessIdentifierScheme, businessIdentifier");
+
+    newExecutor ().queryAll (aSQL.toString (), new ConstantPreparedStatementDataProvider (aParams), aRow -> {
+      final String sServiceGroupID = SMPServiceGroup.createSMPServiceGroupID (new SimpleParticipantIdentifier (aRow.getAsString (0),
+                                                                                                                 aRow.getAsString (1)));
+      final int [] aCount = aCounts.get (sServiceGroupID);
+      if (aCount != null)
+        aCount[nIndex] = (int) aRow.getAsLong (2);
+    });
+  }
+
+  @Override
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsMap <String, SMPServiceInformationCount> getServiceInformationCountOfServiceGroups (@Nonnull final Iterable <? extends ISMPServiceGroup> aServiceGroups)
+  {
+    ValueEnforcer.notNull (aServiceGroups, "ServiceGroups");
+
+    // Document types, processes, endpoints
+    final ICommonsMap <String, int []> aCounts = new CommonsHashMap <> ();
+    final ICommonsList <IParticipantIdentifier> aPIDs = new CommonsArrayList <> ();
+    for (final ISMPServiceGroup aServiceGroup : aServiceGroups)
+      if (aCounts.put (aServiceGroup.getID (), new int [3]) == null)
+        aPIDs.add (aServiceGroup.getParticipantIdentifier ());
+
+    // One aggregate query per table and chunk, independent of the number of
+    // service information objects
+    for (int nStart = 0; nStart < aPIDs.size (); nStart += MAX_SERVICE_GROUPS_PER_COUNT_QUERY)
+    {
+      final ICommonsList <IParticipantIdentifier> aChunk = new CommonsArrayList <> (aPIDs.subList (nStart,
+                                                                                                   Math.min (nStart +
+                                                                                                             MAX_SERVICE_GROUPS_PER_COUNT_QUERY,
+                                                                                                             aPIDs.size ())));
+      _countPerServiceGroup ("smp_service_metadata", aChunk, aCounts, 0);
+      _countPerServiceGroup ("smp_process", aChunk, aCounts, 1);
+      _countPerServiceGroup ("smp_endpoint", aChunk, aCounts, 2);
+    }
+
+    final ICommonsMap <String, SMPServiceInformationCount> ret = new CommonsHashMap <> ();
+    for (final Map.Entry <String, int []> aEntry : aCounts.entrySet ())
+    {
+      final int [] aCount = aEntry.getValue ();
+      ret.put (aEntry.getKey (), new SMPServiceInformationCount (aCount[0], aCount[1], aCount[2]));
+    }
+    return ret;
+  }
+
+  @Nonnull
+  private static String _getLikeEscaped (@Nonnull final String s)
+  {
+    // Use "!" as the escape character because it is not special in any SQL
+    // dialect
+    return s.replace ("!", "!!").replace ("%", "!%").replace ("_", "!_");
+  }
+
+  /**
+   * Create the SQL WHERE clause and the parameters to filter endpoints.
+   *
+   * @param aFilter
+   *        The filter to apply. May not be <code>null</code>.
+   * @param aParams
+   *        The list of SQL parameters to be extended. May not be
+   *        <code>null</code>.
+   * @return The SQL WHERE clause to be added. May be empty.
+   */
+  @Nonnull
+  private static String _getEndpointWhereClause (@Nonnull final SMPEndpointFilter aFilter,
+                                                 @Nonnull final ICommonsList <Object> aParams)
+  {
+    final ICommonsList <String> aConditions = new CommonsArrayList <> ();
+    if (aFilter.getTransportProfile () != null)
+    {
+      aConditions.add ("transportProfile=?");
+      aParams.add (aFilter.getTransportProfile ());
+    }
+    if (aFilter.getEndpointReferencePrefix () != null)
+    {
+      // Prefix search, so that the index can be used
+      aConditions.add ("endpointReference LIKE ? ESCAPE '!'");
+      aParams.add (_getLikeEscaped (aFilter.getEndpointReferencePrefix ()) + "%");
+    }
+    if (aFilter.getParticipantIDPart () != null)
+    {
+      // Match the URI encoded participant identifier ("scheme::value") like the
+      // other backends do. CONCAT with two arguments is the only variant
+      // supported by all databases.
+      aConditions.add ("LOWER(CONCAT(CONCAT(businessIdentifierScheme, '" +
+                       CIdentifier.URL_SCHEME_VALUE_SEPARATOR +
+                       "'), businessIdentifier)) LIKE ? ESCAPE '!'");
+      aParams.add ("%" + _getLikeEscaped (aFilter.getParticipantIDPart ().toLowerCase (Locale.ROOT)) + "%");
+    }
+    if (aFilter.getCertificatePart () != null)
+    {
+      // The certificate is a CLOB and can therefore not be indexed - the other
+      // criteria should be used to narrow the result
+      aConditions.add ("certificate LIKE ? ESCAPE '!'");
+      aParams.add ("%" + _getLikeEscaped (aFilter.getCertificatePart ()) + "%");
+    }
+    return aConditions.isEmpty () ? "" : " WHERE " + StringHelper.getImploded (" AND ", aConditions);
+  }
+
+  @Override
+  @Nonnegative
+  public long getEndpointCount (@Nonnull final SMPEndpointFilter aFilter)
+  {
+    ValueEnforcer.notNull (aFilter, "Filter");
+
+    final ICommonsList <Object> aParams = new CommonsArrayList <> ();
+    final String sSQL = "SELECT COUNT(*) FROM smp_endpoint" + _getEndpointWhereClause (aFilter, aParams);
+    return Math.max (newExecutor ().queryCount (sSQL, new ConstantPreparedStatementDataProvider (aParams.toArray ())), 0);
+  }
+
+  @Override
+  public void forEachEndpoint (@Nonnull final SMPEndpointFilter aFilter,
+                               @Nonnegative final long nOffset,
+                               @Nonnegative final long nMaxCount,
+                               @Nonnull final ISMPEndpointConsumer aConsumer)
+  {
+    ValueEnforcer.notNull (aFilter, "Filter");
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    // Only the endpoint table is needed, because it contains the complete
+    // primary key of the parent objects
+    final ICommonsList <Object> aParams = new CommonsArrayList <> ();
+    final String sSQL = "SELECT businessIdentifierScheme, businessIdentifier, documentIdentifierScheme, documentIdentifier," +
+                        "   processIdentifierType, processIdentifier," +
+                        "   transportProfile, endpointReference, requireBusinessLevelSignature, minimumAuthenticationLevel," +
+                        "     serviceActivationDate, serviceExpirationDate, certificate, serviceDescription," +
+                        "     technicalContactUrl, technicalInformationUrl, extension" +
+                        " FROM smp_endpoint" +
+                        _getEndpointWhereClause (aFilter, aParams) +
+                        " ORDER BY businessIdentifierScheme, businessIdentifier, documentIdentifierScheme, documentIdentifier," +
+                        "   processIdentifierType, processIdentifier, transportProfile" +
+                        SMPDataSourceSingleton.getLimitClause (nOffset, nMaxCount);
+
+    newExecutor ().queryAll (sSQL, new ConstantPreparedStatementDataProvider (aParams.toArray ()), aDBRow -> {
+      final SMPEndpoint aEndpoint = new SMPEndpoint (aDBRow.getAsString (6),
+                                                     aDBRow.getAsString (7),
+                                                     aDBRow.getAsBoolean (8,
+                                                                          SMPEndpoint.DEFAULT_REQUIRES_BUSINESS_LEVEL_SIGNATURE),
+                                                     aDBRow.getAsString (9),
+                                                     aDBRow.getAsXMLOffsetDateTime (10),
+                                                     aDBRow.getAsXMLOffsetDateTime (11),
+                                                     aDBRow.getAsString (12),
+                                                     aDBRow.getAsString (13),
+                                                     aDBRow.getAsString (14),
+                                                     aDBRow.getAsString (15),
+                                                     aDBRow.getAsString (16));
+      aConsumer.accept (new SimpleParticipantIdentifier (aDBRow.getAsString (0), aDBRow.getAsString (1)),
+                        new SimpleDocumentTypeIdentifier (aDBRow.getAsString (2), aDBRow.getAsString (3)),
+                        new SimpleProcessIdentifier (aDBRow.getAsString (4), aDBRow.getAsString (5)),
+                        aEndpoint);
+    });
+  }
+
   @Nonnull
   @ReturnsMutableCopy
   public ICommonsList <IDocumentTypeIdentifier> getAllSMPDocumentTypesOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
@@ -0,0 +1,25 @@
+--
+-- Copyright (C) 2019-2023 Philip Helger and contributors
+-- philip[at]helger[dot]com
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--         http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+CREATE TABLE `smp_changelog` (
+  `seq`      bigint       NOT NULL COMMENT 'Monotonic sequence number',
+  `changedt` datetime     NOT NULL COMMENT 'The date and time of the change',
+  `objtype`  varchar(45)  NOT NULL COMMENT 'The type of the changed object',
+  `action`   varchar(45)  NOT NULL COMMENT 'The performed action',
+  `pid`      varchar(255) NOT NULL COMMENT 'Participant/Business ID',
+  `objid`    varchar(500)          COMMENT 'Document type ID or migration ID',
+  PRIMARY KEY (`seq`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='SMP Change Log';
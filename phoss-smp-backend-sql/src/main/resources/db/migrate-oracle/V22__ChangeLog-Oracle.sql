@@ -0,0 +1,33 @@
+--
+-- Copyright (C) 2019-2023 Philip Helger and contributors
+-- philip[at]helger[dot]com
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--         http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+CREATE TABLE smp_changelog (
+  seq      number(19)   NOT NULL,
+  changedt timestamp    NOT NULL,
+  objtype  varchar(45)  NOT NULL,
+  action   varchar(45)  NOT NULL,
+  pid      varchar(255) NOT NULL,
+  objid    varchar(500),
+  constraint smp_changelog_pk PRIMARY KEY (seq)  using index tablespace USERS
+) tablespace USERS;
+
+
+COMMENT ON COLUMN smp_changelog.seq      IS 'Monotonic sequence number';
+COMMENT ON COLUMN smp_changelog.changedt IS 'The date and time of the change';
+COMMENT ON COLUMN smp_changelog.objtype  IS 'The type of the changed object';
+COMMENT ON COLUMN smp_changelog.action   IS 'The performed action';
+COMMENT ON COLUMN smp_changelog.pid      IS 'Participant/Business ID';
+COMMENT ON COLUMN smp_changelog.objid    IS 'Document type ID or migration ID';
@@ -0,0 +1,20 @@
+--
+-- Copyright (C) 2019-2023 Philip Helger and contributors
+-- philip[at]helger[dot]com
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--         http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+-- Indexes for the server-side filtering of endpoints
+CREATE INDEX idx_smp_endpoint_tprofile ON smp_endpoint (transportProfile);
+-- varchar_pattern_ops is required so that LIKE 'prefix%' can use the index independent of the collation
+CREATE INDEX idx_smp_endpoint_epref ON smp_endpoint (endpointReference varchar_pattern_ops);
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.xml.mgr;
+
+import java.time.LocalDateTime;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.dao.DAOException;
+import com.helger.phoss.smp.domain.changelog.ESMPChangeLogAction;
+import com.helger.phoss.smp.domain.changelog.ESMPChangeLogObjectType;
+import com.helger.phoss.smp.domain.changelog.ISMPChangeLogManager;
+import com.helger.phoss.smp.domain.changelog.SMPChangeLogEntry;
+import com.helger.photon.io.dao.AbstractPhotonMapBasedWALDAO;
+
+/**
+ * Manager for all {@link SMPChangeLogEntry} objects. To keep the file size
+ * reasonable, only the last {@link #MAX_ENTRIES} entries are kept. Consumers
+ * that are behind the oldest kept entry are detected via
+ * {@link #isResyncRequired(long)}.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class SMPChangeLogManagerXML extends AbstractPhotonMapBasedWALDAO <SMPChangeLogEntry, SMPChangeLogEntry>
+                                          implements
+                                          ISMPChangeLogManager
+{
+  private long m_nFirstSequence;
+  private long m_nLastSequence;
+
+  public SMPChangeLogManagerXML (@Nonnull @Nonempty final String sFilename) throws DAOException
+  {
+    super (SMPChangeLogEntry.class, sFilename);
+    m_aRWLock.readLocked ( () -> {
+      final ICommonsList <SMPChangeLogEntry> aAll = internalGetAll ();
+      m_nFirstSequence = aAll.stream ().mapToLong (SMPChangeLogEntry::getSequence).min ().orElse (1);
+      m_nLastSequence = aAll.stream ().mapToLong (SMPChangeLogEntry::getSequence).max ().orElse (0);
+    });
+  }
+
+  @Nonnull
+  public SMPChangeLogEntry appendChange (@Nonnull final ESMPChangeLogObjectType eObjectType,
+                                        @Nonnull final ESMPChangeLogAction eAction,
+                                        @Nonnull @Nonempty final String sParticipantID,
+                                        @Nullable final String sObjectID)
+  {
+    final LocalDateTime aNow = PDTFactory.getCurrentLocalDateTime ();
+    return m_aRWLock.writeLockedGet ( () -> {
+      final SMPChangeLogEntry ret = new SMPChangeLogEntry (m_nLastSequence + 1,
+                                                           aNow,
+                                                           eObjectType,
+                                                           eAction,
+                                                           sParticipantID,
+                                                           sObjectID);
+      internalCreateItem (ret);
+      m_nLastSequence = ret.getSequence ();
+
+      // Forget the oldest entries
+      while (m_nLastSequence - m_nFirstSequence >= MAX_ENTRIES)
+      {
+        internalDeleteItem (Long.toString (m_nFirstSequence));
+        m_nFirstSequence++;
+      }
+      return ret;
+    });
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <SMPChangeLogEntry> getAllChangesAfter (@Nonnegative final long nSequence,
+                                                              @Nonnegative final int nMaxCount)
+  {
+    ValueEnforcer.isGE0 (nSequence, "Sequence");
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+
+    return m_aRWLock.readLockedGet ( () -> {
+      // Entries are stored with consecutive sequence numbers, so they can be
+      // resolved directly by ID
+      final ICommonsList <SMPChangeLogEntry> ret = new CommonsArrayList <> ();
+      long nSeq = Math.max (nSequence + 1, m_nFirstSequence);
+      while (nSeq <= m_nLastSequence && ret.size () < nMaxCount)
+      {
+        final SMPChangeLogEntry aEntry = getOfID (Long.toString (nSeq));
+        if (aEntry != null)
+          ret.add (aEntry);
+        nSeq++;
+      }
+      return ret;
+    });
+  }
+
+  @Nonnegative
+  public long getLastSequence ()
+  {
+    return m_aRWLock.readLockedLong ( () -> m_nLastSequence);
+  }
+
+  @Nonnegative
+  public long getFirstSequence ()
+  {
+    return m_aRWLock.readLockedLong ( () -> m_nFirstSequence);
+  }
+}
@@ -25,6 +25,7 @@ import com.helger.dao.DAOException;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.domain.ISMPManagerProvider;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.changelog.ISMPChangeLogManager;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.pmigration.SMPParticipantMigrationManagerXML;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
@@ -52,6 +53,7 @@ public final class SMPManagerProviderXML implements ISMPManagerProvider
   public static final String SMP_SERVICE_INFORMATION_XML = "smp-serviceinformation.xml";
   public static final String SMP_PARTICIPANT_MIGRATION_XML = "smp-participant-migration.xml";
   public static final String SMP_BUSINESS_CARD_XML = "smp-business-card.xml";
+  public static final String SMP_CHANGE_LOG_XML = "smp-change-log.xml";
 
   public SMPManagerProviderXML ()
   {}
@@ -169,6 +171,19 @@ public final class SMPManagerProviderXML implements ISMPManagerProvider
     }
   }
 
+  @Nonnull
+  public ISMPChangeLogManager createChangeLogMgr ()
+  {
+    try
+    {
+      return new SMPChangeLogManagerXML (SMP_CHANGE_LOG_XML);
+    }
+    catch (final DAOException ex)
+    {
+      throw new RuntimeException (ex.getMessage (), ex);
+    }
+  }
+
   @Override
   public String toString ()
   {
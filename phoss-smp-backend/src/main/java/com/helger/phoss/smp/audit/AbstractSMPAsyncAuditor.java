@@ -0,0 +1,437 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.audit;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.type.ObjectType;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.photon.audit.AuditItem;
+import com.helger.photon.audit.EAuditActionType;
+import com.helger.photon.audit.IAuditActionStringProvider;
+import com.helger.photon.audit.IAuditItem;
+import com.helger.photon.audit.IAuditor;
+import com.helger.security.authentication.subject.user.CUserID;
+import com.helger.security.authentication.subject.user.ICurrentUserIDProvider;
+
+/**
+ * Abstract {@link IAuditor} that decouples creating audit items from writing
+ * them. The audit item is created in the calling thread (so that the current
+ * user is known), put into a bounded queue and written by a background thread
+ * in batches via {@link #writeAuditItems(ICommonsList)}. What happens if the
+ * queue is full is defined by the {@link ESMPAuditOverflowPolicy}.<br>
+ * {@link #stop()} must be called on shutdown. It waits until the background
+ * thread wrote all queued items and writes everything that is left in the
+ * calling thread, so that no audit item is lost. After {@link #stop()} all
+ * audit items are written synchronously.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public abstract class AbstractSMPAsyncAuditor implements IAuditor
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (AbstractSMPAsyncAuditor.class);
+
+  // How often the writer checks if it was stopped
+  private static final long POLL_MILLIS = 500;
+  private static final long STOP_TIMEOUT_MILLIS = 30 * CGlobal.MILLISECONDS_PER_SECOND;
+
+  private final ICurrentUserIDProvider m_aCurrentUserIDProvider;
+  private final boolean m_bAsync;
+  private final int m_nBatchSize;
+  private final ESMPAuditOverflowPolicy m_eOverflowPolicy;
+  private final BlockingQueue <IAuditItem> m_aQueue;
+  private final Thread m_aWriter;
+  private final AtomicBoolean m_aStarted = new AtomicBoolean (false);
+  private volatile boolean m_bStopped = false;
+
+  private final AtomicLong m_aWritten = new AtomicLong (0);
+  private final AtomicLong m_aFailed = new AtomicLong (0);
+  private final AtomicLong m_aDropped = new AtomicLong (0);
+  private final AtomicLong m_aOverflow = new AtomicLong (0);
+  private final AtomicLong m_aBatches = new AtomicLong (0);
+
+  /**
+   * Constructor using the settings from {@link SMPServerConfiguration}.
+   *
+   * @param aCurrentUserIDProvider
+   *        The current user ID provider. May not be <code>null</code>.
+   * @param sThreadName
+   *        The name of the background writer thread. May neither be
+   *        <code>null</code> nor empty.
+   */
+  protected AbstractSMPAsyncAuditor (@Nonnull final ICurrentUserIDProvider aCurrentUserIDProvider,
+                                     @Nonnull @Nonempty final String sThreadName)
+  {
+    this (aCurrentUserIDProvider,
+          sThreadName,
+          SMPServerConfiguration.isAuditAsyncEnabled (),
+          SMPServerConfiguration.getAuditQueueSize (),
+          SMPServerConfiguration.getAuditBatchSize (),
+          SMPServerConfiguration.getAuditOverflowPolicy ());
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aCurrentUserIDProvider
+   *        The current user ID provider. May not be <code>null</code>.
+   * @param sThreadName
+   *        The name of the background writer thread. May neither be
+   *        <code>null</code> nor empty.
+   * @param bAsync
+   *        <code>true</code> to write asynchronously, <code>false</code> to
+   *        write every audit item in the calling thread.
+   * @param nQueueSize
+   *        The maximum number of queued audit items. Must be &gt; 0.
+   * @param nBatchSize
+   *        The maximum number of audit items passed to
+   *        {@link #writeAuditItems(ICommonsList)} at once. Must be &gt; 0.
+   * @param eOverflowPolicy
+   *        What to do if the queue is full. May not be <code>null</code>.
+   */
+  protected AbstractSMPAsyncAuditor (@Nonnull final ICurrentUserIDProvider aCurrentUserIDProvider,
+                                     @Nonnull @Nonempty final String sThreadName,
+                                     final boolean bAsync,
+                                     @Nonnegative final int nQueueSize,
+                                     @Nonnegative final int nBatchSize,
+                                     @Nonnull final ESMPAuditOverflowPolicy eOverflowPolicy)
+  {
+    ValueEnforcer.notNull (aCurrentUserIDProvider, "UserIDProvider");
+    ValueEnforcer.notEmpty (sThreadName, "ThreadName");
+    ValueEnforcer.isGT0 (nQueueSize, "QueueSize");
+    ValueEnforcer.isGT0 (nBatchSize, "BatchSize");
+    ValueEnforcer.notNull (eOverflowPolicy, "OverflowPolicy");
+    m_aCurrentUserIDProvider = aCurrentUserIDProvider;
+    m_bAsync = bAsync;
+    m_nBatchSize = nBatchSize;
+    m_eOverflowPolicy = eOverflowPolicy;
+    m_aQueue = new ArrayBlockingQueue <> (nQueueSize);
+    // Started with the first audit item, so that the subclass is completely
+    // initialized
+    m_aWriter = new Thread (this::_writeQueuedItems, sThreadName);
+    m_aWriter.setDaemon (true);
+  }
+
+  /**
+   * Write the provided audit items to the backend. This method is called by
+   * the background thread with up to the configured batch size of items. It is
+   * also called by the calling thread, if the audit item is written
+   * synchronously.
+   *
+   * @param aItems
+   *        The audit items to write. Never <code>null</code> nor empty.
+   * @return The number of audit items that were written. If it is less than
+   *         the number of provided audit items, the backend dropped the
+   *         remaining ones and they are counted as dropped.
+   * @throws SMPAuditWriteException
+   *         If only the first audit items were written. Only the remaining
+   *         audit items are retried.
+   * @throws RuntimeException
+   *         If writing failed. Asynchronously written items are retried once
+   *         before they are counted as failed.
+   */
+  @Nonnegative
+  protected abstract int writeAuditItems (@Nonnull @Nonempty ICommonsList <IAuditItem> aItems);
+
+  private void _countWritten (@Nonnegative final int nItems, @Nonnegative final int nWritten)
+  {
+    m_aWritten.addAndGet (nWritten);
+    if (nWritten < nItems)
+      m_aDropped.addAndGet (nItems - nWritten);
+  }
+
+  /**
+   * Remove all audit items that were written before the provided exception
+   * occurred.
+   *
+   * @return The audit items that still need to be written. Never
+   *         <code>null</code> but maybe empty.
+   */
+  @Nonnull
+  private ICommonsList <IAuditItem> _getRemaining (@Nonnull final ICommonsList <IAuditItem> aItems,
+                                                   @Nonnull final RuntimeException ex)
+  {
+    if (!(ex instanceof SMPAuditWriteException))
+      return aItems;
+
+    final int nWritten = Math.min (((SMPAuditWriteException) ex).getWrittenCount (), aItems.size ());
+    m_aWritten.addAndGet (nWritten);
+    return new CommonsArrayList <> (aItems.subList (nWritten, aItems.size ()));
+  }
+
+  private void _writeBatch (@Nonnull @Nonempty final ICommonsList <IAuditItem> aItems)
+  {
+    try
+    {
+      _countWritten (aItems.size (), writeAuditItems (aItems));
+    }
+    catch (final RuntimeException ex)
+    {
+      // Don't write the same audit item twice
+      final ICommonsList <IAuditItem> aRemaining = _getRemaining (aItems, ex);
+      if (aRemaining.isNotEmpty ())
+      {
+        // Retry once, to survive short outages of the backend
+        LOGGER.warn ("Failed to write " +
+                     aRemaining.size () +
+                     " audit item(s) - retrying once: " +
+                     ex.getMessage ());
+        try
+        {
+          _countWritten (aRemaining.size (), writeAuditItems (aRemaining));
+        }
+        catch (final RuntimeException ex2)
+        {
+          ex2.addSuppressed (ex);
+          final int nLost = _getRemaining (aRemaining, ex2).size ();
+          final long nTotalFailed = m_aFailed.addAndGet (nLost);
+          LOGGER.error ("Failed to write " +
+                        nLost +
+                        " audit item(s) after retrying - the audit items are lost (" +
+                        nTotalFailed +
+                        " lost in total)",
+                        ex2);
+        }
+      }
+    }
+    m_aBatches.incrementAndGet ();
+  }
+
+  private void _writeQueuedItems ()
+  {
+    final ICommonsList <IAuditItem> aBatch = new CommonsArrayList <> (m_nBatchSize);
+    // Continue after stop, until the queue is empty
+    while (!m_bStopped || !m_aQueue.isEmpty ())
+    {
+      try
+      {
+        final IAuditItem aFirst = m_aQueue.poll (POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (aFirst == null)
+          continue;
+
+        // Take all others that are present
+        aBatch.add (aFirst);
+        m_aQueue.drainTo (aBatch, m_nBatchSize - 1);
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+        break;
+      }
+
+      _writeBatch (aBatch);
+      aBatch.clear ();
+    }
+  }
+
+  private void _writeRemainingItems ()
+  {
+    final ICommonsList <IAuditItem> aBatch = new CommonsArrayList <> (m_nBatchSize);
+    while (m_aQueue.drainTo (aBatch, m_nBatchSize) > 0)
+    {
+      _writeBatch (aBatch);
+      aBatch.clear ();
+    }
+  }
+
+  public void createAuditItem (@Nonnull final EAuditActionType eActionType,
+                               @Nonnull final ESuccess eSuccess,
+                               @Nullable final ObjectType aActionObjectType,
+                               @Nullable final String sAction,
+                               @Nullable final Object... aArgs)
+  {
+    final String sUserID = StringHelper.getNotEmpty (m_aCurrentUserIDProvider.getCurrentUserID (),
+                                                     CUserID.USER_ID_GUEST);
+    final String sFullAction = IAuditActionStringProvider.JSON.apply (aActionObjectType != null ? aActionObjectType.getName ()
+                                                                                                : sAction,
+                                                                      aArgs);
+    final IAuditItem aAuditItem = new AuditItem (sUserID, eActionType, eSuccess, sFullAction);
+
+    if (!m_bAsync)
+    {
+      // Errors are propagated to the caller
+      _countWritten (1, writeAuditItems (new CommonsArrayList <> (aAuditItem)));
+      m_aBatches.incrementAndGet ();
+      return;
+    }
+
+    if (m_bStopped)
+    {
+      _writeBatch (new CommonsArrayList <> (aAuditItem));
+      return;
+    }
+
+    if (!m_aStarted.get () && m_aStarted.compareAndSet (false, true))
+      m_aWriter.start ();
+
+    if (!m_aQueue.offer (aAuditItem))
+    {
+      // The queue is full
+      m_aOverflow.incrementAndGet ();
+      switch (m_eOverflowPolicy)
+      {
+        case BLOCK:
+          try
+          {
+            m_aQueue.put (aAuditItem);
+          }
+          catch (final InterruptedException ex)
+          {
+            Thread.currentThread ().interrupt ();
+            _writeBatch (new CommonsArrayList <> (aAuditItem));
+          }
+          break;
+        case DROP:
+          if (m_aDropped.incrementAndGet () == 1)
+            LOGGER.warn ("The audit queue is full - dropping audit items");
+          break;
+        case WRITE_SYNC:
+        default:
+          _writeBatch (new CommonsArrayList <> (aAuditItem));
+          break;
+      }
+    }
+
+    // Stop may have happened in the meantime
+    if (m_bStopped)
+      _writeRemainingItems ();
+  }
+
+  /**
+   * Stop the background writer. All queued audit items are written before
+   * this method returns. Audit items created afterwards are written
+   * synchronously.
+   */
+  public void stop ()
+  {
+    m_bStopped = true;
+    if (m_aStarted.get ())
+    {
+      try
+      {
+        m_aWriter.join (STOP_TIMEOUT_MILLIS);
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+      }
+      if (m_aWriter.isAlive ())
+        LOGGER.warn ("The audit writer did not finish within " + STOP_TIMEOUT_MILLIS + " milliseconds");
+    }
+
+    // Everything that is left is written by the calling thread
+    _writeRemainingItems ();
+    if (m_aFailed.get () > 0 || m_aDropped.get () > 0)
+      LOGGER.warn ("Audit writer stopped: " +
+                   m_aWritten.get () +
+                   " written, " +
+                   m_aFailed.get () +
+                   " failed, " +
+                   m_aDropped.get () +
+                   " dropped");
+  }
+
+  /**
+   * @return <code>true</code> if audit items are written asynchronously,
+   *         <code>false</code> if they are written by the calling thread.
+   */
+  public final boolean isAsync ()
+  {
+    return m_bAsync;
+  }
+
+  /**
+   * @return The overflow policy. Never <code>null</code>.
+   */
+  @Nonnull
+  public final ESMPAuditOverflowPolicy getOverflowPolicy ()
+  {
+    return m_eOverflowPolicy;
+  }
+
+  /**
+   * @return The number of audit items waiting to be written.
+   */
+  @Nonnegative
+  public final int getQueueSize ()
+  {
+    return m_aQueue.size ();
+  }
+
+  /**
+   * @return The number of audit items written so far.
+   */
+  @Nonnegative
+  public final long getWrittenCount ()
+  {
+    return m_aWritten.get ();
+  }
+
+  /**
+   * @return The number of audit items that could not be written because of an
+   *         error, even after retrying. These audit items are lost.
+   */
+  @Nonnegative
+  public final long getFailedCount ()
+  {
+    return m_aFailed.get ();
+  }
+
+  /**
+   * @return The number of audit items dropped because the queue was full or
+   *         because the backend did not accept them.
+   */
+  @Nonnegative
+  public final long getDroppedCount ()
+  {
+    return m_aDropped.get ();
+  }
+
+  /**
+   * @return The number of audit items that found the queue full, independent
+   *         of the overflow policy.
+   */
+  @Nonnegative
+  public final long getOverflowCount ()
+  {
+    return m_aOverflow.get ();
+  }
+
+  /**
+   * @return The number of write operations performed so far.
+   */
+  @Nonnegative
+  public final long getBatchCount ()
+  {
+    return m_aBatches.get ();
+  }
+}
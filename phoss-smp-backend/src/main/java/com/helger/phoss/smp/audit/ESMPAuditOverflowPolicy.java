@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.audit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.id.IHasID;
+import com.helger.commons.lang.EnumHelper;
+
+/**
+ * Defines what happens with an audit item, if the queue of the
+ * {@link AbstractSMPAsyncAuditor} is full.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public enum ESMPAuditOverflowPolicy implements IHasID <String>
+{
+  /**
+   * The calling thread waits until there is space in the queue. Nothing gets
+   * lost, but the modification is slowed down to the speed of the audit
+   * writer.
+   */
+  BLOCK ("block"),
+  /**
+   * The calling thread writes the audit item itself. Nothing gets lost and the
+   * caller never waits for other audit items.
+   */
+  WRITE_SYNC ("sync"),
+  /**
+   * The audit item is dropped and only counted. The caller is never slowed
+   * down.
+   */
+  DROP ("drop");
+
+  private final String m_sID;
+
+  ESMPAuditOverflowPolicy (@Nonnull @Nonempty final String sID)
+  {
+    m_sID = sID;
+  }
+
+  @Nonnull
+  @Nonempty
+  public String getID ()
+  {
+    return m_sID;
+  }
+
+  @Nullable
+  public static ESMPAuditOverflowPolicy getFromIDOrNull (@Nullable final String sID)
+  {
+    return EnumHelper.getFromIDOrNull (ESMPAuditOverflowPolicy.class, sID);
+  }
+
+  @Nullable
+  public static ESMPAuditOverflowPolicy getFromIDOrDefault (@Nullable final String sID,
+                                                           @Nullable final ESMPAuditOverflowPolicy eDefault)
+  {
+    return EnumHelper.getFromIDOrDefault (ESMPAuditOverflowPolicy.class, sID, eDefault);
+  }
+}
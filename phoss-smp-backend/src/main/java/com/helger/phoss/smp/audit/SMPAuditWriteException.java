@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.audit;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Exception thrown by {@link AbstractSMPAsyncAuditor#writeAuditItems} if only
+ * the first audit items of a batch were written before an error occurred.
+ * Only the remaining audit items are retried.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public class SMPAuditWriteException extends IllegalStateException
+{
+  private final int m_nWrittenCount;
+
+  public SMPAuditWriteException (@Nonnull final String sMsg,
+                                 @Nonnegative final int nWrittenCount,
+                                 @Nonnull final Throwable aCause)
+  {
+    super (sMsg, aCause);
+    m_nWrittenCount = nWrittenCount;
+  }
+
+  /**
+   * @return The number of audit items at the beginning of the batch that were
+   *         written successfully. Always &ge; 0.
+   */
+  @Nonnegative
+  public final int getWrittenCount ()
+  {
+    return m_nWrittenCount;
+  }
+}
@@ -15,6 +15,8 @@ import javax.annotation.Nonnull;
 import com.helger.commons.annotation.IsSPIImplementation;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCard;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardMicroTypeConverter;
+import com.helger.phoss.smp.domain.changelog.SMPChangeLogEntry;
+import com.helger.phoss.smp.domain.changelog.SMPChangeLogEntryMicroTypeConverter;
 import com.helger.phoss.smp.domain.pmigration.SMPParticipantMigration;
 import com.helger.phoss.smp.domain.pmigration.SMPParticipantMigrationMicroTypeConverter;
 import com.helger.phoss.smp.domain.redirect.SMPRedirect;
@@ -41,6 +43,7 @@ public final class MicroTypeConverterRegistrarSMPServer implements IMicroTypeCon
   public void registerMicroTypeConverter (@Nonnull final IMicroTypeConverterRegistry aRegistry)
   {
     aRegistry.registerMicroElementTypeConverter (SMPBusinessCard.class, new SMPBusinessCardMicroTypeConverter ());
+    aRegistry.registerMicroElementTypeConverter (SMPChangeLogEntry.class, new SMPChangeLogEntryMicroTypeConverter ());
     aRegistry.registerMicroElementTypeConverter (SMPEndpoint.class, new SMPEndpointMicroTypeConverter ());
     aRegistry.registerMicroElementTypeConverter (SMPParticipantMigration.class,
                                                  new SMPParticipantMigrationMicroTypeConverter ());
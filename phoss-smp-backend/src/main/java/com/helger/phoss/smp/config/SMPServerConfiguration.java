@@ -10,19 +10,25 @@
  */
 package com.helger.phoss.smp.config;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 import org.apache.hc.core5.util.Timeout;
 
+import com.helger.commons.CGlobal;
 import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.mime.EMimeContentType;
 import com.helger.commons.string.StringHelper;
 import com.helger.config.IConfig;
 import com.helger.peppolid.factory.ESMPIdentifierType;
 import com.helger.phoss.smp.CSMPServer;
 import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.phoss.smp.audit.ESMPAuditOverflowPolicy;
 import com.helger.security.keystore.EKeyStoreType;
 
 /**
@@ -55,9 +61,43 @@ public final class SMPServerConfiguration
   public static final String KEY_SMP_REST_LOG_EXCEPTIONS = "smp.rest.log.exceptions";
   public static final String KEY_SMP_REST_PAYLOAD_ON_ERROR = "smp.rest.payload.on.error";
   public static final String KEY_SMP_REST_REMOTE_QUERY_API_DISABLED = "smp.rest.remote.queryapi.disabled";
+  public static final String KEY_SMP_REST_SIGNED_MATERIALIZE_ENABLED = "smp.rest.signed.materialize.enabled";
+  public static final String KEY_SMP_REST_SIGNED_MATERIALIZE_MAX_ENTRIES = "smp.rest.signed.materialize.maxentries";
+  public static final String KEY_SMP_REST_SIGNED_MATERIALIZE_MAX_BYTES = "smp.rest.signed.materialize.maxbytes";
+  public static final String KEY_SMP_REST_CONDITIONAL_GET_ENABLED = "smp.rest.conditional.get.enabled";
+  public static final String KEY_SMP_REST_RESPONSE_CACHE_ENABLED = "smp.rest.response.cache.enabled";
+  public static final String KEY_SMP_REST_RESPONSE_CACHE_MAX_ENTRIES = "smp.rest.response.cache.maxentries";
+  public static final String KEY_SMP_REST_RESPONSE_CACHE_MAX_BYTES = "smp.rest.response.cache.maxbytes";
+  public static final String KEY_SMP_REST_COMPRESSION_ENABLED = "smp.rest.compression.enabled";
+  public static final String KEY_SMP_REST_COMPRESSION_MIN_SIZE = "smp.rest.compression.minsize";
+  public static final String KEY_SMP_REST_REMOTE_QUERY_DNS_CACHE_SECONDS = "smp.rest.remote.queryapi.dns.cache.seconds";
+  public static final String KEY_SMP_REST_REMOTE_QUERY_RESPONSE_CACHE_SECONDS = "smp.rest.remote.queryapi.response.cache.seconds";
+  public static final String KEY_SMP_REST_REMOTE_QUERY_CACHE_MAX_ENTRIES = "smp.rest.remote.queryapi.cache.maxentries";
+  public static final String KEY_SMP_REST_REMOTE_QUERY_FANOUT_THREADS = "smp.rest.remote.queryapi.fanout.threads";
+  public static final String KEY_SMP_REST_REMOTE_QUERY_FANOUT_QUEUE_SIZE = "smp.rest.remote.queryapi.fanout.queue.size";
+  public static final String KEY_SMP_REST_REMOTE_QUERY_FANOUT_CALL_TIMEOUT_MS = "smp.rest.remote.queryapi.fanout.call.timeout.ms";
+  public static final String KEY_SMP_REST_REMOTE_QUERY_FANOUT_TOTAL_TIMEOUT_MS = "smp.rest.remote.queryapi.fanout.total.timeout.ms";
+  public static final String KEY_SMP_REST_RATELIMIT_ENABLED = "smp.rest.ratelimit.enabled";
+  public static final String KEY_SMP_REST_RATELIMIT_BY_CERTIFICATE = "smp.rest.ratelimit.by.certificate";
+  public static final String KEY_SMP_REST_RATELIMIT_MAX_CLIENTS = "smp.rest.ratelimit.maxclients";
+  public static final String KEY_SMP_REST_RATELIMIT_TRUSTED_PROXIES = "smp.rest.ratelimit.trustedproxies";
+  public static final String KEY_SMP_REST_RATELIMIT_CLIENT_IP_HEADER = "smp.rest.ratelimit.clientip.header";
+  public static final String KEY_SMP_MIGRATION_BULK_THREADS = "smp.migration.bulk.threads";
+  public static final String KEY_SMP_REST_ACCESSLOG_ENABLED = "smp.rest.accesslog.enabled";
+  public static final String KEY_SMP_REST_ACCESSLOG_SAMPLE_READ = "smp.rest.accesslog.sample.read";
+  public static final String KEY_SMP_REST_ACCESSLOG_QUEUE_SIZE = "smp.rest.accesslog.queue.size";
+  public static final String KEY_SMP_AUDIT_ASYNC_ENABLED = "smp.audit.async.enabled";
+  public static final String KEY_SMP_AUDIT_QUEUE_SIZE = "smp.audit.queue.size";
+  public static final String KEY_SMP_AUDIT_BATCH_SIZE = "smp.audit.batch.size";
+  public static final String KEY_SMP_AUDIT_OVERFLOW = "smp.audit.overflow";
+  public static final String KEY_SMP_METRICS_ENABLED = "smp.metrics.enabled";
+  public static final String KEY_SMP_READMODEL_ENABLED = "smp.readmodel.enabled";
+  public static final String KEY_SMP_CHANGELOG_ENABLED = "smp.changelog.enabled";
+  public static final String KEY_SMP_READMODEL_RECONCILE_SECONDS = "smp.readmodel.reconcile.seconds";
 
   public static final String KEY_SMP_STATUS_ENABLED = "smp.status.enabled";
   public static final String KEY_SMP_STATUS_SHOW_CERTIFICATE_DATES = "smp.status.show.certificate.dates";
+  public static final String KEY_SMP_STATUS_CACHE_MILLIS = "smp.status.cache.ms";
 
   public static final String KEY_SMP_BDXR2_CERTIFICATE_MIME_CODE = "smp.bdxr2.certificate.mimecode";
   public static final String KEY_SMP_BDXR2_CERTIFICATE_TYPE_CODE = "smp.bdxr2.certificate.typecode";
@@ -76,9 +116,42 @@ public final class SMPServerConfiguration
   public static final boolean DEFAULT_SMP_REST_LOG_EXCEPTIONS = false;
   public static final boolean DEFAULT_SMP_REST_PAYLOAD_ON_ERROR = true;
   public static final boolean DEFAULT_SMP_REST_REMOTE_QUERY_API_DISABLED = true;
+  public static final boolean DEFAULT_SMP_REST_SIGNED_MATERIALIZE_ENABLED = false;
+  public static final int DEFAULT_SMP_REST_SIGNED_MATERIALIZE_MAX_ENTRIES = 10_000;
+  public static final long DEFAULT_SMP_REST_SIGNED_MATERIALIZE_MAX_BYTES = 64L * CGlobal.BYTES_PER_MEGABYTE;
+  public static final boolean DEFAULT_SMP_REST_CONDITIONAL_GET_ENABLED = false;
+  public static final boolean DEFAULT_SMP_REST_RESPONSE_CACHE_ENABLED = false;
+  public static final int DEFAULT_SMP_REST_RESPONSE_CACHE_MAX_ENTRIES = 10_000;
+  public static final long DEFAULT_SMP_REST_RESPONSE_CACHE_MAX_BYTES = 64L * CGlobal.BYTES_PER_MEGABYTE;
+  public static final boolean DEFAULT_SMP_REST_COMPRESSION_ENABLED = false;
+  public static final int DEFAULT_SMP_REST_COMPRESSION_MIN_SIZE = 1024;
+  public static final long DEFAULT_SMP_REST_REMOTE_QUERY_DNS_CACHE_SECONDS = 0;
+  public static final long DEFAULT_SMP_REST_REMOTE_QUERY_RESPONSE_CACHE_SECONDS = 0;
+  public static final int DEFAULT_SMP_REST_REMOTE_QUERY_CACHE_MAX_ENTRIES = 10_000;
+  public static final int DEFAULT_SMP_REST_REMOTE_QUERY_FANOUT_THREADS = 8;
+  public static final int DEFAULT_SMP_REST_REMOTE_QUERY_FANOUT_QUEUE_SIZE = 500;
+  public static final long DEFAULT_SMP_REST_REMOTE_QUERY_FANOUT_CALL_TIMEOUT_MS = 10 * CGlobal.MILLISECONDS_PER_SECOND;
+  public static final long DEFAULT_SMP_REST_REMOTE_QUERY_FANOUT_TOTAL_TIMEOUT_MS = 30 * CGlobal.MILLISECONDS_PER_SECOND;
+  public static final boolean DEFAULT_SMP_REST_RATELIMIT_ENABLED = false;
+  public static final boolean DEFAULT_SMP_REST_RATELIMIT_BY_CERTIFICATE = false;
+  public static final int DEFAULT_SMP_REST_RATELIMIT_MAX_CLIENTS = 100_000;
+  public static final String DEFAULT_SMP_REST_RATELIMIT_CLIENT_IP_HEADER = "X-Forwarded-For";
+  public static final int DEFAULT_SMP_MIGRATION_BULK_THREADS = 4;
+  public static final boolean DEFAULT_SMP_REST_ACCESSLOG_ENABLED = true;
+  public static final int DEFAULT_SMP_REST_ACCESSLOG_SAMPLE_READ = 1;
+  public static final int DEFAULT_SMP_REST_ACCESSLOG_QUEUE_SIZE = 10_000;
+  public static final boolean DEFAULT_SMP_AUDIT_ASYNC_ENABLED = true;
+  public static final int DEFAULT_SMP_AUDIT_QUEUE_SIZE = 10_000;
+  public static final int DEFAULT_SMP_AUDIT_BATCH_SIZE = 100;
+  public static final ESMPAuditOverflowPolicy DEFAULT_SMP_AUDIT_OVERFLOW = ESMPAuditOverflowPolicy.WRITE_SYNC;
+  public static final boolean DEFAULT_SMP_METRICS_ENABLED = false;
+  public static final boolean DEFAULT_SMP_READMODEL_ENABLED = false;
+  public static final boolean DEFAULT_SMP_CHANGELOG_ENABLED = true;
+  public static final long DEFAULT_SMP_READMODEL_RECONCILE_SECONDS = 15 * CGlobal.SECONDS_PER_MINUTE;
 
   public static final boolean DEFAULT_SMP_STATUS_ENABLED = true;
   public static final boolean DEFAULT_SMP_STATUS_SHOW_CERTIFICATE_DATES = false;
+  public static final long DEFAULT_SMP_STATUS_CACHE_MILLIS = 5 * CGlobal.MILLISECONDS_PER_SECOND;
 
   public static final String DEFAULT_SMP_BDXR2_CERTIFICATE_MIME_CODE = EMimeContentType.APPLICATION.buildMimeType ("base64")
                                                                                                    .getAsString ();
@@ -283,6 +356,487 @@ public final class SMPServerConfiguration
                                        DEFAULT_SMP_REST_REMOTE_QUERY_API_DISABLED);
   }
 
+  /**
+   * @return <code>true</code> if the signed service metadata responses should
+   *         be created when the data is written and served from memory on
+   *         read, <code>false</code> if each response is signed on read. By
+   *         default it is disabled. Property
+   *         <code>smp.rest.signed.materialize.enabled</code>.
+   * @since 7.1.1
+   */
+  public static boolean isRestSignedResponseMaterializationEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_SIGNED_MATERIALIZE_ENABLED,
+                                       DEFAULT_SMP_REST_SIGNED_MATERIALIZE_ENABLED);
+  }
+
+  /**
+   * @return The maximum number of signed service metadata responses to be kept
+   *         in memory. Property
+   *         <code>smp.rest.signed.materialize.maxentries</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getRestSignedResponseMaterializationMaxEntries ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_SIGNED_MATERIALIZE_MAX_ENTRIES,
+                                            DEFAULT_SMP_REST_SIGNED_MATERIALIZE_MAX_ENTRIES);
+    return ret >= 0 ? ret : DEFAULT_SMP_REST_SIGNED_MATERIALIZE_MAX_ENTRIES;
+  }
+
+  /**
+   * @return The maximum number of bytes of all signed service metadata
+   *         responses to be kept in memory. Property
+   *         <code>smp.rest.signed.materialize.maxbytes</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static long getRestSignedResponseMaterializationMaxBytes ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_REST_SIGNED_MATERIALIZE_MAX_BYTES,
+                                              DEFAULT_SMP_REST_SIGNED_MATERIALIZE_MAX_BYTES);
+    return ret >= 0 ? ret : DEFAULT_SMP_REST_SIGNED_MATERIALIZE_MAX_BYTES;
+  }
+
+  /**
+   * @return <code>true</code> if the public GET requests should emit
+   *         <code>ETag</code> and <code>Last-Modified</code> headers and
+   *         answer conditional requests with "304 Not Modified",
+   *         <code>false</code> if not. By default it is disabled, because the
+   *         modifications are tracked per instance. Property
+   *         <code>smp.rest.conditional.get.enabled</code>.
+   * @since 7.1.1
+   */
+  public static boolean isRestConditionalGetEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_CONDITIONAL_GET_ENABLED, DEFAULT_SMP_REST_CONDITIONAL_GET_ENABLED);
+  }
+
+  /**
+   * @return <code>true</code> if the serialized responses of the unsigned
+   *         public GET requests (service group, complete service group and
+   *         business card) should be cached in memory, <code>false</code> if
+   *         not. By default it is disabled, because the cache is only
+   *         invalidated by modifications via this instance. Property
+   *         <code>smp.rest.response.cache.enabled</code>.
+   * @since 7.1.1
+   */
+  public static boolean isRestResponseCacheEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_RESPONSE_CACHE_ENABLED, DEFAULT_SMP_REST_RESPONSE_CACHE_ENABLED);
+  }
+
+  /**
+   * @return The maximum number of responses to be kept in the REST response
+   *         cache. Property <code>smp.rest.response.cache.maxentries</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getRestResponseCacheMaxEntries ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_RESPONSE_CACHE_MAX_ENTRIES,
+                                            DEFAULT_SMP_REST_RESPONSE_CACHE_MAX_ENTRIES);
+    return ret >= 0 ? ret : DEFAULT_SMP_REST_RESPONSE_CACHE_MAX_ENTRIES;
+  }
+
+  /**
+   * @return The maximum number of bytes of all responses to be kept in the REST
+   *         response cache. Property
+   *         <code>smp.rest.response.cache.maxbytes</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static long getRestResponseCacheMaxBytes ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_REST_RESPONSE_CACHE_MAX_BYTES,
+                                              DEFAULT_SMP_REST_RESPONSE_CACHE_MAX_BYTES);
+    return ret >= 0 ? ret : DEFAULT_SMP_REST_RESPONSE_CACHE_MAX_BYTES;
+  }
+
+  /**
+   * @return <code>true</code> if REST API responses should be compressed with
+   *         GZip if the client accepts it, <code>false</code> if not. By
+   *         default it is disabled. Property
+   *         <code>smp.rest.compression.enabled</code>.
+   * @since 7.1.1
+   */
+  public static boolean isRestCompressionEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_COMPRESSION_ENABLED, DEFAULT_SMP_REST_COMPRESSION_ENABLED);
+  }
+
+  /**
+   * @return The minimum size in bytes a REST API response must have, to be
+   *         compressed. Property <code>smp.rest.compression.minsize</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getRestCompressionMinSize ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_COMPRESSION_MIN_SIZE, DEFAULT_SMP_REST_COMPRESSION_MIN_SIZE);
+    return ret >= 0 ? ret : DEFAULT_SMP_REST_COMPRESSION_MIN_SIZE;
+  }
+
+  /**
+   * @return The number of seconds the DNS resolution of a participant's SMP is
+   *         cached by the remote query API. A value of 0 disables the cache.
+   *         Property <code>smp.rest.remote.queryapi.dns.cache.seconds</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static long getRestRemoteQueryDNSCacheSeconds ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_REST_REMOTE_QUERY_DNS_CACHE_SECONDS,
+                                              DEFAULT_SMP_REST_REMOTE_QUERY_DNS_CACHE_SECONDS);
+    return Math.max (ret, 0);
+  }
+
+  /**
+   * @return The number of seconds the successful responses of remote SMPs are
+   *         cached by the remote query API. A value of 0 disables the cache.
+   *         Property
+   *         <code>smp.rest.remote.queryapi.response.cache.seconds</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static long getRestRemoteQueryResponseCacheSeconds ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_REST_REMOTE_QUERY_RESPONSE_CACHE_SECONDS,
+                                              DEFAULT_SMP_REST_REMOTE_QUERY_RESPONSE_CACHE_SECONDS);
+    return Math.max (ret, 0);
+  }
+
+  /**
+   * @return The maximum number of entries for each of the remote query API
+   *         caches. Property
+   *         <code>smp.rest.remote.queryapi.cache.maxentries</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getRestRemoteQueryCacheMaxEntries ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_REMOTE_QUERY_CACHE_MAX_ENTRIES,
+                                            DEFAULT_SMP_REST_REMOTE_QUERY_CACHE_MAX_ENTRIES);
+    return ret > 0 ? ret : DEFAULT_SMP_REST_REMOTE_QUERY_CACHE_MAX_ENTRIES;
+  }
+
+  /**
+   * @return The maximum number of threads that are used to query the service
+   *         metadata of all document types of a participant in parallel.
+   *         Property <code>smp.rest.remote.queryapi.fanout.threads</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getRestRemoteQueryFanOutThreads ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_REMOTE_QUERY_FANOUT_THREADS,
+                                            DEFAULT_SMP_REST_REMOTE_QUERY_FANOUT_THREADS);
+    return ret > 0 ? ret : DEFAULT_SMP_REST_REMOTE_QUERY_FANOUT_THREADS;
+  }
+
+  /**
+   * @return The maximum number of service metadata queries that are waiting
+   *         for a free thread. Further queries are rejected immediately.
+   *         Property <code>smp.rest.remote.queryapi.fanout.queue.size</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getRestRemoteQueryFanOutQueueSize ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_REMOTE_QUERY_FANOUT_QUEUE_SIZE,
+                                            DEFAULT_SMP_REST_REMOTE_QUERY_FANOUT_QUEUE_SIZE);
+    return ret > 0 ? ret : DEFAULT_SMP_REST_REMOTE_QUERY_FANOUT_QUEUE_SIZE;
+  }
+
+  /**
+   * @return The maximum number of milliseconds a single service metadata query
+   *         may take, when querying all document types of a participant in
+   *         parallel. Property
+   *         <code>smp.rest.remote.queryapi.fanout.call.timeout.ms</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static long getRestRemoteQueryFanOutCallTimeoutMS ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_REST_REMOTE_QUERY_FANOUT_CALL_TIMEOUT_MS,
+                                              DEFAULT_SMP_REST_REMOTE_QUERY_FANOUT_CALL_TIMEOUT_MS);
+    return ret > 0 ? ret : DEFAULT_SMP_REST_REMOTE_QUERY_FANOUT_CALL_TIMEOUT_MS;
+  }
+
+  /**
+   * @return The maximum number of milliseconds querying all document types of
+   *         a participant in parallel may take in total. Property
+   *         <code>smp.rest.remote.queryapi.fanout.total.timeout.ms</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static long getRestRemoteQueryFanOutTotalTimeoutMS ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_REST_REMOTE_QUERY_FANOUT_TOTAL_TIMEOUT_MS,
+                                              DEFAULT_SMP_REST_REMOTE_QUERY_FANOUT_TOTAL_TIMEOUT_MS);
+    return ret > 0 ? ret : DEFAULT_SMP_REST_REMOTE_QUERY_FANOUT_TOTAL_TIMEOUT_MS;
+  }
+
+  /**
+   * @return <code>true</code> if the per client rate limiting of the REST API
+   *         is enabled. Property <code>smp.rest.ratelimit.enabled</code>.
+   * @since 7.1.1
+   */
+  public static boolean isRestRateLimitEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_RATELIMIT_ENABLED, DEFAULT_SMP_REST_RATELIMIT_ENABLED);
+  }
+
+  /**
+   * @return <code>true</code> if clients presenting a TLS client certificate
+   *         should be rate limited by the certificate instead of the IP
+   *         address. Property <code>smp.rest.ratelimit.by.certificate</code>.
+   * @since 7.1.1
+   */
+  public static boolean isRestRateLimitByCertificate ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_RATELIMIT_BY_CERTIFICATE,
+                                       DEFAULT_SMP_REST_RATELIMIT_BY_CERTIFICATE);
+  }
+
+  /**
+   * @return The maximum number of clients for which the rate limiting state
+   *         is kept. Property <code>smp.rest.ratelimit.maxclients</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getRestRateLimitMaxClients ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_RATELIMIT_MAX_CLIENTS, DEFAULT_SMP_REST_RATELIMIT_MAX_CLIENTS);
+    return ret > 0 ? ret : DEFAULT_SMP_REST_RATELIMIT_MAX_CLIENTS;
+  }
+
+  /**
+   * @return The IP addresses of the reverse proxies in front of the SMP, whose
+   *         client IP header is trusted. Requests from all other addresses are
+   *         rate limited by their own IP address. Never <code>null</code> but
+   *         maybe empty. Property
+   *         <code>smp.rest.ratelimit.trustedproxies</code>.
+   * @since 7.1.1
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static ICommonsList <String> getAllRestRateLimitTrustedProxies ()
+  {
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    final String sValue = _getConfig ().getAsString (KEY_SMP_REST_RATELIMIT_TRUSTED_PROXIES);
+    if (StringHelper.hasText (sValue))
+      for (final String sProxy : StringHelper.getExploded (',', sValue))
+        if (StringHelper.hasText (sProxy.trim ()))
+          ret.add (sProxy.trim ());
+    return ret;
+  }
+
+  /**
+   * @return The name of the HTTP header, in which trusted reverse proxies
+   *         provide the client IP address. Property
+   *         <code>smp.rest.ratelimit.clientip.header</code>.
+   * @since 7.1.1
+   */
+  @Nonnull
+  @Nonempty
+  public static String getRestRateLimitClientIPHeader ()
+  {
+    final String ret = _getConfig ().getAsString (KEY_SMP_REST_RATELIMIT_CLIENT_IP_HEADER);
+    return StringHelper.hasText (ret) ? ret.trim () : DEFAULT_SMP_REST_RATELIMIT_CLIENT_IP_HEADER;
+  }
+
+  /**
+   * Get the number of requests per minute a single client may perform for a
+   * certain category of REST APIs.
+   *
+   * @param sCategoryID
+   *        The rate limiting category ID. May neither be <code>null</code> nor
+   *        empty.
+   * @param nDefault
+   *        The default value to be used, if nothing is configured.
+   * @return The number of requests per minute. A value of 0 means unlimited.
+   *         Property <code>smp.rest.ratelimit.<i>category</i>.perminute</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getRestRateLimitPerMinute (@Nonnull @Nonempty final String sCategoryID, final int nDefault)
+  {
+    final int ret = _getConfig ().getAsInt ("smp.rest.ratelimit." + sCategoryID + ".perminute", nDefault);
+    return Math.max (ret, 0);
+  }
+
+  /**
+   * Get the number of requests a single client may perform in a burst for a
+   * certain category of REST APIs.
+   *
+   * @param sCategoryID
+   *        The rate limiting category ID. May neither be <code>null</code> nor
+   *        empty.
+   * @param nDefault
+   *        The default value to be used, if nothing is configured.
+   * @return The burst size. Always &gt; 0.
+   *         Property <code>smp.rest.ratelimit.<i>category</i>.burst</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getRestRateLimitBurst (@Nonnull @Nonempty final String sCategoryID, final int nDefault)
+  {
+    final int ret = _getConfig ().getAsInt ("smp.rest.ratelimit." + sCategoryID + ".burst", nDefault);
+    return ret > 0 ? ret : nDefault;
+  }
+
+  /**
+   * @return The maximum number of SML calls that are performed in parallel by
+   *         a bulk outbound participant migration. Property
+   *         <code>smp.migration.bulk.threads</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getMigrationBulkThreads ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_MIGRATION_BULK_THREADS, DEFAULT_SMP_MIGRATION_BULK_THREADS);
+    return ret > 0 ? ret : DEFAULT_SMP_MIGRATION_BULK_THREADS;
+  }
+
+  /**
+   * @return <code>true</code> if one access log record is written per REST API
+   *         call. Property <code>smp.rest.accesslog.enabled</code>.
+   * @since 7.1.1
+   */
+  public static boolean isRestAccessLogEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_ACCESSLOG_ENABLED, DEFAULT_SMP_REST_ACCESSLOG_ENABLED);
+  }
+
+  /**
+   * @return The sampling of successful read calls in the access log. A value
+   *         of <code>n</code> means that on average one of <code>n</code>
+   *         successful read calls is logged. Write calls and errors are always
+   *         logged. Property <code>smp.rest.accesslog.sample.read</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getRestAccessLogSampleRead ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_ACCESSLOG_SAMPLE_READ, DEFAULT_SMP_REST_ACCESSLOG_SAMPLE_READ);
+    return ret > 0 ? ret : DEFAULT_SMP_REST_ACCESSLOG_SAMPLE_READ;
+  }
+
+  /**
+   * @return The maximum number of access log records waiting to be written.
+   *         If the queue is full, new records are dropped. Property
+   *         <code>smp.rest.accesslog.queue.size</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getRestAccessLogQueueSize ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_ACCESSLOG_QUEUE_SIZE, DEFAULT_SMP_REST_ACCESSLOG_QUEUE_SIZE);
+    return ret > 0 ? ret : DEFAULT_SMP_REST_ACCESSLOG_QUEUE_SIZE;
+  }
+
+  /**
+   * @return <code>true</code> if audit items of the SQL and MongoDB backends
+   *         are written asynchronously in batches, <code>false</code> if each
+   *         audit item is written synchronously. Property
+   *         <code>smp.audit.async.enabled</code>.
+   * @since 7.1.1
+   */
+  public static boolean isAuditAsyncEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_AUDIT_ASYNC_ENABLED, DEFAULT_SMP_AUDIT_ASYNC_ENABLED);
+  }
+
+  /**
+   * @return The maximum number of audit items waiting to be written. If the
+   *         queue is full, {@link #getAuditOverflowPolicy()} applies. Property
+   *         <code>smp.audit.queue.size</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getAuditQueueSize ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_AUDIT_QUEUE_SIZE, DEFAULT_SMP_AUDIT_QUEUE_SIZE);
+    return ret > 0 ? ret : DEFAULT_SMP_AUDIT_QUEUE_SIZE;
+  }
+
+  /**
+   * @return The maximum number of audit items written to the backend in one
+   *         go. Property <code>smp.audit.batch.size</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getAuditBatchSize ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_AUDIT_BATCH_SIZE, DEFAULT_SMP_AUDIT_BATCH_SIZE);
+    return ret > 0 ? ret : DEFAULT_SMP_AUDIT_BATCH_SIZE;
+  }
+
+  /**
+   * @return What to do with an audit item if the audit queue is full. Never
+   *         <code>null</code>. Defaults to
+   *         {@link ESMPAuditOverflowPolicy#WRITE_SYNC}. Property
+   *         <code>smp.audit.overflow</code>.
+   * @since 7.1.1
+   */
+  @Nonnull
+  public static ESMPAuditOverflowPolicy getAuditOverflowPolicy ()
+  {
+    final String sPolicy = _getConfig ().getAsString (KEY_SMP_AUDIT_OVERFLOW);
+    return ESMPAuditOverflowPolicy.getFromIDOrDefault (sPolicy, DEFAULT_SMP_AUDIT_OVERFLOW);
+  }
+
+  /**
+   * @return <code>true</code> if the metrics servlet providing the REST API
+   *         counters and latency histograms in the Prometheus text format is
+   *         enabled. Property <code>smp.metrics.enabled</code>.
+   * @since 7.1.1
+   */
+  public static boolean isMetricsEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_METRICS_ENABLED, DEFAULT_SMP_METRICS_ENABLED);
+  }
+
+  /**
+   * @return <code>true</code> if all public lookups are served from the
+   *         in-memory read model instead of the backend. Property
+   *         <code>smp.readmodel.enabled</code>.
+   * @since 7.1.1
+   */
+  public static boolean isReadModelEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_READMODEL_ENABLED, DEFAULT_SMP_READMODEL_ENABLED);
+  }
+
+  /**
+   * @return The number of seconds after which the in-memory read model is
+   *         completely reloaded from the backend, to incorporate changes that
+   *         were not performed via this instance. A value of 0 disables the
+   *         reconciliation. Property
+   *         <code>smp.readmodel.reconcile.seconds</code>.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static long getReadModelReconcileSeconds ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_READMODEL_RECONCILE_SECONDS,
+                                              DEFAULT_SMP_READMODEL_RECONCILE_SECONDS);
+    return ret >= 0 ? ret : DEFAULT_SMP_READMODEL_RECONCILE_SECONDS;
+  }
+
+  /**
+   * @return <code>true</code> if all changes of participant specific data are
+   *         recorded in the change log. Disabling it saves one additional write
+   *         per modification, but the change log REST API is not available.
+   *         Property <code>smp.changelog.enabled</code>.
+   * @since 7.1.1
+   */
+  public static boolean isChangeLogEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_CHANGELOG_ENABLED, DEFAULT_SMP_CHANGELOG_ENABLED);
+  }
+
   /**
    * @return <code>true</code> if the status servlet at
    *         <code>/smp-status/</code> is enabled, <code>false</code> if it is
@@ -306,6 +860,22 @@ public final class SMPServerConfiguration
                                        DEFAULT_SMP_STATUS_SHOW_CERTIFICATE_DATES);
   }
 
+  /**
+   * @return The number of milliseconds the status data of
+   *         <code>/smp-status/</code> is cached. After that time the status
+   *         data is rebuilt in the background. 0 means the status data is
+   *         rebuilt for every request. Property
+   *         <code>smp.status.cache.ms</code>. Defaults to
+   *         {@link #DEFAULT_SMP_STATUS_CACHE_MILLIS}.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static long getStatusCacheMillis ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_STATUS_CACHE_MILLIS, DEFAULT_SMP_STATUS_CACHE_MILLIS);
+    return ret >= 0 ? ret : DEFAULT_SMP_STATUS_CACHE_MILLIS;
+  }
+
   /**
    * @return The MIME code to be used for BDXR2 certificates. Defaults to
    *         {@link #DEFAULT_SMP_BDXR2_CERTIFICATE_MIME_CODE}.
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardCallback;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirectCallback;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupCallback;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationCallback;
+
+/**
+ * Abstract callback that combines the callbacks of all managers that hold
+ * participant specific data (service groups, service information, redirects
+ * and business cards) and breaks them down to the information which part of a
+ * participant changed. This is the base class for everything that derives
+ * data from the participant data and needs to be kept up to date (like
+ * caches).
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public abstract class AbstractSMPParticipantChangeCallback implements
+                                                           ISMPServiceGroupCallback,
+                                                           ISMPServiceInformationCallback,
+                                                           ISMPRedirectCallback,
+                                                           ISMPBusinessCardCallback
+{
+  /**
+   * Invoked after a service group was created, updated or deleted. When a
+   * service group is deleted, all service information, redirects and the
+   * business card are implicitly deleted as well.
+   *
+   * @param aParticipantID
+   *        The participant ID of the service group. Never <code>null</code>.
+   * @param bDeleted
+   *        <code>true</code> if the service group was deleted,
+   *        <code>false</code> if it was created or updated.
+   */
+  protected void onServiceGroupChanged (@Nonnull final IParticipantIdentifier aParticipantID, final boolean bDeleted)
+  {}
+
+  /**
+   * Invoked after a service information or a redirect was created, updated or
+   * deleted.
+   *
+   * @param aParticipantID
+   *        The participant ID of the service group. Never <code>null</code>.
+   * @param aDocTypeID
+   *        The document type ID of the service metadata. Never
+   *        <code>null</code>.
+   * @param bDeleted
+   *        <code>true</code> if the service metadata was deleted,
+   *        <code>false</code> if it was created or updated.
+   */
+  protected void onServiceMetadataChanged (@Nonnull final IParticipantIdentifier aParticipantID,
+                                           @Nonnull final IDocumentTypeIdentifier aDocTypeID,
+                                           final boolean bDeleted)
+  {}
+
+  /**
+   * Invoked after a business card was created, updated or deleted.
+   *
+   * @param aParticipantID
+   *        The participant ID of the business card. Never <code>null</code>.
+   * @param bDeleted
+   *        <code>true</code> if the business card was deleted,
+   *        <code>false</code> if it was created or updated.
+   */
+  protected void onBusinessCardChanged (@Nonnull final IParticipantIdentifier aParticipantID, final boolean bDeleted)
+  {}
+
+  public final void onSMPServiceGroupCreated (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                              final boolean bCreateInSML)
+  {
+    onServiceGroupChanged (aServiceGroup.getParticipantIdentifier (), false);
+  }
+
+  public final void onSMPServiceGroupUpdated (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    onServiceGroupChanged (aParticipantID, false);
+  }
+
+  public final void onSMPServiceGroupDeleted (@Nonnull final IParticipantIdentifier aParticipantID,
+                                              final boolean bDeleteInSML)
+  {
+    onServiceGroupChanged (aParticipantID, true);
+  }
+
+  @Override
+  public final void onSMPServiceInformationCreated (@Nonnull final ISMPServiceInformation aServiceInformation)
+  {
+    onServiceMetadataChanged (aServiceInformation.getServiceGroup ().getParticipantIdentifier (),
+                              aServiceInformation.getDocumentTypeIdentifier (),
+                              false);
+  }
+
+  @Override
+  public final void onSMPServiceInformationUpdated (@Nonnull final ISMPServiceInformation aServiceInformation)
+  {
+    onServiceMetadataChanged (aServiceInformation.getServiceGroup ().getParticipantIdentifier (),
+                              aServiceInformation.getDocumentTypeIdentifier (),
+                              false);
+  }
+
+  @Override
+  public final void onSMPServiceInformationDeleted (@Nonnull final ISMPServiceInformation aServiceInformation)
+  {
+    onServiceMetadataChanged (aServiceInformation.getServiceGroup ().getParticipantIdentifier (),
+                              aServiceInformation.getDocumentTypeIdentifier (),
+                              true);
+  }
+
+  @Override
+  public final void onSMPRedirectCreated (@Nonnull final ISMPRedirect aRedirect)
+  {
+    onServiceMetadataChanged (aRedirect.getServiceGroup ().getParticipantIdentifier (),
+                              aRedirect.getDocumentTypeIdentifier (),
+                              false);
+  }
+
+  @Override
+  public final void onSMPRedirectUpdated (@Nonnull final ISMPRedirect aRedirect)
+  {
+    onServiceMetadataChanged (aRedirect.getServiceGroup ().getParticipantIdentifier (),
+                              aRedirect.getDocumentTypeIdentifier (),
+                              false);
+  }
+
+  @Override
+  public final void onSMPRedirectDeleted (@Nonnull final ISMPRedirect aRedirect)
+  {
+    onServiceMetadataChanged (aRedirect.getServiceGroup ().getParticipantIdentifier (),
+                              aRedirect.getDocumentTypeIdentifier (),
+                              true);
+  }
+
+  public final void onSMPBusinessCardCreatedOrUpdated (@Nonnull final ISMPBusinessCard aBusinessCard)
+  {
+    onBusinessCardChanged (aBusinessCard.getParticipantIdentifier (), false);
+  }
+
+  public final void onSMPBusinessCardDeleted (@Nonnull final ISMPBusinessCard aBusinessCard)
+  {
+    onBusinessCardChanged (aBusinessCard.getParticipantIdentifier (), true);
+  }
+
+  /**
+   * Register the provided callback at all managers of {@link SMPMetaManager}
+   * holding participant specific data.
+   *
+   * @param aCallback
+   *        The callback to be registered. May not be <code>null</code>.
+   */
+  public static void registerAtAllManagers (@Nonnull final AbstractSMPParticipantChangeCallback aCallback)
+  {
+    SMPMetaManager.getServiceGroupMgr ().serviceGroupCallbacks ().add (aCallback);
+    SMPMetaManager.getServiceInformationMgr ().serviceInformationCallbacks ().add (aCallback);
+    SMPMetaManager.getRedirectMgr ().redirectCallbacks ().add (aCallback);
+    final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
+    if (aBusinessCardMgr != null)
+      aBusinessCardMgr.bcCallbacks ().add (aCallback);
+  }
+
+  /**
+   * Unregister the provided callback from all managers of
+   * {@link SMPMetaManager}.
+   *
+   * @param aCallback
+   *        The callback to be unregistered. May be <code>null</code>.
+   */
+  public static void unregisterFromAllManagers (@Nullable final AbstractSMPParticipantChangeCallback aCallback)
+  {
+    if (aCallback != null)
+    {
+      SMPMetaManager.getServiceGroupMgr ().serviceGroupCallbacks ().removeObject (aCallback);
+      SMPMetaManager.getServiceInformationMgr ().serviceInformationCallbacks ().removeObject (aCallback);
+      SMPMetaManager.getRedirectMgr ().redirectCallbacks ().removeObject (aCallback);
+      final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
+      if (aBusinessCardMgr != null)
+        aBusinessCardMgr.bcCallbacks ().removeObject (aCallback);
+    }
+  }
+}
@@ -16,6 +16,7 @@ import javax.annotation.Nullable;
 import com.helger.commons.state.ETriState;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.changelog.ISMPChangeLogManager;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -123,4 +124,11 @@ public interface ISMPManagerProvider
   @Nullable
   ISMPBusinessCardManager createBusinessCardMgr (@Nonnull IIdentifierFactory aIdentifierFactory,
                                                  @Nonnull ISMPServiceGroupManager aServiceGroupMgr);
+
+  /**
+   * @return A new SMP change log manager. May not be <code>null</code>.
+   * @since 7.1.1
+   */
+  @Nonnull
+  ISMPChangeLogManager createChangeLogMgr ();
 }
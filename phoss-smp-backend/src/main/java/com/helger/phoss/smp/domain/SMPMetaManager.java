@@ -29,7 +29,12 @@ import com.helger.phoss.smp.backend.SMPBackendRegistry;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.businesscard.LoggingSMPBusinessCardCallback;
+import com.helger.phoss.smp.domain.changelog.ISMPChangeLogManager;
+import com.helger.phoss.smp.domain.changelog.SMPChangeLogRecorder;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
+import com.helger.phoss.smp.domain.readmodel.ISMPPublicReadModel;
+import com.helger.phoss.smp.domain.readmodel.SMPCompactReadModel;
+import com.helger.phoss.smp.domain.readmodel.SMPManagerReadModel;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.redirect.LoggingSMPRedirectCallback;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -63,6 +68,7 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPMetaManager.class);
 
   private static ISMPManagerProvider s_aManagerProvider = null;
+  private static final ISMPPublicReadModel MANAGER_READ_MODEL = new SMPManagerReadModel ();
 
   private IIdentifierFactory m_aIdentifierFactory;
   private ISMPURLProvider m_aSMPURLProvider;
@@ -74,6 +80,8 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
   private ISMPServiceInformationManager m_aServiceInformationMgr;
   private ISMPBusinessCardManager m_aBusinessCardMgr;
   private ISMPParticipantMigrationManager m_aParticipantMigrationMgr;
+  private ISMPChangeLogManager m_aChangeLogMgr;
+  private SMPChangeLogRecorder m_aChangeLogRecorder;
   private ETriState m_eBackendConnectionState = ETriState.UNDEFINED;
   private Consumer <ETriState> m_aBackendConnectionStateChangeCallback;
 
@@ -142,6 +150,18 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
       // Always log
       m_aBusinessCardMgr.bcCallbacks ().add (new LoggingSMPBusinessCardCallback ());
     }
+
+    if (SMPServerConfiguration.isChangeLogEnabled ())
+    {
+      // Record all changes in the change log
+      m_aChangeLogRecorder = new SMPChangeLogRecorder (m_aChangeLogMgr);
+      m_aServiceGroupMgr.serviceGroupCallbacks ().add (m_aChangeLogRecorder);
+      m_aRedirectMgr.redirectCallbacks ().add (m_aChangeLogRecorder);
+      m_aServiceInformationMgr.serviceInformationCallbacks ().add (m_aChangeLogRecorder);
+      m_aParticipantMigrationMgr.participantMigrationCallbacks ().add (m_aChangeLogRecorder);
+      if (m_aBusinessCardMgr != null)
+        m_aBusinessCardMgr.bcCallbacks ().add (m_aChangeLogRecorder);
+    }
   }
 
   private void _performMigrations ()
@@ -245,6 +265,10 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
       // May be null!
       m_aBusinessCardMgr = s_aManagerProvider.createBusinessCardMgr (m_aIdentifierFactory, m_aServiceGroupMgr);
 
+      m_aChangeLogMgr = s_aManagerProvider.createChangeLogMgr ();
+      if (m_aChangeLogMgr == null)
+        throw new IllegalStateException ("Failed to create ChangeLog manager!");
+
       _initCallbacks ();
 
       _performMigrations ();
@@ -260,6 +284,13 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
     }
   }
 
+  @Override
+  protected void onBeforeDestroy (@Nonnull final IScope aScopeToBeDestroyed) throws Exception
+  {
+    if (m_aChangeLogRecorder != null)
+      m_aChangeLogRecorder.stop ();
+  }
+
   @Nonnull
   public static SMPMetaManager getInstance ()
   {
@@ -332,6 +363,45 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
     return getInstance ().m_aBusinessCardMgr;
   }
 
+  /**
+   * @return The change log manager. Never <code>null</code>.
+   * @since 7.1.1
+   */
+  @Nonnull
+  public static ISMPChangeLogManager getChangeLogMgr ()
+  {
+    return getInstance ().m_aChangeLogMgr;
+  }
+
+  /**
+   * @return The callback recording all changes in the change log. May be
+   *         <code>null</code> if the change log is disabled in the
+   *         configuration.
+   * @see SMPServerConfiguration#isChangeLogEnabled()
+   * @since 7.1.1
+   */
+  @Nullable
+  public static SMPChangeLogRecorder getChangeLogRecorder ()
+  {
+    return getInstance ().m_aChangeLogRecorder;
+  }
+
+  /**
+   * @return The read model to be used for all public lookups. This is the
+   *         {@link SMPCompactReadModel} if it is enabled and loaded, or a read
+   *         model directly querying the managers otherwise. Never
+   *         <code>null</code>.
+   * @since 7.1.1
+   */
+  @Nonnull
+  public static ISMPPublicReadModel getPublicReadModel ()
+  {
+    final SMPCompactReadModel aCompactReadModel = SMPCompactReadModel.getInstanceIfInstantiated ();
+    if (aCompactReadModel != null && aCompactReadModel.isLoaded ())
+      return aCompactReadModel;
+    return MANAGER_READ_MODEL;
+  }
+
   /**
    * @return <code>true</code> if an {@link ISMPBusinessCardManager} is present,
    *         <code>false</code> if not.
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.collection.impl.CommonsHashMap;
+import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.scope.IScope;
+import com.helger.scope.singleton.AbstractGlobalSingleton;
+
+/**
+ * This class keeps track of the last modification of each participant. It is
+ * updated via the callbacks of the service group, service information,
+ * redirect and business card managers. Participants that were not modified
+ * since the start of this instance have version 0 and the startup date time as
+ * the last modification.<br>
+ * Note: the tracking is node local and only considers the changes performed
+ * via this instance.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPParticipantModificationTracker extends AbstractGlobalSingleton
+{
+  /**
+   * The modification state of a single participant.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  public static final class ParticipantModification
+  {
+    private final long m_nVersion;
+    private final OffsetDateTime m_aLastModified;
+
+    ParticipantModification (final long nVersion, @Nonnull final OffsetDateTime aLastModified)
+    {
+      m_nVersion = nVersion;
+      m_aLastModified = aLastModified;
+    }
+
+    /**
+     * @return The version of the participant. Is increased with every
+     *         modification. Always &ge; 0.
+     */
+    @Nonnegative
+    public long getVersion ()
+    {
+      return m_nVersion;
+    }
+
+    /**
+     * @return The date time of the last modification, truncated to seconds.
+     *         Never <code>null</code>.
+     */
+    @Nonnull
+    public OffsetDateTime getLastModified ()
+    {
+      return m_aLastModified;
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (null).append ("Version", m_nVersion)
+                                         .append ("LastModified", m_aLastModified)
+                                         .getToString ();
+    }
+  }
+
+  private final AbstractSMPParticipantChangeCallback m_aCallback = new AbstractSMPParticipantChangeCallback ()
+  {
+    @Override
+    protected void onServiceGroupChanged (@Nonnull final IParticipantIdentifier aParticipantID, final boolean bDeleted)
+    {
+      onParticipantModified (aParticipantID);
+    }
+
+    @Override
+    protected void onServiceMetadataChanged (@Nonnull final IParticipantIdentifier aParticipantID,
+                                             @Nonnull final IDocumentTypeIdentifier aDocTypeID,
+                                             final boolean bDeleted)
+    {
+      onParticipantModified (aParticipantID);
+    }
+
+    @Override
+    protected void onBusinessCardChanged (@Nonnull final IParticipantIdentifier aParticipantID, final boolean bDeleted)
+    {
+      onParticipantModified (aParticipantID);
+    }
+  };
+  private final String m_sInstanceID = Long.toString (System.currentTimeMillis (), Character.MAX_RADIX);
+  private final ParticipantModification m_aInitial = new ParticipantModification (0,
+                                                                                  PDTFactory.getCurrentOffsetDateTimeUTC ()
+                                                                                            .truncatedTo (ChronoUnit.SECONDS));
+  @GuardedBy ("m_aRWLock")
+  private long m_nVersion = 0;
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, ParticipantModification> m_aMap = new CommonsHashMap <> ();
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPParticipantModificationTracker ()
+  {}
+
+  @Nonnull
+  public static SMPParticipantModificationTracker getInstance ()
+  {
+    return getGlobalSingleton (SMPParticipantModificationTracker.class);
+  }
+
+  @Override
+  protected void onAfterInstantiation (@Nonnull final IScope aScope)
+  {
+    AbstractSMPParticipantChangeCallback.registerAtAllManagers (m_aCallback);
+  }
+
+  @Nonnull
+  private static String _getKey (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    // Participant identifiers may be case insensitive. Sharing the version
+    // between participants only differing in case is safe.
+    return aParticipantID.getURIEncoded ().toLowerCase (Locale.ROOT);
+  }
+
+  /**
+   * @return An ID that is unique for this tracker instance. This can be used to
+   *         distinguish the versions of different server instances or restarts.
+   *         Neither <code>null</code> nor empty.
+   */
+  @Nonnull
+  @Nonempty
+  public String getInstanceID ()
+  {
+    return m_sInstanceID;
+  }
+
+  /**
+   * Remember that the data of the provided participant was modified. This is
+   * usually invoked automatically via the manager callbacks.
+   *
+   * @param aParticipantID
+   *        The participant that was modified. May not be <code>null</code>.
+   */
+  public void onParticipantModified (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    ValueEnforcer.notNull (aParticipantID, "ParticipantID");
+
+    final String sKey = _getKey (aParticipantID);
+    final OffsetDateTime aNow = PDTFactory.getCurrentOffsetDateTimeUTC ().truncatedTo (ChronoUnit.SECONDS);
+    m_aRWLock.writeLocked ( () -> m_aMap.put (sKey, new ParticipantModification (++m_nVersion, aNow)));
+  }
+
+  /**
+   * Get the modification state of the provided participant.
+   *
+   * @param aParticipantID
+   *        The participant to query. May not be <code>null</code>.
+   * @return The modification state. Never <code>null</code>.
+   */
+  @Nonnull
+  public ParticipantModification getModification (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    ValueEnforcer.notNull (aParticipantID, "ParticipantID");
+
+    final String sKey = _getKey (aParticipantID);
+    final ParticipantModification ret = m_aRWLock.readLockedGet ( () -> m_aMap.get (sKey));
+    return ret != null ? ret : m_aInitial;
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.changelog;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.id.IHasID;
+import com.helger.commons.lang.EnumHelper;
+
+/**
+ * The types of objects for which changes are recorded in the change log.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public enum ESMPChangeLogObjectType implements IHasID <String>
+{
+  SERVICE_GROUP ("servicegroup"),
+  SERVICE_INFORMATION ("serviceinformation"),
+  REDIRECT ("redirect"),
+  BUSINESS_CARD ("businesscard"),
+  PARTICIPANT_MIGRATION ("participantmigration");
+
+  private final String m_sID;
+
+  ESMPChangeLogObjectType (@Nonnull @Nonempty final String sID)
+  {
+    m_sID = sID;
+  }
+
+  @Nonnull
+  @Nonempty
+  public String getID ()
+  {
+    return m_sID;
+  }
+
+  @Nullable
+  public static ESMPChangeLogObjectType getFromIDOrNull (@Nullable final String sID)
+  {
+    return EnumHelper.getFromIDOrNull (ESMPChangeLogObjectType.class, sID);
+  }
+}
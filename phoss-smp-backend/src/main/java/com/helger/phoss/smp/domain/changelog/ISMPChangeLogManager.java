@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.changelog;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.ICommonsList;
+
+/**
+ * Base interface for the persistent change log. Every change of participant
+ * specific data is appended with a sequence number that is strictly
+ * increasing, so that consumers can follow all changes by remembering the
+ * last sequence number they processed. Only the last {@link #MAX_ENTRIES}
+ * entries are kept - consumers that fell behind are detected via
+ * {@link #isResyncRequired(long)}.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public interface ISMPChangeLogManager
+{
+  /** The maximum number of entries to keep */
+  int MAX_ENTRIES = 100_000;
+
+  /**
+   * Append a new change.
+   *
+   * @param eObjectType
+   *        The type of the changed object. May not be <code>null</code>.
+   * @param eAction
+   *        The performed action. May not be <code>null</code>.
+   * @param sParticipantID
+   *        The URI encoded participant ID. May neither be <code>null</code>
+   *        nor empty.
+   * @param sObjectID
+   *        The optional ID of the changed object inside the participant. May
+   *        be <code>null</code>.
+   * @return The appended entry. Never <code>null</code>.
+   */
+  @Nonnull
+  SMPChangeLogEntry appendChange (@Nonnull ESMPChangeLogObjectType eObjectType,
+                                  @Nonnull ESMPChangeLogAction eAction,
+                                  @Nonnull @Nonempty String sParticipantID,
+                                  @Nullable String sObjectID);
+
+  /**
+   * Get the changes following the provided sequence number, ordered by
+   * ascending sequence number.
+   *
+   * @param nSequence
+   *        The exclusive sequence number to start after. Use 0 to start at the
+   *        beginning.
+   * @param nMaxCount
+   *        The maximum number of entries to return. Must be &gt; 0.
+   * @return A new list and never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  ICommonsList <SMPChangeLogEntry> getAllChangesAfter (@Nonnegative long nSequence, @Nonnegative int nMaxCount);
+
+  /**
+   * @return The sequence number of the last appended change or 0 if the change
+   *         log is empty.
+   */
+  @Nonnegative
+  long getLastSequence ();
+
+  /**
+   * @return The sequence number of the oldest change that is still available.
+   *         If the change log is empty, this is {@link #getLastSequence()} + 1.
+   */
+  @Nonnegative
+  long getFirstSequence ();
+
+  /**
+   * Check if a consumer that processed all changes up to the provided sequence
+   * number missed changes, because older entries were removed from the change
+   * log. In that case the consumer must perform a full resynchronization.
+   *
+   * @param nSequence
+   *        The last sequence number the consumer processed. Use 0 if it did not
+   *        process anything yet.
+   * @return <code>true</code> if changes following the provided sequence
+   *         number are no longer available.
+   */
+  default boolean isResyncRequired (@Nonnegative final long nSequence)
+  {
+    return nSequence + 1 < getFirstSequence ();
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.changelog;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.id.IHasID;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonObject;
+
+/**
+ * A single entry of the change log. Entries are immutable and identified by
+ * their sequence number - the ID is just the sequence number as a string.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class SMPChangeLogEntry implements IHasID <String>, Serializable
+{
+  private final long m_nSequence;
+  private final LocalDateTime m_aChangeDT;
+  private final ESMPChangeLogObjectType m_eObjectType;
+  private final ESMPChangeLogAction m_eAction;
+  private final String m_sParticipantID;
+  private final String m_sObjectID;
+
+  /**
+   * Constructor
+   *
+   * @param nSequence
+   *        The sequence number. Must be &gt; 0.
+   * @param aChangeDT
+   *        The date and time of the change. May not be <code>null</code>.
+   * @param eObjectType
+   *        The type of the changed object. May not be <code>null</code>.
+   * @param eAction
+   *        The performed action. May not be <code>null</code>.
+   * @param sParticipantID
+   *        The URI encoded participant ID the change belongs to. May neither
+   *        be <code>null</code> nor empty.
+   * @param sObjectID
+   *        The ID of the changed object inside the participant. That is the
+   *        URI encoded document type ID for service information and
+   *        redirects, and the migration ID for participant migrations. May be
+   *        <code>null</code>.
+   */
+  public SMPChangeLogEntry (@Nonnegative final long nSequence,
+                            @Nonnull final LocalDateTime aChangeDT,
+                            @Nonnull final ESMPChangeLogObjectType eObjectType,
+                            @Nonnull final ESMPChangeLogAction eAction,
+                            @Nonnull @Nonempty final String sParticipantID,
+                            @Nullable final String sObjectID)
+  {
+    ValueEnforcer.isGT0 (nSequence, "Sequence");
+    ValueEnforcer.notNull (aChangeDT, "ChangeDT");
+    ValueEnforcer.notNull (eObjectType, "ObjectType");
+    ValueEnforcer.notNull (eAction, "Action");
+    ValueEnforcer.notEmpty (sParticipantID, "ParticipantID");
+    m_nSequence = nSequence;
+    m_aChangeDT = aChangeDT;
+    m_eObjectType = eObjectType;
+    m_eAction = eAction;
+    m_sParticipantID = sParticipantID;
+    m_sObjectID = sObjectID;
+  }
+
+  @Nonnull
+  @Nonempty
+  public String getID ()
+  {
+    return Long.toString (m_nSequence);
+  }
+
+  @Nonnegative
+  public long getSequence ()
+  {
+    return m_nSequence;
+  }
+
+  @Nonnull
+  public LocalDateTime getChangeDateTime ()
+  {
+    return m_aChangeDT;
+  }
+
+  @Nonnull
+  public ESMPChangeLogObjectType getObjectType ()
+  {
+    return m_eObjectType;
+  }
+
+  @Nonnull
+  public ESMPChangeLogAction getAction ()
+  {
+    return m_eAction;
+  }
+
+  @Nonnull
+  @Nonempty
+  public String getParticipantID ()
+  {
+    return m_sParticipantID;
+  }
+
+  @Nullable
+  public String getObjectID ()
+  {
+    return m_sObjectID;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public IJsonObject getAsJsonObject ()
+  {
+    final IJsonObject ret = new JsonObject ().add ("seq", m_nSequence)
+                                             .add ("datetime", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format (m_aChangeDT))
+                                             .add ("type", m_eObjectType.getID ())
+                                             .add ("action", m_eAction.getID ())
+                                             .add ("participantID", m_sParticipantID);
+    if (m_sObjectID != null)
+      ret.add ("objectID", m_sObjectID);
+    return ret;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Sequence", m_nSequence)
+                                       .append ("ChangeDT", m_aChangeDT)
+                                       .append ("ObjectType", m_eObjectType)
+                                       .append ("Action", m_eAction)
+                                       .append ("ParticipantID", m_sParticipantID)
+                                       .appendIfNotNull ("ObjectID", m_sObjectID)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.changelog;
+
+import java.time.LocalDateTime;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.string.StringParser;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.MicroElement;
+import com.helger.xml.microdom.convert.IMicroTypeConverter;
+
+/**
+ * This class is internally used to convert {@link SMPChangeLogEntry} from and
+ * to XML.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class SMPChangeLogEntryMicroTypeConverter implements IMicroTypeConverter <SMPChangeLogEntry>
+{
+  private static final String ATTR_SEQUENCE = "seq";
+  private static final String ATTR_CHANGE_DATETIME = "changedt";
+  private static final String ATTR_OBJECT_TYPE = "objtype";
+  private static final String ATTR_ACTION = "action";
+  private static final String ATTR_PARTICIPANT_ID = "pid";
+  private static final String ATTR_OBJECT_ID = "objid";
+
+  @Nonnull
+  public IMicroElement convertToMicroElement (@Nonnull final SMPChangeLogEntry aValue,
+                                              @Nullable final String sNamespaceURI,
+                                              @Nonnull @Nonempty final String sTagName)
+  {
+    final IMicroElement aElement = new MicroElement (sNamespaceURI, sTagName);
+    aElement.setAttribute (ATTR_SEQUENCE, aValue.getSequence ());
+    aElement.setAttributeWithConversion (ATTR_CHANGE_DATETIME, aValue.getChangeDateTime ());
+    aElement.setAttribute (ATTR_OBJECT_TYPE, aValue.getObjectType ().getID ());
+    aElement.setAttribute (ATTR_ACTION, aValue.getAction ().getID ());
+    aElement.setAttribute (ATTR_PARTICIPANT_ID, aValue.getParticipantID ());
+    aElement.setAttribute (ATTR_OBJECT_ID, aValue.getObjectID ());
+    return aElement;
+  }
+
+  @Nonnull
+  public SMPChangeLogEntry convertToNative (@Nonnull final IMicroElement aElement)
+  {
+    final long nSequence = StringParser.parseLong (aElement.getAttributeValue (ATTR_SEQUENCE), -1);
+    final LocalDateTime aChangeDT = aElement.getAttributeValueWithConversion (ATTR_CHANGE_DATETIME,
+                                                                              LocalDateTime.class);
+
+    final String sObjectType = aElement.getAttributeValue (ATTR_OBJECT_TYPE);
+    final ESMPChangeLogObjectType eObjectType = ESMPChangeLogObjectType.getFromIDOrNull (sObjectType);
+    if (eObjectType == null)
+      throw new IllegalStateException ("Failed to resolve change log object type with ID '" + sObjectType + "'");
+
+    final String sAction = aElement.getAttributeValue (ATTR_ACTION);
+    final ESMPChangeLogAction eAction = ESMPChangeLogAction.getFromIDOrNull (sAction);
+    if (eAction == null)
+      throw new IllegalStateException ("Failed to resolve change log action with ID '" + sAction + "'");
+
+    final String sParticipantID = aElement.getAttributeValue (ATTR_PARTICIPANT_ID);
+    final String sObjectID = aElement.getAttributeValue (ATTR_OBJECT_ID);
+    return new SMPChangeLogEntry (nSequence, aChangeDT, eObjectType, eAction, sParticipantID, sObjectID);
+  }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.changelog;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardCallback;
+import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigration;
+import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationCallback;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirectCallback;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupCallback;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationCallback;
+
+/**
+ * Callback that is registered at all managers holding participant specific
+ * data and appends every change to the {@link ISMPChangeLogManager}. It also
+ * allows threads to wait for new changes, which is the basis for long polling.
+ * <br>
+ * Note: the change is appended after the modification was persisted. If
+ * appending fails, the error is logged, the modification itself stays valid
+ * and the change is appended again before the next change. So a failed
+ * change appears with a later sequence number. If more than
+ * {@link #MAX_PENDING_CHANGES} changes are pending, or if the application stops
+ * while changes are pending, these changes are lost. Lost changes are counted
+ * in {@link #getLostChangeCount()} and consumers must perform a full
+ * resynchronization if this value increases.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public class SMPChangeLogRecorder implements
+                                  ISMPServiceGroupCallback,
+                                  ISMPServiceInformationCallback,
+                                  ISMPRedirectCallback,
+                                  ISMPBusinessCardCallback,
+                                  ISMPParticipantMigrationCallback
+{
+  /** The maximum number of changes waiting to be appended again */
+  public static final int MAX_PENDING_CHANGES = 10_000;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPChangeLogRecorder.class);
+
+  @Immutable
+  private static final class PendingChange
+  {
+    private final ESMPChangeLogObjectType m_eObjectType;
+    private final ESMPChangeLogAction m_eAction;
+    private final String m_sParticipantID;
+    private final String m_sObjectID;
+
+    PendingChange (@Nonnull final ESMPChangeLogObjectType eObjectType,
+                   @Nonnull final ESMPChangeLogAction eAction,
+                   @Nonnull final String sParticipantID,
+                   @Nullable final String sObjectID)
+    {
+      m_eObjectType = eObjectType;
+      m_eAction = eAction;
+      m_sParticipantID = sParticipantID;
+      m_sObjectID = sObjectID;
+    }
+  }
+
+  private final ISMPChangeLogManager m_aChangeLogMgr;
+  private final int m_nMaxPendingChanges;
+  private final Lock m_aLock = new ReentrantLock ();
+  private final Condition m_aNewChange = m_aLock.newCondition ();
+  @GuardedBy ("m_aLock")
+  private long m_nLastSequence;
+  // Oldest first
+  @GuardedBy ("m_aPending")
+  private final ArrayDeque <PendingChange> m_aPending = new ArrayDeque <> ();
+  private final AtomicLong m_aLost = new AtomicLong (0);
+
+  public SMPChangeLogRecorder (@Nonnull final ISMPChangeLogManager aChangeLogMgr)
+  {
+    this (aChangeLogMgr, MAX_PENDING_CHANGES);
+  }
+
+  SMPChangeLogRecorder (@Nonnull final ISMPChangeLogManager aChangeLogMgr, @Nonnegative final int nMaxPendingChanges)
+  {
+    ValueEnforcer.notNull (aChangeLogMgr, "ChangeLogMgr");
+    ValueEnforcer.isGT0 (nMaxPendingChanges, "MaxPendingChanges");
+    m_aChangeLogMgr = aChangeLogMgr;
+    m_nMaxPendingChanges = nMaxPendingChanges;
+    m_nLastSequence = aChangeLogMgr.getLastSequence ();
+  }
+
+  private boolean _tryAppend (@Nonnull final PendingChange aChange)
+  {
+    final SMPChangeLogEntry aEntry;
+    try
+    {
+      aEntry = m_aChangeLogMgr.appendChange (aChange.m_eObjectType,
+                                             aChange.m_eAction,
+                                             aChange.m_sParticipantID,
+                                             aChange.m_sObjectID);
+    }
+    catch (final RuntimeException ex)
+    {
+      LOGGER.error ("Failed to append " +
+                    aChange.m_eObjectType.getID () +
+                    " " +
+                    aChange.m_eAction.getID () +
+                    " of '" +
+                    aChange.m_sParticipantID +
+                    "' to the change log - trying again with the next change",
+                    ex);
+      return false;
+    }
+
+    // Wake up all waiting threads
+    m_aLock.lock ();
+    try
+    {
+      if (aEntry.getSequence () > m_nLastSequence)
+        m_nLastSequence = aEntry.getSequence ();
+      m_aNewChange.signalAll ();
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+    return true;
+  }
+
+  private void _append (@Nonnull final ESMPChangeLogObjectType eObjectType,
+                        @Nonnull final ESMPChangeLogAction eAction,
+                        @Nonnull final IParticipantIdentifier aParticipantID,
+                        @Nullable final String sObjectID)
+  {
+    final PendingChange aChange = new PendingChange (eObjectType, eAction, aParticipantID.getURIEncoded (), sObjectID);
+    synchronized (m_aPending)
+    {
+      // Previously failed changes first
+      while (!m_aPending.isEmpty () && _tryAppend (m_aPending.peekFirst ()))
+        m_aPending.removeFirst ();
+
+      if (m_aPending.isEmpty () && _tryAppend (aChange))
+        return;
+
+      if (m_aPending.size () >= m_nMaxPendingChanges)
+      {
+        final PendingChange aLost = m_aPending.removeFirst ();
+        LOGGER.error ("Too many pending change log entries - the change " +
+                      aLost.m_eObjectType.getID () +
+                      " " +
+                      aLost.m_eAction.getID () +
+                      " of '" +
+                      aLost.m_sParticipantID +
+                      "' is lost (" +
+                      m_aLost.incrementAndGet () +
+                      " lost in total). Consumers of the change log must perform a full resynchronization.");
+      }
+      m_aPending.addLast (aChange);
+    }
+  }
+
+  /**
+   * @return The number of changes that could not be appended yet and are
+   *         appended again before the next change.
+   */
+  @Nonnegative
+  public int getPendingChangeCount ()
+  {
+    synchronized (m_aPending)
+    {
+      return m_aPending.size ();
+    }
+  }
+
+  /**
+   * @return The number of changes that could not be appended to the change log
+   *         since the start of this instance. If this value is &gt; 0,
+   *         consumers of the change log must perform a full resynchronization.
+   */
+  @Nonnegative
+  public long getLostChangeCount ()
+  {
+    return m_aLost.get ();
+  }
+
+  /**
+   * Log the changes that were never appended. Must be called on shutdown.
+   */
+  public void stop ()
+  {
+    synchronized (m_aPending)
+    {
+      // Last chance
+      while (!m_aPending.isEmpty () && _tryAppend (m_aPending.peekFirst ()))
+        m_aPending.removeFirst ();
+
+      if (!m_aPending.isEmpty ())
+      {
+        m_aLost.addAndGet (m_aPending.size ());
+        LOGGER.error (m_aPending.size () +
+                      " change(s) could not be appended to the change log and are lost. Consumers of the change log must perform a full resynchronization.");
+        m_aPending.clear ();
+      }
+    }
+  }
+
+  public void onSMPServiceGroupCreated (@Nonnull final ISMPServiceGroup aServiceGroup, final boolean bCreateInSML)
+  {
+    _append (ESMPChangeLogObjectType.SERVICE_GROUP,
+             ESMPChangeLogAction.CREATE,
+             aServiceGroup.getParticipantIdentifier (),
+             null);
+  }
+
+  public void onSMPServiceGroupUpdated (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    _append (ESMPChangeLogObjectType.SERVICE_GROUP, ESMPChangeLogAction.UPDATE, aParticipantID, null);
+  }
+
+  public void onSMPServiceGroupDeleted (@Nonnull final IParticipantIdentifier aParticipantID,
+                                        final boolean bDeleteInSML)
+  {
+    _append (ESMPChangeLogObjectType.SERVICE_GROUP, ESMPChangeLogAction.DELETE, aParticipantID, null);
+  }
+
+  private void _appendServiceInformation (@Nonnull final ISMPServiceInformation aServiceInformation,
+                                          @Nonnull final ESMPChangeLogAction eAction)
+  {
+    _append (ESMPChangeLogObjectType.SERVICE_INFORMATION,
+             eAction,
+             aServiceInformation.getServiceGroup ().getParticipantIdentifier (),
+             aServiceInformation.getDocumentTypeIdentifier ().getURIEncoded ());
+  }
+
+  @Override
+  public void onSMPServiceInformationCreated (@Nonnull final ISMPServiceInformation aServiceInformation)
+  {
+    _appendServiceInformation (aServiceInformation, ESMPChangeLogAction.CREATE);
+  }
+
+  @Override
+  public void onSMPServiceInformationUpdated (@Nonnull final ISMPServiceInformation aServiceInformation)
+  {
+    _appendServiceInformation (aServiceInformation, ESMPChangeLogAction.UPDATE);
+  }
+
+  @Override
+  public void onSMPServiceInformationDeleted (@Nonnull final ISMPServiceInformation aServiceInformation)
+  {
+    _appendServiceInformation (aServiceInformation, ESMPChangeLogAction.DELETE);
+  }
+
+  private void _appendRedirect (@Nonnull final ISMPRedirect aRedirect, @Nonnull final ESMPChangeLogAction eAction)
+  {
+    _append (ESMPChangeLogObjectType.REDIRECT,
+             eAction,
+             aRedirect.getServiceGroup ().getParticipantIdentifier (),
+             aRedirect.getDocumentTypeIdentifier ().getURIEncoded ());
+  }
+
+  @Override
+  public void onSMPRedirectCreated (@Nonnull final ISMPRedirect aRedirect)
+  {
+    _appendRedirect (aRedirect, ESMPChangeLogAction.CREATE);
+  }
+
+  @Override
+  public void onSMPRedirectUpdated (@Nonnull final ISMPRedirect aRedirect)
+  {
+    _appendRedirect (aRedirect, ESMPChangeLogAction.UPDATE);
+  }
+
+  @Override
+  public void onSMPRedirectDeleted (@Nonnull final ISMPRedirect aRedirect)
+  {
+    _appendRedirect (aRedirect, ESMPChangeLogAction.DELETE);
+  }
+
+  public void onSMPBusinessCardCreatedOrUpdated (@Nonnull final ISMPBusinessCard aBusinessCard)
+  {
+    _append (ESMPChangeLogObjectType.BUSINESS_CARD,
+             ESMPChangeLogAction.UPDATE,
+             aBusinessCard.getParticipantIdentifier (),
+             null);
+  }
+
+  public void onSMPBusinessCardDeleted (@Nonnull final ISMPBusinessCard aBusinessCard)
+  {
+    _append (ESMPChangeLogObjectType.BUSINESS_CARD,
+             ESMPChangeLogAction.DELETE,
+             aBusinessCard.getParticipantIdentifier (),
+             null);
+  }
+
+  private void _appendParticipantMigration (@Nonnull final ISMPParticipantMigration aParticipantMigration,
+                                            @Nonnull final ESMPChangeLogAction eAction)
+  {
+    _append (ESMPChangeLogObjectType.PARTICIPANT_MIGRATION,
+             eAction,
+             aParticipantMigration.getParticipantIdentifier (),
+             aParticipantMigration.getID ());
+  }
+
+  @Override
+  public void onSMPParticipantMigrationCreated (@Nonnull final ISMPParticipantMigration aParticipantMigration)
+  {
+    _appendParticipantMigration (aParticipantMigration, ESMPChangeLogAction.CREATE);
+  }
+
+  @Override
+  public void onSMPParticipantMigrationUpdated (@Nonnull final ISMPParticipantMigration aParticipantMigration)
+  {
+    _appendParticipantMigration (aParticipantMigration, ESMPChangeLogAction.UPDATE);
+  }
+
+  @Override
+  public void onSMPParticipantMigrationDeleted (@Nonnull final ISMPParticipantMigration aParticipantMigration)
+  {
+    _appendParticipantMigration (aParticipantMigration, ESMPChangeLogAction.DELETE);
+  }
+
+  /**
+   * Wait until a change with a sequence number greater than the provided one
+   * was recorded by this instance, or until the timeout elapsed. Changes
+   * performed by other instances sharing the same database are not signalled,
+   * so callers should query the change log again after the timeout.
+   *
+   * @param nSequence
+   *        The last sequence number known to the caller.
+   * @param nTimeoutMillis
+   *        The maximum number of milliseconds to wait. Must be &ge; 0.
+   * @return <code>true</code> if a newer change was recorded,
+   *         <code>false</code> if the timeout elapsed.
+   * @throws InterruptedException
+   *         If the current thread was interrupted while waiting
+   */
+  public boolean waitForChangeAfter (final long nSequence,
+                                     @Nonnegative final long nTimeoutMillis) throws InterruptedException
+  {
+    ValueEnforcer.isGE0 (nTimeoutMillis, "TimeoutMillis");
+
+    long nRemainingNanos = TimeUnit.MILLISECONDS.toNanos (nTimeoutMillis);
+    m_aLock.lock ();
+    try
+    {
+      while (m_nLastSequence <= nSequence)
+      {
+        if (nRemainingNanos <= 0)
+          return false;
+        nRemainingNanos = m_aNewChange.awaitNanos (nRemainingNanos);
+      }
+      return true;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.pmigration;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.callback.ICallback;
+
+/**
+ * Interface for an SMP participant migration callback.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public interface ISMPParticipantMigrationCallback extends ICallback
+{
+  /**
+   * Invoked after an SMP participant migration was created.
+   *
+   * @param aParticipantMigration
+   *        The created object. Never <code>null</code>.
+   */
+  default void onSMPParticipantMigrationCreated (@Nonnull final ISMPParticipantMigration aParticipantMigration)
+  {}
+
+  /**
+   * Invoked after the state of an SMP participant migration was changed.
+   *
+   * @param aParticipantMigration
+   *        The updated object. Never <code>null</code>.
+   */
+  default void onSMPParticipantMigrationUpdated (@Nonnull final ISMPParticipantMigration aParticipantMigration)
+  {}
+
+  /**
+   * Invoked after an SMP participant migration was deleted.
+   *
+   * @param aParticipantMigration
+   *        The deleted object. Never <code>null</code>.
+   */
+  default void onSMPParticipantMigrationDeleted (@Nonnull final ISMPParticipantMigration aParticipantMigration)
+  {}
+}
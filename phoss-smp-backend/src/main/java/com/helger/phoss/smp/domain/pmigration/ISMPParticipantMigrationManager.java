@@ -15,6 +15,8 @@ import javax.annotation.Nullable;
 
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.annotation.ReturnsMutableObject;
+import com.helger.commons.callback.CallbackList;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.state.EChange;
 import com.helger.peppolid.IParticipantIdentifier;
@@ -27,6 +29,14 @@ import com.helger.peppolid.IParticipantIdentifier;
  */
 public interface ISMPParticipantMigrationManager
 {
+  /**
+   * @return A non-<code>null</code> mutable list of callbacks.
+   * @since 7.1.1
+   */
+  @Nonnull
+  @ReturnsMutableObject
+  CallbackList <ISMPParticipantMigrationCallback> participantMigrationCallbacks ();
+
   /**
    * Create a new outbound participant migration for the provided participant
    * identifier. This means the participant is migrated FROM this SMP to another
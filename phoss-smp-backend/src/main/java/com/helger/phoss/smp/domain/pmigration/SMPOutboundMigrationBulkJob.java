@@ -0,0 +1,510 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.pmigration;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.id.IHasID;
+import com.helger.commons.id.factory.GlobalIDFactory;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonObject;
+import com.helger.peppol.sml.ISMLInfo;
+import com.helger.peppol.smlclient.ManageParticipantIdentifierServiceCaller;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.photon.security.user.IUser;
+import com.helger.web.scope.mgr.WebScoped;
+
+/**
+ * A single bulk outbound participant migration. For each participant the SML
+ * <code>prepareToMigrate</code> call is performed and the resulting migration
+ * key is stored via the {@link ISMPParticipantMigrationManager}. The
+ * participants are processed in chunks on the provided executor. After each
+ * chunk the job is queued again at the end of the executor queue, so that
+ * multiple jobs sharing the same executor make progress in turns and a large
+ * job doesn't block all later jobs.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPOutboundMigrationBulkJob implements IHasID <String>
+{
+  /**
+   * The result of a single participant of a bulk migration.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  public static final class Result
+  {
+    private final IParticipantIdentifier m_aParticipantID;
+    private final String m_sMigrationID;
+    private final String m_sMigrationKey;
+    private final String m_sErrorMessage;
+
+    private Result (@Nonnull final IParticipantIdentifier aParticipantID,
+                    @Nullable final String sMigrationID,
+                    @Nullable final String sMigrationKey,
+                    @Nullable final String sErrorMessage)
+    {
+      m_aParticipantID = aParticipantID;
+      m_sMigrationID = sMigrationID;
+      m_sMigrationKey = sMigrationKey;
+      m_sErrorMessage = sErrorMessage;
+    }
+
+    @Nonnull
+    public IParticipantIdentifier getParticipantID ()
+    {
+      return m_aParticipantID;
+    }
+
+    /**
+     * @return The ID of the created participant migration. <code>null</code>
+     *         in case of error.
+     */
+    @Nullable
+    public String getMigrationID ()
+    {
+      return m_sMigrationID;
+    }
+
+    /**
+     * @return The migration key retrieved from the SML. <code>null</code> in
+     *         case of error.
+     */
+    @Nullable
+    public String getMigrationKey ()
+    {
+      return m_sMigrationKey;
+    }
+
+    @Nullable
+    public String getErrorMessage ()
+    {
+      return m_sErrorMessage;
+    }
+
+    public boolean isSuccess ()
+    {
+      return m_sErrorMessage == null;
+    }
+
+    @Nonnull
+    public IJsonObject getAsJsonObject ()
+    {
+      final IJsonObject ret = new JsonObject ().add ("participantID", m_aParticipantID.getURIEncoded ())
+                                               .add ("success", isSuccess ());
+      if (m_sMigrationID != null)
+        ret.add ("migrationID", m_sMigrationID);
+      if (m_sMigrationKey != null)
+        ret.add ("migrationKey", m_sMigrationKey);
+      if (m_sErrorMessage != null)
+        ret.add ("error", m_sErrorMessage);
+      return ret;
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (null).append ("ParticipantID", m_aParticipantID)
+                                         .append ("MigrationID", m_sMigrationID)
+                                         .append ("MigrationKey", m_sMigrationKey)
+                                         .append ("ErrorMessage", m_sErrorMessage)
+                                         .getToString ();
+    }
+
+    @Nonnull
+    static Result createSuccess (@Nonnull final IParticipantIdentifier aParticipantID,
+                                 @Nonnull @Nonempty final String sMigrationID,
+                                 @Nonnull @Nonempty final String sMigrationKey)
+    {
+      return new Result (aParticipantID, sMigrationID, sMigrationKey, null);
+    }
+
+    @Nonnull
+    static Result createError (@Nonnull final IParticipantIdentifier aParticipantID,
+                               @Nonnull @Nonempty final String sErrorMessage)
+    {
+      return new Result (aParticipantID, null, null, sErrorMessage);
+    }
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPOutboundMigrationBulkJob.class);
+
+  // The number of participants processed by one executor task
+  static final int CHUNK_SIZE = 10;
+
+  private final String m_sID;
+  private final String m_sUserID;
+  private final LocalDateTime m_aStartDT;
+  private final ICommonsList <IParticipantIdentifier> m_aParticipantIDs;
+  private final AtomicReferenceArray <Result> m_aResults;
+  private final AtomicInteger m_aSuccessCount = new AtomicInteger (0);
+  private final AtomicInteger m_aErrorCount = new AtomicInteger (0);
+  // The index of the next participant to process
+  private final AtomicInteger m_aNextIndex = new AtomicInteger (0);
+  // The number of participants without a result
+  private final AtomicInteger m_aRemaining;
+  private volatile LocalDateTime m_aEndDT;
+  private volatile boolean m_bCancelled = false;
+
+  SMPOutboundMigrationBulkJob (@Nonnull @Nonempty final String sUserID,
+                               @Nonnull @Nonempty final ICommonsList <IParticipantIdentifier> aParticipantIDs)
+  {
+    ValueEnforcer.notEmpty (sUserID, "UserID");
+    ValueEnforcer.notEmptyNoNullValue (aParticipantIDs, "ParticipantIDs");
+    m_sID = GlobalIDFactory.getNewStringID ();
+    m_sUserID = sUserID;
+    m_aStartDT = PDTFactory.getCurrentLocalDateTime ();
+    m_aParticipantIDs = aParticipantIDs.getClone ();
+    m_aResults = new AtomicReferenceArray <> (aParticipantIDs.size ());
+    m_aRemaining = new AtomicInteger (aParticipantIDs.size ());
+  }
+
+  @Nonnull
+  @Nonempty
+  public String getID ()
+  {
+    return m_sID;
+  }
+
+  /**
+   * @return The ID of the user that started the job. Neither <code>null</code>
+   *         nor empty.
+   */
+  @Nonnull
+  @Nonempty
+  public String getUserID ()
+  {
+    return m_sUserID;
+  }
+
+  @Nonnull
+  public LocalDateTime getStartDateTime ()
+  {
+    return m_aStartDT;
+  }
+
+  /**
+   * @return The date time when the last participant was processed.
+   *         <code>null</code> if the job is still running.
+   */
+  @Nullable
+  public LocalDateTime getEndDateTime ()
+  {
+    return m_aEndDT;
+  }
+
+  public boolean isFinished ()
+  {
+    return m_aEndDT != null;
+  }
+
+  public boolean isCancelled ()
+  {
+    return m_bCancelled;
+  }
+
+  /**
+   * Check if the provided user may access this job. That is the user that
+   * started the job and all administrators.
+   *
+   * @param aUser
+   *        The user to check. May not be <code>null</code>.
+   * @return <code>true</code> if the user may access this job.
+   */
+  public boolean isAccessibleBy (@Nonnull final IUser aUser)
+  {
+    ValueEnforcer.notNull (aUser, "User");
+    return aUser.isAdministrator () || m_sUserID.equals (aUser.getID ());
+  }
+
+  /**
+   * Cancel the job. All participants that were not yet processed, are marked as
+   * failed. Participants currently processed are finished. Migrations that
+   * were already prepared in the SML are not reverted.
+   */
+  public void cancel ()
+  {
+    m_bCancelled = true;
+    failPending ("The bulk migration was cancelled");
+  }
+
+  /**
+   * Mark all participants that were not yet processed as failed. Afterwards no
+   * further participant is processed, and the job is finished as soon as the
+   * participants currently processed are finished.
+   *
+   * @param sErrorMessage
+   *        The error message to use for the participants. May neither be
+   *        <code>null</code> nor empty.
+   */
+  void failPending (@Nonnull @Nonempty final String sErrorMessage)
+  {
+    int nIndex;
+    while ((nIndex = m_aNextIndex.getAndIncrement ()) < m_aParticipantIDs.size ())
+      _onResult (nIndex, Result.createError (m_aParticipantIDs.get (nIndex), sErrorMessage));
+  }
+
+  @Nonnegative
+  public int getTotalCount ()
+  {
+    return m_aParticipantIDs.size ();
+  }
+
+  @Nonnegative
+  public int getSuccessCount ()
+  {
+    return m_aSuccessCount.get ();
+  }
+
+  @Nonnegative
+  public int getErrorCount ()
+  {
+    return m_aErrorCount.get ();
+  }
+
+  /**
+   * @return All results that are already present, in the order of the
+   *         participants. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <Result> getAllResults ()
+  {
+    final ICommonsList <Result> ret = new CommonsArrayList <> ();
+    for (int i = 0; i < m_aResults.length (); ++i)
+    {
+      final Result aResult = m_aResults.get (i);
+      if (aResult != null)
+        ret.add (aResult);
+    }
+    return ret;
+  }
+
+  @Nonnull
+  public IJsonObject getStatusAsJsonObject ()
+  {
+    final IJsonObject ret = new JsonObject ().add ("id", m_sID)
+                                             .add ("userID", m_sUserID)
+                                             .add ("startDateTime", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format (m_aStartDT))
+                                             .add ("finished", isFinished ())
+                                             .add ("cancelled", m_bCancelled)
+                                             .add ("total", getTotalCount ())
+                                             .add ("success", getSuccessCount ())
+                                             .add ("error", getErrorCount ());
+    final LocalDateTime aEndDT = m_aEndDT;
+    if (aEndDT != null)
+      ret.add ("endDateTime", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format (aEndDT));
+    return ret;
+  }
+
+  @Nonnull
+  private Result _migrate (@Nonnull final IParticipantIdentifier aParticipantID,
+                           @Nonnull final ISMLInfo aSMLInfo,
+                           @Nullable final SSLSocketFactory aSocketFactory)
+  {
+    final String sParticipantID = aParticipantID.getURIEncoded ();
+    final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+    final ISMPParticipantMigrationManager aParticipantMigrationMgr = SMPMetaManager.getParticipantMigrationMgr ();
+
+    // Check that service group exists
+    if (!aServiceGroupMgr.containsSMPServiceGroupWithID (aParticipantID))
+      return Result.createError (aParticipantID, "The Service Group '" + sParticipantID + "' does not exist");
+
+    // Ensure no existing migration is in process
+    if (aParticipantMigrationMgr.containsOutboundMigrationInProgress (aParticipantID))
+      return Result.createError (aParticipantID,
+                                 "The outbound Participant Migration of the Service Group '" +
+                                                 sParticipantID +
+                                                 "' is already in progress");
+
+    final String sMigrationKey;
+    try
+    {
+      final ManageParticipantIdentifierServiceCaller aCaller = new ManageParticipantIdentifierServiceCaller (aSMLInfo);
+      aCaller.setSSLSocketFactory (aSocketFactory);
+      final Timeout aConnectionTimeout = SMPServerConfiguration.getSMLConnectionTimeout ();
+      if (aConnectionTimeout != null)
+        aCaller.setConnectionTimeoutMS (aConnectionTimeout.toMillisecondsIntBound ());
+      aCaller.setRequestTimeoutMS (SMPServerConfiguration.getSMLRequestTimeout ().toMillisecondsIntBound ());
+
+      sMigrationKey = aCaller.prepareToMigrate (aParticipantID, SMPServerConfiguration.getSMLSMPID ());
+    }
+    catch (final Exception ex)
+    {
+      LOGGER.warn ("[Bulk-Migration " + m_sID + "] Failed to call prepareToMigrate on SML for '" + sParticipantID + "'",
+                   ex);
+      return Result.createError (aParticipantID,
+                                 "Failed to call prepareToMigrate on SML: " +
+                                                 ex.getClass ().getName () +
+                                                 " - " +
+                                                 ex.getMessage ());
+    }
+
+    // Remember internally
+    final ISMPParticipantMigration aMigration = aParticipantMigrationMgr.createOutboundParticipantMigration (aParticipantID,
+                                                                                                             sMigrationKey);
+    if (aMigration == null)
+      return Result.createError (aParticipantID,
+                                 "Failed to create outbound Participant Migration internally. The SML migration key is '" +
+                                                 sMigrationKey +
+                                                 "'");
+
+    return Result.createSuccess (aParticipantID, aMigration.getID (), sMigrationKey);
+  }
+
+  private void _onResult (final int nIndex, @Nonnull final Result aResult)
+  {
+    m_aResults.set (nIndex, aResult);
+    if (aResult.isSuccess ())
+      m_aSuccessCount.incrementAndGet ();
+    else
+      m_aErrorCount.incrementAndGet ();
+
+    if (m_aRemaining.decrementAndGet () == 0)
+    {
+      m_aEndDT = PDTFactory.getCurrentLocalDateTime ();
+      LOGGER.info ("[Bulk-Migration " +
+                   m_sID +
+                   "] Finished with " +
+                   getSuccessCount () +
+                   " successful and " +
+                   getErrorCount () +
+                   " failed participant(s)" +
+                   (m_bCancelled ? " - was cancelled" : ""));
+    }
+  }
+
+  private void _runChunk (@Nonnull final ExecutorService aExecutor,
+                          @Nonnull final ISMLInfo aSMLInfo,
+                          @Nullable final SSLSocketFactory aSocketFactory)
+  {
+    // Required for auditing and the SQL version
+    try (final WebScoped aWS = new WebScoped ())
+    {
+      for (int i = 0; i < CHUNK_SIZE; ++i)
+      {
+        final int nIndex = m_aNextIndex.getAndIncrement ();
+        if (nIndex >= m_aParticipantIDs.size ())
+        {
+          // Nothing left (or cancelled)
+          return;
+        }
+
+        final IParticipantIdentifier aParticipantID = m_aParticipantIDs.get (nIndex);
+        Result aResult;
+        try
+        {
+          aResult = _migrate (aParticipantID, aSMLInfo, aSocketFactory);
+        }
+        catch (final RuntimeException ex)
+        {
+          LOGGER.error ("[Bulk-Migration " + m_sID + "] Internal error migrating '" + aParticipantID + "'", ex);
+          aResult = Result.createError (aParticipantID, "Internal error: " + ex.getMessage ());
+        }
+        _onResult (nIndex, aResult);
+      }
+    }
+
+    // Give other jobs a chance
+    _submitChunk (aExecutor, aSMLInfo, aSocketFactory);
+  }
+
+  private void _submitChunk (@Nonnull final ExecutorService aExecutor,
+                             @Nonnull final ISMLInfo aSMLInfo,
+                             @Nullable final SSLSocketFactory aSocketFactory)
+  {
+    try
+    {
+      aExecutor.execute ( () -> _runChunk (aExecutor, aSMLInfo, aSocketFactory));
+    }
+    catch (final RejectedExecutionException ex)
+    {
+      // E.g. on shutdown
+      failPending ("The job could not be scheduled");
+    }
+  }
+
+  /**
+   * Start processing the participants of this job on the provided executor.
+   *
+   * @param aExecutor
+   *        The executor to use. May not be <code>null</code>.
+   * @param nParallelism
+   *        The maximum number of participants of this job processed in
+   *        parallel. Must be &gt; 0.
+   * @param aSMLInfo
+   *        The SML to use. May not be <code>null</code>.
+   * @param aSocketFactory
+   *        The SSL socket factory to use for the SML calls. May be
+   *        <code>null</code>.
+   */
+  void start (@Nonnull final ExecutorService aExecutor,
+              @Nonnegative final int nParallelism,
+              @Nonnull final ISMLInfo aSMLInfo,
+              @Nullable final SSLSocketFactory aSocketFactory)
+  {
+    ValueEnforcer.isGT0 (nParallelism, "Parallelism");
+    LOGGER.info ("[Bulk-Migration " +
+                 m_sID +
+                 "] Starting outbound migration of " +
+                 m_aParticipantIDs.size () +
+                 " participant(s)");
+
+    // Each task processes one chunk and queues itself again
+    final int nChunks = (m_aParticipantIDs.size () + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    final int nTasks = Math.min (nParallelism, nChunks);
+    for (int i = 0; i < nTasks; ++i)
+      _submitChunk (aExecutor, aSMLInfo, aSocketFactory);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("ID", m_sID)
+                                       .append ("UserID", m_sUserID)
+                                       .append ("StartDT", m_aStartDT)
+                                       .append ("EndDT", m_aEndDT)
+                                       .append ("Cancelled", m_bCancelled)
+                                       .append ("Total", getTotalCount ())
+                                       .append ("Success", getSuccessCount ())
+                                       .append ("Error", getErrorCount ())
+                                       .getToString ();
+  }
+}
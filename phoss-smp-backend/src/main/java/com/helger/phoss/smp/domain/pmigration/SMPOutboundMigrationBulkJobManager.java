@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.pmigration;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.net.ssl.SSLSocketFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.collection.impl.CommonsLinkedHashMap;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
+import com.helger.peppol.sml.ISMLInfo;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.security.SMPKeyManager;
+import com.helger.scope.IScope;
+import com.helger.scope.singleton.AbstractGlobalSingleton;
+
+/**
+ * Manages the bulk outbound participant migrations of this instance. All jobs
+ * share a single bounded executor, so the number of parallel SML calls is
+ * limited over all jobs. The jobs are processed in chunks, so that concurrent
+ * jobs make progress in turns. The jobs itself are only kept in memory - the
+ * created participant migrations are persisted via the
+ * {@link ISMPParticipantMigrationManager}.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPOutboundMigrationBulkJobManager extends AbstractGlobalSingleton
+{
+  // The maximum number of finished jobs to remember
+  private static final int MAX_FINISHED_JOBS = 50;
+
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsOrderedMap <String, SMPOutboundMigrationBulkJob> m_aJobs = new CommonsLinkedHashMap <> ();
+  private ThreadPoolExecutor m_aExecutor;
+  private int m_nThreads;
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPOutboundMigrationBulkJobManager ()
+  {}
+
+  @Nonnull
+  public static SMPOutboundMigrationBulkJobManager getInstance ()
+  {
+    return getGlobalSingleton (SMPOutboundMigrationBulkJobManager.class);
+  }
+
+  @Override
+  protected void onAfterInstantiation (@Nonnull final IScope aScope)
+  {
+    // Bounded number of threads that are only alive while needed
+    m_nThreads = SMPServerConfiguration.getMigrationBulkThreads ();
+    final AtomicInteger aThreadIndex = new AtomicInteger (0);
+    // The queue contains at most "threads" chunk tasks per job
+    m_aExecutor = new ThreadPoolExecutor (m_nThreads, m_nThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue <> (), r -> {
+      final Thread t = new Thread (r, "smp-migration-bulk-" + aThreadIndex.incrementAndGet ());
+      t.setDaemon (true);
+      return t;
+    });
+    m_aExecutor.allowCoreThreadTimeOut (true);
+  }
+
+  @Override
+  protected void onDestroy (@Nonnull final IScope aScopeInDestruction) throws Exception
+  {
+    // Queued tasks are dropped by shutdownNow, so mark all participants not
+    // yet processed as failed first. Otherwise the jobs would never finish.
+    for (final SMPOutboundMigrationBulkJob aJob : getAllJobs ())
+      if (!aJob.isFinished ())
+        aJob.failPending ("The SMP was shut down");
+    m_aExecutor.shutdownNow ();
+    m_aExecutor = null;
+  }
+
+  /**
+   * Start a new bulk outbound migration.
+   *
+   * @param sUserID
+   *        The ID of the user starting the migration. May neither be
+   *        <code>null</code> nor empty.
+   * @param aParticipantIDs
+   *        The participants to migrate. May neither be <code>null</code> nor
+   *        empty and must not contain duplicates.
+   * @param aSMLInfo
+   *        The SML to call. May not be <code>null</code>.
+   * @return The created and started job. Never <code>null</code>.
+   * @throws GeneralSecurityException
+   *         If the SSL context for the SML calls cannot be created
+   */
+  @Nonnull
+  public SMPOutboundMigrationBulkJob startJob (@Nonnull @Nonempty final String sUserID,
+                                               @Nonnull @Nonempty final ICommonsList <IParticipantIdentifier> aParticipantIDs,
+                                               @Nonnull final ISMLInfo aSMLInfo) throws GeneralSecurityException
+  {
+    ValueEnforcer.notNull (aSMLInfo, "SMLInfo");
+
+    // The SSL socket factory is thread-safe and shared by all SML calls
+    final SSLSocketFactory aSocketFactory = SMPKeyManager.getInstance ().createSSLContext ().getSocketFactory ();
+
+    final SMPOutboundMigrationBulkJob aJob = new SMPOutboundMigrationBulkJob (sUserID, aParticipantIDs);
+    m_aRWLock.writeLocked ( () -> {
+      m_aJobs.put (aJob.getID (), aJob);
+
+      // Forget the oldest finished jobs
+      int nFinished = (int) m_aJobs.values ().stream ().filter (SMPOutboundMigrationBulkJob::isFinished).count ();
+      for (final SMPOutboundMigrationBulkJob aOldJob : m_aJobs.copyOfValues ())
+      {
+        if (nFinished <= MAX_FINISHED_JOBS)
+          break;
+        if (aOldJob.isFinished ())
+        {
+          m_aJobs.remove (aOldJob.getID ());
+          nFinished--;
+        }
+      }
+    });
+
+    aJob.start (m_aExecutor, m_nThreads, aSMLInfo, aSocketFactory);
+    return aJob;
+  }
+
+  @Nullable
+  public SMPOutboundMigrationBulkJob getJobOfID (@Nullable final String sJobID)
+  {
+    if (sJobID == null)
+      return null;
+    return m_aRWLock.readLockedGet ( () -> m_aJobs.get (sJobID));
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <SMPOutboundMigrationBulkJob> getAllJobs ()
+  {
+    return m_aRWLock.readLockedGet (m_aJobs::copyOfValues);
+  }
+
+  /**
+   * @return The number of SML calls currently executed in parallel.
+   */
+  @Nonnegative
+  public int getActiveCount ()
+  {
+    return m_aExecutor.getActiveCount ();
+  }
+
+  /**
+   * @return The number of chunks waiting to be processed.
+   */
+  @Nonnegative
+  public int getQueueSize ()
+  {
+    return m_aExecutor.getQueue ().size ();
+  }
+}
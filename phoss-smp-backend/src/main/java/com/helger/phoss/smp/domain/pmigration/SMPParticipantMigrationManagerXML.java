@@ -18,6 +18,8 @@ import com.helger.commons.annotation.ELockType;
 import com.helger.commons.annotation.IsLocked;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.annotation.ReturnsMutableObject;
+import com.helger.commons.callback.CallbackList;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.StringHelper;
@@ -37,11 +39,20 @@ public class SMPParticipantMigrationManagerXML extends
                                                implements
                                                ISMPParticipantMigrationManager
 {
+  private final CallbackList <ISMPParticipantMigrationCallback> m_aCallbacks = new CallbackList <> ();
+
   public SMPParticipantMigrationManagerXML (@Nonnull @Nonempty final String sFilename) throws DAOException
   {
     super (SMPParticipantMigration.class, sFilename);
   }
 
+  @Nonnull
+  @ReturnsMutableObject
+  public CallbackList <ISMPParticipantMigrationCallback> participantMigrationCallbacks ()
+  {
+    return m_aCallbacks;
+  }
+
   @Nonnull
   @IsLocked (ELockType.WRITE)
   private ISMPParticipantMigration _createSMPParticipantMigration (@Nonnull final SMPParticipantMigration aSMPParticipantMigration)
@@ -55,6 +66,7 @@ public class SMPParticipantMigrationManagerXML extends
                                       aSMPParticipantMigration.getParticipantIdentifier ().getURIEncoded (),
                                       aSMPParticipantMigration.getInitiationDateTime (),
                                       aSMPParticipantMigration.getMigrationKey ());
+    m_aCallbacks.forEach (x -> x.onSMPParticipantMigrationCreated (aSMPParticipantMigration));
     return aSMPParticipantMigration;
   }
 
@@ -136,6 +148,7 @@ public class SMPParticipantMigrationManagerXML extends
                                       aParticipantMigration.getParticipantIdentifier ().getURIEncoded (),
                                       aParticipantMigration.getInitiationDateTime (),
                                       aParticipantMigration.getMigrationKey ());
+    m_aCallbacks.forEach (x -> x.onSMPParticipantMigrationDeleted (aParticipantMigration));
     return EChange.CHANGED;
   }
 
@@ -173,6 +186,7 @@ public class SMPParticipantMigrationManagerXML extends
                                       "set-migration-state",
                                       sParticipantMigrationID,
                                       eNewState);
+    m_aCallbacks.forEach (x -> x.onSMPParticipantMigrationUpdated (aPM));
     return EChange.CHANGED;
   }
 
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.readmodel;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+
+/**
+ * Read-only view on the participant data that is used by the public lookup
+ * APIs. All objects returned are only meant for reading and may be detached
+ * from the managers.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public interface ISMPPublicReadModel
+{
+  /**
+   * Get the service group of the passed participant identifier.
+   *
+   * @param aParticipantID
+   *        The participant identifier to search. May be <code>null</code>.
+   * @return <code>null</code> if no such service group exists.
+   */
+  @Nullable
+  ISMPServiceGroup getServiceGroupOfID (@Nullable IParticipantIdentifier aParticipantID);
+
+  /**
+   * Get the document types of all service information of the passed service
+   * group. Redirects are not contained.
+   *
+   * @param aServiceGroup
+   *        The service group to use. May not be <code>null</code>.
+   * @return A non-<code>null</code> but maybe empty list.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  ICommonsList <IDocumentTypeIdentifier> getAllDocumentTypesOfServiceGroup (@Nonnull ISMPServiceGroup aServiceGroup);
+
+  /**
+   * Get all service information of the passed service group.
+   *
+   * @param aServiceGroup
+   *        The service group to use. May not be <code>null</code>.
+   * @return A non-<code>null</code> but maybe empty list.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  ICommonsList <ISMPServiceInformation> getAllServiceInformationOfServiceGroup (@Nonnull ISMPServiceGroup aServiceGroup);
+
+  /**
+   * Get the service information of the passed service group and document type.
+   *
+   * @param aServiceGroup
+   *        The service group to use. May not be <code>null</code>.
+   * @param aDocTypeID
+   *        The document type to search. May not be <code>null</code>.
+   * @return <code>null</code> if no such service information exists.
+   */
+  @Nullable
+  ISMPServiceInformation getServiceInformationOfServiceGroupAndDocumentType (@Nonnull ISMPServiceGroup aServiceGroup,
+                                                                             @Nonnull IDocumentTypeIdentifier aDocTypeID);
+
+  /**
+   * Get the redirect of the passed service group and document type.
+   *
+   * @param aServiceGroup
+   *        The service group to use. May not be <code>null</code>.
+   * @param aDocTypeID
+   *        The document type to search. May not be <code>null</code>.
+   * @return <code>null</code> if no such redirect exists.
+   */
+  @Nullable
+  ISMPRedirect getRedirectOfServiceGroupAndDocumentType (@Nonnull ISMPServiceGroup aServiceGroup,
+                                                         @Nonnull IDocumentTypeIdentifier aDocTypeID);
+
+  /**
+   * Get the business card of the passed participant identifier.
+   *
+   * @param aParticipantID
+   *        The participant identifier to search. May be <code>null</code>.
+   * @return <code>null</code> if no such business card exists or if the
+   *         business card handling is disabled.
+   */
+  @Nullable
+  ISMPBusinessCard getBusinessCardOfID (@Nullable IParticipantIdentifier aParticipantID);
+}
@@ -0,0 +1,502 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.readmodel;
+
+import java.security.cert.X509Certificate;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.datetime.XMLOffsetDateTime;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.simple.doctype.SimpleDocumentTypeIdentifier;
+import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
+import com.helger.peppolid.simple.process.SimpleProcessIdentifier;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.redirect.SMPRedirect;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+
+/**
+ * The compact and immutable representation of a single participant with all
+ * service information, redirects and the business card, as used by
+ * {@link SMPCompactReadModel}. Only plain strings, arrays and pooled values
+ * are stored. The regular domain objects are created on demand for every
+ * lookup, so that callers can never modify the read model.<br>
+ * Business cards are kept as regular objects, as they are usually small.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class SMPCompactParticipant
+{
+  // Rough figures for a 64 bit JVM with compressed references
+  private static final int OBJECT_HEADER_BYTES = 12;
+  private static final int REFERENCE_BYTES = 4;
+  private static final int ARRAY_HEADER_BYTES = 16;
+
+  @Immutable
+  private static final class Endpoint
+  {
+    static final long SHALLOW_BYTES = align (OBJECT_HEADER_BYTES + 10 * REFERENCE_BYTES + 1);
+
+    private final String m_sTransportProfile;
+    private final String m_sEndpointReference;
+    private final boolean m_bRequireBusinessLevelSignature;
+    private final String m_sMinimumAuthenticationLevel;
+    private final XMLOffsetDateTime m_aServiceActivationDT;
+    private final XMLOffsetDateTime m_aServiceExpirationDT;
+    private final String m_sCertificate;
+    private final String m_sServiceDescription;
+    private final String m_sTechnicalContactUrl;
+    private final String m_sTechnicalInformationUrl;
+    private final String m_sExtension;
+
+    Endpoint (@Nonnull final ISMPEndpoint aEndpoint, @Nonnull final SMPObjectPool aPool)
+    {
+      m_sTransportProfile = aPool.intern (aEndpoint.getTransportProfile ());
+      m_sEndpointReference = aPool.intern (aEndpoint.getEndpointReference ());
+      m_bRequireBusinessLevelSignature = aEndpoint.isRequireBusinessLevelSignature ();
+      m_sMinimumAuthenticationLevel = aPool.intern (aEndpoint.getMinimumAuthenticationLevel ());
+      m_aServiceActivationDT = aPool.intern (aEndpoint.getServiceActivationDateTime ());
+      m_aServiceExpirationDT = aPool.intern (aEndpoint.getServiceExpirationDateTime ());
+      m_sCertificate = aPool.intern (aEndpoint.getCertificate ());
+      m_sServiceDescription = aPool.intern (aEndpoint.getServiceDescription ());
+      m_sTechnicalContactUrl = aPool.intern (aEndpoint.getTechnicalContactUrl ());
+      m_sTechnicalInformationUrl = aPool.intern (aEndpoint.getTechnicalInformationUrl ());
+      m_sExtension = aPool.intern (aEndpoint.getExtensions ().getExtensionsAsJsonString ());
+    }
+
+    @Nonnull
+    SMPEndpoint getAsEndpoint ()
+    {
+      return new SMPEndpoint (m_sTransportProfile,
+                              m_sEndpointReference,
+                              m_bRequireBusinessLevelSignature,
+                              m_sMinimumAuthenticationLevel,
+                              m_aServiceActivationDT,
+                              m_aServiceExpirationDT,
+                              m_sCertificate,
+                              m_sServiceDescription,
+                              m_sTechnicalContactUrl,
+                              m_sTechnicalInformationUrl,
+                              m_sExtension);
+    }
+  }
+
+  @Immutable
+  private static final class Process
+  {
+    static final long SHALLOW_BYTES = align (OBJECT_HEADER_BYTES + 4 * REFERENCE_BYTES);
+
+    private final String m_sProcessScheme;
+    private final String m_sProcessValue;
+    private final String m_sExtension;
+    private final Endpoint [] m_aEndpoints;
+
+    Process (@Nonnull final ISMPProcess aProcess, @Nonnull final SMPObjectPool aPool)
+    {
+      m_sProcessScheme = aPool.intern (aProcess.getProcessIdentifier ().getScheme ());
+      m_sProcessValue = aPool.intern (aProcess.getProcessIdentifier ().getValue ());
+      m_sExtension = aPool.intern (aProcess.getExtensions ().getExtensionsAsJsonString ());
+      final ICommonsList <ISMPEndpoint> aEndpoints = aProcess.getAllEndpoints ();
+      m_aEndpoints = new Endpoint [aEndpoints.size ()];
+      for (int i = 0; i < m_aEndpoints.length; ++i)
+        m_aEndpoints[i] = new Endpoint (aEndpoints.get (i), aPool);
+    }
+
+    @Nonnull
+    SMPProcess getAsProcess ()
+    {
+      final ICommonsList <SMPEndpoint> aEndpoints = new CommonsArrayList <> (m_aEndpoints.length);
+      for (final Endpoint aEndpoint : m_aEndpoints)
+        aEndpoints.add (aEndpoint.getAsEndpoint ());
+      return new SMPProcess (new SimpleProcessIdentifier (m_sProcessScheme, m_sProcessValue), aEndpoints, m_sExtension);
+    }
+
+    @Nonnegative
+    long getEstimatedBytes ()
+    {
+      return SHALLOW_BYTES + getArrayBytes (m_aEndpoints.length) + m_aEndpoints.length * Endpoint.SHALLOW_BYTES;
+    }
+  }
+
+  @Immutable
+  private static final class ServiceInfo
+  {
+    static final long SHALLOW_BYTES = align (OBJECT_HEADER_BYTES + 4 * REFERENCE_BYTES);
+
+    private final String m_sDocTypeScheme;
+    private final String m_sDocTypeValue;
+    private final String m_sExtension;
+    private final Process [] m_aProcesses;
+
+    ServiceInfo (@Nonnull final ISMPServiceInformation aServiceInfo, @Nonnull final SMPObjectPool aPool)
+    {
+      m_sDocTypeScheme = aPool.intern (aServiceInfo.getDocumentTypeIdentifier ().getScheme ());
+      m_sDocTypeValue = aPool.intern (aServiceInfo.getDocumentTypeIdentifier ().getValue ());
+      m_sExtension = aPool.intern (aServiceInfo.getExtensions ().getExtensionsAsJsonString ());
+      final ICommonsList <ISMPProcess> aProcesses = aServiceInfo.getAllProcesses ();
+      m_aProcesses = new Process [aProcesses.size ()];
+      for (int i = 0; i < m_aProcesses.length; ++i)
+        m_aProcesses[i] = new Process (aProcesses.get (i), aPool);
+    }
+
+    boolean hasDocumentType (@Nonnull final IDocumentTypeIdentifier aDocTypeID)
+    {
+      return m_sDocTypeScheme.equals (aDocTypeID.getScheme ()) && m_sDocTypeValue.equals (aDocTypeID.getValue ());
+    }
+
+    @Nonnull
+    IDocumentTypeIdentifier getDocumentTypeIdentifier ()
+    {
+      return new SimpleDocumentTypeIdentifier (m_sDocTypeScheme, m_sDocTypeValue);
+    }
+
+    @Nonnegative
+    int getEndpointCount ()
+    {
+      int ret = 0;
+      for (final Process aProcess : m_aProcesses)
+        ret += aProcess.m_aEndpoints.length;
+      return ret;
+    }
+
+    @Nonnull
+    SMPServiceInformation getAsServiceInformation (@Nonnull final ISMPServiceGroup aServiceGroup)
+    {
+      final ICommonsList <SMPProcess> aProcesses = new CommonsArrayList <> (m_aProcesses.length);
+      for (final Process aProcess : m_aProcesses)
+        aProcesses.add (aProcess.getAsProcess ());
+      return new SMPServiceInformation (aServiceGroup, getDocumentTypeIdentifier (), aProcesses, m_sExtension);
+    }
+
+    @Nonnegative
+    long getEstimatedBytes ()
+    {
+      long ret = SHALLOW_BYTES + getArrayBytes (m_aProcesses.length);
+      for (final Process aProcess : m_aProcesses)
+        ret += aProcess.getEstimatedBytes ();
+      return ret;
+    }
+  }
+
+  @Immutable
+  private static final class Redirect
+  {
+    static final long SHALLOW_BYTES = align (OBJECT_HEADER_BYTES + 6 * REFERENCE_BYTES);
+
+    private final String m_sDocTypeScheme;
+    private final String m_sDocTypeValue;
+    private final String m_sTargetHref;
+    private final String m_sSubjectUniqueIdentifier;
+    private final X509Certificate m_aCertificate;
+    private final String m_sExtension;
+
+    Redirect (@Nonnull final ISMPRedirect aRedirect, @Nonnull final SMPObjectPool aPool)
+    {
+      m_sDocTypeScheme = aPool.intern (aRedirect.getDocumentTypeIdentifier ().getScheme ());
+      m_sDocTypeValue = aPool.intern (aRedirect.getDocumentTypeIdentifier ().getValue ());
+      m_sTargetHref = aPool.intern (aRedirect.getTargetHref ());
+      m_sSubjectUniqueIdentifier = aPool.intern (aRedirect.getSubjectUniqueIdentifier ());
+      m_aCertificate = aPool.intern (aRedirect.getCertificate ());
+      m_sExtension = aPool.intern (aRedirect.getExtensions ().getExtensionsAsJsonString ());
+    }
+
+    boolean hasDocumentType (@Nonnull final IDocumentTypeIdentifier aDocTypeID)
+    {
+      return m_sDocTypeScheme.equals (aDocTypeID.getScheme ()) && m_sDocTypeValue.equals (aDocTypeID.getValue ());
+    }
+
+    @Nonnull
+    SMPRedirect getAsRedirect (@Nonnull final ISMPServiceGroup aServiceGroup)
+    {
+      return new SMPRedirect (aServiceGroup,
+                              new SimpleDocumentTypeIdentifier (m_sDocTypeScheme, m_sDocTypeValue),
+                              m_sTargetHref,
+                              m_sSubjectUniqueIdentifier,
+                              m_aCertificate,
+                              m_sExtension);
+    }
+  }
+
+  private static final long SHALLOW_BYTES = align (OBJECT_HEADER_BYTES + 7 * REFERENCE_BYTES);
+  private static final ServiceInfo [] NO_SERVICE_INFOS = new ServiceInfo [0];
+  private static final Redirect [] NO_REDIRECTS = new Redirect [0];
+
+  private final String m_sParticipantScheme;
+  private final String m_sParticipantValue;
+  private final String m_sOwnerID;
+  private final String m_sExtension;
+  private final ServiceInfo [] m_aServiceInfos;
+  private final Redirect [] m_aRedirects;
+  private final ISMPBusinessCard m_aBusinessCard;
+
+  private SMPCompactParticipant (@Nonnull final String sParticipantScheme,
+                                 @Nonnull final String sParticipantValue,
+                                 @Nonnull final String sOwnerID,
+                                 @Nullable final String sExtension,
+                                 @Nonnull final ServiceInfo [] aServiceInfos,
+                                 @Nonnull final Redirect [] aRedirects,
+                                 @Nullable final ISMPBusinessCard aBusinessCard)
+  {
+    m_sParticipantScheme = sParticipantScheme;
+    m_sParticipantValue = sParticipantValue;
+    m_sOwnerID = sOwnerID;
+    m_sExtension = sExtension;
+    m_aServiceInfos = aServiceInfos;
+    m_aRedirects = aRedirects;
+    m_aBusinessCard = aBusinessCard;
+  }
+
+  static long align (final long nBytes)
+  {
+    return (nBytes + 7) & ~7L;
+  }
+
+  static long getArrayBytes (@Nonnegative final int nLength)
+  {
+    return align (ARRAY_HEADER_BYTES + (long) nLength * REFERENCE_BYTES);
+  }
+
+  /**
+   * @return The participant identifier of the service group. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public IParticipantIdentifier getParticipantIdentifier ()
+  {
+    return new SimpleParticipantIdentifier (m_sParticipantScheme, m_sParticipantValue);
+  }
+
+  /**
+   * @return A new service group object. Never <code>null</code>.
+   */
+  @Nonnull
+  public SMPServiceGroup getAsServiceGroup ()
+  {
+    return new SMPServiceGroup (m_sOwnerID, getParticipantIdentifier (), m_sExtension);
+  }
+
+  /**
+   * @return The document types of all service information (without the
+   *         redirects). Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IDocumentTypeIdentifier> getAllDocumentTypes ()
+  {
+    final ICommonsList <IDocumentTypeIdentifier> ret = new CommonsArrayList <> (m_aServiceInfos.length);
+    for (final ServiceInfo aServiceInfo : m_aServiceInfos)
+      ret.add (aServiceInfo.getDocumentTypeIdentifier ());
+    return ret;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceInformation> getAllServiceInformation (@Nonnull final ISMPServiceGroup aServiceGroup)
+  {
+    final ICommonsList <ISMPServiceInformation> ret = new CommonsArrayList <> (m_aServiceInfos.length);
+    for (final ServiceInfo aServiceInfo : m_aServiceInfos)
+      ret.add (aServiceInfo.getAsServiceInformation (aServiceGroup));
+    return ret;
+  }
+
+  @Nullable
+  public ISMPServiceInformation getServiceInformation (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                                       @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    for (final ServiceInfo aServiceInfo : m_aServiceInfos)
+      if (aServiceInfo.hasDocumentType (aDocTypeID))
+        return aServiceInfo.getAsServiceInformation (aServiceGroup);
+    return null;
+  }
+
+  @Nullable
+  public ISMPRedirect getRedirect (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                   @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    for (final Redirect aRedirect : m_aRedirects)
+      if (aRedirect.hasDocumentType (aDocTypeID))
+        return aRedirect.getAsRedirect (aServiceGroup);
+    return null;
+  }
+
+  @Nullable
+  public ISMPBusinessCard getBusinessCard ()
+  {
+    return m_aBusinessCard;
+  }
+
+  @Nonnegative
+  public int getServiceInformationCount ()
+  {
+    return m_aServiceInfos.length;
+  }
+
+  @Nonnegative
+  public int getRedirectCount ()
+  {
+    return m_aRedirects.length;
+  }
+
+  @Nonnegative
+  public int getEndpointCount ()
+  {
+    int ret = 0;
+    for (final ServiceInfo aServiceInfo : m_aServiceInfos)
+      ret += aServiceInfo.getEndpointCount ();
+    return ret;
+  }
+
+  /**
+   * @return The estimated number of bytes used by this participant, excluding
+   *         the pooled values and the business card.
+   */
+  @Nonnegative
+  public long getEstimatedBytes ()
+  {
+    // The participant value is the only value that is not pooled
+    long ret = SHALLOW_BYTES +
+               SMPObjectPool.getEstimatedBytes (m_sParticipantValue) +
+               getArrayBytes (m_aServiceInfos.length) +
+               getArrayBytes (m_aRedirects.length);
+    for (final ServiceInfo aServiceInfo : m_aServiceInfos)
+      ret += aServiceInfo.getEstimatedBytes ();
+    ret += m_aRedirects.length * Redirect.SHALLOW_BYTES;
+    return ret;
+  }
+
+  /**
+   * Create a copy of this participant, where the service information and the
+   * redirect of the provided document type are replaced.
+   *
+   * @param aDocTypeID
+   *        The document type to be replaced. May not be <code>null</code>.
+   * @param aServiceInfo
+   *        The new service information. May be <code>null</code>.
+   * @param aRedirect
+   *        The new redirect. May be <code>null</code>.
+   * @param aPool
+   *        The pool to be used. May not be <code>null</code>.
+   * @return A new object and never <code>null</code>.
+   */
+  @Nonnull
+  public SMPCompactParticipant getWithServiceMetadata (@Nonnull final IDocumentTypeIdentifier aDocTypeID,
+                                                       @Nullable final ISMPServiceInformation aServiceInfo,
+                                                       @Nullable final ISMPRedirect aRedirect,
+                                                       @Nonnull final SMPObjectPool aPool)
+  {
+    ValueEnforcer.notNull (aDocTypeID, "DocTypeID");
+    ValueEnforcer.notNull (aPool, "Pool");
+
+    final ICommonsList <ServiceInfo> aServiceInfos = new CommonsArrayList <> (m_aServiceInfos.length + 1);
+    for (final ServiceInfo aItem : m_aServiceInfos)
+      if (!aItem.hasDocumentType (aDocTypeID))
+        aServiceInfos.add (aItem);
+    if (aServiceInfo != null)
+      aServiceInfos.add (new ServiceInfo (aServiceInfo, aPool));
+
+    final ICommonsList <Redirect> aRedirects = new CommonsArrayList <> (m_aRedirects.length + 1);
+    for (final Redirect aItem : m_aRedirects)
+      if (!aItem.hasDocumentType (aDocTypeID))
+        aRedirects.add (aItem);
+    if (aRedirect != null)
+      aRedirects.add (new Redirect (aRedirect, aPool));
+
+    return new SMPCompactParticipant (m_sParticipantScheme,
+                                      m_sParticipantValue,
+                                      m_sOwnerID,
+                                      m_sExtension,
+                                      aServiceInfos.toArray (NO_SERVICE_INFOS),
+                                      aRedirects.toArray (NO_REDIRECTS),
+                                      m_aBusinessCard);
+  }
+
+  /**
+   * Create a copy of this participant with a different business card.
+   *
+   * @param aBusinessCard
+   *        The new business card. May be <code>null</code>.
+   * @return A new object and never <code>null</code>.
+   */
+  @Nonnull
+  public SMPCompactParticipant getWithBusinessCard (@Nullable final ISMPBusinessCard aBusinessCard)
+  {
+    return new SMPCompactParticipant (m_sParticipantScheme,
+                                      m_sParticipantValue,
+                                      m_sOwnerID,
+                                      m_sExtension,
+                                      m_aServiceInfos,
+                                      m_aRedirects,
+                                      aBusinessCard);
+  }
+
+  /**
+   * Create a new compact participant.
+   *
+   * @param aServiceGroup
+   *        The service group. May not be <code>null</code>.
+   * @param aServiceInfos
+   *        All service information of the service group. May not be
+   *        <code>null</code>.
+   * @param aRedirects
+   *        All redirects of the service group. May not be <code>null</code>.
+   * @param aBusinessCard
+   *        The business card of the service group. May be <code>null</code>.
+   * @param aPool
+   *        The pool to de-duplicate values. May not be <code>null</code>.
+   * @return The new object and never <code>null</code>.
+   */
+  @Nonnull
+  public static SMPCompactParticipant create (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                              @Nonnull final Iterable <? extends ISMPServiceInformation> aServiceInfos,
+                                              @Nonnull final Iterable <? extends ISMPRedirect> aRedirects,
+                                              @Nullable final ISMPBusinessCard aBusinessCard,
+                                              @Nonnull final SMPObjectPool aPool)
+  {
+    ValueEnforcer.notNull (aServiceGroup, "ServiceGroup");
+    ValueEnforcer.notNull (aServiceInfos, "ServiceInfos");
+    ValueEnforcer.notNull (aRedirects, "Redirects");
+    ValueEnforcer.notNull (aPool, "Pool");
+
+    final ICommonsList <ServiceInfo> aCompactServiceInfos = new CommonsArrayList <> ();
+    for (final ISMPServiceInformation aServiceInfo : aServiceInfos)
+      aCompactServiceInfos.add (new ServiceInfo (aServiceInfo, aPool));
+    final ICommonsList <Redirect> aCompactRedirects = new CommonsArrayList <> ();
+    for (final ISMPRedirect aRedirect : aRedirects)
+      aCompactRedirects.add (new Redirect (aRedirect, aPool));
+
+    final IParticipantIdentifier aParticipantID = aServiceGroup.getParticipantIdentifier ();
+    return new SMPCompactParticipant (aPool.intern (aParticipantID.getScheme ()),
+                                      aParticipantID.getValue (),
+                                      aPool.intern (aServiceGroup.getOwnerID ()),
+                                      aPool.intern (aServiceGroup.getExtensions ().getExtensionsAsJsonString ()),
+                                      aCompactServiceInfos.toArray (NO_SERVICE_INFOS),
+                                      aCompactRedirects.toArray (NO_REDIRECTS),
+                                      aBusinessCard);
+  }
+}
@@ -0,0 +1,565 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.readmodel;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsHashMap;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.timing.StopWatch;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.AbstractSMPParticipantChangeCallback;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.scope.IScope;
+import com.helger.scope.singleton.AbstractGlobalSingleton;
+
+/**
+ * An in-memory read model that holds all participants in the compact
+ * {@link SMPCompactParticipant} representation and serves all public
+ * lookups without touching the backend. Identifier parts, URLs and
+ * certificates are de-duplicated via an {@link SMPObjectPool}.<br>
+ * The read model is kept up to date via the manager callbacks. Additionally it
+ * is completely rebuilt in regular intervals, to catch up with changes that
+ * were not performed via this instance (e.g. by another instance sharing the
+ * same database). Until the first load is complete, all lookups are served by
+ * the managers.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPCompactReadModel extends AbstractGlobalSingleton implements ISMPPublicReadModel
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPCompactReadModel.class);
+
+  private final AbstractSMPParticipantChangeCallback m_aCallback = new AbstractSMPParticipantChangeCallback ()
+  {
+    @Override
+    protected void onServiceGroupChanged (@Nonnull final IParticipantIdentifier aParticipantID, final boolean bDeleted)
+    {
+      _update (aParticipantID, () -> {
+        if (bDeleted)
+          _getParticipants ().remove (SMPServiceGroup.createSMPServiceGroupID (aParticipantID));
+        else
+          _reloadParticipant (aParticipantID);
+      });
+    }
+
+    @Override
+    protected void onServiceMetadataChanged (@Nonnull final IParticipantIdentifier aParticipantID,
+                                             @Nonnull final IDocumentTypeIdentifier aDocTypeID,
+                                             final boolean bDeleted)
+    {
+      _update (aParticipantID, () -> _reloadServiceMetadata (aParticipantID, aDocTypeID));
+    }
+
+    @Override
+    protected void onBusinessCardChanged (@Nonnull final IParticipantIdentifier aParticipantID, final boolean bDeleted)
+    {
+      _update (aParticipantID, () -> _reloadBusinessCard (aParticipantID));
+    }
+  };
+
+  private static final int PARTICIPANT_LOCK_COUNT = 64;
+
+  // Guards the exchange of the participants map and the changes while
+  // loading. It is never held while the backend is accessed. Readers don't
+  // need a lock.
+  private final Lock m_aUpdateLock = new ReentrantLock ();
+  // Serializes the updates of a single participant (striped by key), so that
+  // updates of different participants don't block each other while reading
+  // from the backend
+  private final Lock [] m_aParticipantLocks = _createLocks (PARTICIPANT_LOCK_COUNT);
+  private volatile ConcurrentHashMap <String, SMPCompactParticipant> m_aParticipants;
+  // Only exchanged while holding the update lock
+  private volatile SMPObjectPool m_aPool;
+  // Only non-null while a complete load is running
+  @GuardedBy ("m_aUpdateLock")
+  private ICommonsMap <String, IParticipantIdentifier> m_aChangedWhileLoading;
+
+  private final AtomicInteger m_aLoadCount = new AtomicInteger (0);
+  private volatile long m_nLastLoadMillis = -1;
+  private volatile OffsetDateTime m_aLastLoadDT;
+  private ScheduledExecutorService m_aScheduler;
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPCompactReadModel ()
+  {}
+
+  @Nonnull
+  public static SMPCompactReadModel getInstance ()
+  {
+    return getGlobalSingleton (SMPCompactReadModel.class);
+  }
+
+  /**
+   * @return The instance if it was instantiated, <code>null</code> otherwise.
+   */
+  @Nullable
+  public static SMPCompactReadModel getInstanceIfInstantiated ()
+  {
+    return getGlobalSingletonIfInstantiated (SMPCompactReadModel.class);
+  }
+
+  @Override
+  protected void onAfterInstantiation (@Nonnull final IScope aScope)
+  {
+    AbstractSMPParticipantChangeCallback.registerAtAllManagers (m_aCallback);
+
+    m_aScheduler = Executors.newSingleThreadScheduledExecutor (r -> {
+      final Thread t = new Thread (r, "smp-readmodel-reconciler");
+      t.setDaemon (true);
+      return t;
+    });
+
+    // The initial load happens in the background, so that the startup is not
+    // delayed
+    final long nReconcileSeconds = SMPServerConfiguration.getReadModelReconcileSeconds ();
+    if (nReconcileSeconds > 0)
+      m_aScheduler.scheduleWithFixedDelay (this::reloadAll, 0, nReconcileSeconds, TimeUnit.SECONDS);
+    else
+      m_aScheduler.execute (this::reloadAll);
+  }
+
+  @Override
+  protected void onDestroy (@Nonnull final IScope aScopeInDestruction) throws Exception
+  {
+    AbstractSMPParticipantChangeCallback.unregisterFromAllManagers (m_aCallback);
+    m_aScheduler.shutdownNow ();
+    m_aScheduler = null;
+  }
+
+  @Nonnull
+  private static Lock [] _createLocks (@Nonnegative final int nCount)
+  {
+    final Lock [] ret = new Lock [nCount];
+    for (int i = 0; i < nCount; ++i)
+      ret[i] = new ReentrantLock ();
+    return ret;
+  }
+
+  @Nonnull
+  private ConcurrentHashMap <String, SMPCompactParticipant> _getParticipants ()
+  {
+    // Always use the current map, as it may be exchanged by a complete load
+    return m_aParticipants;
+  }
+
+  private void _update (@Nonnull final IParticipantIdentifier aParticipantID, @Nonnull final Runnable aAction)
+  {
+    final String sKey = SMPServiceGroup.createSMPServiceGroupID (aParticipantID);
+    m_aUpdateLock.lock ();
+    try
+    {
+      // Remember to apply the change again after the running load, because
+      // the load may have read the backend before this change
+      if (m_aChangedWhileLoading != null)
+        m_aChangedWhileLoading.put (sKey, aParticipantID);
+    }
+    finally
+    {
+      m_aUpdateLock.unlock ();
+    }
+
+    if (m_aParticipants == null)
+    {
+      // Not yet loaded
+      return;
+    }
+
+    final Lock aParticipantLock = m_aParticipantLocks[Math.floorMod (sKey.hashCode (), m_aParticipantLocks.length)];
+    aParticipantLock.lock ();
+    try
+    {
+      aAction.run ();
+    }
+    catch (final RuntimeException ex)
+    {
+      // The next reconciliation fixes it
+      LOGGER.error ("Failed to update the read model for participant '" + aParticipantID.getURIEncoded () + "'",
+                    ex);
+    }
+    finally
+    {
+      aParticipantLock.unlock ();
+    }
+  }
+
+  // All the following methods must be called with the participant lock held
+  private void _reloadParticipant (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    final String sKey = SMPServiceGroup.createSMPServiceGroupID (aParticipantID);
+    final ISMPServiceGroup aServiceGroup = SMPMetaManager.getServiceGroupMgr ().getSMPServiceGroupOfID (aParticipantID);
+    if (aServiceGroup == null)
+      _getParticipants ().remove (sKey);
+    else
+    {
+      final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
+      final SMPCompactParticipant aParticipant = SMPCompactParticipant.create (aServiceGroup,
+                                                                               SMPMetaManager.getServiceInformationMgr ()
+                                                                                             .getAllSMPServiceInformationOfServiceGroup (aServiceGroup),
+                                                                               SMPMetaManager.getRedirectMgr ()
+                                                                                             .getAllSMPRedirectsOfServiceGroup (aServiceGroup),
+                                                                               aBusinessCardMgr == null ? null
+                                                                                                        : aBusinessCardMgr.getSMPBusinessCardOfID (aParticipantID),
+                                                                               m_aPool);
+      _getParticipants ().put (sKey, aParticipant);
+    }
+  }
+
+  private void _reloadServiceMetadata (@Nonnull final IParticipantIdentifier aParticipantID,
+                                       @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    final String sKey = SMPServiceGroup.createSMPServiceGroupID (aParticipantID);
+    final SMPCompactParticipant aOld = _getParticipants ().get (sKey);
+    final ISMPServiceGroup aServiceGroup = SMPMetaManager.getServiceGroupMgr ().getSMPServiceGroupOfID (aParticipantID);
+    if (aOld == null || aServiceGroup == null)
+    {
+      // Inconsistent - just reload everything of the participant
+      _reloadParticipant (aParticipantID);
+    }
+    else
+    {
+      final ISMPServiceInformation aServiceInfo = SMPMetaManager.getServiceInformationMgr ()
+                                                                .getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                                                        aDocTypeID);
+      final ISMPRedirect aRedirect = SMPMetaManager.getRedirectMgr ()
+                                                   .getSMPRedirectOfServiceGroupAndDocumentType (aServiceGroup, aDocTypeID);
+      _getParticipants ().put (sKey, aOld.getWithServiceMetadata (aDocTypeID, aServiceInfo, aRedirect, m_aPool));
+    }
+  }
+
+  private void _reloadBusinessCard (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    final String sKey = SMPServiceGroup.createSMPServiceGroupID (aParticipantID);
+    final SMPCompactParticipant aOld = _getParticipants ().get (sKey);
+    final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
+    if (aOld != null && aBusinessCardMgr != null)
+      _getParticipants ().put (sKey, aOld.getWithBusinessCard (aBusinessCardMgr.getSMPBusinessCardOfID (aParticipantID)));
+  }
+
+  /**
+   * Completely rebuild the read model from the managers. This is invoked
+   * automatically after startup and in the configured reconciliation interval.
+   * Changes that happen while the load is running are applied again
+   * afterwards.<br>
+   * Note: the new read model is built next to the current one, which stays in
+   * use until the new one is complete. So while loading, two complete copies
+   * of the read model are in memory, plus the objects read from the backend.
+   * The heap must be sized accordingly.
+   */
+  public void reloadAll ()
+  {
+    m_aUpdateLock.lock ();
+    try
+    {
+      if (m_aChangedWhileLoading != null)
+      {
+        // Another load is running
+        return;
+      }
+      m_aChangedWhileLoading = new CommonsHashMap <> ();
+    }
+    finally
+    {
+      m_aUpdateLock.unlock ();
+    }
+
+    final StopWatch aSW = StopWatch.createdStarted ();
+    boolean bExchanged = false;
+    try
+    {
+      final SMPObjectPool aPool = new SMPObjectPool ();
+
+      final ICommonsMap <String, ICommonsList <ISMPServiceInformation>> aServiceInfos = new CommonsHashMap <> ();
+      for (final ISMPServiceInformation aServiceInfo : SMPMetaManager.getServiceInformationMgr ()
+                                                                     .getAllSMPServiceInformation ())
+        aServiceInfos.computeIfAbsent (aServiceInfo.getServiceGroupID (), k -> new CommonsArrayList <> ())
+                     .add (aServiceInfo);
+
+      final ICommonsMap <String, ICommonsList <ISMPRedirect>> aRedirects = new CommonsHashMap <> ();
+      for (final ISMPRedirect aRedirect : SMPMetaManager.getRedirectMgr ().getAllSMPRedirects ())
+        aRedirects.computeIfAbsent (aRedirect.getServiceGroupID (), k -> new CommonsArrayList <> ()).add (aRedirect);
+
+      final ICommonsMap <String, ISMPBusinessCard> aBusinessCards = new CommonsHashMap <> ();
+      final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
+      if (aBusinessCardMgr != null)
+        for (final ISMPBusinessCard aBusinessCard : aBusinessCardMgr.getAllSMPBusinessCards ())
+          aBusinessCards.put (SMPServiceGroup.createSMPServiceGroupID (aBusinessCard.getParticipantIdentifier ()),
+                              aBusinessCard);
+
+      final ICommonsList <ISMPServiceGroup> aServiceGroups = SMPMetaManager.getServiceGroupMgr ()
+                                                                           .getAllSMPServiceGroups ();
+      final ConcurrentHashMap <String, SMPCompactParticipant> aParticipants = new ConcurrentHashMap <> (aServiceGroups.size ());
+      for (final ISMPServiceGroup aServiceGroup : aServiceGroups)
+      {
+        final String sKey = aServiceGroup.getID ();
+        aParticipants.put (sKey,
+                           SMPCompactParticipant.create (aServiceGroup,
+                                                         aServiceInfos.getOrDefault (sKey, new CommonsArrayList <> ()),
+                                                         aRedirects.getOrDefault (sKey, new CommonsArrayList <> ()),
+                                                         aBusinessCards.get (sKey),
+                                                         aPool));
+      }
+
+      final ICommonsList <IParticipantIdentifier> aChangedWhileLoading;
+      m_aUpdateLock.lock ();
+      try
+      {
+        m_aParticipants = aParticipants;
+        m_aPool = aPool;
+        aChangedWhileLoading = m_aChangedWhileLoading.copyOfValues ();
+        m_aChangedWhileLoading = null;
+        bExchanged = true;
+      }
+      finally
+      {
+        m_aUpdateLock.unlock ();
+      }
+
+      // Apply the changes that happened while loading
+      for (final IParticipantIdentifier aParticipantID : aChangedWhileLoading)
+        _update (aParticipantID, () -> _reloadParticipant (aParticipantID));
+
+      m_nLastLoadMillis = aSW.stopAndGetMillis ();
+      m_aLastLoadDT = PDTFactory.getCurrentOffsetDateTime ();
+      m_aLoadCount.incrementAndGet ();
+      LOGGER.info ("Loaded " +
+                   aParticipants.size () +
+                   " participants with " +
+                   getEndpointCount () +
+                   " endpoints into the read model in " +
+                   m_nLastLoadMillis +
+                   " ms (estimated size: " +
+                   getEstimatedBytes () +
+                   " bytes)");
+    }
+    catch (final RuntimeException ex)
+    {
+      LOGGER.error ("Failed to load the read model", ex);
+    }
+    finally
+    {
+      if (!bExchanged)
+      {
+        m_aUpdateLock.lock ();
+        try
+        {
+          m_aChangedWhileLoading = null;
+        }
+        finally
+        {
+          m_aUpdateLock.unlock ();
+        }
+      }
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the first load is complete and lookups can be
+   *         served from this read model.
+   */
+  public boolean isLoaded ()
+  {
+    return m_aParticipants != null;
+  }
+
+  @Nullable
+  private SMPCompactParticipant _getParticipant (@Nonnull final ISMPServiceGroup aServiceGroup)
+  {
+    final ConcurrentHashMap <String, SMPCompactParticipant> aParticipants = m_aParticipants;
+    return aParticipants == null ? null : aParticipants.get (aServiceGroup.getID ());
+  }
+
+  @Nullable
+  private SMPCompactParticipant _getParticipant (@Nullable final IParticipantIdentifier aParticipantID)
+  {
+    final ConcurrentHashMap <String, SMPCompactParticipant> aParticipants = m_aParticipants;
+    if (aParticipants == null || aParticipantID == null)
+      return null;
+    return aParticipants.get (SMPServiceGroup.createSMPServiceGroupID (aParticipantID));
+  }
+
+  @Nullable
+  public ISMPServiceGroup getServiceGroupOfID (@Nullable final IParticipantIdentifier aParticipantID)
+  {
+    final SMPCompactParticipant aParticipant = _getParticipant (aParticipantID);
+    return aParticipant == null ? null : aParticipant.getAsServiceGroup ();
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IDocumentTypeIdentifier> getAllDocumentTypesOfServiceGroup (@Nonnull final ISMPServiceGroup aServiceGroup)
+  {
+    final SMPCompactParticipant aParticipant = _getParticipant (aServiceGroup);
+    return aParticipant == null ? new CommonsArrayList <> () : aParticipant.getAllDocumentTypes ();
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceInformation> getAllServiceInformationOfServiceGroup (@Nonnull final ISMPServiceGroup aServiceGroup)
+  {
+    final SMPCompactParticipant aParticipant = _getParticipant (aServiceGroup);
+    return aParticipant == null ? new CommonsArrayList <> () : aParticipant.getAllServiceInformation (aServiceGroup);
+  }
+
+  @Nullable
+  public ISMPServiceInformation getServiceInformationOfServiceGroupAndDocumentType (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                                                                    @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    final SMPCompactParticipant aParticipant = _getParticipant (aServiceGroup);
+    return aParticipant == null ? null : aParticipant.getServiceInformation (aServiceGroup, aDocTypeID);
+  }
+
+  @Nullable
+  public ISMPRedirect getRedirectOfServiceGroupAndDocumentType (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                                                @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    final SMPCompactParticipant aParticipant = _getParticipant (aServiceGroup);
+    return aParticipant == null ? null : aParticipant.getRedirect (aServiceGroup, aDocTypeID);
+  }
+
+  @Nullable
+  public ISMPBusinessCard getBusinessCardOfID (@Nullable final IParticipantIdentifier aParticipantID)
+  {
+    final SMPCompactParticipant aParticipant = _getParticipant (aParticipantID);
+    return aParticipant == null ? null : aParticipant.getBusinessCard ();
+  }
+
+  /**
+   * @return The number of contained participants.
+   */
+  @Nonnegative
+  public int getParticipantCount ()
+  {
+    final ConcurrentHashMap <String, SMPCompactParticipant> aParticipants = m_aParticipants;
+    return aParticipants == null ? 0 : aParticipants.size ();
+  }
+
+  /**
+   * @return The number of endpoints over all participants.
+   */
+  @Nonnegative
+  public long getEndpointCount ()
+  {
+    final ConcurrentHashMap <String, SMPCompactParticipant> aParticipants = m_aParticipants;
+    if (aParticipants == null)
+      return 0;
+    long ret = 0;
+    for (final SMPCompactParticipant aParticipant : aParticipants.values ())
+      ret += aParticipant.getEndpointCount ();
+    return ret;
+  }
+
+  /**
+   * @return The number of distinct pooled values.
+   */
+  @Nonnegative
+  public int getPoolSize ()
+  {
+    final SMPObjectPool aPool = m_aPool;
+    return aPool == null ? 0 : aPool.size ();
+  }
+
+  /**
+   * @return The estimated number of bytes of the read model, including the
+   *         pooled values but excluding the business cards. This is only a
+   *         rough estimation for a 64 bit JVM with compressed references.
+   */
+  @Nonnegative
+  public long getEstimatedBytes ()
+  {
+    final ConcurrentHashMap <String, SMPCompactParticipant> aParticipants = m_aParticipants;
+    if (aParticipants == null)
+      return 0;
+
+    // Map node, key string and participant
+    long ret = aParticipants.size () * (32L + 64L);
+    for (final SMPCompactParticipant aParticipant : aParticipants.values ())
+      ret += aParticipant.getEstimatedBytes ();
+    final SMPObjectPool aPool = m_aPool;
+    if (aPool != null)
+      ret += aPool.getEstimatedBytes ();
+    return ret;
+  }
+
+  /**
+   * @return The estimated number of bytes per million endpoints or 0 if no
+   *         endpoint is contained.
+   */
+  @Nonnegative
+  public long getEstimatedBytesPerMillionEndpoints ()
+  {
+    final long nEndpoints = getEndpointCount ();
+    return nEndpoints == 0 ? 0 : getEstimatedBytes () * 1_000_000L / nEndpoints;
+  }
+
+  /**
+   * @return The duration of the last complete load in milliseconds or -1 if
+   *         the read model was not yet loaded.
+   */
+  public long getLastLoadMillis ()
+  {
+    return m_nLastLoadMillis;
+  }
+
+  /**
+   * @return The date and time of the last complete load. May be
+   *         <code>null</code> if the read model was not yet loaded.
+   */
+  @Nullable
+  public OffsetDateTime getLastLoadDateTime ()
+  {
+    return m_aLastLoadDT;
+  }
+
+  /**
+   * @return The number of complete loads since startup.
+   */
+  @Nonnegative
+  public int getLoadCount ()
+  {
+    return m_aLoadCount.get ();
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.readmodel;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+
+/**
+ * Implementation of {@link ISMPPublicReadModel} that directly queries the
+ * managers of {@link SMPMetaManager}. This is the default, if the compact read
+ * model is disabled or not yet loaded.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class SMPManagerReadModel implements ISMPPublicReadModel
+{
+  public SMPManagerReadModel ()
+  {}
+
+  @Nullable
+  public ISMPServiceGroup getServiceGroupOfID (@Nullable final IParticipantIdentifier aParticipantID)
+  {
+    return SMPMetaManager.getServiceGroupMgr ().getSMPServiceGroupOfID (aParticipantID);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IDocumentTypeIdentifier> getAllDocumentTypesOfServiceGroup (@Nonnull final ISMPServiceGroup aServiceGroup)
+  {
+    return SMPMetaManager.getServiceInformationMgr ().getAllSMPDocumentTypesOfServiceGroup (aServiceGroup);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceInformation> getAllServiceInformationOfServiceGroup (@Nonnull final ISMPServiceGroup aServiceGroup)
+  {
+    return SMPMetaManager.getServiceInformationMgr ().getAllSMPServiceInformationOfServiceGroup (aServiceGroup);
+  }
+
+  @Nullable
+  public ISMPServiceInformation getServiceInformationOfServiceGroupAndDocumentType (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                                                                    @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    return SMPMetaManager.getServiceInformationMgr ()
+                         .getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup, aDocTypeID);
+  }
+
+  @Nullable
+  public ISMPRedirect getRedirectOfServiceGroupAndDocumentType (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                                                @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    return SMPMetaManager.getRedirectMgr ().getSMPRedirectOfServiceGroupAndDocumentType (aServiceGroup, aDocTypeID);
+  }
+
+  @Nullable
+  public ISMPBusinessCard getBusinessCardOfID (@Nullable final IParticipantIdentifier aParticipantID)
+  {
+    final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
+    return aBusinessCardMgr == null ? null : aBusinessCardMgr.getSMPBusinessCardOfID (aParticipantID);
+  }
+}
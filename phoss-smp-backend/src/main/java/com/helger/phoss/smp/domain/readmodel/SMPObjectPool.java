@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.readmodel;
+
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A simple pool to de-duplicate immutable values (like identifier parts,
+ * URLs, certificates and date times) that are contained many times in the
+ * read model. Only the first instance of each value is kept.<br>
+ * The pool never shrinks. It is replaced as a whole with every complete
+ * reload of the read model.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPObjectPool
+{
+  // Rough figures for a 64 bit JVM with compressed references
+  private static final int STRING_OVERHEAD_BYTES = 24 + 16;
+  private static final int MAP_ENTRY_BYTES = 32;
+  private static final int OTHER_OBJECT_BYTES = 64;
+
+  private final ConcurrentHashMap <Object, Object> m_aMap = new ConcurrentHashMap <> ();
+  private final AtomicLong m_aEstimatedBytes = new AtomicLong (0);
+
+  public SMPObjectPool ()
+  {}
+
+  @Nonnegative
+  static long getEstimatedBytes (@Nonnull final Object aValue)
+  {
+    if (aValue instanceof String)
+      return SMPCompactParticipant.align (STRING_OVERHEAD_BYTES + ((String) aValue).length ());
+    if (aValue instanceof X509Certificate)
+    {
+      try
+      {
+        // The parsed structures are a multiple of the encoded form
+        return OTHER_OBJECT_BYTES + 3L * ((X509Certificate) aValue).getEncoded ().length;
+      }
+      catch (final CertificateEncodingException ex)
+      {
+        // Fall through
+      }
+    }
+    return OTHER_OBJECT_BYTES;
+  }
+
+  /**
+   * Get the pooled instance of the provided value.
+   *
+   * @param <T>
+   *        The value type. Must be immutable and implement equals and
+   *        hashCode.
+   * @param aValue
+   *        The value to be pooled. May be <code>null</code>.
+   * @return <code>null</code> if the provided value is <code>null</code>.
+   */
+  @Nullable
+  @SuppressWarnings ("unchecked")
+  public <T> T intern (@Nullable final T aValue)
+  {
+    if (aValue == null)
+      return null;
+    final Object aExisting = m_aMap.putIfAbsent (aValue, aValue);
+    if (aExisting != null)
+      return (T) aExisting;
+    m_aEstimatedBytes.addAndGet (MAP_ENTRY_BYTES + getEstimatedBytes (aValue));
+    return aValue;
+  }
+
+  /**
+   * @return The number of distinct values in the pool.
+   */
+  @Nonnegative
+  public int size ()
+  {
+    return m_aMap.size ();
+  }
+
+  /**
+   * @return The estimated number of bytes used by the distinct values
+   *         including the pool overhead.
+   */
+  @Nonnegative
+  public long getEstimatedBytes ()
+  {
+    return m_aEstimatedBytes.get ();
+  }
+}
@@ -10,18 +10,25 @@
  */
 package com.helger.phoss.smp.domain.servicegroup;
 
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.Consumer;
+
 import javax.annotation.CheckForSigned;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.callback.CallbackList;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.compare.ESortOrder;
 import com.helger.commons.state.EChange;
+import com.helger.commons.string.StringHelper;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
@@ -195,6 +202,120 @@ public interface ISMPServiceGroupManager extends ISMPServiceGroupProvider
   @Nonnegative
   long getSMPServiceGroupCountOfOwner (@Nonnull String sOwnerID);
 
+  /**
+   * Iterate the service groups of the passed owner in a stable order (ordered
+   * by participant identifier), starting after the provided participant
+   * identifier. This is meant for paging through large portfolios without
+   * materializing all service groups in memory. The default implementation
+   * is based on {@link #getAllSMPServiceGroupsOfOwner(String)} and should be
+   * overridden by backends that can page natively.
+   *
+   * @param sOwnerID
+   *        The owner ID to search. May not be <code>null</code>.
+   * @param aAfterID
+   *        The participant identifier of the last service group of the
+   *        previous page. Only service groups ordered after this one are
+   *        returned. May be <code>null</code> to start at the beginning.
+   * @param nOffset
+   *        The number of matching service groups to skip. Must be &ge; 0.
+   * @param nMaxCount
+   *        The maximum number of service groups to iterate. Must be &gt; 0.
+   * @param aConsumer
+   *        The consumer to be invoked for each matching service group. May not
+   *        be <code>null</code>.
+   * @since 7.1.1
+   */
+  default void forEachSMPServiceGroupOfOwner (@Nonnull final String sOwnerID,
+                                              @Nullable final IParticipantIdentifier aAfterID,
+                                              @Nonnegative final long nOffset,
+                                              @Nonnegative final long nMaxCount,
+                                              @Nonnull final Consumer <? super ISMPServiceGroup> aConsumer)
+  {
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    final String sAfterID = aAfterID == null ? null : SMPServiceGroup.createSMPServiceGroupID (aAfterID);
+    getAllSMPServiceGroupsOfOwner (sOwnerID).getSortedInline (Comparator.comparing (ISMPServiceGroup::getID))
+                                            .stream ()
+                                            .filter (x -> sAfterID == null || x.getID ().compareTo (sAfterID) > 0)
+                                            .skip (nOffset)
+                                            .limit (nMaxCount)
+                                            .forEach (aConsumer);
+  }
+
+  /**
+   * Get the number of service groups matching the passed filter text. This is
+   * the counterpart to
+   * {@link #forEachSMPServiceGroup(String, ESortOrder, long, long, Consumer)}
+   * and is meant for server side paging in the UI.
+   *
+   * @param sFilterText
+   *        The optional filter text. If present, only service groups that
+   *        contain the text in the participant identifier or in the owner ID
+   *        (case insensitive) are counted. May be <code>null</code>.
+   * @return A non-negative count.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  default long getSMPServiceGroupCount (@Nullable final String sFilterText)
+  {
+    if (StringHelper.hasNoText (sFilterText))
+      return Math.max (getSMPServiceGroupCount (), 0);
+
+    final String sFilter = sFilterText.toLowerCase (Locale.ROOT);
+    return getAllSMPServiceGroups ().getCount (x -> x.getID ().toLowerCase (Locale.ROOT).contains (sFilter) ||
+                                                    x.getOwnerID ().toLowerCase (Locale.ROOT).contains (sFilter));
+  }
+
+  /**
+   * Iterate a single page of all service groups matching the passed filter
+   * text, ordered by the participant identifier. This is meant for server
+   * side paging in the UI, without materializing all service groups in
+   * memory. The default implementation is based on
+   * {@link #getAllSMPServiceGroups()} and should be overridden by backends
+   * that can page natively.
+   *
+   * @param sFilterText
+   *        The optional filter text. If present, only service groups that
+   *        contain the text in the participant identifier or in the owner ID
+   *        (case insensitive) are iterated. May be <code>null</code>.
+   * @param eSortOrder
+   *        The sort order of the participant identifiers. May not be
+   *        <code>null</code>.
+   * @param nOffset
+   *        The number of matching service groups to skip. Must be &ge; 0.
+   * @param nMaxCount
+   *        The maximum number of service groups to iterate. Must be &gt; 0.
+   * @param aConsumer
+   *        The consumer to be invoked for each matching service group. May not
+   *        be <code>null</code>.
+   * @see #getSMPServiceGroupCount(String)
+   * @since 7.1.1
+   */
+  default void forEachSMPServiceGroup (@Nullable final String sFilterText,
+                                       @Nonnull final ESortOrder eSortOrder,
+                                       @Nonnegative final long nOffset,
+                                       @Nonnegative final long nMaxCount,
+                                       @Nonnull final Consumer <? super ISMPServiceGroup> aConsumer)
+  {
+    ValueEnforcer.notNull (eSortOrder, "SortOrder");
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    final String sFilter = StringHelper.hasText (sFilterText) ? sFilterText.toLowerCase (Locale.ROOT) : null;
+    final Comparator <ISMPServiceGroup> aComparator = Comparator.comparing (ISMPServiceGroup::getID);
+    getAllSMPServiceGroups ().getSortedInline (eSortOrder.isAscending () ? aComparator : aComparator.reversed ())
+                             .stream ()
+                             .filter (x -> sFilter == null ||
+                                           x.getID ().toLowerCase (Locale.ROOT).contains (sFilter) ||
+                                           x.getOwnerID ().toLowerCase (Locale.ROOT).contains (sFilter))
+                             .skip (nOffset)
+                             .limit (nMaxCount)
+                             .forEach (aConsumer);
+  }
+
   /**
    * Check if a service group with the passed participant identifier is
    * contained.
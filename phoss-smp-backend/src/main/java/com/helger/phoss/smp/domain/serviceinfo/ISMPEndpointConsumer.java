@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.serviceinfo;
+
+import javax.annotation.Nonnull;
+
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.IProcessIdentifier;
+
+/**
+ * Callback interface for iterating endpoints together with the identifiers
+ * they belong to, without the need to load the complete service information.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ * @see ISMPServiceInformationManager#forEachEndpoint(SMPEndpointFilter, long,
+ *      long, ISMPEndpointConsumer)
+ */
+@FunctionalInterface
+public interface ISMPEndpointConsumer
+{
+  /**
+   * Called for each matching endpoint.
+   *
+   * @param aParticipantID
+   *        The participant ID of the service group. Never <code>null</code>.
+   * @param aDocTypeID
+   *        The document type ID of the service information. Never
+   *        <code>null</code>.
+   * @param aProcessID
+   *        The process ID of the process. Never <code>null</code>.
+   * @param aEndpoint
+   *        The endpoint itself. Never <code>null</code>.
+   */
+  void accept (@Nonnull IParticipantIdentifier aParticipantID,
+               @Nonnull IDocumentTypeIdentifier aDocTypeID,
+               @Nonnull IProcessIdentifier aProcessID,
+               @Nonnull ISMPEndpoint aEndpoint);
+}
@@ -10,18 +10,25 @@
  */
 package com.helger.phoss.smp.domain.serviceinfo;
 
+import java.util.Comparator;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.callback.CallbackList;
+import com.helger.commons.collection.impl.CommonsHashMap;
 import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.mutable.MutableLong;
 import com.helger.commons.state.EChange;
 import com.helger.commons.state.ESuccess;
 import com.helger.peppol.smp.ISMPTransportProfile;
 import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.IProcessIdentifier;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 
@@ -153,6 +160,123 @@ public interface ISMPServiceInformationManager
   @ReturnsMutableCopy
   ICommonsList <ISMPServiceInformation> getAllSMPServiceInformationOfServiceGroup (@Nullable ISMPServiceGroup aServiceGroup);
 
+  /**
+   * Get the number of document types, processes and endpoints for each of the
+   * provided service groups. This is meant to display the counts of many
+   * service groups at once (e.g. a page in the UI), without loading all the
+   * service information objects. The default implementation is based on
+   * {@link #getAllSMPServiceInformationOfServiceGroup(ISMPServiceGroup)} and
+   * should be overridden by backends that can aggregate natively.
+   *
+   * @param aServiceGroups
+   *        The service groups of interest. May not be <code>null</code>.
+   * @return A new map from service group ID to count. Contains an entry for
+   *         every provided service group. Never <code>null</code>.
+   * @since 7.1.1
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  default ICommonsMap <String, SMPServiceInformationCount> getServiceInformationCountOfServiceGroups (@Nonnull final Iterable <? extends ISMPServiceGroup> aServiceGroups)
+  {
+    ValueEnforcer.notNull (aServiceGroups, "ServiceGroups");
+
+    final ICommonsMap <String, SMPServiceInformationCount> ret = new CommonsHashMap <> ();
+    for (final ISMPServiceGroup aServiceGroup : aServiceGroups)
+    {
+      int nProcesses = 0;
+      int nEndpoints = 0;
+      final ICommonsList <ISMPServiceInformation> aSIs = getAllSMPServiceInformationOfServiceGroup (aServiceGroup);
+      for (final ISMPServiceInformation aSI : aSIs)
+      {
+        nProcesses += aSI.getProcessCount ();
+        nEndpoints += aSI.getTotalEndpointCount ();
+      }
+      ret.put (aServiceGroup.getID (), new SMPServiceInformationCount (aSIs.size (), nProcesses, nEndpoints));
+    }
+    return ret;
+  }
+
+  /**
+   * Count all endpoints matching the provided filter. The default
+   * implementation iterates all service information objects, so backends
+   * should overwrite it with an indexed query.
+   *
+   * @param aFilter
+   *        The filter to apply. May not be <code>null</code>. Use
+   *        {@link SMPEndpointFilter#ALL} to count all endpoints.
+   * @return The number of matching endpoints. Always &ge; 0.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  default long getEndpointCount (@Nonnull final SMPEndpointFilter aFilter)
+  {
+    final MutableLong ret = new MutableLong (0);
+    forEachEndpoint (aFilter, 0, Long.MAX_VALUE, (aParticipantID, aDocTypeID, aProcessID, aEndpoint) -> ret.inc ());
+    return ret.longValue ();
+  }
+
+  /**
+   * Iterate a page of all endpoints matching the provided filter. The
+   * endpoints are ordered by participant ID, document type ID, process ID and
+   * transport profile, but the exact collation is backend specific. The
+   * default implementation iterates all service information objects, so
+   * backends should overwrite it with an indexed query.
+   *
+   * @param aFilter
+   *        The filter to apply. May not be <code>null</code>. Use
+   *        {@link SMPEndpointFilter#ALL} to iterate all endpoints.
+   * @param nOffset
+   *        The number of matching endpoints to skip. Must be &ge; 0.
+   * @param nMaxCount
+   *        The maximum number of endpoints to pass to the consumer. Must be
+   *        &gt; 0.
+   * @param aConsumer
+   *        The consumer to be invoked for each endpoint. May not be
+   *        <code>null</code>.
+   * @since 7.1.1
+   */
+  default void forEachEndpoint (@Nonnull final SMPEndpointFilter aFilter,
+                                @Nonnegative final long nOffset,
+                                @Nonnegative final long nMaxCount,
+                                @Nonnull final ISMPEndpointConsumer aConsumer)
+  {
+    ValueEnforcer.notNull (aFilter, "Filter");
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    long nIndex = 0;
+    final long nEnd = nMaxCount > Long.MAX_VALUE - nOffset ? Long.MAX_VALUE : nOffset + nMaxCount;
+    final ICommonsList <ISMPServiceInformation> aSIs = getAllSMPServiceInformation ();
+    aSIs.sort (Comparator.comparing ((final ISMPServiceInformation x) -> x.getServiceGroup ()
+                                                                          .getParticipantIdentifier ()
+                                                                          .getURIEncoded ())
+                         .thenComparing (x -> x.getDocumentTypeIdentifier ().getURIEncoded ()));
+    for (final ISMPServiceInformation aSI : aSIs)
+    {
+      final IParticipantIdentifier aParticipantID = aSI.getServiceGroup ().getParticipantIdentifier ();
+      if (!aFilter.isMatchingParticipantID (aParticipantID))
+        continue;
+
+      for (final ISMPProcess aProcess : aSI.getAllProcesses ()
+                                           .getSortedInline (Comparator.comparing (x -> x.getProcessIdentifier ()
+                                                                                        .getURIEncoded ())))
+        for (final ISMPEndpoint aEndpoint : aProcess.getAllEndpoints ()
+                                                    .getSortedInline (Comparator.comparing (ISMPEndpoint::getTransportProfile)))
+          if (aFilter.isMatchingEndpoint (aEndpoint))
+          {
+            if (nIndex >= nOffset)
+              aConsumer.accept (aParticipantID,
+                                aSI.getDocumentTypeIdentifier (),
+                                aProcess.getProcessIdentifier (),
+                                aEndpoint);
+            nIndex++;
+            if (nIndex >= nEnd)
+              return;
+          }
+    }
+  }
+
   /**
    * Get all SMP document types that are registered for the provided service
    * group. This is a sanity method to handle the REST service group request
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.serviceinfo;
+
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.equals.EqualsHelper;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.peppolid.IParticipantIdentifier;
+
+/**
+ * Filter criteria to search for endpoints. All criteria are optional and are
+ * combined with "and". The criteria are chosen so that the SQL and MongoDB
+ * backends can use an index for the most selective ones:
+ * <ul>
+ * <li>The transport profile is matched exactly.</li>
+ * <li>The endpoint reference (URL) is matched case sensitive as a prefix.</li>
+ * <li>The URI encoded participant ID ("scheme::value") is matched case
+ * insensitive as a substring.</li>
+ * <li>The certificate is matched as a substring.</li>
+ * </ul>
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class SMPEndpointFilter
+{
+  /** A filter that matches all endpoints */
+  public static final SMPEndpointFilter ALL = new SMPEndpointFilter (null, null, null, null);
+
+  private final String m_sParticipantIDPart;
+  private final String m_sTransportProfile;
+  private final String m_sEndpointReferencePrefix;
+  private final String m_sCertificatePart;
+
+  private static String _unifyPart (@Nullable final String s)
+  {
+    return StringHelper.hasText (s) ? s.trim () : null;
+  }
+
+  public SMPEndpointFilter (@Nullable final String sParticipantIDPart,
+                            @Nullable final String sTransportProfile,
+                            @Nullable final String sEndpointReferencePrefix,
+                            @Nullable final String sCertificatePart)
+  {
+    m_sParticipantIDPart = _unifyPart (sParticipantIDPart);
+    m_sTransportProfile = _unifyPart (sTransportProfile);
+    m_sEndpointReferencePrefix = _unifyPart (sEndpointReferencePrefix);
+    m_sCertificatePart = _unifyPart (sCertificatePart);
+  }
+
+  /**
+   * @return The part of the URI encoded participant ID to search for. Matched
+   *         case insensitive. May be <code>null</code>.
+   */
+  @Nullable
+  public String getParticipantIDPart ()
+  {
+    return m_sParticipantIDPart;
+  }
+
+  /**
+   * @return The ID of the transport profile that must match exactly. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  public String getTransportProfile ()
+  {
+    return m_sTransportProfile;
+  }
+
+  /**
+   * @return The start of the endpoint reference to search for. Matched case
+   *         sensitive. May be <code>null</code>.
+   */
+  @Nullable
+  public String getEndpointReferencePrefix ()
+  {
+    return m_sEndpointReferencePrefix;
+  }
+
+  /**
+   * @return The part of the Base64 encoded certificate to search for. Matched
+   *         case sensitive. May be <code>null</code>.
+   */
+  @Nullable
+  public String getCertificatePart ()
+  {
+    return m_sCertificatePart;
+  }
+
+  /**
+   * @return <code>true</code> if at least one criterion is set,
+   *         <code>false</code> if this filter matches all endpoints.
+   */
+  public boolean hasAnyCriteria ()
+  {
+    return m_sParticipantIDPart != null ||
+           m_sTransportProfile != null ||
+           m_sEndpointReferencePrefix != null ||
+           m_sCertificatePart != null;
+  }
+
+  /**
+   * Check if the participant ID matches this filter.
+   *
+   * @param aParticipantID
+   *        The participant ID to check. May not be <code>null</code>.
+   * @return <code>true</code> if it matches, <code>false</code> if not.
+   */
+  public boolean isMatchingParticipantID (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    ValueEnforcer.notNull (aParticipantID, "ParticipantID");
+    if (m_sParticipantIDPart == null)
+      return true;
+    return aParticipantID.getURIEncoded ()
+                         .toLowerCase (Locale.ROOT)
+                         .contains (m_sParticipantIDPart.toLowerCase (Locale.ROOT));
+  }
+
+  /**
+   * Check if the endpoint matches this filter. The participant ID part is not
+   * considered here.
+   *
+   * @param aEndpoint
+   *        The endpoint to check. May not be <code>null</code>.
+   * @return <code>true</code> if it matches, <code>false</code> if not.
+   * @see #isMatchingParticipantID(IParticipantIdentifier)
+   */
+  public boolean isMatchingEndpoint (@Nonnull final ISMPEndpoint aEndpoint)
+  {
+    ValueEnforcer.notNull (aEndpoint, "Endpoint");
+    if (m_sTransportProfile != null && !m_sTransportProfile.equals (aEndpoint.getTransportProfile ()))
+      return false;
+    if (m_sEndpointReferencePrefix != null &&
+        !StringHelper.startsWith (aEndpoint.getEndpointReference (), m_sEndpointReferencePrefix))
+      return false;
+    if (m_sCertificatePart != null && !StringHelper.contains (aEndpoint.getCertificate (), m_sCertificatePart))
+      return false;
+    return true;
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+    final SMPEndpointFilter rhs = (SMPEndpointFilter) o;
+    return EqualsHelper.equals (m_sParticipantIDPart, rhs.m_sParticipantIDPart) &&
+           EqualsHelper.equals (m_sTransportProfile, rhs.m_sTransportProfile) &&
+           EqualsHelper.equals (m_sEndpointReferencePrefix, rhs.m_sEndpointReferencePrefix) &&
+           EqualsHelper.equals (m_sCertificatePart, rhs.m_sCertificatePart);
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    return new HashCodeGenerator (this).append (m_sParticipantIDPart)
+                                       .append (m_sTransportProfile)
+                                       .append (m_sEndpointReferencePrefix)
+                                       .append (m_sCertificatePart)
+                                       .getHashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).appendIfNotNull ("ParticipantIDPart", m_sParticipantIDPart)
+                                       .appendIfNotNull ("TransportProfile", m_sTransportProfile)
+                                       .appendIfNotNull ("EndpointReferencePrefix", m_sEndpointReferencePrefix)
+                                       .appendIfNotNull ("CertificatePart", m_sCertificatePart)
+                                       .getToString ();
+  }
+}
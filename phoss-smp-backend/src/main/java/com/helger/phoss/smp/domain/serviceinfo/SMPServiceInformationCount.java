@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.serviceinfo;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * The aggregated number of document types, processes and endpoints of a
+ * single service group.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class SMPServiceInformationCount
+{
+  /** The count of a service group without any service information */
+  public static final SMPServiceInformationCount EMPTY = new SMPServiceInformationCount (0, 0, 0);
+
+  private final int m_nDocumentTypeCount;
+  private final int m_nProcessCount;
+  private final int m_nEndpointCount;
+
+  public SMPServiceInformationCount (@Nonnegative final int nDocumentTypeCount,
+                                     @Nonnegative final int nProcessCount,
+                                     @Nonnegative final int nEndpointCount)
+  {
+    ValueEnforcer.isGE0 (nDocumentTypeCount, "DocumentTypeCount");
+    ValueEnforcer.isGE0 (nProcessCount, "ProcessCount");
+    ValueEnforcer.isGE0 (nEndpointCount, "EndpointCount");
+    m_nDocumentTypeCount = nDocumentTypeCount;
+    m_nProcessCount = nProcessCount;
+    m_nEndpointCount = nEndpointCount;
+  }
+
+  /**
+   * @return The number of service information objects, which is the number of
+   *         document types. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getDocumentTypeCount ()
+  {
+    return m_nDocumentTypeCount;
+  }
+
+  /**
+   * @return The number of processes over all service information objects.
+   *         Always &ge; 0.
+   */
+  @Nonnegative
+  public int getProcessCount ()
+  {
+    return m_nProcessCount;
+  }
+
+  /**
+   * @return The number of endpoints over all processes. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getEndpointCount ()
+  {
+    return m_nEndpointCount;
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+    final SMPServiceInformationCount rhs = (SMPServiceInformationCount) o;
+    return m_nDocumentTypeCount == rhs.m_nDocumentTypeCount &&
+           m_nProcessCount == rhs.m_nProcessCount &&
+           m_nEndpointCount == rhs.m_nEndpointCount;
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    return new HashCodeGenerator (this).append (m_nDocumentTypeCount)
+                                       .append (m_nProcessCount)
+                                       .append (m_nEndpointCount)
+                                       .getHashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("DocumentTypeCount", m_nDocumentTypeCount)
+                                       .append ("ProcessCount", m_nProcessCount)
+                                       .append ("EndpointCount", m_nEndpointCount)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.exchange;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.id.IHasID;
+import com.helger.commons.lang.EnumHelper;
+
+/**
+ * Defines how the import handles Service Groups and Business Cards that are
+ * already present in this SMP.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public enum EImportMode implements IHasID <String>
+{
+  /** Existing elements are ignored */
+  SKIP_EXISTING ("skip"),
+  /**
+   * Existing elements are deleted, including all service information,
+   * redirects and business cards, and created again from the import
+   */
+  OVERWRITE_EXISTING ("overwrite"),
+  /**
+   * Existing elements are compared with the import and only the real changes
+   * are applied. Unchanged elements are not touched at all.
+   */
+  APPLY_CHANGES ("changes");
+
+  private final String m_sID;
+
+  EImportMode (@Nonnull @Nonempty final String sID)
+  {
+    m_sID = sID;
+  }
+
+  @Nonnull
+  @Nonempty
+  public String getID ()
+  {
+    return m_sID;
+  }
+
+  /**
+   * @return <code>true</code> if existing elements are part of the import,
+   *         <code>false</code> if they are skipped.
+   */
+  public boolean isHandleExisting ()
+  {
+    return this != SKIP_EXISTING;
+  }
+
+  @Nonnull
+  public static EImportMode getFromOverwriteExisting (final boolean bOverwriteExisting)
+  {
+    return bOverwriteExisting ? OVERWRITE_EXISTING : SKIP_EXISTING;
+  }
+
+  @Nullable
+  public static EImportMode getFromIDOrNull (@Nullable final String sID)
+  {
+    return EnumHelper.getFromIDOrNull (EImportMode.class, sID);
+  }
+}
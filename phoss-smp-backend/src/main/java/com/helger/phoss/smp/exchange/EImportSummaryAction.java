@@ -24,9 +24,28 @@ public enum EImportSummaryAction implements IHasID <String>
 {
   DELETE_SG ("delete-servicegroup"),
   CREATE_SG ("create-servicegroup"),
+  UPDATE_SG ("update-servicegroup"),
+  /** @since 7.1.1 */
+  UNCHANGED_SG ("unchanged-servicegroup"),
   CREATE_SI ("create-serviceinfo"),
+  /** @since 7.1.1 */
+  UPDATE_SI ("update-serviceinfo"),
+  /** @since 7.1.1 */
+  UNCHANGED_SI ("unchanged-serviceinfo"),
+  /** @since 7.1.1 */
+  DELETE_SI ("delete-serviceinfo"),
   CREATE_REDIRECT ("create-redirect"),
+  /** @since 7.1.1 */
+  UPDATE_REDIRECT ("update-redirect"),
+  /** @since 7.1.1 */
+  UNCHANGED_REDIRECT ("unchanged-redirect"),
+  /** @since 7.1.1 */
+  DELETE_REDIRECT ("delete-redirect"),
   CREATE_BC ("create-business-card"),
+  /** @since 7.1.1 */
+  UPDATE_BC ("update-business-card"),
+  /** @since 7.1.1 */
+  UNCHANGED_BC ("unchanged-business-card"),
   DELETE_BC ("delete-business-card");
 
   private final String m_sID;
@@ -12,7 +12,9 @@ package com.helger.phoss.smp.exchange;
 
 import java.util.Map;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import com.helger.commons.ValueEnforcer;
@@ -50,6 +52,32 @@ public final class ImportSummary
     m_aMap.computeIfAbsent (eAction, k -> new ImportSummaryItem ()).incError ();
   }
 
+  /**
+   * @param eAction
+   *        The action to query. May be <code>null</code>.
+   * @return The number of successful executions of the provided action.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public int getSuccessCount (@Nullable final EImportSummaryAction eAction)
+  {
+    final ImportSummaryItem aItem = m_aMap.get (eAction);
+    return aItem == null ? 0 : aItem.getSuccessCount ();
+  }
+
+  /**
+   * @param eAction
+   *        The action to query. May be <code>null</code>.
+   * @return The number of failed executions of the provided action.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public int getErrorCount (@Nullable final EImportSummaryAction eAction)
+  {
+    final ImportSummaryItem aItem = m_aMap.get (eAction);
+    return aItem == null ? 0 : aItem.getErrorCount ();
+  }
+
   public void forEach (@Nonnull final ICallbackItem aCallback)
   {
     ValueEnforcer.notNull (aCallback, "Callback");
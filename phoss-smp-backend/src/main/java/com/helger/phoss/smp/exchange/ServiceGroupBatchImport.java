@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.exchange;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.timing.StopWatch;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.photon.security.user.IUser;
+
+/**
+ * Create or update many Service Groups including their Service Information in
+ * one go. Compared to a sequence of REST PUT calls, the user is authenticated
+ * only once and the items are read one by one from the input. Each item has
+ * the same semantics as the PUT of the Service Group followed by the PUT of
+ * each Service Information: existing Service Information of other document
+ * types are not touched.<br>
+ * There is no transaction spanning multiple items or managers, because the XML
+ * and MongoDB backends cannot provide one. Each manager call is handled on its
+ * own, and each item is applied atomically by reverting the already performed
+ * modifications of the item if a later step fails.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class ServiceGroupBatchImport
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (ServiceGroupBatchImport.class);
+  private static final AtomicInteger COUNTER = new AtomicInteger (0);
+  private static final int PROGRESS_LOG_INTERVAL = 1_000;
+
+  private ServiceGroupBatchImport ()
+  {}
+
+  private static void _revert (@Nonnull final String sLogPrefix,
+                               @Nonnull final ISMPServiceGroup aServiceGroup,
+                               @Nonnull final ISMPServiceGroup aExistingServiceGroup,
+                               @Nonnull final ICommonsList <ISMPServiceInformation> aMergedServiceInfos,
+                               @Nonnull final ICommonsList <ISMPServiceInformation> aPreviousServiceInfos)
+  {
+    final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+    for (int i = aMergedServiceInfos.size () - 1; i >= 0; --i)
+    {
+      final ISMPServiceInformation aPrevious = aPreviousServiceInfos.get (i);
+      if (aPrevious != null)
+        aServiceInfoMgr.mergeSMPServiceInformation (aPrevious);
+      else
+        aServiceInfoMgr.deleteSMPServiceInformation (aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                                                           aMergedServiceInfos.get (i)
+                                                                                                                                              .getDocumentTypeIdentifier ()));
+    }
+    SMPMetaManager.getServiceGroupMgr ()
+                  .updateSMPServiceGroupNoEx (aExistingServiceGroup.getParticipantIdentifier (),
+                                              aExistingServiceGroup.getOwnerID (),
+                                              aExistingServiceGroup.getExtensions ().getExtensionsAsJsonString ());
+    LOGGER.info (sLogPrefix + "[" + aServiceGroup.getID () + "] Reverted the update of the Service Group");
+  }
+
+  @Nonnull
+  private static ServiceGroupBatchResult _importItem (@Nonnull final String sLogPrefix,
+                                                      @Nonnull final ServiceGroupBatchItem aItem,
+                                                      @Nonnull final IUser aOwner,
+                                                      final boolean bCreateInSML,
+                                                      @Nonnull final ImportSummary aSummary)
+  {
+    final int nIndex = aItem.getIndex ();
+    if (aItem.isError ())
+      return ServiceGroupBatchResult.createError (nIndex, aItem.getParticipantID (), aItem.getErrorMessage ());
+
+    final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+    final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+
+    final ISMPServiceGroup aServiceGroup = aItem.getServiceGroup ();
+    final String sServiceGroupID = aServiceGroup.getID ();
+    final IParticipantIdentifier aPI = aServiceGroup.getParticipantIdentifier ();
+
+    // Same checks as for the single PUT of Service Metadata
+    final ISMPServiceGroup aExistingServiceGroup = aServiceGroupMgr.getSMPServiceGroupOfID (aPI);
+    if (aExistingServiceGroup != null && !aExistingServiceGroup.getOwnerID ().equals (aOwner.getID ()))
+      return ServiceGroupBatchResult.createError (nIndex,
+                                                  sServiceGroupID,
+                                                  "User '" + aOwner.getLoginName () + "' does not own " + sServiceGroupID);
+
+    final boolean bCreate = aExistingServiceGroup == null;
+    final EImportSummaryAction eSGAction = bCreate ? EImportSummaryAction.CREATE_SG : EImportSummaryAction.UPDATE_SG;
+    try
+    {
+      final String sExtension = aServiceGroup.getExtensions ().getExtensionsAsJsonString ();
+      if (bCreate)
+        aServiceGroupMgr.createSMPServiceGroup (aOwner.getID (), aPI, sExtension, bCreateInSML);
+      else
+        aServiceGroupMgr.updateSMPServiceGroup (aPI, aOwner.getID (), sExtension);
+      aSummary.onSuccess (eSGAction);
+    }
+    catch (final SMPServerException | RuntimeException ex)
+    {
+      // E.g. if SML connection failed
+      LOGGER.error (sLogPrefix + "[" + sServiceGroupID + "] Error saving the Service Group", ex);
+      aSummary.onError (eSGAction);
+      return ServiceGroupBatchResult.createError (nIndex,
+                                                  sServiceGroupID,
+                                                  "Error saving the Service Group: " + ex.getMessage ());
+    }
+
+    final ICommonsList <ISMPServiceInformation> aMergedServiceInfos = new CommonsArrayList <> ();
+    final ICommonsList <ISMPServiceInformation> aPreviousServiceInfos = new CommonsArrayList <> ();
+    for (final ISMPServiceInformation aServiceInfo : aItem.getAllServiceInformation ())
+    {
+      // Remember the previous state to be able to revert it
+      final ISMPServiceInformation aPrevious = bCreate ? null
+                                                       : aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aExistingServiceGroup,
+                                                                                                                                aServiceInfo.getDocumentTypeIdentifier ());
+      String sError;
+      try
+      {
+        sError = aServiceInfoMgr.mergeSMPServiceInformation (aServiceInfo).isSuccess () ? null
+                                                                                         : "Failed to save the Service Information";
+      }
+      catch (final RuntimeException ex)
+      {
+        LOGGER.error (sLogPrefix + "[" + sServiceGroupID + "] Error saving the Service Information", ex);
+        sError = "Error saving the Service Information: " + ex.getMessage ();
+      }
+
+      if (sError != null)
+      {
+        aSummary.onError (EImportSummaryAction.CREATE_SI);
+        final String sFullError = sError + " for " + aServiceInfo.getDocumentTypeIdentifier ().getURIEncoded ();
+        LOGGER.error (sLogPrefix + "[" + sServiceGroupID + "] " + sFullError);
+
+        // Revert the modifications of this item
+        if (bCreate)
+        {
+          // Implicitly deletes all Service Information
+          if (aServiceGroupMgr.deleteSMPServiceGroupNoEx (aPI, bCreateInSML).isChanged ())
+            LOGGER.info (sLogPrefix + "[" + sServiceGroupID + "] Deleted the Service Group again");
+        }
+        else
+          _revert (sLogPrefix, aServiceGroup, aExistingServiceGroup, aMergedServiceInfos, aPreviousServiceInfos);
+        return ServiceGroupBatchResult.createError (nIndex, sServiceGroupID, sFullError);
+      }
+
+      aSummary.onSuccess (EImportSummaryAction.CREATE_SI);
+      aMergedServiceInfos.add (aServiceInfo);
+      aPreviousServiceInfos.add (aPrevious);
+    }
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug (sLogPrefix +
+                    "[" +
+                    sServiceGroupID +
+                    "] Successfully " +
+                    (bCreate ? "created" : "updated") +
+                    " Service Group with " +
+                    aMergedServiceInfos.size () +
+                    " Service Information");
+    return ServiceGroupBatchResult.createSuccess (nIndex, sServiceGroupID, bCreate, aMergedServiceInfos.size ());
+  }
+
+  /**
+   * Read the next item from the provided reader and create or update it. This
+   * is meant for callers that need to process the items step by step, e.g.
+   * to send the result of each item while the batch is still running.
+   *
+   * @param sLogPrefix
+   *        The log prefix to use. May not be <code>null</code>.
+   * @param aReader
+   *        The reader to read the item from. May not be <code>null</code>.
+   * @param bCreateInSML
+   *        <code>true</code> to register a newly created Service Group in the
+   *        SML.
+   * @param aSummary
+   *        The summary to be filled. May not be <code>null</code>.
+   * @return The result of the item or <code>null</code> if the end of the
+   *         input is reached.
+   * @throws IOException
+   *         If reading fails. All previous items were already applied.
+   */
+  @Nullable
+  public static ServiceGroupBatchResult importNextItem (@Nonnull final String sLogPrefix,
+                                                        @Nonnull final ServiceGroupBatchReader aReader,
+                                                        final boolean bCreateInSML,
+                                                        @Nonnull final ImportSummary aSummary) throws IOException
+  {
+    ValueEnforcer.notNull (sLogPrefix, "LogPrefix");
+    ValueEnforcer.notNull (aReader, "Reader");
+    ValueEnforcer.notNull (aSummary, "Summary");
+
+    final ServiceGroupBatchItem aItem = aReader.readNext ();
+    return aItem == null ? null : _importItem (sLogPrefix, aItem, aReader.getOwner (), bCreateInSML, aSummary);
+  }
+
+  /**
+   * Read all items from the provided reader and create or update them one by
+   * one.
+   *
+   * @param aReader
+   *        The reader to read the items from. May not be <code>null</code>.
+   * @param bCreateInSML
+   *        <code>true</code> to register newly created Service Groups in the
+   *        SML.
+   * @param aResultConsumer
+   *        The consumer that is invoked for every item in the order of the
+   *        input. May not be <code>null</code>.
+   * @param aSummary
+   *        The summary to be filled. May not be <code>null</code>.
+   * @throws IOException
+   *         If reading fails. All items before that were already applied and
+   *         passed to the result consumer.
+   */
+  public static void importBatch (@Nonnull final ServiceGroupBatchReader aReader,
+                                  final boolean bCreateInSML,
+                                  @Nonnull final Consumer <? super ServiceGroupBatchResult> aResultConsumer,
+                                  @Nonnull final ImportSummary aSummary) throws IOException
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    ValueEnforcer.notNull (aResultConsumer, "ResultConsumer");
+    ValueEnforcer.notNull (aSummary, "Summary");
+
+    final String sLogPrefix = "[SG-BATCH-" + COUNTER.incrementAndGet () + "] ";
+    final IUser aOwner = aReader.getOwner ();
+    LOGGER.info (sLogPrefix +
+                 "Starting batch for owner '" +
+                 aOwner.getID () +
+                 "'" +
+                 (bCreateInSML ? "" : " (no SML interaction)"));
+
+    final StopWatch aSW = StopWatch.createdStarted ();
+    int nItems = 0;
+    int nErrors = 0;
+    ServiceGroupBatchResult aResult;
+    while ((aResult = importNextItem (sLogPrefix, aReader, bCreateInSML, aSummary)) != null)
+    {
+      if (!aResult.isSuccess ())
+        nErrors++;
+      aResultConsumer.accept (aResult);
+
+      nItems++;
+      if (nItems % PROGRESS_LOG_INTERVAL == 0)
+        LOGGER.info (sLogPrefix + "Processed " + nItems + " items (" + nErrors + " failed)");
+    }
+
+    aSW.stop ();
+    LOGGER.info (sLogPrefix +
+                 "Finished batch with " +
+                 nItems +
+                 " items (" +
+                 nErrors +
+                 " failed) after " +
+                 aSW.getMillis () +
+                 " milliseconds");
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.exchange;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+
+/**
+ * A single item read by a {@link ServiceGroupBatchReader}. It either contains
+ * a Service Group with all its Service Information or the reason why it could
+ * not be read.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class ServiceGroupBatchItem
+{
+  private final int m_nIndex;
+  private final String m_sParticipantID;
+  private final ISMPServiceGroup m_aServiceGroup;
+  private final ICommonsList <ISMPServiceInformation> m_aServiceInfos;
+  private final String m_sErrorMessage;
+
+  private ServiceGroupBatchItem (@Nonnegative final int nIndex,
+                                 @Nullable final String sParticipantID,
+                                 @Nullable final ISMPServiceGroup aServiceGroup,
+                                 @Nullable final ICommonsList <ISMPServiceInformation> aServiceInfos,
+                                 @Nullable final String sErrorMessage)
+  {
+    m_nIndex = nIndex;
+    m_sParticipantID = sParticipantID;
+    m_aServiceGroup = aServiceGroup;
+    m_aServiceInfos = aServiceInfos;
+    m_sErrorMessage = sErrorMessage;
+  }
+
+  /**
+   * @return The 0-based index of the item within the batch.
+   */
+  @Nonnegative
+  public int getIndex ()
+  {
+    return m_nIndex;
+  }
+
+  /**
+   * @return The participant ID of the item as far as it could be determined.
+   *         May be <code>null</code> for erroneous items.
+   */
+  @Nullable
+  public String getParticipantID ()
+  {
+    return m_sParticipantID;
+  }
+
+  /**
+   * @return <code>true</code> if the item could not be read. In that case
+   *         {@link #getErrorMessage()} contains the reason.
+   */
+  public boolean isError ()
+  {
+    return m_sErrorMessage != null;
+  }
+
+  @Nullable
+  public String getErrorMessage ()
+  {
+    return m_sErrorMessage;
+  }
+
+  /**
+   * @return The transient Service Group read. Only <code>null</code> if this
+   *         is an erroneous item.
+   */
+  @Nullable
+  public ISMPServiceGroup getServiceGroup ()
+  {
+    return m_aServiceGroup;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceInformation> getAllServiceInformation ()
+  {
+    return m_aServiceInfos == null ? new CommonsArrayList <> () : m_aServiceInfos.getClone ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Index", m_nIndex)
+                                       .append ("ParticipantID", m_sParticipantID)
+                                       .append ("ServiceInfoCount", m_aServiceInfos == null ? 0 : m_aServiceInfos.size ())
+                                       .appendIfNotNull ("ErrorMessage", m_sErrorMessage)
+                                       .getToString ();
+  }
+
+  @Nonnull
+  public static ServiceGroupBatchItem createSuccess (@Nonnegative final int nIndex,
+                                                     @Nonnull final ISMPServiceGroup aServiceGroup,
+                                                     @Nonnull final ICommonsList <ISMPServiceInformation> aServiceInfos)
+  {
+    ValueEnforcer.isGE0 (nIndex, "Index");
+    ValueEnforcer.notNull (aServiceGroup, "ServiceGroup");
+    ValueEnforcer.notNull (aServiceInfos, "ServiceInfos");
+    return new ServiceGroupBatchItem (nIndex, aServiceGroup.getID (), aServiceGroup, aServiceInfos, null);
+  }
+
+  @Nonnull
+  public static ServiceGroupBatchItem createError (@Nonnegative final int nIndex,
+                                                   @Nullable final String sParticipantID,
+                                                   @Nonnull @Nonempty final String sErrorMessage)
+  {
+    ValueEnforcer.isGE0 (nIndex, "Index");
+    ValueEnforcer.notEmpty (sErrorMessage, "ErrorMessage");
+    return new ServiceGroupBatchItem (nIndex, sParticipantID, null, null, sErrorMessage);
+  }
+}
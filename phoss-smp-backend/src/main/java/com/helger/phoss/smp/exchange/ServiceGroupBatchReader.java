@@ -0,0 +1,541 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.exchange;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.datetime.XMLOffsetDateTime;
+import com.helger.commons.io.stream.NonBlockingBufferedReader;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.StringParser;
+import com.helger.commons.typeconvert.TypeConverter;
+import com.helger.json.IJson;
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonObject;
+import com.helger.json.IJsonValue;
+import com.helger.json.serialize.JsonReader;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.IProcessIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroupMicroTypeConverter;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformationMicroTypeConverter;
+import com.helger.photon.security.user.IUser;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.MicroElement;
+
+/**
+ * Read Service Groups including their Service Information one by one from a
+ * stream, so that arbitrarily large batches can be processed without keeping
+ * them in memory. Two formats are supported:
+ * <ul>
+ * <li>The exchange XML format v1.0 as created by {@link ServiceGroupExport}.
+ * Only the Service Groups and the contained Service Information are read,
+ * Business Cards are ignored.</li>
+ * <li>NDJSON - one JSON object per line. Each object has the fields
+ * <code>participant</code>, <code>extension</code> and
+ * <code>serviceinfos</code>. Each service information has the fields
+ * <code>doctype</code>, <code>extension</code> and <code>processes</code>.
+ * Each process has the fields <code>process</code>, <code>extension</code>
+ * and <code>endpoints</code>. The endpoint fields are named like the
+ * attributes and elements of the exchange XML format. All identifiers are
+ * provided in the URI encoded form.</li>
+ * </ul>
+ * The owner of all read Service Groups is always the provided user,
+ * independent of the owner contained in the XML.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+public abstract class ServiceGroupBatchReader implements Closeable
+{
+  public static final String JSON_PARTICIPANT = "participant";
+  public static final String JSON_EXTENSION = "extension";
+  public static final String JSON_SERVICEINFOS = "serviceinfos";
+  public static final String JSON_DOCTYPE = "doctype";
+  public static final String JSON_PROCESSES = "processes";
+  public static final String JSON_PROCESS = "process";
+  public static final String JSON_ENDPOINTS = "endpoints";
+  public static final String JSON_TRANSPORT_PROFILE = "transportprofile";
+  public static final String JSON_ENDPOINT_REFERENCE = "endpointref";
+  public static final String JSON_REQUIRE_BUSINESS_LEVEL_SIGNATURE = "reqblsig";
+  public static final String JSON_MINIMUM_AUTHENTICATION_LEVEL = "minauthlevel";
+  public static final String JSON_SERVICE_ACTIVATION_DATE = "activation";
+  public static final String JSON_SERVICE_EXPIRATION_DATE = "expiration";
+  public static final String JSON_CERTIFICATE = "certificate";
+  public static final String JSON_SERVICE_DESCRIPTION = "svcdescription";
+  public static final String JSON_TECHNICAL_CONTACT_URL = "techcontacturl";
+  public static final String JSON_TECHNICAL_INFORMATION_URL = "techinfourl";
+
+  /**
+   * Reader for the exchange XML format v1.0 based on StAX.
+   *
+   * @author Philip Helger
+   */
+  private static final class XMLVer10Reader extends ServiceGroupBatchReader
+  {
+    private final InputStream m_aIS;
+    private final XMLStreamReader m_aReader;
+
+    XMLVer10Reader (@Nonnull @WillCloseWhenClosed final InputStream aIS, @Nonnull final IUser aOwner) throws IOException
+    {
+      super (aOwner);
+      m_aIS = aIS;
+      try
+      {
+        final XMLInputFactory aFactory = XMLInputFactory.newFactory ();
+        // Avoid XXE attacks
+        aFactory.setProperty (XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        aFactory.setProperty (XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        m_aReader = aFactory.createXMLStreamReader (aIS);
+
+        // Check the root element
+        m_aReader.nextTag ();
+        if (!CSMPExchange.ELEMENT_SMP_DATA.equals (m_aReader.getLocalName ()))
+          throw new IOException ("The provided payload is not an SMP exchange XML file. Root element is '" +
+                                 m_aReader.getLocalName () +
+                                 "'");
+        final String sVersion = m_aReader.getAttributeValue (null, CSMPExchange.ATTR_VERSION);
+        if (!CSMPExchange.VERSION_10.equals (sVersion))
+          throw new IOException ("The provided payload is not an XML file version 1.0");
+      }
+      catch (final XMLStreamException ex)
+      {
+        throw new IOException ("Failed to parse the XML payload", ex);
+      }
+    }
+
+    private static void _copyAttributes (@Nonnull final XMLStreamReader aReader, @Nonnull final IMicroElement aElement)
+    {
+      for (int i = 0; i < aReader.getAttributeCount (); ++i)
+        aElement.setAttribute (aReader.getAttributeLocalName (i), aReader.getAttributeValue (i));
+    }
+
+    @Nonnull
+    private IMicroElement _readCurrentElement () throws XMLStreamException
+    {
+      final IMicroElement eRoot = new MicroElement (StringHelper.getNotEmpty (m_aReader.getNamespaceURI (), null),
+                                                    m_aReader.getLocalName ());
+      _copyAttributes (m_aReader, eRoot);
+
+      IMicroElement eCur = eRoot;
+      while (true)
+      {
+        switch (m_aReader.next ())
+        {
+          case XMLStreamConstants.START_ELEMENT:
+            eCur = eCur.appendElement (StringHelper.getNotEmpty (m_aReader.getNamespaceURI (), null),
+                                       m_aReader.getLocalName ());
+            _copyAttributes (m_aReader, eCur);
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.CDATA:
+          case XMLStreamConstants.SPACE:
+            eCur.appendText (m_aReader.getText ());
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            if (eCur == eRoot)
+              return eRoot;
+            eCur = (IMicroElement) eCur.getParent ();
+            break;
+          default:
+            // Ignore comments, processing instructions etc.
+            break;
+        }
+      }
+    }
+
+    private void _skipCurrentElement () throws XMLStreamException
+    {
+      int nDepth = 1;
+      while (nDepth > 0)
+      {
+        final int nEvent = m_aReader.next ();
+        if (nEvent == XMLStreamConstants.START_ELEMENT)
+          nDepth++;
+        else
+          if (nEvent == XMLStreamConstants.END_ELEMENT)
+            nDepth--;
+      }
+    }
+
+    @Nonnull
+    private ServiceGroupBatchItem _convert (@Nonnegative final int nIndex, @Nonnull final IMicroElement eServiceGroup)
+    {
+      final IUser aOwner = getOwner ();
+      final SMPServiceGroup aServiceGroup;
+      try
+      {
+        final SMPServiceGroup aReadServiceGroup = SMPServiceGroupMicroTypeConverter.convertToNative (eServiceGroup,
+                                                                                                     x -> aOwner);
+        // Use the configured identifier factory for consistent case handling
+        final IParticipantIdentifier aPI = SMPMetaManager.getIdentifierFactory ()
+                                                         .createParticipantIdentifier (aReadServiceGroup.getParticipantIdentifier ()
+                                                                                                        .getScheme (),
+                                                                                       aReadServiceGroup.getParticipantIdentifier ()
+                                                                                                        .getValue ());
+        if (aPI == null)
+          return ServiceGroupBatchItem.createError (nIndex,
+                                                    aReadServiceGroup.getID (),
+                                                    "The participant identifier is invalid");
+        aServiceGroup = new SMPServiceGroup (aOwner.getID (),
+                                             aPI,
+                                             aReadServiceGroup.getExtensions ().getExtensionsAsJsonString ());
+      }
+      catch (final RuntimeException ex)
+      {
+        return ServiceGroupBatchItem.createError (nIndex, null, "Error parsing the Service Group: " + ex.getMessage ());
+      }
+
+      if (eServiceGroup.getFirstChildElement (CSMPExchange.ELEMENT_REDIRECT) != null)
+        return ServiceGroupBatchItem.createError (nIndex,
+                                                  aServiceGroup.getID (),
+                                                  "Redirects are not supported in batches");
+
+      final ICommonsList <ISMPServiceInformation> aServiceInfos = new CommonsArrayList <> ();
+      try
+      {
+        for (final IMicroElement eServiceInfo : eServiceGroup.getAllChildElements (CSMPExchange.ELEMENT_SERVICEINFO))
+          aServiceInfos.add (SMPServiceInformationMicroTypeConverter.convertToNative (eServiceInfo,
+                                                                                     x -> aServiceGroup));
+      }
+      catch (final RuntimeException ex)
+      {
+        return ServiceGroupBatchItem.createError (nIndex,
+                                                  aServiceGroup.getID (),
+                                                  "Error parsing the Service Information: " + ex.getMessage ());
+      }
+      return ServiceGroupBatchItem.createSuccess (nIndex, aServiceGroup, aServiceInfos);
+    }
+
+    @Override
+    @Nullable
+    protected ServiceGroupBatchItem readNextItem (@Nonnegative final int nIndex) throws IOException
+    {
+      try
+      {
+        while (m_aReader.hasNext ())
+        {
+          final int nEvent = m_aReader.next ();
+          if (nEvent == XMLStreamConstants.START_ELEMENT)
+          {
+            if (CSMPExchange.ELEMENT_SERVICEGROUP.equals (m_aReader.getLocalName ()))
+              return _convert (nIndex, _readCurrentElement ());
+
+            // E.g. Business Cards
+            _skipCurrentElement ();
+          }
+          else
+            if (nEvent == XMLStreamConstants.END_ELEMENT)
+            {
+              // End of the root element
+              return null;
+            }
+        }
+        return null;
+      }
+      catch (final XMLStreamException ex)
+      {
+        throw new IOException ("Failed to parse the XML payload", ex);
+      }
+    }
+
+    public void close () throws IOException
+    {
+      try
+      {
+        m_aReader.close ();
+      }
+      catch (final XMLStreamException ex)
+      {
+        // Ignore
+      }
+      finally
+      {
+        StreamHelper.close (m_aIS);
+      }
+    }
+  }
+
+  /**
+   * Reader for NDJSON.
+   *
+   * @author Philip Helger
+   */
+  private static final class NDJSONReader extends ServiceGroupBatchReader
+  {
+    private final NonBlockingBufferedReader m_aReader;
+
+    NDJSONReader (@Nonnull @WillCloseWhenClosed final InputStream aIS, @Nonnull final IUser aOwner)
+    {
+      super (aOwner);
+      m_aReader = new NonBlockingBufferedReader (StreamHelper.createReader (aIS, StandardCharsets.UTF_8));
+    }
+
+    @Nullable
+    private static String _getExtension (@Nonnull final IJsonObject aJson)
+    {
+      final IJson aExtension = aJson.get (JSON_EXTENSION);
+      if (aExtension == null)
+        return null;
+      // Either a string (XML or JSON) or directly JSON
+      return aExtension.isValue () ? ((IJsonValue) aExtension).getAsString () : aExtension.getAsJsonString ();
+    }
+
+    @Nullable
+    private static XMLOffsetDateTime _getDateTime (@Nullable final String sValue)
+    {
+      if (StringHelper.hasNoText (sValue))
+        return null;
+      final XMLOffsetDateTime ret = TypeConverter.convert (sValue, XMLOffsetDateTime.class);
+      if (ret != null)
+        return ret;
+      // Same fallback as in the XML
+      final LocalDateTime aLDT = TypeConverter.convert (sValue, LocalDateTime.class);
+      if (aLDT == null)
+        throw new IllegalArgumentException ("Failed to parse '" + sValue + "' as a date time");
+      return XMLOffsetDateTime.of (aLDT, null);
+    }
+
+    @Nonnull
+    private static SMPEndpoint _readEndpoint (@Nonnull final IJsonObject aJson)
+    {
+      return new SMPEndpoint (aJson.getAsString (JSON_TRANSPORT_PROFILE),
+                              aJson.getAsString (JSON_ENDPOINT_REFERENCE),
+                              StringParser.parseBool (aJson.getAsString (JSON_REQUIRE_BUSINESS_LEVEL_SIGNATURE),
+                                                      SMPEndpoint.DEFAULT_REQUIRES_BUSINESS_LEVEL_SIGNATURE),
+                              aJson.getAsString (JSON_MINIMUM_AUTHENTICATION_LEVEL),
+                              _getDateTime (aJson.getAsString (JSON_SERVICE_ACTIVATION_DATE)),
+                              _getDateTime (aJson.getAsString (JSON_SERVICE_EXPIRATION_DATE)),
+                              aJson.getAsString (JSON_CERTIFICATE),
+                              aJson.getAsString (JSON_SERVICE_DESCRIPTION),
+                              aJson.getAsString (JSON_TECHNICAL_CONTACT_URL),
+                              aJson.getAsString (JSON_TECHNICAL_INFORMATION_URL),
+                              _getExtension (aJson));
+    }
+
+    @Nonnull
+    private ServiceGroupBatchItem _convert (@Nonnegative final int nIndex, @Nonnull final String sLine)
+    {
+      final IJsonObject aJson;
+      try
+      {
+        aJson = JsonReader.builder ().source (sLine).readAsObject ();
+      }
+      catch (final RuntimeException ex)
+      {
+        return ServiceGroupBatchItem.createError (nIndex, null, "Failed to parse the line as JSON: " + ex.getMessage ());
+      }
+      if (aJson == null)
+        return ServiceGroupBatchItem.createError (nIndex, null, "The line is not a JSON object");
+
+      final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+      final String sParticipantID = aJson.getAsString (JSON_PARTICIPANT);
+      final IParticipantIdentifier aPI = aIdentifierFactory.parseParticipantIdentifier (sParticipantID);
+      if (aPI == null)
+        return ServiceGroupBatchItem.createError (nIndex,
+                                                  sParticipantID,
+                                                  "The participant identifier is missing or invalid");
+
+      final SMPServiceGroup aServiceGroup = new SMPServiceGroup (getOwner ().getID (), aPI, _getExtension (aJson));
+      final ICommonsList <ISMPServiceInformation> aServiceInfos = new CommonsArrayList <> ();
+      final IJsonArray aJsonServiceInfos = aJson.getAsArray (JSON_SERVICEINFOS);
+      if (aJsonServiceInfos != null)
+        try
+        {
+          for (final IJsonObject aJsonServiceInfo : aJsonServiceInfos.iteratorObjects ())
+          {
+            final String sDocTypeID = aJsonServiceInfo.getAsString (JSON_DOCTYPE);
+            final IDocumentTypeIdentifier aDocTypeID = aIdentifierFactory.parseDocumentTypeIdentifier (sDocTypeID);
+            if (aDocTypeID == null)
+              return ServiceGroupBatchItem.createError (nIndex,
+                                                        aServiceGroup.getID (),
+                                                        "The document type identifier '" +
+                                                                                sDocTypeID +
+                                                                                "' is missing or invalid");
+
+            final ICommonsList <SMPProcess> aProcesses = new CommonsArrayList <> ();
+            final IJsonArray aJsonProcesses = aJsonServiceInfo.getAsArray (JSON_PROCESSES);
+            if (aJsonProcesses != null)
+              for (final IJsonObject aJsonProcess : aJsonProcesses.iteratorObjects ())
+              {
+                final String sProcessID = aJsonProcess.getAsString (JSON_PROCESS);
+                final IProcessIdentifier aProcessID = aIdentifierFactory.parseProcessIdentifier (sProcessID);
+                if (aProcessID == null)
+                  return ServiceGroupBatchItem.createError (nIndex,
+                                                            aServiceGroup.getID (),
+                                                            "The process identifier '" +
+                                                                                  sProcessID +
+                                                                                  "' is missing or invalid");
+
+                final ICommonsList <SMPEndpoint> aEndpoints = new CommonsArrayList <> ();
+                final IJsonArray aJsonEndpoints = aJsonProcess.getAsArray (JSON_ENDPOINTS);
+                if (aJsonEndpoints != null)
+                  for (final IJsonObject aJsonEndpoint : aJsonEndpoints.iteratorObjects ())
+                    aEndpoints.add (_readEndpoint (aJsonEndpoint));
+                aProcesses.add (new SMPProcess (aProcessID, aEndpoints, _getExtension (aJsonProcess)));
+              }
+            aServiceInfos.add (new SMPServiceInformation (aServiceGroup,
+                                                          aDocTypeID,
+                                                          aProcesses,
+                                                          _getExtension (aJsonServiceInfo)));
+          }
+        }
+        catch (final RuntimeException ex)
+        {
+          return ServiceGroupBatchItem.createError (nIndex,
+                                                    aServiceGroup.getID (),
+                                                    "Error parsing the Service Information: " + ex.getMessage ());
+        }
+      return ServiceGroupBatchItem.createSuccess (nIndex, aServiceGroup, aServiceInfos);
+    }
+
+    @Override
+    @Nullable
+    protected ServiceGroupBatchItem readNextItem (@Nonnegative final int nIndex) throws IOException
+    {
+      String sLine;
+      while ((sLine = m_aReader.readLine ()) != null)
+      {
+        // Skip empty lines
+        if (StringHelper.hasText (sLine.trim ()))
+          return _convert (nIndex, sLine);
+      }
+      return null;
+    }
+
+    public void close () throws IOException
+    {
+      m_aReader.close ();
+    }
+  }
+
+  private final IUser m_aOwner;
+  private int m_nIndex = 0;
+
+  protected ServiceGroupBatchReader (@Nonnull final IUser aOwner)
+  {
+    ValueEnforcer.notNull (aOwner, "Owner");
+    m_aOwner = aOwner;
+  }
+
+  /**
+   * @return The owner of all Service Groups read. Never <code>null</code>.
+   */
+  @Nonnull
+  public final IUser getOwner ()
+  {
+    return m_aOwner;
+  }
+
+  /**
+   * @return The number of items read so far.
+   */
+  @Nonnegative
+  public final int getReadItemCount ()
+  {
+    return m_nIndex;
+  }
+
+  /**
+   * Read the next item.
+   *
+   * @param nIndex
+   *        The 0-based index of the item to be read.
+   * @return <code>null</code> if the end of the input is reached.
+   * @throws IOException
+   *         In case the input is malformed and no further items can be read.
+   */
+  @Nullable
+  protected abstract ServiceGroupBatchItem readNextItem (@Nonnegative int nIndex) throws IOException;
+
+  /**
+   * Read the next item. Errors affecting only a single item (e.g. an invalid
+   * identifier) are reported in the returned item, so that reading can
+   * continue.
+   *
+   * @return <code>null</code> if the end of the input is reached.
+   * @throws IOException
+   *         In case the input is malformed and no further items can be read.
+   */
+  @Nullable
+  public final ServiceGroupBatchItem readNext () throws IOException
+  {
+    final ServiceGroupBatchItem ret = readNextItem (m_nIndex);
+    if (ret != null)
+      m_nIndex++;
+    return ret;
+  }
+
+  /**
+   * Create a reader for the exchange XML format v1.0. The root element is
+   * checked immediately.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>. Is
+   *        closed when the reader is closed.
+   * @param aOwner
+   *        The owner of all Service Groups. May not be <code>null</code>.
+   * @return The new reader and never <code>null</code>.
+   * @throws IOException
+   *         If the payload is not an exchange XML file v1.0
+   */
+  @Nonnull
+  public static ServiceGroupBatchReader createForXMLVer10 (@Nonnull @WillCloseWhenClosed final InputStream aIS,
+                                                           @Nonnull final IUser aOwner) throws IOException
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    return new XMLVer10Reader (aIS, aOwner);
+  }
+
+  /**
+   * Create a reader for NDJSON, one Service Group per line, UTF-8 encoded.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>. Is
+   *        closed when the reader is closed.
+   * @param aOwner
+   *        The owner of all Service Groups. May not be <code>null</code>.
+   * @return The new reader and never <code>null</code>.
+   */
+  @Nonnull
+  public static ServiceGroupBatchReader createForNDJSON (@Nonnull @WillCloseWhenClosed final InputStream aIS,
+                                                         @Nonnull final IUser aOwner)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    return new NDJSONReader (aIS, aOwner);
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.exchange;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonObject;
+
+/**
+ * The result of a single item of a Service Group batch.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class ServiceGroupBatchResult
+{
+  public static final String ACTION_CREATED = "created";
+  public static final String ACTION_UPDATED = "updated";
+  public static final String ACTION_FAILED = "failed";
+
+  private final int m_nIndex;
+  private final String m_sParticipantID;
+  private final String m_sAction;
+  private final int m_nServiceInfoCount;
+  private final String m_sErrorMessage;
+
+  private ServiceGroupBatchResult (@Nonnegative final int nIndex,
+                                   @Nullable final String sParticipantID,
+                                   @Nonnull @Nonempty final String sAction,
+                                   @Nonnegative final int nServiceInfoCount,
+                                   @Nullable final String sErrorMessage)
+  {
+    m_nIndex = nIndex;
+    m_sParticipantID = sParticipantID;
+    m_sAction = sAction;
+    m_nServiceInfoCount = nServiceInfoCount;
+    m_sErrorMessage = sErrorMessage;
+  }
+
+  @Nonnegative
+  public int getIndex ()
+  {
+    return m_nIndex;
+  }
+
+  @Nullable
+  public String getParticipantID ()
+  {
+    return m_sParticipantID;
+  }
+
+  /**
+   * @return One of {@link #ACTION_CREATED}, {@link #ACTION_UPDATED} or
+   *         {@link #ACTION_FAILED}.
+   */
+  @Nonnull
+  @Nonempty
+  public String getAction ()
+  {
+    return m_sAction;
+  }
+
+  public boolean isSuccess ()
+  {
+    return m_sErrorMessage == null;
+  }
+
+  /**
+   * @return The number of Service Information elements that were written.
+   *         Always 0 for failed items.
+   */
+  @Nonnegative
+  public int getServiceInfoCount ()
+  {
+    return m_nServiceInfoCount;
+  }
+
+  @Nullable
+  public String getErrorMessage ()
+  {
+    return m_sErrorMessage;
+  }
+
+  @Nonnull
+  public IJsonObject getAsJsonObject ()
+  {
+    final IJsonObject ret = new JsonObject ();
+    ret.add ("index", m_nIndex);
+    if (m_sParticipantID != null)
+      ret.add ("participantID", m_sParticipantID);
+    ret.add ("action", m_sAction);
+    ret.add ("serviceInfos", m_nServiceInfoCount);
+    if (m_sErrorMessage != null)
+      ret.add ("error", m_sErrorMessage);
+    return ret;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Index", m_nIndex)
+                                       .append ("ParticipantID", m_sParticipantID)
+                                       .append ("Action", m_sAction)
+                                       .append ("ServiceInfoCount", m_nServiceInfoCount)
+                                       .appendIfNotNull ("ErrorMessage", m_sErrorMessage)
+                                       .getToString ();
+  }
+
+  @Nonnull
+  public static ServiceGroupBatchResult createSuccess (@Nonnegative final int nIndex,
+                                                       @Nonnull @Nonempty final String sParticipantID,
+                                                       final boolean bCreated,
+                                                       @Nonnegative final int nServiceInfoCount)
+  {
+    ValueEnforcer.notEmpty (sParticipantID, "ParticipantID");
+    ValueEnforcer.isGE0 (nServiceInfoCount, "ServiceInfoCount");
+    return new ServiceGroupBatchResult (nIndex,
+                                        sParticipantID,
+                                        bCreated ? ACTION_CREATED : ACTION_UPDATED,
+                                        nServiceInfoCount,
+                                        null);
+  }
+
+  @Nonnull
+  public static ServiceGroupBatchResult createError (@Nonnegative final int nIndex,
+                                                     @Nullable final String sParticipantID,
+                                                     @Nonnull @Nonempty final String sErrorMessage)
+  {
+    ValueEnforcer.notEmpty (sErrorMessage, "ErrorMessage");
+    return new ServiceGroupBatchResult (nIndex, sParticipantID, ACTION_FAILED, 0, sErrorMessage);
+  }
+}
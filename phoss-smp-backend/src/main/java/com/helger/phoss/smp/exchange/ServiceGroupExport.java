@@ -11,6 +11,7 @@
 package com.helger.phoss.smp.exchange;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 import org.slf4j.Logger;
@@ -46,6 +47,69 @@ public final class ServiceGroupExport
   private ServiceGroupExport ()
   {}
 
+  /**
+   * Create the export element of a single service group, including all
+   * service information and redirects.
+   *
+   * @param aServiceGroup
+   *        The service group to export. May not be <code>null</code>.
+   * @param aServiceInfoMgr
+   *        The service information manager to use. May not be
+   *        <code>null</code>.
+   * @param aRedirectMgr
+   *        The redirect manager to use. May not be <code>null</code>.
+   * @return The created element. Never <code>null</code>.
+   * @since 7.1.1
+   */
+  @Nonnull
+  static IMicroElement createServiceGroupElement (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                                  @Nonnull final ISMPServiceInformationManager aServiceInfoMgr,
+                                                  @Nonnull final ISMPRedirectManager aRedirectMgr)
+  {
+    final IMicroElement eServiceGroup = MicroTypeConverter.convertToMicroElement (aServiceGroup,
+                                                                                  CSMPExchange.ELEMENT_SERVICEGROUP);
+
+    // Add all service information
+    final ICommonsList <ISMPServiceInformation> aAllServiceInfos = aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aServiceGroup);
+    for (final ISMPServiceInformation aServiceInfo : aAllServiceInfos.getSortedInline (ISMPServiceInformation.comparator ()))
+    {
+      eServiceGroup.appendChild (MicroTypeConverter.convertToMicroElement (aServiceInfo,
+                                                                           CSMPExchange.ELEMENT_SERVICEINFO));
+    }
+
+    // Add all redirects
+    final ICommonsList <ISMPRedirect> aAllRedirects = aRedirectMgr.getAllSMPRedirectsOfServiceGroup (aServiceGroup);
+    for (final ISMPRedirect aServiceInfo : aAllRedirects.getSortedInline (ISMPRedirect.comparator ()))
+    {
+      eServiceGroup.appendChild (MicroTypeConverter.convertToMicroElement (aServiceInfo,
+                                                                           CSMPExchange.ELEMENT_REDIRECT));
+    }
+    return eServiceGroup;
+  }
+
+  /**
+   * Create the export element of the Business Card of a single service group.
+   *
+   * @param aServiceGroup
+   *        The service group to export. May not be <code>null</code>.
+   * @param aBusinessCardMgr
+   *        The Business Card manager to use. May not be <code>null</code>.
+   * @return <code>null</code> if the service group has no Business Card.
+   * @since 7.1.1
+   */
+  @Nullable
+  static IMicroElement createBusinessCardElement (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                                  @Nonnull final ISMPBusinessCardManager aBusinessCardMgr)
+  {
+    final ISMPBusinessCard aBusinessCard = aBusinessCardMgr.getSMPBusinessCardOfID (aServiceGroup.getParticipantIdentifier ());
+    if (aBusinessCard == null)
+      return null;
+    return SMPBusinessCardMicroTypeConverter.convertToMicroElement (aBusinessCard,
+                                                                    null,
+                                                                    CSMPExchange.ELEMENT_BUSINESSCARD,
+                                                                    true);
+  }
+
   /**
    * Create XML export data for the provided service groups.
    *
@@ -79,26 +143,7 @@ public final class ServiceGroupExport
 
     // Add all service groups
     for (final ISMPServiceGroup aServiceGroup : aSortedServiceGroups)
-    {
-      final IMicroElement eServiceGroup = eRoot.appendChild (MicroTypeConverter.convertToMicroElement (aServiceGroup,
-                                                                                                       CSMPExchange.ELEMENT_SERVICEGROUP));
-
-      // Add all service information
-      final ICommonsList <ISMPServiceInformation> aAllServiceInfos = aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aServiceGroup);
-      for (final ISMPServiceInformation aServiceInfo : aAllServiceInfos.getSortedInline (ISMPServiceInformation.comparator ()))
-      {
-        eServiceGroup.appendChild (MicroTypeConverter.convertToMicroElement (aServiceInfo,
-                                                                             CSMPExchange.ELEMENT_SERVICEINFO));
-      }
-
-      // Add all redirects
-      final ICommonsList <ISMPRedirect> aAllRedirects = aRedirectMgr.getAllSMPRedirectsOfServiceGroup (aServiceGroup);
-      for (final ISMPRedirect aServiceInfo : aAllRedirects.getSortedInline (ISMPRedirect.comparator ()))
-      {
-        eServiceGroup.appendChild (MicroTypeConverter.convertToMicroElement (aServiceInfo,
-                                                                             CSMPExchange.ELEMENT_REDIRECT));
-      }
-    }
+      eRoot.appendChild (createServiceGroupElement (aServiceGroup, aServiceInfoMgr, aRedirectMgr));
 
     // Add Business cards only if PD integration is enabled
     if (bIncludeBusinessCards)
@@ -107,14 +152,9 @@ public final class ServiceGroupExport
       final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
       for (final ISMPServiceGroup aServiceGroup : aSortedServiceGroups)
       {
-        final ISMPBusinessCard aBusinessCard = aBusinessCardMgr.getSMPBusinessCardOfID (aServiceGroup.getParticipantIdentifier ());
-        if (aBusinessCard != null)
-        {
-          eRoot.appendChild (SMPBusinessCardMicroTypeConverter.convertToMicroElement (aBusinessCard,
-                                                                                      null,
-                                                                                      CSMPExchange.ELEMENT_BUSINESSCARD,
-                                                                                      true));
-        }
+        final IMicroElement eBusinessCard = createBusinessCardElement (aServiceGroup, aBusinessCardMgr);
+        if (eBusinessCard != null)
+          eRoot.appendChild (eBusinessCard);
       }
     }
 
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.exchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+import javax.annotation.Nonnull;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.serialize.MicroWriter;
+import com.helger.xml.serialize.write.EXMLSerializeXMLDeclaration;
+import com.helger.xml.serialize.write.XMLWriterSettings;
+
+/**
+ * Write the same XML export data as
+ * {@link ServiceGroupExport#createExportDataXMLVer10(ICommonsList, boolean)},
+ * but one service group at a time. The complete document is never created in
+ * memory, so that large exports can be streamed to the client.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+public final class ServiceGroupExportXMLVer10Writer
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (ServiceGroupExportXMLVer10Writer.class);
+
+  private final ICommonsList <ISMPServiceGroup> m_aServiceGroups;
+  private final boolean m_bIncludeBusinessCards;
+  private final XMLWriterSettings m_aXWS;
+  private final ISMPServiceInformationManager m_aServiceInfoMgr;
+  private final ISMPRedirectManager m_aRedirectMgr;
+  private final ISMPBusinessCardManager m_aBusinessCardMgr;
+  // -1 means the header was not yet written
+  private int m_nIndex = -1;
+
+  /**
+   * Constructor
+   *
+   * @param aServiceGroups
+   *        The service groups to export. May not be <code>null</code> but maybe
+   *        empty.
+   * @param bIncludeBusinessCards
+   *        <code>true</code> to include Business Cards, <code>false</code> to
+   *        skip them
+   */
+  public ServiceGroupExportXMLVer10Writer (@Nonnull final ICommonsList <ISMPServiceGroup> aServiceGroups,
+                                           final boolean bIncludeBusinessCards)
+  {
+    ValueEnforcer.notNull (aServiceGroups, "ServiceGroups");
+    m_aServiceGroups = aServiceGroups.getSorted (ISMPServiceGroup.comparator ());
+    m_bIncludeBusinessCards = bIncludeBusinessCards;
+    // The XML declaration is written manually once
+    m_aXWS = new XMLWriterSettings ().setSerializeXMLDeclaration (EXMLSerializeXMLDeclaration.IGNORE);
+    m_aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+    m_aRedirectMgr = SMPMetaManager.getRedirectMgr ();
+    m_aBusinessCardMgr = bIncludeBusinessCards ? SMPMetaManager.getBusinessCardMgr () : null;
+  }
+
+  /**
+   * @return The charset used to write the XML. Never <code>null</code>.
+   */
+  @Nonnull
+  public Charset getCharset ()
+  {
+    return m_aXWS.getCharset ();
+  }
+
+  private void _write (@Nonnull final OutputStream aOS, @Nonnull final String s) throws IOException
+  {
+    aOS.write (s.getBytes (m_aXWS.getCharset ()));
+  }
+
+  /**
+   * Write the next part of the export data. The first call writes the XML
+   * declaration and the start of the root element. Each following call writes
+   * one service group and afterwards one Business Card. The last call writes
+   * the end of the root element.
+   *
+   * @param aOS
+   *        The stream to write to. It is not closed. May not be
+   *        <code>null</code>.
+   * @return <code>true</code> if more parts follow, <code>false</code> if the
+   *         export data is complete.
+   * @throws IOException
+   *         In case writing fails
+   */
+  public boolean writeNextChunk (@Nonnull @WillNotClose final OutputStream aOS) throws IOException
+  {
+    final int nServiceGroups = m_aServiceGroups.size ();
+    final int nBusinessCards = m_bIncludeBusinessCards ? nServiceGroups : 0;
+    final String sNewLine = m_aXWS.getNewLineString ();
+
+    if (m_nIndex < 0)
+    {
+      LOGGER.info ("Start writing Service Group export data XML v1.0 for " +
+                   nServiceGroups +
+                   " entries - " +
+                   (m_bIncludeBusinessCards ? "incl. Business Cards" : "excl. Business Cards"));
+      _write (aOS,
+              "<?xml version=\"1.0\" encoding=\"" +
+                   m_aXWS.getCharset ().name () +
+                   "\"?>" +
+                   sNewLine +
+                   "<" +
+                   CSMPExchange.ELEMENT_SMP_DATA +
+                   " " +
+                   CSMPExchange.ATTR_VERSION +
+                   "=\"" +
+                   CSMPExchange.VERSION_10 +
+                   "\">" +
+                   sNewLine);
+    }
+    else
+      if (m_nIndex < nServiceGroups)
+      {
+        final IMicroElement eServiceGroup = ServiceGroupExport.createServiceGroupElement (m_aServiceGroups.get (m_nIndex),
+                                                                                          m_aServiceInfoMgr,
+                                                                                          m_aRedirectMgr);
+        _write (aOS, MicroWriter.getNodeAsString (eServiceGroup, m_aXWS));
+      }
+      else
+        if (m_nIndex < nServiceGroups + nBusinessCards)
+        {
+          final IMicroElement eBusinessCard = ServiceGroupExport.createBusinessCardElement (m_aServiceGroups.get (m_nIndex -
+                                                                                                                nServiceGroups),
+                                                                                            m_aBusinessCardMgr);
+          if (eBusinessCard != null)
+            _write (aOS, MicroWriter.getNodeAsString (eBusinessCard, m_aXWS));
+        }
+        else
+        {
+          _write (aOS, "</" + CSMPExchange.ELEMENT_SMP_DATA + ">" + sNewLine);
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("Finished writing Service Group XML data");
+          return false;
+        }
+
+    m_nIndex++;
+    return true;
+  }
+}
@@ -34,11 +34,15 @@ import com.helger.commons.collection.impl.ICommonsMap;
 import com.helger.commons.collection.impl.ICommonsOrderedMap;
 import com.helger.commons.collection.impl.ICommonsOrderedSet;
 import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.equals.EqualsHelper;
 import com.helger.commons.functional.ITriConsumer;
+import com.helger.commons.state.ESuccess;
+import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardEntity;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardMicroTypeConverter;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
@@ -46,6 +50,8 @@ import com.helger.phoss.smp.domain.redirect.SMPRedirectMicroTypeConverter;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroupMicroTypeConverter;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
 import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformationMicroTypeConverter;
@@ -55,6 +61,7 @@ import com.helger.photon.security.mgr.PhotonSecurityManager;
 import com.helger.photon.security.user.IUser;
 import com.helger.photon.security.user.IUserManager;
 import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.convert.MicroTypeConverter;
 
 /**
  * Import Service Groups from XML.
@@ -82,6 +89,11 @@ public final class ServiceGroupImport
       return m_aServiceInfos;
     }
 
+    public boolean containsServiceInfo (@Nonnull final IDocumentTypeIdentifier aDocTypeID)
+    {
+      return m_aServiceInfos.containsAny (x -> x.getDocumentTypeIdentifier ().hasSameContent (aDocTypeID));
+    }
+
     public void addRedirect (@Nonnull final ISMPRedirect aRedirect)
     {
       m_aRedirects.add (aRedirect);
@@ -92,6 +104,11 @@ public final class ServiceGroupImport
     {
       return m_aRedirects;
     }
+
+    public boolean containsRedirect (@Nonnull final IDocumentTypeIdentifier aDocTypeID)
+    {
+      return m_aRedirects.containsAny (x -> x.getDocumentTypeIdentifier ().hasSameContent (aDocTypeID));
+    }
   }
 
   private static final Logger LOGGER = LoggerFactory.getLogger (ServiceGroupImport.class);
@@ -100,6 +117,248 @@ public final class ServiceGroupImport
   private ServiceGroupImport ()
   {}
 
+  private static boolean _isEqualContent (@Nonnull final ISMPServiceGroup aStored,
+                                          @Nonnull final ISMPServiceGroup aImport)
+  {
+    return aStored.getOwnerID ().equals (aImport.getOwnerID ()) &&
+           EqualsHelper.equals (aStored.getExtensions ().getExtensionsAsJsonString (),
+                                aImport.getExtensions ().getExtensionsAsJsonString ());
+  }
+
+  /**
+   * Compare redirects and endpoints based on their XML representation, as this
+   * is exactly what is exported and imported.
+   */
+  private static boolean _isEqualXML (@Nonnull final Object aStored, @Nonnull final Object aImport)
+  {
+    final IMicroElement eStored = MicroTypeConverter.convertToMicroElement (aStored, "item");
+    final IMicroElement eImport = MicroTypeConverter.convertToMicroElement (aImport, "item");
+    return eStored != null && eStored.isEqualContent (eImport);
+  }
+
+  private static boolean _isEqualContent (@Nonnull final ISMPProcess aStored, @Nonnull final ISMPProcess aImport)
+  {
+    if (!EqualsHelper.equals (aStored.getExtensions ().getExtensionsAsJsonString (),
+                              aImport.getExtensions ().getExtensionsAsJsonString ()))
+      return false;
+
+    // The order of the endpoints is irrelevant - the transport profile is the
+    // key
+    if (aStored.getEndpointCount () != aImport.getEndpointCount ())
+      return false;
+    for (final ISMPEndpoint aImportEndpoint : aImport.getAllEndpoints ())
+    {
+      final ISMPEndpoint aStoredEndpoint = aStored.getEndpointOfTransportProfile (aImportEndpoint.getTransportProfile ());
+      if (aStoredEndpoint == null || !_isEqualXML (aStoredEndpoint, aImportEndpoint))
+        return false;
+    }
+    return true;
+  }
+
+  private static boolean _isEqualContent (@Nonnull final ISMPServiceInformation aStored,
+                                          @Nonnull final ISMPServiceInformation aImport)
+  {
+    if (!aStored.getDocumentTypeIdentifier ().hasSameContent (aImport.getDocumentTypeIdentifier ()) ||
+        !EqualsHelper.equals (aStored.getExtensions ().getExtensionsAsJsonString (),
+                              aImport.getExtensions ().getExtensionsAsJsonString ()))
+      return false;
+
+    // The order of the processes is irrelevant - the process ID is the key
+    if (aStored.getProcessCount () != aImport.getProcessCount ())
+      return false;
+    for (final ISMPProcess aImportProcess : aImport.getAllProcesses ())
+    {
+      final ISMPProcess aStoredProcess = aStored.getProcessOfID (aImportProcess.getProcessIdentifier ());
+      if (aStoredProcess == null || !_isEqualContent (aStoredProcess, aImportProcess))
+        return false;
+    }
+    return true;
+  }
+
+  private static boolean _isEqualContent (@Nonnull final ISMPBusinessCard aStored,
+                                          @Nonnull final ISMPBusinessCard aImport)
+  {
+    // The entity IDs are created internally, so they are not compared
+    final ICommonsList <SMPBusinessCardEntity> aStoredEntities = aStored.getAllEntities ();
+    final ICommonsList <SMPBusinessCardEntity> aImportEntities = aImport.getAllEntities ();
+    if (aStoredEntities.size () != aImportEntities.size ())
+      return false;
+    for (int i = 0; i < aStoredEntities.size (); ++i)
+      if (!aStoredEntities.get (i).isEqualContent (aImportEntities.get (i)))
+        return false;
+    return true;
+  }
+
+  /**
+   * Apply the differences between a stored and an imported Service Group
+   * including all Service Information and Redirects. Elements that are equal
+   * are not touched at all.
+   *
+   * @return {@link ESuccess#FAILURE} if the Service Group itself could not be
+   *         updated. In that case nothing else is touched.
+   */
+  @Nonnull
+  private static ESuccess _applyServiceGroupChanges (@Nonnull final ISMPServiceGroup aStoredServiceGroup,
+                                                     @Nonnull final ISMPServiceGroup aImportServiceGroup,
+                                                     @Nonnull final InternalImportData aImportData,
+                                                     @Nonnull final BiConsumer <String, String> aLoggerSuccess,
+                                                     @Nonnull final BiConsumer <String, String> aLoggerInfo,
+                                                     @Nonnull final BiConsumer <String, String> aLoggerErrorPI,
+                                                     @Nonnull final ITriConsumer <String, String, Exception> aLoggerErrorPIEx,
+                                                     @Nonnull final ImportSummary aSummary)
+  {
+    final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+    final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+    final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
+    final String sServiceGroupID = aImportServiceGroup.getID ();
+
+    // Service Group itself - never touches the SML
+    if (_isEqualContent (aStoredServiceGroup, aImportServiceGroup))
+    {
+      aLoggerInfo.accept (sServiceGroupID, "Service Group is unchanged");
+      aSummary.onSuccess (EImportSummaryAction.UNCHANGED_SG);
+    }
+    else
+    {
+      try
+      {
+        aServiceGroupMgr.updateSMPServiceGroup (aImportServiceGroup.getParticipantIdentifier (),
+                                                aImportServiceGroup.getOwnerID (),
+                                                aImportServiceGroup.getExtensions ().getExtensionsAsJsonString ());
+        aLoggerSuccess.accept (sServiceGroupID, "Successfully updated Service Group");
+        aSummary.onSuccess (EImportSummaryAction.UPDATE_SG);
+      }
+      catch (final Exception ex)
+      {
+        aLoggerErrorPIEx.accept (sServiceGroupID, "Error updating the Service Group", ex);
+        aSummary.onError (EImportSummaryAction.UPDATE_SG);
+        return ESuccess.FAILURE;
+      }
+    }
+
+    // Delete everything that is no longer contained first, so that a document
+    // type can switch between Service Information and Redirect
+    for (final ISMPServiceInformation aStoredServiceInfo : aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aStoredServiceGroup))
+      if (!aImportData.containsServiceInfo (aStoredServiceInfo.getDocumentTypeIdentifier ()))
+      {
+        try
+        {
+          if (aServiceInfoMgr.deleteSMPServiceInformation (aStoredServiceInfo).isChanged ())
+          {
+            aLoggerSuccess.accept (sServiceGroupID, "Successfully deleted Service Information");
+            aSummary.onSuccess (EImportSummaryAction.DELETE_SI);
+          }
+          else
+          {
+            aLoggerErrorPI.accept (sServiceGroupID, "Failed to delete Service Information");
+            aSummary.onError (EImportSummaryAction.DELETE_SI);
+          }
+        }
+        catch (final Exception ex)
+        {
+          aLoggerErrorPIEx.accept (sServiceGroupID, "Failed to delete Service Information", ex);
+          aSummary.onError (EImportSummaryAction.DELETE_SI);
+        }
+      }
+
+    for (final ISMPRedirect aStoredRedirect : aRedirectMgr.getAllSMPRedirectsOfServiceGroup (aStoredServiceGroup))
+      if (!aImportData.containsRedirect (aStoredRedirect.getDocumentTypeIdentifier ()))
+      {
+        try
+        {
+          if (aRedirectMgr.deleteSMPRedirect (aStoredRedirect).isChanged ())
+          {
+            aLoggerSuccess.accept (sServiceGroupID, "Successfully deleted Redirect");
+            aSummary.onSuccess (EImportSummaryAction.DELETE_REDIRECT);
+          }
+          else
+          {
+            aLoggerErrorPI.accept (sServiceGroupID, "Failed to delete Redirect");
+            aSummary.onError (EImportSummaryAction.DELETE_REDIRECT);
+          }
+        }
+        catch (final Exception ex)
+        {
+          aLoggerErrorPIEx.accept (sServiceGroupID, "Failed to delete Redirect", ex);
+          aSummary.onError (EImportSummaryAction.DELETE_REDIRECT);
+        }
+      }
+
+    // Create or update the changed Service Information
+    for (final ISMPServiceInformation aImportServiceInfo : aImportData.getServiceInfo ())
+    {
+      final ISMPServiceInformation aStoredServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aStoredServiceGroup,
+                                                                                                                            aImportServiceInfo.getDocumentTypeIdentifier ());
+      if (aStoredServiceInfo != null && _isEqualContent (aStoredServiceInfo, aImportServiceInfo))
+      {
+        aSummary.onSuccess (EImportSummaryAction.UNCHANGED_SI);
+        continue;
+      }
+
+      final EImportSummaryAction eAction = aStoredServiceInfo != null ? EImportSummaryAction.UPDATE_SI
+                                                                      : EImportSummaryAction.CREATE_SI;
+      final String sVerb = aStoredServiceInfo != null ? "update" : "create";
+      try
+      {
+        if (aServiceInfoMgr.mergeSMPServiceInformation (aImportServiceInfo).isSuccess ())
+        {
+          aLoggerSuccess.accept (sServiceGroupID, "Successfully " + sVerb + "d Service Information");
+          aSummary.onSuccess (eAction);
+        }
+        else
+        {
+          aLoggerErrorPI.accept (sServiceGroupID, "Failed to " + sVerb + " Service Information");
+          aSummary.onError (eAction);
+        }
+      }
+      catch (final Exception ex)
+      {
+        aLoggerErrorPIEx.accept (sServiceGroupID, "Failed to " + sVerb + " Service Information", ex);
+        aSummary.onError (eAction);
+      }
+    }
+
+    // Create or update the changed Redirects
+    for (final ISMPRedirect aImportRedirect : aImportData.getRedirects ())
+    {
+      final ISMPRedirect aStoredRedirect = aRedirectMgr.getSMPRedirectOfServiceGroupAndDocumentType (aStoredServiceGroup,
+                                                                                                    aImportRedirect.getDocumentTypeIdentifier ());
+      if (aStoredRedirect != null && _isEqualXML (aStoredRedirect, aImportRedirect))
+      {
+        aSummary.onSuccess (EImportSummaryAction.UNCHANGED_REDIRECT);
+        continue;
+      }
+
+      final EImportSummaryAction eAction = aStoredRedirect != null ? EImportSummaryAction.UPDATE_REDIRECT
+                                                                   : EImportSummaryAction.CREATE_REDIRECT;
+      final String sVerb = aStoredRedirect != null ? "update" : "create";
+      try
+      {
+        if (aRedirectMgr.createOrUpdateSMPRedirect (aStoredServiceGroup,
+                                                    aImportRedirect.getDocumentTypeIdentifier (),
+                                                    aImportRedirect.getTargetHref (),
+                                                    aImportRedirect.getSubjectUniqueIdentifier (),
+                                                    aImportRedirect.getCertificate (),
+                                                    aImportRedirect.getExtensions ().getExtensionsAsJsonString ()) != null)
+        {
+          aLoggerSuccess.accept (sServiceGroupID, "Successfully " + sVerb + "d Redirect");
+          aSummary.onSuccess (eAction);
+        }
+        else
+        {
+          aLoggerErrorPI.accept (sServiceGroupID, "Failed to " + sVerb + " Redirect");
+          aSummary.onError (eAction);
+        }
+      }
+      catch (final Exception ex)
+      {
+        aLoggerErrorPIEx.accept (sServiceGroupID, "Failed to " + sVerb + " Redirect", ex);
+        aSummary.onError (eAction);
+      }
+    }
+    return ESuccess.SUCCESS;
+  }
+
   public static void importXMLVer10 (@Nonnull final IMicroElement eRoot,
                                      final boolean bOverwriteExisting,
                                      @Nonnull final IUser aDefaultOwner,
@@ -107,8 +366,51 @@ public final class ServiceGroupImport
                                      @Nonnull final ICommonsSet <String> aAllExistingBusinessCardIDs,
                                      @Nonnull final ICommonsList <ImportActionItem> aActionList,
                                      @Nonnull final ImportSummary aSummary)
+  {
+    importXMLVer10 (eRoot,
+                    EImportMode.getFromOverwriteExisting (bOverwriteExisting),
+                    aDefaultOwner,
+                    aAllExistingServiceGroupIDs,
+                    aAllExistingBusinessCardIDs,
+                    aActionList,
+                    aSummary);
+  }
+
+  /**
+   * Import Service Groups, Service Information, Redirects and Business Cards
+   * from XML version 1.0.
+   *
+   * @param eRoot
+   *        The root element of the import. May not be <code>null</code>.
+   * @param eMode
+   *        The import mode, defining how existing Service Groups and Business
+   *        Cards are handled. May not be <code>null</code>.
+   * @param aDefaultOwner
+   *        The owner to be used, if the owner contained in the import is
+   *        unknown. May not be <code>null</code>.
+   * @param aAllExistingServiceGroupIDs
+   *        The IDs of all existing Service Groups. May not be
+   *        <code>null</code>.
+   * @param aAllExistingBusinessCardIDs
+   *        The IDs of all existing Business Cards. May not be
+   *        <code>null</code>.
+   * @param aActionList
+   *        The list to be filled with all actions. May not be
+   *        <code>null</code>.
+   * @param aSummary
+   *        The summary to be filled. May not be <code>null</code>.
+   * @since 7.1.1
+   */
+  public static void importXMLVer10 (@Nonnull final IMicroElement eRoot,
+                                     @Nonnull final EImportMode eMode,
+                                     @Nonnull final IUser aDefaultOwner,
+                                     @Nonnull final ICommonsSet <String> aAllExistingServiceGroupIDs,
+                                     @Nonnull final ICommonsSet <String> aAllExistingBusinessCardIDs,
+                                     @Nonnull final ICommonsList <ImportActionItem> aActionList,
+                                     @Nonnull final ImportSummary aSummary)
   {
     ValueEnforcer.notNull (eRoot, "Root");
+    ValueEnforcer.notNull (eMode, "Mode");
     ValueEnforcer.notNull (aDefaultOwner, "DefaultOwner");
     ValueEnforcer.notNull (aAllExistingServiceGroupIDs, "AllExistingServiceGroupIDs");
     ValueEnforcer.notNull (aAllExistingBusinessCardIDs, "AllExistingBusinessCardIDs");
@@ -145,14 +447,14 @@ public final class ServiceGroupImport
       aActionList.add (ImportActionItem.createError (pi, msg, ex));
     };
 
-    LOGGER.info ("Starting import of Service Groups from XML v1.0, overwrite is " +
-                 (bOverwriteExisting ? "enabled" : "disabled"));
+    LOGGER.info ("Starting import of Service Groups from XML v1.0, mode is '" + eMode.getID () + "'");
 
     final ISMPSettings aSettings = SMPMetaManager.getSettings ();
     final IUserManager aUserMgr = PhotonSecurityManager.getUserMgr ();
 
     final ICommonsOrderedMap <ISMPServiceGroup, InternalImportData> aImportServiceGroups = new CommonsLinkedHashMap <> ();
     final ICommonsMap <String, ISMPServiceGroup> aDeleteServiceGroups = new CommonsHashMap <> ();
+    final ICommonsSet <String> aUpdateServiceGroupIDs = new CommonsHashSet <> ();
 
     // First read all service groups as they are dependents of the
     // business cards
@@ -190,7 +492,7 @@ public final class ServiceGroupImport
 
       final String sServiceGroupID = aServiceGroup.getID ();
       final boolean bIsServiceGroupContained = aAllExistingServiceGroupIDs.contains (sServiceGroupID);
-      if (!bIsServiceGroupContained || bOverwriteExisting)
+      if (!bIsServiceGroupContained || eMode.isHandleExisting ())
       {
         if (aImportServiceGroups.containsKey (aServiceGroup))
         {
@@ -203,10 +505,21 @@ public final class ServiceGroupImport
         // Remember to create/overwrite the service group
         final InternalImportData aImportData = new InternalImportData ();
         aImportServiceGroups.put (aServiceGroup, aImportData);
-        if (bIsServiceGroupContained)
-          aDeleteServiceGroups.put (sServiceGroupID, aServiceGroup);
-        aLoggerSuccess.accept (sServiceGroupID,
-                               "Will " + (bIsServiceGroupContained ? "overwrite" : "import") + " Service Group");
+        final String sVerb;
+        if (!bIsServiceGroupContained)
+          sVerb = "import";
+        else
+          if (eMode == EImportMode.APPLY_CHANGES)
+          {
+            aUpdateServiceGroupIDs.add (sServiceGroupID);
+            sVerb = "apply the changes of";
+          }
+          else
+          {
+            aDeleteServiceGroups.put (sServiceGroupID, aServiceGroup);
+            sVerb = "overwrite";
+          }
+        aLoggerSuccess.accept (sServiceGroupID, "Will " + sVerb + " Service Group");
 
         // read all contained service information
         {
@@ -254,6 +567,7 @@ public final class ServiceGroupImport
     // Now read the business cards
     final ICommonsOrderedSet <ISMPBusinessCard> aImportBusinessCards = new CommonsLinkedHashSet <> ();
     final ICommonsMap <String, ISMPBusinessCard> aDeleteBusinessCards = new CommonsHashMap <> ();
+    final ICommonsSet <String> aUpdateBusinessCardIDs = new CommonsHashSet <> ();
     if (aSettings.isDirectoryIntegrationEnabled ())
     {
       // Read them only if the Peppol Directory integration is enabled
@@ -279,7 +593,7 @@ public final class ServiceGroupImport
         {
           final String sBusinessCardID = aBusinessCard.getID ();
           final boolean bIsBusinessCardContained = aAllExistingBusinessCardIDs.contains (sBusinessCardID);
-          if (!bIsBusinessCardContained || bOverwriteExisting)
+          if (!bIsBusinessCardContained || eMode.isHandleExisting ())
           {
             if (aImportBusinessCards.removeIf (x -> x.getID ().equals (sBusinessCardID)))
             {
@@ -287,14 +601,24 @@ public final class ServiceGroupImport
                                      "The Business Card already contained in the file. Will overwrite the previous definition.");
             }
             aImportBusinessCards.add (aBusinessCard);
-            if (bIsBusinessCardContained)
-            {
-              // BCs are deleted when the SGs are deleted
-              if (!aDeleteServiceGroups.containsKey (sBusinessCardID))
-                aDeleteBusinessCards.put (sBusinessCardID, aBusinessCard);
-            }
-            aLoggerSuccess.accept (sBusinessCardID,
-                                   "Will " + (bIsBusinessCardContained ? "overwrite" : "import") + " Business Card");
+            final String sVerb;
+            if (!bIsBusinessCardContained)
+              sVerb = "import";
+            else
+              if (eMode == EImportMode.APPLY_CHANGES)
+              {
+                // Compared with the stored one when importing
+                aUpdateBusinessCardIDs.add (sBusinessCardID);
+                sVerb = "apply the changes of";
+              }
+              else
+              {
+                // BCs are deleted when the SGs are deleted
+                if (!aDeleteServiceGroups.containsKey (sBusinessCardID))
+                  aDeleteBusinessCards.put (sBusinessCardID, aBusinessCard);
+                sVerb = "overwrite";
+              }
+            aLoggerSuccess.accept (sBusinessCardID, "Will " + sVerb + " Business Card");
           }
           else
           {
@@ -362,6 +686,30 @@ public final class ServiceGroupImport
           final ISMPServiceGroup aImportServiceGroup = aEntry.getKey ();
           final String sServiceGroupID = aImportServiceGroup.getID ();
 
+          if (aUpdateServiceGroupIDs.contains (sServiceGroupID))
+          {
+            // Only apply the differences to the existing service group
+            final ISMPServiceGroup aStoredServiceGroup = aServiceGroupMgr.getSMPServiceGroupOfID (aImportServiceGroup.getParticipantIdentifier ());
+            if (aStoredServiceGroup != null)
+            {
+              if (_applyServiceGroupChanges (aStoredServiceGroup,
+                                             aImportServiceGroup,
+                                             aEntry.getValue (),
+                                             aLoggerSuccess,
+                                             aLoggerInfo,
+                                             aLoggerErrorPI,
+                                             aLoggerErrorPIEx,
+                                             aSummary).isFailure ())
+              {
+                // Don't touch the Business Card either
+                aImportBusinessCards.removeIf (x -> x.getID ().equals (sServiceGroupID));
+              }
+              continue;
+            }
+            // The service group was deleted in the meantime - create it again
+            aLoggerWarn.accept (sServiceGroupID, "The Service Group to be updated is no longer present - creating it");
+          }
+
           ISMPServiceGroup aNewServiceGroup = null;
           try
           {
@@ -479,25 +827,42 @@ public final class ServiceGroupImport
         for (final ISMPBusinessCard aImportBusinessCard : aImportBusinessCards)
         {
           final String sBusinessCardID = aImportBusinessCard.getID ();
+          final boolean bIsUpdate;
+          if (aUpdateBusinessCardIDs.contains (sBusinessCardID))
+          {
+            final ISMPBusinessCard aStoredBusinessCard = aBusinessCardMgr.getSMPBusinessCardOfID (aImportBusinessCard.getParticipantIdentifier ());
+            if (aStoredBusinessCard != null && _isEqualContent (aStoredBusinessCard, aImportBusinessCard))
+            {
+              aLoggerInfo.accept (sBusinessCardID, "Business Card is unchanged");
+              aSummary.onSuccess (EImportSummaryAction.UNCHANGED_BC);
+              continue;
+            }
+            bIsUpdate = aStoredBusinessCard != null;
+          }
+          else
+            bIsUpdate = false;
+          final EImportSummaryAction eAction = bIsUpdate ? EImportSummaryAction.UPDATE_BC
+                                                         : EImportSummaryAction.CREATE_BC;
+          final String sVerb = bIsUpdate ? "update" : "create";
 
           try
           {
             if (aBusinessCardMgr.createOrUpdateSMPBusinessCard (aImportBusinessCard.getParticipantIdentifier (),
                                                                 aImportBusinessCard.getAllEntities ()) != null)
             {
-              aLoggerSuccess.accept (sBusinessCardID, "Successfully created Business Card");
-              aSummary.onSuccess (EImportSummaryAction.CREATE_BC);
+              aLoggerSuccess.accept (sBusinessCardID, "Successfully " + sVerb + "d Business Card");
+              aSummary.onSuccess (eAction);
             }
             else
             {
-              aLoggerErrorPI.accept (sBusinessCardID, "Failed to create Business Card");
-              aSummary.onError (EImportSummaryAction.CREATE_BC);
+              aLoggerErrorPI.accept (sBusinessCardID, "Failed to " + sVerb + " Business Card");
+              aSummary.onError (eAction);
             }
           }
           catch (final Exception ex)
           {
-            aLoggerErrorPIEx.accept (sBusinessCardID, "Failed to create Business Card", ex);
-            aSummary.onError (EImportSummaryAction.CREATE_BC);
+            aLoggerErrorPIEx.accept (sBusinessCardID, "Failed to " + sVerb + " Business Card", ex);
+            aSummary.onError (eAction);
           }
         }
       }
@@ -35,6 +35,7 @@ import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.peppolid.simple.process.SimpleProcessIdentifier;
 import com.helger.phoss.smp.CSMPServer;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.readmodel.ISMPPublicReadModel;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
@@ -49,6 +50,8 @@ import com.helger.phoss.smp.exception.SMPBadRequestException;
 import com.helger.phoss.smp.exception.SMPNotFoundException;
 import com.helger.phoss.smp.exception.SMPServerException;
 import com.helger.phoss.smp.exception.SMPUnauthorizedException;
+import com.helger.phoss.smp.statistics.SMPKeyedLatencyHistogram;
+import com.helger.phoss.smp.statistics.SMPLatencyStatistics;
 import com.helger.photon.security.user.IUser;
 import com.helger.smpclient.extension.SMPExtensionList;
 import com.helger.xsds.bdxr.smp1.CompleteServiceGroupType;
@@ -79,6 +82,8 @@ public final class BDXR1ServerAPI
                                                                                                                                "$success");
   private static final IMutableStatisticsHandlerKeyedCounter STATS_COUNTER_ERROR = StatisticsManager.getKeyedCounterHandler (BDXR1ServerAPI.class.getName () +
                                                                                                                              "$error");
+  private static final SMPKeyedLatencyHistogram STATS_TIMER = SMPLatencyStatistics.getKeyedHistogram (BDXR1ServerAPI.class.getSimpleName ());
+  private static final String ACCESS_LOG_API = "bdxr1";
   private static final String LOG_PREFIX = "[BDXR1 REST API] ";
 
   private final ISMPServerAPIDataProvider m_aAPIDataProvider;
@@ -98,11 +103,10 @@ public final class BDXR1ServerAPI
   @Nonnull
   public CompleteServiceGroupType getCompleteServiceGroup (final String sPathServiceGroupID) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "GET /complete/" + sPathServiceGroupID;
     final String sAction = "getCompleteServiceGroup";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
 
     try
     {
@@ -114,10 +118,9 @@ public final class BDXR1ServerAPI
         throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, m_aAPIDataProvider.getCurrentURI ());
       }
 
-      final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-      final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+      final ISMPPublicReadModel aReadModel = SMPMetaManager.getPublicReadModel ();
 
-      final ISMPServiceGroup aServiceGroup = aServiceGroupMgr.getSMPServiceGroupOfID (aPathServiceGroupID);
+      final ISMPServiceGroup aServiceGroup = aReadModel.getServiceGroupOfID (aPathServiceGroupID);
       if (aServiceGroup == null)
       {
         // No such service group
@@ -127,11 +130,11 @@ public final class BDXR1ServerAPI
 
       // Then add the service metadata references
       final ServiceMetadataReferenceCollectionType aRefCollection = new ServiceMetadataReferenceCollectionType ();
-      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesOfServiceGroup (aServiceGroup))
+      for (final IDocumentTypeIdentifier aDocTypeID : aReadModel.getAllDocumentTypesOfServiceGroup (aServiceGroup))
       {
         // Ignore all service information without endpoints
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
-                                                                                                                           aDocTypeID);
+        final ISMPServiceInformation aServiceInfo = aReadModel.getServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                                                   aDocTypeID);
         if (aServiceInfo != null && aServiceInfo.getTotalEndpointCount () > 0)
         {
           final ServiceMetadataReferenceType aMetadataReference = new ServiceMetadataReferenceType ();
@@ -148,34 +151,52 @@ public final class BDXR1ServerAPI
       final CompleteServiceGroupType aCompleteServiceGroup = new CompleteServiceGroupType ();
       aCompleteServiceGroup.setServiceGroup (aSG);
 
-      for (final ISMPServiceInformation aServiceInfo : aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aServiceGroup))
+      for (final ISMPServiceInformation aServiceInfo : aReadModel.getAllServiceInformationOfServiceGroup (aServiceGroup))
       {
         final ServiceMetadataType aSM = aServiceInfo.getAsJAXBObjectBDXR1 ();
         if (aSM != null)
           aCompleteServiceGroup.addServiceMetadata (aSM);
       }
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logReadSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
       return aCompleteServiceGroup;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
+  /**
+   * Get the references to all service groups of the provided user. The
+   * complete list is created in memory.
+   *
+   * @param sPathUserID
+   *        The user login name from the path. May not be <code>null</code>.
+   * @param aCredentials
+   *        The credentials to use. May not be <code>null</code>.
+   * @return The reference list. Never <code>null</code>.
+   * @throws SMPServerException
+   *         On error
+   * @deprecated Since 7.1.1. The REST API streams the list and supports
+   *             paging instead.
+   */
+  @Deprecated
   @Nonnull
   public ServiceGroupReferenceListType getServiceGroupReferenceList (@Nonnull final String sPathUserID,
                                                                      @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "GET /list/" + sPathUserID;
     final String sAction = "getServiceGroupReferenceList";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
 
     try
     {
@@ -204,26 +225,29 @@ public final class BDXR1ServerAPI
         aRefList.addServiceGroupReference (aServGroupRefType);
       }
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logReadSuccess (ACCESS_LOG_API, sAction, sPathUserID, null, nStartNanos);
       return aRefList;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathUserID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   @Nonnull
   public ServiceGroupType getServiceGroup (final String sPathServiceGroupID) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "GET /" + sPathServiceGroupID;
     final String sAction = "getServiceGroup";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
 
     try
     {
@@ -235,11 +259,10 @@ public final class BDXR1ServerAPI
         throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, m_aAPIDataProvider.getCurrentURI ());
       }
 
-      final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-      final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+      final ISMPPublicReadModel aReadModel = SMPMetaManager.getPublicReadModel ();
 
       // Retrieve the service group
-      final ISMPServiceGroup aServiceGroup = aServiceGroupMgr.getSMPServiceGroupOfID (aPathServiceGroupID);
+      final ISMPServiceGroup aServiceGroup = aReadModel.getServiceGroupOfID (aPathServiceGroupID);
       if (aServiceGroup == null)
       {
         // No such service group
@@ -250,11 +273,11 @@ public final class BDXR1ServerAPI
       // Then add the service metadata references
       final ServiceGroupType aSG = aServiceGroup.getAsJAXBObjectBDXR1 ();
       final ServiceMetadataReferenceCollectionType aCollectionType = new ServiceMetadataReferenceCollectionType ();
-      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesOfServiceGroup (aServiceGroup))
+      for (final IDocumentTypeIdentifier aDocTypeID : aReadModel.getAllDocumentTypesOfServiceGroup (aServiceGroup))
       {
         // Ignore all service information without endpoints
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
-                                                                                                                           aDocTypeID);
+        final ISMPServiceInformation aServiceInfo = aReadModel.getServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                                                   aDocTypeID);
         if (aServiceInfo != null && aServiceInfo.getTotalEndpointCount () > 0)
         {
           final ServiceMetadataReferenceType aMetadataReference = new ServiceMetadataReferenceType ();
@@ -265,16 +288,20 @@ public final class BDXR1ServerAPI
       }
       aSG.setServiceMetadataReferenceCollection (aCollectionType);
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logReadSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
       return aSG;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   public void saveServiceGroup (@Nonnull final String sPathServiceGroupID,
@@ -282,14 +309,17 @@ public final class BDXR1ServerAPI
                                 final boolean bCreateInSML,
                                 @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX +
-                        "PUT /" +
-                        sPathServiceGroupID +
-                        (bCreateInSML ? "" : CSMPServer.LOG_SUFFIX_NO_SML_INTERACTION);
     final String sAction = "saveServiceGroup";
 
-    LOGGER.info (sLog + " ==> " + aServiceGroup);
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug (LOG_PREFIX +
+                    "PUT /" +
+                    sPathServiceGroupID +
+                    (bCreateInSML ? "" : CSMPServer.LOG_SUFFIX_NO_SML_INTERACTION) +
+                    " ==> " +
+                    aServiceGroup);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
 
     try
     {
@@ -338,15 +368,19 @@ public final class BDXR1ServerAPI
       else
         aServiceGroupMgr.createSMPServiceGroup (aSMPUser.getID (), aPathServiceGroupID, sExtension, bCreateInSML);
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   @Nonnull
@@ -354,14 +388,10 @@ public final class BDXR1ServerAPI
                                      final boolean bDeleteInSML,
                                      @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX +
-                        "DELETE /" +
-                        sPathServiceGroupID +
-                        (bDeleteInSML ? "" : CSMPServer.LOG_SUFFIX_NO_SML_INTERACTION);
     final String sAction = "deleteServiceGroup";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
 
     try
     {
@@ -379,28 +409,31 @@ public final class BDXR1ServerAPI
       final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
       final EChange eDeleted = aServiceGroupMgr.deleteSMPServiceGroup (aPathServiceGroupID, bDeleteInSML);
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
 
       return eDeleted;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   @Nonnull
   public SignedServiceMetadataType getServiceRegistration (@Nonnull final String sPathServiceGroupID,
                                                            @Nonnull final String sPathDocTypeID) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "GET /" + sPathServiceGroupID + "/services/" + sPathDocTypeID;
     final String sAction = "getServiceRegistration";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
 
     try
     {
@@ -412,8 +445,8 @@ public final class BDXR1ServerAPI
         throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, m_aAPIDataProvider.getCurrentURI ());
       }
 
-      final ISMPServiceGroup aPathServiceGroup = SMPMetaManager.getServiceGroupMgr ()
-                                                               .getSMPServiceGroupOfID (aPathServiceGroupID);
+      final ISMPPublicReadModel aReadModel = SMPMetaManager.getPublicReadModel ();
+      final ISMPServiceGroup aPathServiceGroup = aReadModel.getServiceGroupOfID (aPathServiceGroupID);
       if (aPathServiceGroup == null)
       {
         throw new SMPNotFoundException ("No such Service Group '" + sPathServiceGroupID + "'",
@@ -427,9 +460,8 @@ public final class BDXR1ServerAPI
       }
 
       // First check for redirection, then for actual service
-      final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
-      final ISMPRedirect aRedirect = aRedirectMgr.getSMPRedirectOfServiceGroupAndDocumentType (aPathServiceGroup,
-                                                                                               aPathDocTypeID);
+      final ISMPRedirect aRedirect = aReadModel.getRedirectOfServiceGroupAndDocumentType (aPathServiceGroup,
+                                                                                          aPathDocTypeID);
 
       final SignedServiceMetadataType aSignedServiceMetadata = new SignedServiceMetadataType ();
       if (aRedirect != null)
@@ -439,9 +471,8 @@ public final class BDXR1ServerAPI
       else
       {
         // Get as regular service information
-        final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aPathServiceGroup,
-                                                                                                                           aPathDocTypeID);
+        final ISMPServiceInformation aServiceInfo = aReadModel.getServiceInformationOfServiceGroupAndDocumentType (aPathServiceGroup,
+                                                                                                                   aPathDocTypeID);
         final ServiceMetadataType aSM = aServiceInfo == null ? null : aServiceInfo.getAsJAXBObjectBDXR1 ();
         if (aSM != null)
         {
@@ -457,16 +488,20 @@ public final class BDXR1ServerAPI
 
       // Signature must be added by the rest service
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logReadSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos);
       return aSignedServiceMetadata;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   @Nonnull
@@ -475,11 +510,18 @@ public final class BDXR1ServerAPI
                                            @Nonnull final ServiceMetadataType aServiceMetadata,
                                            @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "PUT /" + sPathServiceGroupID + "/services/" + sPathDocumentTypeID;
     final String sAction = "saveServiceRegistration";
 
-    LOGGER.info (sLog + " ==> " + aServiceMetadata);
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug (LOG_PREFIX +
+                    "PUT /" +
+                    sPathServiceGroupID +
+                    "/services/" +
+                    sPathDocumentTypeID +
+                    " ==> " +
+                    aServiceMetadata);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
 
     try
     {
@@ -590,11 +632,15 @@ public final class BDXR1ServerAPI
                                                     convertToJsonString (aServiceMetadata.getRedirect ()
                                                                                          .getExtension ())) == null)
         {
-          LOGGER.error (sLog + " - ERROR - Redirect");
+          SMPRestAccessLog.logError (ACCESS_LOG_API,
+                                     sAction,
+                                     sPathServiceGroupID,
+                                     sPathDocumentTypeID,
+                                     nStartNanos,
+                                     "Failed to save the Redirect");
           STATS_COUNTER_ERROR.increment (sAction);
           return ESuccess.FAILURE;
         }
-        LOGGER.info (sLog + " SUCCESS - Redirect");
       }
       else
         if (aServiceInformation != null)
@@ -635,12 +681,16 @@ public final class BDXR1ServerAPI
                                                                                      sExtensionXML))
                              .isFailure ())
           {
-            LOGGER.error (sLog + " - ERROR - ServiceInformation");
+            SMPRestAccessLog.logError (ACCESS_LOG_API,
+                                       sAction,
+                                       sPathServiceGroupID,
+                                       sPathDocumentTypeID,
+                                       nStartNanos,
+                                       "Failed to save the Service Information");
             STATS_COUNTER_ERROR.increment (sAction);
             return ESuccess.FAILURE;
           }
 
-          LOGGER.info (sLog + " SUCCESS - ServiceInformation");
         }
         else
         {
@@ -648,28 +698,30 @@ public final class BDXR1ServerAPI
                                             m_aAPIDataProvider.getCurrentURI ());
         }
 
-      if (false)
-        LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocumentTypeID, nStartNanos);
       return ESuccess.SUCCESS;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocumentTypeID, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   public void deleteServiceRegistration (@Nonnull final String sPathServiceGroupID,
                                          @Nonnull final String sPathDocTypeID,
                                          @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "DELETE /" + sPathServiceGroupID + "/services/" + sPathDocTypeID;
     final String sAction = "deleteServiceRegistration";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
 
     try
     {
@@ -716,8 +768,8 @@ public final class BDXR1ServerAPI
                                           ")",
                                           m_aAPIDataProvider.getCurrentURI ());
         }
-        LOGGER.info (sLog + " SUCCESS - ServiceInformation");
         STATS_COUNTER_SUCCESS.increment (sAction);
+        SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos);
       }
       else
       {
@@ -739,8 +791,8 @@ public final class BDXR1ServerAPI
                                             ")",
                                             m_aAPIDataProvider.getCurrentURI ());
           }
-          LOGGER.info (sLog + " SUCCESS - Redirect");
           STATS_COUNTER_SUCCESS.increment (sAction);
+          SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos);
         }
         else
         {
@@ -752,20 +804,23 @@ public final class BDXR1ServerAPI
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   public void deleteServiceRegistrations (@Nonnull final String sPathServiceGroupID,
                                           @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "DELETE /" + sPathServiceGroupID + "/services/";
     final String sAction = "deleteServiceRegistrations";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
 
     try
     {
@@ -794,16 +849,19 @@ public final class BDXR1ServerAPI
       final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
       eChange = eChange.or (aRedirectMgr.deleteAllSMPRedirectsOfServiceGroup (aServiceGroup));
 
-      LOGGER.info (sLog + " SUCCESS - " + eChange);
-
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   /**
@@ -37,6 +37,7 @@ import com.helger.peppolid.IProcessIdentifier;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.CSMPServer;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.readmodel.ISMPPublicReadModel;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
@@ -50,6 +51,8 @@ import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
 import com.helger.phoss.smp.exception.SMPBadRequestException;
 import com.helger.phoss.smp.exception.SMPNotFoundException;
 import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.statistics.SMPKeyedLatencyHistogram;
+import com.helger.phoss.smp.statistics.SMPLatencyStatistics;
 import com.helger.photon.security.user.IUser;
 import com.helger.smpclient.extension.SMPExtensionList;
 import com.helger.xsds.bdxr.smp2.ServiceGroupType;
@@ -76,6 +79,8 @@ public final class BDXR2ServerAPI
                                                                                                                                "$success");
   private static final IMutableStatisticsHandlerKeyedCounter STATS_COUNTER_ERROR = StatisticsManager.getKeyedCounterHandler (BDXR2ServerAPI.class.getName () +
                                                                                                                              "$error");
+  private static final SMPKeyedLatencyHistogram STATS_TIMER = SMPLatencyStatistics.getKeyedHistogram (BDXR2ServerAPI.class.getSimpleName ());
+  private static final String ACCESS_LOG_API = "bdxr2";
   private static final String LOG_PREFIX = "[BDXR2 REST API] ";
 
   private final ISMPServerAPIDataProvider m_aAPIDataProvider;
@@ -95,11 +100,10 @@ public final class BDXR2ServerAPI
   @Nonnull
   public ServiceGroupType getServiceGroup (final String sPathServiceGroupID) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "GET /" + sPathServiceGroupID;
     final String sAction = "getServiceGroup";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -109,11 +113,10 @@ public final class BDXR2ServerAPI
         // Invalid identifier
         throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, m_aAPIDataProvider.getCurrentURI ());
       }
-      final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-      final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+      final ISMPPublicReadModel aReadModel = SMPMetaManager.getPublicReadModel ();
 
       // Retrieve the service group
-      final ISMPServiceGroup aServiceGroup = aServiceGroupMgr.getSMPServiceGroupOfID (aPathServiceGroupID);
+      final ISMPServiceGroup aServiceGroup = aReadModel.getServiceGroupOfID (aPathServiceGroupID);
       if (aServiceGroup == null)
       {
         // No such service group
@@ -122,11 +125,11 @@ public final class BDXR2ServerAPI
       }
       // Then add the service metadata references
       final ServiceGroupType aSG = aServiceGroup.getAsJAXBObjectBDXR2 ();
-      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesOfServiceGroup (aServiceGroup))
+      for (final IDocumentTypeIdentifier aDocTypeID : aReadModel.getAllDocumentTypesOfServiceGroup (aServiceGroup))
       {
         // Ignore all service information without endpoints
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
-                                                                                                                           aDocTypeID);
+        final ISMPServiceInformation aServiceInfo = aReadModel.getServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                                                   aDocTypeID);
         if (aServiceInfo != null && aServiceInfo.getTotalEndpointCount () > 0)
         {
           final ServiceReferenceType aMetadataReference = new ServiceReferenceType ();
@@ -139,16 +142,20 @@ public final class BDXR2ServerAPI
           aSG.addServiceReference (aMetadataReference);
         }
       }
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logReadSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
       return aSG;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   public void saveServiceGroup (@Nonnull final String sPathServiceGroupID,
@@ -156,14 +163,17 @@ public final class BDXR2ServerAPI
                                 final boolean bCreateInSML,
                                 @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX +
-                        "PUT /" +
-                        sPathServiceGroupID +
-                        (bCreateInSML ? "" : CSMPServer.LOG_SUFFIX_NO_SML_INTERACTION);
     final String sAction = "saveServiceGroup";
 
-    LOGGER.info (sLog + " ==> " + aServiceGroup);
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug (LOG_PREFIX +
+                    "PUT /" +
+                    sPathServiceGroupID +
+                    (bCreateInSML ? "" : CSMPServer.LOG_SUFFIX_NO_SML_INTERACTION) +
+                    " ==> " +
+                    aServiceGroup);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -208,15 +218,19 @@ public final class BDXR2ServerAPI
       else
         aServiceGroupMgr.createSMPServiceGroup (aSMPUser.getID (), aPathServiceGroupID, sExtension, bCreateInSML);
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   @Nonnull
@@ -224,14 +238,10 @@ public final class BDXR2ServerAPI
                                      final boolean bDeleteInSML,
                                      @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX +
-                        "DELETE /" +
-                        sPathServiceGroupID +
-                        (bDeleteInSML ? "" : CSMPServer.LOG_SUFFIX_NO_SML_INTERACTION);
     final String sAction = "deleteServiceGroup";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -247,28 +257,31 @@ public final class BDXR2ServerAPI
       final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
       final EChange eDeleted = aServiceGroupMgr.deleteSMPServiceGroup (aPathServiceGroupID, bDeleteInSML);
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
 
       return eDeleted;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   @Nonnull
   public ServiceMetadataType getServiceRegistration (@Nonnull final String sPathServiceGroupID,
                                                      @Nonnull final String sPathDocTypeID) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "GET /" + sPathServiceGroupID + "/services/" + sPathDocTypeID;
     final String sAction = "getServiceRegistration";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -278,8 +291,8 @@ public final class BDXR2ServerAPI
         // Invalid identifier
         throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, m_aAPIDataProvider.getCurrentURI ());
       }
-      final ISMPServiceGroup aPathServiceGroup = SMPMetaManager.getServiceGroupMgr ()
-                                                               .getSMPServiceGroupOfID (aPathServiceGroupID);
+      final ISMPPublicReadModel aReadModel = SMPMetaManager.getPublicReadModel ();
+      final ISMPServiceGroup aPathServiceGroup = aReadModel.getServiceGroupOfID (aPathServiceGroupID);
       if (aPathServiceGroup == null)
       {
         throw new SMPNotFoundException ("No such Service Group '" + sPathServiceGroupID + "'",
@@ -291,9 +304,8 @@ public final class BDXR2ServerAPI
         throw SMPBadRequestException.failedToParseDocType (sPathDocTypeID, m_aAPIDataProvider.getCurrentURI ());
       }
       // First check for redirection, then for actual service
-      final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
-      final ISMPRedirect aRedirect = aRedirectMgr.getSMPRedirectOfServiceGroupAndDocumentType (aPathServiceGroup,
-                                                                                               aPathDocTypeID);
+      final ISMPRedirect aRedirect = aReadModel.getRedirectOfServiceGroupAndDocumentType (aPathServiceGroup,
+                                                                                          aPathDocTypeID);
 
       final ServiceMetadataType aServiceMetadata;
       if (aRedirect != null)
@@ -303,9 +315,8 @@ public final class BDXR2ServerAPI
       else
       {
         // Get as regular service information
-        final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aPathServiceGroup,
-                                                                                                                           aPathDocTypeID);
+        final ISMPServiceInformation aServiceInfo = aReadModel.getServiceInformationOfServiceGroupAndDocumentType (aPathServiceGroup,
+                                                                                                                   aPathDocTypeID);
         if (aServiceInfo != null)
         {
           aServiceMetadata = aServiceInfo.getAsJAXBObjectBDXR2 ();
@@ -319,16 +330,20 @@ public final class BDXR2ServerAPI
       }
       // Signature must be added by the rest service
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logReadSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos);
       return aServiceMetadata;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   @Nonnull
@@ -337,11 +352,18 @@ public final class BDXR2ServerAPI
                                            @Nonnull final ServiceMetadataType aServiceMetadata,
                                            @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "PUT /" + sPathServiceGroupID + "/services/" + sPathDocumentTypeID;
     final String sAction = "saveServiceRegistration";
 
-    LOGGER.info (sLog + " ==> " + aServiceMetadata);
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug (LOG_PREFIX +
+                    "PUT /" +
+                    sPathServiceGroupID +
+                    "/services/" +
+                    sPathDocumentTypeID +
+                    " ==> " +
+                    aServiceMetadata);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       // Parse provided identifiers
@@ -442,11 +464,15 @@ public final class BDXR2ServerAPI
                                                       convertToJsonString (aPM.getRedirect ().getSMPExtensions ())) ==
               null)
           {
-            LOGGER.error (sLog + " - ERROR - Redirect");
+            SMPRestAccessLog.logError (ACCESS_LOG_API,
+                                       sAction,
+                                       sPathServiceGroupID,
+                                       sPathDocumentTypeID,
+                                       nStartNanos,
+                                       "Failed to save the Redirect");
             STATS_COUNTER_ERROR.increment (sAction);
             return ESuccess.FAILURE;
           }
-          LOGGER.info (sLog + " SUCCESS - Redirect");
         }
         else
           if (aPM.getEndpoint () != null)
@@ -510,11 +536,15 @@ public final class BDXR2ServerAPI
                                                                                        aProcesses,
                                                                                        sExtensionXML)).isFailure ())
             {
-              LOGGER.error (sLog + " - ERROR - ServiceInformation");
+              SMPRestAccessLog.logError (ACCESS_LOG_API,
+                                         sAction,
+                                         sPathServiceGroupID,
+                                         sPathDocumentTypeID,
+                                         nStartNanos,
+                                         "Failed to save the Service Information");
               STATS_COUNTER_ERROR.increment (sAction);
               return ESuccess.FAILURE;
             }
-            LOGGER.info (sLog + " SUCCESS - ServiceInformation");
           }
           else
           {
@@ -524,27 +554,30 @@ public final class BDXR2ServerAPI
       }
       if (false)
 
-        LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocumentTypeID, nStartNanos);
       return ESuccess.SUCCESS;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocumentTypeID, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   public void deleteServiceRegistration (@Nonnull final String sPathServiceGroupID,
                                          @Nonnull final String sPathDocTypeID,
                                          @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "DELETE /" + sPathServiceGroupID + "/services/" + sPathDocTypeID;
     final String sAction = "deleteServiceRegistration";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -587,8 +620,8 @@ public final class BDXR2ServerAPI
                                           ")",
                                           m_aAPIDataProvider.getCurrentURI ());
         }
-        LOGGER.info (sLog + " SUCCESS - ServiceInformation");
         STATS_COUNTER_SUCCESS.increment (sAction);
+        SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos);
       }
       else
       {
@@ -610,8 +643,8 @@ public final class BDXR2ServerAPI
                                             ")",
                                             m_aAPIDataProvider.getCurrentURI ());
           }
-          LOGGER.info (sLog + " SUCCESS - Redirect");
           STATS_COUNTER_SUCCESS.increment (sAction);
+          SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos);
         }
         else
         {
@@ -623,20 +656,23 @@ public final class BDXR2ServerAPI
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   public void deleteServiceRegistrations (@Nonnull final String sPathServiceGroupID,
                                           @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "DELETE /" + sPathServiceGroupID + "/services/";
     final String sAction = "deleteServiceRegistrations";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -662,16 +698,19 @@ public final class BDXR2ServerAPI
       final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
       eChange = eChange.or (aRedirectMgr.deleteAllSMPRedirectsOfServiceGroup (aServiceGroup));
 
-      LOGGER.info (sLog + " SUCCESS - " + eChange);
-
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   /**
@@ -31,12 +31,15 @@ import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardEntity;
+import com.helger.phoss.smp.domain.readmodel.ISMPPublicReadModel;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
 import com.helger.phoss.smp.exception.SMPBadRequestException;
 import com.helger.phoss.smp.exception.SMPNotFoundException;
 import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.statistics.SMPKeyedLatencyHistogram;
+import com.helger.phoss.smp.statistics.SMPLatencyStatistics;
 import com.helger.photon.security.user.IUser;
 
 /**
@@ -54,6 +57,8 @@ public final class BusinessCardServerAPI
                                                                                                                                "$success");
   private static final IMutableStatisticsHandlerKeyedCounter STATS_COUNTER_ERROR = StatisticsManager.getKeyedCounterHandler (BusinessCardServerAPI.class.getName () +
                                                                                                                              "$error");
+  private static final SMPKeyedLatencyHistogram STATS_TIMER = SMPLatencyStatistics.getKeyedHistogram (BusinessCardServerAPI.class.getSimpleName ());
+  private static final String ACCESS_LOG_API = "businesscard";
   private static final String LOG_PREFIX = "[BusinessCard REST API] ";
 
   private final ISMPServerAPIDataProvider m_aAPIProvider;
@@ -66,11 +71,10 @@ public final class BusinessCardServerAPI
   @Nonnull
   public PD3BusinessCardType getBusinessCard (final String sServiceGroupID) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "GET /businesscard/" + sServiceGroupID;
     final String sAction = "getBusinessCard";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -80,37 +84,40 @@ public final class BusinessCardServerAPI
         // Invalid identifier
         throw SMPBadRequestException.failedToParseSG (sServiceGroupID, m_aAPIProvider.getCurrentURI ());
       }
-      final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-      final ISMPServiceGroup aServiceGroup = aServiceGroupMgr.getSMPServiceGroupOfID (aServiceGroupID);
+      final ISMPPublicReadModel aReadModel = SMPMetaManager.getPublicReadModel ();
+      final ISMPServiceGroup aServiceGroup = aReadModel.getServiceGroupOfID (aServiceGroupID);
       if (aServiceGroup == null)
       {
         // No such service group
         throw new SMPNotFoundException ("Unknown Service Group '" + sServiceGroupID + "'",
                                         m_aAPIProvider.getCurrentURI ());
       }
-      final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
-      if (aBusinessCardMgr == null)
+      if (!SMPMetaManager.hasBusinessCardMgr ())
       {
         throw new SMPBadRequestException ("This SMP server does not support the Business Card API",
                                           m_aAPIProvider.getCurrentURI ());
       }
-      final ISMPBusinessCard aBusinessCard = aBusinessCardMgr.getSMPBusinessCardOfServiceGroup (aServiceGroup);
+      final ISMPBusinessCard aBusinessCard = aReadModel.getBusinessCardOfID (aServiceGroup.getParticipantIdentifier ());
       if (aBusinessCard == null)
       {
         // No such business card
         throw new SMPNotFoundException ("No Business Card assigned to Service Group '" + sServiceGroupID + "'",
                                         m_aAPIProvider.getCurrentURI ());
       }
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logReadSuccess (ACCESS_LOG_API, sAction, sServiceGroupID, null, nStartNanos);
       return aBusinessCard.getAsJAXBObject ();
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   @Nonnull
@@ -118,11 +125,12 @@ public final class BusinessCardServerAPI
                                       @Nonnull final PDBusinessCard aBusinessCard,
                                       @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "PUT /businesscard/" + sServiceGroupID;
     final String sAction = "createBusinessCard";
 
-    LOGGER.info (sLog + " ==> " + aBusinessCard);
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug (LOG_PREFIX + "PUT /businesscard/" + sServiceGroupID + " ==> " + aBusinessCard);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       // Parse and validate identifier
@@ -171,20 +179,29 @@ public final class BusinessCardServerAPI
         aEntities.add (SMPBusinessCardEntity.createFromGenericObject (aEntity));
       if (aBusinessCardMgr.createOrUpdateSMPBusinessCard (aServiceGroup.getParticipantIdentifier (), aEntities) == null)
       {
-        LOGGER.warn (sLog + " ERROR");
+        SMPRestAccessLog.logError (ACCESS_LOG_API,
+                                   sAction,
+                                   sServiceGroupID,
+                                   null,
+                                   nStartNanos,
+                                   "Failed to save the Business Card");
         STATS_COUNTER_ERROR.increment (sAction);
         return ESuccess.FAILURE;
       }
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sServiceGroupID, null, nStartNanos);
       return ESuccess.SUCCESS;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   /**
@@ -201,11 +218,10 @@ public final class BusinessCardServerAPI
   public void deleteBusinessCard (@Nonnull final String sServiceGroupID, @Nonnull final SMPAPICredentials aCredentials)
                                                                                                                         throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "DELETE /businesscard/" + sServiceGroupID;
     final String sAction = "deleteBusinessCard";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -233,15 +249,19 @@ public final class BusinessCardServerAPI
       }
       aBusinessCardMgr.deleteSMPBusinessCard (aBusinessCard);
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sServiceGroupID, null, nStartNanos);
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   /**
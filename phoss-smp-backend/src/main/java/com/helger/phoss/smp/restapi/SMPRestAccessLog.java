@@ -0,0 +1,464 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.restapi;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonObject;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+
+/**
+ * Asynchronous structured access log for the REST APIs. Every call results in
+ * at most one record containing the API, the action, the participant, the
+ * document type, the status and the duration. The records are put into a
+ * bounded queue and written as JSON by a background thread to the logger
+ * {@link #ACCESS_LOGGER_NAME}, so that the calling thread neither formats nor
+ * writes anything. If the queue is full, records are dropped instead of
+ * blocking the caller.<br>
+ * Successful read calls may be sampled via
+ * {@link SMPServerConfiguration#getRestAccessLogSampleRead()}. Write calls and
+ * errors are always logged.<br>
+ * The configuration is read in {@link #init()}. The access log must be stopped
+ * via {@link #stop()} so that the queued records are written.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPRestAccessLog
+{
+  /** The name of the logger the access log records are written to */
+  public static final String ACCESS_LOGGER_NAME = "com.helger.phoss.smp.accesslog";
+
+  @Immutable
+  private static final class Record
+  {
+    private final long m_nTimestampMillis;
+    private final String m_sAPI;
+    private final String m_sAction;
+    private final String m_sParticipantID;
+    private final String m_sDocTypeID;
+    private final boolean m_bSuccess;
+    private final Class <?> m_aErrorClass;
+    private final String m_sErrorMessage;
+    private final long m_nDurationNanos;
+
+    Record (@Nonnull final String sAPI,
+            @Nonnull final String sAction,
+            @Nullable final String sParticipantID,
+            @Nullable final String sDocTypeID,
+            final boolean bSuccess,
+            @Nullable final Class <?> aErrorClass,
+            @Nullable final String sErrorMessage,
+            final long nDurationNanos)
+    {
+      m_nTimestampMillis = System.currentTimeMillis ();
+      m_sAPI = sAPI;
+      m_sAction = sAction;
+      m_sParticipantID = sParticipantID;
+      m_sDocTypeID = sDocTypeID;
+      m_bSuccess = bSuccess;
+      m_aErrorClass = aErrorClass;
+      m_sErrorMessage = sErrorMessage;
+      m_nDurationNanos = nDurationNanos;
+    }
+
+    boolean isSuccess ()
+    {
+      return m_bSuccess;
+    }
+
+    @Nonnull
+    IJsonObject getAsJsonObject ()
+    {
+      final IJsonObject ret = new JsonObject ().add ("timestamp", Instant.ofEpochMilli (m_nTimestampMillis).toString ())
+                                               .add ("api", m_sAPI)
+                                               .add ("action", m_sAction);
+      if (m_sParticipantID != null)
+        ret.add ("participantID", m_sParticipantID);
+      if (m_sDocTypeID != null)
+        ret.add ("docTypeID", m_sDocTypeID);
+      ret.add ("status", m_bSuccess ? "success" : "error");
+      if (m_aErrorClass != null)
+        ret.add ("errorType", m_aErrorClass.getSimpleName ());
+      if (m_sErrorMessage != null)
+        ret.add ("errorMessage", m_sErrorMessage);
+      ret.add ("durationMicros", TimeUnit.NANOSECONDS.toMicros (m_nDurationNanos));
+      return ret;
+    }
+  }
+
+  /**
+   * The running writer together with the configuration it was created with.
+   *
+   * @author Philip Helger
+   */
+  private static final class Writer
+  {
+    private final int m_nSampleRead;
+    private final BlockingQueue <Record> m_aQueue;
+    private final Thread m_aThread;
+    private volatile boolean m_bStopRequested = false;
+
+    Writer (@Nonnegative final int nSampleRead, @Nonnegative final int nQueueSize)
+    {
+      m_nSampleRead = nSampleRead;
+      m_aQueue = new ArrayBlockingQueue <> (nQueueSize);
+      m_aThread = new Thread (this::_writeRecords, "smp-rest-access-log");
+      m_aThread.setDaemon (true);
+    }
+
+    private void _writeRecords ()
+    {
+      final List <Record> aBatch = new ArrayList <> (MAX_BATCH_SIZE);
+      // After the stop request, everything that is still queued is written
+      while (!m_bStopRequested || !m_aQueue.isEmpty ())
+      {
+        try
+        {
+          // Wait for the first record and take all others that are present
+          final Record aFirst = m_aQueue.poll (POLL_MILLIS, TimeUnit.MILLISECONDS);
+          if (aFirst == null)
+            continue;
+          aBatch.add (aFirst);
+          m_aQueue.drainTo (aBatch, MAX_BATCH_SIZE - 1);
+        }
+        catch (final InterruptedException ex)
+        {
+          Thread.currentThread ().interrupt ();
+          break;
+        }
+        _writeBatch (aBatch);
+        aBatch.clear ();
+      }
+    }
+
+    void add (@Nonnull final Record aRecord)
+    {
+      if (!m_aQueue.offer (aRecord))
+        DROPPED.incrementAndGet ();
+    }
+
+    boolean isSampledOut ()
+    {
+      if (m_nSampleRead > 1 && ThreadLocalRandom.current ().nextInt (m_nSampleRead) != 0)
+      {
+        SAMPLED_OUT.incrementAndGet ();
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPRestAccessLog.class);
+  private static final Logger ACCESS_LOGGER = LoggerFactory.getLogger (ACCESS_LOGGER_NAME);
+  private static final int MAX_BATCH_SIZE = 256;
+  private static final long POLL_MILLIS = 100;
+  private static final long STOP_TIMEOUT_MILLIS = 10_000;
+
+  // null if not initialized or disabled
+  private static volatile Writer s_aWriter;
+
+  private static final AtomicLong WRITTEN = new AtomicLong (0);
+  private static final AtomicLong DROPPED = new AtomicLong (0);
+  private static final AtomicLong SAMPLED_OUT = new AtomicLong (0);
+
+  private SMPRestAccessLog ()
+  {}
+
+  private static void _writeBatch (@Nonnull final List <Record> aBatch)
+  {
+    for (final Record aRecord : aBatch)
+    {
+      try
+      {
+        if (aRecord.isSuccess ())
+          ACCESS_LOGGER.info (aRecord.getAsJsonObject ().getAsJsonString ());
+        else
+          ACCESS_LOGGER.warn (aRecord.getAsJsonObject ().getAsJsonString ());
+      }
+      catch (final RuntimeException ex)
+      {
+        LOGGER.error ("Failed to write access log record", ex);
+      }
+    }
+    WRITTEN.addAndGet (aBatch.size ());
+  }
+
+  /**
+   * Read the access log configuration from {@link SMPServerConfiguration} and
+   * start the background writer if the access log is enabled. Calling this
+   * method when the access log is already running has no effect. Until this
+   * method is called, all calls are ignored.
+   */
+  public static synchronized void init ()
+  {
+    if (s_aWriter != null)
+      return;
+
+    if (SMPServerConfiguration.isRestAccessLogEnabled ())
+    {
+      final Writer aWriter = new Writer (SMPServerConfiguration.getRestAccessLogSampleRead (),
+                                         SMPServerConfiguration.getRestAccessLogQueueSize ());
+      aWriter.m_aThread.start ();
+      s_aWriter = aWriter;
+      LOGGER.info ("Started the REST access log");
+    }
+  }
+
+  /**
+   * Initialize the access log with the provided settings, but without starting
+   * the background writer. The records are only queued until {@link #stop()}
+   * is called. For testing only.
+   *
+   * @param nSampleRead
+   *        Log only every n-th successful read call. Must be &gt; 0.
+   * @param nQueueSize
+   *        The maximum number of queued records. Must be &gt; 0.
+   */
+  static synchronized void initWithoutWriter (@Nonnegative final int nSampleRead, @Nonnegative final int nQueueSize)
+  {
+    if (s_aWriter == null)
+      s_aWriter = new Writer (nSampleRead, nQueueSize);
+  }
+
+  /**
+   * Stop the background writer. All records that are queued at that time are
+   * still written before this method returns, unless that takes longer than
+   * the timeout. Calls that are logged afterwards are ignored until
+   * {@link #init()} is called again.
+   */
+  public static synchronized void stop ()
+  {
+    final Writer aWriter = s_aWriter;
+    if (aWriter == null)
+      return;
+
+    // Don't accept any new records
+    s_aWriter = null;
+    aWriter.m_bStopRequested = true;
+    if (aWriter.m_aThread.getState () == Thread.State.NEW)
+    {
+      // Write the queued records
+      aWriter.m_aThread.start ();
+    }
+    try
+    {
+      aWriter.m_aThread.join (STOP_TIMEOUT_MILLIS);
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+    }
+
+    if (aWriter.m_aThread.isAlive ())
+    {
+      aWriter.m_aThread.interrupt ();
+      LOGGER.warn ("The REST access log writer did not finish within " +
+                   STOP_TIMEOUT_MILLIS +
+                   " ms - " +
+                   aWriter.m_aQueue.size () +
+                   " records were not written");
+    }
+    else
+      LOGGER.info ("Stopped the REST access log");
+  }
+
+  /**
+   * Log a successful read call. Depending on the configuration only a sample
+   * of these calls is logged.
+   *
+   * @param sAPI
+   *        The API name. May neither be <code>null</code> nor empty.
+   * @param sAction
+   *        The called action. May neither be <code>null</code> nor empty.
+   * @param sParticipantID
+   *        The participant ID from the path, or the user ID for user specific
+   *        calls. May be <code>null</code>.
+   * @param sDocTypeID
+   *        The document type ID from the path. May be <code>null</code>.
+   * @param nStartNanos
+   *        The {@link System#nanoTime()} when the call started.
+   */
+  public static void logReadSuccess (@Nonnull @Nonempty final String sAPI,
+                                     @Nonnull @Nonempty final String sAction,
+                                     @Nullable final String sParticipantID,
+                                     @Nullable final String sDocTypeID,
+                                     final long nStartNanos)
+  {
+    final Writer aWriter = s_aWriter;
+    if (aWriter == null || aWriter.isSampledOut ())
+      return;
+    aWriter.add (new Record (sAPI, sAction, sParticipantID, sDocTypeID, true, null, null, System.nanoTime () - nStartNanos));
+  }
+
+  /**
+   * Log a successful write call. These calls are never sampled.
+   *
+   * @param sAPI
+   *        The API name. May neither be <code>null</code> nor empty.
+   * @param sAction
+   *        The called action. May neither be <code>null</code> nor empty.
+   * @param sParticipantID
+   *        The participant ID from the path, or the user ID for user specific
+   *        calls. May be <code>null</code>.
+   * @param sDocTypeID
+   *        The document type ID from the path. May be <code>null</code>.
+   * @param nStartNanos
+   *        The {@link System#nanoTime()} when the call started.
+   */
+  public static void logWriteSuccess (@Nonnull @Nonempty final String sAPI,
+                                      @Nonnull @Nonempty final String sAction,
+                                      @Nullable final String sParticipantID,
+                                      @Nullable final String sDocTypeID,
+                                      final long nStartNanos)
+  {
+    final Writer aWriter = s_aWriter;
+    if (aWriter != null)
+      aWriter.add (new Record (sAPI, sAction, sParticipantID, sDocTypeID, true, null, null, System.nanoTime () - nStartNanos));
+  }
+
+  /**
+   * Log a call that failed without an exception. Errors are never sampled.
+   *
+   * @param sAPI
+   *        The API name. May neither be <code>null</code> nor empty.
+   * @param sAction
+   *        The called action. May neither be <code>null</code> nor empty.
+   * @param sParticipantID
+   *        The participant ID from the path, or the user ID for user specific
+   *        calls. May be <code>null</code>.
+   * @param sDocTypeID
+   *        The document type ID from the path. May be <code>null</code>.
+   * @param nStartNanos
+   *        The {@link System#nanoTime()} when the call started.
+   * @param sErrorMessage
+   *        The error message. May neither be <code>null</code> nor empty.
+   */
+  public static void logError (@Nonnull @Nonempty final String sAPI,
+                               @Nonnull @Nonempty final String sAction,
+                               @Nullable final String sParticipantID,
+                               @Nullable final String sDocTypeID,
+                               final long nStartNanos,
+                               @Nonnull @Nonempty final String sErrorMessage)
+  {
+    final Writer aWriter = s_aWriter;
+    if (aWriter != null)
+      aWriter.add (new Record (sAPI,
+                               sAction,
+                               sParticipantID,
+                               sDocTypeID,
+                               false,
+                               null,
+                               sErrorMessage,
+                               System.nanoTime () - nStartNanos));
+  }
+
+  /**
+   * Log a call that failed with an exception. Errors are never sampled.
+   *
+   * @param sAPI
+   *        The API name. May neither be <code>null</code> nor empty.
+   * @param sAction
+   *        The called action. May neither be <code>null</code> nor empty.
+   * @param sParticipantID
+   *        The participant ID from the path, or the user ID for user specific
+   *        calls. May be <code>null</code>.
+   * @param sDocTypeID
+   *        The document type ID from the path. May be <code>null</code>.
+   * @param nStartNanos
+   *        The {@link System#nanoTime()} when the call started.
+   * @param ex
+   *        The exception that occurred. May not be <code>null</code>.
+   */
+  public static void logError (@Nonnull @Nonempty final String sAPI,
+                               @Nonnull @Nonempty final String sAction,
+                               @Nullable final String sParticipantID,
+                               @Nullable final String sDocTypeID,
+                               final long nStartNanos,
+                               @Nonnull final Exception ex)
+  {
+    final Writer aWriter = s_aWriter;
+    if (aWriter != null)
+      aWriter.add (new Record (sAPI,
+                               sAction,
+                               sParticipantID,
+                               sDocTypeID,
+                               false,
+                               ex.getClass (),
+                               ex.getMessage (),
+                               System.nanoTime () - nStartNanos));
+  }
+
+  /**
+   * @return <code>true</code> if the access log is enabled and running.
+   */
+  public static boolean isEnabled ()
+  {
+    return s_aWriter != null;
+  }
+
+  /**
+   * @return The number of records waiting to be written.
+   */
+  @Nonnegative
+  public static int getQueueSize ()
+  {
+    final Writer aWriter = s_aWriter;
+    return aWriter == null ? 0 : aWriter.m_aQueue.size ();
+  }
+
+  /**
+   * @return The number of records written so far.
+   */
+  @Nonnegative
+  public static long getWrittenCount ()
+  {
+    return WRITTEN.get ();
+  }
+
+  /**
+   * @return The number of records dropped because the queue was full.
+   */
+  @Nonnegative
+  public static long getDroppedCount ()
+  {
+    return DROPPED.get ();
+  }
+
+  /**
+   * @return The number of successful read calls not logged because of the
+   *         sampling.
+   */
+  @Nonnegative
+  public static long getSampledOutCount ()
+  {
+    return SAMPLED_OUT.get ();
+  }
+}
@@ -31,6 +31,7 @@ import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.peppolid.simple.process.SimpleProcessIdentifier;
 import com.helger.phoss.smp.CSMPServer;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.readmodel.ISMPPublicReadModel;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
@@ -45,6 +46,8 @@ import com.helger.phoss.smp.exception.SMPBadRequestException;
 import com.helger.phoss.smp.exception.SMPNotFoundException;
 import com.helger.phoss.smp.exception.SMPServerException;
 import com.helger.phoss.smp.exception.SMPUnauthorizedException;
+import com.helger.phoss.smp.statistics.SMPKeyedLatencyHistogram;
+import com.helger.phoss.smp.statistics.SMPLatencyStatistics;
 import com.helger.photon.security.user.IUser;
 import com.helger.smpclient.peppol.utils.SMPExtensionConverter;
 import com.helger.smpclient.peppol.utils.W3CEndpointReferenceHelper;
@@ -76,6 +79,8 @@ public final class SMPServerAPI
                                                                                                                                "$success");
   private static final IMutableStatisticsHandlerKeyedCounter STATS_COUNTER_ERROR = StatisticsManager.getKeyedCounterHandler (SMPServerAPI.class.getName () +
                                                                                                                              "$error");
+  private static final SMPKeyedLatencyHistogram STATS_TIMER = SMPLatencyStatistics.getKeyedHistogram (SMPServerAPI.class.getSimpleName ());
+  private static final String ACCESS_LOG_API = "smp";
   private static final String LOG_PREFIX = "[SMP REST API] ";
 
   private final ISMPServerAPIDataProvider m_aAPIDataProvider;
@@ -88,11 +93,10 @@ public final class SMPServerAPI
   @Nonnull
   public CompleteServiceGroupType getCompleteServiceGroup (final String sPathServiceGroupID) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "GET /complete/" + sPathServiceGroupID;
     final String sAction = "getCompleteServiceGroup";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -102,10 +106,9 @@ public final class SMPServerAPI
         // Invalid identifier
         throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, m_aAPIDataProvider.getCurrentURI ());
       }
-      final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-      final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+      final ISMPPublicReadModel aReadModel = SMPMetaManager.getPublicReadModel ();
 
-      final ISMPServiceGroup aServiceGroup = aServiceGroupMgr.getSMPServiceGroupOfID (aPathServiceGroupID);
+      final ISMPServiceGroup aServiceGroup = aReadModel.getServiceGroupOfID (aPathServiceGroupID);
       if (aServiceGroup == null)
       {
         // No such service group
@@ -114,11 +117,11 @@ public final class SMPServerAPI
       }
       // Then add the service metadata references
       final ServiceMetadataReferenceCollectionType aRefCollection = new ServiceMetadataReferenceCollectionType ();
-      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesOfServiceGroup (aServiceGroup))
+      for (final IDocumentTypeIdentifier aDocTypeID : aReadModel.getAllDocumentTypesOfServiceGroup (aServiceGroup))
       {
         // Ignore all service information without endpoints
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
-                                                                                                                           aDocTypeID);
+        final ISMPServiceInformation aServiceInfo = aReadModel.getServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                                                   aDocTypeID);
         if (aServiceInfo != null && aServiceInfo.getTotalEndpointCount () > 0)
         {
           final ServiceMetadataReferenceType aMetadataReference = new ServiceMetadataReferenceType ();
@@ -133,33 +136,51 @@ public final class SMPServerAPI
       // a CompleteSG may be empty
       final CompleteServiceGroupType aCompleteServiceGroup = new CompleteServiceGroupType ();
       aCompleteServiceGroup.setServiceGroup (aSG);
-      for (final ISMPServiceInformation aServiceInfo : aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aServiceGroup))
+      for (final ISMPServiceInformation aServiceInfo : aReadModel.getAllServiceInformationOfServiceGroup (aServiceGroup))
       {
         final ServiceMetadataType aSM = aServiceInfo.getAsJAXBObjectPeppol ();
         if (aSM != null)
           aCompleteServiceGroup.addServiceMetadata (aSM);
       }
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logReadSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
       return aCompleteServiceGroup;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
+  /**
+   * Get the references to all service groups of the provided user. The
+   * complete list is created in memory.
+   *
+   * @param sPathUserID
+   *        The user login name from the path. May not be <code>null</code>.
+   * @param aCredentials
+   *        The credentials to use. May not be <code>null</code>.
+   * @return The reference list. Never <code>null</code>.
+   * @throws SMPServerException
+   *         On error
+   * @deprecated Since 7.1.1. The REST API streams the list and supports
+   *             paging instead.
+   */
+  @Deprecated
   @Nonnull
   public ServiceGroupReferenceListType getServiceGroupReferenceList (@Nonnull final String sPathUserID,
                                                                      @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "GET /list/" + sPathUserID;
     final String sAction = "getServiceGroupReferenceList";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IUser aSMPUser = SMPUserManagerPhoton.validateUserCredentials (aCredentials);
@@ -184,26 +205,29 @@ public final class SMPServerAPI
         aServGroupRefType.setHref (sHref);
         aRefList.addServiceGroupReference (aServGroupRefType);
       }
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logReadSuccess (ACCESS_LOG_API, sAction, sPathUserID, null, nStartNanos);
       return aRefList;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathUserID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   @Nonnull
   public ServiceGroupType getServiceGroup (final String sPathServiceGroupID) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "GET /" + sPathServiceGroupID;
     final String sAction = "getServiceGroup";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -213,11 +237,10 @@ public final class SMPServerAPI
         // Invalid identifier
         throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, m_aAPIDataProvider.getCurrentURI ());
       }
-      final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-      final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+      final ISMPPublicReadModel aReadModel = SMPMetaManager.getPublicReadModel ();
 
       // Retrieve the service group
-      final ISMPServiceGroup aServiceGroup = aServiceGroupMgr.getSMPServiceGroupOfID (aPathServiceGroupID);
+      final ISMPServiceGroup aServiceGroup = aReadModel.getServiceGroupOfID (aPathServiceGroupID);
       if (aServiceGroup == null)
       {
         // No such service group
@@ -227,11 +250,11 @@ public final class SMPServerAPI
       // Then add the service metadata references
       final ServiceGroupType aSG = aServiceGroup.getAsJAXBObjectPeppol ();
       final ServiceMetadataReferenceCollectionType aCollectionType = new ServiceMetadataReferenceCollectionType ();
-      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesOfServiceGroup (aServiceGroup))
+      for (final IDocumentTypeIdentifier aDocTypeID : aReadModel.getAllDocumentTypesOfServiceGroup (aServiceGroup))
       {
         // Ignore all service information without endpoints
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
-                                                                                                                           aDocTypeID);
+        final ISMPServiceInformation aServiceInfo = aReadModel.getServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                                                   aDocTypeID);
         if (aServiceInfo != null && aServiceInfo.getTotalEndpointCount () > 0)
         {
           final ServiceMetadataReferenceType aMetadataReference = new ServiceMetadataReferenceType ();
@@ -242,16 +265,20 @@ public final class SMPServerAPI
       }
       aSG.setServiceMetadataReferenceCollection (aCollectionType);
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logReadSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
       return aSG;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   public void saveServiceGroup (@Nonnull final String sPathServiceGroupID,
@@ -259,14 +286,17 @@ public final class SMPServerAPI
                                 final boolean bCreateInSML,
                                 @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX +
-                        "PUT /" +
-                        sPathServiceGroupID +
-                        (bCreateInSML ? "" : CSMPServer.LOG_SUFFIX_NO_SML_INTERACTION);
     final String sAction = "saveServiceGroup";
 
-    LOGGER.info (sLog + " ==> " + aServiceGroup);
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug (LOG_PREFIX +
+                    "PUT /" +
+                    sPathServiceGroupID +
+                    (bCreateInSML ? "" : CSMPServer.LOG_SUFFIX_NO_SML_INTERACTION) +
+                    " ==> " +
+                    aServiceGroup);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -311,15 +341,19 @@ public final class SMPServerAPI
       else
         aServiceGroupMgr.createSMPServiceGroup (aSMPUser.getID (), aPathServiceGroupID, sExtension, bCreateInSML);
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   @Nonnull
@@ -327,14 +361,10 @@ public final class SMPServerAPI
                                      final boolean bDeleteInSML,
                                      @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX +
-                        "DELETE /" +
-                        sPathServiceGroupID +
-                        (bDeleteInSML ? "" : CSMPServer.LOG_SUFFIX_NO_SML_INTERACTION);
     final String sAction = "deleteServiceGroup";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -350,28 +380,31 @@ public final class SMPServerAPI
       final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
       final EChange eDeleted = aServiceGroupMgr.deleteSMPServiceGroup (aPathServiceGroupID, bDeleteInSML);
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
 
       return eDeleted;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   @Nonnull
   public SignedServiceMetadataType getServiceRegistration (@Nonnull final String sPathServiceGroupID,
                                                            @Nonnull final String sPathDocTypeID) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "GET /" + sPathServiceGroupID + "/services/" + sPathDocTypeID;
     final String sAction = "getServiceRegistration";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -381,8 +414,8 @@ public final class SMPServerAPI
         // Invalid identifier
         throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, m_aAPIDataProvider.getCurrentURI ());
       }
-      final ISMPServiceGroup aPathServiceGroup = SMPMetaManager.getServiceGroupMgr ()
-                                                               .getSMPServiceGroupOfID (aPathServiceGroupID);
+      final ISMPPublicReadModel aReadModel = SMPMetaManager.getPublicReadModel ();
+      final ISMPServiceGroup aPathServiceGroup = aReadModel.getServiceGroupOfID (aPathServiceGroupID);
       if (aPathServiceGroup == null)
       {
         throw new SMPNotFoundException ("No such Service Group '" + sPathServiceGroupID + "'",
@@ -394,9 +427,8 @@ public final class SMPServerAPI
         throw SMPBadRequestException.failedToParseDocType (sPathDocTypeID, m_aAPIDataProvider.getCurrentURI ());
       }
       // First check for redirection, then for actual service
-      final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
-      final ISMPRedirect aRedirect = aRedirectMgr.getSMPRedirectOfServiceGroupAndDocumentType (aPathServiceGroup,
-                                                                                               aPathDocTypeID);
+      final ISMPRedirect aRedirect = aReadModel.getRedirectOfServiceGroupAndDocumentType (aPathServiceGroup,
+                                                                                          aPathDocTypeID);
 
       final SignedServiceMetadataType aSignedServiceMetadata = new SignedServiceMetadataType ();
       if (aRedirect != null)
@@ -406,9 +438,8 @@ public final class SMPServerAPI
       else
       {
         // Get as regular service information
-        final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aPathServiceGroup,
-                                                                                                                           aPathDocTypeID);
+        final ISMPServiceInformation aServiceInfo = aReadModel.getServiceInformationOfServiceGroupAndDocumentType (aPathServiceGroup,
+                                                                                                                   aPathDocTypeID);
         final ServiceMetadataType aSM = aServiceInfo == null ? null : aServiceInfo.getAsJAXBObjectPeppol ();
         if (aSM != null)
         {
@@ -423,16 +454,20 @@ public final class SMPServerAPI
       }
       // Signature must be added by the rest service
 
-      LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logReadSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos);
       return aSignedServiceMetadata;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   @Nonnull
@@ -441,11 +476,18 @@ public final class SMPServerAPI
                                            @Nonnull final ServiceMetadataType aServiceMetadata,
                                            @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "PUT /" + sPathServiceGroupID + "/services/" + sPathDocumentTypeID;
     final String sAction = "saveServiceRegistration";
 
-    LOGGER.info (sLog + " ==> " + aServiceMetadata);
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug (LOG_PREFIX +
+                    "PUT /" +
+                    sPathServiceGroupID +
+                    "/services/" +
+                    sPathDocumentTypeID +
+                    " ==> " +
+                    aServiceMetadata);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       // Parse provided identifiers
@@ -557,11 +599,15 @@ public final class SMPServerAPI
                                                                                                            .getExtension ())) ==
             null)
         {
-          LOGGER.error (sLog + " - ERROR - Redirect");
+          SMPRestAccessLog.logError (ACCESS_LOG_API,
+                                     sAction,
+                                     sPathServiceGroupID,
+                                     sPathDocumentTypeID,
+                                     nStartNanos,
+                                     "Failed to save the Redirect");
           STATS_COUNTER_ERROR.increment (sAction);
           return ESuccess.FAILURE;
         }
-        LOGGER.info (sLog + " SUCCESS - Redirect");
       }
       else
         if (aServiceInformation != null)
@@ -599,39 +645,45 @@ public final class SMPServerAPI
                                                                                      aProcesses,
                                                                                      sExtensionXML)).isFailure ())
           {
-            LOGGER.error (sLog + " - ERROR - ServiceInformation");
+            SMPRestAccessLog.logError (ACCESS_LOG_API,
+                                       sAction,
+                                       sPathServiceGroupID,
+                                       sPathDocumentTypeID,
+                                       nStartNanos,
+                                       "Failed to save the Service Information");
             STATS_COUNTER_ERROR.increment (sAction);
             return ESuccess.FAILURE;
           }
-          LOGGER.info (sLog + " SUCCESS - ServiceInformation");
         }
         else
         {
           throw new SMPBadRequestException ("Save Service Metadata was called with neither a Redirect nor a ServiceInformation",
                                             m_aAPIDataProvider.getCurrentURI ());
         }
-      if (false)
-        LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocumentTypeID, nStartNanos);
       return ESuccess.SUCCESS;
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocumentTypeID, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   public void deleteServiceRegistration (@Nonnull final String sPathServiceGroupID,
                                          @Nonnull final String sPathDocTypeID,
                                          @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "DELETE /" + sPathServiceGroupID + "/services/" + sPathDocTypeID;
     final String sAction = "deleteServiceRegistration";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -674,8 +726,8 @@ public final class SMPServerAPI
                                           ")",
                                           m_aAPIDataProvider.getCurrentURI ());
         }
-        LOGGER.info (sLog + " SUCCESS - ServiceInformation");
         STATS_COUNTER_SUCCESS.increment (sAction);
+        SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos);
       }
       else
       {
@@ -697,8 +749,8 @@ public final class SMPServerAPI
                                             ")",
                                             m_aAPIDataProvider.getCurrentURI ());
           }
-          LOGGER.info (sLog + " SUCCESS - Redirect");
           STATS_COUNTER_SUCCESS.increment (sAction);
+          SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos);
         }
         else
         {
@@ -710,20 +762,23 @@ public final class SMPServerAPI
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, sPathDocTypeID, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   public void deleteServiceRegistrations (@Nonnull final String sPathServiceGroupID,
                                           @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
   {
-    final String sLog = LOG_PREFIX + "DELETE /" + sPathServiceGroupID + "/services/";
     final String sAction = "deleteServiceRegistrations";
 
-    LOGGER.info (sLog);
     STATS_COUNTER_INVOCATION.increment (sAction);
+    final long nStartNanos = System.nanoTime ();
     try
     {
       final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
@@ -749,16 +804,19 @@ public final class SMPServerAPI
       final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
       eChange = eChange.or (aRedirectMgr.deleteAllSMPRedirectsOfServiceGroup (aServiceGroup));
 
-      LOGGER.info (sLog + " SUCCESS - " + eChange);
-
       STATS_COUNTER_SUCCESS.increment (sAction);
+      SMPRestAccessLog.logWriteSuccess (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos);
     }
     catch (final SMPServerException ex)
     {
-      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      SMPRestAccessLog.logError (ACCESS_LOG_API, sAction, sPathServiceGroupID, null, nStartNanos, ex);
       STATS_COUNTER_ERROR.increment (sAction);
       throw ex;
     }
+    finally
+    {
+      STATS_TIMER.record (sAction, System.nanoTime () - nStartNanos);
+    }
   }
 
   /**
@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import com.helger.commons.callback.ICallback;
+
+/**
+ * Callback interface for changes in the {@link SMPKeyManager}.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public interface ISMPKeyManagerCallback extends ICallback
+{
+  /**
+   * Invoked after the key store was successfully reloaded from the
+   * configuration. The signing key may have changed.
+   */
+  void onKeyStoreReloaded ();
+}
@@ -17,6 +17,7 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -25,36 +26,25 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import javax.xml.crypto.MarshalException;
-import javax.xml.crypto.dsig.CanonicalizationMethod;
-import javax.xml.crypto.dsig.DigestMethod;
-import javax.xml.crypto.dsig.Reference;
 import javax.xml.crypto.dsig.SignatureMethod;
-import javax.xml.crypto.dsig.SignedInfo;
-import javax.xml.crypto.dsig.Transform;
-import javax.xml.crypto.dsig.XMLSignature;
 import javax.xml.crypto.dsig.XMLSignatureException;
-import javax.xml.crypto.dsig.XMLSignatureFactory;
-import javax.xml.crypto.dsig.dom.DOMSignContext;
-import javax.xml.crypto.dsig.keyinfo.KeyInfo;
-import javax.xml.crypto.dsig.keyinfo.KeyInfoFactory;
-import javax.xml.crypto.dsig.keyinfo.X509Data;
-import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
-import javax.xml.crypto.dsig.spec.SignatureMethodParameterSpec;
-import javax.xml.crypto.dsig.spec.TransformParameterSpec;
-
-import org.apache.xml.security.c14n.Canonicalizer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
 
 import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.annotation.UsedViaReflection;
-import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.callback.CallbackList;
 import com.helger.commons.exception.InitializationException;
+import com.helger.commons.timing.StopWatch;
 import com.helger.commons.ws.TrustManagerTrustAll;
 import com.helger.peppol.utils.PeppolKeyStoreHelper;
 import com.helger.phoss.smp.ESMPRESTType;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.statistics.SMPKeyedLatencyHistogram;
+import com.helger.phoss.smp.statistics.SMPLatencyStatistics;
 import com.helger.scope.singleton.AbstractGlobalSingleton;
 import com.helger.security.keystore.EKeyStoreLoadError;
 import com.helger.security.keystore.KeyStoreHelper;
@@ -70,13 +60,17 @@ import com.helger.security.keystore.LoadedKeyStore;
 public final class SMPKeyManager extends AbstractGlobalSingleton
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPKeyManager.class);
+  private static final SMPKeyedLatencyHistogram STATS_TIMER = SMPLatencyStatistics.getKeyedHistogram (SMPKeyManager.class.getSimpleName ());
 
   private static final AtomicBoolean KEY_STORE_VALID = new AtomicBoolean (false);
+  private static final AtomicInteger KEY_STORE_GENERATION = new AtomicInteger (0);
+  private static final CallbackList <ISMPKeyManagerCallback> CALLBACKS = new CallbackList <> ();
   private static EKeyStoreLoadError s_eInitError;
   private static String s_sInitError;
 
   private KeyStore m_aKeyStore;
   private KeyStore.PrivateKeyEntry m_aKeyEntry;
+  private SMPXMLSigner m_aSigner;
 
   private static void _setKeyStoreValid (final boolean bValid)
   {
@@ -96,6 +90,7 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     _loadError (null, null);
     m_aKeyStore = null;
     m_aKeyEntry = null;
+    m_aSigner = null;
 
     // Load the key store and get the signing key
     final LoadedKeyStore aLoadedKeyStore = KeyStoreHelper.loadKeyStore (SMPServerConfiguration.getKeyStoreType (),
@@ -118,13 +113,31 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
       throw new InitializationException (s_sInitError);
     }
 
+    final SMPXMLSigner aSigner;
+    try
+    {
+      aSigner = new SMPXMLSigner (aLoadedKey.getKeyEntry ());
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      _loadError (null, ex.getMessage ());
+      throw new InitializationException (s_sInitError);
+    }
+
     m_aKeyEntry = aLoadedKey.getKeyEntry ();
+    m_aSigner = aSigner;
     LOGGER.info ("SMPKeyManager successfully initialized with keystore '" +
                  SMPServerConfiguration.getKeyStorePath () +
                  "' and alias '" +
                  SMPServerConfiguration.getKeyStoreKeyAlias () +
+                 "' using signature method '" +
+                 aSigner.getSignatureMethod () +
                  "'");
+    if (SMPServerConfiguration.getRESTType () == ESMPRESTType.PEPPOL &&
+        !SignatureMethod.RSA_SHA256.equals (aSigner.getSignatureMethod ()))
+      LOGGER.warn ("The Peppol SMP specification requires an RSA key for signing the responses");
     _setKeyStoreValid (true);
+    KEY_STORE_GENERATION.incrementAndGet ();
   }
 
   /**
@@ -177,6 +190,19 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     return null;
   }
 
+  /**
+   * @return The XMLDSig signature method URI used to sign the responses. This
+   *         depends on the algorithm of the configured private key. May be
+   *         <code>null</code> if loading failed.
+   * @since 7.1.1
+   */
+  @Nullable
+  public String getSignatureMethod ()
+  {
+    final SMPXMLSigner aSigner = m_aSigner;
+    return aSigner == null ? null : aSigner.getSignatureMethod ();
+  }
+
   /**
    * Create an SSLContext based on the configured key store and trust store.
    * This is required for communication with the SMI/SML as well as other
@@ -222,7 +248,8 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
    *        The XML element to sign. May not be <code>null</code>.
    * @param eRESTType
    *        The REST type current configured. This differences are the hash
-   *        algorithm as well as the canonicalization algorithms.
+   *        algorithm as well as the canonicalization algorithms. The signature
+   *        algorithm depends on the type of the configured key (RSA or EC).
    * @throws NoSuchAlgorithmException
    *         An algorithm is not supported by the underlying platform.
    * @throws InvalidAlgorithmParameterException
@@ -241,71 +268,13 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     ValueEnforcer.notNull (aElementToSign, "ElementToSign");
     ValueEnforcer.notNull (eRESTType, "RESTType");
 
-    // Create a DOM XMLSignatureFactory that will be used to
-    // generate the enveloped signature.
-    final XMLSignatureFactory aSignatureFactory = XMLSignatureFactory.getInstance ("DOM");
-
-    // Create a Reference to the enveloped document (in this case,
-    // you are signing the whole document, so a URI of "" signifies
-    // that, and also specify the SHA1 digest algorithm and
-    // the ENVELOPED Transform)
-    // * Peppol SMP Spec 1.3.0 changed from SHA-1 to SHA-256
-    final String sDigestAlgo = DigestMethod.SHA256;
-    final Reference aReference = aSignatureFactory.newReference ("",
-                                                                 aSignatureFactory.newDigestMethod (sDigestAlgo, null),
-                                                                 new CommonsArrayList <> (aSignatureFactory.newTransform (Transform.ENVELOPED,
-                                                                                                                          (TransformParameterSpec) null)),
-                                                                 (String) null,
-                                                                 (String) null);
-
-    // Create the SignedInfo.
-    // * Before Peppol SMP Spec 1.2.0 this was EXCLUSIVE, since 1.2.0 it is
-    // INCLUSIVE as of May 1st, 2022
-    // * OASIS BDXR always used INCLUSIVE
-    // * CIPA and this server always used INCLUSIVE, but this was changed for
-    // 5.0.1 to EXCLUSIVE
-    // * Peppol SMP Spec 1.3.0 changed from SHA-1 to SHA-256
-    final String sC18N;
-    final String sSignatureMethod;
-    switch (eRESTType)
-    {
-      case PEPPOL:
-        sC18N = CanonicalizationMethod.INCLUSIVE;
-        sSignatureMethod = SignatureMethod.RSA_SHA256;
-        break;
-      case OASIS_BDXR_V1:
-        sC18N = CanonicalizationMethod.INCLUSIVE;
-        sSignatureMethod = SignatureMethod.RSA_SHA256;
-        break;
-      case OASIS_BDXR_V2:
-        sC18N = Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS;
-        sSignatureMethod = SignatureMethod.RSA_SHA256;
-        break;
-      default:
-        throw new IllegalStateException ("Unsupported REST type");
-    }
-    final SignedInfo aSingedInfo = aSignatureFactory.newSignedInfo (aSignatureFactory.newCanonicalizationMethod (sC18N,
-                                                                                                                 (C14NMethodParameterSpec) null),
-                                                                    aSignatureFactory.newSignatureMethod (sSignatureMethod,
-                                                                                                          (SignatureMethodParameterSpec) null),
-                                                                    new CommonsArrayList <> (aReference));
-
-    // Create the KeyInfo containing the X509Data.
-    final KeyInfoFactory aKeyInfoFactory = aSignatureFactory.getKeyInfoFactory ();
-    final X509Certificate aCert = (X509Certificate) m_aKeyEntry.getCertificate ();
-    final X509Data aX509Data = aKeyInfoFactory.newX509Data (new CommonsArrayList <> (aCert.getSubjectX500Principal ()
-                                                                                          .getName (), aCert));
-    final KeyInfo aKeyInfo = aKeyInfoFactory.newKeyInfo (new CommonsArrayList <> (aX509Data));
-
-    // Create a DOMSignContext and specify the RSA PrivateKey and
-    // location of the resulting XMLSignature's parent element.
-    final DOMSignContext aSignContext = new DOMSignContext (m_aKeyEntry.getPrivateKey (), aElementToSign);
-
-    // Create the XMLSignature, but don't sign it yet.
-    final XMLSignature aSignature = aSignatureFactory.newXMLSignature (aSingedInfo, aKeyInfo);
-
-    // Marshal, generate, and sign the enveloped signature.
-    aSignature.sign (aSignContext);
+    final SMPXMLSigner aSigner = m_aSigner;
+    if (aSigner == null)
+      throw new IllegalStateException ("No valid signing key is configured");
+
+    final StopWatch aSW = StopWatch.createdStarted ();
+    aSigner.signXML (aElementToSign, eRESTType);
+    STATS_TIMER.record ("signXML-" + eRESTType.getID (), aSW.stopAndGetNanos ());
   }
 
   /**
@@ -342,6 +311,29 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     return s_sInitError;
   }
 
+  /**
+   * @return The generation of the currently loaded key. This number is
+   *         increased every time the key store was successfully (re-)loaded
+   *         and can be used to detect changes of the signing key.
+   * @since 7.1.1
+   */
+  public static int getKeyStoreGeneration ()
+  {
+    return KEY_STORE_GENERATION.get ();
+  }
+
+  /**
+   * @return The callbacks that are invoked after the key store was reloaded
+   *         from the configuration. Never <code>null</code>.
+   * @since 7.1.1
+   */
+  @Nonnull
+  @ReturnsMutableObject
+  public static CallbackList <ISMPKeyManagerCallback> keyManagerCallbacks ()
+  {
+    return CALLBACKS;
+  }
+
   public static void reloadFromConfiguration ()
   {
     try
@@ -354,6 +346,10 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
         // _loadKeyStore () is called in the constructor
         getInstance ();
       }
+
+      // Notify outside of loading
+      if (isKeyStoreValid ())
+        CALLBACKS.forEach (ISMPKeyManagerCallback::onKeyStoreReloaded);
     }
     catch (final Exception ex)
     {
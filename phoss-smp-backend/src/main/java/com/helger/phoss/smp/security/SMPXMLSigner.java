@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyStore;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.crypto.MarshalException;
+import javax.xml.crypto.dsig.CanonicalizationMethod;
+import javax.xml.crypto.dsig.DigestMethod;
+import javax.xml.crypto.dsig.Reference;
+import javax.xml.crypto.dsig.SignatureMethod;
+import javax.xml.crypto.dsig.SignedInfo;
+import javax.xml.crypto.dsig.Transform;
+import javax.xml.crypto.dsig.XMLSignatureException;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMSignContext;
+import javax.xml.crypto.dsig.keyinfo.KeyInfo;
+import javax.xml.crypto.dsig.keyinfo.KeyInfoFactory;
+import javax.xml.crypto.dsig.keyinfo.X509Data;
+import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
+import javax.xml.crypto.dsig.spec.SignatureMethodParameterSpec;
+import javax.xml.crypto.dsig.spec.TransformParameterSpec;
+
+import org.apache.xml.security.c14n.Canonicalizer;
+import org.w3c.dom.Element;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.phoss.smp.ESMPRESTType;
+
+/**
+ * Create XMLDSig enveloped signatures with a single private key. The signature
+ * method is chosen based on the algorithm of the key: RSA keys use RSA-SHA256,
+ * EC keys use ECDSA-SHA256.<br>
+ * Everything that only depends on the key and the REST type (the signature
+ * factory, the algorithms and the KeyInfo) is created once and reused. As the
+ * XMLDSig objects are not thread-safe, they are kept in a pool per REST type
+ * instead of being shared. The Transform, the Reference and the SignedInfo
+ * are bound to the signed document and are therefore created for each
+ * signature.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPXMLSigner
+{
+  private static final class SignatureTemplate
+  {
+    private final XMLSignatureFactory m_aSignatureFactory;
+    private final DigestMethod m_aDigestMethod;
+    private final CanonicalizationMethod m_aC14NMethod;
+    private final SignatureMethod m_aSignatureMethod;
+    private final KeyInfo m_aKeyInfo;
+
+    SignatureTemplate (@Nonnull final ESMPRESTType eRESTType,
+                       @Nonnull final String sSignatureMethod,
+                       @Nonnull final X509Certificate aCert) throws NoSuchAlgorithmException,
+                                                             InvalidAlgorithmParameterException
+    {
+      // Create a DOM XMLSignatureFactory that will be used to
+      // generate the enveloped signature.
+      m_aSignatureFactory = XMLSignatureFactory.getInstance ("DOM");
+
+      // * Peppol SMP Spec 1.3.0 changed from SHA-1 to SHA-256
+      m_aDigestMethod = m_aSignatureFactory.newDigestMethod (DigestMethod.SHA256, null);
+
+      // * Before Peppol SMP Spec 1.2.0 this was EXCLUSIVE, since 1.2.0 it is
+      // INCLUSIVE as of May 1st, 2022
+      // * OASIS BDXR always used INCLUSIVE
+      // * CIPA and this server always used INCLUSIVE, but this was changed for
+      // 5.0.1 to EXCLUSIVE
+      final String sC18N;
+      switch (eRESTType)
+      {
+        case PEPPOL:
+        case OASIS_BDXR_V1:
+          sC18N = CanonicalizationMethod.INCLUSIVE;
+          break;
+        case OASIS_BDXR_V2:
+          sC18N = Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS;
+          break;
+        default:
+          throw new IllegalStateException ("Unsupported REST type");
+      }
+      m_aC14NMethod = m_aSignatureFactory.newCanonicalizationMethod (sC18N, (C14NMethodParameterSpec) null);
+      m_aSignatureMethod = m_aSignatureFactory.newSignatureMethod (sSignatureMethod,
+                                                                   (SignatureMethodParameterSpec) null);
+
+      // Create the KeyInfo containing the X509Data.
+      final KeyInfoFactory aKeyInfoFactory = m_aSignatureFactory.getKeyInfoFactory ();
+      final X509Data aX509Data = aKeyInfoFactory.newX509Data (new CommonsArrayList <> (aCert.getSubjectX500Principal ()
+                                                                                            .getName (), aCert));
+      m_aKeyInfo = aKeyInfoFactory.newKeyInfo (new CommonsArrayList <> (aX509Data));
+    }
+
+    void sign (@Nonnull final PrivateKey aPrivateKey, @Nonnull final Element aElementToSign) throws NoSuchAlgorithmException,
+                                                                                             InvalidAlgorithmParameterException,
+                                                                                             MarshalException,
+                                                                                             XMLSignatureException
+    {
+      // Create a Reference to the enveloped document (in this case, you are
+      // signing the whole document, so a URI of "" signifies that). The
+      // ENVELOPED Transform is bound to the document it is applied to and
+      // can therefore not be reused.
+      final List <Transform> aTransforms = new CommonsArrayList <> (m_aSignatureFactory.newTransform (Transform.ENVELOPED,
+                                                                                                      (TransformParameterSpec) null));
+      final Reference aReference = m_aSignatureFactory.newReference ("",
+                                                                     m_aDigestMethod,
+                                                                     aTransforms,
+                                                                     (String) null,
+                                                                     (String) null);
+      final SignedInfo aSignedInfo = m_aSignatureFactory.newSignedInfo (m_aC14NMethod,
+                                                                        m_aSignatureMethod,
+                                                                        new CommonsArrayList <> (aReference));
+
+      // Create a DOMSignContext and specify the PrivateKey and location of the
+      // resulting XMLSignature's parent element.
+      final DOMSignContext aSignContext = new DOMSignContext (aPrivateKey, aElementToSign);
+
+      // Marshal, generate, and sign the enveloped signature.
+      m_aSignatureFactory.newXMLSignature (aSignedInfo, m_aKeyInfo).sign (aSignContext);
+    }
+  }
+
+  private final PrivateKey m_aPrivateKey;
+  private final X509Certificate m_aCert;
+  private final String m_sSignatureMethod;
+  // Never modified after construction
+  private final Map <ESMPRESTType, Queue <SignatureTemplate>> m_aTemplatePool = new EnumMap <> (ESMPRESTType.class);
+
+  /**
+   * Constructor
+   *
+   * @param aKeyEntry
+   *        The key entry to sign with. The certificate must be an X.509
+   *        certificate. May not be <code>null</code>.
+   * @throws IllegalArgumentException
+   *         If the algorithm of the private key is not supported
+   */
+  public SMPXMLSigner (@Nonnull final KeyStore.PrivateKeyEntry aKeyEntry)
+  {
+    ValueEnforcer.notNull (aKeyEntry, "KeyEntry");
+    if (!(aKeyEntry.getCertificate () instanceof X509Certificate))
+      throw new IllegalArgumentException ("The certificate of the key entry must be an X.509 certificate");
+    m_aPrivateKey = aKeyEntry.getPrivateKey ();
+    m_aCert = (X509Certificate) aKeyEntry.getCertificate ();
+    m_sSignatureMethod = getSignatureMethod (m_aPrivateKey.getAlgorithm ());
+    if (m_sSignatureMethod == null)
+      throw new IllegalArgumentException ("The private key algorithm '" +
+                                          m_aPrivateKey.getAlgorithm () +
+                                          "' is not supported for signing");
+    for (final ESMPRESTType e : ESMPRESTType.values ())
+      m_aTemplatePool.put (e, new ConcurrentLinkedQueue <> ());
+  }
+
+  /**
+   * @return The XMLDSig signature method URI used for signing. Neither
+   *         <code>null</code> nor empty.
+   */
+  @Nonnull
+  @Nonempty
+  public String getSignatureMethod ()
+  {
+    return m_sSignatureMethod;
+  }
+
+  /**
+   * Sign the provided element using XMLDSig.
+   *
+   * @param aElementToSign
+   *        The XML element to sign. May not be <code>null</code>.
+   * @param eRESTType
+   *        The REST type current configured. This differences are the
+   *        canonicalization algorithms.
+   * @throws NoSuchAlgorithmException
+   *         An algorithm is not supported by the underlying platform.
+   * @throws InvalidAlgorithmParameterException
+   *         Parameters for certain algorithms are invalid.
+   * @throws MarshalException
+   *         Marshalling the signature failed
+   * @throws XMLSignatureException
+   *         Some XMLDSig specific stuff failed
+   */
+  public void signXML (@Nonnull final Element aElementToSign, @Nonnull final ESMPRESTType eRESTType)
+                                                                                                     throws NoSuchAlgorithmException,
+                                                                                                     InvalidAlgorithmParameterException,
+                                                                                                     MarshalException,
+                                                                                                     XMLSignatureException
+  {
+    ValueEnforcer.notNull (aElementToSign, "ElementToSign");
+    ValueEnforcer.notNull (eRESTType, "RESTType");
+
+    final Queue <SignatureTemplate> aPool = m_aTemplatePool.get (eRESTType);
+    SignatureTemplate aTemplate = aPool.poll ();
+    if (aTemplate == null)
+      aTemplate = new SignatureTemplate (eRESTType, m_sSignatureMethod, m_aCert);
+
+    aTemplate.sign (m_aPrivateKey, aElementToSign);
+
+    // Only return it to the pool if signing succeeded
+    aPool.offer (aTemplate);
+  }
+
+  /**
+   * Get the XMLDSig signature method to use for the provided key algorithm.
+   *
+   * @param sKeyAlgorithm
+   *        The key algorithm as in {@link PrivateKey#getAlgorithm()}. May be
+   *        <code>null</code>.
+   * @return <code>null</code> if the key algorithm is not supported.
+   */
+  @Nullable
+  public static String getSignatureMethod (@Nullable final String sKeyAlgorithm)
+  {
+    if ("RSA".equals (sKeyAlgorithm))
+      return SignatureMethod.RSA_SHA256;
+    if ("EC".equals (sKeyAlgorithm))
+      return SignatureMethod.ECDSA_SHA256;
+    return null;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.statistics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsTreeMap;
+import com.helger.commons.collection.impl.ICommonsSortedMap;
+
+/**
+ * A set of {@link SMPLatencyHistogram} objects of a single component, keyed by
+ * the action name.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPKeyedLatencyHistogram
+{
+  private final String m_sComponent;
+  private final ConcurrentMap <String, SMPLatencyHistogram> m_aMap = new ConcurrentHashMap <> ();
+
+  SMPKeyedLatencyHistogram (@Nonnull @Nonempty final String sComponent)
+  {
+    m_sComponent = sComponent;
+  }
+
+  /**
+   * @return The component name as provided in the constructor. Neither
+   *         <code>null</code> nor empty.
+   */
+  @Nonnull
+  @Nonempty
+  public String getComponent ()
+  {
+    return m_sComponent;
+  }
+
+  /**
+   * Record a single duration.
+   *
+   * @param sAction
+   *        The action name. May neither be <code>null</code> nor empty.
+   * @param nDurationNanos
+   *        The duration in nano seconds.
+   */
+  public void record (@Nonnull @Nonempty final String sAction, final long nDurationNanos)
+  {
+    ValueEnforcer.notEmpty (sAction, "Action");
+    m_aMap.computeIfAbsent (sAction, k -> new SMPLatencyHistogram ()).record (nDurationNanos);
+  }
+
+  /**
+   * @param sAction
+   *        The action name. May be <code>null</code>.
+   * @return <code>null</code> if nothing was recorded for the action.
+   */
+  @Nullable
+  public SMPLatencyHistogram getHistogram (@Nullable final String sAction)
+  {
+    return sAction == null ? null : m_aMap.get (sAction);
+  }
+
+  /**
+   * @return A copy of all histograms sorted by action name. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSortedMap <String, SMPLatencyHistogram> getAllHistograms ()
+  {
+    return new CommonsTreeMap <> (m_aMap);
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.statistics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A lock free latency histogram in the style of an HDR histogram: values are
+ * recorded into logarithmic buckets, each of them split into
+ * {@value #SUB_BUCKET_COUNT} linear sub-buckets. This results in a relative
+ * precision of approx. 6% over the whole value range with a fixed memory
+ * footprint.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPLatencyHistogram
+{
+  static final int SUB_BUCKET_BITS = 4;
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  // Values up to SUB_BUCKET_COUNT are stored linearly
+  static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray m_aCounts = new AtomicLongArray (BUCKET_COUNT);
+  private final LongAdder m_aTotalCount = new LongAdder ();
+  private final LongAdder m_aTotalNanos = new LongAdder ();
+  private final AtomicLong m_aMaxNanos = new AtomicLong (0);
+
+  public SMPLatencyHistogram ()
+  {}
+
+  static int getBucketIndex (final long nValue)
+  {
+    if (nValue < SUB_BUCKET_COUNT)
+      return (int) Math.max (nValue, 0);
+    final int nMagnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros (nValue);
+    final int nSubBucket = (int) (nValue >>> (nMagnitude - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+    return SUB_BUCKET_COUNT + (nMagnitude - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + nSubBucket;
+  }
+
+  /**
+   * @param nIndex
+   *        Bucket index
+   * @return The highest value that is stored in the bucket with the provided
+   *         index.
+   */
+  static long getBucketUpperBound (final int nIndex)
+  {
+    if (nIndex < SUB_BUCKET_COUNT)
+      return nIndex;
+    final int nMagnitude = (nIndex - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT + SUB_BUCKET_BITS;
+    final int nSubBucket = (nIndex - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+    final long nUpperExclusive = (long) (SUB_BUCKET_COUNT + nSubBucket + 1) << (nMagnitude - SUB_BUCKET_BITS);
+    // Avoid overflow for the last bucket
+    return nUpperExclusive <= 0 ? Long.MAX_VALUE : nUpperExclusive - 1;
+  }
+
+  /**
+   * Record a single duration.
+   *
+   * @param nDurationNanos
+   *        The duration in nano seconds. Negative values are treated as 0.
+   */
+  public void record (final long nDurationNanos)
+  {
+    final long nValue = Math.max (nDurationNanos, 0);
+    m_aCounts.incrementAndGet (getBucketIndex (nValue));
+    m_aTotalCount.increment ();
+    m_aTotalNanos.add (nValue);
+    m_aMaxNanos.accumulateAndGet (nValue, Math::max);
+  }
+
+  /**
+   * @return The number of recorded values.
+   */
+  @Nonnegative
+  public long getCount ()
+  {
+    return m_aTotalCount.sum ();
+  }
+
+  /**
+   * @return The sum of all recorded values in nano seconds.
+   */
+  @Nonnegative
+  public long getTotalNanos ()
+  {
+    return m_aTotalNanos.sum ();
+  }
+
+  /**
+   * @return The maximum recorded value in nano seconds.
+   */
+  @Nonnegative
+  public long getMaxNanos ()
+  {
+    return m_aMaxNanos.get ();
+  }
+
+  /**
+   * Get the number of recorded values that are &le; the provided value. As
+   * the bucket containing the provided value is not counted, the result is
+   * precise up to the bucket precision.
+   *
+   * @param nUpperBoundNanos
+   *        The inclusive upper bound in nano seconds.
+   * @return The number of recorded values up to the provided bound.
+   */
+  @Nonnegative
+  public long getCountAtOrBelow (final long nUpperBoundNanos)
+  {
+    long ret = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i)
+    {
+      if (getBucketUpperBound (i) > nUpperBoundNanos)
+        break;
+      ret += m_aCounts.get (i);
+    }
+    return ret;
+  }
+
+  /**
+   * Get the value at the provided quantile.
+   *
+   * @param dQuantile
+   *        The quantile to use. Must be between 0 and 1 (both inclusive).
+   * @return The upper bound of the bucket containing the quantile in nano
+   *         seconds, but at most the maximum value. 0 if nothing was recorded.
+   */
+  @Nonnegative
+  public long getQuantileNanos (final double dQuantile)
+  {
+    ValueEnforcer.isBetweenInclusive (dQuantile, "Quantile", 0, 1);
+
+    // Use a consistent snapshot of the counts
+    final long [] aCounts = new long [BUCKET_COUNT];
+    long nTotal = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i)
+    {
+      aCounts[i] = m_aCounts.get (i);
+      nTotal += aCounts[i];
+    }
+    if (nTotal == 0)
+      return 0;
+
+    final long nRank = Math.max (1, (long) Math.ceil (dQuantile * nTotal));
+    long nCumulated = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i)
+    {
+      nCumulated += aCounts[i];
+      if (nCumulated >= nRank)
+        return Math.min (getBucketUpperBound (i), getMaxNanos ());
+    }
+    return getMaxNanos ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Count", getCount ())
+                                       .append ("TotalNanos", getTotalNanos ())
+                                       .append ("MaxNanos", getMaxNanos ())
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.statistics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsTreeMap;
+import com.helger.commons.collection.impl.ICommonsSortedMap;
+
+/**
+ * Global registry for the {@link SMPKeyedLatencyHistogram} objects, similar
+ * to the keyed handlers of the <code>StatisticsManager</code>. Each component
+ * (like a REST API class) has its own keyed histogram.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPLatencyStatistics
+{
+  private static final ConcurrentMap <String, SMPKeyedLatencyHistogram> HISTOGRAMS = new ConcurrentHashMap <> ();
+
+  private SMPLatencyStatistics ()
+  {}
+
+  /**
+   * Get or create the keyed histogram for the provided component.
+   *
+   * @param sComponent
+   *        The component name. May neither be <code>null</code> nor empty.
+   * @return The keyed histogram and never <code>null</code>.
+   */
+  @Nonnull
+  public static SMPKeyedLatencyHistogram getKeyedHistogram (@Nonnull @Nonempty final String sComponent)
+  {
+    ValueEnforcer.notEmpty (sComponent, "Component");
+    return HISTOGRAMS.computeIfAbsent (sComponent, SMPKeyedLatencyHistogram::new);
+  }
+
+  /**
+   * @return A copy of all keyed histograms sorted by component name. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static ICommonsSortedMap <String, SMPKeyedLatencyHistogram> getAllKeyedHistograms ()
+  {
+    return new CommonsTreeMap <> (HISTOGRAMS);
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.statistics;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Global registry for the execution statistics of the statements sent to the
+ * backend (e.g. the SQL statements of the JDBC backend). The statements are
+ * keyed by their template (e.g. the SQL string with the placeholders) and not
+ * by the actual parameter values. To avoid unbounded growth at most
+ * {@link #MAX_STATEMENTS} different statements are tracked - all others are
+ * collected in {@link #OTHER_STATEMENT}.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPStatementStatistics
+{
+  /**
+   * The statistics of a single statement template.
+   *
+   * @author Philip Helger
+   */
+  public static final class StatementEntry
+  {
+    private final String m_sStatement;
+    private final SMPLatencyHistogram m_aDuration = new SMPLatencyHistogram ();
+    private final LongAdder m_aRows = new LongAdder ();
+    private final LongAdder m_aErrors = new LongAdder ();
+
+    StatementEntry (@Nonnull @Nonempty final String sStatement)
+    {
+      m_sStatement = sStatement;
+    }
+
+    /**
+     * @return The statement template. Neither <code>null</code> nor empty.
+     */
+    @Nonnull
+    @Nonempty
+    public String getStatement ()
+    {
+      return m_sStatement;
+    }
+
+    /**
+     * @return The histogram with the execution durations. Never
+     *         <code>null</code>.
+     */
+    @Nonnull
+    public SMPLatencyHistogram getDurationHistogram ()
+    {
+      return m_aDuration;
+    }
+
+    /**
+     * @return The number of executions.
+     */
+    @Nonnegative
+    public long getExecutionCount ()
+    {
+      return m_aDuration.getCount ();
+    }
+
+    /**
+     * @return The average execution duration in nano seconds. 0 if no
+     *         execution happened yet.
+     */
+    @Nonnegative
+    public long getAverageNanos ()
+    {
+      final long nCount = m_aDuration.getCount ();
+      return nCount == 0 ? 0 : m_aDuration.getTotalNanos () / nCount;
+    }
+
+    /**
+     * @return The total number of rows read or modified by this statement.
+     */
+    @Nonnegative
+    public long getRowCount ()
+    {
+      return m_aRows.sum ();
+    }
+
+    /**
+     * @return The number of executions that failed with an exception.
+     */
+    @Nonnegative
+    public long getErrorCount ()
+    {
+      return m_aErrors.sum ();
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (null).append ("Statement", m_sStatement)
+                                         .append ("Duration", m_aDuration)
+                                         .append ("Rows", m_aRows.sum ())
+                                         .append ("Errors", m_aErrors.sum ())
+                                         .getToString ();
+    }
+  }
+
+  /** The maximum number of different statements to track */
+  public static final int MAX_STATEMENTS = 1000;
+  /** The key used for all statements exceeding {@link #MAX_STATEMENTS} */
+  public static final String OTHER_STATEMENT = "<other>";
+
+  private static final ConcurrentMap <String, StatementEntry> STATEMENTS = new ConcurrentHashMap <> ();
+  private static final SMPLatencyHistogram CONNECTION_ACQUIRE = new SMPLatencyHistogram ();
+
+  private SMPStatementStatistics ()
+  {}
+
+  @Nonnull
+  private static StatementEntry _getEntry (@Nonnull @Nonempty final String sStatement)
+  {
+    final StatementEntry ret = STATEMENTS.get (sStatement);
+    if (ret != null)
+      return ret;
+    // The size check is racy, so the limit may be exceeded by a few entries
+    final String sKey = STATEMENTS.size () < MAX_STATEMENTS ? sStatement : OTHER_STATEMENT;
+    return STATEMENTS.computeIfAbsent (sKey, StatementEntry::new);
+  }
+
+  /**
+   * Record the execution of a single statement.
+   *
+   * @param sStatement
+   *        The statement template. May neither be <code>null</code> nor empty.
+   * @param nDurationNanos
+   *        The execution duration in nano seconds.
+   * @param nRows
+   *        The number of rows modified by the statement. For queries use
+   *        {@link #addRows(String, long)} when the result is read.
+   * @param bError
+   *        <code>true</code> if the execution failed.
+   */
+  public static void recordExecution (@Nonnull @Nonempty final String sStatement,
+                                      final long nDurationNanos,
+                                      final long nRows,
+                                      final boolean bError)
+  {
+    ValueEnforcer.notEmpty (sStatement, "Statement");
+    final StatementEntry aEntry = _getEntry (sStatement);
+    aEntry.m_aDuration.record (nDurationNanos);
+    if (nRows > 0)
+      aEntry.m_aRows.add (nRows);
+    if (bError)
+      aEntry.m_aErrors.increment ();
+  }
+
+  /**
+   * Add the number of rows read for a statement.
+   *
+   * @param sStatement
+   *        The statement template. May neither be <code>null</code> nor empty.
+   * @param nRows
+   *        The number of rows read.
+   */
+  public static void addRows (@Nonnull @Nonempty final String sStatement, final long nRows)
+  {
+    ValueEnforcer.notEmpty (sStatement, "Statement");
+    if (nRows > 0)
+      _getEntry (sStatement).m_aRows.add (nRows);
+  }
+
+  /**
+   * Record the time it took to acquire a connection from the pool.
+   *
+   * @param nDurationNanos
+   *        The duration in nano seconds.
+   */
+  public static void recordConnectionAcquire (final long nDurationNanos)
+  {
+    CONNECTION_ACQUIRE.record (nDurationNanos);
+  }
+
+  /**
+   * @return The histogram of the connection acquisition times. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public static SMPLatencyHistogram getConnectionAcquireHistogram ()
+  {
+    return CONNECTION_ACQUIRE;
+  }
+
+  /**
+   * @return <code>true</code> if at least one statement was recorded.
+   */
+  public static boolean hasAnyStatement ()
+  {
+    return !STATEMENTS.isEmpty ();
+  }
+
+  /**
+   * @return A copy of all statement entries in arbitrary order. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static ICommonsList <StatementEntry> getAllStatements ()
+  {
+    return new CommonsArrayList <> (STATEMENTS.values ());
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  private static ICommonsList <StatementEntry> _getTop (@Nonnull final Comparator <StatementEntry> aComparator,
+                                                        @Nonnegative final int nMaxEntries)
+  {
+    final ICommonsList <StatementEntry> ret = getAllStatements ().getSortedInline (aComparator);
+    return ret.size () > nMaxEntries ? new CommonsArrayList <> (ret.subList (0, nMaxEntries)) : ret;
+  }
+
+  /**
+   * Get the statements with the highest average execution duration.
+   *
+   * @param nMaxEntries
+   *        The maximum number of entries to return. Must be &ge; 0.
+   * @return The slowest statements, slowest first. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static ICommonsList <StatementEntry> getTopSlowest (@Nonnegative final int nMaxEntries)
+  {
+    ValueEnforcer.isGE0 (nMaxEntries, "MaxEntries");
+    return _getTop (Comparator.comparingLong (StatementEntry::getAverageNanos).reversed (), nMaxEntries);
+  }
+
+  /**
+   * Get the statements that were executed the most.
+   *
+   * @param nMaxEntries
+   *        The maximum number of entries to return. Must be &ge; 0.
+   * @return The most frequent statements, most frequent first. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static ICommonsList <StatementEntry> getTopMostFrequent (@Nonnegative final int nMaxEntries)
+  {
+    ValueEnforcer.isGE0 (nMaxEntries, "MaxEntries");
+    return _getTop (Comparator.comparingLong (StatementEntry::getExecutionCount).reversed (), nMaxEntries);
+  }
+
+  /**
+   * Remove all collected statement statistics.
+   */
+  public static void reset ()
+  {
+    STATEMENTS.clear ();
+  }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsVector;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.ESuccess;
+import com.helger.photon.audit.EAuditActionType;
+import com.helger.photon.audit.IAuditItem;
+
+/**
+ * Test class for class {@link AbstractSMPAsyncAuditor}.
+ *
+ * @author Philip Helger
+ */
+public final class AbstractSMPAsyncAuditorTest
+{
+  private static final String WRITER_THREAD_NAME = "junit-audit";
+
+  private static final class MockAuditor extends AbstractSMPAsyncAuditor
+  {
+    private final ICommonsList <ICommonsList <IAuditItem>> m_aWrittenBatches = new CommonsVector <> ();
+    private final CountDownLatch m_aWriterStarted = new CountDownLatch (1);
+    private final CountDownLatch m_aWriterRelease = new CountDownLatch (1);
+    private final AtomicInteger m_aFailuresLeft = new AtomicInteger (0);
+    // Number of items written before the next batch with more than one item
+    // fails - negative to disable
+    private final AtomicInteger m_aPartialFailure = new AtomicInteger (-1);
+    // Number of failures after the partial failure
+    private volatile int m_nFailuresAfterPartial = 0;
+    private volatile boolean m_bDropAll = false;
+
+    MockAuditor (final boolean bAsync,
+                 final int nQueueSize,
+                 final int nBatchSize,
+                 @Nonnull final ESMPAuditOverflowPolicy eOverflowPolicy)
+    {
+      super ( () -> "junit", WRITER_THREAD_NAME, bAsync, nQueueSize, nBatchSize, eOverflowPolicy);
+    }
+
+    @Override
+    protected int writeAuditItems (@Nonnull @Nonempty final ICommonsList <IAuditItem> aItems)
+    {
+      // Only the background writer is blocked
+      if (WRITER_THREAD_NAME.equals (Thread.currentThread ().getName ()))
+      {
+        m_aWriterStarted.countDown ();
+        try
+        {
+          m_aWriterRelease.await ();
+        }
+        catch (final InterruptedException ex)
+        {
+          Thread.currentThread ().interrupt ();
+        }
+      }
+      if (m_aFailuresLeft.getAndDecrement () > 0)
+        throw new IllegalStateException ("Simulated write error");
+      if (m_bDropAll)
+        return 0;
+      if (aItems.size () > 1)
+      {
+        final int nWritten = m_aPartialFailure.getAndSet (-1);
+        if (nWritten >= 0)
+        {
+          m_aWrittenBatches.add (new CommonsArrayList <> (aItems.subList (0, nWritten)));
+          m_aFailuresLeft.set (m_nFailuresAfterPartial);
+          throw new SMPAuditWriteException ("Simulated partial write error",
+                                            nWritten,
+                                            new IllegalStateException ("Duplicate key"));
+        }
+      }
+      m_aWrittenBatches.add (aItems.getClone ());
+      return aItems.size ();
+    }
+
+    /**
+     * Create one audit item and wait until the writer thread is blocked while
+     * writing it. Afterwards the queue is empty.
+     */
+    void blockWriter () throws InterruptedException
+    {
+      createAuditItem (EAuditActionType.CREATE, ESuccess.SUCCESS, null, "blocker");
+      assertTrue (m_aWriterStarted.await (10, TimeUnit.SECONDS));
+    }
+
+    void releaseWriter ()
+    {
+      m_aWriterRelease.countDown ();
+    }
+
+    @Nonnull
+    ICommonsList <String> getAllWrittenActions ()
+    {
+      final ICommonsList <String> ret = new CommonsArrayList <> ();
+      for (final ICommonsList <IAuditItem> aBatch : m_aWrittenBatches.getClone ())
+        for (final IAuditItem aItem : aBatch)
+          ret.add (aItem.getAction ());
+      return ret;
+    }
+  }
+
+  private static void _create (@Nonnull final MockAuditor aAuditor, final int nIndex)
+  {
+    aAuditor.createAuditItem (EAuditActionType.CREATE, ESuccess.SUCCESS, null, "action" + nIndex);
+  }
+
+  @Test
+  public void testSync ()
+  {
+    final MockAuditor aAuditor = new MockAuditor (false, 10, 10, ESMPAuditOverflowPolicy.WRITE_SYNC);
+    for (int i = 0; i < 5; ++i)
+    {
+      _create (aAuditor, i);
+      assertEquals (i + 1, aAuditor.m_aWrittenBatches.size ());
+    }
+    assertEquals (5, aAuditor.getWrittenCount ());
+    assertEquals (5, aAuditor.getBatchCount ());
+    aAuditor.stop ();
+  }
+
+  @Test
+  public void testBatches () throws InterruptedException
+  {
+    final MockAuditor aAuditor = new MockAuditor (true, 1000, 10, ESMPAuditOverflowPolicy.WRITE_SYNC);
+    aAuditor.blockWriter ();
+    for (int i = 0; i < 25; ++i)
+      _create (aAuditor, i);
+    assertEquals (25, aAuditor.getQueueSize ());
+    assertEquals (0, aAuditor.m_aWrittenBatches.size ());
+
+    aAuditor.releaseWriter ();
+    aAuditor.stop ();
+
+    assertEquals (26, aAuditor.getWrittenCount ());
+    assertEquals (0, aAuditor.getQueueSize ());
+    // The blocker plus at least 3 batches of at most 10 items
+    assertTrue (aAuditor.getBatchCount () >= 4);
+    assertEquals (aAuditor.getBatchCount (), aAuditor.m_aWrittenBatches.size ());
+    for (final ICommonsList <IAuditItem> aBatch : aAuditor.m_aWrittenBatches)
+      assertTrue (aBatch.size () <= 10);
+
+    // Order is maintained
+    final ICommonsList <String> aActions = aAuditor.getAllWrittenActions ();
+    assertEquals (26, aActions.size ());
+    for (int i = 0; i < 25; ++i)
+      assertTrue (aActions.get (i + 1).contains ("action" + i));
+    assertEquals (0, aAuditor.getOverflowCount ());
+  }
+
+  @Test
+  public void testOverflowDrop () throws InterruptedException
+  {
+    final MockAuditor aAuditor = new MockAuditor (true, 5, 10, ESMPAuditOverflowPolicy.DROP);
+    aAuditor.blockWriter ();
+    for (int i = 0; i < 8; ++i)
+      _create (aAuditor, i);
+    assertEquals (5, aAuditor.getQueueSize ());
+    assertEquals (3, aAuditor.getOverflowCount ());
+    assertEquals (3, aAuditor.getDroppedCount ());
+
+    aAuditor.releaseWriter ();
+    aAuditor.stop ();
+    assertEquals (6, aAuditor.getWrittenCount ());
+    assertEquals (3, aAuditor.getDroppedCount ());
+    assertEquals (0, aAuditor.getFailedCount ());
+  }
+
+  @Test
+  public void testOverflowWriteSync () throws InterruptedException
+  {
+    final MockAuditor aAuditor = new MockAuditor (true, 5, 10, ESMPAuditOverflowPolicy.WRITE_SYNC);
+    aAuditor.blockWriter ();
+    for (int i = 0; i < 8; ++i)
+      _create (aAuditor, i);
+    assertEquals (5, aAuditor.getQueueSize ());
+    assertEquals (3, aAuditor.getOverflowCount ());
+    // Written by the calling thread while the writer is blocked
+    assertEquals (3, aAuditor.m_aWrittenBatches.size ());
+    assertEquals (3, aAuditor.getWrittenCount ());
+
+    aAuditor.releaseWriter ();
+    aAuditor.stop ();
+    assertEquals (9, aAuditor.getWrittenCount ());
+    assertEquals (0, aAuditor.getDroppedCount ());
+  }
+
+  @Test
+  public void testOverflowBlock () throws InterruptedException
+  {
+    final MockAuditor aAuditor = new MockAuditor (true, 5, 10, ESMPAuditOverflowPolicy.BLOCK);
+    aAuditor.blockWriter ();
+    for (int i = 0; i < 5; ++i)
+      _create (aAuditor, i);
+    assertEquals (5, aAuditor.getQueueSize ());
+
+    // The caller waits until there is space in the queue
+    final Thread aCaller = new Thread ( () -> _create (aAuditor, 5), "junit-audit-caller");
+    aCaller.start ();
+    aCaller.join (200);
+    assertTrue (aCaller.isAlive ());
+    assertEquals (1, aAuditor.getOverflowCount ());
+    assertEquals (0, aAuditor.getWrittenCount ());
+
+    aAuditor.releaseWriter ();
+    aCaller.join (10_000);
+    assertFalse (aCaller.isAlive ());
+
+    aAuditor.stop ();
+    assertEquals (7, aAuditor.getWrittenCount ());
+    assertEquals (0, aAuditor.getDroppedCount ());
+    assertEquals (7, aAuditor.getAllWrittenActions ().size ());
+  }
+
+  @Test
+  public void testStopDrainsQueue () throws InterruptedException
+  {
+    final MockAuditor aAuditor = new MockAuditor (true, 1000, 10, ESMPAuditOverflowPolicy.WRITE_SYNC);
+    aAuditor.blockWriter ();
+    for (int i = 0; i < 50; ++i)
+      _create (aAuditor, i);
+
+    aAuditor.releaseWriter ();
+    aAuditor.stop ();
+    // Nothing queued is lost
+    assertEquals (51, aAuditor.getWrittenCount ());
+    assertEquals (0, aAuditor.getQueueSize ());
+
+    // Written synchronously after stop
+    _create (aAuditor, 50);
+    assertEquals (52, aAuditor.getWrittenCount ());
+    assertEquals (52, aAuditor.getAllWrittenActions ().size ());
+  }
+
+  @Test
+  public void testRetryOnce () throws InterruptedException
+  {
+    final MockAuditor aAuditor = new MockAuditor (true, 1000, 10, ESMPAuditOverflowPolicy.WRITE_SYNC);
+    aAuditor.blockWriter ();
+    // The retry succeeds
+    aAuditor.m_aFailuresLeft.set (1);
+    aAuditor.releaseWriter ();
+    aAuditor.stop ();
+    assertEquals (1, aAuditor.getWrittenCount ());
+    assertEquals (0, aAuditor.getFailedCount ());
+    assertEquals (1, aAuditor.m_aWrittenBatches.size ());
+
+    // The retry fails as well - the item is lost
+    aAuditor.m_aFailuresLeft.set (2);
+    _create (aAuditor, 0);
+    assertEquals (1, aAuditor.getWrittenCount ());
+    assertEquals (1, aAuditor.getFailedCount ());
+    assertEquals (1, aAuditor.m_aWrittenBatches.size ());
+  }
+
+  @Test
+  public void testRetryOnlyRemainingItems () throws InterruptedException
+  {
+    final MockAuditor aAuditor = new MockAuditor (true, 1000, 10, ESMPAuditOverflowPolicy.WRITE_SYNC);
+    aAuditor.blockWriter ();
+    for (int i = 0; i < 5; ++i)
+      _create (aAuditor, i);
+    // The first 2 items of the next batch are written before the error
+    aAuditor.m_aPartialFailure.set (2);
+    aAuditor.releaseWriter ();
+    aAuditor.stop ();
+
+    assertEquals (6, aAuditor.getWrittenCount ());
+    assertEquals (0, aAuditor.getFailedCount ());
+    // No audit item was written twice
+    final ICommonsList <String> aActions = aAuditor.getAllWrittenActions ();
+    assertEquals (6, aActions.size ());
+    for (int i = 0; i < 5; ++i)
+      assertTrue (aActions.get (i + 1).contains ("action" + i));
+  }
+
+  @Test
+  public void testRetryRemainingItemsFails () throws InterruptedException
+  {
+    final MockAuditor aAuditor = new MockAuditor (true, 1000, 10, ESMPAuditOverflowPolicy.WRITE_SYNC);
+    aAuditor.blockWriter ();
+    for (int i = 0; i < 5; ++i)
+      _create (aAuditor, i);
+    // The retry fails as well
+    aAuditor.m_aPartialFailure.set (2);
+    aAuditor.m_nFailuresAfterPartial = 1;
+    aAuditor.releaseWriter ();
+    aAuditor.stop ();
+
+    // Only the items that were not written are lost
+    assertEquals (3, aAuditor.getWrittenCount ());
+    assertEquals (3, aAuditor.getFailedCount ());
+  }
+
+  @Test
+  public void testDroppedByBackend ()
+  {
+    final MockAuditor aAuditor = new MockAuditor (false, 10, 10, ESMPAuditOverflowPolicy.WRITE_SYNC);
+    aAuditor.m_bDropAll = true;
+    _create (aAuditor, 0);
+    assertEquals (0, aAuditor.getWrittenCount ());
+    assertEquals (1, aAuditor.getDroppedCount ());
+    assertEquals (0, aAuditor.getFailedCount ());
+
+    aAuditor.m_bDropAll = false;
+    _create (aAuditor, 1);
+    assertEquals (1, aAuditor.getWrittenCount ());
+    assertEquals (1, aAuditor.getDroppedCount ());
+    aAuditor.stop ();
+  }
+}
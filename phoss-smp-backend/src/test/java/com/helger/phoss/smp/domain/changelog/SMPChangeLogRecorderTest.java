@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.changelog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.junit.Test;
+
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+
+/**
+ * Test class for class {@link SMPChangeLogRecorder}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPChangeLogRecorderTest
+{
+  private static final class MockChangeLogManager implements ISMPChangeLogManager
+  {
+    private final ICommonsList <SMPChangeLogEntry> m_aEntries = new CommonsArrayList <> ();
+    private boolean m_bFail;
+
+    @Nonnull
+    public SMPChangeLogEntry appendChange (@Nonnull final ESMPChangeLogObjectType eObjectType,
+                                          @Nonnull final ESMPChangeLogAction eAction,
+                                          @Nonnull final String sParticipantID,
+                                          @Nullable final String sObjectID)
+    {
+      if (m_bFail)
+        throw new IllegalStateException ("Simulated append error");
+      final SMPChangeLogEntry ret = new SMPChangeLogEntry (getLastSequence () + 1,
+                                                           PDTFactory.getCurrentLocalDateTime (),
+                                                           eObjectType,
+                                                           eAction,
+                                                           sParticipantID,
+                                                           sObjectID);
+      m_aEntries.add (ret);
+      return ret;
+    }
+
+    @Nonnull
+    @ReturnsMutableCopy
+    public ICommonsList <SMPChangeLogEntry> getAllChangesAfter (final long nSequence, final int nMaxCount)
+    {
+      return m_aEntries.getAll (x -> x.getSequence () > nSequence);
+    }
+
+    @Nonnegative
+    public long getLastSequence ()
+    {
+      return m_aEntries.size ();
+    }
+
+    @Nonnegative
+    public long getFirstSequence ()
+    {
+      return 1;
+    }
+  }
+
+  @Nonnull
+  private static IParticipantIdentifier _pid (final int n)
+  {
+    return PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9999:changelog" + n);
+  }
+
+  @Test
+  public void testFailedChangeIsAppendedLater () throws InterruptedException
+  {
+    final MockChangeLogManager aMgr = new MockChangeLogManager ();
+    final SMPChangeLogRecorder aRecorder = new SMPChangeLogRecorder (aMgr);
+
+    aMgr.m_bFail = true;
+    aRecorder.onSMPServiceGroupUpdated (_pid (1));
+    assertEquals (1, aRecorder.getPendingChangeCount ());
+    assertFalse (aRecorder.waitForChangeAfter (0, 0));
+
+    aMgr.m_bFail = false;
+    aRecorder.onSMPServiceGroupDeleted (_pid (2), false);
+    assertEquals (0, aRecorder.getPendingChangeCount ());
+    assertEquals (0, aRecorder.getLostChangeCount ());
+    assertTrue (aRecorder.waitForChangeAfter (1, 0));
+
+    // The failed change comes first
+    assertEquals (2, aMgr.m_aEntries.size ());
+    assertEquals (_pid (1).getURIEncoded (), aMgr.m_aEntries.get (0).getParticipantID ());
+    assertEquals (ESMPChangeLogAction.UPDATE, aMgr.m_aEntries.get (0).getAction ());
+    assertEquals (_pid (2).getURIEncoded (), aMgr.m_aEntries.get (1).getParticipantID ());
+    assertEquals (ESMPChangeLogAction.DELETE, aMgr.m_aEntries.get (1).getAction ());
+  }
+
+  @Test
+  public void testTooManyPendingChanges ()
+  {
+    final MockChangeLogManager aMgr = new MockChangeLogManager ();
+    final SMPChangeLogRecorder aRecorder = new SMPChangeLogRecorder (aMgr, 3);
+
+    aMgr.m_bFail = true;
+    for (int i = 0; i < 5; ++i)
+      aRecorder.onSMPServiceGroupUpdated (_pid (i));
+    assertEquals (3, aRecorder.getPendingChangeCount ());
+    assertEquals (2, aRecorder.getLostChangeCount ());
+
+    // The newest pending changes are kept
+    aMgr.m_bFail = false;
+    aRecorder.onSMPServiceGroupUpdated (_pid (5));
+    assertEquals (0, aRecorder.getPendingChangeCount ());
+    assertEquals (4, aMgr.m_aEntries.size ());
+    for (int i = 0; i < 4; ++i)
+      assertEquals (_pid (i + 2).getURIEncoded (), aMgr.m_aEntries.get (i).getParticipantID ());
+  }
+
+  @Test
+  public void testStop ()
+  {
+    final MockChangeLogManager aMgr = new MockChangeLogManager ();
+    final SMPChangeLogRecorder aRecorder = new SMPChangeLogRecorder (aMgr);
+
+    aMgr.m_bFail = true;
+    aRecorder.onSMPServiceGroupUpdated (_pid (1));
+    aRecorder.onSMPServiceGroupUpdated (_pid (2));
+    assertEquals (2, aRecorder.getPendingChangeCount ());
+
+    // Still failing - the pending changes are lost
+    aRecorder.stop ();
+    assertEquals (0, aRecorder.getPendingChangeCount ());
+    assertEquals (2, aRecorder.getLostChangeCount ());
+
+    // Pending changes are appended on stop if possible
+    final MockChangeLogManager aMgr2 = new MockChangeLogManager ();
+    final SMPChangeLogRecorder aRecorder2 = new SMPChangeLogRecorder (aMgr2);
+    aMgr2.m_bFail = true;
+    aRecorder2.onSMPServiceGroupUpdated (_pid (1));
+    aMgr2.m_bFail = false;
+    aRecorder2.stop ();
+    assertEquals (0, aRecorder2.getLostChangeCount ());
+    assertEquals (1, aMgr2.m_aEntries.size ());
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.pmigration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.peppol.sml.ESML;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.CSecurity;
+import com.helger.photon.security.mgr.PhotonSecurityManager;
+import com.helger.photon.security.user.IUser;
+
+/**
+ * Test class for class {@link SMPOutboundMigrationBulkJob}. The mock backend
+ * doesn't contain any service group, so every participant fails without
+ * calling the SML.
+ *
+ * @author Philip Helger
+ */
+public final class SMPOutboundMigrationBulkJobTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Nonnull
+  private static ICommonsList <IParticipantIdentifier> _createParticipantIDs (final int nCount)
+  {
+    final ICommonsList <IParticipantIdentifier> ret = new CommonsArrayList <> ();
+    for (int i = 0; i < nCount; ++i)
+      ret.add (PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9915:bulk" + i));
+    return ret;
+  }
+
+  private static void _waitUntilFinished (@Nonnull final SMPOutboundMigrationBulkJob aJob) throws InterruptedException
+  {
+    final long nEnd = System.currentTimeMillis () + 10_000;
+    while (!aJob.isFinished () && System.currentTimeMillis () < nEnd)
+      Thread.sleep (10);
+    assertTrue (aJob.toString (), aJob.isFinished ());
+  }
+
+  private static void _assertAllFailed (@Nonnull final SMPOutboundMigrationBulkJob aJob, @Nonnull final String sError)
+  {
+    assertTrue (aJob.isFinished ());
+    assertNotNull (aJob.getEndDateTime ());
+    assertEquals (0, aJob.getSuccessCount ());
+    assertEquals (aJob.getTotalCount (), aJob.getErrorCount ());
+    assertEquals (aJob.getTotalCount (), aJob.getAllResults ().size ());
+    for (final SMPOutboundMigrationBulkJob.Result aResult : aJob.getAllResults ())
+    {
+      assertFalse (aResult.isSuccess ());
+      assertTrue (aResult.getErrorMessage (), aResult.getErrorMessage ().contains (sError));
+    }
+  }
+
+  @Test
+  public void testAccess ()
+  {
+    final IUser aAdmin = PhotonSecurityManager.getUserMgr ().getUserOfID (CSecurity.USER_ADMINISTRATOR_ID);
+    assertNotNull (aAdmin);
+    final IUser aOwner = PhotonSecurityManager.getUserMgr ()
+                                              .createNewUser ("bulk-owner@example.org",
+                                                              "bulk-owner@example.org",
+                                                              "password",
+                                                              null,
+                                                              "Owner",
+                                                              null,
+                                                              Locale.US,
+                                                              null,
+                                                              false);
+    assertNotNull (aOwner);
+    final IUser aOther = PhotonSecurityManager.getUserMgr ()
+                                              .createNewUser ("bulk-other@example.org",
+                                                              "bulk-other@example.org",
+                                                              "password",
+                                                              null,
+                                                              "Other",
+                                                              null,
+                                                              Locale.US,
+                                                              null,
+                                                              false);
+    assertNotNull (aOther);
+
+    final SMPOutboundMigrationBulkJob aJob = new SMPOutboundMigrationBulkJob (aOwner.getID (),
+                                                                              _createParticipantIDs (1));
+    assertTrue (aJob.isAccessibleBy (aOwner));
+    assertTrue (aJob.isAccessibleBy (aAdmin));
+    // The caller doesn't own the job
+    assertFalse (aJob.isAccessibleBy (aOther));
+  }
+
+  @Test
+  public void testAllParticipantsProcessed () throws Exception
+  {
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (2);
+    try
+    {
+      // Not a multiple of the chunk size
+      final SMPOutboundMigrationBulkJob aJob = new SMPOutboundMigrationBulkJob ("user",
+                                                                                _createParticipantIDs (SMPOutboundMigrationBulkJob.CHUNK_SIZE *
+                                                                                                       2 +
+                                                                                                       5));
+      aJob.start (aExecutor, 2, ESML.DIGIT_TEST, null);
+      _waitUntilFinished (aJob);
+      _assertAllFailed (aJob, "does not exist");
+      assertFalse (aJob.isCancelled ());
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+  }
+
+  @Test
+  public void testJobsTakeTurns () throws Exception
+  {
+    // A single thread - the later small job must not wait for the large job
+    final ExecutorService aExecutor = Executors.newSingleThreadExecutor ();
+    try
+    {
+      final SMPOutboundMigrationBulkJob aLargeJob = new SMPOutboundMigrationBulkJob ("user",
+                                                                                     _createParticipantIDs (SMPOutboundMigrationBulkJob.CHUNK_SIZE *
+                                                                                                            50));
+      final SMPOutboundMigrationBulkJob aSmallJob = new SMPOutboundMigrationBulkJob ("user",
+                                                                                     _createParticipantIDs (SMPOutboundMigrationBulkJob.CHUNK_SIZE));
+      aLargeJob.start (aExecutor, 1, ESML.DIGIT_TEST, null);
+      aSmallJob.start (aExecutor, 1, ESML.DIGIT_TEST, null);
+      _waitUntilFinished (aSmallJob);
+      _waitUntilFinished (aLargeJob);
+      assertFalse (aSmallJob.getEndDateTime ().isAfter (aLargeJob.getEndDateTime ()));
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+  }
+
+  @Test
+  public void testCancel () throws Exception
+  {
+    final ExecutorService aExecutor = Executors.newSingleThreadExecutor ();
+    final CountDownLatch aBlocker = new CountDownLatch (1);
+    try
+    {
+      // Block the executor, so that nothing of the job is processed
+      aExecutor.execute ( () -> {
+        try
+        {
+          aBlocker.await ();
+        }
+        catch (final InterruptedException ex)
+        {
+          Thread.currentThread ().interrupt ();
+        }
+      });
+
+      final SMPOutboundMigrationBulkJob aJob = new SMPOutboundMigrationBulkJob ("user", _createParticipantIDs (25));
+      aJob.start (aExecutor, 1, ESML.DIGIT_TEST, null);
+      assertFalse (aJob.isFinished ());
+
+      aJob.cancel ();
+      assertTrue (aJob.isCancelled ());
+      _assertAllFailed (aJob, "cancelled");
+
+      // The queued chunk has nothing left to do
+      aBlocker.countDown ();
+      aExecutor.shutdown ();
+      assertTrue (aExecutor.awaitTermination (10, TimeUnit.SECONDS));
+      _assertAllFailed (aJob, "cancelled");
+    }
+    finally
+    {
+      aBlocker.countDown ();
+      aExecutor.shutdownNow ();
+    }
+  }
+
+  @Test
+  public void testShutdown () throws Exception
+  {
+    final ExecutorService aExecutor = Executors.newSingleThreadExecutor ();
+    final CountDownLatch aBlocker = new CountDownLatch (1);
+    try
+    {
+      aExecutor.execute ( () -> {
+        try
+        {
+          aBlocker.await ();
+        }
+        catch (final InterruptedException ex)
+        {
+          Thread.currentThread ().interrupt ();
+        }
+      });
+
+      final SMPOutboundMigrationBulkJob aJob = new SMPOutboundMigrationBulkJob ("user", _createParticipantIDs (25));
+      aJob.start (aExecutor, 1, ESML.DIGIT_TEST, null);
+
+      // Same as in SMPOutboundMigrationBulkJobManager.onDestroy
+      aJob.failPending ("The SMP was shut down");
+      aExecutor.shutdownNow ();
+      _assertAllFailed (aJob, "shut down");
+      assertFalse (aJob.isCancelled ());
+    }
+    finally
+    {
+      aBlocker.countDown ();
+    }
+  }
+
+  @Test
+  public void testRejected ()
+  {
+    final ExecutorService aExecutor = Executors.newSingleThreadExecutor ();
+    aExecutor.shutdown ();
+
+    final SMPOutboundMigrationBulkJob aJob = new SMPOutboundMigrationBulkJob ("user", _createParticipantIDs (25));
+    aJob.start (aExecutor, 4, ESML.DIGIT_TEST, null);
+    _assertAllFailed (aJob, "could not be scheduled");
+  }
+}
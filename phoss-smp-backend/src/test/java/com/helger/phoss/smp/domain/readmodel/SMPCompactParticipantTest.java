@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.readmodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.commons.collection.CollectionHelper;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.datetime.XMLOffsetDateTime;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.peppolid.simple.doctype.SimpleDocumentTypeIdentifier;
+import com.helger.peppolid.simple.process.SimpleProcessIdentifier;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.redirect.SMPRedirect;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.CSecurity;
+
+/**
+ * Test class for class {@link SMPCompactParticipant}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPCompactParticipantTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  private static SMPServiceInformation _createServiceInfo (final ISMPServiceGroup aSG, final String sDocTypeValue)
+  {
+    // Explicitly create new String instances to check the pooling
+    final SMPEndpoint aEP = new SMPEndpoint (new String ("tp"),
+                                             new String ("http://localhost/as4"),
+                                             false,
+                                             (String) null,
+                                             (XMLOffsetDateTime) null,
+                                             (XMLOffsetDateTime) null,
+                                             new String ("cert"),
+                                             "sd",
+                                             "tc",
+                                             (String) null,
+                                             (String) null);
+    final SMPProcess aProcess = new SMPProcess (new SimpleProcessIdentifier (PeppolIdentifierHelper.DEFAULT_PROCESS_SCHEME,
+                                                                             "testproc"),
+                                                CollectionHelper.newList (aEP),
+                                                "<extproc/>");
+    return new SMPServiceInformation (aSG,
+                                      new SimpleDocumentTypeIdentifier (PeppolIdentifierHelper.DOCUMENT_TYPE_SCHEME_BUSDOX_DOCID_QNS,
+                                                                        sDocTypeValue),
+                                      CollectionHelper.newList (aProcess),
+                                      (String) null);
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    final IParticipantIdentifier aPI = PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("0088:dummy");
+    final ISMPServiceGroup aSG = new SMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI, "<extsg/>");
+    final SMPServiceInformation aSI1 = _createServiceInfo (aSG, "doctype1");
+    final SMPServiceInformation aSI2 = _createServiceInfo (aSG, "doctype2");
+    final IDocumentTypeIdentifier aRedirectDocTypeID = new SimpleDocumentTypeIdentifier (PeppolIdentifierHelper.DOCUMENT_TYPE_SCHEME_BUSDOX_DOCID_QNS,
+                                                                                         "doctype3");
+    final SMPRedirect aRedirect = new SMPRedirect (aSG,
+                                                   aRedirectDocTypeID,
+                                                   "http://other.example.org",
+                                                   "suid",
+                                                   null,
+                                                   null);
+
+    final SMPObjectPool aPool = new SMPObjectPool ();
+    final SMPCompactParticipant aParticipant = SMPCompactParticipant.create (aSG,
+                                                                             CollectionHelper.newList (aSI1, aSI2),
+                                                                             CollectionHelper.newList (aRedirect),
+                                                                             null,
+                                                                             aPool);
+    assertEquals (2, aParticipant.getServiceInformationCount ());
+    assertEquals (1, aParticipant.getRedirectCount ());
+    assertEquals (2, aParticipant.getEndpointCount ());
+    assertTrue (aParticipant.getEstimatedBytes () > 0);
+    assertTrue (aPool.getEstimatedBytes () > 0);
+    assertNull (aParticipant.getBusinessCard ());
+
+    // Service group
+    final SMPServiceGroup aSG2 = aParticipant.getAsServiceGroup ();
+    assertEquals (aSG.getID (), aSG2.getID ());
+    assertEquals (aSG.getOwnerID (), aSG2.getOwnerID ());
+    assertEquals (aSG.getExtensions ().getExtensionsAsJsonString (), aSG2.getExtensions ().getExtensionsAsJsonString ());
+
+    // Service information
+    assertEquals (new CommonsArrayList <> (aSI1.getDocumentTypeIdentifier (), aSI2.getDocumentTypeIdentifier ()),
+                  aParticipant.getAllDocumentTypes ());
+    final ISMPServiceInformation aSI1Read = aParticipant.getServiceInformation (aSG2, aSI1.getDocumentTypeIdentifier ());
+    assertNotNull (aSI1Read);
+    assertEquals (aSI1.getID (), aSI1Read.getID ());
+    assertEquals (1, aSI1Read.getTotalEndpointCount ());
+    final ISMPEndpoint aEP1 = aSI1Read.getAllProcesses ().getFirstOrNull ().getAllEndpoints ().getFirstOrNull ();
+    assertEquals ("http://localhost/as4", aEP1.getEndpointReference ());
+    assertEquals ("cert", aEP1.getCertificate ());
+    assertEquals ("[{\"Any\":\"<extproc />\"}]",
+                  aSI1Read.getAllProcesses ().getFirstOrNull ().getExtensions ().getExtensionsAsJsonString ());
+    assertNull (aParticipant.getServiceInformation (aSG2, aRedirectDocTypeID));
+
+    // Equal values are only stored once
+    final ISMPServiceInformation aSI2Read = aParticipant.getServiceInformation (aSG2, aSI2.getDocumentTypeIdentifier ());
+    final ISMPEndpoint aEP2 = aSI2Read.getAllProcesses ().getFirstOrNull ().getAllEndpoints ().getFirstOrNull ();
+    assertSame (aEP1.getEndpointReference (), aEP2.getEndpointReference ());
+    assertSame (aEP1.getCertificate (), aEP2.getCertificate ());
+
+    // Redirect
+    final ISMPRedirect aRedirectRead = aParticipant.getRedirect (aSG2, aRedirectDocTypeID);
+    assertNotNull (aRedirectRead);
+    assertEquals ("http://other.example.org", aRedirectRead.getTargetHref ());
+    assertEquals ("suid", aRedirectRead.getSubjectUniqueIdentifier ());
+    assertNull (aParticipant.getRedirect (aSG2, aSI1.getDocumentTypeIdentifier ()));
+
+    // Replace a service information with a redirect
+    final SMPCompactParticipant aParticipant2 = aParticipant.getWithServiceMetadata (aSI1.getDocumentTypeIdentifier (),
+                                                                                     null,
+                                                                                     new SMPRedirect (aSG,
+                                                                                                      aSI1.getDocumentTypeIdentifier (),
+                                                                                                      "http://other.example.org",
+                                                                                                      "suid",
+                                                                                                      null,
+                                                                                                      null),
+                                                                                     aPool);
+    assertEquals (1, aParticipant2.getServiceInformationCount ());
+    assertEquals (2, aParticipant2.getRedirectCount ());
+    assertNull (aParticipant2.getServiceInformation (aSG2, aSI1.getDocumentTypeIdentifier ()));
+    assertNotNull (aParticipant2.getRedirect (aSG2, aSI1.getDocumentTypeIdentifier ()));
+
+    // The original object is unchanged
+    assertEquals (2, aParticipant.getServiceInformationCount ());
+    assertEquals (1, aParticipant.getRedirectCount ());
+  }
+}
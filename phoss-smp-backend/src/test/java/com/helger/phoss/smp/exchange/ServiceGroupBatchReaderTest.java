@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.exchange;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.commons.collection.CollectionHelper;
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.CSecurity;
+import com.helger.photon.security.mgr.PhotonSecurityManager;
+import com.helger.photon.security.user.IUser;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.MicroDocument;
+import com.helger.xml.microdom.convert.MicroTypeConverter;
+import com.helger.xml.microdom.serialize.MicroWriter;
+
+/**
+ * Test class for class {@link ServiceGroupBatchReader}.
+ *
+ * @author Philip Helger
+ */
+public final class ServiceGroupBatchReaderTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Test
+  public void testNDJSON () throws Exception
+  {
+    final IUser aOwner = PhotonSecurityManager.getUserMgr ().getUserOfID (CSecurity.USER_ADMINISTRATOR_ID);
+    assertNotNull (aOwner);
+
+    final String sPayload = "{\"participant\":\"iso6523-actorid-upis::9915:batch1\"," +
+                            "\"serviceinfos\":[{\"doctype\":\"busdox-docid-qns::testdoctype\"," +
+                            "\"processes\":[{\"process\":\"cenbii-procid-ubl::testproc\"," +
+                            "\"endpoints\":[{\"transportprofile\":\"tp\",\"endpointref\":\"http://localhost/as4\"," +
+                            "\"reqblsig\":true,\"activation\":\"2023-01-01T00:00:00Z\",\"certificate\":\"cert\"}]}]}]}\n" +
+                            "\n" +
+                            "{\"participant\":\"iso6523-actorid-upis::9915:batch2\",\"extension\":\"<ext/>\"}\n" +
+                            "no json\n" +
+                            "{\"participant\":\"invalid\"}\n";
+    try (final ServiceGroupBatchReader aReader = ServiceGroupBatchReader.createForNDJSON (new NonBlockingByteArrayInputStream (sPayload.getBytes (StandardCharsets.UTF_8)),
+                                                                                          aOwner))
+    {
+      ServiceGroupBatchItem aItem = aReader.readNext ();
+      assertNotNull (aItem);
+      assertFalse (aItem.isError ());
+      assertEquals (0, aItem.getIndex ());
+      assertEquals ("iso6523-actorid-upis::9915:batch1", aItem.getParticipantID ());
+      assertEquals (aOwner.getID (), aItem.getServiceGroup ().getOwnerID ());
+      assertEquals (1, aItem.getAllServiceInformation ().size ());
+      final ISMPServiceInformation aSI = aItem.getAllServiceInformation ().getFirst ();
+      assertEquals ("busdox-docid-qns::testdoctype", aSI.getDocumentTypeIdentifier ().getURIEncoded ());
+      assertEquals (1, aSI.getAllProcesses ().size ());
+      final ISMPEndpoint aEP = aSI.getAllProcesses ().getFirst ().getEndpointOfTransportProfile ("tp");
+      assertNotNull (aEP);
+      assertEquals ("http://localhost/as4", aEP.getEndpointReference ());
+      assertTrue (aEP.isRequireBusinessLevelSignature ());
+      assertNotNull (aEP.getServiceActivationDateTime ());
+      assertNull (aEP.getServiceExpirationDateTime ());
+      assertEquals ("cert", aEP.getCertificate ());
+
+      // Empty lines are skipped
+      aItem = aReader.readNext ();
+      assertNotNull (aItem);
+      assertFalse (aItem.isError ());
+      assertEquals (1, aItem.getIndex ());
+      assertTrue (aItem.getAllServiceInformation ().isEmpty ());
+      assertEquals ("[{\"Any\":\"<ext />\"}]", aItem.getServiceGroup ().getExtensions ().getExtensionsAsJsonString ());
+
+      aItem = aReader.readNext ();
+      assertNotNull (aItem);
+      assertTrue (aItem.isError ());
+      assertEquals (2, aItem.getIndex ());
+
+      aItem = aReader.readNext ();
+      assertNotNull (aItem);
+      assertTrue (aItem.isError ());
+      assertEquals ("invalid", aItem.getParticipantID ());
+
+      assertNull (aReader.readNext ());
+      assertEquals (4, aReader.getReadItemCount ());
+    }
+  }
+
+  @Test
+  public void testXMLVer10 () throws Exception
+  {
+    final IUser aOwner = PhotonSecurityManager.getUserMgr ().getUserOfID (CSecurity.USER_ADMINISTRATOR_ID);
+    assertNotNull (aOwner);
+
+    // Owner of the XML is ignored
+    final IParticipantIdentifier aPI = PeppolIdentifierFactory.INSTANCE.parseParticipantIdentifier ("iso6523-actorid-upis::9915:batch");
+    final SMPServiceGroup aSG = new SMPServiceGroup ("anyowner", aPI, null);
+    final SMPEndpoint aEP = new SMPEndpoint ("tp",
+                                             "http://localhost/as4",
+                                             false,
+                                             null,
+                                             null,
+                                             null,
+                                             "cert",
+                                             "sd",
+                                             null,
+                                             null,
+                                             null);
+    final SMPProcess aProcess = new SMPProcess (PeppolIdentifierFactory.INSTANCE.parseProcessIdentifier ("cenbii-procid-ubl::testproc"),
+                                                CollectionHelper.newList (aEP),
+                                                null);
+    final SMPServiceInformation aSI = new SMPServiceInformation (aSG,
+                                                                 PeppolIdentifierFactory.INSTANCE.parseDocumentTypeIdentifier ("busdox-docid-qns::testdoctype"),
+                                                                 CollectionHelper.newList (aProcess),
+                                                                 null);
+
+    final IMicroDocument aDoc = new MicroDocument ();
+    final IMicroElement eRoot = aDoc.appendElement (CSMPExchange.ELEMENT_SMP_DATA);
+    eRoot.setAttribute (CSMPExchange.ATTR_VERSION, CSMPExchange.VERSION_10);
+    final IMicroElement eServiceGroup = eRoot.appendChild (MicroTypeConverter.convertToMicroElement (aSG,
+                                                                                                    CSMPExchange.ELEMENT_SERVICEGROUP));
+    eServiceGroup.appendChild (MicroTypeConverter.convertToMicroElement (aSI, CSMPExchange.ELEMENT_SERVICEINFO));
+    // Business cards are skipped
+    eRoot.appendElement (CSMPExchange.ELEMENT_BUSINESSCARD).appendElement ("entity").appendText ("bla");
+    eRoot.appendChild (MicroTypeConverter.convertToMicroElement (aSG, CSMPExchange.ELEMENT_SERVICEGROUP));
+
+    final byte [] aPayload = MicroWriter.getNodeAsString (aDoc).getBytes (StandardCharsets.UTF_8);
+    try (final ServiceGroupBatchReader aReader = ServiceGroupBatchReader.createForXMLVer10 (new NonBlockingByteArrayInputStream (aPayload),
+                                                                                            aOwner))
+    {
+      ServiceGroupBatchItem aItem = aReader.readNext ();
+      assertNotNull (aItem);
+      assertFalse (aItem.isError ());
+      assertEquals ("iso6523-actorid-upis::9915:batch", aItem.getParticipantID ());
+      assertEquals (aOwner.getID (), aItem.getServiceGroup ().getOwnerID ());
+      assertEquals (1, aItem.getAllServiceInformation ().size ());
+      final ISMPServiceInformation aReadSI = aItem.getAllServiceInformation ().getFirst ();
+      assertEquals ("busdox-docid-qns::testdoctype", aReadSI.getDocumentTypeIdentifier ().getURIEncoded ());
+      final ISMPEndpoint aReadEP = aReadSI.getAllProcesses ().getFirst ().getEndpointOfTransportProfile ("tp");
+      assertNotNull (aReadEP);
+      assertEquals ("cert", aReadEP.getCertificate ());
+      assertEquals ("sd", aReadEP.getServiceDescription ());
+
+      aItem = aReader.readNext ();
+      assertNotNull (aItem);
+      assertFalse (aItem.isError ());
+      assertEquals (1, aItem.getIndex ());
+      assertTrue (aItem.getAllServiceInformation ().isEmpty ());
+
+      assertNull (aReader.readNext ());
+    }
+  }
+
+  @Test (expected = IOException.class)
+  public void testXMLWrongRoot () throws Exception
+  {
+    final IUser aOwner = PhotonSecurityManager.getUserMgr ().getUserOfID (CSecurity.USER_ADMINISTRATOR_ID);
+    final byte [] aPayload = "<root version=\"1.0\"/>".getBytes (StandardCharsets.UTF_8);
+    ServiceGroupBatchReader.createForXMLVer10 (new NonBlockingByteArrayInputStream (aPayload), aOwner);
+  }
+}
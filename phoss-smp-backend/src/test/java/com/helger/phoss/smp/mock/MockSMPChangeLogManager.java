@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.mock;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.phoss.smp.domain.changelog.ESMPChangeLogAction;
+import com.helger.phoss.smp.domain.changelog.ESMPChangeLogObjectType;
+import com.helger.phoss.smp.domain.changelog.ISMPChangeLogManager;
+import com.helger.phoss.smp.domain.changelog.SMPChangeLogEntry;
+
+/**
+ * Mock implementation of {@link ISMPChangeLogManager}.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+final class MockSMPChangeLogManager implements ISMPChangeLogManager
+{
+  @Nonnull
+  public SMPChangeLogEntry appendChange (@Nonnull final ESMPChangeLogObjectType eObjectType,
+                                         @Nonnull final ESMPChangeLogAction eAction,
+                                         @Nonnull final String sParticipantID,
+                                         @Nullable final String sObjectID)
+  {
+    throw new UnsupportedOperationException ();
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <SMPChangeLogEntry> getAllChangesAfter (final long nSequence, final int nMaxCount)
+  {
+    return new CommonsArrayList <> ();
+  }
+
+  @Nonnegative
+  public long getLastSequence ()
+  {
+    return 0;
+  }
+
+  @Nonnegative
+  public long getFirstSequence ()
+  {
+    return 1;
+  }
+}
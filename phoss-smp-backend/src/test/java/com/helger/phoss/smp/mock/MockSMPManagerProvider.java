@@ -16,6 +16,7 @@ import com.helger.commons.state.ETriState;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.domain.ISMPManagerProvider;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.changelog.ISMPChangeLogManager;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -90,4 +91,10 @@ public final class MockSMPManagerProvider implements ISMPManagerProvider
   {
     return new MockSMPBusinessCardManager ();
   }
+
+  @Nonnull
+  public ISMPChangeLogManager createChangeLogMgr ()
+  {
+    return new MockSMPChangeLogManager ();
+  }
 }
@@ -14,12 +14,15 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableObject;
+import com.helger.commons.callback.CallbackList;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.state.EChange;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.phoss.smp.domain.pmigration.EParticipantMigrationDirection;
 import com.helger.phoss.smp.domain.pmigration.EParticipantMigrationState;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigration;
+import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationCallback;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 
 /**
@@ -30,6 +33,15 @@ import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
  */
 final class MockSMPParticipantMigrationManager implements ISMPParticipantMigrationManager
 {
+  private final CallbackList <ISMPParticipantMigrationCallback> m_aCallbacks = new CallbackList <> ();
+
+  @Nonnull
+  @ReturnsMutableObject
+  public CallbackList <ISMPParticipantMigrationCallback> participantMigrationCallbacks ()
+  {
+    return m_aCallbacks;
+  }
+
   public ISMPParticipantMigration createOutboundParticipantMigration (@Nonnull final IParticipantIdentifier aParticipantID,
                                                                       @Nonnull @Nonempty final String sMigrationKey)
   {
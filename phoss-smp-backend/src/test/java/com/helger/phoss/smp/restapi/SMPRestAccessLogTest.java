@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.restapi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test class for class {@link SMPRestAccessLog}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPRestAccessLogTest
+{
+  private static final String API = "junit";
+
+  @After
+  public void after ()
+  {
+    SMPRestAccessLog.stop ();
+  }
+
+  @Test
+  public void testNotInitialized ()
+  {
+    assertFalse (SMPRestAccessLog.isEnabled ());
+    final long nWritten = SMPRestAccessLog.getWrittenCount ();
+    final long nDropped = SMPRestAccessLog.getDroppedCount ();
+    SMPRestAccessLog.logWriteSuccess (API, "write", "9999:junit", null, System.nanoTime ());
+    SMPRestAccessLog.logError (API, "error", null, null, System.nanoTime (), "junit error");
+    assertEquals (0, SMPRestAccessLog.getQueueSize ());
+    assertEquals (nWritten, SMPRestAccessLog.getWrittenCount ());
+    assertEquals (nDropped, SMPRestAccessLog.getDroppedCount ());
+  }
+
+  @Test
+  public void testQueueFull ()
+  {
+    SMPRestAccessLog.initWithoutWriter (1, 5);
+    assertTrue (SMPRestAccessLog.isEnabled ());
+    final long nDropped = SMPRestAccessLog.getDroppedCount ();
+    for (int i = 0; i < 8; ++i)
+      SMPRestAccessLog.logWriteSuccess (API, "write", "9999:junit" + i, null, System.nanoTime ());
+    // The caller is never blocked
+    assertEquals (5, SMPRestAccessLog.getQueueSize ());
+    assertEquals (nDropped + 3, SMPRestAccessLog.getDroppedCount ());
+
+    // Errors are dropped as well
+    SMPRestAccessLog.logError (API, "error", null, null, System.nanoTime (), new IllegalStateException ("junit"));
+    assertEquals (5, SMPRestAccessLog.getQueueSize ());
+    assertEquals (nDropped + 4, SMPRestAccessLog.getDroppedCount ());
+  }
+
+  @Test
+  public void testWritesAndErrorsAreNotSampled ()
+  {
+    // Practically every successful read is sampled out
+    SMPRestAccessLog.initWithoutWriter (Integer.MAX_VALUE, 100);
+    final long nSampledOut = SMPRestAccessLog.getSampledOutCount ();
+    for (int i = 0; i < 10; ++i)
+    {
+      SMPRestAccessLog.logReadSuccess (API, "read", "9999:junit", null, System.nanoTime ());
+      SMPRestAccessLog.logWriteSuccess (API, "write", "9999:junit", null, System.nanoTime ());
+      SMPRestAccessLog.logError (API, "error", "9999:junit", null, System.nanoTime (), "junit error");
+      SMPRestAccessLog.logError (API, "error", "9999:junit", null, System.nanoTime (), new IllegalStateException ("junit"));
+    }
+    // All writes and errors are queued, every read is either queued or sampled
+    // out
+    final long nReadsSampledOut = SMPRestAccessLog.getSampledOutCount () - nSampledOut;
+    assertTrue (nReadsSampledOut > 0);
+    assertEquals (30 + 10 - nReadsSampledOut, SMPRestAccessLog.getQueueSize ());
+  }
+
+  @Test
+  public void testStopWritesQueuedRecords ()
+  {
+    SMPRestAccessLog.initWithoutWriter (1, 100);
+    final long nWritten = SMPRestAccessLog.getWrittenCount ();
+    for (int i = 0; i < 20; ++i)
+      SMPRestAccessLog.logReadSuccess (API, "read", "9999:junit" + i, null, System.nanoTime ());
+    for (int i = 0; i < 5; ++i)
+      SMPRestAccessLog.logError (API, "error", "9999:junit" + i, "junit::doctype", System.nanoTime (), "junit error");
+    assertEquals (25, SMPRestAccessLog.getQueueSize ());
+
+    SMPRestAccessLog.stop ();
+    assertFalse (SMPRestAccessLog.isEnabled ());
+    assertEquals (0, SMPRestAccessLog.getQueueSize ());
+    assertEquals (nWritten + 25, SMPRestAccessLog.getWrittenCount ());
+
+    // Ignored after stop
+    SMPRestAccessLog.logWriteSuccess (API, "write", null, null, System.nanoTime ());
+    assertEquals (nWritten + 25, SMPRestAccessLog.getWrittenCount ());
+  }
+}
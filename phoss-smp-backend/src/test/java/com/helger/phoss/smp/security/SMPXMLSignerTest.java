@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.security.KeyStore;
+
+import javax.annotation.Nonnull;
+import javax.xml.crypto.dsig.SignatureMethod;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMValidateContext;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.security.keystore.EKeyStoreType;
+import com.helger.security.keystore.KeyStoreHelper;
+import com.helger.security.keystore.LoadedKey;
+import com.helger.security.keystore.LoadedKeyStore;
+import com.helger.xml.serialize.read.DOMReader;
+
+/**
+ * Test class for class {@link SMPXMLSigner}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPXMLSignerTest
+{
+  @Nonnull
+  private static KeyStore.PrivateKeyEntry _loadKey (@Nonnull final String sPath)
+  {
+    final LoadedKeyStore aLKS = KeyStoreHelper.loadKeyStore (EKeyStoreType.PKCS12, sPath, "password");
+    assertTrue (aLKS.isSuccess ());
+    final LoadedKey <KeyStore.PrivateKeyEntry> aLK = KeyStoreHelper.loadPrivateKey (aLKS.getKeyStore (),
+                                                                                     sPath,
+                                                                                     "smp",
+                                                                                     "password".toCharArray ());
+    assertTrue (aLK.isSuccess ());
+    return aLK.getKeyEntry ();
+  }
+
+  private static void _testSignAndVerify (@Nonnull final KeyStore.PrivateKeyEntry aKeyEntry,
+                                          @Nonnull final SMPXMLSigner aSigner) throws Exception
+  {
+    for (final ESMPRESTType eRESTType : ESMPRESTType.values ())
+    {
+      // Sign multiple times to ensure the reused parts don't interfere
+      for (int i = 0; i < 3; ++i)
+      {
+        final Document aDoc = DOMReader.readXMLDOM ("<root xmlns='urn:test'><value>" + i + "</value></root>");
+        assertNotNull (aDoc);
+        aSigner.signXML (aDoc.getDocumentElement (), eRESTType);
+
+        final Node aSignatureNode = aDoc.getElementsByTagNameNS (XMLSignature.XMLNS, "Signature").item (0);
+        assertNotNull (aSignatureNode);
+        final DOMValidateContext aValidateContext = new DOMValidateContext (aKeyEntry.getCertificate ().getPublicKey (),
+                                                                            aSignatureNode);
+        final XMLSignature aSignature = XMLSignatureFactory.getInstance ("DOM").unmarshalXMLSignature (aValidateContext);
+        assertEquals (aSigner.getSignatureMethod (), aSignature.getSignedInfo ().getSignatureMethod ().getAlgorithm ());
+        assertTrue (eRESTType + " " + i, aSignature.validate (aValidateContext));
+      }
+    }
+  }
+
+  @Test
+  public void testRSA () throws Exception
+  {
+    final KeyStore.PrivateKeyEntry aKeyEntry = _loadKey ("keystore/test-rsa.p12");
+    final SMPXMLSigner aSigner = new SMPXMLSigner (aKeyEntry);
+    assertEquals (SignatureMethod.RSA_SHA256, aSigner.getSignatureMethod ());
+    _testSignAndVerify (aKeyEntry, aSigner);
+  }
+
+  @Test
+  public void testEC () throws Exception
+  {
+    final KeyStore.PrivateKeyEntry aKeyEntry = _loadKey ("keystore/test-ec.p12");
+    final SMPXMLSigner aSigner = new SMPXMLSigner (aKeyEntry);
+    assertEquals (SignatureMethod.ECDSA_SHA256, aSigner.getSignatureMethod ());
+    _testSignAndVerify (aKeyEntry, aSigner);
+  }
+
+  @Test
+  public void testGetSignatureMethod ()
+  {
+    assertEquals (SignatureMethod.RSA_SHA256, SMPXMLSigner.getSignatureMethod ("RSA"));
+    assertEquals (SignatureMethod.ECDSA_SHA256, SMPXMLSigner.getSignatureMethod ("EC"));
+    assertNull (SMPXMLSigner.getSignatureMethod ("DSA"));
+    assertNull (SMPXMLSigner.getSignatureMethod (null));
+  }
+}
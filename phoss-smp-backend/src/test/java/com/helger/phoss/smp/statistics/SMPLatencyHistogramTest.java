@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link SMPLatencyHistogram}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPLatencyHistogramTest
+{
+  @Test
+  public void testBuckets ()
+  {
+    for (final long nValue : new long [] { 0, 1, 15, 16, 17, 31, 32, 1_000, 123_456_789, Long.MAX_VALUE })
+    {
+      final int nIndex = SMPLatencyHistogram.getBucketIndex (nValue);
+      assertTrue (nIndex >= 0 && nIndex < SMPLatencyHistogram.BUCKET_COUNT);
+      assertTrue (SMPLatencyHistogram.getBucketUpperBound (nIndex) >= nValue);
+      if (nIndex > 0)
+        assertTrue (SMPLatencyHistogram.getBucketUpperBound (nIndex - 1) < nValue);
+    }
+    assertEquals (SMPLatencyHistogram.BUCKET_COUNT - 1, SMPLatencyHistogram.getBucketIndex (Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testRecord ()
+  {
+    final SMPLatencyHistogram aHisto = new SMPLatencyHistogram ();
+    assertEquals (0, aHisto.getCount ());
+    assertEquals (0, aHisto.getQuantileNanos (0.5));
+
+    for (int i = 1; i <= 1000; ++i)
+      aHisto.record (i * 1_000L);
+    assertEquals (1000, aHisto.getCount ());
+    assertEquals (500_500_000L, aHisto.getTotalNanos ());
+    assertEquals (1_000_000L, aHisto.getMaxNanos ());
+    assertEquals (1000, aHisto.getCountAtOrBelow (Long.MAX_VALUE));
+    assertEquals (0, aHisto.getCountAtOrBelow (999));
+
+    // Precision is approx. 6%
+    final long nMedian = aHisto.getQuantileNanos (0.5);
+    assertTrue (Long.toString (nMedian), nMedian >= 500_000L && nMedian <= 530_000L);
+    assertEquals (1_000_000L, aHisto.getQuantileNanos (1));
+  }
+}
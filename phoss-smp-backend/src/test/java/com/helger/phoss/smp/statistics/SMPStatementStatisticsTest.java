@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.phoss.smp.statistics.SMPStatementStatistics.StatementEntry;
+
+/**
+ * Test class for class {@link SMPStatementStatistics}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPStatementStatisticsTest
+{
+  @Test
+  public void testBasic ()
+  {
+    SMPStatementStatistics.reset ();
+    assertFalse (SMPStatementStatistics.hasAnyStatement ());
+
+    SMPStatementStatistics.recordExecution ("SELECT a", 1_000, 0, false);
+    SMPStatementStatistics.recordExecution ("SELECT a", 3_000, 0, false);
+    SMPStatementStatistics.addRows ("SELECT a", 5);
+    SMPStatementStatistics.recordExecution ("UPDATE b", 100_000, 2, true);
+    assertTrue (SMPStatementStatistics.hasAnyStatement ());
+
+    final ICommonsList <StatementEntry> aSlowest = SMPStatementStatistics.getTopSlowest (10);
+    assertEquals (2, aSlowest.size ());
+    assertEquals ("UPDATE b", aSlowest.get (0).getStatement ());
+    assertEquals (2, aSlowest.get (0).getRowCount ());
+    assertEquals (1, aSlowest.get (0).getErrorCount ());
+
+    final ICommonsList <StatementEntry> aFrequent = SMPStatementStatistics.getTopMostFrequent (1);
+    assertEquals (1, aFrequent.size ());
+    assertEquals ("SELECT a", aFrequent.get (0).getStatement ());
+    assertEquals (2, aFrequent.get (0).getExecutionCount ());
+    assertEquals (2_000, aFrequent.get (0).getAverageNanos ());
+    assertEquals (5, aFrequent.get (0).getRowCount ());
+
+    SMPStatementStatistics.reset ();
+    assertFalse (SMPStatementStatistics.hasAnyStatement ());
+  }
+}
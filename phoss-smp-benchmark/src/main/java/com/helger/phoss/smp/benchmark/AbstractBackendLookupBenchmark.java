@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.CSecurity;
+
+/**
+ * Abstract benchmark for the lookups performed by the public REST API. The
+ * backend to use is selected by the implementing classes via the
+ * "smp.backend" system property of the forked JVM.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+public abstract class AbstractBackendLookupBenchmark
+{
+  @Param ({ "100", "1000" })
+  public int m_nServiceGroups;
+
+  @Param ({ "5" })
+  public int m_nDocumentTypes;
+
+  private SMPServerTestRule m_aRule;
+  private ISMPServiceGroupManager m_aServiceGroupMgr;
+  private ISMPServiceInformationManager m_aServiceInfoMgr;
+  private ISMPServiceGroup [] m_aServiceGroups;
+  private IDocumentTypeIdentifier [] m_aDocTypeIDs;
+
+  @Setup (Level.Trial)
+  public void setup () throws SMPServerException
+  {
+    m_aRule = new SMPServerTestRule ();
+    m_aRule.before ();
+
+    m_aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+    m_aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+
+    m_aDocTypeIDs = new IDocumentTypeIdentifier [m_nDocumentTypes];
+    for (int i = 0; i < m_nDocumentTypes; ++i)
+      m_aDocTypeIDs[i] = SMPBenchmarkData.createDocumentTypeID (i);
+
+    m_aServiceGroups = new ISMPServiceGroup [m_nServiceGroups];
+    for (int i = 0; i < m_nServiceGroups; ++i)
+    {
+      final IParticipantIdentifier aPI = SMPBenchmarkData.createParticipantID (i);
+      // Leftovers from a previous aborted run
+      m_aServiceGroupMgr.deleteSMPServiceGroupNoEx (aPI, false);
+
+      final ISMPServiceGroup aSG = m_aServiceGroupMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID,
+                                                                              aPI,
+                                                                              null,
+                                                                              false);
+      for (final IDocumentTypeIdentifier aDocTypeID : m_aDocTypeIDs)
+        m_aServiceInfoMgr.mergeSMPServiceInformation (SMPBenchmarkData.createServiceInformation (aSG, aDocTypeID, 1, 1));
+      m_aServiceGroups[i] = aSG;
+    }
+  }
+
+  @TearDown (Level.Trial)
+  public void tearDown ()
+  {
+    if (m_aServiceGroups != null)
+      for (final ISMPServiceGroup aSG : m_aServiceGroups)
+        if (aSG != null)
+          m_aServiceGroupMgr.deleteSMPServiceGroupNoEx (aSG.getParticipantIdentifier (), false);
+    m_aRule.after ();
+  }
+
+  @Benchmark
+  public ISMPServiceGroup getSMPServiceGroupOfID ()
+  {
+    final int nIndex = ThreadLocalRandom.current ().nextInt (m_nServiceGroups);
+    return m_aServiceGroupMgr.getSMPServiceGroupOfID (m_aServiceGroups[nIndex].getParticipantIdentifier ());
+  }
+
+  @Benchmark
+  public ISMPServiceInformation getSMPServiceInformationOfServiceGroupAndDocumentType ()
+  {
+    final ThreadLocalRandom aRandom = ThreadLocalRandom.current ();
+    return m_aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (m_aServiceGroups[aRandom.nextInt (m_nServiceGroups)],
+                                                                                    m_aDocTypeIDs[aRandom.nextInt (m_nDocumentTypes)]);
+  }
+
+  @Benchmark
+  public ICommonsList <ISMPServiceInformation> getAllSMPServiceInformationOfServiceGroup ()
+  {
+    final int nIndex = ThreadLocalRandom.current ().nextInt (m_nServiceGroups);
+    return m_aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (m_aServiceGroups[nIndex]);
+  }
+}
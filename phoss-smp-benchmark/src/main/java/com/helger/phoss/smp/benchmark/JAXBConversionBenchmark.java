@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+
+/**
+ * Benchmark for the conversion of the service information domain objects to
+ * the JAXB objects of the different REST API flavours.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class JAXBConversionBenchmark
+{
+  @Param ({ "1", "5" })
+  public int m_nProcesses;
+
+  @Param ({ "1", "10" })
+  public int m_nEndpointsPerProcess;
+
+  private SMPServerTestRule m_aRule;
+  private SMPServiceInformation m_aSI;
+
+  @Setup (Level.Trial)
+  public void setup ()
+  {
+    m_aRule = new SMPServerTestRule ();
+    m_aRule.before ();
+
+    m_aSI = SMPBenchmarkData.createServiceInformation (SMPBenchmarkData.createServiceGroup (0),
+                                                      SMPBenchmarkData.createDocumentTypeID (0),
+                                                      m_nProcesses,
+                                                      m_nEndpointsPerProcess);
+  }
+
+  @TearDown (Level.Trial)
+  public void tearDown ()
+  {
+    m_aRule.after ();
+  }
+
+  @Benchmark
+  public com.helger.xsds.peppol.smp1.ServiceMetadataType getAsJAXBObjectPeppol ()
+  {
+    return m_aSI.getAsJAXBObjectPeppol ();
+  }
+
+  @Benchmark
+  public com.helger.xsds.bdxr.smp1.ServiceMetadataType getAsJAXBObjectBDXR1 ()
+  {
+    return m_aSI.getAsJAXBObjectBDXR1 ();
+  }
+
+  @Benchmark
+  public com.helger.xsds.bdxr.smp2.ServiceMetadataType getAsJAXBObjectBDXR2 ()
+  {
+    return m_aSI.getAsJAXBObjectBDXR2 ();
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformationMicroTypeConverter;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.convert.MicroTypeConverter;
+
+/**
+ * Benchmark for the micro type converters used by the XML backend to read and
+ * write the service information.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class MicroTypeConverterBenchmark
+{
+  @Param ({ "1", "5" })
+  public int m_nProcesses;
+
+  @Param ({ "1", "10" })
+  public int m_nEndpointsPerProcess;
+
+  private SMPServerTestRule m_aRule;
+  private ISMPServiceGroup m_aServiceGroup;
+  private SMPEndpoint m_aEndpoint;
+  private IMicroElement m_aEndpointElement;
+  private SMPServiceInformation m_aSI;
+  private IMicroElement m_aSIElement;
+
+  @Setup (Level.Trial)
+  public void setup ()
+  {
+    m_aRule = new SMPServerTestRule ();
+    m_aRule.before ();
+
+    m_aServiceGroup = SMPBenchmarkData.createServiceGroup (0);
+    m_aEndpoint = SMPBenchmarkData.createEndpoint ("peppol-transport-as4-v2_0");
+    m_aEndpointElement = MicroTypeConverter.convertToMicroElement (m_aEndpoint, "endpoint");
+    m_aSI = SMPBenchmarkData.createServiceInformation (m_aServiceGroup,
+                                                      SMPBenchmarkData.createDocumentTypeID (0),
+                                                      m_nProcesses,
+                                                      m_nEndpointsPerProcess);
+    m_aSIElement = MicroTypeConverter.convertToMicroElement (m_aSI, "serviceinformation");
+  }
+
+  @TearDown (Level.Trial)
+  public void tearDown ()
+  {
+    m_aRule.after ();
+  }
+
+  @Benchmark
+  public IMicroElement endpointToMicroElement ()
+  {
+    return MicroTypeConverter.convertToMicroElement (m_aEndpoint, "endpoint");
+  }
+
+  @Benchmark
+  public SMPEndpoint endpointToNative ()
+  {
+    return MicroTypeConverter.convertToNative (m_aEndpointElement, SMPEndpoint.class);
+  }
+
+  @Benchmark
+  public IMicroElement serviceInformationToMicroElement ()
+  {
+    return MicroTypeConverter.convertToMicroElement (m_aSI, "serviceinformation");
+  }
+
+  @Benchmark
+  public SMPServiceInformation serviceInformationToNative ()
+  {
+    // Resolve the transient service group without backend access
+    return SMPServiceInformationMicroTypeConverter.convertToNative (m_aSIElement, x -> m_aServiceGroup);
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.benchmark;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import org.w3c.dom.Document;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.datetime.XMLOffsetDateTime;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.peppolid.simple.doctype.SimpleDocumentTypeIdentifier;
+import com.helger.peppolid.simple.process.SimpleProcessIdentifier;
+import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.photon.security.CSecurity;
+import com.helger.smpclient.bdxr1.marshal.BDXR1MarshallerSignedServiceMetadataType;
+import com.helger.smpclient.bdxr2.marshal.BDXR2MarshallerServiceMetadata;
+import com.helger.smpclient.peppol.marshal.SMPMarshallerSignedServiceMetadataType;
+
+/**
+ * Helper class to create the synthetic data used by the benchmarks.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class SMPBenchmarkData
+{
+  private static final String DOCTYPE_ID_VALUE = "urn:oasis:names:specification:ubl:schema:xsd:Invoice-2::Invoice##urn:cen.eu:en16931:2017#compliant#urn:fdc:peppol.eu:2017:poacc:billing:3.0::2.1";
+  private static final String PROCESS_ID_VALUE = "urn:fdc:peppol.eu:2017:poacc:billing:01:1.0";
+  private static final String TRANSPORT_PROFILE = "peppol-transport-as4-v2_0";
+
+  private SMPBenchmarkData ()
+  {}
+
+  @Nonnull
+  public static IParticipantIdentifier createParticipantID (@Nonnegative final int nIndex)
+  {
+    return PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9915:benchmark" + nIndex);
+  }
+
+  /**
+   * Create a transient service group that is not persisted in any backend.
+   *
+   * @param nIndex
+   *        The index of the participant to use.
+   * @return The new service group. Never <code>null</code>.
+   */
+  @Nonnull
+  public static SMPServiceGroup createServiceGroup (@Nonnegative final int nIndex)
+  {
+    return new SMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, createParticipantID (nIndex), null);
+  }
+
+  @Nonnull
+  private static String _getSuffix (@Nonnegative final int nIndex)
+  {
+    return nIndex == 0 ? "" : "-" + nIndex;
+  }
+
+  @Nonnull
+  public static IDocumentTypeIdentifier createDocumentTypeID (@Nonnegative final int nIndex)
+  {
+    return new SimpleDocumentTypeIdentifier (PeppolIdentifierHelper.DOCUMENT_TYPE_SCHEME_BUSDOX_DOCID_QNS,
+                                             DOCTYPE_ID_VALUE + _getSuffix (nIndex));
+  }
+
+  @Nonnull
+  public static SMPEndpoint createEndpoint (@Nonnull final String sTransportProfile)
+  {
+    final XMLOffsetDateTime aStartDT = PDTFactory.getCurrentXMLOffsetDateTime ();
+    return new SMPEndpoint (sTransportProfile,
+                            "https://ap.example.org/as4",
+                            false,
+                            null,
+                            aStartDT,
+                            aStartDT.plusYears (2),
+                            "MIIFsjCCA5qgAwIBAgIQbenchmarkCertificateDataThatIsNotReallyACertificate",
+                            "Benchmark endpoint",
+                            "mailto:support@example.org",
+                            "https://www.example.org/technical-information",
+                            null);
+  }
+
+  /**
+   * Create a service information with the provided number of processes each
+   * having the provided number of endpoints.
+   *
+   * @param aServiceGroup
+   *        The service group to use. May not be <code>null</code>.
+   * @param aDocTypeID
+   *        The document type ID to use. May not be <code>null</code>.
+   * @param nProcesses
+   *        Number of processes. Must be &gt; 0.
+   * @param nEndpointsPerProcess
+   *        Number of endpoints per process. Must be &gt; 0.
+   * @return The new service information. Never <code>null</code>.
+   */
+  @Nonnull
+  public static SMPServiceInformation createServiceInformation (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                                                @Nonnull final IDocumentTypeIdentifier aDocTypeID,
+                                                                @Nonnegative final int nProcesses,
+                                                                @Nonnegative final int nEndpointsPerProcess)
+  {
+    final ICommonsList <SMPProcess> aProcesses = new CommonsArrayList <> ();
+    for (int nProcess = 0; nProcess < nProcesses; ++nProcess)
+    {
+      final ICommonsList <SMPEndpoint> aEndpoints = new CommonsArrayList <> ();
+      for (int nEndpoint = 0; nEndpoint < nEndpointsPerProcess; ++nEndpoint)
+        aEndpoints.add (createEndpoint (TRANSPORT_PROFILE + _getSuffix (nEndpoint)));
+      aProcesses.add (new SMPProcess (new SimpleProcessIdentifier (PeppolIdentifierHelper.DEFAULT_PROCESS_SCHEME,
+                                                                   PROCESS_ID_VALUE + _getSuffix (nProcess)),
+                                      aEndpoints,
+                                      null));
+    }
+    return new SMPServiceInformation (aServiceGroup, aDocTypeID, aProcesses, null);
+  }
+
+  /**
+   * Create the unsigned DOM document of the service metadata as created by the
+   * REST API before signing.
+   *
+   * @param aSI
+   *        The service information to convert. May not be <code>null</code>.
+   * @param eRESTType
+   *        The REST type to use. May not be <code>null</code>.
+   * @return The unsigned document. Never <code>null</code>.
+   */
+  @Nonnull
+  public static Document createUnsignedServiceMetadata (@Nonnull final SMPServiceInformation aSI,
+                                                        @Nonnull final ESMPRESTType eRESTType)
+  {
+    final Document ret;
+    switch (eRESTType)
+    {
+      case PEPPOL:
+      {
+        final com.helger.xsds.peppol.smp1.SignedServiceMetadataType aSSM = new com.helger.xsds.peppol.smp1.SignedServiceMetadataType ();
+        aSSM.setServiceMetadata (aSI.getAsJAXBObjectPeppol ());
+        final SMPMarshallerSignedServiceMetadataType aMarshaller = new SMPMarshallerSignedServiceMetadataType ();
+        // Disable XSD check, because Signature is added later
+        aMarshaller.setUseSchema (false);
+        ret = aMarshaller.getAsDocument (aSSM);
+        break;
+      }
+      case OASIS_BDXR_V1:
+      {
+        final com.helger.xsds.bdxr.smp1.SignedServiceMetadataType aSSM = new com.helger.xsds.bdxr.smp1.SignedServiceMetadataType ();
+        aSSM.setServiceMetadata (aSI.getAsJAXBObjectBDXR1 ());
+        final BDXR1MarshallerSignedServiceMetadataType aMarshaller = new BDXR1MarshallerSignedServiceMetadataType ();
+        // Disable XSD check, because Signature is added later
+        aMarshaller.setUseSchema (false);
+        ret = aMarshaller.getAsDocument (aSSM);
+        break;
+      }
+      case OASIS_BDXR_V2:
+      {
+        final BDXR2MarshallerServiceMetadata aMarshaller = new BDXR2MarshallerServiceMetadata ();
+        // Disable XSD check, because Signature is added later
+        aMarshaller.setUseSchema (false);
+        ret = aMarshaller.getAsDocument (aSI.getAsJAXBObjectBDXR2 ());
+        break;
+      }
+      default:
+        throw new UnsupportedOperationException ("Unsupported REST type " + eRESTType);
+    }
+    if (ret == null)
+      throw new IllegalStateException ("Failed to serialize unsigned node!");
+    return ret;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.phoss.smp.security.SMPKeyManager;
+
+/**
+ * Benchmark for the XML signing of the service metadata responses. This
+ * requires a valid key store configured in the "application.properties".
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class SignXMLBenchmark
+{
+  @Param ({ "PEPPOL", "OASIS_BDXR_V1", "OASIS_BDXR_V2" })
+  public ESMPRESTType m_eRESTType;
+
+  @Param ({ "1", "10" })
+  public int m_nEndpoints;
+
+  private SMPServerTestRule m_aRule;
+  private Document m_aUnsignedDoc;
+
+  @Setup (Level.Trial)
+  public void setup ()
+  {
+    m_aRule = new SMPServerTestRule ();
+    m_aRule.before ();
+
+    if (!SMPKeyManager.isKeyStoreValid ())
+      throw new IllegalStateException ("The SMP key store is not valid: " + SMPKeyManager.getInitializationError ());
+
+    // The service group is not persisted - it is only needed for the
+    // conversion
+    final SMPServiceInformation aSI = SMPBenchmarkData.createServiceInformation (SMPBenchmarkData.createServiceGroup (0),
+                                                                                 SMPBenchmarkData.createDocumentTypeID (0),
+                                                                                 1,
+                                                                                 m_nEndpoints);
+    m_aUnsignedDoc = SMPBenchmarkData.createUnsignedServiceMetadata (aSI, m_eRESTType);
+  }
+
+  @TearDown (Level.Trial)
+  public void tearDown ()
+  {
+    m_aRule.after ();
+  }
+
+  @Benchmark
+  public Element signXML () throws Exception
+  {
+    // Signing modifies the document, so work on a copy
+    final Document aDoc = (Document) m_aUnsignedDoc.cloneNode (true);
+    SMPKeyManager.getInstance ().signXML (aDoc.getDocumentElement (), m_eRESTType);
+    return aDoc.getDocumentElement ();
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.benchmark;
+
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.xml.crypto.dsig.CanonicalizationMethod;
+import javax.xml.crypto.dsig.DigestMethod;
+import javax.xml.crypto.dsig.Reference;
+import javax.xml.crypto.dsig.SignedInfo;
+import javax.xml.crypto.dsig.Transform;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMSignContext;
+import javax.xml.crypto.dsig.keyinfo.KeyInfo;
+import javax.xml.crypto.dsig.keyinfo.KeyInfoFactory;
+import javax.xml.crypto.dsig.keyinfo.X509Data;
+import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
+import javax.xml.crypto.dsig.spec.SignatureMethodParameterSpec;
+import javax.xml.crypto.dsig.spec.TransformParameterSpec;
+
+import org.apache.xml.security.c14n.Canonicalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.phoss.smp.security.SMPXMLSigner;
+import com.helger.security.keystore.EKeyStoreType;
+import com.helger.security.keystore.KeyStoreHelper;
+import com.helger.security.keystore.LoadedKey;
+import com.helger.security.keystore.LoadedKeyStore;
+
+/**
+ * Compare the XML signing with RSA and EC keys, and with the reused signature
+ * templates of {@link SMPXMLSigner} versus building everything from scratch
+ * for each signature (as done before 7.1.1). The key stores are contained in
+ * this module, so no configuration is needed.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class SignXMLKeyTypeBenchmark
+{
+  @Param ({ "rsa", "ec" })
+  public String m_sKeyType;
+
+  @Param ({ "PEPPOL", "OASIS_BDXR_V2" })
+  public ESMPRESTType m_eRESTType;
+
+  private SMPServerTestRule m_aRule;
+  private KeyStore.PrivateKeyEntry m_aKeyEntry;
+  private SMPXMLSigner m_aSigner;
+  private Document m_aUnsignedDoc;
+
+  @Setup (Level.Trial)
+  public void setup ()
+  {
+    m_aRule = new SMPServerTestRule ();
+    m_aRule.before ();
+
+    final String sPath = "keystore/benchmark-" + m_sKeyType + ".p12";
+    final LoadedKeyStore aLKS = KeyStoreHelper.loadKeyStore (EKeyStoreType.PKCS12, sPath, "password");
+    if (aLKS.isFailure ())
+      throw new IllegalStateException ("Failed to load key store '" + sPath + "'");
+    final LoadedKey <KeyStore.PrivateKeyEntry> aLK = KeyStoreHelper.loadPrivateKey (aLKS.getKeyStore (),
+                                                                                     sPath,
+                                                                                     "smp",
+                                                                                     "password".toCharArray ());
+    if (aLK.isFailure ())
+      throw new IllegalStateException ("Failed to load the key from '" + sPath + "'");
+    m_aKeyEntry = aLK.getKeyEntry ();
+    m_aSigner = new SMPXMLSigner (m_aKeyEntry);
+
+    final SMPServiceInformation aSI = SMPBenchmarkData.createServiceInformation (SMPBenchmarkData.createServiceGroup (0),
+                                                                                 SMPBenchmarkData.createDocumentTypeID (0),
+                                                                                 1,
+                                                                                 1);
+    m_aUnsignedDoc = SMPBenchmarkData.createUnsignedServiceMetadata (aSI, m_eRESTType);
+  }
+
+  @TearDown (Level.Trial)
+  public void tearDown ()
+  {
+    m_aRule.after ();
+  }
+
+  @Benchmark
+  public Element signReusingTemplates () throws Exception
+  {
+    // Signing modifies the document, so work on a copy
+    final Document aDoc = (Document) m_aUnsignedDoc.cloneNode (true);
+    m_aSigner.signXML (aDoc.getDocumentElement (), m_eRESTType);
+    return aDoc.getDocumentElement ();
+  }
+
+  @Benchmark
+  public Element signFromScratch () throws Exception
+  {
+    final Document aDoc = (Document) m_aUnsignedDoc.cloneNode (true);
+    _signFromScratch (aDoc.getDocumentElement ());
+    return aDoc.getDocumentElement ();
+  }
+
+  /**
+   * The signing as done before 7.1.1 - everything is created for each
+   * signature.
+   */
+  private void _signFromScratch (@Nonnull final Element aElementToSign) throws Exception
+  {
+    final XMLSignatureFactory aSignatureFactory = XMLSignatureFactory.getInstance ("DOM");
+    final Reference aReference = aSignatureFactory.newReference ("",
+                                                                 aSignatureFactory.newDigestMethod (DigestMethod.SHA256,
+                                                                                                    null),
+                                                                 new CommonsArrayList <> (aSignatureFactory.newTransform (Transform.ENVELOPED,
+                                                                                                                          (TransformParameterSpec) null)),
+                                                                 (String) null,
+                                                                 (String) null);
+    final String sC18N = m_eRESTType == ESMPRESTType.OASIS_BDXR_V2 ? Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS
+                                                                   : CanonicalizationMethod.INCLUSIVE;
+    final SignedInfo aSignedInfo = aSignatureFactory.newSignedInfo (aSignatureFactory.newCanonicalizationMethod (sC18N,
+                                                                                                                 (C14NMethodParameterSpec) null),
+                                                                    aSignatureFactory.newSignatureMethod (m_aSigner.getSignatureMethod (),
+                                                                                                          (SignatureMethodParameterSpec) null),
+                                                                    new CommonsArrayList <> (aReference));
+
+    final KeyInfoFactory aKeyInfoFactory = aSignatureFactory.getKeyInfoFactory ();
+    final X509Certificate aCert = (X509Certificate) m_aKeyEntry.getCertificate ();
+    final X509Data aX509Data = aKeyInfoFactory.newX509Data (new CommonsArrayList <> (aCert.getSubjectX500Principal ()
+                                                                                          .getName (), aCert));
+    final KeyInfo aKeyInfo = aKeyInfoFactory.newKeyInfo (new CommonsArrayList <> (aX509Data));
+
+    final DOMSignContext aSignContext = new DOMSignContext (m_aKeyEntry.getPrivateKey (), aElementToSign);
+    aSignatureFactory.newXMLSignature (aSignedInfo, aKeyInfo).sign (aSignContext);
+  }
+}
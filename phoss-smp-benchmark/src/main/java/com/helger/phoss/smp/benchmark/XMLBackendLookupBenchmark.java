@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.benchmark;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * Backend lookup benchmark for the XML backend. No further configuration is needed.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Fork (value = 1, jvmArgsAppend = "-Dsmp.backend=xml")
+public class XMLBackendLookupBenchmark extends AbstractBackendLookupBenchmark
+{}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.loadtest;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.id.IHasID;
+import com.helger.commons.lang.EnumHelper;
+
+/**
+ * The operations executed by the load test.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public enum ELoadTestOperation implements IHasID <String>
+{
+  /** GET /{ServiceGroupId} */
+  SERVICE_GROUP_GET ("sg-get", true),
+  /** GET /{ServiceGroupId}/services/{DocumentTypeId} */
+  SERVICE_METADATA_GET ("sm-get", true),
+  /** PUT /{ServiceGroupId}/services/{DocumentTypeId} */
+  SERVICE_METADATA_PUT ("sm-put", false),
+  /** DELETE /{ServiceGroupId}/services/{DocumentTypeId} */
+  SERVICE_METADATA_DELETE ("sm-delete", false);
+
+  private final String m_sID;
+  private final boolean m_bReadOnly;
+
+  ELoadTestOperation (@Nonnull @Nonempty final String sID, final boolean bReadOnly)
+  {
+    m_sID = sID;
+    m_bReadOnly = bReadOnly;
+  }
+
+  @Nonnull
+  @Nonempty
+  public String getID ()
+  {
+    return m_sID;
+  }
+
+  /**
+   * @return <code>true</code> if this operation does not modify any data.
+   */
+  public boolean isReadOnly ()
+  {
+    return m_bReadOnly;
+  }
+
+  @Nullable
+  public static ELoadTestOperation getFromIDOrNull (@Nullable final String sID)
+  {
+    return EnumHelper.getFromIDOrNull (ELoadTestOperation.class, sID);
+  }
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.loadtest;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.apache.hc.client5.http.classic.methods.HttpDelete;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpPut;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.http.CHttpHeader;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.timing.StopWatch;
+import com.helger.http.basicauth.BasicAuthClientCredentials;
+import com.helger.httpclient.HttpClientManager;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.smpclient.peppol.marshal.SMPMarshallerServiceGroupType;
+import com.helger.smpclient.peppol.marshal.SMPMarshallerServiceMetadataType;
+
+/**
+ * End-to-end load test driving the Peppol REST API of a running SMP. The
+ * operations are scheduled with a fixed rate independent of the response times
+ * of the server ("open model"), and the latencies are measured from the
+ * scheduled start. That way a server that falls behind shows up in the
+ * percentiles instead of silently lowering the request rate.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class SMPLoadTest
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPLoadTest.class);
+
+  // Consume the entity so that the connection can be reused
+  private static final HttpClientResponseHandler <Integer> STATUS_CODE_HANDLER = aResponse -> {
+    EntityUtils.consume (aResponse.getEntity ());
+    return Integer.valueOf (aResponse.getCode ());
+  };
+
+  private final SMPLoadTestSettings m_aSettings;
+  private final SMPLoadTestDataset m_aDataset;
+  private final String m_sAuthHeaderValue;
+  private final ICommonsList <ELoadTestOperation> m_aWeightedOperations = new CommonsArrayList <> ();
+
+  public SMPLoadTest (@Nonnull final SMPLoadTestSettings aSettings)
+  {
+    ValueEnforcer.notNull (aSettings, "Settings");
+    m_aSettings = aSettings;
+    m_aDataset = new SMPLoadTestDataset (aSettings.getParticipantCount (), aSettings.getSeed ());
+    m_sAuthHeaderValue = new BasicAuthClientCredentials (aSettings.getUserName (),
+                                                         aSettings.getPassword ()).getRequestValue ();
+    aSettings.getAllOperationWeights ().forEach ( (k, v) -> {
+      for (int i = 0; i < v.intValue (); ++i)
+        m_aWeightedOperations.add (k);
+    });
+    if (m_aWeightedOperations.isEmpty ())
+      throw new IllegalArgumentException ("At least one operation must have a weight > 0");
+  }
+
+  @Nonnull
+  public SMPLoadTestDataset getDataset ()
+  {
+    return m_aDataset;
+  }
+
+  @Nonnull
+  private String _getURL (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    return m_aSettings.getServerBaseURL () + "/" + aParticipantID.getURIPercentEncoded ();
+  }
+
+  @Nonnull
+  private String _getURL (@Nonnull final IParticipantIdentifier aParticipantID,
+                          @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    return _getURL (aParticipantID) + "/services/" + aDocTypeID.getURIPercentEncoded ();
+  }
+
+  private int _execute (@Nonnull final HttpClientManager aHttpClientMgr,
+                        @Nonnull final HttpUriRequestBase aRequest,
+                        final boolean bAuthenticate) throws IOException
+  {
+    if (bAuthenticate)
+      aRequest.setHeader (CHttpHeader.AUTHORIZATION, m_sAuthHeaderValue);
+    return aHttpClientMgr.execute (aRequest, STATUS_CODE_HANDLER).intValue ();
+  }
+
+  @Nonnull
+  private HttpPut _createServiceMetadataPut (@Nonnull final IParticipantIdentifier aParticipantID,
+                                             @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    final HttpPut aPut = new HttpPut (_getURL (aParticipantID, aDocTypeID));
+    final byte [] aBytes = new SMPMarshallerServiceMetadataType ().getAsBytes (SMPLoadTestDataset.createServiceMetadata (aParticipantID,
+                                                                                                                        aDocTypeID));
+    aPut.setEntity (new ByteArrayEntity (aBytes, ContentType.APPLICATION_XML));
+    return aPut;
+  }
+
+  private void _populateParticipant (@Nonnull final HttpClientManager aHttpClientMgr, @Nonnegative final int nIndex)
+  {
+    final IParticipantIdentifier aParticipantID = m_aDataset.getParticipantID (nIndex);
+    try
+    {
+      final HttpPut aPut = new HttpPut (_getURL (aParticipantID));
+      aPut.setEntity (new ByteArrayEntity (new SMPMarshallerServiceGroupType ().getAsBytes (SMPLoadTestDataset.createServiceGroup (aParticipantID)),
+                                           ContentType.APPLICATION_XML));
+      int nStatusCode = _execute (aHttpClientMgr, aPut, true);
+      if (nStatusCode != 200)
+        throw new IllegalStateException ("Failed to create service group '" +
+                                         aParticipantID.getURIEncoded () +
+                                         "': HTTP " +
+                                         nStatusCode);
+
+      for (final IDocumentTypeIdentifier aDocTypeID : m_aDataset.getAllDocumentTypeIDs (nIndex))
+      {
+        nStatusCode = _execute (aHttpClientMgr, _createServiceMetadataPut (aParticipantID, aDocTypeID), true);
+        if (nStatusCode != 200)
+          throw new IllegalStateException ("Failed to create service metadata '" +
+                                           aParticipantID.getURIEncoded () +
+                                           "' / '" +
+                                           aDocTypeID.getURIEncoded () +
+                                           "': HTTP " +
+                                           nStatusCode);
+      }
+    }
+    catch (final IOException ex)
+    {
+      throw new IllegalStateException ("Failed to populate participant '" + aParticipantID.getURIEncoded () + "'", ex);
+    }
+  }
+
+  private static void _checkFutures (@Nonnull final ICommonsList <Future <?>> aFutures,
+                                     @Nonnull @Nonempty final String sPhase) throws InterruptedException
+  {
+    final ICommonsList <Throwable> aErrors = new CommonsArrayList <> ();
+    for (final Future <?> aFuture : aFutures)
+    {
+      try
+      {
+        aFuture.get ();
+      }
+      catch (final ExecutionException ex)
+      {
+        aErrors.add (ex.getCause ());
+      }
+    }
+    if (aErrors.isNotEmpty ())
+    {
+      final IllegalStateException ex = new IllegalStateException (sPhase +
+                                                                  " failed in " +
+                                                                  aErrors.size () +
+                                                                  " of " +
+                                                                  aFutures.size () +
+                                                                  " threads",
+                                                                  aErrors.getFirst ());
+      aErrors.forEach (x -> {
+        if (x != ex.getCause ())
+          ex.addSuppressed (x);
+      });
+      throw ex;
+    }
+  }
+
+  /**
+   * Upload the complete data set to the server. Existing entries are
+   * overwritten.
+   *
+   * @param aHttpClientMgr
+   *        The HTTP client manager to use. May not be <code>null</code>.
+   * @throws InterruptedException
+   *         if the waiting was interrupted
+   * @throws IllegalStateException
+   *         if a participant could not be uploaded
+   */
+  public void populate (@Nonnull final HttpClientManager aHttpClientMgr) throws InterruptedException
+  {
+    LOGGER.info ("Populating " +
+                 m_aDataset.getParticipantCount () +
+                 " service groups with " +
+                 m_aDataset.getServiceMetadataCount () +
+                 " service metadata");
+    final StopWatch aSW = StopWatch.createdStarted ();
+    final AtomicLong aNextIndex = new AtomicLong (0);
+    final ExecutorService aES = Executors.newFixedThreadPool (m_aSettings.getThreadCount ());
+    final ICommonsList <Future <?>> aFutures = new CommonsArrayList <> ();
+    for (int i = 0; i < m_aSettings.getThreadCount (); ++i)
+      aFutures.add (aES.submit ( () -> {
+        int nIndex;
+        while ((nIndex = (int) aNextIndex.getAndIncrement ()) < m_aDataset.getParticipantCount ())
+        {
+          _populateParticipant (aHttpClientMgr, nIndex);
+          if ((nIndex + 1) % 1_000 == 0)
+            LOGGER.info ("Populated " + (nIndex + 1) + " service groups");
+        }
+      }));
+    aES.shutdown ();
+    aES.awaitTermination (1, TimeUnit.DAYS);
+    _checkFutures (aFutures, "Populating the data set");
+    aSW.stop ();
+    LOGGER.info ("Populating the data set took " + aSW.getDuration ());
+  }
+
+  private void _executeOperation (@Nonnull final HttpClientManager aHttpClientMgr,
+                                  @Nonnull final ELoadTestOperation eOperation,
+                                  @Nonnull final Random aRandom,
+                                  final long nScheduledNanos,
+                                  final boolean bMeasure,
+                                  @Nonnull final SMPLoadTestResult aResult)
+  {
+    final int nParticipantIndex = aRandom.nextInt (m_aDataset.getParticipantCount ());
+    final IParticipantIdentifier aParticipantID = m_aDataset.getParticipantID (nParticipantIndex);
+    int nStatusCode;
+    try
+    {
+      switch (eOperation)
+      {
+        case SERVICE_GROUP_GET:
+          nStatusCode = _execute (aHttpClientMgr, new HttpGet (_getURL (aParticipantID)), false);
+          break;
+        case SERVICE_METADATA_GET:
+          nStatusCode = _execute (aHttpClientMgr,
+                                  new HttpGet (_getURL (aParticipantID,
+                                                        m_aDataset.getRandomDocumentTypeID (nParticipantIndex, aRandom))),
+                                  false);
+          break;
+        case SERVICE_METADATA_PUT:
+          nStatusCode = _execute (aHttpClientMgr,
+                                  _createServiceMetadataPut (aParticipantID,
+                                                             SMPLoadTestDataset.getRandomKnownDocumentTypeID (aRandom)),
+                                  true);
+          break;
+        case SERVICE_METADATA_DELETE:
+          nStatusCode = _execute (aHttpClientMgr,
+                                  new HttpDelete (_getURL (aParticipantID,
+                                                           m_aDataset.getRandomDocumentTypeID (nParticipantIndex, aRandom))),
+                                  true);
+          break;
+        default:
+          throw new IllegalStateException ("Unsupported operation " + eOperation);
+      }
+      if (nStatusCode != 200 && LOGGER.isDebugEnabled ())
+        LOGGER.debug (eOperation.getID () + " for '" + aParticipantID.getURIEncoded () + "' returned HTTP " + nStatusCode);
+    }
+    catch (final IOException ex)
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug (eOperation.getID () + " for '" + aParticipantID.getURIEncoded () + "' failed", ex);
+      nStatusCode = -1;
+    }
+
+    if (bMeasure)
+    {
+      if (nStatusCode == 200)
+        aResult.recordSuccess (eOperation, System.nanoTime () - nScheduledNanos);
+      else
+        if (nStatusCode == 404 &&
+            (eOperation == ELoadTestOperation.SERVICE_METADATA_GET ||
+             eOperation == ELoadTestOperation.SERVICE_METADATA_DELETE))
+        {
+          // The service metadata may have been deleted in the meantime
+          aResult.recordNotFound (eOperation);
+        }
+        else
+          aResult.recordError (eOperation);
+    }
+  }
+
+  /**
+   * Run the load test against the server. If configured, the data set is
+   * uploaded first.
+   *
+   * @return The result of the measurement phase. Never <code>null</code>.
+   * @throws InterruptedException
+   *         if the waiting was interrupted
+   * @throws IllegalStateException
+   *         if populating the data set or executing the operations failed
+   */
+  @Nonnull
+  public SMPLoadTestResult run () throws InterruptedException
+  {
+    LOGGER.info ("Starting SMP load test with " + m_aSettings);
+
+    final SMPLoadTestResult aResult = new SMPLoadTestResult ();
+    final HttpClientManager aHttpClientMgr = new HttpClientManager ();
+    try
+    {
+      if (m_aSettings.isPopulate ())
+        populate (aHttpClientMgr);
+
+      final int nRate = m_aSettings.getTargetRatePerSecond ();
+      final long nIntervalNanos = TimeUnit.SECONDS.toNanos (1) / nRate;
+      final long nWarmupOperations = (long) m_aSettings.getWarmupSeconds () * nRate;
+      final long nTotalOperations = nWarmupOperations + (long) m_aSettings.getDurationSeconds () * nRate;
+      final long nSeed = m_aSettings.getSeed ();
+      final AtomicLong aNextTicket = new AtomicLong (0);
+
+      LOGGER.info ("Executing " + nTotalOperations + " operations at " + nRate + " requests per second");
+      final long nStartNanos = System.nanoTime ();
+      final long nMeasureStartNanos = nStartNanos + nWarmupOperations * nIntervalNanos;
+      final ExecutorService aES = Executors.newFixedThreadPool (m_aSettings.getThreadCount ());
+      final ICommonsList <Future <?>> aFutures = new CommonsArrayList <> ();
+      for (int i = 0; i < m_aSettings.getThreadCount (); ++i)
+        aFutures.add (aES.submit ( () -> {
+          long nTicket;
+          while ((nTicket = aNextTicket.getAndIncrement ()) < nTotalOperations)
+          {
+            final long nScheduledNanos = nStartNanos + nTicket * nIntervalNanos;
+            final long nWaitNanos = nScheduledNanos - System.nanoTime ();
+            if (nWaitNanos > 0)
+              LockSupport.parkNanos (nWaitNanos);
+
+            // The same ticket always results in the same operation,
+            // independent of the thread executing it
+            final Random aRandom = new Random (nSeed * 31 + nTicket);
+            final ELoadTestOperation eOperation = m_aWeightedOperations.get (aRandom.nextInt (m_aWeightedOperations.size ()));
+            _executeOperation (aHttpClientMgr,
+                               eOperation,
+                               aRandom,
+                               nScheduledNanos,
+                               nTicket >= nWarmupOperations,
+                               aResult);
+          }
+        }));
+      aES.shutdown ();
+      aES.awaitTermination (1, TimeUnit.DAYS);
+      _checkFutures (aFutures, "Executing the operations");
+      aResult.setDurationNanos (System.nanoTime () - nMeasureStartNanos);
+    }
+    finally
+    {
+      StreamHelper.close (aHttpClientMgr);
+    }
+
+    LOGGER.info ("SMP load test results:\n" + aResult.getAsText ());
+    return aResult;
+  }
+
+  /**
+   * Wait until the server at the provided URL responds to HTTP requests.
+   *
+   * @param sURL
+   *        The URL to query. May neither be <code>null</code> nor empty.
+   * @param nTimeoutSeconds
+   *        The maximum number of seconds to wait.
+   * @throws InterruptedException
+   *         if the waiting was interrupted
+   * @throws IllegalStateException
+   *         if the server did not respond within the timeout
+   */
+  public static void waitForServer (@Nonnull @Nonempty final String sURL,
+                                    @Nonnegative final int nTimeoutSeconds) throws InterruptedException
+  {
+    final long nEndNanos = System.nanoTime () + TimeUnit.SECONDS.toNanos (nTimeoutSeconds);
+    final HttpClientManager aHttpClientMgr = new HttpClientManager ();
+    try
+    {
+      while (true)
+      {
+        try
+        {
+          final int nStatusCode = aHttpClientMgr.execute (new HttpGet (sURL), STATUS_CODE_HANDLER).intValue ();
+          LOGGER.info ("Server at '" + sURL + "' is up - HTTP " + nStatusCode);
+          return;
+        }
+        catch (final IOException ex)
+        {
+          // Not yet up
+        }
+        if (System.nanoTime () > nEndNanos)
+          throw new IllegalStateException ("Server at '" + sURL + "' did not start within " + nTimeoutSeconds + " seconds");
+        Thread.sleep (500);
+      }
+    }
+    finally
+    {
+      StreamHelper.close (aHttpClientMgr);
+    }
+  }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.loadtest;
+
+import java.util.Random;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.string.StringHelper;
+import com.helger.peppol.smp.ESMPTransportProfile;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.peppolid.peppol.doctype.EPredefinedDocumentTypeIdentifier;
+import com.helger.peppolid.peppol.process.EPredefinedProcessIdentifier;
+import com.helger.peppolid.simple.doctype.SimpleDocumentTypeIdentifier;
+import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
+import com.helger.peppolid.simple.process.SimpleProcessIdentifier;
+import com.helger.smpclient.peppol.utils.W3CEndpointReferenceHelper;
+import com.helger.xsds.peppol.smp1.EndpointType;
+import com.helger.xsds.peppol.smp1.ProcessListType;
+import com.helger.xsds.peppol.smp1.ProcessType;
+import com.helger.xsds.peppol.smp1.ServiceEndpointList;
+import com.helger.xsds.peppol.smp1.ServiceGroupType;
+import com.helger.xsds.peppol.smp1.ServiceInformationType;
+import com.helger.xsds.peppol.smp1.ServiceMetadataReferenceCollectionType;
+import com.helger.xsds.peppol.smp1.ServiceMetadataType;
+
+/**
+ * The synthetic data set of the load test. For each participant the supported
+ * document types are randomly chosen based on the probability of the
+ * respective document type, so that the data set resembles the structure of a
+ * productive Peppol SMP. The same participant count and seed always result in
+ * the same data set.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class SMPLoadTestDataset
+{
+  private static final class DocTypeProbability
+  {
+    private final IDocumentTypeIdentifier m_aDocTypeID;
+    private final double m_dProbability;
+
+    DocTypeProbability (@Nonnull final EPredefinedDocumentTypeIdentifier eDocTypeID, final double dProbability)
+    {
+      m_aDocTypeID = new SimpleDocumentTypeIdentifier (eDocTypeID.getAsDocumentTypeIdentifier ());
+      m_dProbability = dProbability;
+    }
+  }
+
+  // Rough distribution of a productive Peppol SMP - nearly everybody can
+  // receive invoices, only some receive national CIUS documents
+  private static final DocTypeProbability [] DOC_TYPES = { new DocTypeProbability (EPredefinedDocumentTypeIdentifier.INVOICE_EN16931_PEPPOL_V30,
+                                                                                   0.97),
+                                                           new DocTypeProbability (EPredefinedDocumentTypeIdentifier.CREDITNOTE_EN16931_PEPPOL_V30,
+                                                                                   0.90),
+                                                           new DocTypeProbability (EPredefinedDocumentTypeIdentifier.CROSSINDUSTRYINVOICE_CEN_EU_EN16931_2017,
+                                                                                   0.15),
+                                                           new DocTypeProbability (EPredefinedDocumentTypeIdentifier.XRECHNUNG_INVOICE_UBL_V20,
+                                                                                   0.25),
+                                                           new DocTypeProbability (EPredefinedDocumentTypeIdentifier.XRECHNUNG_CREDIT_NOTE_UBL_V20,
+                                                                                   0.20),
+                                                           new DocTypeProbability (EPredefinedDocumentTypeIdentifier.XRECHNUNG_INVOICE_CII_V202,
+                                                                                   0.20) };
+
+  private final ICommonsList <IParticipantIdentifier> m_aParticipantIDs;
+  private final ICommonsList <ICommonsList <IDocumentTypeIdentifier>> m_aDocTypeIDs;
+  private final int m_nServiceMetadataCount;
+
+  /**
+   * Constructor
+   *
+   * @param nParticipantCount
+   *        The number of participants to create. Must be &gt; 0.
+   * @param nSeed
+   *        The random seed to use.
+   */
+  public SMPLoadTestDataset (@Nonnegative final int nParticipantCount, final long nSeed)
+  {
+    ValueEnforcer.isGT0 (nParticipantCount, "ParticipantCount");
+
+    final Random aRandom = new Random (nSeed);
+    m_aParticipantIDs = new CommonsArrayList <> (nParticipantCount);
+    m_aDocTypeIDs = new CommonsArrayList <> (nParticipantCount);
+    int nServiceMetadataCount = 0;
+    for (int i = 0; i < nParticipantCount; ++i)
+    {
+      m_aParticipantIDs.add (PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9915:loadtest-" +
+                                                                                                           StringHelper.getLeadingZero (i,
+                                                                                                                                        7)));
+      final ICommonsList <IDocumentTypeIdentifier> aDocTypeIDs = new CommonsArrayList <> ();
+      for (final DocTypeProbability aDTP : DOC_TYPES)
+        if (aRandom.nextDouble () < aDTP.m_dProbability)
+          aDocTypeIDs.add (aDTP.m_aDocTypeID);
+      if (aDocTypeIDs.isEmpty ())
+      {
+        // Each participant must be able to receive at least something
+        aDocTypeIDs.add (DOC_TYPES[0].m_aDocTypeID);
+      }
+      m_aDocTypeIDs.add (aDocTypeIDs);
+      nServiceMetadataCount += aDocTypeIDs.size ();
+    }
+    m_nServiceMetadataCount = nServiceMetadataCount;
+  }
+
+  /**
+   * @return The number of participants in this data set. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getParticipantCount ()
+  {
+    return m_aParticipantIDs.size ();
+  }
+
+  /**
+   * @return The overall number of service metadata in this data set. Always
+   *         &gt; 0.
+   */
+  @Nonnegative
+  public int getServiceMetadataCount ()
+  {
+    return m_nServiceMetadataCount;
+  }
+
+  @Nonnull
+  public IParticipantIdentifier getParticipantID (@Nonnegative final int nIndex)
+  {
+    return m_aParticipantIDs.get (nIndex);
+  }
+
+  /**
+   * @param nIndex
+   *        The participant index.
+   * @return The document types initially registered for the participant.
+   *         Never <code>null</code> nor empty.
+   */
+  @Nonnull
+  @Nonempty
+  @ReturnsMutableCopy
+  public ICommonsList <IDocumentTypeIdentifier> getAllDocumentTypeIDs (@Nonnegative final int nIndex)
+  {
+    return m_aDocTypeIDs.get (nIndex).getClone ();
+  }
+
+  /**
+   * @param nIndex
+   *        The participant index.
+   * @param aRandom
+   *        The random to use. May not be <code>null</code>.
+   * @return A random document type initially registered for the participant.
+   */
+  @Nonnull
+  public IDocumentTypeIdentifier getRandomDocumentTypeID (@Nonnegative final int nIndex, @Nonnull final Random aRandom)
+  {
+    final ICommonsList <IDocumentTypeIdentifier> aDocTypeIDs = m_aDocTypeIDs.get (nIndex);
+    return aDocTypeIDs.get (aRandom.nextInt (aDocTypeIDs.size ()));
+  }
+
+  /**
+   * @param aRandom
+   *        The random to use. May not be <code>null</code>.
+   * @return A random document type out of all document types that may be
+   *         used in the data set.
+   */
+  @Nonnull
+  public static IDocumentTypeIdentifier getRandomKnownDocumentTypeID (@Nonnull final Random aRandom)
+  {
+    return DOC_TYPES[aRandom.nextInt (DOC_TYPES.length)].m_aDocTypeID;
+  }
+
+  @Nonnull
+  public static ServiceGroupType createServiceGroup (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    final ServiceGroupType ret = new ServiceGroupType ();
+    ret.setParticipantIdentifier (new SimpleParticipantIdentifier (aParticipantID));
+    ret.setServiceMetadataReferenceCollection (new ServiceMetadataReferenceCollectionType ());
+    return ret;
+  }
+
+  @Nonnull
+  public static ServiceMetadataType createServiceMetadata (@Nonnull final IParticipantIdentifier aParticipantID,
+                                                           @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    final EndpointType aEndpoint = new EndpointType ();
+    aEndpoint.setEndpointReference (W3CEndpointReferenceHelper.createEndpointReference ("https://ap.loadtest.example.org/as4"));
+    aEndpoint.setRequireBusinessLevelSignature (false);
+    aEndpoint.setCertificate ("loadtest-certificate");
+    aEndpoint.setServiceDescription ("Load test service");
+    aEndpoint.setTechnicalContactUrl ("https://github.com/phax/phoss-smp");
+    aEndpoint.setTransportProfile (ESMPTransportProfile.TRANSPORT_PROFILE_PEPPOL_AS4_V2.getID ());
+
+    final ServiceEndpointList aSEL = new ServiceEndpointList ();
+    aSEL.addEndpoint (aEndpoint);
+
+    final ProcessType aProcess = new ProcessType ();
+    aProcess.setProcessIdentifier (new SimpleProcessIdentifier (EPredefinedProcessIdentifier.BIS3_BILLING.getAsProcessIdentifier ()));
+    aProcess.setServiceEndpointList (aSEL);
+
+    final ProcessListType aPL = new ProcessListType ();
+    aPL.addProcess (aProcess);
+
+    final ServiceInformationType aSI = new ServiceInformationType ();
+    aSI.setParticipantIdentifier (new SimpleParticipantIdentifier (aParticipantID));
+    aSI.setDocumentIdentifier (new SimpleDocumentTypeIdentifier (aDocTypeID));
+    aSI.setProcessList (aPL);
+
+    final ServiceMetadataType ret = new ServiceMetadataType ();
+    ret.setServiceInformation (aSI);
+    return ret;
+  }
+}
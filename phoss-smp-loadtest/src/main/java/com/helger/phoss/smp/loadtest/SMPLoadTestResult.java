@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.loadtest;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.phoss.smp.statistics.SMPLatencyHistogram;
+
+/**
+ * The result of a load test run, with the latency histogram, the "not found"
+ * count and the error count per operation.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPLoadTestResult
+{
+  private final Map <ELoadTestOperation, SMPLatencyHistogram> m_aHistograms = new EnumMap <> (ELoadTestOperation.class);
+  private final Map <ELoadTestOperation, AtomicLong> m_aNotFound = new EnumMap <> (ELoadTestOperation.class);
+  private final Map <ELoadTestOperation, AtomicLong> m_aErrors = new EnumMap <> (ELoadTestOperation.class);
+  private final AtomicLong m_aDurationNanos = new AtomicLong (0);
+
+  public SMPLoadTestResult ()
+  {
+    // The maps are never modified afterwards
+    for (final ELoadTestOperation e : ELoadTestOperation.values ())
+    {
+      m_aHistograms.put (e, new SMPLatencyHistogram ());
+      m_aNotFound.put (e, new AtomicLong (0));
+      m_aErrors.put (e, new AtomicLong (0));
+    }
+  }
+
+  void recordSuccess (@Nonnull final ELoadTestOperation eOperation, final long nDurationNanos)
+  {
+    m_aHistograms.get (eOperation).record (nDurationNanos);
+  }
+
+  void recordNotFound (@Nonnull final ELoadTestOperation eOperation)
+  {
+    m_aNotFound.get (eOperation).incrementAndGet ();
+  }
+
+  void recordError (@Nonnull final ELoadTestOperation eOperation)
+  {
+    m_aErrors.get (eOperation).incrementAndGet ();
+  }
+
+  void setDurationNanos (final long nDurationNanos)
+  {
+    m_aDurationNanos.set (nDurationNanos);
+  }
+
+  /**
+   * @return The duration of the measurement phase in nanoseconds.
+   */
+  public long getDurationNanos ()
+  {
+    return m_aDurationNanos.get ();
+  }
+
+  /**
+   * @param eOperation
+   *        The operation to query. May not be <code>null</code>.
+   * @return The latency histogram of the successful executions of the
+   *         operation. Never <code>null</code>.
+   */
+  @Nonnull
+  public SMPLatencyHistogram getHistogram (@Nonnull final ELoadTestOperation eOperation)
+  {
+    return m_aHistograms.get (eOperation);
+  }
+
+  @Nonnegative
+  public long getSuccessCount (@Nonnull final ELoadTestOperation eOperation)
+  {
+    return m_aHistograms.get (eOperation).getCount ();
+  }
+
+  /**
+   * @param eOperation
+   *        The operation to query. May not be <code>null</code>.
+   * @return The number of executions of the operation that returned HTTP 404,
+   *         because the random target was deleted before. These are neither
+   *         successes nor errors.
+   */
+  @Nonnegative
+  public long getNotFoundCount (@Nonnull final ELoadTestOperation eOperation)
+  {
+    return m_aNotFound.get (eOperation).get ();
+  }
+
+  @Nonnegative
+  public long getErrorCount (@Nonnull final ELoadTestOperation eOperation)
+  {
+    return m_aErrors.get (eOperation).get ();
+  }
+
+  /**
+   * @param eOperation
+   *        The operation to query. May not be <code>null</code>.
+   * @return The number of successful executions of the operation per second.
+   */
+  public double getThroughputPerSecond (@Nonnull final ELoadTestOperation eOperation)
+  {
+    final long nDurationNanos = getDurationNanos ();
+    if (nDurationNanos <= 0)
+      return 0;
+    return getSuccessCount (eOperation) * (double) TimeUnit.SECONDS.toNanos (1) / nDurationNanos;
+  }
+
+  private static String _ms (final long nNanos)
+  {
+    return String.format (Locale.US, "%.2f", Double.valueOf (nNanos / (double) TimeUnit.MILLISECONDS.toNanos (1)));
+  }
+
+  /**
+   * @return A human readable table with one row per operation. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public String getAsText ()
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    aSB.append (String.format (Locale.US,
+                               "%-10s %10s %8s %8s %10s %10s %10s %10s %10s %10s%n",
+                               "operation",
+                               "count",
+                               "404",
+                               "errors",
+                               "req/s",
+                               "p50 ms",
+                               "p90 ms",
+                               "p99 ms",
+                               "p99.9 ms",
+                               "max ms"));
+    for (final ELoadTestOperation e : ELoadTestOperation.values ())
+    {
+      final SMPLatencyHistogram aHistogram = getHistogram (e);
+      aSB.append (String.format (Locale.US,
+                                 "%-10s %10d %8d %8d %10.1f %10s %10s %10s %10s %10s%n",
+                                 e.getID (),
+                                 Long.valueOf (aHistogram.getCount ()),
+                                 Long.valueOf (getNotFoundCount (e)),
+                                 Long.valueOf (getErrorCount (e)),
+                                 Double.valueOf (getThroughputPerSecond (e)),
+                                 _ms (aHistogram.getQuantileNanos (0.5)),
+                                 _ms (aHistogram.getQuantileNanos (0.9)),
+                                 _ms (aHistogram.getQuantileNanos (0.99)),
+                                 _ms (aHistogram.getQuantileNanos (0.999)),
+                                 _ms (aHistogram.getMaxNanos ())));
+    }
+    return aSB.toString ();
+  }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.loadtest;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsLinkedHashMap;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.StringParser;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.commons.system.SystemProperties;
+import com.helger.photon.security.CSecurity;
+
+/**
+ * The settings for a single load test run. Use
+ * {@link #createFromSystemProperties()} to allow overriding the defaults via
+ * <code>-Dsmp.loadtest.*</code> system properties.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+public class SMPLoadTestSettings
+{
+  public static final String SYSTEM_PROPERTY_PREFIX = "smp.loadtest.";
+
+  public static final String DEFAULT_SERVER_BASE_URL = "http://localhost:90";
+  public static final int DEFAULT_PARTICIPANT_COUNT = 1_000;
+  public static final long DEFAULT_SEED = 20231201L;
+  public static final boolean DEFAULT_POPULATE = true;
+  public static final int DEFAULT_TARGET_RATE_PER_SECOND = 200;
+  public static final int DEFAULT_WARMUP_SECONDS = 10;
+  public static final int DEFAULT_DURATION_SECONDS = 60;
+  public static final int DEFAULT_THREAD_COUNT = 32;
+
+  private String m_sServerBaseURL = DEFAULT_SERVER_BASE_URL;
+  private String m_sUserName = CSecurity.USER_ADMINISTRATOR_EMAIL;
+  private String m_sPassword = CSecurity.USER_ADMINISTRATOR_PASSWORD;
+  private int m_nParticipantCount = DEFAULT_PARTICIPANT_COUNT;
+  private long m_nSeed = DEFAULT_SEED;
+  private boolean m_bPopulate = DEFAULT_POPULATE;
+  private int m_nTargetRatePerSecond = DEFAULT_TARGET_RATE_PER_SECOND;
+  private int m_nWarmupSeconds = DEFAULT_WARMUP_SECONDS;
+  private int m_nDurationSeconds = DEFAULT_DURATION_SECONDS;
+  private int m_nThreadCount = DEFAULT_THREAD_COUNT;
+  private final ICommonsOrderedMap <ELoadTestOperation, Integer> m_aOperationWeights = new CommonsLinkedHashMap <> ();
+
+  public SMPLoadTestSettings ()
+  {
+    // A read heavy mix as seen on productive SMPs
+    m_aOperationWeights.put (ELoadTestOperation.SERVICE_GROUP_GET, Integer.valueOf (30));
+    m_aOperationWeights.put (ELoadTestOperation.SERVICE_METADATA_GET, Integer.valueOf (60));
+    m_aOperationWeights.put (ELoadTestOperation.SERVICE_METADATA_PUT, Integer.valueOf (7));
+    m_aOperationWeights.put (ELoadTestOperation.SERVICE_METADATA_DELETE, Integer.valueOf (3));
+  }
+
+  @Nonnull
+  @Nonempty
+  public final String getServerBaseURL ()
+  {
+    return m_sServerBaseURL;
+  }
+
+  @Nonnull
+  public final SMPLoadTestSettings setServerBaseURL (@Nonnull @Nonempty final String sServerBaseURL)
+  {
+    ValueEnforcer.notEmpty (sServerBaseURL, "ServerBaseURL");
+    // Avoid double slashes when building the URLs
+    m_sServerBaseURL = StringHelper.trimEnd (sServerBaseURL, '/');
+    return this;
+  }
+
+  @Nonnull
+  @Nonempty
+  public final String getUserName ()
+  {
+    return m_sUserName;
+  }
+
+  @Nonnull
+  public final String getPassword ()
+  {
+    return m_sPassword;
+  }
+
+  @Nonnull
+  public final SMPLoadTestSettings setCredentials (@Nonnull @Nonempty final String sUserName,
+                                                   @Nonnull final String sPassword)
+  {
+    ValueEnforcer.notEmpty (sUserName, "UserName");
+    ValueEnforcer.notNull (sPassword, "Password");
+    m_sUserName = sUserName;
+    m_sPassword = sPassword;
+    return this;
+  }
+
+  /**
+   * @return The number of synthetic participants in the data set. Always &gt;
+   *         0.
+   */
+  @Nonnegative
+  public final int getParticipantCount ()
+  {
+    return m_nParticipantCount;
+  }
+
+  @Nonnull
+  public final SMPLoadTestSettings setParticipantCount (@Nonnegative final int nParticipantCount)
+  {
+    ValueEnforcer.isGT0 (nParticipantCount, "ParticipantCount");
+    m_nParticipantCount = nParticipantCount;
+    return this;
+  }
+
+  /**
+   * @return The random seed used to create the data set and the operation
+   *         sequence. Using the same seed makes runs reproducible.
+   */
+  public final long getSeed ()
+  {
+    return m_nSeed;
+  }
+
+  @Nonnull
+  public final SMPLoadTestSettings setSeed (final long nSeed)
+  {
+    m_nSeed = nSeed;
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if the data set should be uploaded to the server
+   *         before the test starts, <code>false</code> if it is already
+   *         present from a previous run.
+   */
+  public final boolean isPopulate ()
+  {
+    return m_bPopulate;
+  }
+
+  @Nonnull
+  public final SMPLoadTestSettings setPopulate (final boolean bPopulate)
+  {
+    m_bPopulate = bPopulate;
+    return this;
+  }
+
+  @Nonnegative
+  public final int getTargetRatePerSecond ()
+  {
+    return m_nTargetRatePerSecond;
+  }
+
+  @Nonnull
+  public final SMPLoadTestSettings setTargetRatePerSecond (@Nonnegative final int nTargetRatePerSecond)
+  {
+    ValueEnforcer.isGT0 (nTargetRatePerSecond, "TargetRatePerSecond");
+    m_nTargetRatePerSecond = nTargetRatePerSecond;
+    return this;
+  }
+
+  /**
+   * @return The number of seconds the load is applied before the measurement
+   *         starts. Always &ge; 0.
+   */
+  @Nonnegative
+  public final int getWarmupSeconds ()
+  {
+    return m_nWarmupSeconds;
+  }
+
+  @Nonnull
+  public final SMPLoadTestSettings setWarmupSeconds (@Nonnegative final int nWarmupSeconds)
+  {
+    ValueEnforcer.isGE0 (nWarmupSeconds, "WarmupSeconds");
+    m_nWarmupSeconds = nWarmupSeconds;
+    return this;
+  }
+
+  @Nonnegative
+  public final int getDurationSeconds ()
+  {
+    return m_nDurationSeconds;
+  }
+
+  @Nonnull
+  public final SMPLoadTestSettings setDurationSeconds (@Nonnegative final int nDurationSeconds)
+  {
+    ValueEnforcer.isGT0 (nDurationSeconds, "DurationSeconds");
+    m_nDurationSeconds = nDurationSeconds;
+    return this;
+  }
+
+  /**
+   * @return The maximum number of concurrently executed requests. If the
+   *         server is too slow to handle the target rate with this number of
+   *         threads, the latencies will grow accordingly.
+   */
+  @Nonnegative
+  public final int getThreadCount ()
+  {
+    return m_nThreadCount;
+  }
+
+  @Nonnull
+  public final SMPLoadTestSettings setThreadCount (@Nonnegative final int nThreadCount)
+  {
+    ValueEnforcer.isGT0 (nThreadCount, "ThreadCount");
+    m_nThreadCount = nThreadCount;
+    return this;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public final ICommonsOrderedMap <ELoadTestOperation, Integer> getAllOperationWeights ()
+  {
+    return m_aOperationWeights.getClone ();
+  }
+
+  /**
+   * Set the relative weight of an operation in the mix.
+   *
+   * @param eOperation
+   *        Operation to set. May not be <code>null</code>.
+   * @param nWeight
+   *        The relative weight. Use 0 to disable the operation.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final SMPLoadTestSettings setOperationWeight (@Nonnull final ELoadTestOperation eOperation,
+                                                       @Nonnegative final int nWeight)
+  {
+    ValueEnforcer.notNull (eOperation, "Operation");
+    ValueEnforcer.isGE0 (nWeight, "Weight");
+    m_aOperationWeights.put (eOperation, Integer.valueOf (nWeight));
+    return this;
+  }
+
+  /**
+   * Set the operation mix from a string like
+   * <code>sg-get=30,sm-get=60,sm-put=7,sm-delete=3</code>. Operations not
+   * contained in the string are disabled.
+   *
+   * @param sMix
+   *        The mix to parse. May not be <code>null</code>.
+   * @return this for chaining
+   * @throws IllegalArgumentException
+   *         if the mix contains an unknown operation or an invalid weight
+   */
+  @Nonnull
+  public final SMPLoadTestSettings setOperationMix (@Nonnull final String sMix)
+  {
+    ValueEnforcer.notNull (sMix, "Mix");
+    for (final ELoadTestOperation e : ELoadTestOperation.values ())
+      m_aOperationWeights.put (e, Integer.valueOf (0));
+
+    for (final String sPart : StringHelper.getExploded (',', sMix))
+    {
+      final String sTrimmedPart = sPart.trim ();
+      if (sTrimmedPart.isEmpty ())
+        continue;
+      final ICommonsList <String> aKeyValue = StringHelper.getExploded ('=', sTrimmedPart, 2);
+      final String sOperationID = aKeyValue.getFirst ().trim ();
+      final ELoadTestOperation eOperation = ELoadTestOperation.getFromIDOrNull (sOperationID);
+      if (eOperation == null)
+        throw new IllegalArgumentException ("Unknown load test operation '" + sOperationID + "'");
+      final int nWeight = aKeyValue.size () == 2 ? StringParser.parseInt (aKeyValue.getLast ().trim (), -1) : -1;
+      if (nWeight < 0)
+        throw new IllegalArgumentException ("Invalid weight for load test operation '" + sOperationID + "'");
+      m_aOperationWeights.put (eOperation, Integer.valueOf (nWeight));
+    }
+    return this;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("ServerBaseURL", m_sServerBaseURL)
+                                       .append ("UserName", m_sUserName)
+                                       .append ("ParticipantCount", m_nParticipantCount)
+                                       .append ("Seed", m_nSeed)
+                                       .append ("Populate", m_bPopulate)
+                                       .append ("TargetRatePerSecond", m_nTargetRatePerSecond)
+                                       .append ("WarmupSeconds", m_nWarmupSeconds)
+                                       .append ("DurationSeconds", m_nDurationSeconds)
+                                       .append ("ThreadCount", m_nThreadCount)
+                                       .append ("OperationWeights", m_aOperationWeights)
+                                       .getToString ();
+  }
+
+  /**
+   * Create the default settings and apply all
+   * <code>-Dsmp.loadtest.*</code> system properties that are present.
+   *
+   * @return The new settings. Never <code>null</code>.
+   */
+  @Nonnull
+  public static SMPLoadTestSettings createFromSystemProperties ()
+  {
+    final SMPLoadTestSettings ret = new SMPLoadTestSettings ();
+
+    String s = SystemProperties.getPropertyValueOrNull (SYSTEM_PROPERTY_PREFIX + "url");
+    if (StringHelper.hasText (s))
+      ret.setServerBaseURL (s);
+
+    s = SystemProperties.getPropertyValueOrNull (SYSTEM_PROPERTY_PREFIX + "participants");
+    if (StringHelper.hasText (s))
+      ret.setParticipantCount (StringParser.parseInt (s, DEFAULT_PARTICIPANT_COUNT));
+
+    s = SystemProperties.getPropertyValueOrNull (SYSTEM_PROPERTY_PREFIX + "seed");
+    if (StringHelper.hasText (s))
+      ret.setSeed (StringParser.parseLong (s, DEFAULT_SEED));
+
+    s = SystemProperties.getPropertyValueOrNull (SYSTEM_PROPERTY_PREFIX + "populate");
+    if (StringHelper.hasText (s))
+      ret.setPopulate (StringParser.parseBool (s, DEFAULT_POPULATE));
+
+    s = SystemProperties.getPropertyValueOrNull (SYSTEM_PROPERTY_PREFIX + "rate");
+    if (StringHelper.hasText (s))
+      ret.setTargetRatePerSecond (StringParser.parseInt (s, DEFAULT_TARGET_RATE_PER_SECOND));
+
+    s = SystemProperties.getPropertyValueOrNull (SYSTEM_PROPERTY_PREFIX + "warmup");
+    if (StringHelper.hasText (s))
+      ret.setWarmupSeconds (StringParser.parseInt (s, DEFAULT_WARMUP_SECONDS));
+
+    s = SystemProperties.getPropertyValueOrNull (SYSTEM_PROPERTY_PREFIX + "duration");
+    if (StringHelper.hasText (s))
+      ret.setDurationSeconds (StringParser.parseInt (s, DEFAULT_DURATION_SECONDS));
+
+    s = SystemProperties.getPropertyValueOrNull (SYSTEM_PROPERTY_PREFIX + "threads");
+    if (StringHelper.hasText (s))
+      ret.setThreadCount (StringParser.parseInt (s, DEFAULT_THREAD_COUNT));
+
+    s = SystemProperties.getPropertyValueOrNull (SYSTEM_PROPERTY_PREFIX + "mix");
+    if (StringHelper.hasText (s))
+      ret.setOperationMix (s);
+
+    return ret;
+  }
+}
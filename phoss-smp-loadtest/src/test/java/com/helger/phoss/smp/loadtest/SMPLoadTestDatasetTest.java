@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.loadtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.peppolid.peppol.doctype.EPredefinedDocumentTypeIdentifier;
+import com.helger.peppolid.simple.doctype.SimpleDocumentTypeIdentifier;
+
+/**
+ * Test class for class {@link SMPLoadTestDataset}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPLoadTestDatasetTest
+{
+  @Test
+  public void testReproducible ()
+  {
+    final SMPLoadTestDataset aDS1 = new SMPLoadTestDataset (1000, 4711);
+    final SMPLoadTestDataset aDS2 = new SMPLoadTestDataset (1000, 4711);
+    assertEquals (1000, aDS1.getParticipantCount ());
+    assertEquals (aDS1.getServiceMetadataCount (), aDS2.getServiceMetadataCount ());
+    for (int i = 0; i < aDS1.getParticipantCount (); ++i)
+    {
+      assertEquals (aDS1.getParticipantID (i), aDS2.getParticipantID (i));
+      assertEquals (aDS1.getAllDocumentTypeIDs (i), aDS2.getAllDocumentTypeIDs (i));
+    }
+  }
+
+  @Test
+  public void testDistribution ()
+  {
+    final SMPLoadTestDataset aDS = new SMPLoadTestDataset (10_000, 4711);
+    final SimpleDocumentTypeIdentifier aInvoice = new SimpleDocumentTypeIdentifier (EPredefinedDocumentTypeIdentifier.INVOICE_EN16931_PEPPOL_V30.getAsDocumentTypeIdentifier ());
+    int nInvoice = 0;
+    for (int i = 0; i < aDS.getParticipantCount (); ++i)
+    {
+      assertFalse (aDS.getAllDocumentTypeIDs (i).isEmpty ());
+      if (aDS.getAllDocumentTypeIDs (i).contains (aInvoice))
+        nInvoice++;
+    }
+    // Nearly all participants support invoices
+    assertTrue (nInvoice > 9_500);
+    // But not all document types
+    assertTrue (aDS.getServiceMetadataCount () < 6 * aDS.getParticipantCount ());
+    assertTrue (aDS.getServiceMetadataCount () > 2 * aDS.getParticipantCount ());
+  }
+
+  @Test
+  public void testOperationMix ()
+  {
+    final SMPLoadTestSettings aSettings = new SMPLoadTestSettings ().setOperationMix ("sg-get=1, sm-put=2");
+    assertEquals (1, aSettings.getAllOperationWeights ().get (ELoadTestOperation.SERVICE_GROUP_GET).intValue ());
+    assertEquals (0, aSettings.getAllOperationWeights ().get (ELoadTestOperation.SERVICE_METADATA_GET).intValue ());
+    assertEquals (2, aSettings.getAllOperationWeights ().get (ELoadTestOperation.SERVICE_METADATA_PUT).intValue ());
+    assertEquals (0, aSettings.getAllOperationWeights ().get (ELoadTestOperation.SERVICE_METADATA_DELETE).intValue ());
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2015-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.loadtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link SMPLoadTestResult}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPLoadTestResultTest
+{
+  @Test
+  public void testCounts ()
+  {
+    final SMPLoadTestResult aResult = new SMPLoadTestResult ();
+    aResult.recordSuccess (ELoadTestOperation.SERVICE_METADATA_GET, 1_000_000);
+    aResult.recordSuccess (ELoadTestOperation.SERVICE_METADATA_GET, 2_000_000);
+    aResult.recordNotFound (ELoadTestOperation.SERVICE_METADATA_GET);
+    aResult.recordError (ELoadTestOperation.SERVICE_METADATA_GET);
+    aResult.recordError (ELoadTestOperation.SERVICE_METADATA_GET);
+
+    // "Not found" is neither a success nor an error
+    assertEquals (2, aResult.getSuccessCount (ELoadTestOperation.SERVICE_METADATA_GET));
+    assertEquals (1, aResult.getNotFoundCount (ELoadTestOperation.SERVICE_METADATA_GET));
+    assertEquals (2, aResult.getErrorCount (ELoadTestOperation.SERVICE_METADATA_GET));
+
+    for (final ELoadTestOperation e : new ELoadTestOperation [] { ELoadTestOperation.SERVICE_GROUP_GET,
+                                                                  ELoadTestOperation.SERVICE_METADATA_PUT,
+                                                                  ELoadTestOperation.SERVICE_METADATA_DELETE })
+    {
+      assertEquals (0, aResult.getSuccessCount (e));
+      assertEquals (0, aResult.getNotFoundCount (e));
+      assertEquals (0, aResult.getErrorCount (e));
+    }
+
+    assertTrue (aResult.getAsText ().contains ("404"));
+  }
+}
@@ -93,6 +93,13 @@ public class SMPSQLStatusProviderExtensionSPI implements ISMPStatusProviderExten
       // Since 5.3.0-RC5
       ret.put ("smp.sql.target-database", SMPJDBCConfiguration.getTargetDatabaseType ());
 
+      // Since 7.1.1
+      final BasicDataSource aDS = SMPDataSourceSingleton.getInstance ().getDataSourceProvider ().getDataSource ();
+      ret.put ("smp.sql.pool.active", Integer.valueOf (aDS.getNumActive ()));
+      ret.put ("smp.sql.pool.idle", Integer.valueOf (aDS.getNumIdle ()));
+      ret.put ("smp.sql.pool.max-total", Integer.valueOf (aDS.getMaxTotal ()));
+      ret.put ("smp.sql.statistics.enabled", Boolean.valueOf (SMPJDBCConfiguration.isJdbcStatisticsEnabled ()));
+
       if (!bDisableLongRunningOperations)
       {
         // Since 5.4.0
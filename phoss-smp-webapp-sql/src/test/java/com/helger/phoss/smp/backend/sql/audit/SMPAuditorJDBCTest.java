@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.id.factory.GlobalIDFactory;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.commons.state.ESuccess;
+import com.helger.phoss.smp.backend.sql.SMPDBExecutor;
+import com.helger.phoss.smp.mock.SMPServerRESTTestRule;
+import com.helger.photon.audit.EAuditActionType;
+import com.helger.photon.audit.IAuditItem;
+
+/**
+ * Test class for class {@link SMPAuditorJDBC}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPAuditorJDBCTest
+{
+  @Rule
+  public final SMPServerRESTTestRule m_aRule = new SMPServerRESTTestRule (new FileSystemResource ("src/test/resources/test-smp-server-sql.properties"));
+
+  @Test
+  public void testBatchWriteAndStop ()
+  {
+    final SMPAuditorJDBC aAuditor = new SMPAuditorJDBC (SMPDBExecutor::new,
+                                                        SMPDBExecutor.TABLE_NAME_CUSTOMIZER,
+                                                        () -> "junit");
+    assertTrue (aAuditor.isAsync ());
+
+    // Several batches with the default batch size
+    final int nCount = 250;
+    final String sMarker = "junit-" + GlobalIDFactory.getNewStringID ();
+    for (int i = 0; i < nCount; ++i)
+      aAuditor.createAuditItem (EAuditActionType.CREATE, ESuccess.SUCCESS, null, sMarker, Integer.valueOf (i));
+
+    // Writes everything that is still queued
+    aAuditor.stop ();
+    assertEquals (nCount, aAuditor.getWrittenCount ());
+    assertEquals (0, aAuditor.getFailedCount ());
+    assertEquals (0, aAuditor.getDroppedCount ());
+    assertEquals (0, aAuditor.getQueueSize ());
+
+    // Other audit items may be written concurrently
+    final ICommonsList <IAuditItem> aItems = aAuditor.getLastAuditItems (nCount + 100)
+                                                     .getAll (x -> x.getAction ().contains (sMarker));
+    assertEquals (nCount, aItems.size ());
+    for (final IAuditItem aItem : aItems)
+    {
+      assertEquals ("junit", aItem.getUserID ());
+      assertEquals (EAuditActionType.CREATE, aItem.getType ());
+      assertTrue (aItem.isSuccess ());
+    }
+    assertNotNull (aAuditor.getEarliestAuditDate ());
+
+    // Written synchronously after stop
+    aAuditor.createAuditItem (EAuditActionType.DELETE, ESuccess.FAILURE, null, sMarker);
+    assertEquals (nCount + 1, aAuditor.getWrittenCount ());
+  }
+}
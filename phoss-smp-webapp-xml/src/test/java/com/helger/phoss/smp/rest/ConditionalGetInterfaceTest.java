@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.helger.commons.http.CHttpHeader;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.http.basicauth.BasicAuthClientCredentials;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
+import com.helger.phoss.smp.mock.SMPServerRESTTestRule;
+import com.helger.photon.security.CSecurity;
+import com.helger.xsds.peppol.smp1.ObjectFactory;
+import com.helger.xsds.peppol.smp1.ServiceGroupType;
+import com.helger.xsds.peppol.smp1.ServiceMetadataReferenceCollectionType;
+
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.Invocation.Builder;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Test the conditional GET requests of the public REST API.
+ *
+ * @author Philip Helger
+ */
+public final class ConditionalGetInterfaceTest
+{
+  private static final BasicAuthClientCredentials CREDENTIALS = new BasicAuthClientCredentials (CSecurity.USER_ADMINISTRATOR_EMAIL,
+                                                                                                CSecurity.USER_ADMINISTRATOR_PASSWORD);
+  private static final String FUTURE = "Fri, 01 Jan 2100 00:00:00 GMT";
+
+  @Rule
+  public final SMPServerRESTTestRule m_aRule = new SMPServerRESTTestRule (new FileSystemResource ("src/test/resources/test-smp-server-xml-peppol-conditional.properties"));
+
+  @Nonnull
+  private static Builder _addCredentials (@Nonnull final Builder aBuilder)
+  {
+    return aBuilder.header (CHttpHeader.AUTHORIZATION, CREDENTIALS.getRequestValue ());
+  }
+
+  @Nonnull
+  private static Response _get (@Nonnull final WebTarget aTarget,
+                                @Nonnull final String sHeaderName,
+                                @Nonnull final String sHeaderValue)
+  {
+    final Response ret = aTarget.request ().header (sHeaderName, sHeaderValue).get ();
+    // Consume the body
+    ret.readEntity (String.class);
+    return ret;
+  }
+
+  @Test
+  public void testServiceGroup ()
+  {
+    final IParticipantIdentifier aPI = PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9915:conditional-get");
+    final ServiceGroupType aSG = new ServiceGroupType ();
+    aSG.setParticipantIdentifier (new SimpleParticipantIdentifier (aPI));
+    aSG.setServiceMetadataReferenceCollection (new ServiceMetadataReferenceCollectionType ());
+
+    final WebTarget aTarget = ClientBuilder.newClient ().target (m_aRule.getFullURL ()).path (aPI.getURIEncoded ());
+
+    // Missing resource - never "304 Not Modified" and no validators
+    Response aResponse = _get (aTarget, CHttpHeader.IF_NONE_MATCH, "*");
+    assertEquals (404, aResponse.getStatus ());
+    assertNull (aResponse.getHeaderString (CHttpHeader.ETAG));
+    assertNull (aResponse.getHeaderString (CHttpHeader.LAST_MODIFIED));
+    aResponse = _get (aTarget, CHttpHeader.IF_MODIFIED_SINCE, FUTURE);
+    assertEquals (404, aResponse.getStatus ());
+    assertNull (aResponse.getHeaderString (CHttpHeader.ETAG));
+
+    aResponse = _addCredentials (aTarget.request ()).put (Entity.xml (new ObjectFactory ().createServiceGroup (aSG)));
+    aResponse.readEntity (String.class);
+    assertEquals (200, aResponse.getStatus ());
+    try
+    {
+      // Unconditional
+      aResponse = _get (aTarget, CHttpHeader.ACCEPT_ENCODING, "identity");
+      assertEquals (200, aResponse.getStatus ());
+      final String sETag = aResponse.getHeaderString (CHttpHeader.ETAG);
+      final String sLastModified = aResponse.getHeaderString (CHttpHeader.LAST_MODIFIED);
+      assertNotNull (sETag);
+      assertNotNull (sLastModified);
+      assertNull (aResponse.getHeaderString (CHttpHeader.CONTENT_ENCODING));
+
+      // The compressed variant has a different ETag
+      aResponse = _get (aTarget, CHttpHeader.ACCEPT_ENCODING, "gzip");
+      assertEquals (200, aResponse.getStatus ());
+      assertEquals ("gzip", aResponse.getHeaderString (CHttpHeader.CONTENT_ENCODING));
+      final String sGZipETag = aResponse.getHeaderString (CHttpHeader.ETAG);
+      assertNotNull (sGZipETag);
+      assertNotEquals (sETag, sGZipETag);
+      assertTrue (sGZipETag.endsWith ("-gzip\""));
+
+      // Matching ETag
+      aResponse = _get (aTarget, CHttpHeader.IF_NONE_MATCH, sETag);
+      assertEquals (304, aResponse.getStatus ());
+      assertEquals (sETag, aResponse.getHeaderString (CHttpHeader.ETAG));
+      aResponse = _get (aTarget, CHttpHeader.IF_NONE_MATCH, "*");
+      assertEquals (304, aResponse.getStatus ());
+
+      // The compressed ETag only matches if the compressed variant is accepted
+      aResponse = aTarget.request ()
+                         .header (CHttpHeader.IF_NONE_MATCH, sGZipETag)
+                         .header (CHttpHeader.ACCEPT_ENCODING, "gzip")
+                         .get ();
+      aResponse.readEntity (String.class);
+      assertEquals (304, aResponse.getStatus ());
+      assertEquals (sGZipETag, aResponse.getHeaderString (CHttpHeader.ETAG));
+      aResponse = aTarget.request ()
+                         .header (CHttpHeader.IF_NONE_MATCH, sGZipETag)
+                         .header (CHttpHeader.ACCEPT_ENCODING, "identity")
+                         .get ();
+      aResponse.readEntity (String.class);
+      assertEquals (200, aResponse.getStatus ());
+
+      // Not matching ETag
+      aResponse = _get (aTarget, CHttpHeader.IF_NONE_MATCH, "\"other\"");
+      assertEquals (200, aResponse.getStatus ());
+
+      // Modification date
+      aResponse = _get (aTarget, CHttpHeader.IF_MODIFIED_SINCE, sLastModified);
+      assertEquals (304, aResponse.getStatus ());
+      aResponse = _get (aTarget, CHttpHeader.IF_MODIFIED_SINCE, "Thu, 01 Jan 1970 00:00:00 GMT");
+      assertEquals (200, aResponse.getStatus ());
+    }
+    finally
+    {
+      aResponse = _addCredentials (aTarget.request ()).delete ();
+      aResponse.readEntity (String.class);
+      assertEquals (200, aResponse.getStatus ());
+    }
+
+    // Deleted - the old validators must not match anymore
+    aResponse = _get (aTarget, CHttpHeader.IF_NONE_MATCH, "*");
+    assertEquals (404, aResponse.getStatus ());
+    aResponse = _get (aTarget, CHttpHeader.IF_MODIFIED_SINCE, FUTURE);
+    assertEquals (404, aResponse.getStatus ());
+    assertNull (aResponse.getHeaderString (CHttpHeader.ETAG));
+  }
+}
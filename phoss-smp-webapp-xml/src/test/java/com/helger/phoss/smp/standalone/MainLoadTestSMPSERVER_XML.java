@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.standalone;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.phoss.smp.loadtest.SMPLoadTest;
+import com.helger.phoss.smp.loadtest.SMPLoadTestSettings;
+
+/**
+ * Start the SMP via {@link RunInJettySMPSERVER_XML}, run the load test against
+ * it and stop it afterwards. The load test can be configured via
+ * <code>-Dsmp.loadtest.*</code> system properties - see
+ * {@link SMPLoadTestSettings#createFromSystemProperties()}. Please ensure
+ * that the SML connection is not enabled.
+ *
+ * @author Philip Helger
+ */
+public final class MainLoadTestSMPSERVER_XML
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (MainLoadTestSMPSERVER_XML.class);
+
+  public static void main (final String [] args) throws Exception
+  {
+    final SMPLoadTestSettings aSettings = SMPLoadTestSettings.createFromSystemProperties ();
+
+    // Runs until it is stopped
+    final Thread aServerThread = new Thread ( () -> {
+      try
+      {
+        RunInJettySMPSERVER_XML.main ();
+      }
+      catch (final Exception ex)
+      {
+        LOGGER.error ("Failed to run the SMP server", ex);
+      }
+    }, "smp-server");
+    aServerThread.start ();
+    try
+    {
+      SMPLoadTest.waitForServer (aSettings.getServerBaseURL () + "/smp-status/", 120);
+      new SMPLoadTest (aSettings).run ();
+    }
+    finally
+    {
+      JettyStopSMPSERVER_XML.main (args);
+      aServerThread.join ();
+    }
+  }
+}
@@ -0,0 +1,621 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.app;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsLinkedHashSet;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsOrderedSet;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.id.factory.GlobalIDFactory;
+import com.helger.commons.io.file.SimpleFileIO;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.StringHelper;
+import com.helger.json.IJson;
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonArray;
+import com.helger.json.JsonObject;
+import com.helger.json.serialize.JsonReader;
+import com.helger.json.serialize.JsonWriter;
+import com.helger.json.serialize.JsonWriterSettings;
+import com.helger.pd.client.PDClient;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.photon.io.WebFileIO;
+import com.helger.scope.IScope;
+import com.helger.web.scope.mgr.WebScoped;
+import com.helger.web.scope.singleton.AbstractGlobalWebSingleton;
+
+/**
+ * A singleton that pushes all Business Cards to the Directory in the
+ * background. The participants are processed in chunks in a stable order, and
+ * the progress is persisted in the data directory after each chunk. Therefore
+ * a cancelled or interrupted run (e.g. by a restart) can be resumed. Within a
+ * chunk, the Directory calls are performed in parallel, with retries and an
+ * optional rate limit. All participants that still failed are persisted as
+ * well, and are retried when the run is resumed. Only one run can be active at
+ * a time.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPDirectoryBulkPush extends AbstractGlobalWebSingleton
+{
+  /** The filename of the persisted progress within the data directory */
+  public static final String FILENAME = "directory-bulk-push.json";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPDirectoryBulkPush.class);
+  // The number of participants after which the progress is persisted
+  private static final int CHUNK_SIZE = 100;
+  // The upper limit of the delay between two retries
+  private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+
+  // Persisted state of the last run
+  @GuardedBy ("m_aRWLock")
+  private String m_sRunID;
+  @GuardedBy ("m_aRWLock")
+  private String m_sUserID;
+  @GuardedBy ("m_aRWLock")
+  private LocalDateTime m_aStartDT;
+  @GuardedBy ("m_aRWLock")
+  private LocalDateTime m_aEndDT;
+  @GuardedBy ("m_aRWLock")
+  private boolean m_bCancelled;
+  @GuardedBy ("m_aRWLock")
+  private int m_nTotal;
+  @GuardedBy ("m_aRWLock")
+  private int m_nSuccess;
+  @GuardedBy ("m_aRWLock")
+  private int m_nFailure;
+  @GuardedBy ("m_aRWLock")
+  private String m_sLastParticipantID;
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsOrderedSet <String> m_aFailedIDs = new CommonsLinkedHashSet <> ();
+
+  // Runtime state
+  @GuardedBy ("m_aRWLock")
+  private Thread m_aRunner;
+  private volatile boolean m_bCancelRequested;
+  private final Object m_aRateLimitLock = new Object ();
+  @GuardedBy ("m_aRateLimitLock")
+  private long m_nNextCallNanos;
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPDirectoryBulkPush ()
+  {}
+
+  @Nonnull
+  public static SMPDirectoryBulkPush getInstance ()
+  {
+    return getGlobalSingleton (SMPDirectoryBulkPush.class);
+  }
+
+  @Nonnull
+  private static File _getFile ()
+  {
+    return WebFileIO.getDataIO ().getFile (FILENAME);
+  }
+
+  @Nullable
+  private static LocalDateTime _parseDT (@Nullable final String s)
+  {
+    return StringHelper.hasText (s) ? LocalDateTime.parse (s, DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
+  }
+
+  @Override
+  protected void onAfterInstantiation (@Nonnull final IScope aScope)
+  {
+    // Read the state of the last run, if any
+    final File aFile = _getFile ();
+    if (aFile.isFile ())
+    {
+      try
+      {
+        final IJsonObject aJson = JsonReader.builder ()
+                                            .source (SimpleFileIO.getFileAsString (aFile, StandardCharsets.UTF_8))
+                                            .readAsObject ();
+        if (aJson != null)
+        {
+          m_aRWLock.writeLocked ( () -> {
+            m_sRunID = aJson.getAsString ("id");
+            m_sUserID = aJson.getAsString ("userID");
+            m_aStartDT = _parseDT (aJson.getAsString ("startDateTime"));
+            m_aEndDT = _parseDT (aJson.getAsString ("endDateTime"));
+            m_bCancelled = aJson.getAsBoolean ("cancelled", false);
+            m_nTotal = aJson.getAsInt ("total", 0);
+            m_nSuccess = aJson.getAsInt ("success", 0);
+            m_nFailure = aJson.getAsInt ("failure", 0);
+            m_sLastParticipantID = aJson.getAsString ("lastParticipantID");
+            final IJsonArray aFailedIDs = aJson.getAsArray ("failedParticipantIDs");
+            if (aFailedIDs != null)
+              for (final IJson aItem : aFailedIDs)
+                if (aItem.isValue ())
+                  m_aFailedIDs.add (aItem.getAsValue ().getAsString ());
+          });
+        }
+      }
+      catch (final RuntimeException ex)
+      {
+        LOGGER.error ("Failed to read the Directory bulk push state from '" + aFile.getAbsolutePath () + "'", ex);
+      }
+    }
+  }
+
+  @Override
+  protected void onDestroy (@Nonnull final IScope aScopeInDestruction) throws Exception
+  {
+    // The current chunk is repeated when resuming
+    final Thread aRunner = m_aRWLock.readLockedGet ( () -> m_aRunner);
+    if (aRunner != null)
+    {
+      aRunner.interrupt ();
+      aRunner.join (TimeUnit.SECONDS.toMillis (10));
+    }
+  }
+
+  @Nonnull
+  @GuardedBy ("m_aRWLock")
+  private IJsonObject _getStateAsJson ()
+  {
+    final IJsonObject ret = new JsonObject ();
+    if (m_sRunID != null)
+    {
+      ret.add ("id", m_sRunID)
+         .add ("userID", m_sUserID)
+         .add ("startDateTime", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format (m_aStartDT));
+      if (m_aEndDT != null)
+        ret.add ("endDateTime", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format (m_aEndDT));
+      ret.add ("cancelled", m_bCancelled)
+         .add ("total", m_nTotal)
+         .add ("success", m_nSuccess)
+         .add ("failure", m_nFailure);
+      if (m_sLastParticipantID != null)
+        ret.add ("lastParticipantID", m_sLastParticipantID);
+      final IJsonArray aFailedIDs = new JsonArray ();
+      for (final String sID : m_aFailedIDs)
+        aFailedIDs.add (sID);
+      ret.addJson ("failedParticipantIDs", aFailedIDs);
+    }
+    return ret;
+  }
+
+  @GuardedBy ("m_aRWLock")
+  private void _persist ()
+  {
+    final File aFile = _getFile ();
+    final String sJson = new JsonWriter (JsonWriterSettings.DEFAULT_SETTINGS_FORMATTED).writeAsString (_getStateAsJson ());
+    if (SimpleFileIO.writeFile (aFile, sJson, StandardCharsets.UTF_8).isFailure ())
+      LOGGER.error ("Failed to write the Directory bulk push state to '" + aFile.getAbsolutePath () + "'");
+  }
+
+  /**
+   * @return <code>true</code> if a run is currently active.
+   */
+  public boolean isRunning ()
+  {
+    return m_aRWLock.readLockedBoolean ( () -> m_aRunner != null);
+  }
+
+  @GuardedBy ("m_aRWLock")
+  private boolean _isResumable ()
+  {
+    return m_aRunner == null && m_sRunID != null && (m_aEndDT == null || m_aFailedIDs.isNotEmpty ());
+  }
+
+  /**
+   * @return <code>true</code> if the last run was cancelled or interrupted, or
+   *         if it finished with failed participants, and can therefore be
+   *         resumed.
+   */
+  public boolean isResumable ()
+  {
+    return m_aRWLock.readLockedBoolean (this::_isResumable);
+  }
+
+  /**
+   * @return The status of the current or last run as JSON. Never
+   *         <code>null</code>. If no run happened so far, only the
+   *         <code>running</code> and <code>resumable</code> properties are
+   *         contained.
+   */
+  @Nonnull
+  public IJsonObject getStatusAsJsonObject ()
+  {
+    return m_aRWLock.readLockedGet ( () -> {
+      final boolean bRunning = m_aRunner != null;
+      return _getStateAsJson ().add ("running", bRunning)
+                               .add ("cancelRequested", bRunning && m_bCancelRequested)
+                               .add ("resumable", _isResumable ());
+    });
+  }
+
+  /**
+   * Start a new run or resume the last one.
+   *
+   * @param sUserID
+   *        The ID of the user starting the run. May neither be
+   *        <code>null</code> nor empty.
+   * @param bResume
+   *        <code>true</code> to retry the failed participants and to continue
+   *        the last run after the last persisted participant,
+   *        <code>false</code> to start from the beginning.
+   * @return {@link ESuccess#FAILURE} if a run is already active or if there is
+   *         nothing to resume.
+   * @throws IllegalStateException
+   *         If the Directory client cannot be created
+   */
+  @Nonnull
+  public ESuccess start (@Nonnull @Nonempty final String sUserID, final boolean bResume)
+  {
+    // Throws an exception in case of misconfiguration
+    final PDClient aPDClient = PDClientProvider.getInstance ().getPDClient ();
+
+    return start (sUserID, bResume, aPDClient, SMPDirectoryBulkPush::_getAllBusinessCardIDs);
+  }
+
+  /**
+   * Start a new run or resume the last one.
+   *
+   * @param sUserID
+   *        The ID of the user starting the run. May neither be
+   *        <code>null</code> nor empty.
+   * @param bResume
+   *        <code>true</code> to resume the last run, <code>false</code> to
+   *        start from the beginning.
+   * @param aPDClient
+   *        The Directory client to use. May not be <code>null</code>.
+   * @param aAllIDsSupplier
+   *        The supplier of the IDs of all participants to push. May not be
+   *        <code>null</code>.
+   * @return {@link ESuccess#FAILURE} if a run is already active or if there is
+   *         nothing to resume.
+   */
+  @Nonnull
+  ESuccess start (@Nonnull @Nonempty final String sUserID,
+                  final boolean bResume,
+                  @Nonnull final PDClient aPDClient,
+                  @Nonnull final Supplier <? extends ICommonsList <String>> aAllIDsSupplier)
+  {
+    ValueEnforcer.notEmpty (sUserID, "UserID");
+    ValueEnforcer.notNull (aPDClient, "PDClient");
+    ValueEnforcer.notNull (aAllIDsSupplier, "AllIDsSupplier");
+
+    return m_aRWLock.writeLockedGet ( () -> {
+      if (m_aRunner != null)
+        return ESuccess.FAILURE;
+
+      if (bResume)
+      {
+        if (!_isResumable ())
+          return ESuccess.FAILURE;
+        m_aEndDT = null;
+        m_bCancelled = false;
+      }
+      else
+      {
+        m_sRunID = GlobalIDFactory.getNewStringID ();
+        m_aStartDT = PDTFactory.getCurrentLocalDateTime ();
+        m_aEndDT = null;
+        m_bCancelled = false;
+        m_nTotal = 0;
+        m_nSuccess = 0;
+        m_nFailure = 0;
+        m_sLastParticipantID = null;
+        m_aFailedIDs.clear ();
+      }
+      m_sUserID = sUserID;
+      m_bCancelRequested = false;
+      _persist ();
+
+      final Thread aRunner = new Thread ( () -> _run (aPDClient, aAllIDsSupplier), "smp-directory-bulk-push");
+      aRunner.setDaemon (true);
+      m_aRunner = aRunner;
+      aRunner.start ();
+
+      LOGGER.info ((bResume ? "Resumed" : "Started") +
+                   " Directory bulk push '" +
+                   m_sRunID +
+                   "' by user '" +
+                   sUserID +
+                   "'");
+      return ESuccess.SUCCESS;
+    });
+  }
+
+  /**
+   * Cancel the active run. The current chunk is finished before the run
+   * stops. A cancelled run can be resumed later on.
+   *
+   * @return {@link ESuccess#FAILURE} if no run is active.
+   */
+  @Nonnull
+  public ESuccess cancel ()
+  {
+    if (!isRunning ())
+      return ESuccess.FAILURE;
+    m_bCancelRequested = true;
+    return ESuccess.SUCCESS;
+  }
+
+  private void _awaitRateLimit (@Nonnegative final int nCallsPerSecond) throws InterruptedException
+  {
+    if (nCallsPerSecond <= 0)
+      return;
+
+    // Space the calls evenly over all threads
+    final long nIntervalNanos = TimeUnit.SECONDS.toNanos (1) / nCallsPerSecond;
+    final long nWaitNanos;
+    synchronized (m_aRateLimitLock)
+    {
+      final long nNow = System.nanoTime ();
+      final long nSlot = Math.max (nNow, m_nNextCallNanos);
+      m_nNextCallNanos = nSlot + nIntervalNanos;
+      nWaitNanos = nSlot - nNow;
+    }
+    if (nWaitNanos > 0)
+      TimeUnit.NANOSECONDS.sleep (nWaitNanos);
+  }
+
+  private boolean _push (@Nonnull final PDClient aPDClient,
+                         @Nonnull final IParticipantIdentifier aParticipantID) throws InterruptedException
+  {
+    final int nMaxRetries = SMPWebAppConfiguration.getDirectoryBulkPushRetries ();
+    final int nCallsPerSecond = SMPWebAppConfiguration.getDirectoryBulkPushRateLimit ();
+    long nDelayMillis = SMPWebAppConfiguration.getDirectoryBulkPushRetryDelayMillis ();
+    int nAttempt = 0;
+    while (true)
+    {
+      _awaitRateLimit (nCallsPerSecond);
+      try
+      {
+        if (aPDClient.addServiceGroupToIndex (aParticipantID).isSuccess ())
+          return true;
+      }
+      catch (final RuntimeException ex)
+      {
+        LOGGER.warn ("Error pushing '" + aParticipantID.getURIEncoded () + "' to the Directory", ex);
+      }
+
+      if (nAttempt >= nMaxRetries)
+        return false;
+      nAttempt++;
+
+      Thread.sleep (nDelayMillis);
+      nDelayMillis = getNextRetryDelayMillis (nDelayMillis);
+    }
+  }
+
+  /**
+   * Exponential backoff between the retries of a single participant.
+   *
+   * @param nDelayMillis
+   *        The last delay in milliseconds.
+   * @return The next delay in milliseconds.
+   */
+  static long getNextRetryDelayMillis (final long nDelayMillis)
+  {
+    return Math.min (nDelayMillis * 2, MAX_RETRY_DELAY_MILLIS);
+  }
+
+  @Nonnull
+  private static ICommonsList <String> _getAllBusinessCardIDs ()
+  {
+    // Required for the SQL version
+    try (final WebScoped aWS = new WebScoped ())
+    {
+      final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
+      return new CommonsArrayList <> (aBusinessCardMgr.getAllSMPBusinessCardIDs ());
+    }
+  }
+
+  @Nonnull
+  private ICommonsList <String> _getAllRemainingIDs (@Nonnull final Supplier <? extends ICommonsList <String>> aAllIDsSupplier)
+  {
+    final String sLastParticipantID = m_aRWLock.readLockedGet ( () -> m_sLastParticipantID);
+
+    final ICommonsList <String> ret = new CommonsArrayList <> (aAllIDsSupplier.get ());
+    ret.sort (String::compareTo);
+    if (sLastParticipantID != null)
+      ret.removeIf (x -> x.compareTo (sLastParticipantID) <= 0);
+    return ret;
+  }
+
+  @Nonnull
+  private ICommonsList <String> _pushChunk (@Nonnull final ExecutorService aExecutor,
+                                            @Nonnull final PDClient aPDClient,
+                                            @Nonnull final ICommonsList <String> aChunk) throws InterruptedException
+  {
+    final ICommonsList <Future <Boolean>> aFutures = new CommonsArrayList <> ();
+    for (final String sID : aChunk)
+    {
+      final IParticipantIdentifier aParticipantID = SMPMetaManager.getIdentifierFactory ()
+                                                                  .parseParticipantIdentifier (sID);
+      aFutures.add (aExecutor.submit ( () -> aParticipantID != null && _push (aPDClient, aParticipantID)));
+    }
+
+    // Wait for the whole chunk
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    for (int i = 0; i < aChunk.size (); ++i)
+    {
+      boolean bSuccess;
+      try
+      {
+        bSuccess = aFutures.get (i).get ().booleanValue ();
+      }
+      catch (final ExecutionException ex)
+      {
+        LOGGER.error ("Internal error pushing '" + aChunk.get (i) + "' to the Directory", ex.getCause ());
+        bSuccess = false;
+      }
+      if (!bSuccess)
+        ret.add (aChunk.get (i));
+    }
+    return ret;
+  }
+
+  /**
+   * Push the provided participants in chunks and persist the progress after
+   * each chunk.
+   *
+   * @param aExecutor
+   *        The executor to run the Directory calls. May not be
+   *        <code>null</code>.
+   * @param aPDClient
+   *        The Directory client to use. May not be <code>null</code>.
+   * @param aIDs
+   *        The participant IDs to push. May not be <code>null</code>.
+   * @param bRetry
+   *        <code>true</code> if the participants are failed participants of
+   *        the same run that are retried, <code>false</code> if the
+   *        participants are the remaining participants in ascending order.
+   * @return <code>true</code> if all participants were processed,
+   *         <code>false</code> if the run was cancelled.
+   * @throws InterruptedException
+   *         If the run was interrupted
+   */
+  private boolean _pushAll (@Nonnull final ExecutorService aExecutor,
+                            @Nonnull final PDClient aPDClient,
+                            @Nonnull final ICommonsList <String> aIDs,
+                            final boolean bRetry) throws InterruptedException
+  {
+    for (int nStart = 0; nStart < aIDs.size (); nStart += CHUNK_SIZE)
+    {
+      if (m_bCancelRequested || Thread.currentThread ().isInterrupted ())
+        return false;
+
+      final ICommonsList <String> aChunk = new CommonsArrayList <> (aIDs.subList (nStart,
+                                                                                  Math.min (nStart + CHUNK_SIZE,
+                                                                                            aIDs.size ())));
+      final ICommonsList <String> aFailedIDs = _pushChunk (aExecutor, aPDClient, aChunk);
+
+      m_aRWLock.writeLocked ( () -> {
+        final int nSucceeded = aChunk.size () - aFailedIDs.size ();
+        m_nSuccess += nSucceeded;
+        if (bRetry)
+        {
+          // The participants were already counted as failures
+          m_nFailure -= nSucceeded;
+          for (final String sID : aChunk)
+            if (!aFailedIDs.contains (sID))
+              m_aFailedIDs.remove (sID);
+        }
+        else
+        {
+          m_nFailure += aFailedIDs.size ();
+          m_aFailedIDs.addAll (aFailedIDs);
+          m_sLastParticipantID = aChunk.getLastOrNull ();
+        }
+        _persist ();
+      });
+    }
+    return true;
+  }
+
+  private void _run (@Nonnull final PDClient aPDClient,
+                     @Nonnull final Supplier <? extends ICommonsList <String>> aAllIDsSupplier)
+  {
+    final int nThreads = SMPWebAppConfiguration.getDirectoryBulkPushThreads ();
+    final AtomicInteger aThreadIndex = new AtomicInteger (0);
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (nThreads, r -> {
+      final Thread t = new Thread (r, "smp-directory-bulk-push-" + aThreadIndex.incrementAndGet ());
+      t.setDaemon (true);
+      return t;
+    });
+    boolean bCompleted = false;
+    try
+    {
+      // The failed participants of a resumed run are retried first
+      final ICommonsList <String> aRetryIDs = m_aRWLock.readLockedGet ( () -> new CommonsArrayList <> (m_aFailedIDs));
+      final ICommonsList <String> aRemainingIDs = _getAllRemainingIDs (aAllIDsSupplier);
+      m_aRWLock.writeLocked ( () -> {
+        m_nTotal = m_nSuccess + m_nFailure + aRemainingIDs.size ();
+        _persist ();
+      });
+
+      bCompleted = _pushAll (aExecutor, aPDClient, aRetryIDs, true) &&
+                   _pushAll (aExecutor, aPDClient, aRemainingIDs, false);
+    }
+    catch (final InterruptedException ex)
+    {
+      // The current chunk is repeated when resuming
+      LOGGER.warn ("The Directory bulk push was interrupted");
+      bCompleted = false;
+      Thread.currentThread ().interrupt ();
+    }
+    catch (final RuntimeException ex)
+    {
+      LOGGER.error ("Internal error in the Directory bulk push", ex);
+      bCompleted = false;
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+      final boolean bFinished = bCompleted;
+      m_aRWLock.writeLocked ( () -> {
+        if (bFinished)
+          m_aEndDT = PDTFactory.getCurrentLocalDateTime ();
+        else
+          if (m_bCancelRequested)
+            m_bCancelled = true;
+        m_aRunner = null;
+        _persist ();
+
+        LOGGER.info ("Directory bulk push '" +
+                     m_sRunID +
+                     "' stopped after " +
+                     m_nSuccess +
+                     " successful and " +
+                     m_nFailure +
+                     " failed of " +
+                     m_nTotal +
+                     " participant(s)" +
+                     (m_bCancelled ? " - was cancelled" : _isResumable () ? " - can be resumed" : ""));
+      });
+    }
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.app;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.compare.ESortOrder;
+import com.helger.commons.timing.StopWatch;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.scope.IScope;
+import com.helger.web.scope.mgr.WebScoped;
+import com.helger.web.scope.singleton.AbstractGlobalWebSingleton;
+
+/**
+ * A singleton that keeps a periodically rebuilt snapshot of the participants
+ * shown on the public start page. Anonymous requests are served only from the
+ * snapshot, so that crawling the public page does not put any load on the
+ * backend. The number of participants in the snapshot is limited by
+ * {@link SMPWebAppConfiguration#getStartPageParticipantsMax()}.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPPublicParticipantList extends AbstractGlobalWebSingleton
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPPublicParticipantList.class);
+
+  private volatile SMPPublicParticipantSnapshot m_aSnapshot;
+  private final AtomicInteger m_aRebuildCount = new AtomicInteger (0);
+  private volatile long m_nLastRebuildMillis = -1;
+  private ScheduledExecutorService m_aScheduler;
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPPublicParticipantList ()
+  {}
+
+  @Nonnull
+  public static SMPPublicParticipantList getInstance ()
+  {
+    return getGlobalSingleton (SMPPublicParticipantList.class);
+  }
+
+  /**
+   * @return The instance if it was instantiated, <code>null</code> otherwise.
+   */
+  @Nullable
+  public static SMPPublicParticipantList getInstanceIfInstantiated ()
+  {
+    return getGlobalSingletonIfInstantiated (SMPPublicParticipantList.class);
+  }
+
+  @Override
+  protected void onAfterInstantiation (@Nonnull final IScope aScope)
+  {
+    m_aScheduler = Executors.newSingleThreadScheduledExecutor (r -> {
+      final Thread t = new Thread (r, "smp-public-participant-list");
+      t.setDaemon (true);
+      return t;
+    });
+
+    // The initial build happens in the background, so that the startup is not
+    // delayed
+    m_aScheduler.scheduleWithFixedDelay (this::rebuild,
+                                         0,
+                                         SMPWebAppConfiguration.getStartPageParticipantsRefreshSeconds (),
+                                         TimeUnit.SECONDS);
+  }
+
+  @Override
+  protected void onDestroy (@Nonnull final IScope aScopeInDestruction) throws Exception
+  {
+    m_aScheduler.shutdownNow ();
+    m_aScheduler = null;
+  }
+
+  /**
+   * Rebuild the snapshot from the service group manager. This is invoked
+   * automatically after startup and in the configured interval. If the rebuild
+   * fails, the previous snapshot stays active.
+   */
+  public void rebuild ()
+  {
+    final StopWatch aSW = StopWatch.createdStarted ();
+    // The settings of some backends are bound to a request scope
+    try (final WebScoped aWS = new WebScoped ())
+    {
+      final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+      final ICommonsList <ISMPServiceGroup> aServiceGroups = new CommonsArrayList <> ();
+      aServiceGroupMgr.forEachSMPServiceGroup (null,
+                                               ESortOrder.ASCENDING,
+                                               0,
+                                               SMPWebAppConfiguration.getStartPageParticipantsMax (),
+                                               aServiceGroups::add);
+      final SMPPublicParticipantSnapshot aSnapshot = new SMPPublicParticipantSnapshot (aServiceGroups,
+                                                                                       aServiceGroupMgr.getSMPServiceGroupCount (),
+                                                                                       SMPMetaManager.getSettings ()
+                                                                                                     .getSMLDNSZone ());
+      final SMPPublicParticipantSnapshot aPrevSnapshot = m_aSnapshot;
+      m_aSnapshot = aSnapshot;
+      m_aRebuildCount.incrementAndGet ();
+      m_nLastRebuildMillis = aSW.stopAndGetMillis ();
+
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Rebuilt the public participant list with " +
+                      aSnapshot.getCount () +
+                      " of " +
+                      aSnapshot.getTotalCount () +
+                      " participants in " +
+                      m_nLastRebuildMillis +
+                      " milliseconds");
+      if (aSnapshot.isTruncated ())
+      {
+        final String sMsg = "The public participant list only contains " +
+                            aSnapshot.getCount () +
+                            " of " +
+                            aSnapshot.getTotalCount () +
+                            " participants";
+        // Warn only when the list becomes truncated and not on every rebuild
+        if (aPrevSnapshot == null || !aPrevSnapshot.isTruncated ())
+          LOGGER.warn (sMsg);
+        else
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug (sMsg);
+      }
+    }
+    catch (final RuntimeException ex)
+    {
+      // The next rebuild may succeed
+      LOGGER.error ("Failed to rebuild the public participant list - keeping the previous one", ex);
+    }
+  }
+
+  /**
+   * @return The current snapshot or <code>null</code> if the first build is
+   *         not yet complete.
+   */
+  @Nullable
+  public SMPPublicParticipantSnapshot getSnapshot ()
+  {
+    return m_aSnapshot;
+  }
+
+  /**
+   * @return <code>true</code> if the first build is complete.
+   */
+  public boolean isLoaded ()
+  {
+    return m_aSnapshot != null;
+  }
+
+  /**
+   * @return The number of successful builds so far. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getRebuildCount ()
+  {
+    return m_aRebuildCount.get ();
+  }
+
+  /**
+   * @return The duration of the last successful build in milliseconds or -1 if
+   *         no build was completed yet.
+   */
+  public long getLastRebuildMillis ()
+  {
+    return m_nLastRebuildMillis;
+  }
+}
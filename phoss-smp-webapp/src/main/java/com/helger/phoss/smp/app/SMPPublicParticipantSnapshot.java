@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.app;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.compare.ESortOrder;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+
+/**
+ * An immutable snapshot of the participants shown on the public start page.
+ * The participants are ordered by their URI encoded identifier and the
+ * snapshot offers paging and searching without accessing the backend.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class SMPPublicParticipantSnapshot
+{
+  private final IParticipantIdentifier [] m_aParticipantIDs;
+  // The lower case URI encoded participant IDs for searching
+  private final String [] m_aSearchTexts;
+  // The first extension of each participant or null
+  private final String [] m_aExtensions;
+  private final long m_nTotalCount;
+  private final String m_sSMLZoneName;
+  private final LocalDateTime m_aCreationDT;
+
+  /**
+   * Constructor
+   *
+   * @param aServiceGroups
+   *        The service groups to be contained. May not be <code>null</code>.
+   * @param nTotalCount
+   *        The total number of service groups in the backend at the time the
+   *        snapshot was created. If this is greater than the number of passed
+   *        service groups, the snapshot is considered truncated.
+   * @param sSMLZoneName
+   *        The SML DNS zone name at the time the snapshot was created. Needed
+   *        to create the query links. May be <code>null</code>.
+   */
+  public SMPPublicParticipantSnapshot (@Nonnull final ICommonsList <? extends ISMPServiceGroup> aServiceGroups,
+                                       final long nTotalCount,
+                                       @Nullable final String sSMLZoneName)
+  {
+    ValueEnforcer.notNull (aServiceGroups, "ServiceGroups");
+
+    final ICommonsList <ISMPServiceGroup> aSorted = new CommonsArrayList <> (aServiceGroups);
+    aSorted.sort (Comparator.comparing (x -> x.getParticipantIdentifier ().getURIEncoded ()));
+    final int nCount = aSorted.size ();
+    m_aParticipantIDs = new IParticipantIdentifier [nCount];
+    m_aSearchTexts = new String [nCount];
+    m_aExtensions = new String [nCount];
+    for (int i = 0; i < nCount; ++i)
+    {
+      final ISMPServiceGroup aServiceGroup = aSorted.get (i);
+      m_aParticipantIDs[i] = aServiceGroup.getParticipantIdentifier ();
+      m_aSearchTexts[i] = aServiceGroup.getParticipantIdentifier ().getURIEncoded ().toLowerCase (Locale.ROOT);
+      if (aServiceGroup.getExtensions ().extensions ().isNotEmpty ())
+        m_aExtensions[i] = aServiceGroup.getExtensions ().getFirstExtensionXMLString ();
+    }
+    m_nTotalCount = Math.max (nTotalCount, nCount);
+    m_sSMLZoneName = sSMLZoneName;
+    m_aCreationDT = PDTFactory.getCurrentLocalDateTime ();
+  }
+
+  /**
+   * @return The number of participants contained in this snapshot. Always
+   *         &ge; 0.
+   */
+  @Nonnegative
+  public int getCount ()
+  {
+    return m_aParticipantIDs.length;
+  }
+
+  /**
+   * @return The number of participants in the backend at the time the snapshot
+   *         was created. Always &ge; {@link #getCount()}.
+   */
+  @Nonnegative
+  public long getTotalCount ()
+  {
+    return m_nTotalCount;
+  }
+
+  /**
+   * @return <code>true</code> if not all participants of the backend are
+   *         contained, because the configured maximum was exceeded.
+   */
+  public boolean isTruncated ()
+  {
+    return m_nTotalCount > m_aParticipantIDs.length;
+  }
+
+  @Nullable
+  public String getSMLZoneName ()
+  {
+    return m_sSMLZoneName;
+  }
+
+  @Nonnull
+  public LocalDateTime getCreationDateTime ()
+  {
+    return m_aCreationDT;
+  }
+
+  @Nullable
+  private static String _getSearchText (@Nullable final String sFilterText)
+  {
+    return StringHelper.hasText (sFilterText) ? sFilterText.trim ().toLowerCase (Locale.ROOT) : null;
+  }
+
+  /**
+   * Get the number of participants matching the passed filter text.
+   *
+   * @param sFilterText
+   *        The optional filter text. If present, only participants containing
+   *        the text in the URI encoded identifier (case insensitive) are
+   *        counted. May be <code>null</code>.
+   * @return The number of matching participants. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getMatchingCount (@Nullable final String sFilterText)
+  {
+    final String sSearchText = _getSearchText (sFilterText);
+    if (sSearchText == null)
+      return m_aSearchTexts.length;
+
+    int ret = 0;
+    for (final String sCur : m_aSearchTexts)
+      if (sCur.contains (sSearchText))
+        ret++;
+    return ret;
+  }
+
+  /**
+   * Iterate a single page of the participants matching the passed filter text.
+   *
+   * @param sFilterText
+   *        The optional filter text. If present, only participants containing
+   *        the text in the URI encoded identifier (case insensitive) are
+   *        iterated. May be <code>null</code>.
+   * @param eSortOrder
+   *        The sort order of the participant identifiers. May not be
+   *        <code>null</code>.
+   * @param nOffset
+   *        The number of matching participants to skip. Must be &ge; 0.
+   * @param nMaxCount
+   *        The maximum number of participants to iterate. Must be &gt; 0.
+   * @param aConsumer
+   *        The consumer invoked with the participant identifier and the first
+   *        extension (may be <code>null</code>) of each participant. May not be
+   *        <code>null</code>.
+   */
+  public void forEachMatching (@Nullable final String sFilterText,
+                               @Nonnull final ESortOrder eSortOrder,
+                               @Nonnegative final int nOffset,
+                               @Nonnegative final int nMaxCount,
+                               @Nonnull final BiConsumer <? super IParticipantIdentifier, ? super String> aConsumer)
+  {
+    ValueEnforcer.notNull (eSortOrder, "SortOrder");
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    final String sSearchText = _getSearchText (sFilterText);
+    final int nCount = m_aParticipantIDs.length;
+    if (sSearchText == null)
+    {
+      // Without a filter the indices are known
+      final int nEnd = (int) Math.min ((long) nOffset + nMaxCount, nCount);
+      for (int i = nOffset; i < nEnd; ++i)
+      {
+        final int nIndex = eSortOrder.isAscending () ? i : nCount - 1 - i;
+        aConsumer.accept (m_aParticipantIDs[nIndex], m_aExtensions[nIndex]);
+      }
+    }
+    else
+    {
+      int nMatches = 0;
+      int nReturned = 0;
+      for (int i = 0; i < nCount && nReturned < nMaxCount; ++i)
+      {
+        final int nIndex = eSortOrder.isAscending () ? i : nCount - 1 - i;
+        if (m_aSearchTexts[nIndex].contains (sSearchText))
+        {
+          if (nMatches >= nOffset)
+          {
+            aConsumer.accept (m_aParticipantIDs[nIndex], m_aExtensions[nIndex]);
+            nReturned++;
+          }
+          nMatches++;
+        }
+      }
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Count", m_aParticipantIDs.length)
+                                       .append ("TotalCount", m_nTotalCount)
+                                       .append ("SMLZoneName", m_sSMLZoneName)
+                                       .append ("CreationDT", m_aCreationDT)
+                                       .getToString ();
+  }
+}
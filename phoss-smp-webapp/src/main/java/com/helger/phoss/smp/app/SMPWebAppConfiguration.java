@@ -18,6 +18,7 @@ package com.helger.phoss.smp.app;
 
 import java.net.URL;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -40,6 +41,18 @@ public final class SMPWebAppConfiguration extends AbstractGlobalSingleton
 {
   public static final String WEBAPP_KEY_GLOBAL_DEBUG = "global.debug";
   public static final String WEBAPP_KEY_GLOBAL_PRODUCTION = "global.production";
+  public static final String WEBAPP_KEY_STARTPAGE_PARTICIPANTS_REFRESH_SECONDS = "webapp.startpage.participants.refresh.seconds";
+  public static final long DEFAULT_STARTPAGE_PARTICIPANTS_REFRESH_SECONDS = 300;
+  public static final String WEBAPP_KEY_STARTPAGE_PARTICIPANTS_MAX = "webapp.startpage.participants.max";
+  public static final int DEFAULT_STARTPAGE_PARTICIPANTS_MAX = 10_000;
+  public static final String WEBAPP_KEY_DIRECTORY_BULKPUSH_THREADS = "webapp.directory.bulkpush.threads";
+  public static final int DEFAULT_DIRECTORY_BULKPUSH_THREADS = 4;
+  public static final String WEBAPP_KEY_DIRECTORY_BULKPUSH_RETRIES = "webapp.directory.bulkpush.retries";
+  public static final int DEFAULT_DIRECTORY_BULKPUSH_RETRIES = 3;
+  public static final String WEBAPP_KEY_DIRECTORY_BULKPUSH_RETRY_DELAY_MS = "webapp.directory.bulkpush.retry.delay.ms";
+  public static final long DEFAULT_DIRECTORY_BULKPUSH_RETRY_DELAY_MS = 1_000;
+  public static final String WEBAPP_KEY_DIRECTORY_BULKPUSH_RATELIMIT = "webapp.directory.bulkpush.ratelimit";
+  public static final int DEFAULT_DIRECTORY_BULKPUSH_RATELIMIT = 20;
 
   /**
    * @deprecated Only called via reflection
@@ -155,6 +168,35 @@ public final class SMPWebAppConfiguration extends AbstractGlobalSingleton
     return _getConfig ().getAsBoolean ("webapp.startpage.extensions.show", false);
   }
 
+  /**
+   * The participants on the public start page are served from a cached
+   * snapshot. This is the interval in which the snapshot is rebuilt.
+   *
+   * @return The number of seconds between two rebuilds of the participant list
+   *         on the start page. Always &gt; 0. Default is 300.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static long getStartPageParticipantsRefreshSeconds ()
+  {
+    final long ret = _getConfig ().getAsLong (WEBAPP_KEY_STARTPAGE_PARTICIPANTS_REFRESH_SECONDS,
+                                              DEFAULT_STARTPAGE_PARTICIPANTS_REFRESH_SECONDS);
+    return ret > 0 ? ret : DEFAULT_STARTPAGE_PARTICIPANTS_REFRESH_SECONDS;
+  }
+
+  /**
+   * @return The maximum number of participants contained in the cached
+   *         snapshot of the start page. Participants beyond this number are not
+   *         shown. Always &gt; 0. Default is 10000.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getStartPageParticipantsMax ()
+  {
+    final int ret = _getConfig ().getAsInt (WEBAPP_KEY_STARTPAGE_PARTICIPANTS_MAX, DEFAULT_STARTPAGE_PARTICIPANTS_MAX);
+    return ret > 0 ? ret : DEFAULT_STARTPAGE_PARTICIPANTS_MAX;
+  }
+
   /**
    * @return Name of the Directory. Usually "Peppol Directory" but maybe "TOOP
    *         Directory" as well.
@@ -166,6 +208,56 @@ public final class SMPWebAppConfiguration extends AbstractGlobalSingleton
     return _getConfig ().getAsString ("webapp.directory.name", "Peppol Directory");
   }
 
+  /**
+   * @return The number of parallel calls to the Directory when pushing all
+   *         Business Cards. Always &gt; 0. Default is 4.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getDirectoryBulkPushThreads ()
+  {
+    final int ret = _getConfig ().getAsInt (WEBAPP_KEY_DIRECTORY_BULKPUSH_THREADS, DEFAULT_DIRECTORY_BULKPUSH_THREADS);
+    return ret > 0 ? ret : DEFAULT_DIRECTORY_BULKPUSH_THREADS;
+  }
+
+  /**
+   * @return The number of retries per participant when pushing all Business
+   *         Cards to the Directory. Always &ge; 0. Default is 3.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getDirectoryBulkPushRetries ()
+  {
+    final int ret = _getConfig ().getAsInt (WEBAPP_KEY_DIRECTORY_BULKPUSH_RETRIES, DEFAULT_DIRECTORY_BULKPUSH_RETRIES);
+    return ret >= 0 ? ret : DEFAULT_DIRECTORY_BULKPUSH_RETRIES;
+  }
+
+  /**
+   * @return The delay in milliseconds before the first retry when pushing all
+   *         Business Cards to the Directory. The delay is doubled for every
+   *         further retry. Always &ge; 0. Default is 1000.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static long getDirectoryBulkPushRetryDelayMillis ()
+  {
+    final long ret = _getConfig ().getAsLong (WEBAPP_KEY_DIRECTORY_BULKPUSH_RETRY_DELAY_MS,
+                                              DEFAULT_DIRECTORY_BULKPUSH_RETRY_DELAY_MS);
+    return ret >= 0 ? ret : DEFAULT_DIRECTORY_BULKPUSH_RETRY_DELAY_MS;
+  }
+
+  /**
+   * @return The maximum number of calls per second to the Directory when
+   *         pushing all Business Cards. 0 means unlimited. Default is 20.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public static int getDirectoryBulkPushRateLimit ()
+  {
+    final int ret = _getConfig ().getAsInt (WEBAPP_KEY_DIRECTORY_BULKPUSH_RATELIMIT, DEFAULT_DIRECTORY_BULKPUSH_RATELIMIT);
+    return ret >= 0 ? ret : DEFAULT_DIRECTORY_BULKPUSH_RATELIMIT;
+  }
+
   /**
    * @return <code>true</code> to show extension details in the secure service
    *         group list, <code>false</code> to just show a yes or no indicator.
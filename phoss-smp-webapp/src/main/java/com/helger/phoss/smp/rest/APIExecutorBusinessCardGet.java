@@ -22,11 +22,16 @@ import javax.annotation.Nonnull;
 
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.mime.CMimeType;
+import com.helger.commons.mutable.MutableBoolean;
 import com.helger.peppol.businesscard.v3.PD3BusinessCardMarshaller;
 import com.helger.peppol.businesscard.v3.PD3BusinessCardType;
+import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.exception.SMPInternalErrorException;
 import com.helger.phoss.smp.exception.SMPPreconditionFailedException;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.rest.SMPRestResponseCache.EResponseType;
 import com.helger.phoss.smp.restapi.BusinessCardServerAPI;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
 import com.helger.photon.api.IAPIDescriptor;
@@ -36,6 +41,21 @@ import com.helger.xml.serialize.write.XMLWriterSettings;
 
 public final class APIExecutorBusinessCardGet extends AbstractSMPAPIExecutor
 {
+  @Nonnull
+  private static byte [] _createResponse (@Nonnull final ISMPServerAPIDataProvider aDataProvider,
+                                          @Nonnull final String sServiceGroupID) throws SMPServerException
+  {
+    // getBusinessCard throws an exception if non is found
+    final PD3BusinessCardType aBC = new BusinessCardServerAPI (aDataProvider).getBusinessCard (sServiceGroupID);
+    final byte [] ret = new PD3BusinessCardMarshaller ().getAsBytes (aBC);
+    if (ret == null)
+    {
+      // Internal error serializing the payload
+      throw new SMPInternalErrorException ("Failed to convert the returned BusinessCard to XML");
+    }
+    return ret;
+  }
+
   public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
                          @Nonnull @Nonempty final String sPath,
                          @Nonnull final Map <String, String> aPathVariables,
@@ -54,10 +74,41 @@ public final class APIExecutorBusinessCardGet extends AbstractSMPAPIExecutor
                                                 aDataProvider.getCurrentURI ());
     }
 
-    // getBusinessCard throws an exception if non is found
-    final PD3BusinessCardType ret = new BusinessCardServerAPI (aDataProvider).getBusinessCard (sServiceGroupID);
-    final byte [] aBytes = new PD3BusinessCardMarshaller ().getAsBytes (ret);
+    final IParticipantIdentifier aParticipantID = SMPMetaManager.getIdentifierFactory ()
+                                                                .parseParticipantIdentifier (sServiceGroupID);
+    final SMPRestResponseValidators aValidators = getResponseValidators (sServiceGroupID, false);
+    if (handleConditionalGet (aRequestScope,
+                              aUnifiedResponse,
+                              aValidators,
+                              () -> SMPMetaManager.getPublicReadModel ().getBusinessCardOfID (aParticipantID) != null))
+      return;
+
+    final long nStartNanos = System.nanoTime ();
+    final MutableBoolean aCreated = new MutableBoolean (false);
+    final SMPRestResponseContent aContent = SMPRestResponseCache.getCachedIfEnabled (EResponseType.BUSINESS_CARD,
+                                                                                     aParticipantID,
+                                                                                     aParticipantID == null ? sServiceGroupID
+                                                                                                            : aParticipantID.getURIEncoded (),
+                                                                                     () -> {
+                                                                                       aCreated.set (true);
+                                                                                       return _createResponse (aDataProvider, sServiceGroupID);
+                                                                                     });
+    if (!aCreated.booleanValue ())
+    {
+      // Served from the cache - the server API was not invoked
+      SMPRestServerAPIStatistics.onReadSuccess (BusinessCardServerAPI.class,
+                                                "businesscard",
+                                                "getBusinessCard",
+                                                sServiceGroupID,
+                                                null,
+                                                nStartNanos);
+    }
 
-    aUnifiedResponse.setContent (aBytes).setMimeType (CMimeType.TEXT_XML).setCharset (XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ);
+    setResponseContent (aRequestScope,
+                        aUnifiedResponse,
+                        aContent,
+                        CMimeType.TEXT_XML,
+                        XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ,
+                        aValidators);
   }
 }
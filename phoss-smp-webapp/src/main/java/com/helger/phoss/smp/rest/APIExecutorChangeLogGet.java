@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.mime.CMimeType;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.StringParser;
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonArray;
+import com.helger.json.JsonObject;
+import com.helger.json.serialize.JsonWriter;
+import com.helger.json.serialize.JsonWriterSettings;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.changelog.ISMPChangeLogManager;
+import com.helger.phoss.smp.domain.changelog.SMPChangeLogEntry;
+import com.helger.phoss.smp.domain.changelog.SMPChangeLogRecorder;
+import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
+import com.helger.phoss.smp.exception.SMPBadRequestException;
+import com.helger.phoss.smp.exception.SMPPreconditionFailedException;
+import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
+import com.helger.phoss.smp.restapi.SMPAPICredentials;
+import com.helger.photon.api.IAPIDescriptor;
+import com.helger.servlet.response.UnifiedResponse;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+
+/**
+ * REST API to read the change log. It returns all changes with a sequence
+ * number greater than the <code>since</code> parameter in ascending order.
+ * Clients remember the <code>last</code> value of the response and provide it
+ * as <code>since</code> in the next call. If <code>wait</code> is provided and
+ * no change is available, the call blocks up to this number of seconds until
+ * a change arrives (long polling).<br>
+ * If older changes were already removed from the change log, the response
+ * contains <code>"resync": true</code> and the client must perform a full
+ * reload before continuing with the returned changes. The <code>first</code>
+ * value of the response is the oldest sequence number still available.<br>
+ * The <code>lost</code> value contains the number of changes that could not be
+ * recorded since the start of this instance. If it increases, the client must
+ * perform a full reload as well.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class APIExecutorChangeLogGet extends AbstractSMPAPIExecutor
+{
+  public static final String PARAM_SINCE = "since";
+  public static final String PARAM_LIMIT = "limit";
+  public static final String PARAM_WAIT = "wait";
+
+  public static final int DEFAULT_LIMIT = 100;
+  public static final int MAX_LIMIT = 1_000;
+  public static final int MAX_WAIT_SECONDS = 60;
+
+  // Re-query the backend at least this often while waiting, so that changes of
+  // other instances sharing the same database are found as well
+  private static final long POLL_INTERVAL_MILLIS = 1_000;
+
+  private static long _getLongParam (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                                     @Nonnull @Nonempty final String sParamName,
+                                     final long nDefault,
+                                     final long nMinValue,
+                                     final long nMaxValue,
+                                     @Nonnull final ISMPServerAPIDataProvider aDataProvider) throws SMPBadRequestException
+  {
+    final String sValue = aRequestScope.params ().getAsString (sParamName);
+    if (StringHelper.hasNoText (sValue))
+      return nDefault;
+
+    final long ret = StringParser.parseLong (sValue, Long.MIN_VALUE);
+    if (ret < nMinValue || ret > nMaxValue)
+      throw new SMPBadRequestException ("Invalid value '" + sValue + "' for parameter '" + sParamName + "'",
+                                        aDataProvider.getCurrentURI ());
+    return ret;
+  }
+
+  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
+                         @Nonnull @Nonempty final String sPath,
+                         @Nonnull final Map <String, String> aPathVariables,
+                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, null);
+
+    final SMPChangeLogRecorder aRecorder = SMPMetaManager.getChangeLogRecorder ();
+    if (aRecorder == null)
+      throw new SMPPreconditionFailedException ("The change log is disabled", aDataProvider.getCurrentURI ());
+
+    // Only authenticated user may do so
+    final SMPAPICredentials aCredentials = getMandatoryAuth (aRequestScope.headers ());
+    SMPUserManagerPhoton.validateUserCredentials (aCredentials);
+
+    final long nSince = _getLongParam (aRequestScope, PARAM_SINCE, 0, 0, Long.MAX_VALUE, aDataProvider);
+    final int nLimit = (int) _getLongParam (aRequestScope, PARAM_LIMIT, DEFAULT_LIMIT, 1, MAX_LIMIT, aDataProvider);
+    final long nWaitSeconds = _getLongParam (aRequestScope, PARAM_WAIT, 0, 0, MAX_WAIT_SECONDS, aDataProvider);
+
+    final ISMPChangeLogManager aChangeLogMgr = SMPMetaManager.getChangeLogMgr ();
+    final long nDeadline = System.nanoTime () + TimeUnit.SECONDS.toNanos (nWaitSeconds);
+
+    ICommonsList <SMPChangeLogEntry> aChanges = aChangeLogMgr.getAllChangesAfter (nSince, nLimit);
+    while (aChanges.isEmpty ())
+    {
+      final long nRemainingMillis = TimeUnit.NANOSECONDS.toMillis (nDeadline - System.nanoTime ());
+      if (nRemainingMillis <= 0)
+        break;
+
+      aRecorder.waitForChangeAfter (nSince, Math.min (nRemainingMillis, POLL_INTERVAL_MILLIS));
+      aChanges = aChangeLogMgr.getAllChangesAfter (nSince, nLimit);
+    }
+
+    // Read after the changes, so that a concurrent truncation is not missed
+    final long nFirst = aChangeLogMgr.getFirstSequence ();
+    final boolean bResync = aChangeLogMgr.isResyncRequired (nSince) ||
+                            (aChanges.isNotEmpty () && aChanges.getFirstOrNull ().getSequence () > nSince + 1);
+
+    final IJsonArray aItems = new JsonArray ();
+    for (final SMPChangeLogEntry aEntry : aChanges)
+      aItems.add (aEntry.getAsJsonObject ());
+
+    final IJsonObject aJson = new JsonObject ();
+    aJson.add ("since", nSince);
+    aJson.add ("first", nFirst);
+    aJson.add ("resync", bResync);
+    aJson.add ("lost", aRecorder.getLostChangeCount ());
+    // The value to be used as "since" in the next call
+    aJson.add ("last", aChanges.isEmpty () ? nSince : aChanges.getLastOrNull ().getSequence ());
+    aJson.add ("hasMore", aChanges.size () == nLimit);
+    aJson.addJson ("changes", aItems);
+
+    final String sRet = new JsonWriter (JsonWriterSettings.DEFAULT_SETTINGS_FORMATTED).writeAsString (aJson);
+    aUnifiedResponse.setContentAndCharset (sRet, StandardCharsets.UTF_8)
+                    .setMimeType (CMimeType.APPLICATION_JSON)
+                    .disableCaching ();
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.http.CHttp;
+import com.helger.phoss.smp.app.SMPDirectoryBulkPush;
+import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
+import com.helger.phoss.smp.exception.SMPNotFoundException;
+import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
+import com.helger.phoss.smp.restapi.SMPAPICredentials;
+import com.helger.photon.api.IAPIDescriptor;
+import com.helger.servlet.response.UnifiedResponse;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+
+/**
+ * REST API to cancel the currently running push of all Business Cards to the
+ * Directory. The push stops after the current chunk and can be resumed later
+ * on.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class APIExecutorDirectoryBulkPushDelete extends AbstractSMPAPIExecutor
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorDirectoryBulkPushDelete.class);
+
+  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
+                         @Nonnull @Nonempty final String sPath,
+                         @Nonnull final Map <String, String> aPathVariables,
+                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, null);
+
+    // Only authenticated user may do so
+    final SMPAPICredentials aCredentials = getMandatoryAuth (aRequestScope.headers ());
+    SMPUserManagerPhoton.validateUserCredentials (aCredentials);
+
+    if (SMPDirectoryBulkPush.getInstance ().cancel ().isFailure ())
+    {
+      throw new SMPNotFoundException ("No push of all Business Cards is running", aDataProvider.getCurrentURI ());
+    }
+    LOGGER.info ("[REST API Directory-Bulk-Push] Cancellation of pushing all Business Cards was requested");
+
+    aUnifiedResponse.setStatus (CHttp.HTTP_OK);
+  }
+}
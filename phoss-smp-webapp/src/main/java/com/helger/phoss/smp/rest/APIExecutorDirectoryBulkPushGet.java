@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.mime.CMimeType;
+import com.helger.json.IJsonObject;
+import com.helger.json.serialize.JsonWriter;
+import com.helger.json.serialize.JsonWriterSettings;
+import com.helger.phoss.smp.app.SMPDirectoryBulkPush;
+import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
+import com.helger.phoss.smp.restapi.SMPAPICredentials;
+import com.helger.photon.api.IAPIDescriptor;
+import com.helger.servlet.response.UnifiedResponse;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+
+/**
+ * REST API to get the status of the last push of all Business Cards to the
+ * Directory.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class APIExecutorDirectoryBulkPushGet extends AbstractSMPAPIExecutor
+{
+  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
+                         @Nonnull @Nonempty final String sPath,
+                         @Nonnull final Map <String, String> aPathVariables,
+                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    // Only authenticated user may do so
+    final SMPAPICredentials aCredentials = getMandatoryAuth (aRequestScope.headers ());
+    SMPUserManagerPhoton.validateUserCredentials (aCredentials);
+
+    final IJsonObject aJson = SMPDirectoryBulkPush.getInstance ().getStatusAsJsonObject ();
+
+    final String sRet = new JsonWriter (JsonWriterSettings.DEFAULT_SETTINGS_FORMATTED).writeAsString (aJson);
+    aUnifiedResponse.setContentAndCharset (sRet, StandardCharsets.UTF_8)
+                    .setMimeType (CMimeType.APPLICATION_JSON)
+                    .disableCaching ();
+  }
+}
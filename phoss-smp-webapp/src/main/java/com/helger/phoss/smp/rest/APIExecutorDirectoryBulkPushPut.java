@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.mime.CMimeType;
+import com.helger.commons.string.StringParser;
+import com.helger.json.IJsonObject;
+import com.helger.json.serialize.JsonWriter;
+import com.helger.json.serialize.JsonWriterSettings;
+import com.helger.phoss.smp.app.SMPDirectoryBulkPush;
+import com.helger.phoss.smp.app.SMPWebAppConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
+import com.helger.phoss.smp.exception.SMPBadRequestException;
+import com.helger.phoss.smp.exception.SMPPreconditionFailedException;
+import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
+import com.helger.phoss.smp.restapi.SMPAPICredentials;
+import com.helger.photon.api.IAPIDescriptor;
+import com.helger.photon.security.user.IUser;
+import com.helger.servlet.response.UnifiedResponse;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+
+/**
+ * REST API to start pushing all Business Cards to the Directory in the
+ * background. If the parameter <code>resume</code> is <code>true</code>, the
+ * last interrupted or cancelled push is continued instead. The response
+ * contains the status of the started push.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class APIExecutorDirectoryBulkPushPut extends AbstractSMPAPIExecutor
+{
+  public static final String PARAM_RESUME = "resume";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorDirectoryBulkPushPut.class);
+
+  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
+                         @Nonnull @Nonempty final String sPath,
+                         @Nonnull final Map <String, String> aPathVariables,
+                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, null);
+
+    if (!SMPMetaManager.getSettings ().isDirectoryIntegrationEnabled ())
+    {
+      // PD integration is disabled
+      throw new SMPPreconditionFailedException ("The " +
+                                                SMPWebAppConfiguration.getDirectoryName () +
+                                                " integration is disabled. directoryBulkPush will not be executed",
+                                                aDataProvider.getCurrentURI ());
+    }
+
+    final String sLogPrefix = "[REST API Directory-Bulk-Push] ";
+
+    // Only authenticated user may do so
+    final SMPAPICredentials aCredentials = getMandatoryAuth (aRequestScope.headers ());
+    final IUser aUser = SMPUserManagerPhoton.validateUserCredentials (aCredentials);
+
+    final boolean bResume = StringParser.parseBool (aRequestScope.params ().getAsString (PARAM_RESUME), false);
+
+    final SMPDirectoryBulkPush aBulkPush = SMPDirectoryBulkPush.getInstance ();
+    if (aBulkPush.start (aUser.getID (), bResume).isFailure ())
+    {
+      throw new SMPBadRequestException (bResume ? "There is no push of all Business Cards that can be resumed"
+                                                : "A push of all Business Cards is already running",
+                                        aDataProvider.getCurrentURI ());
+    }
+    LOGGER.info (sLogPrefix + (bResume ? "Resumed" : "Started") + " pushing all Business Cards");
+
+    final IJsonObject aJson = aBulkPush.getStatusAsJsonObject ();
+    final String sRet = new JsonWriter (JsonWriterSettings.DEFAULT_SETTINGS_FORMATTED).writeAsString (aJson);
+    aUnifiedResponse.setContentAndCharset (sRet, StandardCharsets.UTF_8)
+                    .setMimeType (CMimeType.APPLICATION_JSON)
+                    .disableCaching ();
+  }
+}
@@ -26,13 +26,12 @@ import org.slf4j.LoggerFactory;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.mime.CMimeType;
-import com.helger.commons.mime.MimeType;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
 import com.helger.phoss.smp.exception.SMPUnauthorizedException;
-import com.helger.phoss.smp.exchange.ServiceGroupExport;
+import com.helger.phoss.smp.exchange.ServiceGroupExportXMLVer10Writer;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
 import com.helger.phoss.smp.restapi.SMPAPICredentials;
 import com.helger.phoss.smp.settings.ISMPSettings;
@@ -40,10 +39,6 @@ import com.helger.photon.api.IAPIDescriptor;
 import com.helger.photon.security.user.IUser;
 import com.helger.servlet.response.UnifiedResponse;
 import com.helger.web.scope.IRequestWebScopeWithoutResponse;
-import com.helger.xml.microdom.IMicroDocument;
-import com.helger.xml.microdom.serialize.MicroWriter;
-import com.helger.xml.serialize.write.IXMLWriterSettings;
-import com.helger.xml.serialize.write.XMLWriterSettings;
 
 /**
  * REST API to export all Service Groups of one owner into XML v1
@@ -91,15 +86,14 @@ public final class APIExecutorExportByOwnerXMLVer1 extends AbstractSMPAPIExecuto
     final boolean bIncludeBusinessCards = aRequestScope.params ()
                                                        .getAsBoolean (PARAM_INCLUDE_BUSINESS_CARDS,
                                                                       aSettings.isDirectoryIntegrationEnabled ());
-    final IMicroDocument aDoc = ServiceGroupExport.createExportDataXMLVer10 (aAllServiceGroups, bIncludeBusinessCards);
-
-    LOGGER.info (sLogPrefix + "Finished creating Export data");
-
-    // Build the XML response
-    final IXMLWriterSettings aXWS = new XMLWriterSettings ();
-    aUnifiedResponse.setContentAndCharset (MicroWriter.getNodeAsString (aDoc, aXWS), aXWS.getCharset ())
-                    .setMimeType (new MimeType (CMimeType.APPLICATION_XML).addParameter (CMimeType.PARAMETER_NAME_CHARSET,
-                                                                                         aXWS.getCharset ().name ()))
-                    .disableCaching ();
+    // The XML is written service group by service group while it is sent
+    final ServiceGroupExportXMLVer10Writer aExportWriter = new ServiceGroupExportXMLVer10Writer (aAllServiceGroups,
+                                                                                                 bIncludeBusinessCards);
+    setResponseContentStreaming (aRequestScope,
+                                 aUnifiedResponse,
+                                 aExportWriter::writeNextChunk,
+                                 CMimeType.APPLICATION_XML,
+                                 aExportWriter.getCharset ());
+    aUnifiedResponse.disableCaching ();
   }
 }
@@ -38,6 +38,7 @@ import com.helger.commons.io.stream.StreamHelper;
 import com.helger.commons.mime.CMimeType;
 import com.helger.commons.mime.MimeType;
 import com.helger.commons.mutable.MutableInt;
+import com.helger.commons.string.StringHelper;
 import com.helger.commons.timing.StopWatch;
 import com.helger.json.IJsonArray;
 import com.helger.json.IJsonObject;
@@ -52,6 +53,7 @@ import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
 import com.helger.phoss.smp.exception.SMPBadRequestException;
 import com.helger.phoss.smp.exception.SMPPreconditionFailedException;
 import com.helger.phoss.smp.exchange.CSMPExchange;
+import com.helger.phoss.smp.exchange.EImportMode;
 import com.helger.phoss.smp.exchange.ImportActionItem;
 import com.helger.phoss.smp.exchange.ImportSummary;
 import com.helger.phoss.smp.exchange.ServiceGroupImport;
@@ -82,6 +84,14 @@ public final class APIExecutorImportXMLVer1 extends AbstractSMPAPIExecutor
   private static final boolean DEFAULT_OVERWRITE_EXISTING = false;
 
   public static final String PARAM_OVERVWRITE_EXISTING = "overwrite-existing";
+  /**
+   * The import mode. If present, it takes precedence over
+   * {@link #PARAM_OVERVWRITE_EXISTING}.
+   *
+   * @see EImportMode
+   * @since 7.1.1
+   */
+  public static final String PARAM_MODE = "mode";
 
   private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorImportXMLVer1.class);
 
@@ -143,6 +153,17 @@ public final class APIExecutorImportXMLVer1 extends AbstractSMPAPIExecutor
     final boolean bOverwriteExisting = aRequestScope.params ()
                                                     .getAsBoolean (PARAM_OVERVWRITE_EXISTING,
                                                                    DEFAULT_OVERWRITE_EXISTING);
+    final String sMode = aRequestScope.params ().getAsString (PARAM_MODE);
+    final EImportMode eMode;
+    if (StringHelper.hasText (sMode))
+    {
+      eMode = EImportMode.getFromIDOrNull (sMode);
+      if (eMode == null)
+        throw new SMPBadRequestException ("Unsupported import mode '" + sMode + "' provided",
+                                          aDataProvider.getCurrentURI ());
+    }
+    else
+      eMode = EImportMode.getFromOverwriteExisting (bOverwriteExisting);
 
     final byte [] aPayload = StreamHelper.getAllBytes (aRequestScope.getRequest ().getInputStream ());
     final IMicroDocument aDoc = MicroReader.readMicroXML (aPayload);
@@ -169,7 +190,7 @@ public final class APIExecutorImportXMLVer1 extends AbstractSMPAPIExecutor
     final ICommonsList <ImportActionItem> aActionList = new CommonsArrayList <> ();
     final ImportSummary aImportSummary = new ImportSummary ();
     ServiceGroupImport.importXMLVer10 (aDoc.getDocumentElement (),
-                                       bOverwriteExisting,
+                                       eMode,
                                        aDefaultOwner,
                                        aAllServiceGroupIDs,
                                        aAllBusinessCardIDs,
@@ -190,7 +211,8 @@ public final class APIExecutorImportXMLVer1 extends AbstractSMPAPIExecutor
       eRoot.setAttribute ("importStartDateTime", PDTWebDateHelper.getAsStringXSD (aQueryDT));
 
       final IMicroElement eSettings = eRoot.appendElement ("settings");
-      eSettings.setAttribute ("overwriteExisting", bOverwriteExisting);
+      eSettings.setAttribute ("overwriteExisting", eMode == EImportMode.OVERWRITE_EXISTING);
+      eSettings.setAttribute ("mode", eMode.getID ());
       eSettings.setAttribute ("defaultOwnerID", aDefaultOwner.getID ());
       eSettings.setAttribute ("defaultOwnerLoginName", aDefaultOwner.getLoginName ());
 
@@ -224,7 +246,8 @@ public final class APIExecutorImportXMLVer1 extends AbstractSMPAPIExecutor
       aJson.add ("version", "1");
       aJson.add ("importStartDateTime", DateTimeFormatter.ISO_ZONED_DATE_TIME.format (aQueryDT));
       aJson.addJson ("settings",
-                     new JsonObject ().add ("overwriteExisting", bOverwriteExisting)
+                     new JsonObject ().add ("overwriteExisting", eMode == EImportMode.OVERWRITE_EXISTING)
+                                      .add ("mode", eMode.getID ())
                                       .add ("defaultOwnerID", aDefaultOwner.getID ())
                                       .add ("defaultOwnerLoginName", aDefaultOwner.getLoginName ()));
       final IJsonArray aActions = new JsonArray ();
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.mime.CMimeType;
+import com.helger.json.serialize.JsonWriter;
+import com.helger.json.serialize.JsonWriterSettings;
+import com.helger.phoss.smp.domain.pmigration.SMPOutboundMigrationBulkJob;
+import com.helger.phoss.smp.domain.pmigration.SMPOutboundMigrationBulkJobManager;
+import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
+import com.helger.phoss.smp.exception.SMPNotFoundException;
+import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
+import com.helger.phoss.smp.restapi.SMPAPICredentials;
+import com.helger.photon.api.IAPIDescriptor;
+import com.helger.photon.security.user.IUser;
+import com.helger.servlet.response.UnifiedResponse;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+
+/**
+ * REST API to cancel a bulk outbound migration. All participants that were not
+ * yet processed are marked as failed. Migrations already prepared in the SML
+ * are not reverted. Only the user that started the job and administrators may
+ * cancel it.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class APIExecutorMigrationOutboundBulkDelete extends AbstractSMPAPIExecutor
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorMigrationOutboundBulkDelete.class);
+
+  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
+                         @Nonnull @Nonempty final String sPath,
+                         @Nonnull final Map <String, String> aPathVariables,
+                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final String sJobID = aPathVariables.get (SMPRestFilter.PARAM_MIGRATION_ID);
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, null);
+
+    // Only authenticated user may do so
+    final SMPAPICredentials aCredentials = getMandatoryAuth (aRequestScope.headers ());
+    final IUser aUser = SMPUserManagerPhoton.validateUserCredentials (aCredentials);
+
+    final SMPOutboundMigrationBulkJob aJob = SMPOutboundMigrationBulkJobManager.getInstance ().getJobOfID (sJobID);
+    // Jobs of other users are treated like unknown jobs
+    if (aJob == null || !aJob.isAccessibleBy (aUser))
+    {
+      throw new SMPNotFoundException ("The bulk outbound migration '" + sJobID + "' is unknown",
+                                      aDataProvider.getCurrentURI ());
+    }
+
+    if (!aJob.isFinished ())
+    {
+      aJob.cancel ();
+      LOGGER.info ("[REST API Migration-Outbound-Bulk] Cancelled bulk outbound migration '" + sJobID + "'");
+    }
+
+    final String sRet = new JsonWriter (JsonWriterSettings.DEFAULT_SETTINGS_FORMATTED).writeAsString (aJob.getStatusAsJsonObject ());
+    aUnifiedResponse.setContentAndCharset (sRet, StandardCharsets.UTF_8)
+                    .setMimeType (CMimeType.APPLICATION_JSON)
+                    .disableCaching ();
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.mime.CMimeType;
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonArray;
+import com.helger.json.serialize.JsonWriter;
+import com.helger.json.serialize.JsonWriterSettings;
+import com.helger.phoss.smp.domain.pmigration.SMPOutboundMigrationBulkJob;
+import com.helger.phoss.smp.domain.pmigration.SMPOutboundMigrationBulkJobManager;
+import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
+import com.helger.phoss.smp.exception.SMPNotFoundException;
+import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
+import com.helger.phoss.smp.restapi.SMPAPICredentials;
+import com.helger.photon.api.IAPIDescriptor;
+import com.helger.photon.security.user.IUser;
+import com.helger.servlet.response.UnifiedResponse;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+
+/**
+ * REST API to get the status of a bulk outbound migration, or to download all
+ * migration keys created by it as a single CSV file. Only the user that started
+ * the job and administrators may access it.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class APIExecutorMigrationOutboundBulkGet extends AbstractSMPAPIExecutor
+{
+  private final boolean m_bKeysOnly;
+
+  public APIExecutorMigrationOutboundBulkGet (final boolean bKeysOnly)
+  {
+    m_bKeysOnly = bKeysOnly;
+  }
+
+  @Nonnull
+  private static String _getKeysAsCSV (@Nonnull final SMPOutboundMigrationBulkJob aJob)
+  {
+    final StringBuilder aSB = new StringBuilder ("participantID;migrationKey\n");
+    for (final SMPOutboundMigrationBulkJob.Result aResult : aJob.getAllResults ())
+      if (aResult.isSuccess ())
+        aSB.append (aResult.getParticipantID ().getURIEncoded ())
+           .append (';')
+           .append (aResult.getMigrationKey ())
+           .append ('\n');
+    return aSB.toString ();
+  }
+
+  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
+                         @Nonnull @Nonempty final String sPath,
+                         @Nonnull final Map <String, String> aPathVariables,
+                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final String sJobID = aPathVariables.get (SMPRestFilter.PARAM_MIGRATION_ID);
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, null);
+
+    // Only authenticated user may do so
+    final SMPAPICredentials aCredentials = getMandatoryAuth (aRequestScope.headers ());
+    final IUser aUser = SMPUserManagerPhoton.validateUserCredentials (aCredentials);
+
+    final SMPOutboundMigrationBulkJob aJob = SMPOutboundMigrationBulkJobManager.getInstance ().getJobOfID (sJobID);
+    // Jobs of other users are treated like unknown jobs
+    if (aJob == null || !aJob.isAccessibleBy (aUser))
+    {
+      throw new SMPNotFoundException ("The bulk outbound migration '" + sJobID + "' is unknown",
+                                      aDataProvider.getCurrentURI ());
+    }
+
+    if (m_bKeysOnly)
+    {
+      // All migration keys created so far in one file
+      aUnifiedResponse.setContentAndCharset (_getKeysAsCSV (aJob), StandardCharsets.UTF_8)
+                      .setMimeType (CMimeType.TEXT_CSV)
+                      .setContentDispositionFilename ("migration-keys-" + aJob.getID () + ".csv")
+                      .disableCaching ();
+    }
+    else
+    {
+      final IJsonObject aJson = aJob.getStatusAsJsonObject ();
+      final IJsonArray aItems = new JsonArray ();
+      for (final SMPOutboundMigrationBulkJob.Result aResult : aJob.getAllResults ())
+        aItems.add (aResult.getAsJsonObject ());
+      aJson.addJson ("items", aItems);
+
+      final String sRet = new JsonWriter (JsonWriterSettings.DEFAULT_SETTINGS_FORMATTED).writeAsString (aJson);
+      aUnifiedResponse.setContentAndCharset (sRet, StandardCharsets.UTF_8)
+                      .setMimeType (CMimeType.APPLICATION_JSON)
+                      .disableCaching ();
+    }
+  }
+}
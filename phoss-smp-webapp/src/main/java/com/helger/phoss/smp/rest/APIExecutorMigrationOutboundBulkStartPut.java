@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsHashSet;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.http.CHttp;
+import com.helger.commons.io.stream.NonBlockingBufferedReader;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.mime.CMimeType;
+import com.helger.commons.string.StringHelper;
+import com.helger.json.serialize.JsonWriter;
+import com.helger.json.serialize.JsonWriterSettings;
+import com.helger.peppol.sml.ISMLInfo;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.pmigration.SMPOutboundMigrationBulkJob;
+import com.helger.phoss.smp.domain.pmigration.SMPOutboundMigrationBulkJobManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
+import com.helger.phoss.smp.exception.SMPBadRequestException;
+import com.helger.phoss.smp.exception.SMPInternalErrorException;
+import com.helger.phoss.smp.exception.SMPPreconditionFailedException;
+import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
+import com.helger.phoss.smp.restapi.SMPAPICredentials;
+import com.helger.phoss.smp.settings.ISMPSettings;
+import com.helger.photon.api.IAPIDescriptor;
+import com.helger.photon.security.mgr.PhotonSecurityManager;
+import com.helger.photon.security.user.IUser;
+import com.helger.photon.security.user.IUserManager;
+import com.helger.servlet.response.UnifiedResponse;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+
+/**
+ * REST API to start an outbound migration for many participants at once. The
+ * participants are either all Service Groups of the owner provided in the
+ * <code>owner</code> parameter, or the participant identifiers provided in the
+ * request body (one per line). The SML calls are performed asynchronously -
+ * use {@link APIExecutorMigrationOutboundBulkGet} to retrieve the status and
+ * the created migration keys.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class APIExecutorMigrationOutboundBulkStartPut extends AbstractSMPAPIExecutor
+{
+  public static final String PARAM_OWNER = "owner";
+  private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorMigrationOutboundBulkStartPut.class);
+
+  @Nonnull
+  private static ICommonsList <IParticipantIdentifier> _readParticipantIDs (@Nonnull final InputStream aIS,
+                                                                           @Nonnull final ISMPServerAPIDataProvider aDataProvider) throws IOException,
+                                                                                                                                  SMPBadRequestException
+  {
+    final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+    final ICommonsList <IParticipantIdentifier> ret = new CommonsArrayList <> ();
+    final NonBlockingBufferedReader aReader = new NonBlockingBufferedReader (StreamHelper.createReader (aIS,
+                                                                                                        StandardCharsets.UTF_8));
+    try
+    {
+      String sLine;
+      int nLine = 0;
+      while ((sLine = aReader.readLine ()) != null)
+      {
+        nLine++;
+        final String sParticipantID = sLine.trim ();
+        if (sParticipantID.isEmpty () || sParticipantID.startsWith ("#"))
+          continue;
+
+        final IParticipantIdentifier aParticipantID = aIdentifierFactory.parseParticipantIdentifier (sParticipantID);
+        if (aParticipantID == null)
+        {
+          throw new SMPBadRequestException ("Failed to parse participant ID '" +
+                                            sParticipantID +
+                                            "' in line " +
+                                            nLine,
+                                            aDataProvider.getCurrentURI ());
+        }
+        ret.add (aParticipantID);
+      }
+    }
+    finally
+    {
+      StreamHelper.close (aReader);
+    }
+    return ret;
+  }
+
+  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
+                         @Nonnull @Nonempty final String sPath,
+                         @Nonnull final Map <String, String> aPathVariables,
+                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, null);
+
+    // Is the writable API disabled?
+    if (SMPMetaManager.getSettings ().isRESTWritableAPIDisabled ())
+    {
+      throw new SMPPreconditionFailedException ("The writable REST API is disabled. migrationOutboundBulkStart will not be executed",
+                                                aDataProvider.getCurrentURI ());
+    }
+
+    final String sLogPrefix = "[REST API Migration-Outbound-Bulk-Start] ";
+
+    // Only authenticated user may do so
+    final SMPAPICredentials aCredentials = getMandatoryAuth (aRequestScope.headers ());
+    final IUser aUser = SMPUserManagerPhoton.validateUserCredentials (aCredentials);
+
+    final ISMPSettings aSettings = SMPMetaManager.getSettings ();
+    final ISMLInfo aSMLInfo = aSettings.getSMLInfo ();
+    if (aSMLInfo == null)
+    {
+      throw new SMPPreconditionFailedException ("Currently no SML is available. Please select it in the UI at the 'SMP Settings' page",
+                                                aDataProvider.getCurrentURI ());
+    }
+    if (!aSettings.isSMLEnabled ())
+    {
+      throw new SMPPreconditionFailedException ("SML Connection is not enabled hence no participant can be migrated",
+                                                aDataProvider.getCurrentURI ());
+    }
+
+    // Determine the participants to migrate
+    final ICommonsList <IParticipantIdentifier> aParticipantIDs;
+    final String sOwner = StringHelper.trim (aRequestScope.params ().getAsString (PARAM_OWNER));
+    if (StringHelper.hasText (sOwner))
+    {
+      // Try to use ID or login name
+      final IUserManager aUserMgr = PhotonSecurityManager.getUserMgr ();
+      IUser aOwner = aUserMgr.getUserOfID (sOwner);
+      if (aOwner == null)
+        aOwner = aUserMgr.getUserOfLoginName (sOwner);
+      if (aOwner == null)
+      {
+        throw new SMPBadRequestException ("The user ID or login name '" + sOwner + "' does not exist",
+                                          aDataProvider.getCurrentURI ());
+      }
+      aParticipantIDs = SMPMetaManager.getServiceGroupMgr ()
+                                      .getAllSMPServiceGroupsOfOwner (aOwner.getID ())
+                                      .getAllMapped (ISMPServiceGroup::getParticipantIdentifier);
+      LOGGER.info (sLogPrefix + "Migrating all Service Groups of owner '" + aOwner.getLoginName () + "'");
+    }
+    else
+      aParticipantIDs = _readParticipantIDs (aRequestScope.getRequest ().getInputStream (), aDataProvider);
+
+    // Avoid that the same participant is migrated twice in parallel
+    final ICommonsSet <String> aUnique = new CommonsHashSet <> ();
+    aParticipantIDs.removeIf (x -> !aUnique.add (x.getURIEncoded ()));
+    if (aParticipantIDs.isEmpty ())
+    {
+      throw new SMPBadRequestException ("No participant to migrate was provided", aDataProvider.getCurrentURI ());
+    }
+
+    final SMPOutboundMigrationBulkJob aJob;
+    try
+    {
+      aJob = SMPOutboundMigrationBulkJobManager.getInstance ().startJob (aUser.getID (), aParticipantIDs, aSMLInfo);
+    }
+    catch (final GeneralSecurityException ex)
+    {
+      throw new SMPInternalErrorException ("Failed to init SSLContext for SML access", ex);
+    }
+
+    LOGGER.info (sLogPrefix +
+                 "Started bulk outbound migration '" +
+                 aJob.getID () +
+                 "' for " +
+                 aParticipantIDs.size () +
+                 " participant(s)");
+
+    final String sRet = new JsonWriter (JsonWriterSettings.DEFAULT_SETTINGS_FORMATTED).writeAsString (aJob.getStatusAsJsonObject ());
+    aUnifiedResponse.setContentAndCharset (sRet, StandardCharsets.UTF_8)
+                    .setMimeType (CMimeType.APPLICATION_JSON)
+                    .setStatus (CHttp.HTTP_ACCEPTED)
+                    .disableCaching ();
+  }
+}
@@ -16,6 +16,7 @@
  */
 package com.helger.phoss.smp.rest;
 
+import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
@@ -23,8 +24,8 @@ import java.time.format.DateTimeFormatter;
 import java.util.Map;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
-import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,8 +35,6 @@ import com.helger.commons.datetime.PDTFactory;
 import com.helger.commons.http.CHttp;
 import com.helger.commons.mime.CMimeType;
 import com.helger.commons.timing.StopWatch;
-import com.helger.httpclient.HttpClientManager;
-import com.helger.httpclient.response.ResponseHandlerByteArray;
 import com.helger.json.IJsonObject;
 import com.helger.json.serialize.JsonWriter;
 import com.helger.json.serialize.JsonWriterSettings;
@@ -62,6 +61,33 @@ public final class APIExecutorQueryGetBusinessCard extends AbstractSMPAPIExecuto
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorQueryGetBusinessCard.class);
 
+  @Nullable
+  private static IJsonObject _queryRemote (@Nonnull final URI aSMPHostURI,
+                                           @Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    final String sLogPrefix = "[QueryAPI] ";
+
+    final String sBCURL = aSMPHostURI.toString () + "/businesscard/" + aParticipantID.getURIEncoded ();
+    LOGGER.info (sLogPrefix + "Querying BC from '" + sBCURL + "'");
+
+    final byte [] aData = queryBusinessCardBytes (sBCURL);
+    if (aData == null)
+    {
+      LOGGER.warn (sLogPrefix + "No Business Card is available for that participant.");
+      return null;
+    }
+
+    final PDBusinessCard aBC = PDBusinessCardHelper.parseBusinessCard (aData, (Charset) null);
+    if (aBC == null)
+    {
+      LOGGER.error (sLogPrefix + "Failed to parse BC:\n" + new String (aData, StandardCharsets.UTF_8));
+      return null;
+    }
+
+    // Business Card found
+    return aBC.getAsJson ();
+  }
+
   public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
                          @Nonnull @Nonempty final String sPath,
                          @Nonnull final Map <String, String> aPathVariables,
@@ -100,40 +126,13 @@ public final class APIExecutorQueryGetBusinessCard extends AbstractSMPAPIExecuto
                  aQueryParams.getSMPHostURI () +
                  "'");
 
-    IJsonObject aJson = null;
-
-    final String sBCURL = aQueryParams.getSMPHostURI ().toString () +
-                          "/businesscard/" +
-                          aParticipantID.getURIEncoded ();
-    LOGGER.info (sLogPrefix + "Querying BC from '" + sBCURL + "'");
-
-    byte [] aData;
-    try (HttpClientManager aHttpClientMgr = new HttpClientManager ())
-    {
-      final HttpGet aGet = new HttpGet (sBCURL);
-      aData = aHttpClientMgr.execute (aGet, new ResponseHandlerByteArray ());
-    }
-    catch (final Exception ex)
-    {
-      aData = null;
-    }
-    if (aData == null)
-    {
-      LOGGER.warn (sLogPrefix + "No Business Card is available for that participant.");
-    }
-    else
-    {
-      final PDBusinessCard aBC = PDBusinessCardHelper.parseBusinessCard (aData, (Charset) null);
-      if (aBC == null)
-      {
-        LOGGER.error (sLogPrefix + "Failed to parse BC:\n" + new String (aData, StandardCharsets.UTF_8));
-      }
-      else
-      {
-        // Business Card found
-        aJson = aBC.getAsJson ();
-      }
-    }
+    final String sCacheKey = SMPRemoteQueryCache.createKey ("businesscard",
+                                                            aQueryParams.getSMPHostURI (),
+                                                            aParticipantID.getURIEncoded ());
+    final IJsonObject aJson = SMPRemoteQueryCache.getInstance ()
+                                                 .getResponse (sCacheKey,
+                                                               () -> _queryRemote (aQueryParams.getSMPHostURI (),
+                                                                                   aParticipantID));
     aSW.stop ();
     if (aJson == null)
     {
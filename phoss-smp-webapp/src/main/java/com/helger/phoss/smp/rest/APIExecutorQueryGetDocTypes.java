@@ -16,6 +16,7 @@
  */
 package com.helger.phoss.smp.rest;
 
+import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
@@ -23,8 +24,8 @@ import java.time.format.DateTimeFormatter;
 import java.util.Map;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
-import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,8 +37,6 @@ import com.helger.commons.datetime.PDTFactory;
 import com.helger.commons.http.CHttp;
 import com.helger.commons.mime.CMimeType;
 import com.helger.commons.timing.StopWatch;
-import com.helger.httpclient.HttpClientManager;
-import com.helger.httpclient.response.ResponseHandlerByteArray;
 import com.helger.json.IJsonObject;
 import com.helger.json.JsonObject;
 import com.helger.json.serialize.JsonWriter;
@@ -57,6 +56,7 @@ import com.helger.photon.api.IAPIDescriptor;
 import com.helger.servlet.response.UnifiedResponse;
 import com.helger.smpclient.bdxr1.BDXRClientReadOnly;
 import com.helger.smpclient.bdxr2.BDXR2ClientReadOnly;
+import com.helger.smpclient.exception.SMPClientException;
 import com.helger.smpclient.json.SMPJsonResponse;
 import com.helger.smpclient.peppol.SMPClientReadOnly;
 import com.helger.web.scope.IRequestWebScopeWithoutResponse;
@@ -65,55 +65,22 @@ public final class APIExecutorQueryGetDocTypes extends AbstractSMPAPIExecutorQue
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorQueryGetDocTypes.class);
 
-  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
-                         @Nonnull @Nonempty final String sPath,
-                         @Nonnull final Map <String, String> aPathVariables,
-                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
-                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  @Nullable
+  private static IJsonObject _queryRemote (@Nonnull final ESMPAPIType eAPIType,
+                                           @Nonnull final IIdentifierFactory aIF,
+                                           @Nonnull final URI aSMPHostURI,
+                                           @Nonnull final IParticipantIdentifier aParticipantID,
+                                           final boolean bXMLSchemaValidation,
+                                           final boolean bQueryBusinessCard) throws SMPClientException
   {
-    final String sPathServiceGroupID = aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID);
-    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, sPathServiceGroupID);
-
-    // Is the remote query API disabled?
-    if (SMPServerConfiguration.isRestRemoteQueryAPIDisabled ())
-    {
-      throw new SMPPreconditionFailedException ("The remote query API is disabled. getRemoteDocTypes will not be executed",
-                                                aDataProvider.getCurrentURI ());
-    }
-    final IIdentifierFactory aIF = SMPMetaManager.getIdentifierFactory ();
-    final ESMPAPIType eAPIType = SMPServerConfiguration.getRESTType ().getAPIType ();
-
-    final IParticipantIdentifier aParticipantID = aIF.parseParticipantIdentifier (sPathServiceGroupID);
-    if (aParticipantID == null)
-    {
-      throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, aDataProvider.getCurrentURI ());
-    }
-    final SMPQueryParams aQueryParams = SMPQueryParams.create (eAPIType, aParticipantID);
-
-    final boolean bQueryBusinessCard = aRequestScope.params ().getAsBoolean ("businessCard", false);
-    final boolean bXMLSchemaValidation = aRequestScope.params ().getAsBoolean ("xmlSchemaValidation", true);
-
-    final ZonedDateTime aQueryDT = PDTFactory.getCurrentZonedDateTimeUTC ();
-    final StopWatch aSW = StopWatch.createdStarted ();
-
     final String sLogPrefix = "[QueryAPI] ";
 
-    LOGGER.info (sLogPrefix +
-                 "Document types of '" +
-                 aParticipantID.getURIEncoded () +
-                 "' are queried using SMP API '" +
-                 eAPIType +
-                 "' from '" +
-                 aQueryParams.getSMPHostURI () +
-                 "'; XSD validation=" +
-                 bXMLSchemaValidation);
-
     ICommonsSortedMap <String, String> aSGHrefs = null;
     switch (eAPIType)
     {
       case PEPPOL:
       {
-        final SMPClientReadOnly aSMPClient = new SMPClientReadOnly (aQueryParams.getSMPHostURI ());
+        final SMPClientReadOnly aSMPClient = createPeppolClient (aSMPHostURI);
         aSMPClient.setXMLSchemaValidation (bXMLSchemaValidation);
 
         // Get all HRefs and sort them by decoded URL
@@ -136,7 +103,7 @@ public final class APIExecutorQueryGetDocTypes extends AbstractSMPAPIExecutorQue
       case OASIS_BDXR_V1:
       {
         aSGHrefs = new CommonsTreeMap <> ();
-        final BDXRClientReadOnly aBDXR1Client = new BDXRClientReadOnly (aQueryParams.getSMPHostURI ());
+        final BDXRClientReadOnly aBDXR1Client = createBDXR1Client (aSMPHostURI);
         aBDXR1Client.setXMLSchemaValidation (bXMLSchemaValidation);
 
         // Get all HRefs and sort them by decoded URL
@@ -159,7 +126,7 @@ public final class APIExecutorQueryGetDocTypes extends AbstractSMPAPIExecutorQue
       case OASIS_BDXR_V2:
       {
         aSGHrefs = new CommonsTreeMap <> ();
-        final BDXR2ClientReadOnly aBDXR2Client = new BDXR2ClientReadOnly (aQueryParams.getSMPHostURI ());
+        final BDXR2ClientReadOnly aBDXR2Client = createBDXR2Client (aSMPHostURI);
         aBDXR2Client.setXMLSchemaValidation (bXMLSchemaValidation);
 
         // Get all HRefs and sort them by decoded URL
@@ -181,26 +148,17 @@ public final class APIExecutorQueryGetDocTypes extends AbstractSMPAPIExecutorQue
         break;
       }
     }
-    IJsonObject aJson = null;
+    IJsonObject ret = null;
     if (aSGHrefs != null)
-      aJson = SMPJsonResponse.convert (eAPIType, aParticipantID, aSGHrefs, aIF);
+      ret = SMPJsonResponse.convert (eAPIType, aParticipantID, aSGHrefs, aIF);
     if (bQueryBusinessCard)
     {
-      final String sBCURL = aQueryParams.getSMPHostURI ().toString () +
+      final String sBCURL = aSMPHostURI.toString () +
                             "/businesscard/" +
                             aParticipantID.getURIEncoded ();
       LOGGER.info (sLogPrefix + "Querying BC from '" + sBCURL + "'");
 
-      byte [] aData;
-      try (HttpClientManager aHttpClientMgr = new HttpClientManager ())
-      {
-        final HttpGet aGet = new HttpGet (sBCURL);
-        aData = aHttpClientMgr.execute (aGet, new ResponseHandlerByteArray ());
-      }
-      catch (final Exception ex)
-      {
-        aData = null;
-      }
+      final byte [] aData = queryBusinessCardBytes (sBCURL);
       if (aData == null)
       {
         LOGGER.warn (sLogPrefix + "No Business Card is available for that participant.");
@@ -215,12 +173,90 @@ public final class APIExecutorQueryGetDocTypes extends AbstractSMPAPIExecutorQue
         else
         {
           // Business Card found
-          if (aJson == null)
-            aJson = new JsonObject ();
-          aJson.addJson ("businessCard", aBC.getAsJson ());
+          if (ret == null)
+            ret = new JsonObject ();
+          ret.addJson ("businessCard", aBC.getAsJson ());
         }
       }
     }
+    return ret;
+  }
+
+  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
+                         @Nonnull @Nonempty final String sPath,
+                         @Nonnull final Map <String, String> aPathVariables,
+                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final String sPathServiceGroupID = aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID);
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, sPathServiceGroupID);
+
+    // Is the remote query API disabled?
+    if (SMPServerConfiguration.isRestRemoteQueryAPIDisabled ())
+    {
+      throw new SMPPreconditionFailedException ("The remote query API is disabled. getRemoteDocTypes will not be executed",
+                                                aDataProvider.getCurrentURI ());
+    }
+    final IIdentifierFactory aIF = SMPMetaManager.getIdentifierFactory ();
+    final ESMPAPIType eAPIType = SMPServerConfiguration.getRESTType ().getAPIType ();
+
+    final IParticipantIdentifier aParticipantID = aIF.parseParticipantIdentifier (sPathServiceGroupID);
+    if (aParticipantID == null)
+    {
+      throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, aDataProvider.getCurrentURI ());
+    }
+    final SMPQueryParams aQueryParams = SMPQueryParams.create (eAPIType, aParticipantID);
+
+    final boolean bQueryBusinessCard = aRequestScope.params ().getAsBoolean ("businessCard", false);
+    final boolean bXMLSchemaValidation = aRequestScope.params ().getAsBoolean ("xmlSchemaValidation", true);
+    // Query all service metadata as well?
+    final boolean bQueryServiceMetadata = aRequestScope.params ().getAsBoolean ("serviceMetadata", false);
+    final boolean bVerifySignature = aRequestScope.params ().getAsBoolean ("verifySignature", true);
+
+    final ZonedDateTime aQueryDT = PDTFactory.getCurrentZonedDateTimeUTC ();
+    final StopWatch aSW = StopWatch.createdStarted ();
+
+    final String sLogPrefix = "[QueryAPI] ";
+
+    LOGGER.info (sLogPrefix +
+                 "Document types of '" +
+                 aParticipantID.getURIEncoded () +
+                 "' are queried using SMP API '" +
+                 eAPIType +
+                 "' from '" +
+                 aQueryParams.getSMPHostURI () +
+                 "'; XSD validation=" +
+                 bXMLSchemaValidation +
+                 "; all service metadata=" +
+                 bQueryServiceMetadata);
+
+    final String sCacheKey = SMPRemoteQueryCache.createKey ("doctypes",
+                                                            eAPIType.getID (),
+                                                            aQueryParams.getSMPHostURI (),
+                                                            aParticipantID.getURIEncoded (),
+                                                            Boolean.valueOf (bXMLSchemaValidation),
+                                                            Boolean.valueOf (bQueryBusinessCard));
+    final IJsonObject aJson = SMPRemoteQueryCache.getInstance ()
+                                                 .getResponse (sCacheKey,
+                                                               () -> _queryRemote (eAPIType,
+                                                                                   aIF,
+                                                                                   aQueryParams.getSMPHostURI (),
+                                                                                   aParticipantID,
+                                                                                   bXMLSchemaValidation,
+                                                                                   bQueryBusinessCard));
+    if (aJson != null && bQueryServiceMetadata)
+    {
+      final StopWatch aSMSW = StopWatch.createdStarted ();
+      aJson.addJson ("serviceMetadata",
+                     SMPRemoteQueryFanOut.queryAllServiceMetadata (eAPIType,
+                                                                   aIF,
+                                                                   aQueryParams.getSMPHostURI (),
+                                                                   aParticipantID,
+                                                                   aJson,
+                                                                   bXMLSchemaValidation,
+                                                                   bVerifySignature));
+      aJson.add ("serviceMetadataDurationMillis", aSMSW.stopAndGetMillis ());
+    }
     aSW.stop ();
     if (aJson == null)
     {
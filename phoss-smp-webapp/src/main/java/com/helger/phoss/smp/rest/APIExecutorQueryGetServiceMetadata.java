@@ -16,6 +16,7 @@
  */
 package com.helger.phoss.smp.rest;
 
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -58,6 +59,7 @@ import com.helger.photon.api.IAPIDescriptor;
 import com.helger.servlet.response.UnifiedResponse;
 import com.helger.smpclient.bdxr1.BDXRClientReadOnly;
 import com.helger.smpclient.bdxr2.BDXR2ClientReadOnly;
+import com.helger.smpclient.exception.SMPClientException;
 import com.helger.smpclient.extension.SMPExtensionList;
 import com.helger.smpclient.json.SMPJsonResponse;
 import com.helger.smpclient.peppol.SMPClientReadOnly;
@@ -209,6 +211,112 @@ public final class APIExecutorQueryGetServiceMetadata extends AbstractSMPAPIExec
     return ret;
   }
 
+  @Nullable
+  private static IJsonObject _queryRemote (@Nonnull final ESMPAPIType eAPIType,
+                                           @Nonnull final URI aSMPHostURI,
+                                           @Nonnull final IParticipantIdentifier aParticipantID,
+                                           @Nonnull final IDocumentTypeIdentifier aDocTypeID,
+                                           final boolean bXMLSchemaValidation,
+                                           final boolean bVerifySignature) throws SMPClientException
+  {
+    IJsonObject ret = null;
+    switch (eAPIType)
+    {
+      case PEPPOL:
+      {
+        final SMPClientReadOnly aSMPClient = createPeppolClient (aSMPHostURI);
+        aSMPClient.setXMLSchemaValidation (bXMLSchemaValidation);
+        aSMPClient.setVerifySignature (bVerifySignature);
+
+        final com.helger.xsds.peppol.smp1.SignedServiceMetadataType aSSM = aSMPClient.getServiceMetadataOrNull (aParticipantID,
+                                                                                                                aDocTypeID);
+        if (aSSM != null)
+        {
+          final com.helger.xsds.peppol.smp1.ServiceMetadataType aSM = aSSM.getServiceMetadata ();
+          ret = SMPJsonResponse.convert (aParticipantID, aDocTypeID, aSM);
+        }
+        break;
+      }
+      case OASIS_BDXR_V1:
+      {
+        final BDXRClientReadOnly aBDXR1Client = createBDXR1Client (aSMPHostURI);
+        aBDXR1Client.setXMLSchemaValidation (bXMLSchemaValidation);
+        aBDXR1Client.setVerifySignature (bVerifySignature);
+
+        final com.helger.xsds.bdxr.smp1.SignedServiceMetadataType aSSM = aBDXR1Client.getServiceMetadataOrNull (aParticipantID,
+                                                                                                                aDocTypeID);
+        if (aSSM != null)
+        {
+          final com.helger.xsds.bdxr.smp1.ServiceMetadataType aSM = aSSM.getServiceMetadata ();
+          ret = SMPJsonResponse.convert (aParticipantID, aDocTypeID, aSM);
+        }
+        break;
+      }
+      case OASIS_BDXR_V2:
+      {
+        final BDXR2ClientReadOnly aBDXR2Client = createBDXR2Client (aSMPHostURI);
+        aBDXR2Client.setXMLSchemaValidation (bXMLSchemaValidation);
+        aBDXR2Client.setVerifySignature (bVerifySignature);
+
+        final com.helger.xsds.bdxr.smp2.ServiceMetadataType aSM = aBDXR2Client.getServiceMetadataOrNull (aParticipantID,
+                                                                                                         aDocTypeID);
+        if (aSM != null)
+        {
+          ret = convert (aParticipantID, aDocTypeID, aSM);
+        }
+        break;
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Query the service metadata of a single document type from a remote SMP.
+   * The remote query API response cache is used, if enabled.
+   *
+   * @param eAPIType
+   *        The SMP API type to use. May not be <code>null</code>.
+   * @param aSMPHostURI
+   *        The SMP host URI to query. May not be <code>null</code>.
+   * @param aParticipantID
+   *        The participant ID to query. May not be <code>null</code>.
+   * @param aDocTypeID
+   *        The document type ID to query. May not be <code>null</code>.
+   * @param bXMLSchemaValidation
+   *        <code>true</code> to enable XML Schema validation of the response
+   * @param bVerifySignature
+   *        <code>true</code> to verify the signature of the response
+   * @return The service metadata as JSON or <code>null</code> if not found. A
+   *         copy that may be modified by the caller.
+   * @throws Exception
+   *         In case of error
+   * @since 7.1.1
+   */
+  @Nullable
+  static IJsonObject queryRemoteServiceMetadata (@Nonnull final ESMPAPIType eAPIType,
+                                                 @Nonnull final URI aSMPHostURI,
+                                                 @Nonnull final IParticipantIdentifier aParticipantID,
+                                                 @Nonnull final IDocumentTypeIdentifier aDocTypeID,
+                                                 final boolean bXMLSchemaValidation,
+                                                 final boolean bVerifySignature) throws Exception
+  {
+    final String sCacheKey = SMPRemoteQueryCache.createKey ("servicemetadata",
+                                                            eAPIType.getID (),
+                                                            aSMPHostURI,
+                                                            aParticipantID.getURIEncoded (),
+                                                            aDocTypeID.getURIEncoded (),
+                                                            Boolean.valueOf (bXMLSchemaValidation),
+                                                            Boolean.valueOf (bVerifySignature));
+    return SMPRemoteQueryCache.getInstance ()
+                              .getResponse (sCacheKey,
+                                            () -> _queryRemote (eAPIType,
+                                                                aSMPHostURI,
+                                                                aParticipantID,
+                                                                aDocTypeID,
+                                                                bXMLSchemaValidation,
+                                                                bVerifySignature));
+  }
+
   public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
                          @Nonnull @Nonempty final String sPath,
                          @Nonnull final Map <String, String> aPathVariables,
@@ -262,54 +370,12 @@ public final class APIExecutorQueryGetServiceMetadata extends AbstractSMPAPIExec
                  "; signature verification=" +
                  bVerifySignature);
 
-    IJsonObject aJson = null;
-    switch (eAPIType)
-    {
-      case PEPPOL:
-      {
-        final SMPClientReadOnly aSMPClient = new SMPClientReadOnly (aQueryParams.getSMPHostURI ());
-        aSMPClient.setXMLSchemaValidation (bXMLSchemaValidation);
-        aSMPClient.setVerifySignature (bVerifySignature);
-
-        final com.helger.xsds.peppol.smp1.SignedServiceMetadataType aSSM = aSMPClient.getServiceMetadataOrNull (aParticipantID,
-                                                                                                                aDocTypeID);
-        if (aSSM != null)
-        {
-          final com.helger.xsds.peppol.smp1.ServiceMetadataType aSM = aSSM.getServiceMetadata ();
-          aJson = SMPJsonResponse.convert (aParticipantID, aDocTypeID, aSM);
-        }
-        break;
-      }
-      case OASIS_BDXR_V1:
-      {
-        final BDXRClientReadOnly aBDXR1Client = new BDXRClientReadOnly (aQueryParams.getSMPHostURI ());
-        aBDXR1Client.setXMLSchemaValidation (bXMLSchemaValidation);
-        aBDXR1Client.setVerifySignature (bVerifySignature);
-
-        final com.helger.xsds.bdxr.smp1.SignedServiceMetadataType aSSM = aBDXR1Client.getServiceMetadataOrNull (aParticipantID,
-                                                                                                                aDocTypeID);
-        if (aSSM != null)
-        {
-          final com.helger.xsds.bdxr.smp1.ServiceMetadataType aSM = aSSM.getServiceMetadata ();
-          aJson = SMPJsonResponse.convert (aParticipantID, aDocTypeID, aSM);
-        }
-        break;
-      }
-      case OASIS_BDXR_V2:
-      {
-        final BDXR2ClientReadOnly aBDXR2Client = new BDXR2ClientReadOnly (aQueryParams.getSMPHostURI ());
-        aBDXR2Client.setXMLSchemaValidation (bXMLSchemaValidation);
-        aBDXR2Client.setVerifySignature (bVerifySignature);
-
-        final com.helger.xsds.bdxr.smp2.ServiceMetadataType aSM = aBDXR2Client.getServiceMetadataOrNull (aParticipantID,
-                                                                                                         aDocTypeID);
-        if (aSM != null)
-        {
-          aJson = convert (aParticipantID, aDocTypeID, aSM);
-        }
-        break;
-      }
-    }
+    final IJsonObject aJson = queryRemoteServiceMetadata (eAPIType,
+                                                          aQueryParams.getSMPHostURI (),
+                                                          aParticipantID,
+                                                          aDocTypeID,
+                                                          bXMLSchemaValidation,
+                                                          bVerifySignature);
 
     aSW.stop ();
 
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.mime.CMimeType;
+import com.helger.commons.mime.IMimeType;
+import com.helger.commons.mime.MimeType;
+import com.helger.commons.timing.StopWatch;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonObject;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
+import com.helger.phoss.smp.exception.SMPBadRequestException;
+import com.helger.phoss.smp.exception.SMPPreconditionFailedException;
+import com.helger.phoss.smp.exchange.ImportSummary;
+import com.helger.phoss.smp.exchange.ServiceGroupBatchImport;
+import com.helger.phoss.smp.exchange.ServiceGroupBatchReader;
+import com.helger.phoss.smp.exchange.ServiceGroupBatchResult;
+import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
+import com.helger.phoss.smp.restapi.SMPAPICredentials;
+import com.helger.photon.api.IAPIDescriptor;
+import com.helger.photon.security.user.IUser;
+import com.helger.servlet.response.UnifiedResponse;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+
+/**
+ * REST API to create or update many Service Groups including their Service
+ * Information in one request. The payload is either the exchange XML v1 or
+ * NDJSON.<br>
+ * The response is NDJSON that is written while the items are processed, so
+ * that the memory consumption is independent of the number of items. The
+ * first line contains the batch settings, followed by one line with the
+ * result of each item in the order of the input. The last line contains the
+ * summary and, if the payload was malformed, the reason why the batch was
+ * aborted. If the last line is missing, the batch was interrupted and the
+ * result of the items not reported is unknown.<br>
+ * Because the response is written while the payload is read, clients must
+ * read the response while sending large payloads.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class APIExecutorServiceGroupBatch extends AbstractSMPAPIExecutor
+{
+  public static final String PARAM_CREATE_IN_SML = "create-in-sml";
+  /** The number of items processed per response chunk */
+  public static final int ITEMS_PER_CHUNK = 100;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorServiceGroupBatch.class);
+  private static final IMimeType MIME_TYPE_NDJSON = new MimeType (CMimeType.APPLICATION_JSON.getContentType (),
+                                                                  "x-ndjson");
+
+  private final boolean m_bXML;
+
+  /**
+   * @param bXML
+   *        <code>true</code> for the exchange XML v1 payload,
+   *        <code>false</code> for an NDJSON payload.
+   */
+  public APIExecutorServiceGroupBatch (final boolean bXML)
+  {
+    m_bXML = bXML;
+  }
+
+  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
+                         @Nonnull @Nonempty final String sPath,
+                         @Nonnull final Map <String, String> aPathVariables,
+                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, null);
+
+    // Is the writable API disabled?
+    if (SMPMetaManager.getSettings ().isRESTWritableAPIDisabled ())
+    {
+      throw new SMPPreconditionFailedException ("The writable REST API is disabled. saveServiceGroups will not be executed",
+                                                aDataProvider.getCurrentURI ());
+    }
+
+    final String sLogPrefix = "[REST API Batch-" + (m_bXML ? "XML-V1" : "NDJSON") + "] ";
+
+    // Only authenticated user may do so - the user is the owner of all
+    // Service Groups
+    final SMPAPICredentials aCredentials = getMandatoryAuth (aRequestScope.headers ());
+    final IUser aOwner = SMPUserManagerPhoton.validateUserCredentials (aCredentials);
+
+    final boolean bCreateInSML = !"false".equalsIgnoreCase (aRequestScope.params ().getAsString (PARAM_CREATE_IN_SML));
+
+    LOGGER.info (sLogPrefix + "Starting batch of user '" + aOwner.getLoginName () + "'");
+
+    final ServiceGroupBatchReader aReader;
+    try
+    {
+      aReader = m_bXML ? ServiceGroupBatchReader.createForXMLVer10 (aRequestScope.getRequest ().getInputStream (),
+                                                                    aOwner)
+                       : ServiceGroupBatchReader.createForNDJSON (aRequestScope.getRequest ().getInputStream (),
+                                                                  aOwner);
+    }
+    catch (final IOException ex)
+    {
+      throw new SMPBadRequestException (ex.getMessage (), aDataProvider.getCurrentURI ());
+    }
+
+    final BatchResultWriter aWriter = new BatchResultWriter (sLogPrefix, aReader, aOwner, bCreateInSML);
+    setResponseContentStreaming (aRequestScope,
+                                 aUnifiedResponse,
+                                 aWriter::writeNextChunk,
+                                 MIME_TYPE_NDJSON,
+                                 StandardCharsets.UTF_8);
+    aUnifiedResponse.disableCaching ();
+  }
+
+  /**
+   * Processes the batch while the response is sent to the client. Each chunk
+   * contains the results of up to {@link #ITEMS_PER_CHUNK} items.
+   *
+   * @author Philip Helger
+   */
+  private static final class BatchResultWriter
+  {
+    private final String m_sLogPrefix;
+    private final ServiceGroupBatchReader m_aReader;
+    private final IUser m_aOwner;
+    private final boolean m_bCreateInSML;
+    private final ImportSummary m_aSummary = new ImportSummary ();
+    private StopWatch m_aSW;
+    private int m_nItemCount = 0;
+    private int m_nErrorCount = 0;
+    private boolean m_bFinished = false;
+
+    BatchResultWriter (@Nonnull final String sLogPrefix,
+                       @Nonnull final ServiceGroupBatchReader aReader,
+                       @Nonnull final IUser aOwner,
+                       final boolean bCreateInSML)
+    {
+      m_sLogPrefix = sLogPrefix;
+      m_aReader = aReader;
+      m_aOwner = aOwner;
+      m_bCreateInSML = bCreateInSML;
+    }
+
+    private static void _writeLine (@Nonnull final OutputStream aOS, @Nonnull final IJsonObject aJson) throws IOException
+    {
+      aOS.write ((aJson.getAsJsonString () + "\n").getBytes (StandardCharsets.UTF_8));
+    }
+
+    @Nonnull
+    private IJsonObject _getHeader ()
+    {
+      final ZonedDateTime aQueryDT = PDTFactory.getCurrentZonedDateTimeUTC ();
+      final IJsonObject ret = new JsonObject ();
+      ret.add ("version", "1");
+      ret.add ("batchStartDateTime", DateTimeFormatter.ISO_ZONED_DATE_TIME.format (aQueryDT));
+      ret.addJson ("settings",
+                   new JsonObject ().add ("createInSML", m_bCreateInSML)
+                                    .add ("ownerID", m_aOwner.getID ())
+                                    .add ("ownerLoginName", m_aOwner.getLoginName ()));
+      return ret;
+    }
+
+    @Nonnull
+    private IJsonObject _getSummary (@Nullable final String sAbortMessage)
+    {
+      final IJsonObject aJsonSummary = new JsonObject ();
+      aJsonSummary.add ("durationMillis", m_aSW.getMillis ());
+      aJsonSummary.add ("itemCount", m_nItemCount);
+      aJsonSummary.add ("successCount", m_nItemCount - m_nErrorCount);
+      aJsonSummary.add ("errorCount", m_nErrorCount);
+      m_aSummary.appendTo (aJsonSummary);
+
+      final IJsonObject ret = new JsonObject ();
+      ret.addJson ("summary", aJsonSummary);
+      if (sAbortMessage != null)
+        ret.add ("abortMessage", sAbortMessage);
+      return ret;
+    }
+
+    boolean writeNextChunk (@Nonnull final OutputStream aOS) throws IOException
+    {
+      if (m_bFinished)
+        return false;
+
+      if (m_aSW == null)
+      {
+        m_aSW = StopWatch.createdStarted ();
+        _writeLine (aOS, _getHeader ());
+      }
+
+      String sAbortMessage = null;
+      boolean bEnd = false;
+      try
+      {
+        for (int i = 0; i < ITEMS_PER_CHUNK; ++i)
+        {
+          final ServiceGroupBatchResult aResult = ServiceGroupBatchImport.importNextItem (m_sLogPrefix,
+                                                                                          m_aReader,
+                                                                                          m_bCreateInSML,
+                                                                                          m_aSummary);
+          if (aResult == null)
+          {
+            bEnd = true;
+            break;
+          }
+          m_nItemCount++;
+          if (!aResult.isSuccess ())
+            m_nErrorCount++;
+          _writeLine (aOS, aResult.getAsJsonObject ());
+        }
+      }
+      catch (final IOException ex)
+      {
+        // Malformed input - all previous items were processed
+        sAbortMessage = ex.getMessage ();
+        bEnd = true;
+        LOGGER.warn (m_sLogPrefix + "Aborting batch after " + m_nItemCount + " items: " + sAbortMessage);
+      }
+      catch (final RuntimeException ex)
+      {
+        StreamHelper.close (m_aReader);
+        m_bFinished = true;
+        throw new IOException ("Failed to process the batch", ex);
+      }
+
+      if (bEnd)
+      {
+        StreamHelper.close (m_aReader);
+        m_bFinished = true;
+        m_aSW.stop ();
+        LOGGER.info (m_sLogPrefix + "Finished batch after " + m_aSW.getMillis () + " milliseconds");
+        _writeLine (aOS, _getSummary (sAbortMessage));
+      }
+      // The last chunk is the one with the summary
+      return !bEnd;
+    }
+  }
+}
@@ -22,8 +22,13 @@ import javax.annotation.Nonnull;
 
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.mime.CMimeType;
+import com.helger.commons.mutable.MutableBoolean;
+import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.exception.SMPInternalErrorException;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.rest.SMPRestResponseCache.EResponseType;
 import com.helger.phoss.smp.restapi.BDXR1ServerAPI;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
 import com.helger.phoss.smp.restapi.SMPServerAPI;
@@ -36,30 +41,25 @@ import com.helger.xml.serialize.write.XMLWriterSettings;
 
 public final class APIExecutorServiceGroupCompleteGet extends AbstractSMPAPIExecutor
 {
-  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
-                         @Nonnull @Nonempty final String sPath,
-                         @Nonnull final Map <String, String> aPathVariables,
-                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
-                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  @Nonnull
+  private static byte [] _createResponse (@Nonnull final ISMPServerAPIDataProvider aDataProvider,
+                                          @Nonnull final String sPathServiceGroupID) throws SMPServerException
   {
-    final String sPathServiceGroupID = aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID);
-    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, sPathServiceGroupID);
-
-    final byte [] aBytes;
+    final byte [] ret;
     switch (SMPServerConfiguration.getRESTType ())
     {
       case PEPPOL:
       {
         // Unspecified extension
-        final com.helger.xsds.peppol.smp1.CompleteServiceGroupType ret = new SMPServerAPI (aDataProvider).getCompleteServiceGroup (sPathServiceGroupID);
-        aBytes = new SMPMarshallerCompleteServiceGroupType ().setUseSchema (XML_SCHEMA_VALIDATION).getAsBytes (ret);
+        final com.helger.xsds.peppol.smp1.CompleteServiceGroupType aCSG = new SMPServerAPI (aDataProvider).getCompleteServiceGroup (sPathServiceGroupID);
+        ret = new SMPMarshallerCompleteServiceGroupType ().setUseSchema (XML_SCHEMA_VALIDATION).getAsBytes (aCSG);
         break;
       }
       case OASIS_BDXR_V1:
       {
         // Unspecified extension
-        final com.helger.xsds.bdxr.smp1.CompleteServiceGroupType ret = new BDXR1ServerAPI (aDataProvider).getCompleteServiceGroup (sPathServiceGroupID);
-        aBytes = new BDXR1MarshallerCompleteServiceGroupType ().setUseSchema (XML_SCHEMA_VALIDATION).getAsBytes (ret);
+        final com.helger.xsds.bdxr.smp1.CompleteServiceGroupType aCSG = new BDXR1ServerAPI (aDataProvider).getCompleteServiceGroup (sPathServiceGroupID);
+        ret = new BDXR1MarshallerCompleteServiceGroupType ().setUseSchema (XML_SCHEMA_VALIDATION).getAsBytes (aCSG);
         break;
       }
       // Not supported with OASIS BDXR v2
@@ -67,14 +67,58 @@ public final class APIExecutorServiceGroupCompleteGet extends AbstractSMPAPIExec
         throw new UnsupportedOperationException ("Unsupported REST type specified!");
     }
 
-    if (aBytes == null)
+    if (ret == null)
     {
       // Internal error serializing the payload
       throw new SMPInternalErrorException ("Failed to convert the returned CompleteServiceGroup to XML");
     }
+    return ret;
+  }
+
+  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
+                         @Nonnull @Nonempty final String sPath,
+                         @Nonnull final Map <String, String> aPathVariables,
+                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final String sPathServiceGroupID = aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID);
+    final IParticipantIdentifier aParticipantID = SMPMetaManager.getIdentifierFactory ()
+                                                                .parseParticipantIdentifier (sPathServiceGroupID);
+    final SMPRestResponseValidators aValidators = getResponseValidators (sPathServiceGroupID, false);
+    if (handleConditionalGet (aRequestScope,
+                              aUnifiedResponse,
+                              aValidators,
+                              () -> SMPMetaManager.getPublicReadModel ().getServiceGroupOfID (aParticipantID) != null))
+      return;
+
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, sPathServiceGroupID);
+
+    final long nStartNanos = System.nanoTime ();
+    final MutableBoolean aCreated = new MutableBoolean (false);
+    // The response contains URLs depending on the request
+    final SMPRestResponseContent aContent = SMPRestResponseCache.getCachedIfEnabled (EResponseType.COMPLETE_SERVICE_GROUP,
+                                                                                     aParticipantID,
+                                                                                     aParticipantID == null ? sPathServiceGroupID
+                                                                                                            : aDataProvider.getServiceGroupHref (aParticipantID),
+                                                                                     () -> {
+                                                                                       aCreated.set (true);
+                                                                                       return _createResponse (aDataProvider, sPathServiceGroupID);
+                                                                                     });
+    if (!aCreated.booleanValue ())
+    {
+      // Served from the cache - the server API was not invoked
+      SMPRestServerAPIStatistics.onReadSuccess (SMPServerConfiguration.getRESTType (),
+                                                "getCompleteServiceGroup",
+                                                sPathServiceGroupID,
+                                                null,
+                                                nStartNanos);
+    }
 
-    aUnifiedResponse.setContent (aBytes)
-                    .setMimeType (CMimeType.TEXT_XML)
-                    .setCharset (XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ);
+    setResponseContent (aRequestScope,
+                        aUnifiedResponse,
+                        aContent,
+                        CMimeType.TEXT_XML,
+                        XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ,
+                        aValidators);
   }
 }
@@ -22,8 +22,13 @@ import javax.annotation.Nonnull;
 
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.mime.CMimeType;
+import com.helger.commons.mutable.MutableBoolean;
+import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.exception.SMPInternalErrorException;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.rest.SMPRestResponseCache.EResponseType;
 import com.helger.phoss.smp.restapi.BDXR1ServerAPI;
 import com.helger.phoss.smp.restapi.BDXR2ServerAPI;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
@@ -38,48 +43,87 @@ import com.helger.xml.serialize.write.XMLWriterSettings;
 
 public final class APIExecutorServiceGroupGet extends AbstractSMPAPIExecutor
 {
-  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
-                         @Nonnull @Nonempty final String sPath,
-                         @Nonnull final Map <String, String> aPathVariables,
-                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
-                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  @Nonnull
+  private static byte [] _createResponse (@Nonnull final ISMPServerAPIDataProvider aDataProvider,
+                                          @Nonnull final String sPathServiceGroupID) throws SMPServerException
   {
-    final String sPathServiceGroupID = aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID);
-    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, sPathServiceGroupID);
-
-    final byte [] aBytes;
+    final byte [] ret;
     switch (SMPServerConfiguration.getRESTType ())
     {
       case PEPPOL:
       {
-        final com.helger.xsds.peppol.smp1.ServiceGroupType ret = new SMPServerAPI (aDataProvider).getServiceGroup (sPathServiceGroupID);
-        aBytes = new SMPMarshallerServiceGroupType ().setUseSchema (XML_SCHEMA_VALIDATION).getAsBytes (ret);
+        final com.helger.xsds.peppol.smp1.ServiceGroupType aSG = new SMPServerAPI (aDataProvider).getServiceGroup (sPathServiceGroupID);
+        ret = new SMPMarshallerServiceGroupType ().setUseSchema (XML_SCHEMA_VALIDATION).getAsBytes (aSG);
         break;
       }
       case OASIS_BDXR_V1:
       {
-        final com.helger.xsds.bdxr.smp1.ServiceGroupType ret = new BDXR1ServerAPI (aDataProvider).getServiceGroup (sPathServiceGroupID);
-        aBytes = new BDXR1MarshallerServiceGroupType ().setUseSchema (XML_SCHEMA_VALIDATION).getAsBytes (ret);
+        final com.helger.xsds.bdxr.smp1.ServiceGroupType aSG = new BDXR1ServerAPI (aDataProvider).getServiceGroup (sPathServiceGroupID);
+        ret = new BDXR1MarshallerServiceGroupType ().setUseSchema (XML_SCHEMA_VALIDATION).getAsBytes (aSG);
         break;
       }
       case OASIS_BDXR_V2:
       {
-        final com.helger.xsds.bdxr.smp2.ServiceGroupType ret = new BDXR2ServerAPI (aDataProvider).getServiceGroup (sPathServiceGroupID);
-        aBytes = new BDXR2MarshallerServiceGroup ().setUseSchema (XML_SCHEMA_VALIDATION).getAsBytes (ret);
+        final com.helger.xsds.bdxr.smp2.ServiceGroupType aSG = new BDXR2ServerAPI (aDataProvider).getServiceGroup (sPathServiceGroupID);
+        ret = new BDXR2MarshallerServiceGroup ().setUseSchema (XML_SCHEMA_VALIDATION).getAsBytes (aSG);
         break;
       }
       default:
         throw new UnsupportedOperationException ("Unsupported REST type specified!");
     }
 
-    if (aBytes == null)
+    if (ret == null)
     {
       // Internal error serializing the payload
       throw new SMPInternalErrorException ("Failed to convert the returned ServiceGroup to XML");
     }
+    return ret;
+  }
+
+  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
+                         @Nonnull @Nonempty final String sPath,
+                         @Nonnull final Map <String, String> aPathVariables,
+                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final String sPathServiceGroupID = aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID);
+    final IParticipantIdentifier aParticipantID = SMPMetaManager.getIdentifierFactory ()
+                                                                .parseParticipantIdentifier (sPathServiceGroupID);
+    final SMPRestResponseValidators aValidators = getResponseValidators (sPathServiceGroupID, false);
+    if (handleConditionalGet (aRequestScope,
+                              aUnifiedResponse,
+                              aValidators,
+                              () -> SMPMetaManager.getPublicReadModel ().getServiceGroupOfID (aParticipantID) != null))
+      return;
+
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, sPathServiceGroupID);
+
+    final long nStartNanos = System.nanoTime ();
+    final MutableBoolean aCreated = new MutableBoolean (false);
+    // The response contains URLs depending on the request
+    final SMPRestResponseContent aContent = SMPRestResponseCache.getCachedIfEnabled (EResponseType.SERVICE_GROUP,
+                                                                                     aParticipantID,
+                                                                                     aParticipantID == null ? sPathServiceGroupID
+                                                                                                            : aDataProvider.getServiceGroupHref (aParticipantID),
+                                                                                     () -> {
+                                                                                       aCreated.set (true);
+                                                                                       return _createResponse (aDataProvider, sPathServiceGroupID);
+                                                                                     });
+    if (!aCreated.booleanValue ())
+    {
+      // Served from the cache - the server API was not invoked
+      SMPRestServerAPIStatistics.onReadSuccess (SMPServerConfiguration.getRESTType (),
+                                                "getServiceGroup",
+                                                sPathServiceGroupID,
+                                                null,
+                                                nStartNanos);
+    }
 
-    aUnifiedResponse.setContent (aBytes)
-                    .setMimeType (CMimeType.TEXT_XML)
-                    .setCharset (XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ);
+    setResponseContent (aRequestScope,
+                        aUnifiedResponse,
+                        aContent,
+                        CMimeType.TEXT_XML,
+                        XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ,
+                        aValidators);
   }
 }
@@ -19,40 +19,82 @@ package com.helger.phoss.smp.rest;
 import java.util.Map;
 
 import javax.annotation.Nonnull;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 
 import com.helger.commons.annotation.Nonempty;
-import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
 import com.helger.commons.mime.CMimeType;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
-import com.helger.phoss.smp.exception.SMPInternalErrorException;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.readmodel.ISMPPublicReadModel;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.exception.SMPServerException;
 import com.helger.phoss.smp.restapi.BDXR1ServerAPI;
 import com.helger.phoss.smp.restapi.BDXR2ServerAPI;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
 import com.helger.phoss.smp.restapi.SMPServerAPI;
-import com.helger.phoss.smp.security.SMPKeyManager;
 import com.helger.photon.api.IAPIDescriptor;
 import com.helger.servlet.response.UnifiedResponse;
 import com.helger.smpclient.bdxr1.marshal.BDXR1MarshallerSignedServiceMetadataType;
 import com.helger.smpclient.bdxr2.marshal.BDXR2MarshallerServiceMetadata;
 import com.helger.smpclient.peppol.marshal.SMPMarshallerSignedServiceMetadataType;
 import com.helger.web.scope.IRequestWebScopeWithoutResponse;
-import com.helger.xml.serialize.write.IXMLWriterSettings;
-import com.helger.xml.serialize.write.XMLWriter;
 import com.helger.xml.serialize.write.XMLWriterSettings;
-import com.helger.xml.transform.XMLTransformerFactory;
 
 public final class APIExecutorServiceMetadataGet extends AbstractSMPAPIExecutor
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorServiceMetadataGet.class);
 
+  private static boolean _existsServiceMetadata (@Nullable final String sPathServiceGroupID,
+                                                @Nullable final String sPathDocumentTypeID)
+  {
+    final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+    final IDocumentTypeIdentifier aDocTypeID = aIdentifierFactory.parseDocumentTypeIdentifier (sPathDocumentTypeID);
+    if (aDocTypeID == null)
+      return false;
+
+    final ISMPPublicReadModel aReadModel = SMPMetaManager.getPublicReadModel ();
+    final ISMPServiceGroup aServiceGroup = aReadModel.getServiceGroupOfID (aIdentifierFactory.parseParticipantIdentifier (sPathServiceGroupID));
+    if (aServiceGroup == null)
+      return false;
+
+    // Either a Service Information or a Redirect
+    return aReadModel.getServiceInformationOfServiceGroupAndDocumentType (aServiceGroup, aDocTypeID) != null ||
+           aReadModel.getRedirectOfServiceGroupAndDocumentType (aServiceGroup, aDocTypeID) != null;
+  }
+
+  @Nullable
+  private static byte [] _getMaterializedResponse (@Nullable final String sPathServiceGroupID,
+                                                   @Nullable final String sPathDocumentTypeID) throws SMPServerException
+  {
+    final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+    final IParticipantIdentifier aParticipantID = aIdentifierFactory.parseParticipantIdentifier (sPathServiceGroupID);
+    final IDocumentTypeIdentifier aDocTypeID = aIdentifierFactory.parseDocumentTypeIdentifier (sPathDocumentTypeID);
+    if (aParticipantID == null || aDocTypeID == null)
+      return null;
+
+    final SMPSignedServiceMetadataStore aStore = SMPSignedServiceMetadataStore.getInstance ();
+    byte [] ret = aStore.getSignedServiceMetadata (aParticipantID, aDocTypeID);
+    if (ret != null)
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Serving materialized signed service metadata for '" +
+                      sPathServiceGroupID +
+                      "' and '" +
+                      sPathDocumentTypeID +
+                      "'");
+    }
+    else
+      ret = aStore.materialize (aParticipantID, aDocTypeID);
+    return ret;
+  }
+
   public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
                          @Nonnull @Nonempty final String sPath,
                          @Nonnull final Map <String, String> aPathVariables,
@@ -61,6 +103,37 @@ public final class APIExecutorServiceMetadataGet extends AbstractSMPAPIExecutor
   {
     final String sPathServiceGroupID = aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID);
     final String sPathDocumentTypeID = aPathVariables.get (SMPRestFilter.PARAM_DOCUMENT_TYPE_ID);
+    final SMPRestResponseValidators aValidators = getResponseValidators (sPathServiceGroupID, true);
+    if (handleConditionalGet (aRequestScope,
+                              aUnifiedResponse,
+                              aValidators,
+                              () -> _existsServiceMetadata (sPathServiceGroupID, sPathDocumentTypeID)))
+      return;
+
+    if (SMPServerConfiguration.isRestSignedResponseMaterializationEnabled ())
+    {
+      // Try to serve the pre-signed response
+      final long nStartNanos = System.nanoTime ();
+      final byte [] aSignedBytes = _getMaterializedResponse (sPathServiceGroupID, sPathDocumentTypeID);
+      if (aSignedBytes != null)
+      {
+        // The server API is not invoked
+        SMPRestServerAPIStatistics.onReadSuccess (SMPServerConfiguration.getRESTType (),
+                                                  "getServiceRegistration",
+                                                  sPathServiceGroupID,
+                                                  sPathDocumentTypeID,
+                                                  nStartNanos);
+        setResponseContent (aRequestScope,
+                            aUnifiedResponse,
+                            new SMPRestResponseContent (aSignedBytes),
+                            CMimeType.TEXT_XML,
+                            XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ,
+                            aValidators);
+        return;
+      }
+      // Fall through to create the error response
+    }
+
     final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, sPathServiceGroupID);
 
     // Create the unsigned response document
@@ -109,47 +182,13 @@ public final class APIExecutorServiceMetadataGet extends AbstractSMPAPIExecutor
     if (aDoc == null)
       throw new IllegalStateException ("Failed to serialize unsigned node!");
 
-    // Sign the document
-    try
-    {
-      SMPKeyManager.getInstance ().signXML (aDoc.getDocumentElement (), SMPServerConfiguration.getRESTType ());
-      LOGGER.info ("Successfully signed response XML");
-    }
-    catch (final Exception ex)
-    {
-      throw new SMPInternalErrorException ("Error in signing the response XML", ex);
-    }
-
-    // Serialize the signed document
-    try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
-    {
-      if (false)
-      {
-        // IMPORTANT: no indent and no align!
-        final IXMLWriterSettings aSettings = XMLWriterSettings.createForCanonicalization ();
-
-        // Write the result to a byte array
-        if (XMLWriter.writeToStream (aDoc, aBAOS, aSettings).isFailure ())
-          throw new IllegalStateException ("Failed to serialize signed node!");
-      }
-      else
-      {
-        // Use this because it correctly serializes &#13; which is important
-        // for validating the signature!
-        try
-        {
-          final Transformer aTransformer = XMLTransformerFactory.newTransformer ();
-          aTransformer.transform (new DOMSource (aDoc), new StreamResult (aBAOS));
-        }
-        catch (final TransformerException ex)
-        {
-          throw new IllegalStateException ("Failed to serialized signed node", ex);
-        }
-      }
-
-      aUnifiedResponse.setContent (aBAOS.toByteArray ())
-                      .setMimeType (CMimeType.TEXT_XML)
-                      .setCharset (XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ);
-    }
+    // Sign and serialize the document
+    final byte [] aSignedBytes = SMPSignedServiceMetadataStore.getSignedBytes (aDoc, SMPServerConfiguration.getRESTType ());
+    setResponseContent (aRequestScope,
+                        aUnifiedResponse,
+                        new SMPRestResponseContent (aSignedBytes),
+                        CMimeType.TEXT_XML,
+                        XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ,
+                        aValidators);
   }
 }
@@ -16,26 +16,178 @@
  */
 package com.helger.phoss.smp.rest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Map;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.mime.CMimeType;
+import com.helger.commons.mutable.MutableLong;
+import com.helger.commons.statistics.IMutableStatisticsHandlerKeyedCounter;
+import com.helger.commons.statistics.StatisticsManager;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.StringParser;
+import com.helger.commons.wrapper.Wrapper;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.ESMPRESTType;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
+import com.helger.phoss.smp.exception.SMPBadRequestException;
 import com.helger.phoss.smp.exception.SMPInternalErrorException;
-import com.helger.phoss.smp.restapi.BDXR1ServerAPI;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.exception.SMPUnauthorizedException;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
 import com.helger.phoss.smp.restapi.SMPAPICredentials;
-import com.helger.phoss.smp.restapi.SMPServerAPI;
+import com.helger.phoss.smp.restapi.SMPRestAccessLog;
+import com.helger.phoss.smp.statistics.SMPKeyedLatencyHistogram;
+import com.helger.phoss.smp.statistics.SMPLatencyStatistics;
 import com.helger.photon.api.IAPIDescriptor;
+import com.helger.photon.security.user.IUser;
 import com.helger.servlet.response.UnifiedResponse;
 import com.helger.smpclient.bdxr1.marshal.BDXR1MarshallerServiceGroupReferenceListType;
 import com.helger.smpclient.peppol.marshal.SMPMarshallerServiceGroupReferenceListType;
 import com.helger.web.scope.IRequestWebScopeWithoutResponse;
 
+/**
+ * Get the list of all service groups of a single owner. The reference list is
+ * written element by element from the backend, so that owners with a lot of
+ * service groups don't require the complete list in memory. Optionally the
+ * list can be paged using the <code>offset</code>, <code>limit</code> and
+ * <code>continuation</code> request parameters.
+ *
+ * @author Philip Helger
+ */
 public final class APIExecutorUserListGet extends AbstractSMPAPIExecutor
 {
+  /** The number of items to skip. Only usable without continuation token. */
+  public static final String PARAM_OFFSET = "offset";
+  /** The maximum number of items to return */
+  public static final String PARAM_LIMIT = "limit";
+  /** The continuation token from the previous page */
+  public static final String PARAM_CONTINUATION = "continuation";
+
+  /** Response header with the total number of service groups of the owner */
+  public static final String HEADER_TOTAL_COUNT = "X-Total-Count";
+  /** Response header with the token to retrieve the next page */
+  public static final String HEADER_CONTINUATION_TOKEN = "X-Continuation-Token";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorUserListGet.class);
+  private static final IMutableStatisticsHandlerKeyedCounter STATS_COUNTER_INVOCATION = StatisticsManager.getKeyedCounterHandler (APIExecutorUserListGet.class.getName () +
+                                                                                                                                  "$call");
+  private static final IMutableStatisticsHandlerKeyedCounter STATS_COUNTER_SUCCESS = StatisticsManager.getKeyedCounterHandler (APIExecutorUserListGet.class.getName () +
+                                                                                                                               "$success");
+  private static final IMutableStatisticsHandlerKeyedCounter STATS_COUNTER_ERROR = StatisticsManager.getKeyedCounterHandler (APIExecutorUserListGet.class.getName () +
+                                                                                                                             "$error");
+  private static final SMPKeyedLatencyHistogram STATS_TIMER = SMPLatencyStatistics.getKeyedHistogram (APIExecutorUserListGet.class.getSimpleName ());
+  private static final String ACTION = "getServiceGroupReferenceList";
+  private static final String ELEMENT_SERVICE_GROUP_REFERENCE = "ServiceGroupReference";
+  private static final String ATTR_HREF = "href";
+  // The number of service groups read from the backend at once
+  private static final int BACKEND_CHUNK_SIZE = 1000;
+
+  /**
+   * Create the opaque continuation token that points after the provided
+   * participant.
+   *
+   * @param aParticipantID
+   *        The last participant identifier of the current page. May not be
+   *        <code>null</code>.
+   * @return The continuation token and never <code>null</code>.
+   */
+  @Nonnull
+  @Nonempty
+  static String createContinuationToken (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    return Base64.getUrlEncoder ()
+                 .withoutPadding ()
+                 .encodeToString (aParticipantID.getURIEncoded ().getBytes (StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Parse a continuation token created by
+   * {@link #createContinuationToken(IParticipantIdentifier)}.
+   *
+   * @param sToken
+   *        The token to parse. May be <code>null</code>.
+   * @return <code>null</code> if the token is invalid.
+   */
+  @Nullable
+  static IParticipantIdentifier parseContinuationToken (@Nullable final String sToken)
+  {
+    if (StringHelper.hasNoText (sToken))
+      return null;
+
+    final byte [] aDecoded;
+    try
+    {
+      aDecoded = Base64.getUrlDecoder ().decode (sToken);
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      return null;
+    }
+    return SMPMetaManager.getIdentifierFactory ()
+                         .parseParticipantIdentifier (new String (aDecoded, StandardCharsets.UTF_8));
+  }
+
+  @Nonnull
+  private static QName _getRootElementName () throws SMPInternalErrorException
+  {
+    // Let the marshaller decide on the namespace URI and element name
+    final Document aDoc;
+    switch (SMPServerConfiguration.getRESTType ())
+    {
+      case PEPPOL:
+        aDoc = new SMPMarshallerServiceGroupReferenceListType ().setUseSchema (false)
+                                                                .getAsDocument (new com.helger.xsds.peppol.smp1.ServiceGroupReferenceListType ());
+        break;
+      case OASIS_BDXR_V1:
+        aDoc = new BDXR1MarshallerServiceGroupReferenceListType ().setUseSchema (false)
+                                                                  .getAsDocument (new com.helger.xsds.bdxr.smp1.ServiceGroupReferenceListType ());
+        break;
+      // Not available in OASIS BDXR v2
+      default:
+        throw new UnsupportedOperationException ("Unsupported REST type specified!");
+    }
+    if (aDoc == null)
+      throw new SMPInternalErrorException ("Failed to determine the ServiceGroupReferenceList element name");
+
+    final Element aRoot = aDoc.getDocumentElement ();
+    return new QName (aRoot.getNamespaceURI (), aRoot.getLocalName ());
+  }
+
+  private static long _getLongParam (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                                     @Nonnull final String sParamName,
+                                     final long nMinValue,
+                                     @Nonnull final ISMPServerAPIDataProvider aDataProvider) throws SMPBadRequestException
+  {
+    final String sValue = aRequestScope.params ().getAsString (sParamName);
+    if (StringHelper.hasNoText (sValue))
+      return -1;
+
+    final long ret = StringParser.parseLong (sValue, Long.MIN_VALUE);
+    if (ret < nMinValue)
+      throw new SMPBadRequestException ("Invalid value '" + sValue + "' for parameter '" + sParamName + "'",
+                                        aDataProvider.getCurrentURI ());
+    return ret;
+  }
+
   public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
                          @Nonnull @Nonempty final String sPath,
                          @Nonnull final Map <String, String> aPathVariables,
@@ -43,43 +195,216 @@ public final class APIExecutorUserListGet extends AbstractSMPAPIExecutor
                          @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
   {
     final String sPathUserID = aPathVariables.get (SMPRestFilter.PARAM_USER_ID);
+    final String sLog = "[SMP REST API] GET /list/" + sPathUserID;
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug (sLog);
+
+    // Same statistics and access log as the other SMP APIs
+    final String sAccessLogAPI = SMPServerConfiguration.getRESTType () == ESMPRESTType.OASIS_BDXR_V1 ? "bdxr1" : "smp";
+    STATS_COUNTER_INVOCATION.increment (ACTION);
+    final long nStartNanos = System.nanoTime ();
+    try
+    {
+      _invokeAPI (sPathUserID, sLog, sAccessLogAPI, nStartNanos, aRequestScope, aUnifiedResponse);
+    }
+    catch (final SMPServerException ex)
+    {
+      SMPRestAccessLog.logError (sAccessLogAPI, ACTION, sPathUserID, null, nStartNanos, ex);
+      STATS_COUNTER_ERROR.increment (ACTION);
+      STATS_TIMER.record (ACTION, System.nanoTime () - nStartNanos);
+      throw ex;
+    }
+  }
+
+  private static void _invokeAPI (@Nonnull final String sPathUserID,
+                                  @Nonnull final String sLog,
+                                  @Nonnull final String sAccessLogAPI,
+                                  final long nStartNanos,
+                                  @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                                  @Nonnull final UnifiedResponse aUnifiedResponse) throws SMPServerException
+  {
     // No service group available
     final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, null);
 
     final SMPAPICredentials aCredentials = getMandatoryAuth (aRequestScope.headers ());
+    final IUser aSMPUser = SMPUserManagerPhoton.validateUserCredentials (aCredentials);
+    if (!aSMPUser.getLoginName ().equals (sPathUserID))
+    {
+      throw new SMPUnauthorizedException ("URL user name '" +
+                                          sPathUserID +
+                                          "' does not match the user name '" +
+                                          aSMPUser.getLoginName () +
+                                          "' derived from the credentials",
+                                          aDataProvider.getCurrentURI ());
+    }
 
-    final byte [] aBytes;
-    switch (SMPServerConfiguration.getRESTType ())
+    // Paging parameters
+    final long nOffset = Math.max (_getLongParam (aRequestScope, PARAM_OFFSET, 0, aDataProvider), 0);
+    final long nLimit = _getLongParam (aRequestScope, PARAM_LIMIT, 1, aDataProvider);
+    final String sContinuation = aRequestScope.params ().getAsString (PARAM_CONTINUATION);
+    final IParticipantIdentifier aAfterID = parseContinuationToken (sContinuation);
+    if (StringHelper.hasText (sContinuation) && aAfterID == null)
+      throw new SMPBadRequestException ("Invalid continuation token '" + sContinuation + "' provided",
+                                        aDataProvider.getCurrentURI ());
+
+    final QName aRootElementName = _getRootElementName ();
+    final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+    final String sOwnerID = aSMPUser.getID ();
+
+    // The headers must be set before the body is streamed. There may be more
+    // service groups if the last entry of the requested page exists.
+    aUnifiedResponse.addCustomResponseHeader (HEADER_TOTAL_COUNT,
+                                              Long.toString (aSGMgr.getSMPServiceGroupCountOfOwner (sOwnerID)));
+    if (nLimit > 0)
     {
-      case PEPPOL:
-      {
-        // Unspecified extension
-        final com.helger.xsds.peppol.smp1.ServiceGroupReferenceListType ret = new SMPServerAPI (aDataProvider).getServiceGroupReferenceList (sPathUserID,
-                                                                                                                                             aCredentials);
-        aBytes = new SMPMarshallerServiceGroupReferenceListType ().setUseSchema (XML_SCHEMA_VALIDATION)
-                                                                  .getAsBytes (ret);
-        break;
-      }
-      case OASIS_BDXR_V1:
+      final Wrapper <IParticipantIdentifier> aPageLast = new Wrapper <> ();
+      aSGMgr.forEachSMPServiceGroupOfOwner (sOwnerID,
+                                            aAfterID,
+                                            nOffset + nLimit - 1,
+                                            1,
+                                            aSG -> aPageLast.set (aSG.getParticipantIdentifier ()));
+      if (aPageLast.isSet ())
+        aUnifiedResponse.addCustomResponseHeader (HEADER_CONTINUATION_TOKEN, createContinuationToken (aPageLast.get ()));
+    }
+
+    final ReferenceListWriter aWriter = new ReferenceListWriter (sLog,
+                                                                 sPathUserID,
+                                                                 sAccessLogAPI,
+                                                                 nStartNanos,
+                                                                 aRootElementName,
+                                                                 aSGMgr,
+                                                                 sOwnerID,
+                                                                 aAfterID,
+                                                                 nOffset,
+                                                                 nLimit,
+                                                                 aDataProvider);
+    setResponseContentStreaming (aRequestScope,
+                                 aUnifiedResponse,
+                                 aWriter::writeNextChunk,
+                                 CMimeType.TEXT_XML,
+                                 StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes the reference list while it is sent to the client. Each chunk
+   * contains the service groups of one backend read.
+   *
+   * @author Philip Helger
+   */
+  private static final class ReferenceListWriter
+  {
+    private final String m_sLog;
+    private final String m_sPathUserID;
+    private final String m_sAccessLogAPI;
+    private final long m_nStartNanos;
+    private final QName m_aRootElementName;
+    private final ISMPServiceGroupManager m_aSGMgr;
+    private final String m_sOwnerID;
+    private final ISMPServerAPIDataProvider m_aDataProvider;
+    private XMLStreamWriter m_aXSW;
+    private IParticipantIdentifier m_aLastWritten;
+    // The offset only applies to the first backend read
+    private long m_nOffset;
+    private long m_nRemaining;
+    private long m_nWrittenCount = 0;
+
+    ReferenceListWriter (@Nonnull final String sLog,
+                         @Nonnull final String sPathUserID,
+                         @Nonnull final String sAccessLogAPI,
+                         final long nStartNanos,
+                         @Nonnull final QName aRootElementName,
+                         @Nonnull final ISMPServiceGroupManager aSGMgr,
+                         @Nonnull final String sOwnerID,
+                         @Nullable final IParticipantIdentifier aAfterID,
+                         final long nOffset,
+                         final long nLimit,
+                         @Nonnull final ISMPServerAPIDataProvider aDataProvider)
+    {
+      m_sLog = sLog;
+      m_sPathUserID = sPathUserID;
+      m_sAccessLogAPI = sAccessLogAPI;
+      m_nStartNanos = nStartNanos;
+      m_aRootElementName = aRootElementName;
+      m_aSGMgr = aSGMgr;
+      m_sOwnerID = sOwnerID;
+      m_aDataProvider = aDataProvider;
+      m_aLastWritten = aAfterID;
+      m_nOffset = nOffset;
+      m_nRemaining = nLimit > 0 ? nLimit : Long.MAX_VALUE;
+    }
+
+    private void _writeChunk (@Nonnull final OutputStream aOS) throws XMLStreamException
+    {
+      final String sNamespaceURI = m_aRootElementName.getNamespaceURI ();
+      if (m_aXSW == null)
       {
-        // Unspecified extension
-        final com.helger.xsds.bdxr.smp1.ServiceGroupReferenceListType ret = new BDXR1ServerAPI (aDataProvider).getServiceGroupReferenceList (sPathUserID,
-                                                                                                                                             aCredentials);
-        aBytes = new BDXR1MarshallerServiceGroupReferenceListType ().setUseSchema (XML_SCHEMA_VALIDATION)
-                                                                    .getAsBytes (ret);
-        break;
+        // The stream is the same for all chunks
+        m_aXSW = XMLOutputFactory.newFactory ().createXMLStreamWriter (aOS, StandardCharsets.UTF_8.name ());
+        m_aXSW.writeStartDocument (StandardCharsets.UTF_8.name (), "1.0");
+        m_aXSW.writeStartElement ("", m_aRootElementName.getLocalPart (), sNamespaceURI);
+        m_aXSW.writeDefaultNamespace (sNamespaceURI);
+        return;
       }
-      // Not available in OASIS BDXR v2
-      default:
-        throw new UnsupportedOperationException ("Unsupported REST type specified!");
+
+      final long nChunkSize = Math.min (m_nRemaining, BACKEND_CHUNK_SIZE);
+      final MutableLong aChunkCount = new MutableLong (0);
+      final Wrapper <XMLStreamException> aException = new Wrapper <> ();
+      m_aSGMgr.forEachSMPServiceGroupOfOwner (m_sOwnerID, m_aLastWritten, m_nOffset, nChunkSize, aSG -> {
+        if (aException.isSet ())
+          return;
+        final IParticipantIdentifier aPI = aSG.getParticipantIdentifier ();
+        try
+        {
+          m_aXSW.writeEmptyElement ("", ELEMENT_SERVICE_GROUP_REFERENCE, sNamespaceURI);
+          m_aXSW.writeAttribute (ATTR_HREF, m_aDataProvider.getServiceGroupHref (aPI));
+        }
+        catch (final XMLStreamException ex)
+        {
+          aException.set (ex);
+        }
+        m_aLastWritten = aPI;
+        aChunkCount.inc ();
+      });
+      if (aException.isSet ())
+        throw aException.get ();
+
+      m_nWrittenCount += aChunkCount.longValue ();
+      m_nOffset = 0;
+      m_nRemaining = aChunkCount.longValue () < nChunkSize ? 0 : m_nRemaining - nChunkSize;
     }
 
-    if (aBytes == null)
+    boolean writeNextChunk (@Nonnull final OutputStream aOS) throws IOException
     {
-      // Internal error serializing the payload
-      throw new SMPInternalErrorException ("Failed to convert the returned CompleteServiceGroup to XML");
-    }
+      try
+      {
+        final boolean bStarted = m_aXSW != null;
+        if (bStarted && m_nRemaining <= 0)
+        {
+          m_aXSW.writeEndElement ();
+          m_aXSW.writeEndDocument ();
+          // Does not close the underlying stream
+          m_aXSW.close ();
+
+          final long nNanos = System.nanoTime () - m_nStartNanos;
+          STATS_COUNTER_SUCCESS.increment (ACTION);
+          STATS_TIMER.record (ACTION, nNanos);
+          SMPRestAccessLog.logReadSuccess (m_sAccessLogAPI, ACTION, m_sPathUserID, null, m_nStartNanos);
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug (m_sLog + " SUCCESS - wrote " + m_nWrittenCount + " entries in " + (nNanos / 1_000_000) + "ms");
+          return false;
+        }
 
-    aUnifiedResponse.setContent (aBytes).setMimeType (CMimeType.TEXT_XML);
+        _writeChunk (aOS);
+        m_aXSW.flush ();
+        return true;
+      }
+      catch (final XMLStreamException | RuntimeException ex)
+      {
+        SMPRestAccessLog.logError (m_sAccessLogAPI, ACTION, m_sPathUserID, null, m_nStartNanos, ex);
+        STATS_COUNTER_ERROR.increment (ACTION);
+        STATS_TIMER.record (ACTION, System.nanoTime () - m_nStartNanos);
+        throw new IOException ("Failed to write the ServiceGroupReferenceList", ex);
+      }
+    }
   }
 }
@@ -16,19 +16,31 @@
  */
 package com.helger.phoss.smp.rest;
 
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.http.CHttp;
 import com.helger.commons.http.CHttpHeader;
 import com.helger.commons.http.HttpHeaderMap;
+import com.helger.commons.mime.IMimeType;
 import com.helger.commons.regex.RegExHelper;
 import com.helger.commons.string.StringHelper;
 import com.helger.http.basicauth.BasicAuthClientCredentials;
 import com.helger.http.basicauth.HttpBasicAuth;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.SMPParticipantModificationTracker;
 import com.helger.phoss.smp.exception.SMPUnauthorizedException;
 import com.helger.phoss.smp.restapi.SMPAPICredentials;
 import com.helger.photon.api.IAPIExecutor;
+import com.helger.servlet.response.UnifiedResponse;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
 
 abstract class AbstractSMPAPIExecutor implements IAPIExecutor
 {
@@ -93,4 +105,248 @@ abstract class AbstractSMPAPIExecutor implements IAPIExecutor
                                         CHttpHeader.AUTHORIZATION +
                                         "' is malformed. Contains neither a Bearer Token nor Basic Auth");
   }
+
+  /**
+   * Get the validators for the participant specific public GET requests. This
+   * is done based on the {@link SMPParticipantModificationTracker} and
+   * therefore does not require to read or create the response.
+   *
+   * @param sPathServiceGroupID
+   *        The service group ID from the path. May be <code>null</code>.
+   * @param bSignedResponse
+   *        <code>true</code> if the response is signed and therefore also
+   *        depends on the signing key.
+   * @return <code>null</code> if conditional GET requests are disabled or if
+   *         the service group ID is invalid.
+   * @since 7.1.1
+   */
+  @Nullable
+  protected static SMPRestResponseValidators getResponseValidators (@Nullable final String sPathServiceGroupID,
+                                                                    final boolean bSignedResponse)
+  {
+    if (!SMPServerConfiguration.isRestConditionalGetEnabled ())
+      return null;
+
+    final IParticipantIdentifier aParticipantID = SMPMetaManager.getIdentifierFactory ()
+                                                                .parseParticipantIdentifier (sPathServiceGroupID);
+    if (aParticipantID == null)
+    {
+      // Let the API create the error
+      return null;
+    }
+    return SMPRestResponseValidators.create (aParticipantID, bSignedResponse);
+  }
+
+  /**
+   * Check if the conditional request headers of the client match the provided
+   * validators. The response status "304 Not Modified" is only used for
+   * existing resources, so that requests for missing resources still result
+   * in the regular error response.
+   *
+   * @param aRequestScope
+   *        The current request scope. May not be <code>null</code>.
+   * @param aUnifiedResponse
+   *        The response to be filled. May not be <code>null</code>.
+   * @param aValidators
+   *        The validators as created by
+   *        {@link #getResponseValidators(String, boolean)}. May be
+   *        <code>null</code>.
+   * @param aResourceExists
+   *        Checks if the requested resource exists. Only invoked if the
+   *        conditional request headers match. May not be <code>null</code>.
+   * @return <code>true</code> if the response status "304 Not Modified" was
+   *         set and nothing else needs to be done, <code>false</code> if the
+   *         response needs to be created.
+   * @since 7.1.1
+   */
+  protected static boolean handleConditionalGet (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                                                 @Nonnull final UnifiedResponse aUnifiedResponse,
+                                                 @Nullable final SMPRestResponseValidators aValidators,
+                                                 @Nonnull final BooleanSupplier aResourceExists)
+  {
+    if (aValidators == null)
+      return false;
+
+    final HttpHeaderMap aHeaders = aRequestScope.headers ();
+    final boolean bCompressionEnabled = SMPServerConfiguration.isRestCompressionEnabled ();
+    final boolean bGZipAccepted = bCompressionEnabled &&
+                                  isGZipAccepted (aHeaders.getFirstHeaderValue (CHttpHeader.ACCEPT_ENCODING));
+    final String sIfNoneMatch = aHeaders.getFirstHeaderValue (CHttpHeader.IF_NONE_MATCH);
+    final String sETag;
+    if (StringHelper.hasText (sIfNoneMatch))
+    {
+      // If-None-Match takes precedence over If-Modified-Since
+      sETag = aValidators.getMatchingETag (sIfNoneMatch, bGZipAccepted);
+    }
+    else
+      if (aValidators.isNotModifiedSince (aHeaders.getFirstHeaderValue (CHttpHeader.IF_MODIFIED_SINCE)))
+        sETag = aValidators.getETag (bGZipAccepted);
+      else
+        sETag = null;
+
+    if (sETag == null || !aResourceExists.getAsBoolean ())
+      return false;
+
+    aUnifiedResponse.setStatus (CHttp.HTTP_NOT_MODIFIED);
+    aValidators.applyTo (aUnifiedResponse, sETag);
+    if (bCompressionEnabled)
+      aUnifiedResponse.addCustomResponseHeader (CHttpHeader.VARY, CHttpHeader.ACCEPT_ENCODING);
+    return true;
+  }
+
+  /**
+   * Check if the provided <code>Accept-Encoding</code> HTTP header value
+   * accepts GZip encoding.
+   *
+   * @param sAcceptEncoding
+   *        The header value. May be <code>null</code>.
+   * @return <code>true</code> if GZip is accepted, <code>false</code> if not.
+   * @since 7.1.1
+   */
+  static boolean isGZipAccepted (@Nullable final String sAcceptEncoding)
+  {
+    if (StringHelper.hasNoText (sAcceptEncoding))
+      return false;
+
+    boolean bWildcard = false;
+    for (final String sPart : StringHelper.getExploded (',', sAcceptEncoding))
+    {
+      final ICommonsList <String> aElements = StringHelper.getExploded (';', sPart);
+      final String sEncoding = aElements.getFirst ().trim ().toLowerCase (Locale.ROOT);
+      double dQuality = 1;
+      for (final String sParam : aElements.subList (1, aElements.size ()))
+      {
+        final String sRealParam = sParam.trim ();
+        if (sRealParam.startsWith ("q="))
+          try
+          {
+            dQuality = Double.parseDouble (sRealParam.substring (2).trim ());
+          }
+          catch (final NumberFormatException ex)
+          {
+            dQuality = 0;
+          }
+      }
+      if (sEncoding.equals ("gzip") || sEncoding.equals ("x-gzip"))
+        return dQuality > 0;
+      if (sEncoding.equals ("*"))
+        bWildcard = dQuality > 0;
+    }
+    return bWildcard;
+  }
+
+  private static boolean _isGZipAccepted (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                                          @Nonnull final UnifiedResponse aUnifiedResponse)
+  {
+    if (!SMPServerConfiguration.isRestCompressionEnabled ())
+      return false;
+
+    // The response depends on the request header
+    aUnifiedResponse.addCustomResponseHeader (CHttpHeader.VARY, CHttpHeader.ACCEPT_ENCODING);
+    return isGZipAccepted (aRequestScope.headers ().getFirstHeaderValue (CHttpHeader.ACCEPT_ENCODING));
+  }
+
+  /**
+   * Set the provided content as the response body. If the client accepts it
+   * and the content is large enough, the GZip compressed variant is used.
+   *
+   * @param aRequestScope
+   *        The current request scope. May not be <code>null</code>.
+   * @param aUnifiedResponse
+   *        The response to be filled. May not be <code>null</code>.
+   * @param aContent
+   *        The response content. May not be <code>null</code>.
+   * @param aMimeType
+   *        The MIME type of the response. May not be <code>null</code>.
+   * @param aCharset
+   *        The charset of the response. May be <code>null</code>.
+   * @since 7.1.1
+   */
+  protected static void setResponseContent (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                                            @Nonnull final UnifiedResponse aUnifiedResponse,
+                                            @Nonnull final SMPRestResponseContent aContent,
+                                            @Nonnull final IMimeType aMimeType,
+                                            @Nullable final Charset aCharset)
+  {
+    setResponseContent (aRequestScope, aUnifiedResponse, aContent, aMimeType, aCharset, null);
+  }
+
+  /**
+   * Set the provided content as the response body. If the client accepts it
+   * and the content is large enough, the GZip compressed variant is used. The
+   * validators are added as response headers, with the entity tag matching
+   * the chosen variant.
+   *
+   * @param aRequestScope
+   *        The current request scope. May not be <code>null</code>.
+   * @param aUnifiedResponse
+   *        The response to be filled. May not be <code>null</code>.
+   * @param aContent
+   *        The response content. May not be <code>null</code>.
+   * @param aMimeType
+   *        The MIME type of the response. May not be <code>null</code>.
+   * @param aCharset
+   *        The charset of the response. May be <code>null</code>.
+   * @param aValidators
+   *        The validators of the response. May be <code>null</code>.
+   * @since 7.1.1
+   */
+  protected static void setResponseContent (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                                            @Nonnull final UnifiedResponse aUnifiedResponse,
+                                            @Nonnull final SMPRestResponseContent aContent,
+                                            @Nonnull final IMimeType aMimeType,
+                                            @Nullable final Charset aCharset,
+                                            @Nullable final SMPRestResponseValidators aValidators)
+  {
+    final boolean bGZip = _isGZipAccepted (aRequestScope, aUnifiedResponse) &&
+                          aContent.getLength () >= SMPServerConfiguration.getRestCompressionMinSize ();
+    if (bGZip)
+    {
+      aUnifiedResponse.setContent (aContent.getGZipBytes ());
+      aUnifiedResponse.addCustomResponseHeader (CHttpHeader.CONTENT_ENCODING, "gzip");
+    }
+    else
+      aUnifiedResponse.setContent (aContent.getBytes ());
+    if (aValidators != null)
+      aValidators.applyTo (aUnifiedResponse, aValidators.getETag (bGZip));
+    aUnifiedResponse.setMimeType (aMimeType);
+    if (aCharset != null)
+      aUnifiedResponse.setCharset (aCharset);
+  }
+
+  /**
+   * Write the response body via the provided writer. The body is created chunk
+   * by chunk while it is sent to the client, so that it is never kept
+   * completely in memory. If the client accepts it, the body is GZip
+   * compressed while writing. This is meant for large responses, so the
+   * minimum size does not apply.
+   *
+   * @param aRequestScope
+   *        The current request scope. May not be <code>null</code>.
+   * @param aUnifiedResponse
+   *        The response to be filled. May not be <code>null</code>.
+   * @param aChunkWriter
+   *        The writer of the response body. It is invoked after the API
+   *        executor finished, so all response headers must be set
+   *        independently of it. May not be <code>null</code>.
+   * @param aMimeType
+   *        The MIME type of the response. May not be <code>null</code>.
+   * @param aCharset
+   *        The charset of the response. May be <code>null</code>.
+   * @since 7.1.1
+   */
+  protected static void setResponseContentStreaming (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                                                     @Nonnull final UnifiedResponse aUnifiedResponse,
+                                                     @Nonnull final SMPRestStreamingContent.IChunkWriter aChunkWriter,
+                                                     @Nonnull final IMimeType aMimeType,
+                                                     @Nullable final Charset aCharset)
+  {
+    final boolean bGZip = _isGZipAccepted (aRequestScope, aUnifiedResponse);
+    if (bGZip)
+      aUnifiedResponse.addCustomResponseHeader (CHttpHeader.CONTENT_ENCODING, "gzip");
+    aUnifiedResponse.setContent (new SMPRestStreamingContent (aChunkWriter, bGZip));
+    aUnifiedResponse.setMimeType (aMimeType);
+    if (aCharset != null)
+      aUnifiedResponse.setCharset (aCharset);
+  }
 }
@@ -16,14 +16,24 @@
  */
 package com.helger.phoss.smp.rest;
 
+import java.io.IOException;
 import java.net.URI;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+
+import com.helger.httpclient.HttpClientManager;
+import com.helger.httpclient.response.ResponseHandlerByteArray;
 import com.helger.peppol.sml.ESMPAPIType;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.smpclient.bdxr1.BDXRClientReadOnly;
+import com.helger.smpclient.bdxr2.BDXR2ClientReadOnly;
+import com.helger.smpclient.peppol.SMPClientReadOnly;
 import com.helger.smpclient.url.BDXLURLProvider;
 import com.helger.smpclient.url.ISMPURLProvider;
 import com.helger.smpclient.url.PeppolURLProvider;
@@ -51,21 +61,121 @@ abstract class AbstractSMPAPIExecutorQuery extends AbstractSMPAPIExecutor
     }
 
     @Nullable
-    public static SMPQueryParams create (@Nonnull final ESMPAPIType eAPIType, @Nullable final IParticipantIdentifier aParticipantID)
+    public static SMPQueryParams create (@Nonnull final ESMPAPIType eAPIType,
+                                         @Nonnull final IParticipantIdentifier aParticipantID) throws Exception
     {
+      final String sDNSZone = SMPMetaManager.getSettings ().getSMLDNSZone ();
+      final String sCacheKey = SMPRemoteQueryCache.createKey (eAPIType.getID (),
+                                                              sDNSZone,
+                                                              aParticipantID.getURIEncoded ());
+      final URI aSMPHostURI = SMPRemoteQueryCache.getInstance ().getSMPHostURI (sCacheKey, () -> {
+        try
+        {
+          return _getURLProvider (eAPIType).getSMPURIOfParticipant (aParticipantID, sDNSZone);
+        }
+        catch (final SMPDNSResolutionException ex)
+        {
+          // For BDXL lookup -> no such participant
+          return null;
+        }
+      });
+      if (aSMPHostURI == null)
+        return null;
+
       final SMPQueryParams ret = new SMPQueryParams ();
-      try
+      ret.m_aSMPHostURI = aSMPHostURI;
+      return ret;
+    }
+  }
+
+  @Nonnull
+  private static HttpClientManager _getSharedHttpClientManager ()
+  {
+    return SMPRemoteQueryCache.getInstance ().getHttpClientManager ();
+  }
+
+  /**
+   * @param aSMPHostURI
+   *        The SMP host URI to query. May not be <code>null</code>.
+   * @return A new Peppol SMP client that uses the shared HTTP connections.
+   * @since 7.1.1
+   */
+  @Nonnull
+  protected static SMPClientReadOnly createPeppolClient (@Nonnull final URI aSMPHostURI)
+  {
+    return new SMPClientReadOnly (aSMPHostURI)
+    {
+      @Override
+      public <T> T executeRequest (@Nonnull final HttpUriRequestBase aRequest,
+                                   @Nonnull final HttpClientResponseHandler <T> aResponseHandler) throws IOException
       {
-        ret.m_aSMPHostURI = _getURLProvider (eAPIType).getSMPURIOfParticipant (aParticipantID,
-                                                                               SMPMetaManager.getSettings ().getSMLDNSZone ());
+        return _getSharedHttpClientManager ().execute (aRequest, aResponseHandler);
       }
-      catch (final SMPDNSResolutionException ex)
+    };
+  }
+
+  /**
+   * @param aSMPHostURI
+   *        The SMP host URI to query. May not be <code>null</code>.
+   * @return A new OASIS BDXR SMP v1 client that uses the shared HTTP
+   *         connections.
+   * @since 7.1.1
+   */
+  @Nonnull
+  protected static BDXRClientReadOnly createBDXR1Client (@Nonnull final URI aSMPHostURI)
+  {
+    return new BDXRClientReadOnly (aSMPHostURI)
+    {
+      @Override
+      public <T> T executeRequest (@Nonnull final HttpUriRequestBase aRequest,
+                                   @Nonnull final HttpClientResponseHandler <T> aResponseHandler) throws IOException
       {
-        // For BDXL lookup -> no such participant
-        return null;
+        return _getSharedHttpClientManager ().execute (aRequest, aResponseHandler);
       }
-      return ret;
-    }
+    };
   }
 
+  /**
+   * @param aSMPHostURI
+   *        The SMP host URI to query. May not be <code>null</code>.
+   * @return A new OASIS BDXR SMP v2 client that uses the shared HTTP
+   *         connections.
+   * @since 7.1.1
+   */
+  @Nonnull
+  protected static BDXR2ClientReadOnly createBDXR2Client (@Nonnull final URI aSMPHostURI)
+  {
+    return new BDXR2ClientReadOnly (aSMPHostURI)
+    {
+      @Override
+      public <T> T executeRequest (@Nonnull final HttpUriRequestBase aRequest,
+                                   @Nonnull final HttpClientResponseHandler <T> aResponseHandler) throws IOException
+      {
+        return _getSharedHttpClientManager ().execute (aRequest, aResponseHandler);
+      }
+    };
+  }
+
+  /**
+   * Query the raw Business Card from the remote SMP using the shared HTTP
+   * connections.
+   *
+   * @param sBCURL
+   *        The URL of the Business Card to query. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if the Business Card could not be retrieved.
+   * @since 7.1.1
+   */
+  @Nullable
+  protected static byte [] queryBusinessCardBytes (@Nonnull final String sBCURL)
+  {
+    try
+    {
+      return _getSharedHttpClientManager ().execute (new HttpGet (sBCURL), new ResponseHandlerByteArray ());
+    }
+    catch (final Exception ex)
+    {
+      return null;
+    }
+  }
 }
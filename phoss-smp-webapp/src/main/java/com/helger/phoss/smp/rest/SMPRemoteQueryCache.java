@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.httpclient.HttpClientFactory;
+import com.helger.httpclient.HttpClientManager;
+import com.helger.json.IJsonObject;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.scope.IScope;
+import com.helger.smpclient.httpclient.SMPHttpClientSettings;
+import com.helger.web.scope.singleton.AbstractGlobalWebSingleton;
+
+/**
+ * Shared state of the remote query API: a TTL cache for the DNS resolutions
+ * of the participants' SMPs, a TTL cache for the successfully retrieved (and
+ * verified) remote responses, a pooled HTTP client that is shared between
+ * all remote queries and a bounded executor to run remote queries in
+ * parallel.<br>
+ * Both caches are disabled by default. Only successful responses are cached,
+ * and the cache keys need to contain all the query parameters (like XML
+ * Schema validation and signature verification).
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPRemoteQueryCache extends AbstractGlobalWebSingleton
+{
+  /**
+   * Creates the value in case of a cache miss.
+   *
+   * @author Philip Helger
+   * @param <T>
+   *        The value type
+   */
+  @FunctionalInterface
+  public interface IValueCreator <T>
+  {
+    @Nullable
+    T createValue () throws Exception;
+  }
+
+  private static final class Entry <T>
+  {
+    private final T m_aValue;
+    private final long m_nExpirationMillis;
+
+    Entry (@Nullable final T aValue, final long nExpirationMillis)
+    {
+      m_aValue = aValue;
+      m_nExpirationMillis = nExpirationMillis;
+    }
+
+    boolean isExpired (final long nNowMillis)
+    {
+      return nNowMillis >= m_nExpirationMillis;
+    }
+  }
+
+  private final long m_nDNSTTLMillis = SMPServerConfiguration.getRestRemoteQueryDNSCacheSeconds () *
+                                       CGlobal.MILLISECONDS_PER_SECOND;
+  private final long m_nResponseTTLMillis = SMPServerConfiguration.getRestRemoteQueryResponseCacheSeconds () *
+                                            CGlobal.MILLISECONDS_PER_SECOND;
+  private final int m_nMaxEntries = SMPServerConfiguration.getRestRemoteQueryCacheMaxEntries ();
+  // Insertion ordered - the oldest entries are evicted first
+  @GuardedBy ("m_aRWLock")
+  private final Map <String, Entry <URI>> m_aDNSMap = new LinkedHashMap <> ();
+  @GuardedBy ("m_aRWLock")
+  private final Map <String, Entry <IJsonObject>> m_aResponseMap = new LinkedHashMap <> ();
+  private final AtomicLong m_aDNSHits = new AtomicLong (0);
+  private final AtomicLong m_aDNSMisses = new AtomicLong (0);
+  private final AtomicLong m_aResponseHits = new AtomicLong (0);
+  private final AtomicLong m_aResponseMisses = new AtomicLong (0);
+  private HttpClientManager m_aHttpClientMgr;
+  private ThreadPoolExecutor m_aFanOutExecutor;
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPRemoteQueryCache ()
+  {}
+
+  @Nonnull
+  public static SMPRemoteQueryCache getInstance ()
+  {
+    return getGlobalSingleton (SMPRemoteQueryCache.class);
+  }
+
+  @Override
+  protected void onAfterInstantiation (@Nonnull final IScope aScope)
+  {
+    // Pooled connections that are reused over all remote queries. The same
+    // proxy, timeout and TLS settings as for the SMP clients are used.
+    m_aHttpClientMgr = new HttpClientManager (new HttpClientFactory (new SMPHttpClientSettings ()));
+
+    // Bounded number of threads that are only alive while needed. If too many
+    // queries are waiting, further queries are rejected instead of queued.
+    final int nThreads = SMPServerConfiguration.getRestRemoteQueryFanOutThreads ();
+    final AtomicInteger aThreadIndex = new AtomicInteger (0);
+    m_aFanOutExecutor = new ThreadPoolExecutor (nThreads,
+                                                nThreads,
+                                                60,
+                                                TimeUnit.SECONDS,
+                                                new ArrayBlockingQueue <> (SMPServerConfiguration.getRestRemoteQueryFanOutQueueSize ()),
+                                                r -> {
+                                                  final Thread t = new Thread (r,
+                                                                               "smp-remote-query-fanout-" +
+                                                                                  aThreadIndex.incrementAndGet ());
+                                                  t.setDaemon (true);
+                                                  return t;
+                                                },
+                                                new ThreadPoolExecutor.AbortPolicy ());
+    m_aFanOutExecutor.allowCoreThreadTimeOut (true);
+  }
+
+  @Override
+  protected void onDestroy (@Nonnull final IScope aScopeInDestruction) throws Exception
+  {
+    // Pending remote queries are not needed anymore
+    m_aFanOutExecutor.shutdownNow ();
+    m_aFanOutExecutor = null;
+    StreamHelper.close (m_aHttpClientMgr);
+    m_aHttpClientMgr = null;
+  }
+
+  /**
+   * @return The HTTP client manager that is shared between all remote queries.
+   *         It is configured with the {@link SMPHttpClientSettings}, like the
+   *         SMP clients themselves. Never <code>null</code>. Must not be
+   *         closed by the caller.
+   */
+  @Nonnull
+  public HttpClientManager getHttpClientManager ()
+  {
+    return m_aHttpClientMgr;
+  }
+
+  /**
+   * @return The bounded executor to run remote queries in parallel. If the
+   *         queue is full, a {@link java.util.concurrent.RejectedExecutionException}
+   *         is thrown upon submit. Never <code>null</code>. Must not be shut
+   *         down by the caller.
+   */
+  @Nonnull
+  public ExecutorService getFanOutExecutor ()
+  {
+    return m_aFanOutExecutor;
+  }
+
+  /**
+   * @return The number of remote queries that are currently executed in
+   *         parallel.
+   */
+  @Nonnegative
+  public int getFanOutActiveCount ()
+  {
+    return m_aFanOutExecutor.getActiveCount ();
+  }
+
+  /**
+   * @return The number of remote queries waiting for execution.
+   */
+  @Nonnegative
+  public int getFanOutQueueSize ()
+  {
+    return m_aFanOutExecutor.getQueue ().size ();
+  }
+
+  /**
+   * Create a cache key from the provided parts.
+   *
+   * @param aParts
+   *        The parts of the key. May not be <code>null</code>.
+   * @return The cache key and never <code>null</code>.
+   */
+  @Nonnull
+  @Nonempty
+  public static String createKey (@Nonnull final Object... aParts)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (final Object aPart : aParts)
+    {
+      if (aSB.length () > 0)
+        aSB.append ('|');
+      aSB.append (aPart);
+    }
+    return aSB.toString ();
+  }
+
+  @Nullable
+  private <T> T _getOrCreate (@Nonnull final Map <String, Entry <T>> aMap,
+                              final long nTTLMillis,
+                              final boolean bCacheNull,
+                              @Nonnull final AtomicLong aHits,
+                              @Nonnull final AtomicLong aMisses,
+                              @Nonnull @Nonempty final String sKey,
+                              @Nonnull final IValueCreator <T> aCreator) throws Exception
+  {
+    if (nTTLMillis <= 0)
+      return aCreator.createValue ();
+
+    final long nNow = System.currentTimeMillis ();
+    final Entry <T> aEntry = m_aRWLock.readLockedGet ( () -> aMap.get (sKey));
+    if (aEntry != null && !aEntry.isExpired (nNow))
+    {
+      aHits.incrementAndGet ();
+      return aEntry.m_aValue;
+    }
+
+    aMisses.incrementAndGet ();
+    final T ret = aCreator.createValue ();
+    if (ret != null || bCacheNull)
+      m_aRWLock.writeLocked ( () -> {
+        // Re-insert at the end
+        aMap.remove (sKey);
+        aMap.put (sKey, new Entry <> (ret, nNow + nTTLMillis));
+
+        // Remove all expired entries at the beginning and the overflow
+        final Iterator <Entry <T>> it = aMap.values ().iterator ();
+        while (it.hasNext ())
+        {
+          final Entry <T> aCur = it.next ();
+          if (aMap.size () > m_nMaxEntries || aCur.isExpired (nNow))
+            it.remove ();
+          else
+            break;
+        }
+      });
+    return ret;
+  }
+
+  /**
+   * Get the cached SMP host URI of a participant or resolve it.
+   *
+   * @param sKey
+   *        The cache key. Must contain the SMP API type, the participant
+   *        identifier and the DNS zone. May neither be <code>null</code> nor
+   *        empty.
+   * @param aResolver
+   *        The DNS resolver to be invoked on a cache miss. May return
+   *        <code>null</code> if the participant is not registered. May not be
+   *        <code>null</code>.
+   * @return The SMP host URI or <code>null</code> if the participant is not
+   *         registered.
+   * @throws Exception
+   *         From the resolver
+   */
+  @Nullable
+  public URI getSMPHostURI (@Nonnull @Nonempty final String sKey,
+                            @Nonnull final IValueCreator <URI> aResolver) throws Exception
+  {
+    // Negative results are cached as well
+    return _getOrCreate (m_aDNSMap, m_nDNSTTLMillis, true, m_aDNSHits, m_aDNSMisses, sKey, aResolver);
+  }
+
+  /**
+   * Get the cached remote response or query it. Only non-<code>null</code>
+   * responses are cached.
+   *
+   * @param sKey
+   *        The cache key. Must contain all parameters the response depends on.
+   *        May neither be <code>null</code> nor empty.
+   * @param aCreator
+   *        The remote query to be invoked on a cache miss. May not be
+   *        <code>null</code>.
+   * @return A copy of the response that may be modified by the caller. May be
+   *         <code>null</code> if the remote query returned <code>null</code>.
+   * @throws Exception
+   *         From the creator
+   */
+  @Nullable
+  public IJsonObject getResponse (@Nonnull @Nonempty final String sKey,
+                                  @Nonnull final IValueCreator <IJsonObject> aCreator) throws Exception
+  {
+    final IJsonObject ret = _getOrCreate (m_aResponseMap,
+                                          m_nResponseTTLMillis,
+                                          false,
+                                          m_aResponseHits,
+                                          m_aResponseMisses,
+                                          sKey,
+                                          aCreator);
+    // The cached object must not be modified
+    return ret == null ? null : ret.getClone ();
+  }
+
+  @Nonnegative
+  public int getDNSEntryCount ()
+  {
+    return m_aRWLock.readLockedInt (m_aDNSMap::size);
+  }
+
+  @Nonnegative
+  public long getDNSHitCount ()
+  {
+    return m_aDNSHits.get ();
+  }
+
+  @Nonnegative
+  public long getDNSMissCount ()
+  {
+    return m_aDNSMisses.get ();
+  }
+
+  @Nonnegative
+  public int getResponseEntryCount ()
+  {
+    return m_aRWLock.readLockedInt (m_aResponseMap::size);
+  }
+
+  @Nonnegative
+  public long getResponseHitCount ()
+  {
+    return m_aResponseHits.get ();
+  }
+
+  @Nonnegative
+  public long getResponseMissCount ()
+  {
+    return m_aResponseMisses.get ();
+  }
+}
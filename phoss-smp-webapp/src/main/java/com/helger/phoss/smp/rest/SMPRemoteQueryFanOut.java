@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.timing.StopWatch;
+import com.helger.json.IJson;
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonArray;
+import com.helger.json.JsonObject;
+import com.helger.peppol.sml.ESMPAPIType;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.smpclient.json.SMPJsonResponse;
+
+/**
+ * Query the service metadata of all document types of a participant from a
+ * remote SMP in parallel. The queries are run on the bounded executor of
+ * {@link SMPRemoteQueryCache}. Each query has its own timeout (starting when
+ * the query is started) and there is an overall timeout for all queries.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+final class SMPRemoteQueryFanOut
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPRemoteQueryFanOut.class);
+  // Interval to check if a queued query was started
+  private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos (50);
+
+  private static final class ServiceMetadataQuery implements Callable <IJsonObject>
+  {
+    private final ESMPAPIType m_eAPIType;
+    private final URI m_aSMPHostURI;
+    private final IParticipantIdentifier m_aParticipantID;
+    private final IDocumentTypeIdentifier m_aDocTypeID;
+    private final boolean m_bXMLSchemaValidation;
+    private final boolean m_bVerifySignature;
+    private volatile boolean m_bStarted = false;
+    private volatile long m_nStartNanos;
+    private volatile long m_nEndNanos;
+
+    ServiceMetadataQuery (@Nonnull final ESMPAPIType eAPIType,
+                          @Nonnull final URI aSMPHostURI,
+                          @Nonnull final IParticipantIdentifier aParticipantID,
+                          @Nonnull final IDocumentTypeIdentifier aDocTypeID,
+                          final boolean bXMLSchemaValidation,
+                          final boolean bVerifySignature)
+    {
+      m_eAPIType = eAPIType;
+      m_aSMPHostURI = aSMPHostURI;
+      m_aParticipantID = aParticipantID;
+      m_aDocTypeID = aDocTypeID;
+      m_bXMLSchemaValidation = bXMLSchemaValidation;
+      m_bVerifySignature = bVerifySignature;
+    }
+
+    @Nullable
+    public IJsonObject call () throws Exception
+    {
+      m_nStartNanos = System.nanoTime ();
+      m_bStarted = true;
+      try
+      {
+        return APIExecutorQueryGetServiceMetadata.queryRemoteServiceMetadata (m_eAPIType,
+                                                                              m_aSMPHostURI,
+                                                                              m_aParticipantID,
+                                                                              m_aDocTypeID,
+                                                                              m_bXMLSchemaValidation,
+                                                                              m_bVerifySignature);
+      }
+      finally
+      {
+        m_nEndNanos = System.nanoTime ();
+      }
+    }
+
+    /**
+     * @return The duration of the query in milliseconds so far, or -1 if the
+     *         query was not started.
+     */
+    long getDurationMillis ()
+    {
+      if (!m_bStarted)
+        return -1;
+      final long nEnd = m_nEndNanos;
+      return TimeUnit.NANOSECONDS.toMillis ((nEnd != 0 ? nEnd : System.nanoTime ()) - m_nStartNanos);
+    }
+  }
+
+  private SMPRemoteQueryFanOut ()
+  {}
+
+  @Nullable
+  private static IJsonObject _waitFor (@Nonnull final ServiceMetadataQuery aQuery,
+                                       @Nonnull final Future <IJsonObject> aFuture,
+                                       final long nDeadlineNanos,
+                                       final long nCallTimeoutNanos) throws InterruptedException,
+                                                                             ExecutionException,
+                                                                             TimeoutException
+  {
+    while (true)
+    {
+      final long nNow = System.nanoTime ();
+      long nWaitNanos = nDeadlineNanos - nNow;
+      if (aQuery.m_bStarted)
+        nWaitNanos = Math.min (nWaitNanos, aQuery.m_nStartNanos + nCallTimeoutNanos - nNow);
+      else
+      {
+        // Still queued - the call timeout starts when the query starts
+        nWaitNanos = Math.min (nWaitNanos, POLL_NANOS);
+      }
+      if (nWaitNanos <= 0 && !aFuture.isDone ())
+        throw new TimeoutException ();
+
+      try
+      {
+        return aFuture.get (Math.max (nWaitNanos, 0), TimeUnit.NANOSECONDS);
+      }
+      catch (final TimeoutException ex)
+      {
+        // Re-evaluate
+      }
+    }
+  }
+
+  @Nonnull
+  private static String _getErrorMessage (@Nonnull final Throwable t)
+  {
+    return t.getClass ().getName () + (t.getMessage () != null ? ": " + t.getMessage () : "");
+  }
+
+  /**
+   * Query the service metadata of all document types contained in the
+   * provided document type query response.
+   *
+   * @param eAPIType
+   *        The SMP API type to use. May not be <code>null</code>.
+   * @param aIF
+   *        The identifier factory to use. May not be <code>null</code>.
+   * @param aSMPHostURI
+   *        The SMP host URI to query. May not be <code>null</code>.
+   * @param aParticipantID
+   *        The participant ID to query. May not be <code>null</code>.
+   * @param aDocTypesJson
+   *        The JSON response of the document type query. May not be
+   *        <code>null</code>.
+   * @param bXMLSchemaValidation
+   *        <code>true</code> to enable XML Schema validation of the responses
+   * @param bVerifySignature
+   *        <code>true</code> to verify the signature of the responses
+   * @return A JSON array with one object per document type, containing the
+   *         service metadata or the error details as well as the duration.
+   *         Never <code>null</code>.
+   */
+  @Nonnull
+  public static IJsonArray queryAllServiceMetadata (@Nonnull final ESMPAPIType eAPIType,
+                                                    @Nonnull final IIdentifierFactory aIF,
+                                                    @Nonnull final URI aSMPHostURI,
+                                                    @Nonnull final IParticipantIdentifier aParticipantID,
+                                                    @Nonnull final IJsonObject aDocTypesJson,
+                                                    final boolean bXMLSchemaValidation,
+                                                    final boolean bVerifySignature)
+  {
+    final StopWatch aSW = StopWatch.createdStarted ();
+    final long nCallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos (SMPServerConfiguration.getRestRemoteQueryFanOutCallTimeoutMS ());
+    final long nDeadlineNanos = System.nanoTime () +
+                                TimeUnit.MILLISECONDS.toNanos (SMPServerConfiguration.getRestRemoteQueryFanOutTotalTimeoutMS ());
+    final ExecutorService aExecutor = SMPRemoteQueryCache.getInstance ().getFanOutExecutor ();
+
+    // Start all queries
+    final IJsonArray ret = new JsonArray ();
+    final ICommonsList <IJsonObject> aResults = new CommonsArrayList <> ();
+    final ICommonsList <ServiceMetadataQuery> aQueries = new CommonsArrayList <> ();
+    final ICommonsList <Future <IJsonObject>> aFutures = new CommonsArrayList <> ();
+    final IJsonArray aURLs = aDocTypesJson.getAsArray (SMPJsonResponse.JSON_URLS);
+    if (aURLs != null)
+      for (final IJson aURL : aURLs)
+      {
+        final String sDocTypeID = aURL.isObject () ? aURL.getAsObject ()
+                                                         .getAsString (SMPJsonResponse.JSON_DOCUMENT_TYPE_ID) : null;
+        final IDocumentTypeIdentifier aDocTypeID = aIF.parseDocumentTypeIdentifier (sDocTypeID);
+        if (aDocTypeID == null)
+        {
+          // Error was already reported in the URL list
+          continue;
+        }
+
+        final IJsonObject aResult = new JsonObject ().add (SMPJsonResponse.JSON_DOCUMENT_TYPE_ID, sDocTypeID);
+        final ServiceMetadataQuery aQuery = new ServiceMetadataQuery (eAPIType,
+                                                                      aSMPHostURI,
+                                                                      aParticipantID,
+                                                                      aDocTypeID,
+                                                                      bXMLSchemaValidation,
+                                                                      bVerifySignature);
+        Future <IJsonObject> aFuture;
+        try
+        {
+          aFuture = aExecutor.submit (aQuery);
+        }
+        catch (final RejectedExecutionException ex)
+        {
+          // Too many queries are waiting - fail fast
+          final CompletableFuture <IJsonObject> aRejected = new CompletableFuture <> ();
+          aRejected.completeExceptionally (ex);
+          aFuture = aRejected;
+        }
+        aResults.add (aResult);
+        aQueries.add (aQuery);
+        aFutures.add (aFuture);
+        ret.add (aResult);
+      }
+
+    // Collect all results in order
+    int nSuccess = 0;
+    int nErrors = 0;
+    try
+    {
+      for (int i = 0; i < aQueries.size (); ++i)
+      {
+        final ServiceMetadataQuery aQuery = aQueries.get (i);
+        final Future <IJsonObject> aFuture = aFutures.get (i);
+        final IJsonObject aResult = aResults.get (i);
+        boolean bSuccess = false;
+        try
+        {
+          final IJsonObject aSM = _waitFor (aQuery, aFuture, nDeadlineNanos, nCallTimeoutNanos);
+          if (aSM == null)
+            aResult.add ("error", "No service metadata found");
+          else
+          {
+            aResult.addJson ("serviceMetadata", aSM);
+            bSuccess = true;
+          }
+        }
+        catch (final TimeoutException ex)
+        {
+          aFuture.cancel (true);
+          aResult.add ("error", aQuery.m_bStarted ? "Query timed out" : "Query was not started before the overall timeout");
+          aResult.add ("timeout", true);
+        }
+        catch (final ExecutionException ex)
+        {
+          final Throwable aCause = ex.getCause () != null ? ex.getCause () : ex;
+          if (aCause instanceof RejectedExecutionException)
+          {
+            aResult.add ("error", "Query was rejected because too many remote queries are pending");
+            aResult.add ("rejected", true);
+          }
+          else
+            aResult.add ("error", _getErrorMessage (aCause));
+        }
+        aResult.add ("success", bSuccess);
+        aResult.add ("durationMillis", aQuery.getDurationMillis ());
+        if (bSuccess)
+          nSuccess++;
+        else
+          nErrors++;
+      }
+    }
+    catch (final InterruptedException ex)
+    {
+      LOGGER.warn ("Interrupted while querying all service metadata of '" + aParticipantID.getURIEncoded () + "'");
+      Thread.currentThread ().interrupt ();
+    }
+    finally
+    {
+      // Don't waste resources on results nobody is waiting for
+      for (final Future <IJsonObject> aFuture : aFutures)
+        aFuture.cancel (true);
+    }
+
+    LOGGER.info ("[QueryAPI] Queried " +
+                 aQueries.size () +
+                 " service metadata of '" +
+                 aParticipantID.getURIEncoded () +
+                 "' in parallel after " +
+                 aSW.stopAndGetMillis () +
+                 " milliseconds: " +
+                 nSuccess +
+                 " successful, " +
+                 nErrors +
+                 " failed");
+    return ret;
+  }
+}
@@ -85,12 +85,31 @@ public class SMPRestDataProvider implements ISMPServerAPIDataProvider
 
   public SMPRestDataProvider (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
                               @Nullable final String sServiceGroupID)
+  {
+    this (aRequestScope, sServiceGroupID, SMPMetaManager.getSettings ().getSMLDNSZone ());
+  }
+
+  /**
+   * Constructor with an explicit SML DNS zone name. This avoids reading the
+   * settings, which may require a backend query.
+   *
+   * @param aRequestScope
+   *        The current request scope. May not be <code>null</code>.
+   * @param sServiceGroupID
+   *        The optional URI encoded participant ID. May be <code>null</code>.
+   * @param sSMLZoneName
+   *        The SML DNS zone name. May be <code>null</code>.
+   * @since 7.1.1
+   */
+  public SMPRestDataProvider (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                              @Nullable final String sServiceGroupID,
+                              @Nullable final String sSMLZoneName)
   {
     ValueEnforcer.notNull (aRequestScope, "RequestScope");
     m_eServerNameMode = EServerNameMode.getFromIDOrDefault (SMPServerConfiguration.getPublicServerURLMode ());
     m_aRequestScope = aRequestScope;
     m_aParticipantID = SMPMetaManager.getIdentifierFactory ().parseParticipantIdentifier (sServiceGroupID);
-    m_sSMLZoneName = SMPMetaManager.getSettings ().getSMLDNSZone ();
+    m_sSMLZoneName = sSMLZoneName;
     m_sQueryPathPrefix = SMPServerConfiguration.getRESTType ().getQueryPathPrefix ();
   }
 
@@ -39,11 +39,14 @@ import javax.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.commons.http.CHttp;
+import com.helger.commons.http.CHttpHeader;
 import com.helger.commons.http.EHttpMethod;
 import com.helger.commons.mime.CMimeType;
 import com.helger.commons.regex.RegExHelper;
 import com.helger.commons.state.EContinue;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.rest.SMPRestRateLimiter.ECategory;
 import com.helger.photon.api.APIDescriptor;
 import com.helger.photon.api.APIPath;
 import com.helger.photon.api.GlobalAPIInvoker;
@@ -279,6 +282,28 @@ public class SMPRestFilter extends AbstractXFilterUnifiedResponse
       aAPIRegistry.registerAPI (aSMPImportAll);
     }
 
+    // Batch API since 7.1.1
+    {
+      final APIDescriptor aSMPBatchXML = new APIDescriptor (APIPath.put ("/exchange/batch/xml/v1"),
+                                                            new APIExecutorServiceGroupBatch (true));
+      aSMPBatchXML.setExceptionMapper (aExceptionMapper);
+      aAPIRegistry.registerAPI (aSMPBatchXML);
+    }
+    {
+      final APIDescriptor aSMPBatchNDJSON = new APIDescriptor (APIPath.put ("/exchange/batch/ndjson"),
+                                                               new APIExecutorServiceGroupBatch (false));
+      aSMPBatchNDJSON.setExceptionMapper (aExceptionMapper);
+      aAPIRegistry.registerAPI (aSMPBatchNDJSON);
+    }
+
+    // Change log API since 7.1.1
+    {
+      final APIDescriptor aSMPChangeLog = new APIDescriptor (APIPath.get ("/exchange/changes/v1"),
+                                                             new APIExecutorChangeLogGet ());
+      aSMPChangeLog.setExceptionMapper (aExceptionMapper);
+      aAPIRegistry.registerAPI (aSMPChangeLog);
+    }
+
     // Migration API since 5.6.0
     {
       final APIDescriptor aSMPMigrateOutboundStart = new APIDescriptor (APIPath.put ("/migration/outbound/start/{" +
@@ -304,6 +329,56 @@ public class SMPRestFilter extends AbstractXFilterUnifiedResponse
       aSMPMigrateOutboundFinalize.setExceptionMapper (aExceptionMapper);
       aAPIRegistry.registerAPI (aSMPMigrateOutboundFinalize);
     }
+    // Bulk migration API since 7.1.1
+    {
+      final APIDescriptor aSMPMigrateOutboundBulkStart = new APIDescriptor (APIPath.put ("/migration/outbound/bulk"),
+                                                                            new APIExecutorMigrationOutboundBulkStartPut ());
+      aSMPMigrateOutboundBulkStart.setExceptionMapper (aExceptionMapper);
+      aAPIRegistry.registerAPI (aSMPMigrateOutboundBulkStart);
+    }
+    {
+      final APIDescriptor aSMPMigrateOutboundBulkStatus = new APIDescriptor (APIPath.get ("/migration/outbound/bulk/{" +
+                                                                                          PARAM_MIGRATION_ID +
+                                                                                          "}"),
+                                                                             new APIExecutorMigrationOutboundBulkGet (false));
+      aSMPMigrateOutboundBulkStatus.setExceptionMapper (aExceptionMapper);
+      aAPIRegistry.registerAPI (aSMPMigrateOutboundBulkStatus);
+    }
+    {
+      final APIDescriptor aSMPMigrateOutboundBulkKeys = new APIDescriptor (APIPath.get ("/migration/outbound/bulk/{" +
+                                                                                        PARAM_MIGRATION_ID +
+                                                                                        "}/keys"),
+                                                                           new APIExecutorMigrationOutboundBulkGet (true));
+      aSMPMigrateOutboundBulkKeys.setExceptionMapper (aExceptionMapper);
+      aAPIRegistry.registerAPI (aSMPMigrateOutboundBulkKeys);
+    }
+    {
+      final APIDescriptor aSMPMigrateOutboundBulkCancel = new APIDescriptor (APIPath.delete ("/migration/outbound/bulk/{" +
+                                                                                             PARAM_MIGRATION_ID +
+                                                                                             "}"),
+                                                                             new APIExecutorMigrationOutboundBulkDelete ());
+      aSMPMigrateOutboundBulkCancel.setExceptionMapper (aExceptionMapper);
+      aAPIRegistry.registerAPI (aSMPMigrateOutboundBulkCancel);
+    }
+    // Directory bulk push API since 7.1.1
+    {
+      final APIDescriptor aSMPDirectoryBulkPushStart = new APIDescriptor (APIPath.put ("/directory/bulkpush"),
+                                                                          new APIExecutorDirectoryBulkPushPut ());
+      aSMPDirectoryBulkPushStart.setExceptionMapper (aExceptionMapper);
+      aAPIRegistry.registerAPI (aSMPDirectoryBulkPushStart);
+    }
+    {
+      final APIDescriptor aSMPDirectoryBulkPushStatus = new APIDescriptor (APIPath.get ("/directory/bulkpush"),
+                                                                           new APIExecutorDirectoryBulkPushGet ());
+      aSMPDirectoryBulkPushStatus.setExceptionMapper (aExceptionMapper);
+      aAPIRegistry.registerAPI (aSMPDirectoryBulkPushStatus);
+    }
+    {
+      final APIDescriptor aSMPDirectoryBulkPushCancel = new APIDescriptor (APIPath.delete ("/directory/bulkpush"),
+                                                                           new APIExecutorDirectoryBulkPushDelete ());
+      aSMPDirectoryBulkPushCancel.setExceptionMapper (aExceptionMapper);
+      aAPIRegistry.registerAPI (aSMPDirectoryBulkPushCancel);
+    }
     {
       final APIDescriptor aSMPMigrateInbound = new APIDescriptor (APIPath.put ("/migration/inbound/{" +
                                                                                PARAM_SERVICE_GROUP_ID +
@@ -341,7 +416,7 @@ public class SMPRestFilter extends AbstractXFilterUnifiedResponse
     final APIPath aAPIPath = APIPath.createForFilter (aRequestScope);
 
     // Hard coded path with white listed requests
-    if (RegExHelper.stringMatchesPattern ("^/(ajax|error|favicon.ico|logout|public|resbundle|robots.txt|secure|smp-cspreporting|smp-status|stream)(/.*)?$",
+    if (RegExHelper.stringMatchesPattern ("^/(ajax|error|favicon.ico|logout|public|resbundle|robots.txt|secure|smp-cspreporting|smp-health|smp-metrics|smp-status|stream)(/.*)?$",
                                           aAPIPath.getPath ()))
     {
       // Explicitly other servlet
@@ -364,6 +439,30 @@ public class SMPRestFilter extends AbstractXFilterUnifiedResponse
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug (LOG_PREFIX + "Found API match for '" + aAPIPath.getPath () + "': " + aInvokableDescriptor);
 
+    if (SMPServerConfiguration.isRestRateLimitEnabled ())
+    {
+      final ECategory eCategory = ECategory.getCategory (aRequestScope.getHttpMethod (),
+                                                         aInvokableDescriptor.getAPIDescriptor ()
+                                                                             .getAPIPath ()
+                                                                             .getPath ());
+      final long nRetryAfterSeconds = SMPRestRateLimiter.getInstance ().checkRequest (aRequestScope, eCategory);
+      if (nRetryAfterSeconds > 0)
+      {
+        if (LOGGER.isDebugEnabled ())
+          LOGGER.debug (LOG_PREFIX +
+                        "Rejecting '" +
+                        aAPIPath.getPath () +
+                        "' from '" +
+                        aRequestScope.getRequest ().getRemoteAddr () +
+                        "' because the " +
+                        eCategory.getID () +
+                        " rate limit is exceeded");
+        aUnifiedResponse.setStatus (CHttp.HTTP_TOO_MANY_REQUESTS);
+        aUnifiedResponse.addCustomResponseHeader (CHttpHeader.RETRY_AFTER, Long.toString (nRetryAfterSeconds));
+        return EContinue.BREAK;
+      }
+    }
+
     // Always disable caching for GET requests
     if (aRequestScope.getHttpMethod () == EHttpMethod.GET)
       aUnifiedResponse.disableCaching ();
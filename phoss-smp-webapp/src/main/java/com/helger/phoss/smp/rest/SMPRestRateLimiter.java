@@ -0,0 +1,405 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.collection.impl.CommonsHashMap;
+import com.helger.commons.collection.impl.CommonsHashSet;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.http.EHttpMethod;
+import com.helger.commons.id.IHasID;
+import com.helger.commons.string.StringHelper;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+import com.helger.web.scope.singleton.AbstractGlobalWebSingleton;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Per client token bucket rate limiting for the REST API. Each client
+ * (identified by IP address or TLS client certificate) has a separate budget
+ * per {@link ECategory}.<br>
+ * Behind a reverse proxy, the remote address of all requests is the address of
+ * the proxy, so that all clients would share the same budget. Therefore the
+ * proxies must be configured as trusted proxies, so that the client IP address
+ * is taken from the configured header instead.<br>
+ * Note: the state is node local.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPRestRateLimiter extends AbstractGlobalWebSingleton
+{
+  /**
+   * The rate limiting categories of the REST API.
+   *
+   * @author Philip Helger
+   */
+  public enum ECategory implements IHasID <String>
+  {
+    READ ("read", 3000, 100),
+    WRITE ("write", 600, 20),
+    EXPORT ("export", 6, 2),
+    REMOTE_QUERY ("remotequery", 300, 10);
+
+    private final String m_sID;
+    private final int m_nDefaultPerMinute;
+    private final int m_nDefaultBurst;
+    private final AtomicLong m_aAllowed = new AtomicLong (0);
+    private final AtomicLong m_aRejected = new AtomicLong (0);
+
+    ECategory (@Nonnull @Nonempty final String sID, final int nDefaultPerMinute, final int nDefaultBurst)
+    {
+      m_sID = sID;
+      m_nDefaultPerMinute = nDefaultPerMinute;
+      m_nDefaultBurst = nDefaultBurst;
+    }
+
+    @Nonnull
+    @Nonempty
+    public String getID ()
+    {
+      return m_sID;
+    }
+
+    /**
+     * @return The configured number of requests per minute. 0 means
+     *         unlimited.
+     */
+    @Nonnegative
+    public int getPerMinute ()
+    {
+      return SMPServerConfiguration.getRestRateLimitPerMinute (m_sID, m_nDefaultPerMinute);
+    }
+
+    /**
+     * @return The configured burst size. Always &gt; 0.
+     */
+    @Nonnegative
+    public int getBurst ()
+    {
+      return SMPServerConfiguration.getRestRateLimitBurst (m_sID, m_nDefaultBurst);
+    }
+
+    @Nonnegative
+    public long getAllowedCount ()
+    {
+      return m_aAllowed.get ();
+    }
+
+    @Nonnegative
+    public long getRejectedCount ()
+    {
+      return m_aRejected.get ();
+    }
+
+    /**
+     * Determine the category of a REST API.
+     *
+     * @param eHttpMethod
+     *        The HTTP method of the request. May be <code>null</code>.
+     * @param sAPIPath
+     *        The path template of the matched API. May not be
+     *        <code>null</code>.
+     * @return The matching category. Never <code>null</code>.
+     */
+    @Nonnull
+    public static ECategory getCategory (@Nullable final EHttpMethod eHttpMethod, @Nonnull final String sAPIPath)
+    {
+      if (eHttpMethod != EHttpMethod.GET && eHttpMethod != EHttpMethod.HEAD)
+        return WRITE;
+      if (sAPIPath.startsWith ("/smpquery/") || sAPIPath.startsWith ("/businesscardquery/"))
+        return REMOTE_QUERY;
+      if (sAPIPath.startsWith ("/exchange/export/"))
+        return EXPORT;
+      return READ;
+    }
+  }
+
+  /**
+   * A simple token bucket. The bucket starts full.
+   *
+   * @author Philip Helger
+   */
+  static final class TokenBucket
+  {
+    private final int m_nCapacity;
+    private final double m_dTokensPerNano;
+    @GuardedBy ("this")
+    private double m_dTokens;
+    @GuardedBy ("this")
+    private long m_nLastRefillNanos;
+    @GuardedBy ("this")
+    private long m_nLastUsedNanos;
+
+    TokenBucket (@Nonnegative final int nPerMinute, @Nonnegative final int nCapacity, final long nNowNanos)
+    {
+      m_nCapacity = nCapacity;
+      m_dTokensPerNano = (double) nPerMinute / TimeUnit.MINUTES.toNanos (1);
+      m_dTokens = nCapacity;
+      m_nLastRefillNanos = nNowNanos;
+      m_nLastUsedNanos = nNowNanos;
+    }
+
+    @GuardedBy ("this")
+    private void _refill (final long nNowNanos)
+    {
+      final long nElapsed = nNowNanos - m_nLastRefillNanos;
+      if (nElapsed > 0)
+      {
+        m_dTokens = Math.min (m_nCapacity, m_dTokens + nElapsed * m_dTokensPerNano);
+        m_nLastRefillNanos = nNowNanos;
+      }
+    }
+
+    /**
+     * Try to take one token.
+     *
+     * @param nNowNanos
+     *        The current nano time.
+     * @return 0 if a token was taken, or the number of nano seconds until the
+     *         next token is available.
+     */
+    synchronized long tryConsume (final long nNowNanos)
+    {
+      m_nLastUsedNanos = nNowNanos;
+      _refill (nNowNanos);
+      if (m_dTokens >= 1)
+      {
+        m_dTokens -= 1;
+        return 0;
+      }
+      return (long) Math.ceil ((1 - m_dTokens) / m_dTokensPerNano);
+    }
+
+    synchronized boolean isFull (final long nNowNanos)
+    {
+      _refill (nNowNanos);
+      return m_dTokens >= m_nCapacity;
+    }
+
+    synchronized long getLastUsedNanos ()
+    {
+      return m_nLastUsedNanos;
+    }
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPRestRateLimiter.class);
+  private static final String ATTR_CLIENT_CERTIFICATE = "jakarta.servlet.request.X509Certificate";
+  private static final long CLEANUP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos (1);
+
+  private final boolean m_bByCertificate = SMPServerConfiguration.isRestRateLimitByCertificate ();
+  private final int m_nMaxClients = SMPServerConfiguration.getRestRateLimitMaxClients ();
+  private final ICommonsSet <String> m_aTrustedProxies = new CommonsHashSet <> (SMPServerConfiguration.getAllRestRateLimitTrustedProxies ());
+  private final String m_sClientIPHeader = SMPServerConfiguration.getRestRateLimitClientIPHeader ();
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, TokenBucket> m_aBuckets = new CommonsHashMap <> ();
+  private final AtomicLong m_aLastCleanupNanos = new AtomicLong (System.nanoTime ());
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPRestRateLimiter ()
+  {}
+
+  @Nonnull
+  public static SMPRestRateLimiter getInstance ()
+  {
+    return getGlobalSingleton (SMPRestRateLimiter.class);
+  }
+
+  /**
+   * Determine the IP address of the client. The remote address of the
+   * connection is used, unless it is one of the trusted proxies. In that case
+   * the client IP header is evaluated from right to left, and the first
+   * address that is not a trusted proxy is used. The entries left of it are
+   * ignored, because they can be set by the client at will.
+   *
+   * @param sRemoteAddr
+   *        The remote address of the connection. May not be <code>null</code>.
+   * @param sClientIPHeader
+   *        The value of the client IP header. May be <code>null</code>.
+   * @param aTrustedProxies
+   *        The IP addresses of the trusted proxies. May not be
+   *        <code>null</code>.
+   * @return The client IP address to use. Never <code>null</code>.
+   */
+  @Nonnull
+  static String getClientIP (@Nonnull final String sRemoteAddr,
+                             @Nullable final String sClientIPHeader,
+                             @Nonnull final ICommonsSet <String> aTrustedProxies)
+  {
+    if (!aTrustedProxies.contains (sRemoteAddr) || StringHelper.hasNoText (sClientIPHeader))
+      return sRemoteAddr;
+
+    final ICommonsList <String> aHops = StringHelper.getExploded (',', sClientIPHeader);
+    for (int i = aHops.size () - 1; i >= 0; --i)
+    {
+      final String sHop = aHops.get (i).trim ();
+      if (StringHelper.hasText (sHop) && !aTrustedProxies.contains (sHop))
+        return sHop;
+    }
+    // Only proxies in the chain
+    return sRemoteAddr;
+  }
+
+  @Nonnull
+  @Nonempty
+  private String _getClientKey (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope)
+  {
+    final HttpServletRequest aRequest = aRequestScope.getRequest ();
+    if (m_bByCertificate)
+    {
+      final Object aCerts = aRequest.getAttribute (ATTR_CLIENT_CERTIFICATE);
+      if (aCerts instanceof X509Certificate [] && ((X509Certificate []) aCerts).length > 0)
+      {
+        final X509Certificate aCert = ((X509Certificate []) aCerts)[0];
+        return "cert:" + aCert.getIssuerX500Principal ().getName () + ":" + aCert.getSerialNumber ().toString (16);
+      }
+    }
+    String sClientIPHeader = null;
+    if (m_aTrustedProxies.isNotEmpty ())
+    {
+      // Multiple headers are combined into a single list
+      final Enumeration <String> aHeaders = aRequest.getHeaders (m_sClientIPHeader);
+      if (aHeaders != null && aHeaders.hasMoreElements ())
+        sClientIPHeader = StringHelper.getImploded (',', Collections.list (aHeaders));
+    }
+    return "ip:" + getClientIP (aRequest.getRemoteAddr (), sClientIPHeader, m_aTrustedProxies);
+  }
+
+  /**
+   * Remove the state of idle clients. Full buckets are in the same state as new
+   * ones and are therefore always removed. If the maximum number of clients is
+   * still exceeded afterwards, the least recently used buckets are removed, so
+   * that there is room for 10% new clients.
+   *
+   * @param aBuckets
+   *        The buckets to clean. May not be <code>null</code>.
+   * @param nMaxClients
+   *        The maximum number of buckets. Must be &gt; 0.
+   * @param nNowNanos
+   *        The current nano time.
+   */
+  static void removeIdleBuckets (@Nonnull final ICommonsMap <String, TokenBucket> aBuckets,
+                                 @Nonnegative final int nMaxClients,
+                                 final long nNowNanos)
+  {
+    aBuckets.entrySet ().removeIf (x -> x.getValue ().isFull (nNowNanos));
+
+    if (aBuckets.size () >= nMaxClients)
+    {
+      final int nRemove = aBuckets.size () - nMaxClients + Math.max (1, nMaxClients / 10);
+      final long [] aLastUsed = new long [aBuckets.size ()];
+      int nIndex = 0;
+      for (final TokenBucket aBucket : aBuckets.values ())
+        aLastUsed[nIndex++] = aBucket.getLastUsedNanos ();
+      Arrays.sort (aLastUsed);
+      final long nThreshold = aLastUsed[Math.min (nRemove, aLastUsed.length) - 1];
+
+      LOGGER.warn ("Rate limiting state exceeds " +
+                   nMaxClients +
+                   " clients - removing the " +
+                   nRemove +
+                   " least recently used clients");
+      aBuckets.entrySet ().removeIf (x -> x.getValue ().getLastUsedNanos () <= nThreshold);
+    }
+  }
+
+  /**
+   * Check if the client may perform the request.
+   *
+   * @param aRequestScope
+   *        The current request scope. May not be <code>null</code>.
+   * @param eCategory
+   *        The category of the requested API. May not be <code>null</code>.
+   * @return 0 if the request is allowed, or the number of seconds after which
+   *         the client should retry.
+   */
+  @Nonnegative
+  public long checkRequest (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                            @Nonnull final ECategory eCategory)
+  {
+    final int nPerMinute = eCategory.getPerMinute ();
+    if (nPerMinute == 0)
+    {
+      // Unlimited
+      eCategory.m_aAllowed.incrementAndGet ();
+      return 0;
+    }
+
+    final String sKey = eCategory.getID () + '|' + _getClientKey (aRequestScope);
+    final long nNow = System.nanoTime ();
+
+    TokenBucket aBucket = m_aRWLock.readLockedGet ( () -> m_aBuckets.get (sKey));
+    if (aBucket == null)
+    {
+      aBucket = m_aRWLock.writeLockedGet ( () -> {
+        if (m_aBuckets.size () >= m_nMaxClients)
+          removeIdleBuckets (m_aBuckets, m_nMaxClients, nNow);
+        return m_aBuckets.computeIfAbsent (sKey, k -> new TokenBucket (nPerMinute, eCategory.getBurst (), nNow));
+      });
+    }
+
+    // Regularly remove the state of idle clients
+    final long nLastCleanup = m_aLastCleanupNanos.get ();
+    if (nNow - nLastCleanup > CLEANUP_INTERVAL_NANOS && m_aLastCleanupNanos.compareAndSet (nLastCleanup, nNow))
+      m_aRWLock.writeLocked ( () -> removeIdleBuckets (m_aBuckets, m_nMaxClients, nNow));
+
+    final long nWaitNanos = aBucket.tryConsume (nNow);
+    if (nWaitNanos == 0)
+    {
+      eCategory.m_aAllowed.incrementAndGet ();
+      return 0;
+    }
+    eCategory.m_aRejected.incrementAndGet ();
+    // At least one second
+    return Math.max (1, (long) Math.ceil (nWaitNanos / (double) TimeUnit.SECONDS.toNanos (1)));
+  }
+
+  /**
+   * @return The number of client/category combinations with rate limiting
+   *         state.
+   */
+  @Nonnegative
+  public int getTrackedClientCount ()
+  {
+    return m_aRWLock.readLockedInt (m_aBuckets::size);
+  }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.id.IHasID;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.SMPParticipantModificationTracker;
+import com.helger.web.scope.singleton.AbstractGlobalWebSingleton;
+
+/**
+ * A bounded in-memory cache for the serialized responses of the unsigned
+ * public GET requests. Each entry remembers the participant version of
+ * {@link SMPParticipantModificationTracker} at creation time, so that every
+ * modification of the participant via the managers implicitly invalidates the
+ * entries of that participant. The GZip compressed variant of an entry is
+ * created lazily and kept together with the entry.<br>
+ * Note: the cache is node local and is only invalidated by the changes
+ * performed via this instance.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPRestResponseCache extends AbstractGlobalWebSingleton
+{
+  /**
+   * The cacheable response types.
+   *
+   * @author Philip Helger
+   */
+  public enum EResponseType implements IHasID <String>
+  {
+    SERVICE_GROUP ("servicegroup"),
+    COMPLETE_SERVICE_GROUP ("complete"),
+    BUSINESS_CARD ("businesscard");
+
+    private final String m_sID;
+
+    EResponseType (@Nonnull @Nonempty final String sID)
+    {
+      m_sID = sID;
+    }
+
+    @Nonnull
+    @Nonempty
+    public String getID ()
+    {
+      return m_sID;
+    }
+  }
+
+  /**
+   * Creates the response bytes in case of a cache miss.
+   *
+   * @author Philip Helger
+   */
+  @FunctionalInterface
+  public interface IResponseCreator
+  {
+    @Nonnull
+    byte [] createResponse () throws Exception;
+  }
+
+  private static final class Entry
+  {
+    private final long m_nVersion;
+    private final SMPRestResponseContent m_aContent;
+
+    Entry (final long nVersion, @Nonnull final SMPRestResponseContent aContent)
+    {
+      m_nVersion = nVersion;
+      m_aContent = aContent;
+    }
+  }
+
+  private final int m_nMaxEntries = SMPServerConfiguration.getRestResponseCacheMaxEntries ();
+  private final long m_nMaxBytes = SMPServerConfiguration.getRestResponseCacheMaxBytes ();
+  // Access ordered
+  @GuardedBy ("m_aRWLock")
+  private final LinkedHashMap <String, Entry> m_aMap = new LinkedHashMap <> (16, 0.75f, true);
+  @GuardedBy ("m_aRWLock")
+  private long m_nTotalBytes = 0;
+  private final EnumMap <EResponseType, AtomicLong> m_aHits = _createCounters ();
+  private final EnumMap <EResponseType, AtomicLong> m_aMisses = _createCounters ();
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPRestResponseCache ()
+  {}
+
+  @Nonnull
+  public static SMPRestResponseCache getInstance ()
+  {
+    return getGlobalSingleton (SMPRestResponseCache.class);
+  }
+
+  @Nonnull
+  private static EnumMap <EResponseType, AtomicLong> _createCounters ()
+  {
+    final EnumMap <EResponseType, AtomicLong> ret = new EnumMap <> (EResponseType.class);
+    for (final EResponseType e : EResponseType.values ())
+      ret.put (e, new AtomicLong (0));
+    return ret;
+  }
+
+  @GuardedBy ("m_aRWLock")
+  private void _evict ()
+  {
+    final Iterator <Map.Entry <String, Entry>> it = m_aMap.entrySet ().iterator ();
+    while ((m_aMap.size () > m_nMaxEntries || m_nTotalBytes > m_nMaxBytes) && it.hasNext ())
+    {
+      m_nTotalBytes -= it.next ().getValue ().m_aContent.getLength ();
+      it.remove ();
+    }
+  }
+
+  /**
+   * Get the cached response or create and cache it.
+   *
+   * @param eResponseType
+   *        The response type. May not be <code>null</code>.
+   * @param aParticipantID
+   *        The participant the response belongs to. May not be
+   *        <code>null</code>.
+   * @param sKey
+   *        The cache key which must contain everything, the response depends
+   *        on (except the REST type). May neither be <code>null</code> nor
+   *        empty.
+   * @param aCreator
+   *        The creator to be invoked on a cache miss. May not be
+   *        <code>null</code>.
+   * @return The response content. Never <code>null</code>.
+   * @throws Exception
+   *         From the creator
+   */
+  @Nonnull
+  public SMPRestResponseContent getOrCreate (@Nonnull final EResponseType eResponseType,
+                                             @Nonnull final IParticipantIdentifier aParticipantID,
+                                             @Nonnull @Nonempty final String sKey,
+                                             @Nonnull final IResponseCreator aCreator) throws Exception
+  {
+    final String sRealKey = SMPServerConfiguration.getRESTType ().getID () + '|' + eResponseType.getID () + '|' + sKey;
+    // Determine the version before the response is created
+    final long nVersion = SMPParticipantModificationTracker.getInstance ().getModification (aParticipantID).getVersion ();
+
+    // Write lock, because the access order changes
+    final Entry aEntry = m_aRWLock.writeLockedGet ( () -> m_aMap.get (sRealKey));
+    if (aEntry != null && aEntry.m_nVersion == nVersion)
+    {
+      m_aHits.get (eResponseType).incrementAndGet ();
+      return aEntry.m_aContent;
+    }
+
+    m_aMisses.get (eResponseType).incrementAndGet ();
+    final SMPRestResponseContent ret = new SMPRestResponseContent (aCreator.createResponse ());
+    if (ret.getLength () <= m_nMaxBytes)
+      m_aRWLock.writeLocked ( () -> {
+        final Entry aOld = m_aMap.put (sRealKey, new Entry (nVersion, ret));
+        if (aOld != null)
+          m_nTotalBytes -= aOld.m_aContent.getLength ();
+        m_nTotalBytes += ret.getLength ();
+        _evict ();
+      });
+    return ret;
+  }
+
+  /**
+   * @return The number of cached responses.
+   */
+  @Nonnegative
+  public int getEntryCount ()
+  {
+    return m_aRWLock.readLockedInt (m_aMap::size);
+  }
+
+  /**
+   * @return The number of uncompressed bytes of all cached responses.
+   */
+  @Nonnegative
+  public long getTotalBytes ()
+  {
+    return m_aRWLock.readLockedLong ( () -> m_nTotalBytes);
+  }
+
+  /**
+   * @param eResponseType
+   *        The response type. May not be <code>null</code>.
+   * @return The number of cache hits for the provided response type.
+   */
+  @Nonnegative
+  public long getHitCount (@Nonnull final EResponseType eResponseType)
+  {
+    return m_aHits.get (eResponseType).get ();
+  }
+
+  /**
+   * @param eResponseType
+   *        The response type. May not be <code>null</code>.
+   * @return The number of cache misses for the provided response type.
+   */
+  @Nonnegative
+  public long getMissCount (@Nonnull final EResponseType eResponseType)
+  {
+    return m_aMisses.get (eResponseType).get ();
+  }
+
+  /**
+   * @param eResponseType
+   *        The response type. May not be <code>null</code>.
+   * @return The hit ratio of the provided response type between 0 and 1. If
+   *         there were no requests, 0 is returned.
+   */
+  public double getHitRatio (@Nonnull final EResponseType eResponseType)
+  {
+    final long nHits = getHitCount (eResponseType);
+    final long nTotal = nHits + getMissCount (eResponseType);
+    return nTotal == 0 ? 0 : (double) nHits / nTotal;
+  }
+
+  /**
+   * Helper method to use the cache only, if it is enabled in the
+   * configuration.
+   *
+   * @param eResponseType
+   *        The response type. May not be <code>null</code>.
+   * @param aParticipantID
+   *        The participant the response belongs to. May be <code>null</code>
+   *        if it could not be parsed - in that case the cache is not used.
+   * @param sKey
+   *        The cache key. May neither be <code>null</code> nor empty.
+   * @param aCreator
+   *        The creator of the response. May not be <code>null</code>.
+   * @return The response content. Never <code>null</code>.
+   * @throws Exception
+   *         From the creator
+   */
+  @Nonnull
+  public static SMPRestResponseContent getCachedIfEnabled (@Nonnull final EResponseType eResponseType,
+                                                           @Nullable final IParticipantIdentifier aParticipantID,
+                                                           @Nonnull @Nonempty final String sKey,
+                                                           @Nonnull final IResponseCreator aCreator) throws Exception
+  {
+    if (aParticipantID == null || !SMPServerConfiguration.isRestResponseCacheEnabled ())
+      return new SMPRestResponseContent (aCreator.createResponse ());
+    return getInstance ().getOrCreate (eResponseType, aParticipantID, sKey, aCreator);
+  }
+}
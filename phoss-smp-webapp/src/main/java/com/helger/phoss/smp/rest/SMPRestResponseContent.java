@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+
+/**
+ * The serialized content of a REST response, together with the lazily created
+ * GZip compressed variant. If an instance of this class is cached, the
+ * compressed variant is cached as well.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPRestResponseContent
+{
+  private final byte [] m_aBytes;
+  private volatile byte [] m_aGZipBytes;
+
+  public SMPRestResponseContent (@Nonnull final byte [] aBytes)
+  {
+    ValueEnforcer.notNull (aBytes, "Bytes");
+    m_aBytes = aBytes;
+  }
+
+  /**
+   * @return The uncompressed bytes. Never <code>null</code>.
+   */
+  @Nonnull
+  public byte [] getBytes ()
+  {
+    return m_aBytes;
+  }
+
+  /**
+   * @return The number of uncompressed bytes.
+   */
+  @Nonnegative
+  public int getLength ()
+  {
+    return m_aBytes.length;
+  }
+
+  /**
+   * @return The GZip compressed bytes. Created on first access. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public byte [] getGZipBytes ()
+  {
+    byte [] ret = m_aGZipBytes;
+    if (ret == null)
+    {
+      // Race conditions are okay, because the result is always the same
+      ret = m_aGZipBytes = getGZipCompressed (m_aBytes);
+    }
+    return ret;
+  }
+
+  /**
+   * GZip compress the provided bytes.
+   *
+   * @param aBytes
+   *        The bytes to be compressed. May not be <code>null</code>.
+   * @return The compressed bytes. Never <code>null</code>.
+   */
+  @Nonnull
+  public static byte [] getGZipCompressed (@Nonnull final byte [] aBytes)
+  {
+    try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream (aBytes.length / 4 + 64))
+    {
+      try (final GZIPOutputStream aGZOS = new GZIPOutputStream (aBAOS))
+      {
+        aGZOS.write (aBytes);
+      }
+      return aBAOS.toByteArray ();
+    }
+    catch (final IOException ex)
+    {
+      // Cannot happen on a byte array
+      throw new UncheckedIOException (ex);
+    }
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.http.CHttpHeader;
+import com.helger.commons.string.StringHelper;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.SMPParticipantModificationTracker;
+import com.helger.phoss.smp.security.SMPKeyManager;
+import com.helger.servlet.response.UnifiedResponse;
+
+/**
+ * The validators (<code>ETag</code> and <code>Last-Modified</code>) of a
+ * participant specific public GET response. They are derived from the
+ * {@link SMPParticipantModificationTracker} and therefore don't require to
+ * read or create the response. The GZip compressed variant of a response has
+ * a different entity tag than the uncompressed variant.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+final class SMPRestResponseValidators
+{
+  private static final String GZIP_SUFFIX = "-gzip";
+
+  private final String m_sETagValue;
+  private final OffsetDateTime m_aLastModified;
+
+  /**
+   * Constructor
+   *
+   * @param sETagValue
+   *        The unquoted entity tag of the uncompressed variant. May neither be
+   *        <code>null</code> nor empty.
+   * @param aLastModified
+   *        The last modification date time. May not be <code>null</code>.
+   */
+  SMPRestResponseValidators (@Nonnull @Nonempty final String sETagValue, @Nonnull final OffsetDateTime aLastModified)
+  {
+    ValueEnforcer.notEmpty (sETagValue, "ETagValue");
+    ValueEnforcer.notNull (aLastModified, "LastModified");
+    m_sETagValue = sETagValue;
+    m_aLastModified = aLastModified;
+  }
+
+  /**
+   * Get the entity tag of the response variant.
+   *
+   * @param bGZip
+   *        <code>true</code> for the GZip compressed variant.
+   * @return The quoted entity tag. Never <code>null</code>.
+   */
+  @Nonnull
+  @Nonempty
+  public String getETag (final boolean bGZip)
+  {
+    return '"' + m_sETagValue + (bGZip ? GZIP_SUFFIX : "") + '"';
+  }
+
+  /**
+   * @return The <code>Last-Modified</code> header value. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  @Nonempty
+  public String getLastModified ()
+  {
+    return DateTimeFormatter.RFC_1123_DATE_TIME.format (m_aLastModified.atZoneSameInstant (ZoneOffset.UTC));
+  }
+
+  /**
+   * Find the entity tag of the variant that matches the provided
+   * <code>If-None-Match</code> header value.
+   *
+   * @param sIfNoneMatch
+   *        The header value. May be <code>null</code>.
+   * @param bGZipAccepted
+   *        <code>true</code> if the client accepts the GZip compressed
+   *        variant.
+   * @return The quoted entity tag of the matching variant or <code>null</code>
+   *         if no variant matches.
+   */
+  @Nullable
+  public String getMatchingETag (@Nullable final String sIfNoneMatch, final boolean bGZipAccepted)
+  {
+    final String sIdentityETag = getETag (false);
+    final String sGZipETag = bGZipAccepted ? getETag (true) : null;
+    for (final String sPart : StringHelper.getExploded (',', sIfNoneMatch))
+    {
+      String sCandidate = sPart.trim ();
+      if (sCandidate.equals ("*"))
+        return sGZipETag != null ? sGZipETag : sIdentityETag;
+      // Weak comparison
+      if (sCandidate.startsWith ("W/"))
+        sCandidate = sCandidate.substring (2);
+      if (sCandidate.equals (sIdentityETag))
+        return sIdentityETag;
+      if (sCandidate.equals (sGZipETag))
+        return sGZipETag;
+    }
+    return null;
+  }
+
+  /**
+   * Check if the response was not modified since the provided
+   * <code>If-Modified-Since</code> header value.
+   *
+   * @param sIfModifiedSince
+   *        The header value. May be <code>null</code>.
+   * @return <code>true</code> if the response was not modified,
+   *         <code>false</code> if it was modified or if the value is missing
+   *         or invalid.
+   */
+  public boolean isNotModifiedSince (@Nullable final String sIfModifiedSince)
+  {
+    if (StringHelper.hasNoText (sIfModifiedSince))
+      return false;
+    try
+    {
+      final OffsetDateTime aIfModifiedSince = OffsetDateTime.parse (sIfModifiedSince.trim (),
+                                                                    DateTimeFormatter.RFC_1123_DATE_TIME);
+      return !m_aLastModified.isAfter (aIfModifiedSince);
+    }
+    catch (final DateTimeParseException ex)
+    {
+      // Invalid dates are ignored
+      return false;
+    }
+  }
+
+  /**
+   * Add the <code>ETag</code> and <code>Last-Modified</code> response headers.
+   *
+   * @param aUnifiedResponse
+   *        The response to modify. May not be <code>null</code>.
+   * @param sETag
+   *        The quoted entity tag to use. May neither be <code>null</code> nor
+   *        empty.
+   */
+  public void applyTo (@Nonnull final UnifiedResponse aUnifiedResponse, @Nonnull @Nonempty final String sETag)
+  {
+    aUnifiedResponse.addCustomResponseHeader (CHttpHeader.ETAG, sETag);
+    aUnifiedResponse.addCustomResponseHeader (CHttpHeader.LAST_MODIFIED, getLastModified ());
+  }
+
+  /**
+   * Create the validators of the participant specific response.
+   *
+   * @param aParticipantID
+   *        The participant ID. May not be <code>null</code>.
+   * @param bSignedResponse
+   *        <code>true</code> if the response is signed and therefore also
+   *        depends on the signing key.
+   * @return The validators and never <code>null</code>.
+   */
+  @Nonnull
+  public static SMPRestResponseValidators create (@Nonnull final IParticipantIdentifier aParticipantID,
+                                                  final boolean bSignedResponse)
+  {
+    final SMPParticipantModificationTracker aTracker = SMPParticipantModificationTracker.getInstance ();
+    final SMPParticipantModificationTracker.ParticipantModification aModification = aTracker.getModification (aParticipantID);
+    String sETagValue = aTracker.getInstanceID () + "-" + aModification.getVersion ();
+    if (bSignedResponse)
+      sETagValue += "-" + SMPKeyManager.getKeyStoreGeneration ();
+    return new SMPRestResponseValidators (sETagValue, aModification.getLastModified ());
+  }
+}
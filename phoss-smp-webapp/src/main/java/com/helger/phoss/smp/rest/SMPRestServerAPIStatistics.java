@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.statistics.StatisticsManager;
+import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.phoss.smp.restapi.BDXR1ServerAPI;
+import com.helger.phoss.smp.restapi.BDXR2ServerAPI;
+import com.helger.phoss.smp.restapi.SMPRestAccessLog;
+import com.helger.phoss.smp.restapi.SMPServerAPI;
+import com.helger.phoss.smp.statistics.SMPLatencyStatistics;
+
+/**
+ * Helper class to record the same statistics and access log entries as the
+ * server APIs, for responses that are served from memory without invoking the
+ * server API.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+final class SMPRestServerAPIStatistics
+{
+  private SMPRestServerAPIStatistics ()
+  {}
+
+  /**
+   * Record a successful read request on behalf of a server API.
+   *
+   * @param aServerAPIClass
+   *        The server API class, whose statistics should be updated. May not
+   *        be <code>null</code>.
+   * @param sAccessLogAPI
+   *        The API name of the server API in the access log. May neither be
+   *        <code>null</code> nor empty.
+   * @param sAction
+   *        The server API action. May neither be <code>null</code> nor empty.
+   * @param sParticipantID
+   *        The participant ID from the path. May be <code>null</code>.
+   * @param sDocTypeID
+   *        The document type ID from the path. May be <code>null</code>.
+   * @param nStartNanos
+   *        The {@link System#nanoTime()} when the request started.
+   */
+  static void onReadSuccess (@Nonnull final Class <?> aServerAPIClass,
+                             @Nonnull @Nonempty final String sAccessLogAPI,
+                             @Nonnull @Nonempty final String sAction,
+                             @Nullable final String sParticipantID,
+                             @Nullable final String sDocTypeID,
+                             final long nStartNanos)
+  {
+    final String sClassName = aServerAPIClass.getName ();
+    StatisticsManager.getKeyedCounterHandler (sClassName + "$call").increment (sAction);
+    StatisticsManager.getKeyedCounterHandler (sClassName + "$success").increment (sAction);
+    SMPRestAccessLog.logReadSuccess (sAccessLogAPI, sAction, sParticipantID, sDocTypeID, nStartNanos);
+    SMPLatencyStatistics.getKeyedHistogram (aServerAPIClass.getSimpleName ())
+                        .record (sAction, System.nanoTime () - nStartNanos);
+  }
+
+  /**
+   * Record a successful read request on behalf of the server API of the
+   * provided REST type.
+   *
+   * @param eRESTType
+   *        The REST type that determines the server API. May not be
+   *        <code>null</code>.
+   * @param sAction
+   *        The server API action. May neither be <code>null</code> nor empty.
+   * @param sParticipantID
+   *        The participant ID from the path. May be <code>null</code>.
+   * @param sDocTypeID
+   *        The document type ID from the path. May be <code>null</code>.
+   * @param nStartNanos
+   *        The {@link System#nanoTime()} when the request started.
+   */
+  static void onReadSuccess (@Nonnull final ESMPRESTType eRESTType,
+                             @Nonnull @Nonempty final String sAction,
+                             @Nullable final String sParticipantID,
+                             @Nullable final String sDocTypeID,
+                             final long nStartNanos)
+  {
+    switch (eRESTType)
+    {
+      case PEPPOL:
+        onReadSuccess (SMPServerAPI.class, "smp", sAction, sParticipantID, sDocTypeID, nStartNanos);
+        break;
+      case OASIS_BDXR_V1:
+        onReadSuccess (BDXR1ServerAPI.class, "bdxr1", sAction, sParticipantID, sDocTypeID, nStartNanos);
+        break;
+      case OASIS_BDXR_V2:
+        onReadSuccess (BDXR2ServerAPI.class, "bdxr2", sAction, sParticipantID, sDocTypeID, nStartNanos);
+        break;
+      default:
+        throw new UnsupportedOperationException ("Unsupported REST type specified!");
+    }
+  }
+}
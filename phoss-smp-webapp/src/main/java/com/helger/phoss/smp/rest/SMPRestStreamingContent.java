@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.io.IHasInputStream;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+
+/**
+ * A REST response body that is created chunk by chunk while the servlet
+ * container reads it. Only the current chunk is kept in memory, so arbitrarily
+ * large responses can be sent without serializing them upfront. The body can
+ * only be read once.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+final class SMPRestStreamingContent implements IHasInputStream
+{
+  /**
+   * Callback interface to create a response body chunk by chunk.
+   *
+   * @author Philip Helger
+   */
+  @FunctionalInterface
+  interface IChunkWriter
+  {
+    /**
+     * Write the next chunk of the response body.
+     *
+     * @param aOS
+     *        The stream to write to. Must not be closed.
+     * @return <code>true</code> if more chunks follow, <code>false</code> if
+     *         this was the last chunk.
+     * @throws IOException
+     *         In case writing fails
+     */
+    boolean writeNextChunk (@Nonnull @WillNotClose OutputStream aOS) throws IOException;
+  }
+
+  @NotThreadSafe
+  private static final class ChunkInputStream extends InputStream
+  {
+    private final IChunkWriter m_aChunkWriter;
+    private final NonBlockingByteArrayOutputStream m_aBuffer = new NonBlockingByteArrayOutputStream ();
+    private final OutputStream m_aOS;
+    private byte [] m_aCurrent = new byte [0];
+    private int m_nPos = 0;
+    private boolean m_bFinished = false;
+
+    ChunkInputStream (@Nonnull final IChunkWriter aChunkWriter, final boolean bGZip) throws IOException
+    {
+      m_aChunkWriter = aChunkWriter;
+      m_aOS = bGZip ? new GZIPOutputStream (m_aBuffer, 16 * 1024) : m_aBuffer;
+    }
+
+    private boolean _ensureAvailable () throws IOException
+    {
+      // Chunks may be empty (e.g. if the GZip compressor buffers internally)
+      while (m_nPos >= m_aCurrent.length)
+      {
+        if (m_bFinished)
+          return false;
+
+        m_aBuffer.reset ();
+        if (!m_aChunkWriter.writeNextChunk (m_aOS))
+        {
+          // Writes the GZip trailer
+          m_aOS.close ();
+          m_bFinished = true;
+        }
+        m_aCurrent = m_aBuffer.toByteArray ();
+        m_nPos = 0;
+      }
+      return true;
+    }
+
+    @Override
+    public int read () throws IOException
+    {
+      if (!_ensureAvailable ())
+        return -1;
+      return m_aCurrent[m_nPos++] & 0xff;
+    }
+
+    @Override
+    public int read (@Nonnull final byte [] aBuf, final int nOfs, final int nLen) throws IOException
+    {
+      ValueEnforcer.isArrayOfsLen (aBuf, nOfs, nLen);
+      if (nLen == 0)
+        return 0;
+      if (!_ensureAvailable ())
+        return -1;
+
+      final int nCount = Math.min (nLen, m_aCurrent.length - m_nPos);
+      System.arraycopy (m_aCurrent, m_nPos, aBuf, nOfs, nCount);
+      m_nPos += nCount;
+      return nCount;
+    }
+
+    @Override
+    public int available ()
+    {
+      return m_aCurrent.length - m_nPos;
+    }
+  }
+
+  private final IChunkWriter m_aChunkWriter;
+  private final boolean m_bGZip;
+  private final AtomicBoolean m_aRead = new AtomicBoolean (false);
+
+  /**
+   * Constructor
+   *
+   * @param aChunkWriter
+   *        The writer of the response body. May not be <code>null</code>.
+   * @param bGZip
+   *        <code>true</code> to GZip compress the body while it is created.
+   */
+  SMPRestStreamingContent (@Nonnull final IChunkWriter aChunkWriter, final boolean bGZip)
+  {
+    ValueEnforcer.notNull (aChunkWriter, "ChunkWriter");
+    m_aChunkWriter = aChunkWriter;
+    m_bGZip = bGZip;
+  }
+
+  @Nullable
+  public InputStream getInputStream ()
+  {
+    if (!m_aRead.compareAndSet (false, true))
+      throw new IllegalStateException ("The streaming content can only be read once");
+    try
+    {
+      return new ChunkInputStream (m_aChunkWriter, m_bGZip);
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException (ex);
+    }
+  }
+
+  public boolean isReadMultiple ()
+  {
+    return false;
+  }
+}
@@ -0,0 +1,536 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsHashMap;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.concurrent.ExecutorServiceHelper;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.commons.timing.StopWatch;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.AbstractSMPParticipantChangeCallback;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.exception.SMPInternalErrorException;
+import com.helger.phoss.smp.security.ISMPKeyManagerCallback;
+import com.helger.phoss.smp.security.SMPKeyManager;
+import com.helger.scope.IScope;
+import com.helger.smpclient.bdxr1.marshal.BDXR1MarshallerSignedServiceMetadataType;
+import com.helger.smpclient.bdxr2.marshal.BDXR2MarshallerServiceMetadata;
+import com.helger.smpclient.peppol.marshal.SMPMarshallerSignedServiceMetadataType;
+import com.helger.web.scope.singleton.AbstractGlobalWebSingleton;
+import com.helger.xml.transform.XMLTransformerFactory;
+
+/**
+ * This class keeps the signed service metadata responses of this SMP in
+ * memory, so that a service metadata GET request is a simple lookup. The
+ * responses are created in the background whenever a service information or a
+ * redirect is created or updated, and they are recreated if the signing key is
+ * reloaded. If a response is not (yet) available, it is created on the first
+ * read. The number and the total size of the stored responses is limited
+ * and the least recently used participants are evicted first.<br>
+ * Note: this store is node local and is only updated by the changes performed
+ * via this instance.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPSignedServiceMetadataStore extends AbstractGlobalWebSingleton
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPSignedServiceMetadataStore.class);
+  // The maximum number of participants for which the last change is tracked
+  private static final int MAX_TRACKED_PARTICIPANT_CHANGES = 10_000;
+
+  private final ExecutorService m_aExecutor = Executors.newSingleThreadExecutor (r -> {
+    final Thread t = new Thread (r, "smp-signed-servicemetadata-materializer");
+    t.setDaemon (true);
+    return t;
+  });
+  private final ParticipantChangeCallback m_aParticipantCB = new ParticipantChangeCallback ();
+  private final ISMPKeyManagerCallback m_aKeyManagerCB = this::_onKeyStoreReloaded;
+  private final AtomicLong m_aHits = new AtomicLong (0);
+  private final AtomicLong m_aMisses = new AtomicLong (0);
+
+  private final int m_nMaxEntries = SMPServerConfiguration.getRestSignedResponseMaterializationMaxEntries ();
+  private final long m_nMaxBytes = SMPServerConfiguration.getRestSignedResponseMaterializationMaxBytes ();
+
+  // Participant ID to document type ID to signed bytes - access ordered
+  @GuardedBy ("m_aRWLock")
+  private final LinkedHashMap <String, ICommonsMap <String, byte []>> m_aMap = new LinkedHashMap <> (16, 0.75f, true);
+  @GuardedBy ("m_aRWLock")
+  private int m_nEntryCount = 0;
+  @GuardedBy ("m_aRWLock")
+  private long m_nTotalBytes = 0;
+  // The change counter is increased on every modification
+  @GuardedBy ("m_aRWLock")
+  private long m_nChangeCounter = 0;
+  @GuardedBy ("m_aRWLock")
+  private long m_nLastGlobalChange = 0;
+  // Participant ID to the last change - oldest change first
+  @GuardedBy ("m_aRWLock")
+  private final LinkedHashMap <String, Long> m_aLastParticipantChange = new LinkedHashMap <> ();
+  // The newest change that was removed from m_aLastParticipantChange
+  @GuardedBy ("m_aRWLock")
+  private long m_nLastForgottenChange = 0;
+
+  private final class ParticipantChangeCallback extends AbstractSMPParticipantChangeCallback
+  {
+    @Override
+    protected void onServiceGroupChanged (@Nonnull final IParticipantIdentifier aParticipantID, final boolean bDeleted)
+    {
+      // The service group itself is not part of the service metadata. If it
+      // was deleted, all service metadata of it is gone as well
+      final ICommonsList <String> aDocTypeIDs = _removeParticipant (aParticipantID);
+      if (!bDeleted)
+        for (final String sDocTypeID : aDocTypeIDs)
+          _scheduleMaterialization (aParticipantID.getURIEncoded (), sDocTypeID);
+    }
+
+    @Override
+    protected void onServiceMetadataChanged (@Nonnull final IParticipantIdentifier aParticipantID,
+                                             @Nonnull final IDocumentTypeIdentifier aDocTypeID,
+                                             final boolean bDeleted)
+    {
+      _remove (aParticipantID, aDocTypeID);
+      if (!bDeleted)
+        _scheduleMaterialization (aParticipantID.getURIEncoded (), aDocTypeID.getURIEncoded ());
+    }
+  }
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPSignedServiceMetadataStore ()
+  {}
+
+  @Nonnull
+  public static SMPSignedServiceMetadataStore getInstance ()
+  {
+    return getGlobalSingleton (SMPSignedServiceMetadataStore.class);
+  }
+
+  @Override
+  protected void onAfterInstantiation (@Nonnull final IScope aScope)
+  {
+    AbstractSMPParticipantChangeCallback.registerAtAllManagers (m_aParticipantCB);
+    SMPKeyManager.keyManagerCallbacks ().add (m_aKeyManagerCB);
+  }
+
+  @Override
+  protected void onDestroy (@Nonnull final IScope aScopeInDestruction)
+  {
+    SMPKeyManager.keyManagerCallbacks ().removeObject (m_aKeyManagerCB);
+    ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (m_aExecutor);
+    m_aRWLock.writeLocked (this::_clear);
+  }
+
+  @GuardedBy ("m_aRWLock")
+  private void _clear ()
+  {
+    m_aMap.clear ();
+    m_nEntryCount = 0;
+    m_nTotalBytes = 0;
+  }
+
+  @GuardedBy ("m_aRWLock")
+  private void _onRemoved (@Nonnull final byte [] aSignedBytes)
+  {
+    m_nEntryCount--;
+    m_nTotalBytes -= aSignedBytes.length;
+  }
+
+  @GuardedBy ("m_aRWLock")
+  private void _onRemoved (@Nonnull final ICommonsMap <String, byte []> aDocTypes)
+  {
+    for (final byte [] aSignedBytes : aDocTypes.values ())
+      _onRemoved (aSignedBytes);
+  }
+
+  @GuardedBy ("m_aRWLock")
+  private void _evict ()
+  {
+    // Least recently used participants first
+    final Iterator <Map.Entry <String, ICommonsMap <String, byte []>>> it = m_aMap.entrySet ().iterator ();
+    while ((m_nEntryCount > m_nMaxEntries || m_nTotalBytes > m_nMaxBytes) && it.hasNext ())
+    {
+      _onRemoved (it.next ().getValue ());
+      it.remove ();
+    }
+  }
+
+  @GuardedBy ("m_aRWLock")
+  private void _onParticipantChanged (@Nonnull final String sParticipantID)
+  {
+    final long nChange = ++m_nChangeCounter;
+    // Remove first, so that the entry moves to the end
+    m_aLastParticipantChange.remove (sParticipantID);
+    m_aLastParticipantChange.put (sParticipantID, Long.valueOf (nChange));
+    if (m_aLastParticipantChange.size () > MAX_TRACKED_PARTICIPANT_CHANGES)
+    {
+      // Forget the oldest change. Materializations started before it are
+      // considered outdated.
+      final Iterator <Map.Entry <String, Long>> it = m_aLastParticipantChange.entrySet ().iterator ();
+      m_nLastForgottenChange = it.next ().getValue ().longValue ();
+      it.remove ();
+    }
+  }
+
+  @Nonnull
+  private ICommonsList <String> _removeParticipant (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    final String sParticipantID = aParticipantID.getURIEncoded ();
+    return m_aRWLock.writeLockedGet ( () -> {
+      _onParticipantChanged (sParticipantID);
+      final ICommonsMap <String, byte []> aOld = m_aMap.remove (sParticipantID);
+      if (aOld == null)
+        return new CommonsArrayList <> ();
+      _onRemoved (aOld);
+      return new CommonsArrayList <> (aOld.keySet ());
+    });
+  }
+
+  private void _remove (@Nonnull final IParticipantIdentifier aParticipantID,
+                        @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    final String sParticipantID = aParticipantID.getURIEncoded ();
+    m_aRWLock.writeLocked ( () -> {
+      _onParticipantChanged (sParticipantID);
+      final ICommonsMap <String, byte []> aDocTypes = m_aMap.get (sParticipantID);
+      if (aDocTypes != null)
+      {
+        final byte [] aOld = aDocTypes.remove (aDocTypeID.getURIEncoded ());
+        if (aOld != null)
+          _onRemoved (aOld);
+        if (aDocTypes.isEmpty ())
+          m_aMap.remove (sParticipantID);
+      }
+    });
+  }
+
+  private void _onKeyStoreReloaded ()
+  {
+    // All signatures are outdated
+    final ICommonsMap <String, ICommonsMap <String, byte []>> aOld = m_aRWLock.writeLockedGet ( () -> {
+      m_nLastGlobalChange = ++m_nChangeCounter;
+      final ICommonsMap <String, ICommonsMap <String, byte []>> ret = new CommonsHashMap <> (m_aMap);
+      _clear ();
+      return ret;
+    });
+
+    LOGGER.info ("Signing key was reloaded - recreating " + aOld.size () + " signed service metadata participants");
+    aOld.forEach ( (sParticipantID, aDocTypes) -> {
+      for (final String sDocTypeID : aDocTypes.keySet ())
+        _scheduleMaterialization (sParticipantID, sDocTypeID);
+    });
+  }
+
+  private void _scheduleMaterialization (@Nonnull final String sParticipantID, @Nonnull final String sDocTypeID)
+  {
+    try
+    {
+      m_aExecutor.submit ( () -> {
+        try
+        {
+          final IParticipantIdentifier aParticipantID = SMPMetaManager.getIdentifierFactory ()
+                                                                      .parseParticipantIdentifier (sParticipantID);
+          final IDocumentTypeIdentifier aDocTypeID = SMPMetaManager.getIdentifierFactory ()
+                                                                   .parseDocumentTypeIdentifier (sDocTypeID);
+          if (aParticipantID != null && aDocTypeID != null)
+            materialize (aParticipantID, aDocTypeID);
+        }
+        catch (final Exception ex)
+        {
+          LOGGER.warn ("Failed to materialize signed service metadata for '" +
+                       sParticipantID +
+                       "' and '" +
+                       sDocTypeID +
+                       "'",
+                       ex);
+        }
+      });
+    }
+    catch (final Exception ex)
+    {
+      // E.g. RejectedExecutionException on shutdown - it is created on next
+      // read anyway
+      LOGGER.warn ("Failed to schedule signed service metadata materialization: " + ex.getMessage ());
+    }
+  }
+
+  /**
+   * Get the signed service metadata of the provided service group and document
+   * type from the store.
+   *
+   * @param aParticipantID
+   *        The participant ID. May not be <code>null</code>.
+   * @param aDocTypeID
+   *        The document type ID. May not be <code>null</code>.
+   * @return <code>null</code> if no such response is stored.
+   */
+  @Nullable
+  public byte [] getSignedServiceMetadata (@Nonnull final IParticipantIdentifier aParticipantID,
+                                           @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    final String sParticipantID = aParticipantID.getURIEncoded ();
+    final String sDocTypeID = aDocTypeID.getURIEncoded ();
+    // Write lock, because the access order changes
+    final byte [] ret = m_aRWLock.writeLockedGet ( () -> {
+      final ICommonsMap <String, byte []> aDocTypes = m_aMap.get (sParticipantID);
+      return aDocTypes == null ? null : aDocTypes.get (sDocTypeID);
+    });
+    (ret != null ? m_aHits : m_aMisses).incrementAndGet ();
+    return ret;
+  }
+
+  /**
+   * Create the signed service metadata for the provided participant and
+   * document type from the current data, and remember it in this store.
+   *
+   * @param aParticipantID
+   *        The participant ID to use. May not be <code>null</code>.
+   * @param aDocTypeID
+   *        The document type ID to use. May not be <code>null</code>.
+   * @return <code>null</code> if the service group does not exist or if
+   *         neither a redirect nor a service information with at least one
+   *         endpoint is present.
+   * @throws SMPInternalErrorException
+   *         If signing fails
+   */
+  @Nullable
+  public byte [] materialize (@Nonnull final IParticipantIdentifier aParticipantID,
+                              @Nonnull final IDocumentTypeIdentifier aDocTypeID) throws SMPInternalErrorException
+  {
+    // Must be determined before the data is read, so that concurrent changes
+    // are detected
+    final long nStartChange = m_aRWLock.readLockedLong ( () -> m_nChangeCounter);
+
+    final ISMPServiceGroup aServiceGroup = SMPMetaManager.getServiceGroupMgr ().getSMPServiceGroupOfID (aParticipantID);
+    if (aServiceGroup == null)
+      return null;
+
+    // Same logic as in the server APIs: redirect first
+    final ISMPRedirect aRedirect = SMPMetaManager.getRedirectMgr ()
+                                                 .getSMPRedirectOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                               aDocTypeID);
+    final ISMPServiceInformation aServiceInfo = aRedirect != null ? null
+                                                                  : SMPMetaManager.getServiceInformationMgr ()
+                                                                                  .getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                                                                          aDocTypeID);
+    final IDocumentTypeIdentifier aRealDocTypeID = aRedirect != null ? aRedirect.getDocumentTypeIdentifier ()
+                                                                     : aServiceInfo != null ? aServiceInfo.getDocumentTypeIdentifier ()
+                                                                                            : null;
+    if (aRealDocTypeID == null)
+      return null;
+
+    final StopWatch aSW = StopWatch.createdStarted ();
+    final Document aDoc;
+    final ESMPRESTType eRESTType = SMPServerConfiguration.getRESTType ();
+    switch (eRESTType)
+    {
+      case PEPPOL:
+      {
+        final com.helger.xsds.peppol.smp1.ServiceMetadataType aSM = aRedirect != null ? aRedirect.getAsJAXBObjectPeppol ()
+                                                                                      : aServiceInfo.getAsJAXBObjectPeppol ();
+        if (aSM == null)
+          return null;
+        final com.helger.xsds.peppol.smp1.SignedServiceMetadataType aSSM = new com.helger.xsds.peppol.smp1.SignedServiceMetadataType ();
+        aSSM.setServiceMetadata (aSM);
+        aDoc = new SMPMarshallerSignedServiceMetadataType ().setUseSchema (false).getAsDocument (aSSM);
+        break;
+      }
+      case OASIS_BDXR_V1:
+      {
+        final com.helger.xsds.bdxr.smp1.ServiceMetadataType aSM = aRedirect != null ? aRedirect.getAsJAXBObjectBDXR1 ()
+                                                                                    : aServiceInfo.getAsJAXBObjectBDXR1 ();
+        if (aSM == null)
+          return null;
+        final com.helger.xsds.bdxr.smp1.SignedServiceMetadataType aSSM = new com.helger.xsds.bdxr.smp1.SignedServiceMetadataType ();
+        aSSM.setServiceMetadata (aSM);
+        aDoc = new BDXR1MarshallerSignedServiceMetadataType ().setUseSchema (false).getAsDocument (aSSM);
+        break;
+      }
+      case OASIS_BDXR_V2:
+      {
+        final com.helger.xsds.bdxr.smp2.ServiceMetadataType aSM = aRedirect != null ? aRedirect.getAsJAXBObjectBDXR2 ()
+                                                                                    : aServiceInfo.getAsJAXBObjectBDXR2 ();
+        if (aSM == null)
+          return null;
+        aDoc = new BDXR2MarshallerServiceMetadata ().setUseSchema (false).getAsDocument (aSM);
+        break;
+      }
+      default:
+        throw new UnsupportedOperationException ("Unsupported REST type specified!");
+    }
+    if (aDoc == null)
+      throw new IllegalStateException ("Failed to serialize unsigned node!");
+
+    final byte [] ret = getSignedBytes (aDoc, eRESTType);
+
+    final String sParticipantID = aServiceGroup.getParticipantIdentifier ().getURIEncoded ();
+    final boolean bStored = m_aRWLock.writeLockedBoolean ( () -> {
+      // Don't store, if anything relevant changed in the meantime
+      final Long aLastChange = m_aLastParticipantChange.get (sParticipantID);
+      if (m_nLastGlobalChange > nStartChange ||
+          m_nLastForgottenChange > nStartChange ||
+          (aLastChange != null && aLastChange.longValue () > nStartChange))
+        return false;
+      final byte [] aOld = m_aMap.computeIfAbsent (sParticipantID, k -> new CommonsHashMap <> ())
+                                 .put (aRealDocTypeID.getURIEncoded (), ret);
+      if (aOld != null)
+        _onRemoved (aOld);
+      m_nEntryCount++;
+      m_nTotalBytes += ret.length;
+      _evict ();
+      return true;
+    });
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Materialized signed service metadata for '" +
+                    sParticipantID +
+                    "' and '" +
+                    aRealDocTypeID.getURIEncoded () +
+                    "' in " +
+                    aSW.stopAndGetMillis () +
+                    " ms" +
+                    (bStored ? "" : " (outdated - not stored)"));
+    return ret;
+  }
+
+  /**
+   * @return The number of participants that have at least one signed service
+   *         metadata response in this store.
+   */
+  @Nonnegative
+  public int getParticipantCount ()
+  {
+    return m_aRWLock.readLockedInt (m_aMap::size);
+  }
+
+  /**
+   * @return The number of signed service metadata responses in this store.
+   */
+  @Nonnegative
+  public int getEntryCount ()
+  {
+    return m_aRWLock.readLockedInt ( () -> m_nEntryCount);
+  }
+
+  /**
+   * @return The number of bytes of all signed service metadata responses in
+   *         this store.
+   */
+  @Nonnegative
+  public long getTotalBytes ()
+  {
+    return m_aRWLock.readLockedLong ( () -> m_nTotalBytes);
+  }
+
+  /**
+   * @return The number of successful lookups in this store.
+   */
+  public long getHitCount ()
+  {
+    return m_aHits.get ();
+  }
+
+  /**
+   * @return The number of unsuccessful lookups in this store.
+   */
+  public long getMissCount ()
+  {
+    return m_aMisses.get ();
+  }
+
+  /**
+   * Sign the provided unsigned service metadata document and serialize it to
+   * bytes.
+   *
+   * @param aDoc
+   *        The unsigned document. Is modified by adding the signature. May not
+   *        be <code>null</code>.
+   * @param eRESTType
+   *        The REST type determining the signature algorithms. May not be
+   *        <code>null</code>.
+   * @return The signed and serialized document. Never <code>null</code>.
+   * @throws SMPInternalErrorException
+   *         If signing fails
+   */
+  @Nonnull
+  public static byte [] getSignedBytes (@Nonnull final Document aDoc, @Nonnull final ESMPRESTType eRESTType) throws SMPInternalErrorException
+  {
+    // Sign the document
+    try
+    {
+      SMPKeyManager.getInstance ().signXML (aDoc.getDocumentElement (), eRESTType);
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Successfully signed response XML");
+    }
+    catch (final Exception ex)
+    {
+      throw new SMPInternalErrorException ("Error in signing the response XML", ex);
+    }
+
+    // Serialize the signed document
+    try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+    {
+      // Use this because it correctly serializes &#13; which is important
+      // for validating the signature!
+      try
+      {
+        final Transformer aTransformer = XMLTransformerFactory.newTransformer ();
+        aTransformer.transform (new DOMSource (aDoc), new StreamResult (aBAOS));
+      }
+      catch (final TransformerException ex)
+      {
+        throw new IllegalStateException ("Failed to serialized signed node", ex);
+      }
+      return aBAOS.toByteArray ();
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.servlet;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.http.CHttp;
+import com.helger.commons.mime.CMimeType;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.servlet.response.UnifiedResponse;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+import com.helger.xservlet.handler.simple.IXServletSimpleHandler;
+
+/**
+ * Handle liveness and readiness probes:
+ * <ul>
+ * <li><code>/smp-health/live</code> always answers with HTTP 200 as long as
+ * the application handles requests.</li>
+ * <li><code>/smp-health</code> and <code>/smp-health/ready</code> answer with
+ * HTTP 200 if the application is initialized and the backend connection is
+ * not known to be broken, and with HTTP 503 otherwise.</li>
+ * </ul>
+ * Only the already known backend connection state is used - no connection is
+ * established and no status data is built.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public class SMPHealthXServletHandler implements IXServletSimpleHandler
+{
+  public static final String PATH_LIVE = "/live";
+
+  private static final byte [] CONTENT_UP = "UP".getBytes (StandardCharsets.US_ASCII);
+  private static final byte [] CONTENT_DOWN = "DOWN".getBytes (StandardCharsets.US_ASCII);
+
+  private static boolean _isReady ()
+  {
+    if (!SMPMetaManager.isGlobalSingletonInstantiated (SMPMetaManager.class))
+    {
+      // Still initializing
+      return false;
+    }
+    return !SMPMetaManager.getInstance ().getBackendConnectionState ().isFalse ();
+  }
+
+  public void handleRequest (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                             @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final boolean bUp = PATH_LIVE.equals (aRequestScope.getPathWithinServlet ()) || _isReady ();
+
+    aUnifiedResponse.disableCaching ();
+    aUnifiedResponse.setMimeType (CMimeType.TEXT_PLAIN);
+    if (bUp)
+      aUnifiedResponse.setContent (CONTENT_UP);
+    else
+      aUnifiedResponse.setContent (CONTENT_DOWN).setStatus (CHttp.HTTP_SERVICE_UNAVAILABLE);
+  }
+}
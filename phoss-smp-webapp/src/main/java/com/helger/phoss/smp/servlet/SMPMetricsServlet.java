@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.servlet;
+
+import com.helger.commons.http.EHttpMethod;
+import com.helger.phoss.smp.app.SMPWebAppConfiguration;
+import com.helger.xservlet.AbstractXServlet;
+
+/**
+ * The servlet to provide the REST API metrics in the Prometheus text format.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public class SMPMetricsServlet extends AbstractXServlet
+{
+  public static final String SERVLET_DEFAULT_NAME = "smp-metrics";
+  public static final String SERVLET_DEFAULT_PATH = '/' + SERVLET_DEFAULT_NAME;
+
+  public SMPMetricsServlet ()
+  {
+    handlerRegistry ().registerHandler (EHttpMethod.GET, new SMPMetricsXServletHandler ());
+    if (SMPWebAppConfiguration.isHttpOptionsDisabled ())
+      handlerRegistry ().unregisterHandler (EHttpMethod.OPTIONS);
+  }
+}
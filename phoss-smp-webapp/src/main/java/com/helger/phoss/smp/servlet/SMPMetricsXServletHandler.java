@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.servlet;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.collection.impl.CommonsLinkedHashMap;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
+import com.helger.commons.http.CHttp;
+import com.helger.commons.mime.CMimeType;
+import com.helger.commons.mime.MimeType;
+import com.helger.commons.statistics.IStatisticsHandlerKeyedCounter;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.restapi.BDXR1ServerAPI;
+import com.helger.phoss.smp.restapi.BDXR2ServerAPI;
+import com.helger.phoss.smp.restapi.BusinessCardServerAPI;
+import com.helger.phoss.smp.restapi.SMPServerAPI;
+import com.helger.phoss.smp.statistics.SMPKeyedLatencyHistogram;
+import com.helger.phoss.smp.statistics.SMPLatencyHistogram;
+import com.helger.phoss.smp.statistics.SMPLatencyStatistics;
+import com.helger.servlet.response.UnifiedResponse;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+import com.helger.xservlet.handler.simple.IXServletSimpleHandler;
+
+/**
+ * Create the SMP metrics in the Prometheus text exposition format (version
+ * 0.0.4). Contains the invocation, success and error counters of the REST APIs
+ * as well as the latency histograms of {@link SMPLatencyStatistics}.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public class SMPMetricsXServletHandler implements IXServletSimpleHandler
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPMetricsXServletHandler.class);
+  private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+  /** The histogram bucket upper bounds in seconds */
+  private static final double [] BUCKET_BOUNDS_SECONDS = { 0.00005,
+                                                           0.0001,
+                                                           0.00025,
+                                                           0.0005,
+                                                           0.001,
+                                                           0.0025,
+                                                           0.005,
+                                                           0.01,
+                                                           0.025,
+                                                           0.05,
+                                                           0.1,
+                                                           0.25,
+                                                           0.5,
+                                                           1,
+                                                           2.5,
+                                                           5,
+                                                           10,
+                                                           30,
+                                                           60 };
+  private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+  @Nonnull
+  static String escapeLabelValue (@Nonnull final String s)
+  {
+    return s.replace ("\\", "\\\\").replace ("\"", "\\\"").replace ("\n", "\\n");
+  }
+
+  private static void _addCounters (@Nonnull final StringBuilder aSB,
+                                    @Nonnull final String sMetricName,
+                                    @Nonnull final String sHelp,
+                                    @Nonnull final Map <String, IStatisticsHandlerKeyedCounter> aCounters)
+  {
+    aSB.append ("# HELP ").append (sMetricName).append (' ').append (sHelp).append ('\n');
+    aSB.append ("# TYPE ").append (sMetricName).append (" counter\n");
+    for (final Map.Entry <String, IStatisticsHandlerKeyedCounter> aEntry : aCounters.entrySet ())
+    {
+      final IStatisticsHandlerKeyedCounter aCounter = aEntry.getValue ();
+      for (final String sKey : aCounter.getAllKeys ())
+        aSB.append (sMetricName)
+           .append ("{api=\"")
+           .append (escapeLabelValue (aEntry.getKey ()))
+           .append ("\",action=\"")
+           .append (escapeLabelValue (sKey))
+           .append ("\"} ")
+           .append (aCounter.getCount (sKey))
+           .append ('\n');
+    }
+  }
+
+  private static void _addHistograms (@Nonnull final StringBuilder aSB)
+  {
+    final String sMetricName = "smp_duration_seconds";
+    aSB.append ("# HELP ").append (sMetricName).append (" Duration of SMP operations in seconds\n");
+    aSB.append ("# TYPE ").append (sMetricName).append (" histogram\n");
+    for (final SMPKeyedLatencyHistogram aKeyed : SMPLatencyStatistics.getAllKeyedHistograms ().values ())
+    {
+      final String sComponent = escapeLabelValue (aKeyed.getComponent ());
+      for (final Map.Entry <String, SMPLatencyHistogram> aEntry : aKeyed.getAllHistograms ().entrySet ())
+      {
+        final SMPLatencyHistogram aHisto = aEntry.getValue ();
+        final String sLabels = "component=\"" +
+                               sComponent +
+                               "\",action=\"" +
+                               escapeLabelValue (aEntry.getKey ()) +
+                               "\"";
+        // Read count first, so that no bucket is larger than the total
+        final long nCount = aHisto.getCount ();
+        final long nTotalNanos = aHisto.getTotalNanos ();
+        for (final double dBound : BUCKET_BOUNDS_SECONDS)
+          aSB.append (sMetricName)
+             .append ("_bucket{")
+             .append (sLabels)
+             .append (",le=\"")
+             .append (dBound)
+             .append ("\"} ")
+             .append (Math.min (aHisto.getCountAtOrBelow ((long) (dBound * NANOS_PER_SECOND)), nCount))
+             .append ('\n');
+        aSB.append (sMetricName).append ("_bucket{").append (sLabels).append (",le=\"+Inf\"} ").append (nCount).append ('\n');
+        aSB.append (sMetricName)
+           .append ("_sum{")
+           .append (sLabels)
+           .append ("} ")
+           .append (nTotalNanos / NANOS_PER_SECOND)
+           .append ('\n');
+        aSB.append (sMetricName).append ("_count{").append (sLabels).append ("} ").append (nCount).append ('\n');
+      }
+    }
+  }
+
+  /**
+   * @return The current metrics in the Prometheus text format. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public static String getMetricsText ()
+  {
+    final ICommonsOrderedMap <String, IStatisticsHandlerKeyedCounter> aInvocations = new CommonsLinkedHashMap <> ();
+    final ICommonsOrderedMap <String, IStatisticsHandlerKeyedCounter> aSuccess = new CommonsLinkedHashMap <> ();
+    final ICommonsOrderedMap <String, IStatisticsHandlerKeyedCounter> aErrors = new CommonsLinkedHashMap <> ();
+    aInvocations.put ("peppol", SMPServerAPI.getInvocationCounter ());
+    aSuccess.put ("peppol", SMPServerAPI.getSuccessCounter ());
+    aErrors.put ("peppol", SMPServerAPI.getErrorCounter ());
+    aInvocations.put ("bdxr1", BDXR1ServerAPI.getInvocationCounter ());
+    aSuccess.put ("bdxr1", BDXR1ServerAPI.getSuccessCounter ());
+    aErrors.put ("bdxr1", BDXR1ServerAPI.getErrorCounter ());
+    aInvocations.put ("bdxr2", BDXR2ServerAPI.getInvocationCounter ());
+    aSuccess.put ("bdxr2", BDXR2ServerAPI.getSuccessCounter ());
+    aErrors.put ("bdxr2", BDXR2ServerAPI.getErrorCounter ());
+    aInvocations.put ("businesscard", BusinessCardServerAPI.getInvocationCounter ());
+    aSuccess.put ("businesscard", BusinessCardServerAPI.getSuccessCounter ());
+    aErrors.put ("businesscard", BusinessCardServerAPI.getErrorCounter ());
+
+    final StringBuilder aSB = new StringBuilder (4096);
+    _addCounters (aSB, "smp_rest_api_invocations_total", "Number of REST API invocations", aInvocations);
+    _addCounters (aSB, "smp_rest_api_success_total", "Number of successful REST API invocations", aSuccess);
+    _addCounters (aSB, "smp_rest_api_errors_total", "Number of failed REST API invocations", aErrors);
+    _addHistograms (aSB);
+    return aSB.toString ();
+  }
+
+  public void handleRequest (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                             @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    if (!SMPServerConfiguration.isMetricsEnabled ())
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Metrics requested but disabled in the configuration");
+      aUnifiedResponse.setStatus (CHttp.HTTP_NOT_FOUND);
+      return;
+    }
+
+    aUnifiedResponse.disableCaching ();
+    aUnifiedResponse.setMimeType (new MimeType (CMimeType.TEXT_PLAIN).addParameter ("version", "0.0.4")
+                                                                      .addParameter (CMimeType.PARAMETER_NAME_CHARSET,
+                                                                                     CHARSET.name ()));
+    aUnifiedResponse.setContentAndCharset (getMetricsText (), CHARSET);
+  }
+}
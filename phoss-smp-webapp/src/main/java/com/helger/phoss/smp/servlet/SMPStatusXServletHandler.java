@@ -26,8 +26,8 @@ import org.slf4j.LoggerFactory;
 
 import com.helger.commons.mime.CMimeType;
 import com.helger.commons.mime.MimeType;
-import com.helger.json.IJsonObject;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.status.SMPStatusCache;
 import com.helger.phoss.smp.status.SMPStatusProvider;
 import com.helger.servlet.response.UnifiedResponse;
 import com.helger.web.scope.IRequestWebScopeWithoutResponse;
@@ -52,23 +52,24 @@ public class SMPStatusXServletHandler implements IXServletSimpleHandler
       LOGGER.debug ("Status information requested");
 
     // Build data to provide
-    final IJsonObject aStatusData;
+    final String sStatusData;
     if (SMPServerConfiguration.isStatusEnabled ())
     {
       // Special boolean parameter to ensure status works as health check
       final boolean bDisableLongRunningOperations = aRequestScope.params ().getAsBoolean ("disable-long-running", false);
-      aStatusData = SMPStatusProvider.getDefaultStatusData (bDisableLongRunningOperations);
+      // Since 7.1.1 the status data is cached
+      sStatusData = SMPStatusCache.getInstance ().getStatusDataAsString (bDisableLongRunningOperations);
     }
     else
     {
       // Status is disabled in the configuration
-      aStatusData = SMPStatusProvider.getStatusDisabledData ();
+      sStatusData = SMPStatusProvider.getStatusDisabledData ().getAsJsonString ();
     }
 
     // Put JSON on response
     aUnifiedResponse.disableCaching ();
     aUnifiedResponse.setMimeType (new MimeType (CMimeType.APPLICATION_JSON).addParameter (CMimeType.PARAMETER_NAME_CHARSET,
                                                                                           CHARSET.name ()));
-    aUnifiedResponse.setContentAndCharset (aStatusData.getAsJsonString (), CHARSET);
+    aUnifiedResponse.setContentAndCharset (sStatusData, CHARSET);
   }
 }
@@ -46,17 +46,22 @@ import com.helger.pd.client.PDClientConfiguration;
 import com.helger.pd.client.PDHttpClientSettings;
 import com.helger.phoss.smp.CSMPServer;
 import com.helger.phoss.smp.app.PDClientProvider;
+import com.helger.phoss.smp.app.SMPPublicParticipantList;
 import com.helger.phoss.smp.app.SMPSecurity;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
 import com.helger.phoss.smp.config.SMPConfigProvider;
 import com.helger.phoss.smp.config.SMPHttpConfiguration;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.SMPParticipantModificationTracker;
+import com.helger.phoss.smp.domain.readmodel.SMPCompactReadModel;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardCallback;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationCallback;
+import com.helger.phoss.smp.rest.SMPSignedServiceMetadataStore;
+import com.helger.phoss.smp.restapi.SMPRestAccessLog;
 import com.helger.phoss.smp.settings.ISMPSettings;
 import com.helger.phoss.smp.ui.SMPCommonUI;
 import com.helger.phoss.smp.ui.ajax.CAjax;
@@ -403,6 +408,41 @@ public class SMPWebAppListener extends WebAppListenerBootstrap
         m_aProxySettingsProvider.add (aPSP);
       }
     }
+    if (SMPServerConfiguration.isRestConditionalGetEnabled () || SMPServerConfiguration.isRestResponseCacheEnabled ())
+    {
+      LOGGER.info ("Init of participant modification tracker");
+      // Registers the necessary callbacks
+      SMPParticipantModificationTracker.getInstance ();
+    }
+
+    if (SMPServerConfiguration.isRestSignedResponseMaterializationEnabled ())
+    {
+      LOGGER.info ("Init of signed service metadata store");
+      // Registers the necessary callbacks
+      SMPSignedServiceMetadataStore.getInstance ();
+    }
+
+    if (SMPServerConfiguration.isReadModelEnabled ())
+    {
+      LOGGER.info ("Init of compact read model");
+      // Registers the necessary callbacks and starts loading in the background
+      SMPCompactReadModel.getInstance ();
+    }
+
+    if (SMPServerConfiguration.isRestAccessLogEnabled ())
+    {
+      LOGGER.info ("Init of REST access log");
+      // Starts the background writer
+      SMPRestAccessLog.init ();
+    }
+
+    if (!SMPWebAppConfiguration.isStartPageParticipantsNone ())
+    {
+      LOGGER.info ("Init of public participant list");
+      // Starts building the snapshot in the background
+      SMPPublicParticipantList.getInstance ();
+    }
+
     // Special http client config
     BasePageUtilsHttpClient.HttpClientConfigRegistry.register (new HttpClientConfig ("directoryclient",
                                                                                      "Directory client settings",
@@ -414,6 +454,9 @@ public class SMPWebAppListener extends WebAppListenerBootstrap
   @Override
   protected void beforeContextDestroyed (@Nonnull final ServletContext aSC)
   {
+    // Write all pending access log records
+    SMPRestAccessLog.stop ();
+
     // Explicitly unregister all proxy setting providers
     for (final IProxySettingsProvider aPSP : m_aProxySettingsProvider)
       ProxySettingsManager.unregisterProvider (aPSP);
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.status;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.scope.IScope;
+import com.helger.web.scope.mgr.WebScoped;
+import com.helger.web.scope.singleton.AbstractGlobalWebSingleton;
+
+/**
+ * A cache for the serialized status data of {@link SMPStatusProvider}, so that
+ * frequent health checks don't rebuild the complete status (including the key
+ * store inspection and the SPI extensions) for every request. If the cached
+ * status is older than {@link SMPServerConfiguration#getStatusCacheMillis()},
+ * the outdated status is still returned and a new one is built in the
+ * background. Only if no status was built for a long time, the caller has to
+ * wait for the new status.<br>
+ * Note: the "status.datetime" field contains the time the status was built.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class SMPStatusCache extends AbstractGlobalWebSingleton
+{
+  @Immutable
+  private static final class CachedStatus
+  {
+    private final String m_sJson;
+    private final long m_nCreationNanos;
+
+    CachedStatus (@Nonnull final String sJson)
+    {
+      m_sJson = sJson;
+      m_nCreationNanos = System.nanoTime ();
+    }
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPStatusCache.class);
+
+  /**
+   * A cached status that is older than this factor times the cache duration is
+   * not returned but built synchronously.
+   */
+  static final int MAX_STALE_FACTOR = 10;
+
+  // Index 0: complete status, index 1: without long running operations
+  private final AtomicReferenceArray <CachedStatus> m_aCache = new AtomicReferenceArray <> (2);
+  private final AtomicBoolean [] m_aRefreshing = { new AtomicBoolean (false), new AtomicBoolean (false) };
+  private final Object [] m_aBuildLocks = { new Object (), new Object () };
+  private ExecutorService m_aExecutor;
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPStatusCache ()
+  {}
+
+  @Nonnull
+  public static SMPStatusCache getInstance ()
+  {
+    return getGlobalSingleton (SMPStatusCache.class);
+  }
+
+  @Override
+  protected void onAfterInstantiation (@Nonnull final IScope aScope)
+  {
+    m_aExecutor = Executors.newSingleThreadExecutor (r -> {
+      final Thread t = new Thread (r, "smp-status-cache");
+      t.setDaemon (true);
+      return t;
+    });
+  }
+
+  @Override
+  protected void onDestroy (@Nonnull final IScope aScopeInDestruction) throws Exception
+  {
+    m_aExecutor.shutdownNow ();
+    m_aExecutor = null;
+  }
+
+  private static int _getIndex (final boolean bDisableLongRunningOperations)
+  {
+    return bDisableLongRunningOperations ? 1 : 0;
+  }
+
+  @Nonnull
+  private String _buildAndCache (final boolean bDisableLongRunningOperations,
+                                 @Nonnull final Supplier <String> aStatusBuilder)
+  {
+    final String sJson = aStatusBuilder.get ();
+    m_aCache.set (_getIndex (bDisableLongRunningOperations), new CachedStatus (sJson));
+    return sJson;
+  }
+
+  private void _refreshInBackground (final boolean bDisableLongRunningOperations,
+                                     @Nonnull final Supplier <String> aStatusBuilder)
+  {
+    final AtomicBoolean aRefreshing = m_aRefreshing[_getIndex (bDisableLongRunningOperations)];
+    if (!aRefreshing.compareAndSet (false, true))
+    {
+      // Refresh is already in progress
+      return;
+    }
+
+    try
+    {
+      m_aExecutor.execute ( () -> {
+        // The settings of some backends are bound to a request scope
+        try (final WebScoped aWS = new WebScoped ())
+        {
+          _buildAndCache (bDisableLongRunningOperations, aStatusBuilder);
+        }
+        catch (final RuntimeException ex)
+        {
+          LOGGER.error ("Failed to build the status data in the background", ex);
+        }
+        finally
+        {
+          aRefreshing.set (false);
+        }
+      });
+    }
+    catch (final RejectedExecutionException ex)
+    {
+      // Shutdown in progress
+      aRefreshing.set (false);
+    }
+  }
+
+  /**
+   * Get the status data as serialized JSON. Must be called from within a
+   * request scope.
+   *
+   * @param bDisableLongRunningOperations
+   *        <code>true</code> to skip the long running operations when building
+   *        the status.
+   * @return The status data as JSON string. Never <code>null</code>.
+   */
+  @Nonnull
+  public String getStatusDataAsString (final boolean bDisableLongRunningOperations)
+  {
+    return getStatusDataAsString (bDisableLongRunningOperations,
+                                  SMPServerConfiguration.getStatusCacheMillis (),
+                                  () -> SMPStatusProvider.getDefaultStatusData (bDisableLongRunningOperations)
+                                                         .getAsJsonString ());
+  }
+
+  /**
+   * Get the status data as serialized JSON.
+   *
+   * @param bDisableLongRunningOperations
+   *        <code>true</code> to use the cache entry of the status without the
+   *        long running operations.
+   * @param nCacheMillis
+   *        The cache duration in milliseconds. 0 disables the cache.
+   * @param aStatusBuilder
+   *        The builder of the serialized status data. May not be
+   *        <code>null</code>.
+   * @return The status data as JSON string. Never <code>null</code>.
+   */
+  @Nonnull
+  String getStatusDataAsString (final boolean bDisableLongRunningOperations,
+                                @Nonnegative final long nCacheMillis,
+                                @Nonnull final Supplier <String> aStatusBuilder)
+  {
+    if (nCacheMillis == 0)
+    {
+      // Caching is disabled
+      return aStatusBuilder.get ();
+    }
+
+    final int nIndex = _getIndex (bDisableLongRunningOperations);
+    CachedStatus aCached = m_aCache.get (nIndex);
+    if (aCached != null)
+    {
+      final long nAgeMillis = TimeUnit.NANOSECONDS.toMillis (System.nanoTime () - aCached.m_nCreationNanos);
+      if (nAgeMillis <= nCacheMillis)
+        return aCached.m_sJson;
+
+      if (nAgeMillis <= nCacheMillis * MAX_STALE_FACTOR)
+      {
+        // Return the outdated status and build a new one for the next caller
+        _refreshInBackground (bDisableLongRunningOperations, aStatusBuilder);
+        return aCached.m_sJson;
+      }
+    }
+
+    // No usable status present - avoid that concurrent callers build it
+    // multiple times
+    synchronized (m_aBuildLocks[nIndex])
+    {
+      aCached = m_aCache.get (nIndex);
+      if (aCached != null &&
+          TimeUnit.NANOSECONDS.toMillis (System.nanoTime () - aCached.m_nCreationNanos) <= nCacheMillis)
+        return aCached.m_sJson;
+      return _buildAndCache (bDisableLongRunningOperations, aStatusBuilder);
+    }
+  }
+}
@@ -44,13 +44,27 @@ import com.helger.json.JsonObject;
 import com.helger.peppol.sml.ISMLInfo;
 import com.helger.phoss.smp.CSMPServer;
 import com.helger.phoss.smp.app.CSMP;
+import com.helger.phoss.smp.app.SMPPublicParticipantList;
+import com.helger.phoss.smp.app.SMPPublicParticipantSnapshot;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
+import com.helger.phoss.smp.audit.AbstractSMPAsyncAuditor;
 import com.helger.phoss.smp.config.SMPHttpConfiguration;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.changelog.SMPChangeLogRecorder;
+import com.helger.phoss.smp.domain.readmodel.SMPCompactReadModel;
+import com.helger.phoss.smp.rest.SMPRemoteQueryCache;
+import com.helger.phoss.smp.rest.SMPRestRateLimiter;
+import com.helger.phoss.smp.rest.SMPRestRateLimiter.ECategory;
+import com.helger.phoss.smp.rest.SMPRestResponseCache;
+import com.helger.phoss.smp.rest.SMPRestResponseCache.EResponseType;
+import com.helger.phoss.smp.rest.SMPSignedServiceMetadataStore;
+import com.helger.phoss.smp.restapi.SMPRestAccessLog;
 import com.helger.phoss.smp.security.SMPKeyManager;
 import com.helger.phoss.smp.servlet.SMPWebAppListener;
 import com.helger.phoss.smp.settings.ISMPSettings;
+import com.helger.photon.audit.IAuditor;
+import com.helger.photon.security.mgr.PhotonSecurityManager;
 
 /**
  * The main class to provide the SMP status content.
@@ -116,6 +130,124 @@ public final class SMPStatusProvider
     aStatusData.add ("smp.rest.log-exceptions", SMPServerConfiguration.isRESTLogExceptions ());
     // New in 5.2.1
     aStatusData.add ("smp.rest.payload-on-error", SMPServerConfiguration.isRESTPayloadOnError ());
+    // New in 7.1.1
+    aStatusData.add ("smp.rest.conditional-get.enabled", SMPServerConfiguration.isRestConditionalGetEnabled ());
+    final boolean bSignedMaterialize = SMPServerConfiguration.isRestSignedResponseMaterializationEnabled ();
+    aStatusData.add ("smp.rest.signed-materialize.enabled", bSignedMaterialize);
+    if (bSignedMaterialize)
+    {
+      final SMPSignedServiceMetadataStore aStore = SMPSignedServiceMetadataStore.getInstance ();
+      aStatusData.add ("smp.rest.signed-materialize.participants", aStore.getParticipantCount ());
+      aStatusData.add ("smp.rest.signed-materialize.entries", aStore.getEntryCount ());
+      aStatusData.add ("smp.rest.signed-materialize.bytes", aStore.getTotalBytes ());
+      aStatusData.add ("smp.rest.signed-materialize.hits", aStore.getHitCount ());
+      aStatusData.add ("smp.rest.signed-materialize.misses", aStore.getMissCount ());
+    }
+    final boolean bReadModel = SMPServerConfiguration.isReadModelEnabled ();
+    aStatusData.add ("smp.readmodel.enabled", bReadModel);
+    if (bReadModel)
+    {
+      final SMPCompactReadModel aReadModel = SMPCompactReadModel.getInstance ();
+      aStatusData.add ("smp.readmodel.loaded", aReadModel.isLoaded ());
+      aStatusData.add ("smp.readmodel.loads", aReadModel.getLoadCount ());
+      aStatusData.add ("smp.readmodel.last-load.millis", aReadModel.getLastLoadMillis ());
+      aStatusData.add ("smp.readmodel.participants", aReadModel.getParticipantCount ());
+      aStatusData.add ("smp.readmodel.endpoints", aReadModel.getEndpointCount ());
+      aStatusData.add ("smp.readmodel.pooled-values", aReadModel.getPoolSize ());
+      aStatusData.add ("smp.readmodel.estimated-bytes", aReadModel.getEstimatedBytes ());
+      aStatusData.add ("smp.readmodel.estimated-bytes-per-million-endpoints",
+                       aReadModel.getEstimatedBytesPerMillionEndpoints ());
+    }
+    final SMPChangeLogRecorder aChangeLogRecorder = SMPMetaManager.getChangeLogRecorder ();
+    aStatusData.add ("smp.changelog.enabled", aChangeLogRecorder != null);
+    if (aChangeLogRecorder != null)
+    {
+      aStatusData.add ("smp.changelog.pending", aChangeLogRecorder.getPendingChangeCount ());
+      aStatusData.add ("smp.changelog.lost", aChangeLogRecorder.getLostChangeCount ());
+    }
+    final SMPPublicParticipantList aPublicParticipantList = SMPPublicParticipantList.getInstanceIfInstantiated ();
+    if (aPublicParticipantList != null)
+    {
+      final SMPPublicParticipantSnapshot aSnapshot = aPublicParticipantList.getSnapshot ();
+      aStatusData.add ("smp.startpage.participants.loaded", aSnapshot != null);
+      aStatusData.add ("smp.startpage.participants.rebuilds", aPublicParticipantList.getRebuildCount ());
+      aStatusData.add ("smp.startpage.participants.last-rebuild.millis",
+                       aPublicParticipantList.getLastRebuildMillis ());
+      if (aSnapshot != null)
+      {
+        aStatusData.add ("smp.startpage.participants.count", aSnapshot.getCount ());
+        aStatusData.add ("smp.startpage.participants.truncated", aSnapshot.isTruncated ());
+      }
+    }
+    final boolean bResponseCache = SMPServerConfiguration.isRestResponseCacheEnabled ();
+    aStatusData.add ("smp.rest.response-cache.enabled", bResponseCache);
+    if (bResponseCache)
+    {
+      final SMPRestResponseCache aCache = SMPRestResponseCache.getInstance ();
+      aStatusData.add ("smp.rest.response-cache.entries", aCache.getEntryCount ());
+      aStatusData.add ("smp.rest.response-cache.bytes", aCache.getTotalBytes ());
+      for (final EResponseType eType : EResponseType.values ())
+      {
+        final String sPrefix = "smp.rest.response-cache." + eType.getID ();
+        aStatusData.add (sPrefix + ".hits", aCache.getHitCount (eType));
+        aStatusData.add (sPrefix + ".misses", aCache.getMissCount (eType));
+        aStatusData.add (sPrefix + ".hit-ratio", aCache.getHitRatio (eType));
+      }
+    }
+    aStatusData.add ("smp.rest.compression.enabled", SMPServerConfiguration.isRestCompressionEnabled ());
+    aStatusData.add ("smp.rest.compression.minsize", SMPServerConfiguration.getRestCompressionMinSize ());
+    if (!SMPServerConfiguration.isRestRemoteQueryAPIDisabled ())
+    {
+      final SMPRemoteQueryCache aRemoteQueryCache = SMPRemoteQueryCache.getInstance ();
+      aStatusData.add ("smp.rest.remote-query.dns-cache.entries", aRemoteQueryCache.getDNSEntryCount ());
+      aStatusData.add ("smp.rest.remote-query.dns-cache.hits", aRemoteQueryCache.getDNSHitCount ());
+      aStatusData.add ("smp.rest.remote-query.dns-cache.misses", aRemoteQueryCache.getDNSMissCount ());
+      aStatusData.add ("smp.rest.remote-query.response-cache.entries", aRemoteQueryCache.getResponseEntryCount ());
+      aStatusData.add ("smp.rest.remote-query.response-cache.hits", aRemoteQueryCache.getResponseHitCount ());
+      aStatusData.add ("smp.rest.remote-query.response-cache.misses", aRemoteQueryCache.getResponseMissCount ());
+      aStatusData.add ("smp.rest.remote-query.fanout.active", aRemoteQueryCache.getFanOutActiveCount ());
+      aStatusData.add ("smp.rest.remote-query.fanout.queued", aRemoteQueryCache.getFanOutQueueSize ());
+    }
+    final boolean bRateLimit = SMPServerConfiguration.isRestRateLimitEnabled ();
+    aStatusData.add ("smp.rest.ratelimit.enabled", bRateLimit);
+    if (bRateLimit)
+    {
+      aStatusData.add ("smp.rest.ratelimit.tracked-clients", SMPRestRateLimiter.getInstance ().getTrackedClientCount ());
+      for (final ECategory eCategory : ECategory.values ())
+      {
+        final String sPrefix = "smp.rest.ratelimit." + eCategory.getID ();
+        aStatusData.add (sPrefix + ".perminute", eCategory.getPerMinute ());
+        aStatusData.add (sPrefix + ".burst", eCategory.getBurst ());
+        aStatusData.add (sPrefix + ".allowed", eCategory.getAllowedCount ());
+        aStatusData.add (sPrefix + ".rejected", eCategory.getRejectedCount ());
+      }
+    }
+    aStatusData.add ("smp.rest.accesslog.enabled", SMPRestAccessLog.isEnabled ());
+    if (SMPRestAccessLog.isEnabled ())
+    {
+      aStatusData.add ("smp.rest.accesslog.queued", SMPRestAccessLog.getQueueSize ());
+      aStatusData.add ("smp.rest.accesslog.written", SMPRestAccessLog.getWrittenCount ());
+      aStatusData.add ("smp.rest.accesslog.dropped", SMPRestAccessLog.getDroppedCount ());
+      aStatusData.add ("smp.rest.accesslog.sampled-out", SMPRestAccessLog.getSampledOutCount ());
+    }
+    // Only the SQL and MongoDB backends use the asynchronous auditor
+    final IAuditor aBaseAuditor = PhotonSecurityManager.getAuditMgr ().getAuditor ();
+    if (aBaseAuditor instanceof AbstractSMPAsyncAuditor)
+    {
+      final AbstractSMPAsyncAuditor aAuditor = (AbstractSMPAsyncAuditor) aBaseAuditor;
+      aStatusData.add ("smp.audit.async.enabled", aAuditor.isAsync ());
+      if (aAuditor.isAsync ())
+      {
+        aStatusData.add ("smp.audit.overflow", aAuditor.getOverflowPolicy ().getID ());
+        aStatusData.add ("smp.audit.queued", aAuditor.getQueueSize ());
+        aStatusData.add ("smp.audit.written", aAuditor.getWrittenCount ());
+        aStatusData.add ("smp.audit.failed", aAuditor.getFailedCount ());
+        aStatusData.add ("smp.audit.dropped", aAuditor.getDroppedCount ());
+        aStatusData.add ("smp.audit.overflowed", aAuditor.getOverflowCount ());
+        aStatusData.add ("smp.audit.batches", aAuditor.getBatchCount ());
+      }
+    }
+    aStatusData.add ("smp.metrics.enabled", SMPServerConfiguration.isMetricsEnabled ());
 
     // SML information
     aStatusData.add ("smp.sml.enabled", aSettings.isSMLEnabled ());
@@ -143,6 +275,8 @@ public final class SMPStatusProvider
     if (bCertConfigOk)
     {
       final SMPKeyManager aKeyMgr = SMPKeyManager.getInstance ();
+      // Since 7.1.1
+      aStatusData.add ("smp.certificate.signature-method", aKeyMgr.getSignatureMethod ());
       final PrivateKeyEntry aKeyEntry = aKeyMgr.getPrivateKeyEntry ();
       if (aKeyEntry != null)
       {
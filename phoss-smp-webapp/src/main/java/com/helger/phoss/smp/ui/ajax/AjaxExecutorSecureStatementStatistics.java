@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.ui.ajax;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonArray;
+import com.helger.json.JsonObject;
+import com.helger.phoss.smp.statistics.SMPLatencyHistogram;
+import com.helger.phoss.smp.statistics.SMPStatementStatistics;
+import com.helger.phoss.smp.statistics.SMPStatementStatistics.StatementEntry;
+import com.helger.photon.app.PhotonUnifiedResponse;
+import com.helger.photon.core.execcontext.LayoutExecutionContext;
+
+/**
+ * Provide the backend statement statistics (top-N slowest and most frequent
+ * statements) as JSON.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class AjaxExecutorSecureStatementStatistics extends AbstractSMPAjaxExecutor
+{
+  public static final String PARAM_TOP = "top";
+  public static final int DEFAULT_TOP = 20;
+
+  private static double _toMillis (final long nNanos)
+  {
+    return nNanos / 1_000_000d;
+  }
+
+  @Nonnull
+  private static IJsonObject _getHistogramAsJson (@Nonnull final SMPLatencyHistogram aHisto)
+  {
+    final long nCount = aHisto.getCount ();
+    return new JsonObject ().add ("count", nCount)
+                            .add ("avgMillis", _toMillis (nCount == 0 ? 0 : aHisto.getTotalNanos () / nCount))
+                            .add ("p50Millis", _toMillis (aHisto.getQuantileNanos (0.5)))
+                            .add ("p95Millis", _toMillis (aHisto.getQuantileNanos (0.95)))
+                            .add ("p99Millis", _toMillis (aHisto.getQuantileNanos (0.99)))
+                            .add ("maxMillis", _toMillis (aHisto.getMaxNanos ()));
+  }
+
+  @Nonnull
+  private static IJsonArray _getEntriesAsJson (@Nonnull final Iterable <StatementEntry> aEntries)
+  {
+    final IJsonArray ret = new JsonArray ();
+    for (final StatementEntry aEntry : aEntries)
+      ret.add (new JsonObject ().add ("statement", aEntry.getStatement ())
+                                .add ("duration", _getHistogramAsJson (aEntry.getDurationHistogram ()))
+                                .add ("rows", aEntry.getRowCount ())
+                                .add ("errors", aEntry.getErrorCount ()));
+    return ret;
+  }
+
+  /**
+   * Get the current statement statistics as JSON.
+   *
+   * @param nTop
+   *        The maximum number of statements per list.
+   * @return The JSON object and never <code>null</code>.
+   */
+  @Nonnull
+  public static IJsonObject getStatisticsAsJson (@Nonnegative final int nTop)
+  {
+    final IJsonObject ret = new JsonObject ();
+    ret.add ("connectionAcquire", _getHistogramAsJson (SMPStatementStatistics.getConnectionAcquireHistogram ()));
+    ret.add ("slowest", _getEntriesAsJson (SMPStatementStatistics.getTopSlowest (nTop)));
+    ret.add ("mostFrequent", _getEntriesAsJson (SMPStatementStatistics.getTopMostFrequent (nTop)));
+    return ret;
+  }
+
+  @Override
+  protected void mainHandleRequest (@Nonnull final LayoutExecutionContext aLEC,
+                                    @Nonnull final PhotonUnifiedResponse aAjaxResponse) throws Exception
+  {
+    final int nTop = Math.min (Math.max (aLEC.params ().getAsInt (PARAM_TOP, DEFAULT_TOP), 1),
+                               SMPStatementStatistics.MAX_STATEMENTS);
+    aAjaxResponse.json (getStatisticsAsJson (nTop));
+  }
+}
@@ -64,6 +64,10 @@ public final class CAjax
                                                                                                           .executor (AjaxExecutorSecureBackendConnectionReset.class)
                                                                                                           .filter (FILTER_IS_USER_LOGGED_IN)
                                                                                                           .build ();
+  public static final IAjaxFunctionDeclaration FUNCTION_STATEMENT_STATISTICS = AjaxFunctionDeclaration.builder ("statementStatistics")
+                                                                                                      .executor (AjaxExecutorSecureStatementStatistics.class)
+                                                                                                      .filter (FILTER_IS_USER_LOGGED_IN)
+                                                                                                      .build ();
 
   private static final Logger LOGGER = LoggerFactory.getLogger (CAjax.class);
 
@@ -76,9 +80,29 @@ public final class CAjax
     aAjaxRegistry.registerFunction (DATATABLES_I18N);
     aAjaxRegistry.registerFunction (LOGIN);
     aAjaxRegistry.registerFunction (FUNCTION_BACKEND_CONNECTION_RESET);
+    aAjaxRegistry.registerFunction (FUNCTION_STATEMENT_STATISTICS);
     LOGGER.info ("Successfully registered the Ajax functions");
   }
 
+  /**
+   * Register an AJAX function that can be invoked without login. Only use this
+   * for functions that don't expose internal data and that are cheap to
+   * execute.
+   *
+   * @param aExecutor
+   *        The executor to use. May not be <code>null</code>.
+   * @return The registered function declaration. Never <code>null</code>.
+   * @since 7.1.1
+   */
+  @Nonnull
+  public static AjaxFunctionDeclaration addAjaxPublic (@Nonnull final IAjaxExecutor aExecutor)
+  {
+    // random name
+    final AjaxFunctionDeclaration aFunction = AjaxFunctionDeclaration.builder ().executor (aExecutor).build ();
+    GlobalAjaxInvoker.getInstance ().getRegistry ().registerFunction (aFunction);
+    return aFunction;
+  }
+
   @Nonnull
   public static AjaxFunctionDeclaration addAjaxWithLogin (@Nonnull final IAjaxExecutor aExecutor)
   {
@@ -16,45 +16,100 @@
  */
 package com.helger.phoss.smp.ui.pub;
 
-import java.util.Comparator;
 import java.util.Locale;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.compare.ESortOrder;
+import com.helger.commons.string.StringHelper;
 import com.helger.commons.url.SimpleURL;
+import com.helger.html.hc.IHCNode;
 import com.helger.html.hc.ext.HCExtHelper;
-import com.helger.html.hc.html.tabular.AbstractHCTable;
+import com.helger.html.hc.html.forms.HCEdit;
 import com.helger.html.hc.html.tabular.HCRow;
 import com.helger.html.hc.html.tabular.HCTable;
 import com.helger.html.hc.html.textlevel.HCA;
+import com.helger.html.hc.html.textlevel.HCCode;
 import com.helger.html.hc.impl.HCNodeList;
+import com.helger.html.hc.impl.HCTextNode;
+import com.helger.html.hc.render.HCRenderer;
+import com.helger.html.jquery.JQueryAjaxBuilder;
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonArray;
+import com.helger.json.JsonObject;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.app.SMPPublicParticipantList;
+import com.helger.phoss.smp.app.SMPPublicParticipantSnapshot;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
-import com.helger.phoss.smp.domain.SMPMetaManager;
-import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
-import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.rest.SMPRestDataProvider;
 import com.helger.phoss.smp.ui.AbstractSMPWebPage;
+import com.helger.phoss.smp.ui.ajax.AbstractSMPAjaxExecutor;
+import com.helger.phoss.smp.ui.ajax.CAjax;
+import com.helger.photon.ajax.decl.IAjaxFunctionDeclaration;
+import com.helger.photon.app.PhotonUnifiedResponse;
+import com.helger.photon.bootstrap4.buttongroup.BootstrapButtonToolbar;
+import com.helger.photon.bootstrap4.form.BootstrapForm;
+import com.helger.photon.bootstrap4.form.BootstrapFormGroup;
 import com.helger.photon.bootstrap4.table.BootstrapTable;
 import com.helger.photon.bootstrap4.uictrls.datatables.BootstrapDTColAction;
 import com.helger.photon.bootstrap4.uictrls.datatables.BootstrapDataTables;
 import com.helger.photon.core.EPhotonCoreText;
+import com.helger.photon.core.execcontext.LayoutExecutionContext;
+import com.helger.photon.core.form.RequestField;
+import com.helger.photon.uicore.icon.EDefaultIcon;
 import com.helger.photon.uicore.page.WebPageExecutionContext;
+import com.helger.photon.uictrls.datatables.DataTables;
+import com.helger.photon.uictrls.datatables.DataTablesLengthMenu;
 import com.helger.photon.uictrls.datatables.column.DTCol;
 import com.helger.photon.uictrls.famfam.EFamFamIcon;
 import com.helger.web.scope.IRequestWebScopeWithoutResponse;
 
 /**
  * This is the start page of the public application. It lists all available
- * service groups.
+ * service groups. The list is served from the {@link SMPPublicParticipantList}
+ * snapshot, so that anonymous requests never access the backend.
  *
  * @author Philip Helger
  */
 public final class PagePublicStart extends AbstractSMPWebPage
 {
+  private static final String FIELD_FILTER = "filter";
+  private static final String PARAM_PAGE = "page";
+
+  // Parameters of the DataTables server-side processing protocol
+  private static final String PARAM_DT_DRAW = "draw";
+  private static final String PARAM_DT_START = "start";
+  private static final String PARAM_DT_LENGTH = "length";
+  private static final String PARAM_DT_SEARCH_VALUE = "search[value]";
+  private static final String PARAM_DT_ORDER_DIR = "order[0][dir]";
+
+  /** The maximum number of participants returned by a single AJAX call */
+  private static final int MAX_ROWS_PER_REQUEST = 100;
+  private static final DataTablesLengthMenu LENGTH_MENU = new DataTablesLengthMenu ().addItem (25).addItem (50).addItem (MAX_ROWS_PER_REQUEST);
+  /** The number of participants per page of the static table */
+  private static final int PARTICIPANTS_PER_PAGE = 50;
+
+  private static final IAjaxFunctionDeclaration AJAX_LIST;
+
+  static
+  {
+    // Accessible without login, but only served from the snapshot
+    AJAX_LIST = CAjax.addAjaxPublic (new AbstractSMPAjaxExecutor ()
+    {
+      @Override
+      protected void mainHandleRequest (@Nonnull final LayoutExecutionContext aLEC,
+                                        @Nonnull final PhotonUnifiedResponse aAjaxResponse) throws Exception
+      {
+        aAjaxResponse.json (_getListAsJson (aLEC));
+      }
+    });
+  }
+
   public PagePublicStart (@Nonnull @Nonempty final String sID)
   {
     super (sID, "Start page");
@@ -67,92 +122,222 @@ public final class PagePublicStart extends AbstractSMPWebPage
     return "Managed participants on this SMP";
   }
 
+  @Nullable
+  private static SMPPublicParticipantSnapshot _getSnapshot ()
+  {
+    if (SMPWebAppConfiguration.isStartPageParticipantsNone ())
+      return null;
+    return SMPPublicParticipantList.getInstance ().getSnapshot ();
+  }
+
+  @Nonnull
+  private static ICommonsList <IHCNode> _createCells (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                                                      @Nonnull final Locale aDisplayLocale,
+                                                      @Nonnull final SMPPublicParticipantSnapshot aSnapshot,
+                                                      @Nonnull final IParticipantIdentifier aParticipantID,
+                                                      @Nullable final String sExtension,
+                                                      final boolean bShowExtensionDetails)
+  {
+    final String sDisplayName = aParticipantID.getURIEncoded ();
+    final ICommonsList <IHCNode> ret = new CommonsArrayList <> ();
+    ret.add (new HCTextNode (sDisplayName));
+    if (bShowExtensionDetails)
+    {
+      if (sExtension != null)
+        ret.add (new HCCode ().addChildren (HCExtHelper.nl2divList (sExtension)));
+      else
+        ret.add (null);
+    }
+    else
+    {
+      ret.add (new HCTextNode (EPhotonCoreText.getYesOrNo (sExtension != null, aDisplayLocale)));
+    }
+
+    // Use the SML zone of the snapshot to avoid reading the settings
+    final SMPRestDataProvider aDP = new SMPRestDataProvider (aRequestScope, sDisplayName, aSnapshot.getSMLZoneName ());
+    ret.add (new HCA (new SimpleURL (aDP.getServiceGroupHref (aParticipantID))).setTitle ("Perform SMP query on " + sDisplayName)
+                                                                              .setTargetBlank ()
+                                                                              .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ()));
+    return ret;
+  }
+
+  @Nonnull
+  private static IJsonObject _getListAsJson (@Nonnull final LayoutExecutionContext aLEC)
+  {
+    final IRequestWebScopeWithoutResponse aRequestScope = aLEC.getRequestScope ();
+    final Locale aDisplayLocale = aLEC.getDisplayLocale ();
+    final boolean bShowExtensionDetails = SMPWebAppConfiguration.isStartPageExtensionsShow ();
+
+    // DataTables server-side processing parameters
+    final int nDraw = aLEC.params ().getAsInt (PARAM_DT_DRAW, 0);
+    final int nStart = Math.max (aLEC.params ().getAsInt (PARAM_DT_START, 0), 0);
+    int nLength = aLEC.params ().getAsInt (PARAM_DT_LENGTH, MAX_ROWS_PER_REQUEST);
+    if (nLength <= 0 || nLength > MAX_ROWS_PER_REQUEST)
+      nLength = MAX_ROWS_PER_REQUEST;
+    final String sFilterText = StringHelper.trim (aLEC.params ().getAsString (PARAM_DT_SEARCH_VALUE));
+    // Only the participant ID column is orderable
+    final ESortOrder eSortOrder = "desc".equals (aLEC.params ().getAsString (PARAM_DT_ORDER_DIR)) ? ESortOrder.DESCENDING
+                                                                                                  : ESortOrder.ASCENDING;
+
+    final IJsonArray aData = new JsonArray ();
+    int nTotalCount = 0;
+    int nFilteredCount = 0;
+    final SMPPublicParticipantSnapshot aSnapshot = _getSnapshot ();
+    if (aSnapshot != null)
+    {
+      aSnapshot.forEachMatching (sFilterText, eSortOrder, nStart, nLength, (aParticipantID, sExtension) -> {
+        final IJsonArray aRow = new JsonArray ();
+        for (final IHCNode aCell : _createCells (aRequestScope,
+                                                 aDisplayLocale,
+                                                 aSnapshot,
+                                                 aParticipantID,
+                                                 sExtension,
+                                                 bShowExtensionDetails))
+          aRow.add (aCell == null ? "" : HCRenderer.getAsHTMLStringWithoutNamespaces (aCell));
+        aData.add (aRow);
+      });
+      nTotalCount = aSnapshot.getCount ();
+      nFilteredCount = aSnapshot.getMatchingCount (sFilterText);
+    }
+
+    return new JsonObject ().add ("draw", nDraw)
+                            .add ("recordsTotal", nTotalCount)
+                            .add ("recordsFiltered", nFilteredCount)
+                            .addJson ("data", aData);
+  }
+
+  @Nonnull
+  private static SimpleURL _createPageURL (@Nonnull final WebPageExecutionContext aWPEC,
+                                           @Nullable final String sFilterText,
+                                           final int nPage)
+  {
+    final SimpleURL ret = aWPEC.getSelfHref ().add (PARAM_PAGE, Integer.toString (nPage));
+    if (StringHelper.hasText (sFilterText))
+      ret.add (FIELD_FILTER, sFilterText);
+    return ret;
+  }
+
+  private void _showStaticTable (@Nonnull final WebPageExecutionContext aWPEC,
+                                 @Nonnull final SMPPublicParticipantSnapshot aSnapshot,
+                                 final boolean bShowExtensionDetails)
+  {
+    final HCNodeList aNodeList = aWPEC.getNodeList ();
+    final Locale aDisplayLocale = aWPEC.getDisplayLocale ();
+    final IRequestWebScopeWithoutResponse aRequestScope = aWPEC.getRequestScope ();
+
+    final String sFilterText = StringHelper.trim (aWPEC.params ().getAsString (FIELD_FILTER));
+    final int nMatchingCount = aSnapshot.getMatchingCount (sFilterText);
+    final int nPageCount = Math.max ((nMatchingCount + PARTICIPANTS_PER_PAGE - 1) / PARTICIPANTS_PER_PAGE, 1);
+    final int nPage = Math.min (Math.max (aWPEC.params ().getAsInt (PARAM_PAGE, 0), 0), nPageCount - 1);
+
+    {
+      final BootstrapForm aForm = aNodeList.addAndReturnChild (getUIHandler ().createFormSelf (aWPEC));
+      aForm.addFormGroup (new BootstrapFormGroup ().setLabel ("Participant ID")
+                                                   .setCtrl (new HCEdit (new RequestField (FIELD_FILTER)))
+                                                   .setHelpText ("Only participants with an ID containing this text are shown"));
+      final BootstrapButtonToolbar aFormToolbar = aForm.addAndReturnChild (getUIHandler ().createToolbar (aWPEC));
+      aFormToolbar.addSubmitButton ("Filter", EDefaultIcon.MAGNIFIER);
+      if (StringHelper.hasText (sFilterText))
+        aFormToolbar.addButton ("Reset filter", aWPEC.getSelfHref (), EDefaultIcon.NO);
+    }
+
+    if (nMatchingCount == 0)
+    {
+      aNodeList.addChild (info ("No participant matches the filter."));
+      return;
+    }
+
+    final BootstrapTable aTable = new BootstrapTable ();
+    aTable.setBordered (true);
+    aTable.setCondensed (true);
+    aTable.setStriped (true);
+    aTable.addHeaderRow ()
+          .addCell ("Participant ID")
+          .addCell (bShowExtensionDetails ? "Extension" : "Extension?")
+          .addCell (EPhotonCoreText.ACTIONS.getDisplayText (aDisplayLocale));
+
+    aSnapshot.forEachMatching (sFilterText,
+                               ESortOrder.ASCENDING,
+                               nPage * PARTICIPANTS_PER_PAGE,
+                               PARTICIPANTS_PER_PAGE,
+                               (aParticipantID, sExtension) -> {
+                                 final HCRow aRow = aTable.addBodyRow ();
+                                 for (final IHCNode aCell : _createCells (aRequestScope,
+                                                                          aDisplayLocale,
+                                                                          aSnapshot,
+                                                                          aParticipantID,
+                                                                          sExtension,
+                                                                          bShowExtensionDetails))
+                                   aRow.addCell (aCell);
+                               });
+    aNodeList.addChild (aTable);
+
+    if (nPageCount > 1)
+    {
+      // Paging
+      final BootstrapButtonToolbar aPagingToolbar = new BootstrapButtonToolbar (aWPEC);
+      aPagingToolbar.addAndReturnButton ("Previous page",
+                                         _createPageURL (aWPEC, sFilterText, nPage - 1),
+                                         EDefaultIcon.BACK)
+                    .setDisabled (nPage == 0);
+      aPagingToolbar.addChild (" Page " + (nPage + 1) + " of " + nPageCount + " (" + nMatchingCount + " participants) ");
+      aPagingToolbar.addAndReturnButton ("Next page", _createPageURL (aWPEC, sFilterText, nPage + 1), null)
+                    .setDisabled (nPage >= nPageCount - 1);
+      aNodeList.addChild (aPagingToolbar);
+    }
+  }
+
   @Override
   protected void fillContent (final WebPageExecutionContext aWPEC)
   {
     final HCNodeList aNodeList = aWPEC.getNodeList ();
     final Locale aDisplayLocale = aWPEC.getDisplayLocale ();
-    final IRequestWebScopeWithoutResponse aRequestScope = aWPEC.getRequestScope ();
 
     if (SMPWebAppConfiguration.isStartPageParticipantsNone ())
     {
       // New in v5.0.4
       aNodeList.addChild (info ("This SMP has disabled the list of participants."));
+      return;
     }
-    else
+
+    final SMPPublicParticipantSnapshot aSnapshot = _getSnapshot ();
+    if (aSnapshot == null)
     {
-      final ISMPServiceGroupManager aSMPServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-      final ICommonsList <ISMPServiceGroup> aServiceGroups = aSMPServiceGroupMgr.getAllSMPServiceGroups ();
+      // The first build is still running
+      aNodeList.addChild (info ("The list of participants is currently being prepared. Please try again in a few moments."));
+      return;
+    }
 
-      // Use dynamic or static table?
-      final boolean bUseDataTables = SMPWebAppConfiguration.isStartPageDynamicTable ();
-      final boolean bShowExtensionDetails = SMPWebAppConfiguration.isStartPageExtensionsShow ();
+    if (aSnapshot.getCount () == 0)
+    {
+      aNodeList.addChild (info ("This SMP does not manage any participant yet."));
+      return;
+    }
 
-      AbstractHCTable <?> aFinalTable;
-      if (bUseDataTables)
-      {
-        // Dynamic
-        final HCTable aTable = new HCTable (new DTCol ("Participant ID").setInitialSorting (ESortOrder.ASCENDING),
-                                            new DTCol (bShowExtensionDetails ? "Extension"
-                                                                             : "Extension?").setDataSort (1, 0),
-                                            new BootstrapDTColAction (aDisplayLocale)).setID (getID ());
-        aFinalTable = aTable;
-      }
-      else
-      {
-        // Static
-        final BootstrapTable aTable = new BootstrapTable ();
-        aTable.setBordered (true);
-        aTable.setCondensed (true);
-        aTable.setStriped (true);
-        aTable.addHeaderRow ()
-              .addCell ("Participant ID")
-              .addCell (bShowExtensionDetails ? "Extension" : "Extension?")
-              .addCell (EPhotonCoreText.ACTIONS.getDisplayText (aDisplayLocale));
-        aFinalTable = aTable;
-
-        // Sort manually
-        aServiceGroups.sort (Comparator.comparing (x -> x.getParticipantIdentifier ().getURIEncoded ()));
-      }
+    if (aSnapshot.isTruncated ())
+      aNodeList.addChild (info ("Only " + aSnapshot.getCount () + " of " + aSnapshot.getTotalCount () + " participants are listed."));
 
-      for (final ISMPServiceGroup aServiceGroup : aServiceGroups)
-      {
-        final String sDisplayName = aServiceGroup.getParticipantIdentifier ().getURIEncoded ();
-
-        final HCRow aRow = aFinalTable.addBodyRow ();
-        aRow.addCell (sDisplayName);
-        if (bShowExtensionDetails)
-        {
-          if (aServiceGroup.getExtensions ().extensions ().isNotEmpty ())
-            aRow.addCell (code (HCExtHelper.nl2divList (aServiceGroup.getExtensions ().getFirstExtensionXMLString ())));
-          else
-            aRow.addCell ();
-        }
-        else
-        {
-          aRow.addCell (EPhotonCoreText.getYesOrNo (aServiceGroup.getExtensions ().extensions ().isNotEmpty (),
-                                                    aDisplayLocale));
-        }
-        final SMPRestDataProvider aDP = new SMPRestDataProvider (aRequestScope,
-                                                                 aServiceGroup.getParticipantIdentifier ()
-                                                                              .getURIEncoded ());
-        aRow.addCell (new HCA (new SimpleURL (aDP.getServiceGroupHref (aServiceGroup.getParticipantIdentifier ()))).setTitle ("Perform SMP query on " +
-                                                                                                                              sDisplayName)
-                                                                                                                   .setTargetBlank ()
-                                                                                                                   .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ()));
-      }
-      if (aFinalTable.hasBodyRows ())
-      {
-        aNodeList.addChild (aFinalTable);
+    // Use dynamic or static table?
+    final boolean bUseDataTables = SMPWebAppConfiguration.isStartPageDynamicTable ();
+    final boolean bShowExtensionDetails = SMPWebAppConfiguration.isStartPageExtensionsShow ();
 
-        if (bUseDataTables)
-        {
-          final BootstrapDataTables aDataTables = BootstrapDataTables.createDefaultDataTables (aWPEC, aFinalTable);
-          aNodeList.addChild (aDataTables);
-        }
-      }
-      else
-        aNodeList.addChild (info ("This SMP does not manage any participant yet."));
+    if (bUseDataTables)
+    {
+      // Dynamic - the rows are loaded page by page via AJAX, so only the
+      // participant ID is orderable
+      final HCTable aTable = new HCTable (new DTCol ("Participant ID").setInitialSorting (ESortOrder.ASCENDING),
+                                          new DTCol (bShowExtensionDetails ? "Extension" : "Extension?").setOrderable (false),
+                                          new BootstrapDTColAction (aDisplayLocale)).setID (getID ());
+
+      final DataTables aDataTables = BootstrapDataTables.createDefaultDataTables (aWPEC, aTable);
+      aDataTables.setAjaxBuilder (new JQueryAjaxBuilder ().url (AJAX_LIST.getInvocationURL (aWPEC.getRequestScope ())))
+                 .setLengthMenu (LENGTH_MENU);
+      aNodeList.addChild (aTable).addChild (aDataTables);
+    }
+    else
+    {
+      // Static
+      _showStaticTable (aWPEC, aSnapshot, bShowExtensionDetails);
     }
   }
 }
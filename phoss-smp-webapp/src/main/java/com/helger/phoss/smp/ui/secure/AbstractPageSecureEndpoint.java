@@ -36,6 +36,7 @@ import com.helger.commons.datetime.PDTToString;
 import com.helger.commons.state.EValidity;
 import com.helger.commons.state.IValidityIndicator;
 import com.helger.commons.string.StringHelper;
+import com.helger.commons.url.SimpleURL;
 import com.helger.commons.url.URLHelper;
 import com.helger.html.hc.ext.HCA_MailTo;
 import com.helger.html.hc.html.HC_Target;
@@ -59,6 +60,7 @@ import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
@@ -81,9 +83,11 @@ import com.helger.photon.bootstrap4.grid.BootstrapRow;
 import com.helger.photon.bootstrap4.pages.handler.AbstractBootstrapWebPageActionHandlerDelete;
 import com.helger.photon.bootstrap4.uictrls.datetimepicker.BootstrapDateTimePicker;
 import com.helger.photon.core.EPhotonCoreText;
+import com.helger.photon.core.execcontext.ILayoutExecutionContext;
 import com.helger.photon.core.form.FormErrorList;
 import com.helger.photon.core.form.RequestField;
 import com.helger.photon.core.form.RequestFieldBoolean;
+import com.helger.photon.uicore.css.CPageParam;
 import com.helger.photon.uicore.icon.EDefaultIcon;
 import com.helger.photon.uicore.page.EShowList;
 import com.helger.photon.uicore.page.EWebPageFormAction;
@@ -352,26 +356,78 @@ public abstract class AbstractPageSecureEndpoint extends AbstractSMPWebPageForm
   }
 
   @Nonnull
-  protected static StringMap createParamMap (@Nonnull final ISMPServiceInformation aServiceInfo,
-                                             @Nullable final ISMPProcess aProcess,
-                                             @Nullable final ISMPEndpoint aEndpoint)
+  protected static StringMap createParamMap (@Nonnull final IParticipantIdentifier aParticipantID,
+                                             @Nonnull final IDocumentTypeIdentifier aDocTypeID,
+                                             @Nullable final IProcessIdentifier aProcessID,
+                                             @Nullable final String sTransportProfile)
   {
     final StringMap ret = new StringMap ();
-    ret.putIn (FIELD_SERVICE_GROUP_ID, aServiceInfo.getServiceGroup ().getParticipantIdentifier ().getURIEncoded ());
-    ret.putIn (FIELD_DOCTYPE_ID_SCHEME, aServiceInfo.getDocumentTypeIdentifier ().getScheme ());
-    ret.putIn (FIELD_DOCTYPE_ID_VALUE, aServiceInfo.getDocumentTypeIdentifier ().getValue ());
-    if (aProcess != null)
+    ret.putIn (FIELD_SERVICE_GROUP_ID, aParticipantID.getURIEncoded ());
+    ret.putIn (FIELD_DOCTYPE_ID_SCHEME, aDocTypeID.getScheme ());
+    ret.putIn (FIELD_DOCTYPE_ID_VALUE, aDocTypeID.getValue ());
+    if (aProcessID != null)
     {
-      ret.putIn (FIELD_PROCESS_ID_SCHEME, aProcess.getProcessIdentifier ().getScheme ());
-      ret.putIn (FIELD_PROCESS_ID_VALUE, aProcess.getProcessIdentifier ().getValue ());
-      if (aEndpoint != null)
+      ret.putIn (FIELD_PROCESS_ID_SCHEME, aProcessID.getScheme ());
+      ret.putIn (FIELD_PROCESS_ID_VALUE, aProcessID.getValue ());
+      if (sTransportProfile != null)
       {
-        ret.putIn (FIELD_TRANSPORT_PROFILE, aEndpoint.getTransportProfile ());
+        ret.putIn (FIELD_TRANSPORT_PROFILE, sTransportProfile);
       }
     }
     return ret;
   }
 
+  @Nonnull
+  protected static StringMap createParamMap (@Nonnull final ISMPServiceInformation aServiceInfo,
+                                             @Nullable final ISMPProcess aProcess,
+                                             @Nullable final ISMPEndpoint aEndpoint)
+  {
+    return createParamMap (aServiceInfo.getServiceGroup ().getParticipantIdentifier (),
+                           aServiceInfo.getDocumentTypeIdentifier (),
+                           aProcess == null ? null : aProcess.getProcessIdentifier (),
+                           aProcess == null || aEndpoint == null ? null : aEndpoint.getTransportProfile ());
+  }
+
+  /**
+   * Create the URL for an action on an endpoint page without the need of a
+   * loaded service information object. This can also be used from AJAX calls.
+   *
+   * @param aLEC
+   *        The layout execution context. May not be <code>null</code>.
+   * @param sMenuItemID
+   *        The menu item of the target page. May neither be <code>null</code>
+   *        nor empty.
+   * @param sAction
+   *        The action to perform. May neither be <code>null</code> nor empty.
+   * @param aParticipantID
+   *        The participant ID of the service group. May not be
+   *        <code>null</code>.
+   * @param aDocTypeID
+   *        The document type ID of the service information. May not be
+   *        <code>null</code>.
+   * @param aParams
+   *        The parameters created by one of the <code>createParamMap</code>
+   *        methods. May not be <code>null</code>.
+   * @return The created URL and never <code>null</code>.
+   */
+  @Nonnull
+  protected static SimpleURL createEndpointURL (@Nonnull final ILayoutExecutionContext aLEC,
+                                                @Nonnull @Nonempty final String sMenuItemID,
+                                                @Nonnull @Nonempty final String sAction,
+                                                @Nonnull final IParticipantIdentifier aParticipantID,
+                                                @Nonnull final IDocumentTypeIdentifier aDocTypeID,
+                                                @Nonnull final StringMap aParams)
+  {
+    // Same ID as in SMPServiceInformation
+    final String sServiceInfoID = SMPServiceGroup.createSMPServiceGroupID (aParticipantID) +
+                                  "-" +
+                                  aDocTypeID.getURIEncoded ();
+    return aLEC.getLinkToMenuItem (sMenuItemID)
+               .add (CPageParam.PARAM_ACTION, sAction)
+               .add (CPageParam.PARAM_OBJECT, sServiceInfoID)
+               .addAll (aParams);
+  }
+
   @Override
   @Nonnull
   protected BootstrapButtonToolbar createViewToolbar (@Nonnull final WebPageExecutionContext aWPEC,
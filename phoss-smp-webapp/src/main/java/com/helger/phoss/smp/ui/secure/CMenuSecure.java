@@ -55,6 +55,7 @@ public final class CMenuSecure
   public static final String MENU_SML_CERTIFICATE_UPDATE = "sml_certificate_update";
   public static final String MENU_SMP_SETTINGS = "smp_settings";
   public static final String MENU_SMP_IDENTIFIER_MAPPINGS = "smp_id_mappings";
+  public static final String MENU_STATEMENT_STATISTICS = "statement_statistics";
   public static final String MENU_CHANGE_PASSWORD = "change_pw";
 
   private CMenuSecure ()
@@ -59,10 +59,14 @@ import com.helger.html.jscode.JSAnonymousFunction;
 import com.helger.html.jscode.JSAssocArray;
 import com.helger.html.jscode.JSPackage;
 import com.helger.html.jscode.JSVar;
+import com.helger.json.IJson;
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonObject;
 import com.helger.pd.client.PDClient;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.app.PDClientProvider;
+import com.helger.phoss.smp.app.SMPDirectoryBulkPush;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
@@ -82,8 +86,6 @@ import com.helger.photon.ajax.decl.IAjaxFunctionDeclaration;
 import com.helger.photon.app.PhotonUnifiedResponse;
 import com.helger.photon.app.url.LinkHelper;
 import com.helger.photon.bootstrap4.CBootstrapCSS;
-import com.helger.photon.bootstrap4.alert.BootstrapErrorBox;
-import com.helger.photon.bootstrap4.alert.BootstrapSuccessBox;
 import com.helger.photon.bootstrap4.button.BootstrapButton;
 import com.helger.photon.bootstrap4.button.EBootstrapButtonSize;
 import com.helger.photon.bootstrap4.buttongroup.BootstrapButtonToolbar;
@@ -103,6 +105,7 @@ import com.helger.photon.core.execcontext.ILayoutExecutionContext;
 import com.helger.photon.core.execcontext.LayoutExecutionContext;
 import com.helger.photon.core.form.FormErrorList;
 import com.helger.photon.core.form.RequestField;
+import com.helger.photon.security.login.LoggedInUserManager;
 import com.helger.photon.uicore.css.CPageParam;
 import com.helger.photon.uicore.html.select.HCCountrySelect;
 import com.helger.photon.uicore.html.select.HCCountrySelect.EWithDeprecated;
@@ -141,6 +144,10 @@ public final class PageSecureBusinessCard extends AbstractSMPWebPageForm <ISMPBu
   private static final String TMP_ID_PREFIX = "tmp";
   private static final String ACTION_PUBLISH_TO_INDEXER = "publishtoindexer";
   private static final String ACTION_PUBLISH_ALL_TO_INDEXER = "publishalltoindexer";
+  private static final String ACTION_RESUME_PUBLISH_ALL_TO_INDEXER = "resumepublishalltoindexer";
+  private static final String ACTION_CANCEL_PUBLISH_ALL_TO_INDEXER = "cancelpublishalltoindexer";
+  // The maximum number of failed participants shown in the bulk push status
+  private static final int MAX_SHOWN_FAILED_IDS = 100;
 
   private static final String PARAM_ENTITY_ID = "entityid";
 
@@ -268,80 +275,62 @@ public final class PageSecureBusinessCard extends AbstractSMPWebPageForm <ISMPBu
                           return EShowList.SHOW_LIST;
                         }
                       });
-    addCustomHandler (ACTION_PUBLISH_ALL_TO_INDEXER,
+    addCustomHandler (ACTION_PUBLISH_ALL_TO_INDEXER, _createBulkPushHandler (false));
+    addCustomHandler (ACTION_RESUME_PUBLISH_ALL_TO_INDEXER, _createBulkPushHandler (true));
+    addCustomHandler (ACTION_CANCEL_PUBLISH_ALL_TO_INDEXER,
                       new AbstractBootstrapWebPageActionHandler <ISMPBusinessCard, WebPageExecutionContext> (false)
                       {
                         @Nonnull
                         public EShowList handleAction (@Nonnull final WebPageExecutionContext aWPEC,
                                                        @Nullable final ISMPBusinessCard aSelectedObject)
                         {
-                          final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
-                          final String sDirectoryName = SMPWebAppConfiguration.getDirectoryName ();
-                          PDClient aPDClient = null;
-                          Exception aCaughtEx = null;
-                          try
-                          {
-                            aPDClient = PDClientProvider.getInstance ().getPDClient ();
-                          }
-                          catch (final IllegalStateException ex)
-                          {
-                            aCaughtEx = ex;
-                          }
-                          if (aPDClient == null)
-                          {
-                            aWPEC.postRedirectGetInternal (error ("Failed to create the " +
-                                                                  sDirectoryName +
-                                                                  " client component. Please check your configuration.").addChild (SMPCommonUI.getTechnicalDetailsUI (aCaughtEx)));
-                          }
+                          if (SMPDirectoryBulkPush.getInstance ().cancel ().isSuccess ())
+                            aWPEC.postRedirectGetInternal (success ("The update of all Business Cards is cancelled after the current chunk."));
                           else
-                          {
-                            final ICommonsList <String> aSuccess = new CommonsArrayList <> ();
-                            final ICommonsList <String> aFailure = new CommonsArrayList <> ();
-
-                            for (final ISMPBusinessCard aCurObject : aBusinessCardMgr.getAllSMPBusinessCards ())
-                            {
-                              final IParticipantIdentifier aParticipantID = aCurObject.getParticipantIdentifier ();
-                              final ESuccess eSuccess = aPDClient.addServiceGroupToIndex (aParticipantID);
-                              (eSuccess.isSuccess () ? aSuccess : aFailure).add (aParticipantID.getURIEncoded ());
-                            }
-
-                            final HCNodeList aResultNodes = new HCNodeList ();
-                            if (aSuccess.isNotEmpty ())
-                            {
-                              final BootstrapSuccessBox aBox = success ();
-                              for (final String sPI : aSuccess)
-                              {
-                                aBox.addChild (div ("Successfully notified the " +
-                                                    sDirectoryName +
-                                                    " to index '" +
-                                                    sPI +
-                                                    "'"));
-                              }
-                              aResultNodes.addChild (aBox);
-                            }
-                            if (aFailure.isNotEmpty ())
-                            {
-                              final BootstrapErrorBox aBox = error ();
-                              for (final String sPI : aFailure)
-                              {
-                                aBox.addChild (div ("Error notifying the " +
-                                                    sDirectoryName +
-                                                    " to index '" +
-                                                    sPI +
-                                                    "'"));
-                              }
-                              aResultNodes.addChild (aBox);
-                            }
-                            if (aResultNodes.hasNoChildren ())
-                              aResultNodes.addChild (info ("No participants to be indexed to " + sDirectoryName + "."));
-
-                            aWPEC.postRedirectGetInternal (aResultNodes);
-                          }
+                            aWPEC.postRedirectGetInternal (error ("The update of all Business Cards is not running."));
                           return EShowList.SHOW_LIST;
                         }
                       });
   }
 
+  @Nonnull
+  private AbstractBootstrapWebPageActionHandler <ISMPBusinessCard, WebPageExecutionContext> _createBulkPushHandler (final boolean bResume)
+  {
+    return new AbstractBootstrapWebPageActionHandler <ISMPBusinessCard, WebPageExecutionContext> (false)
+    {
+      @Nonnull
+      public EShowList handleAction (@Nonnull final WebPageExecutionContext aWPEC,
+                                     @Nullable final ISMPBusinessCard aSelectedObject)
+      {
+        final String sDirectoryName = SMPWebAppConfiguration.getDirectoryName ();
+        ESuccess eSuccess;
+        try
+        {
+          // Runs in the background
+          eSuccess = SMPDirectoryBulkPush.getInstance ()
+                                         .start (LoggedInUserManager.getInstance ().getCurrentUserID (), bResume);
+        }
+        catch (final IllegalStateException ex)
+        {
+          aWPEC.postRedirectGetInternal (error ("Failed to create the " +
+                                                sDirectoryName +
+                                                " client component. Please check your configuration.").addChild (SMPCommonUI.getTechnicalDetailsUI (ex)));
+          return EShowList.SHOW_LIST;
+        }
+
+        if (eSuccess.isSuccess ())
+          aWPEC.postRedirectGetInternal (success ((bResume ? "Resumed" : "Started") +
+                                                  " the update of all Business Cards in " +
+                                                  sDirectoryName +
+                                                  " in the background."));
+        else
+          aWPEC.postRedirectGetInternal (error (bResume ? "There is no update of all Business Cards that can be resumed."
+                                                        : "The update of all Business Cards is already running."));
+        return EShowList.SHOW_LIST;
+      }
+    };
+  }
+
   @Override
   @Nonnull
   protected IValidityIndicator isValidToDisplayPage (@Nonnull final WebPageExecutionContext aWPEC)
@@ -1146,6 +1135,97 @@ public final class PageSecureBusinessCard extends AbstractSMPWebPageForm <ISMPBu
     return ret;
   }
 
+  private void _showBulkPushStatus (@Nonnull final WebPageExecutionContext aWPEC,
+                                    @Nonnull final IJsonObject aStatus)
+  {
+    final String sRunID = aStatus.getAsString ("id");
+    if (sRunID == null)
+    {
+      // Never started
+      return;
+    }
+
+    final boolean bRunning = aStatus.getAsBoolean ("running", false);
+    final int nTotal = aStatus.getAsInt ("total", 0);
+    final int nSuccess = aStatus.getAsInt ("success", 0);
+    final int nFailure = aStatus.getAsInt ("failure", 0);
+
+    final HCNodeList aNL = new HCNodeList ();
+    aNL.addChild (div ("Update of all Business Cards in " +
+                       SMPWebAppConfiguration.getDirectoryName () +
+                       " started at " +
+                       aStatus.getAsString ("startDateTime") +
+                       " by user '" +
+                       aStatus.getAsString ("userID") +
+                       "'"));
+    aNL.addChild (div ((nSuccess + nFailure) +
+                       " of " +
+                       nTotal +
+                       " participant(s) processed - " +
+                       nSuccess +
+                       " successful, " +
+                       nFailure +
+                       " failed"));
+
+    final IJsonArray aFailedIDs = aStatus.getAsArray ("failedParticipantIDs");
+    if (aFailedIDs != null && aFailedIDs.isNotEmpty ())
+    {
+      // All failed participants are persisted - show only the first ones
+      final HCNodeList aFailed = new HCNodeList ();
+      for (final IJson aItem : aFailedIDs)
+        if (aItem.isValue () && aFailed.getChildCount () < MAX_SHOWN_FAILED_IDS)
+          aFailed.addChild (div (aItem.getAsValue ().getAsString ()));
+      aNL.addChild (div ("Failed participants" +
+                         (aFailedIDs.size () > aFailed.getChildCount () ? " (first " +
+                                                                          aFailed.getChildCount () +
+                                                                          " of " +
+                                                                          aFailedIDs.size () +
+                                                                          ")"
+                                                                        : "") +
+                         ":"));
+      aNL.addChild (aFailed);
+    }
+
+    final BootstrapButtonToolbar aToolbar = new BootstrapButtonToolbar (aWPEC);
+    if (bRunning)
+    {
+      aToolbar.addButton ("Refresh", aWPEC.getSelfHref (), EDefaultIcon.REFRESH);
+      if (!aStatus.getAsBoolean ("cancelRequested", false))
+        aToolbar.addButton ("Cancel",
+                            aWPEC.getSelfHref ().add (CPageParam.PARAM_ACTION, ACTION_CANCEL_PUBLISH_ALL_TO_INDEXER),
+                            EDefaultIcon.NO);
+    }
+    else
+      if (aStatus.getAsBoolean ("resumable", false))
+        aToolbar.addButton ("Resume",
+                            aWPEC.getSelfHref ().add (CPageParam.PARAM_ACTION, ACTION_RESUME_PUBLISH_ALL_TO_INDEXER),
+                            EDefaultIcon.YES);
+    if (aToolbar.hasChildren ())
+      aNL.addChild (aToolbar);
+
+    final HCNodeList aNodeList = aWPEC.getNodeList ();
+    if (bRunning)
+      aNodeList.addChild (info (aNL));
+    else
+      if (aStatus.getAsBoolean ("resumable", false))
+      {
+        final String sReason;
+        if (aStatus.getAsBoolean ("cancelled", false))
+          sReason = "The update was cancelled.";
+        else
+          if (aStatus.containsKey ("endDateTime"))
+            sReason = "The update finished, but some participants failed. Resume to retry them.";
+          else
+            sReason = "The update was interrupted.";
+        aNodeList.addChild (warn (div (sReason)).addChild (aNL));
+      }
+      else
+        if (nFailure > 0)
+          aNodeList.addChild (error (aNL));
+        else
+          aNodeList.addChild (success (aNL));
+  }
+
   @Override
   protected void showListOfExistingObjects (@Nonnull final WebPageExecutionContext aWPEC)
   {
@@ -1154,6 +1234,9 @@ public final class PageSecureBusinessCard extends AbstractSMPWebPageForm <ISMPBu
     final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
     final ICommonsList <ISMPBusinessCard> aAllBusinessCards = aBusinessCardMgr.getAllSMPBusinessCards ();
 
+    final SMPDirectoryBulkPush aBulkPush = SMPDirectoryBulkPush.getInstance ();
+    final boolean bBulkPushRunning = aBulkPush.isRunning ();
+
     final BootstrapButtonToolbar aToolbar = new BootstrapButtonToolbar (aWPEC);
     aToolbar.addButton ("Create new Business Card", createCreateURL (aWPEC), EDefaultIcon.NEW);
     aToolbar.addChild (new BootstrapButton ().setOnClick (aWPEC.getSelfHref ()
@@ -1162,9 +1245,11 @@ public final class PageSecureBusinessCard extends AbstractSMPWebPageForm <ISMPBu
                                              .setIcon (EFamFamIcon.ARROW_REDO)
                                              .addChild ("Update all Business Cards in " +
                                                         SMPWebAppConfiguration.getDirectoryName ())
-                                             .setDisabled (aAllBusinessCards.isEmpty ()));
+                                             .setDisabled (aAllBusinessCards.isEmpty () || bBulkPushRunning));
     aNodeList.addChild (aToolbar);
 
+    _showBulkPushStatus (aWPEC, aBulkPush.getStatusAsJsonObject ());
+
     final HCTable aTable = new HCTable (new DTCol ("Service Group").setDataSort (0, 1)
                                                                    .setInitialSorting (ESortOrder.ASCENDING),
                                         new DTCol ("Name"),
@@ -16,40 +16,56 @@
  */
 package com.helger.phoss.smp.ui.secure;
 
+import java.util.Comparator;
 import java.util.Locale;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.collection.attr.StringMap;
-import com.helger.commons.collection.impl.CommonsHashSet;
+import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.ICommonsList;
-import com.helger.commons.collection.impl.ICommonsSet;
-import com.helger.commons.compare.ESortOrder;
+import com.helger.commons.name.IHasName;
 import com.helger.commons.url.ISimpleURL;
 import com.helger.commons.url.SimpleURL;
-import com.helger.html.hc.html.tabular.HCRow;
+import com.helger.html.hc.IHCNode;
+import com.helger.html.hc.html.forms.HCEdit;
+import com.helger.html.hc.html.forms.HCSelect;
 import com.helger.html.hc.html.tabular.HCTable;
 import com.helger.html.hc.html.textlevel.HCA;
 import com.helger.html.hc.impl.HCNodeList;
 import com.helger.html.hc.impl.HCTextNode;
-import com.helger.peppolid.IDocumentTypeIdentifier;
-import com.helger.peppolid.IParticipantIdentifier;
-import com.helger.peppolid.IProcessIdentifier;
+import com.helger.html.hc.render.HCRenderer;
+import com.helger.html.jquery.JQueryAjaxBuilder;
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonArray;
+import com.helger.json.JsonObject;
+import com.helger.peppol.smp.ISMPTransportProfile;
 import com.helger.phoss.smp.domain.SMPMetaManager;
-import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
-import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
-import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
-import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpointFilter;
 import com.helger.phoss.smp.nicename.NiceNameUI;
 import com.helger.phoss.smp.rest.SMPRestDataProvider;
+import com.helger.phoss.smp.ui.ajax.AbstractSMPAjaxExecutor;
+import com.helger.phoss.smp.ui.ajax.CAjax;
+import com.helger.phoss.smp.ui.secure.hc.HCSMPTransportProfileSelect;
+import com.helger.photon.ajax.decl.IAjaxFunctionDeclaration;
+import com.helger.photon.app.PhotonUnifiedResponse;
 import com.helger.photon.bootstrap4.buttongroup.BootstrapButtonToolbar;
+import com.helger.photon.bootstrap4.form.BootstrapForm;
+import com.helger.photon.bootstrap4.form.BootstrapFormGroup;
 import com.helger.photon.bootstrap4.uictrls.datatables.BootstrapDTColAction;
 import com.helger.photon.bootstrap4.uictrls.datatables.BootstrapDataTables;
+import com.helger.photon.core.execcontext.ILayoutExecutionContext;
+import com.helger.photon.core.execcontext.LayoutExecutionContext;
+import com.helger.photon.core.form.RequestField;
+import com.helger.photon.uicore.css.CPageParam;
 import com.helger.photon.uicore.icon.EDefaultIcon;
 import com.helger.photon.uicore.page.WebPageExecutionContext;
 import com.helger.photon.uictrls.datatables.DataTables;
+import com.helger.photon.uictrls.datatables.DataTablesLengthMenu;
 import com.helger.photon.uictrls.datatables.column.DTCol;
 import com.helger.photon.uictrls.famfam.EFamFamIcon;
 import com.helger.web.scope.IRequestWebScopeWithoutResponse;
@@ -62,88 +78,198 @@ import com.helger.web.scope.IRequestWebScopeWithoutResponse;
  */
 public final class PageSecureEndpointList extends AbstractPageSecureEndpoint
 {
+  private static final String FIELD_FILTER_TRANSPORT_PROFILE = "filtertp";
+  private static final String FIELD_FILTER_ENDPOINT_URL = "filterurl";
+  private static final String FIELD_FILTER_CERTIFICATE = "filtercert";
+
+  // Parameters of the DataTables server-side processing protocol
+  private static final String PARAM_DT_DRAW = "draw";
+  private static final String PARAM_DT_START = "start";
+  private static final String PARAM_DT_LENGTH = "length";
+  private static final String PARAM_DT_SEARCH_VALUE = "search[value]";
+
+  /** The maximum number of endpoints returned by a single AJAX call */
+  private static final int MAX_ROWS_PER_REQUEST = 100;
+  private static final DataTablesLengthMenu LENGTH_MENU = new DataTablesLengthMenu ().addItem (25).addItem (50).addItem (MAX_ROWS_PER_REQUEST);
+
+  private static final IAjaxFunctionDeclaration AJAX_LIST;
+
+  static
+  {
+    // Ensure it can only be accessed by logged in users
+    AJAX_LIST = CAjax.addAjaxWithLogin (new AbstractSMPAjaxExecutor ()
+    {
+      @Override
+      protected void mainHandleRequest (@Nonnull final LayoutExecutionContext aLEC,
+                                        @Nonnull final PhotonUnifiedResponse aAjaxResponse) throws Exception
+      {
+        aAjaxResponse.json (_getListOfExistingObjectsAsJson (aLEC));
+      }
+    });
+  }
+
   public PageSecureEndpointList (@Nonnull @Nonempty final String sID)
   {
     super (sID, "Endpoint List");
   }
 
+  @Nonnull
+  private static SMPEndpointFilter _getFilter (@Nonnull final ILayoutExecutionContext aLEC,
+                                               @Nullable final String sParticipantIDPart)
+  {
+    return new SMPEndpointFilter (sParticipantIDPart,
+                                  aLEC.params ().getAsString (FIELD_FILTER_TRANSPORT_PROFILE),
+                                  aLEC.params ().getAsString (FIELD_FILTER_ENDPOINT_URL),
+                                  aLEC.params ().getAsString (FIELD_FILTER_CERTIFICATE));
+  }
+
+  @Nonnull
+  private static IJsonObject _getListOfExistingObjectsAsJson (@Nonnull final LayoutExecutionContext aLEC)
+  {
+    final IRequestWebScopeWithoutResponse aRequestScope = aLEC.getRequestScope ();
+    final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+
+    // DataTables server-side processing parameters
+    final int nDraw = aLEC.params ().getAsInt (PARAM_DT_DRAW, 0);
+    final int nStart = Math.max (aLEC.params ().getAsInt (PARAM_DT_START, 0), 0);
+    int nLength = aLEC.params ().getAsInt (PARAM_DT_LENGTH, MAX_ROWS_PER_REQUEST);
+    if (nLength <= 0 || nLength > MAX_ROWS_PER_REQUEST)
+      nLength = MAX_ROWS_PER_REQUEST;
+    // The search box filters by participant ID, the other criteria come from
+    // the filter form
+    final SMPEndpointFilter aFilter = _getFilter (aLEC, aLEC.params ().getAsString (PARAM_DT_SEARCH_VALUE));
+
+    // Load only the requested page
+    final IJsonArray aData = new JsonArray ();
+    aServiceInfoMgr.forEachEndpoint (aFilter, nStart, nLength, (aParticipantID, aDocTypeID, aProcessID, aEndpoint) -> {
+      final String sTransportProfile = aEndpoint.getTransportProfile ();
+      final StringMap aParams = createParamMap (aParticipantID, aDocTypeID, aProcessID, sTransportProfile);
+      final SMPRestDataProvider aDP = new SMPRestDataProvider (aRequestScope, aParticipantID.getURIEncoded ());
+
+      final ICommonsList <IHCNode> aCells = new CommonsArrayList <> ();
+      final ISimpleURL aViewURL = createEndpointURL (aLEC,
+                                                     CMenuSecure.MENU_ENDPOINT_LIST,
+                                                     CPageParam.ACTION_VIEW,
+                                                     aParticipantID,
+                                                     aDocTypeID,
+                                                     aParams);
+      aCells.add (new HCA (aViewURL).addChild (aParticipantID.getURIEncoded ()));
+      aCells.add (NiceNameUI.getDocumentTypeID (aDocTypeID, false));
+      aCells.add (NiceNameUI.getProcessID (aDocTypeID, aProcessID, false));
+      aCells.add (new HCA (aLEC.getLinkToMenuItem (CMenuSecure.MENU_TRANSPORT_PROFILES)
+                               .add (CPageParam.PARAM_ACTION, CPageParam.ACTION_VIEW)
+                               .add (CPageParam.PARAM_OBJECT, sTransportProfile)).addChild (NiceNameUI.getTransportProfile (sTransportProfile,
+                                                                                                                             false)));
+      aCells.add (new HCTextNode (aEndpoint.getEndpointReference ()));
+
+      final ISimpleURL aEditURL = createEndpointURL (aLEC,
+                                                     CMenuSecure.MENU_ENDPOINT_LIST,
+                                                     CPageParam.ACTION_EDIT,
+                                                     aParticipantID,
+                                                     aDocTypeID,
+                                                     aParams);
+      final ISimpleURL aCopyURL = createEndpointURL (aLEC,
+                                                     CMenuSecure.MENU_ENDPOINT_LIST,
+                                                     CPageParam.ACTION_COPY,
+                                                     aParticipantID,
+                                                     aDocTypeID,
+                                                     aParams);
+      final ISimpleURL aDeleteURL = createEndpointURL (aLEC,
+                                                       CMenuSecure.MENU_ENDPOINT_LIST,
+                                                       CPageParam.ACTION_DELETE,
+                                                       aParticipantID,
+                                                       aDocTypeID,
+                                                       aParams);
+      final ISimpleURL aPreviewURL = new SimpleURL (aDP.getServiceMetadataReferenceHref (aParticipantID, aDocTypeID));
+      aCells.add (new HCNodeList ().addChildren (new HCA (aViewURL).setTitle ("View endpoint")
+                                                                   .addChild (EDefaultIcon.MAGNIFIER.getAsNode ()),
+                                                 new HCTextNode (" "),
+                                                 new HCA (aEditURL).setTitle ("Edit endpoint")
+                                                                   .addChild (EDefaultIcon.EDIT.getAsNode ()),
+                                                 new HCTextNode (" "),
+                                                 new HCA (aCopyURL).setTitle ("Copy endpoint")
+                                                                   .addChild (EDefaultIcon.COPY.getAsNode ()),
+                                                 new HCTextNode (" "),
+                                                 new HCA (aDeleteURL).setTitle ("Delete endpoint")
+                                                                     .addChild (EDefaultIcon.DELETE.getAsNode ()),
+                                                 new HCTextNode (" "),
+                                                 new HCA (aPreviewURL).setTitle ("Perform SMP query on endpoint")
+                                                                      .setTargetBlank ()
+                                                                      .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ())));
+
+      final IJsonArray aRow = new JsonArray ();
+      for (final IHCNode aCell : aCells)
+        aRow.add (HCRenderer.getAsHTMLStringWithoutNamespaces (aCell));
+      aData.add (aRow);
+    });
+
+    final long nTotalCount = aServiceInfoMgr.getEndpointCount (SMPEndpointFilter.ALL);
+    return new JsonObject ().add ("draw", nDraw)
+                            .add ("recordsTotal", nTotalCount)
+                            .add ("recordsFiltered",
+                                  aFilter.hasAnyCriteria () ? aServiceInfoMgr.getEndpointCount (aFilter) : nTotalCount)
+                            .addJson ("data", aData);
+  }
+
   @Override
   protected void showListOfExistingObjects (@Nonnull final WebPageExecutionContext aWPEC)
   {
     final IRequestWebScopeWithoutResponse aRequestScope = aWPEC.getRequestScope ();
     final Locale aDisplayLocale = aWPEC.getDisplayLocale ();
     final HCNodeList aNodeList = aWPEC.getNodeList ();
-    final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
-
-    final ICommonsList <ISMPServiceInformation> aAllServiceInfos = aServiceInfoMgr.getAllSMPServiceInformation ();
-
-    // Count unique service groups
-    final ICommonsSet <String> aServiceGroupIDs = new CommonsHashSet <> ();
-    aAllServiceInfos.findAllMapped (ISMPServiceInformation::getServiceGroupID, aServiceGroupIDs::add);
-    final boolean bHideDetails = aServiceGroupIDs.size () > 1000;
 
     final BootstrapButtonToolbar aToolbar = new BootstrapButtonToolbar (aWPEC);
     aToolbar.addButton ("Create new Endpoint", createCreateURL (aWPEC), EDefaultIcon.NEW);
     aToolbar.addButton ("Refresh", aWPEC.getSelfHref (), EDefaultIcon.REFRESH);
-    if (!bHideDetails)
-      aToolbar.addButton ("Tree view",
-                          aWPEC.getLinkToMenuItem (CMenuSecure.MENU_ENDPOINT_TREE),
-                          EDefaultIcon.MAGNIFIER);
+    aToolbar.addButton ("Tree view", aWPEC.getLinkToMenuItem (CMenuSecure.MENU_ENDPOINT_TREE), EDefaultIcon.MAGNIFIER);
     aNodeList.addChild (aToolbar);
 
-    final HCTable aTable = new HCTable (new DTCol ("Service group").setInitialSorting (ESortOrder.ASCENDING)
-                                                                   .setDataSort (0, 1, 2, 3),
-                                        new DTCol ("Document type ID").setDataSort (1, 0, 2, 3),
-                                        new DTCol ("Process ID").setDataSort (2, 0, 1, 3),
-                                        new DTCol ("Transport profile").setDataSort (3, 0, 1, 2),
-                                        new BootstrapDTColAction (aDisplayLocale)).setID (getID ());
-    for (final ISMPServiceInformation aServiceInfo : aAllServiceInfos)
+    // Filter criteria that are evaluated in the backend
+    final SMPEndpointFilter aFilter = _getFilter (aWPEC, null);
     {
-      final ISMPServiceGroup aServiceGroup = aServiceInfo.getServiceGroup ();
-      final IParticipantIdentifier aParticipantID = aServiceGroup.getParticipantIdentifier ();
-      final IDocumentTypeIdentifier aDocTypeID = aServiceInfo.getDocumentTypeIdentifier ();
-      final SMPRestDataProvider aDP = new SMPRestDataProvider (aRequestScope, aParticipantID.getURIEncoded ());
+      final BootstrapForm aForm = aNodeList.addAndReturnChild (getUIHandler ().createFormSelf (aWPEC));
 
-      for (final ISMPProcess aProcess : aServiceInfo.getAllProcesses ())
-      {
-        final IProcessIdentifier aProcessID = aProcess.getProcessIdentifier ();
-        for (final ISMPEndpoint aEndpoint : aProcess.getAllEndpoints ())
-        {
-          final StringMap aParams = createParamMap (aServiceInfo, aProcess, aEndpoint);
-
-          final HCRow aRow = aTable.addBodyRow ();
-          final ISimpleURL aViewURL = createViewURL (aWPEC, aServiceInfo, aParams);
-          aRow.addCell (new HCA (aViewURL).addChild (aServiceGroup.getID ()));
-          aRow.addCell (NiceNameUI.getDocumentTypeID (aDocTypeID, false));
-          aRow.addCell (NiceNameUI.getProcessID (aDocTypeID, aProcessID, false));
-
-          final String sTransportProfile = aEndpoint.getTransportProfile ();
-          aRow.addCell (new HCA (createViewURL (aWPEC,
-                                                CMenuSecure.MENU_TRANSPORT_PROFILES,
-                                                sTransportProfile)).addChild (NiceNameUI.getTransportProfile (sTransportProfile,
-                                                                                                              false)));
-
-          final ISimpleURL aEditURL = createEditURL (aWPEC, aServiceInfo).addAll (aParams);
-          final ISimpleURL aCopyURL = createCopyURL (aWPEC, aServiceInfo).addAll (aParams);
-          final ISimpleURL aDeleteURL = createDeleteURL (aWPEC, aServiceInfo).addAll (aParams);
-          final ISimpleURL aPreviewURL = new SimpleURL (aDP.getServiceMetadataReferenceHref (aParticipantID,
-                                                                                             aDocTypeID));
-          aRow.addCell (new HCA (aViewURL).setTitle ("View endpoint").addChild (EDefaultIcon.MAGNIFIER.getAsNode ()),
-                        new HCTextNode (" "),
-                        new HCA (aEditURL).setTitle ("Edit endpoint").addChild (EDefaultIcon.EDIT.getAsNode ()),
-                        new HCTextNode (" "),
-                        new HCA (aCopyURL).setTitle ("Copy endpoint").addChild (EDefaultIcon.COPY.getAsNode ()),
-                        new HCTextNode (" "),
-                        new HCA (aDeleteURL).setTitle ("Delete endpoint").addChild (EDefaultIcon.DELETE.getAsNode ()),
-                        new HCTextNode (" "),
-                        new HCA (aPreviewURL).setTitle ("Perform SMP query on endpoint")
-                                             .setTargetBlank ()
-                                             .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ()));
-        }
-      }
+      final HCSelect aTPSelect = new HCSelect (new RequestField (FIELD_FILTER_TRANSPORT_PROFILE));
+      aTPSelect.addOption ("", "All transport profiles");
+      for (final ISMPTransportProfile aTP : SMPMetaManager.getTransportProfileMgr ()
+                                                          .getAllSMPTransportProfiles ()
+                                                          .getSortedInline (Comparator.comparing (IHasName::getName)))
+        aTPSelect.addOption (aTP.getID (), HCSMPTransportProfileSelect.getDisplayName (aTP, aDisplayLocale));
+      aForm.addFormGroup (new BootstrapFormGroup ().setLabel ("Transport profile").setCtrl (aTPSelect));
+
+      aForm.addFormGroup (new BootstrapFormGroup ().setLabel ("Endpoint URL")
+                                                   .setCtrl (new HCEdit (new RequestField (FIELD_FILTER_ENDPOINT_URL)))
+                                                   .setHelpText ("Only endpoints with an URL starting with this text are shown (case sensitive)"));
+      aForm.addFormGroup (new BootstrapFormGroup ().setLabel ("Certificate")
+                                                   .setCtrl (new HCEdit (new RequestField (FIELD_FILTER_CERTIFICATE)))
+                                                   .setHelpText ("Only endpoints with a Base64 encoded certificate containing this text are shown (case sensitive)"));
+
+      final BootstrapButtonToolbar aFormToolbar = aForm.addAndReturnChild (getUIHandler ().createToolbar (aWPEC));
+      aFormToolbar.addSubmitButton ("Filter", EDefaultIcon.MAGNIFIER);
+      if (aFilter.hasAnyCriteria ())
+        aFormToolbar.addButton ("Reset filter", aWPEC.getSelfHref (), EDefaultIcon.NO);
     }
 
+    // The rows are loaded page by page via AJAX in a fixed order
+    final HCTable aTable = new HCTable (new DTCol ("Service group").setOrderable (false),
+                                        new DTCol ("Document type ID").setOrderable (false),
+                                        new DTCol ("Process ID").setOrderable (false),
+                                        new DTCol ("Transport profile").setOrderable (false),
+                                        new DTCol ("Endpoint URL").setOrderable (false),
+                                        new BootstrapDTColAction (aDisplayLocale)).setID (getID ());
+
+    // Pass the filter criteria to the AJAX function
+    final SimpleURL aAjaxURL = AJAX_LIST.getInvocationURL (aRequestScope);
+    if (aFilter.getTransportProfile () != null)
+      aAjaxURL.add (FIELD_FILTER_TRANSPORT_PROFILE, aFilter.getTransportProfile ());
+    if (aFilter.getEndpointReferencePrefix () != null)
+      aAjaxURL.add (FIELD_FILTER_ENDPOINT_URL, aFilter.getEndpointReferencePrefix ());
+    if (aFilter.getCertificatePart () != null)
+      aAjaxURL.add (FIELD_FILTER_CERTIFICATE, aFilter.getCertificatePart ());
+
     final DataTables aDataTables = BootstrapDataTables.createDefaultDataTables (aWPEC, aTable);
+    // Use the paging AJAX function instead of the generic one
+    aDataTables.setAjaxBuilder (new JQueryAjaxBuilder ().url (aAjaxURL)).setLengthMenu (LENGTH_MENU);
     aNodeList.addChild (aTable).addChild (aDataTables);
   }
 }
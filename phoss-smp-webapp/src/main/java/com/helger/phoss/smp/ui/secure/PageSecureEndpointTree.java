@@ -16,15 +16,23 @@
  */
 package com.helger.phoss.smp.ui.secure;
 
+import java.util.Comparator;
+
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.collection.attr.StringMap;
 import com.helger.commons.collection.impl.CommonsArrayList;
-import com.helger.commons.collection.impl.CommonsHashMap;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.compare.ESortOrder;
+import com.helger.commons.id.factory.GlobalIDFactory;
+import com.helger.commons.string.StringHelper;
 import com.helger.commons.url.ISimpleURL;
+import com.helger.commons.url.SimpleURL;
+import com.helger.html.hc.IHCNode;
+import com.helger.html.hc.html.forms.HCEdit;
 import com.helger.html.hc.html.grouping.HCDiv;
 import com.helger.html.hc.html.grouping.HCLI;
 import com.helger.html.hc.html.grouping.HCUL;
@@ -33,8 +41,15 @@ import com.helger.html.hc.html.tabular.HCRow;
 import com.helger.html.hc.html.textlevel.HCA;
 import com.helger.html.hc.impl.HCNodeList;
 import com.helger.html.hc.impl.HCTextNode;
+import com.helger.html.jquery.JQuery;
+import com.helger.html.jquery.JQueryAjaxBuilder;
+import com.helger.html.jscode.JSAnonymousFunction;
+import com.helger.html.jscode.JSAssocArray;
+import com.helger.html.jscode.JSPackage;
+import com.helger.html.jscode.JSVar;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.SimpleIdentifierFactory;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -42,29 +57,273 @@ import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformationCount;
 import com.helger.phoss.smp.nicename.NiceNameUI;
 import com.helger.phoss.smp.rest.SMPRestFilter;
+import com.helger.phoss.smp.ui.ajax.CAjax;
+import com.helger.photon.ajax.decl.IAjaxFunctionDeclaration;
+import com.helger.photon.app.PhotonUnifiedResponse;
 import com.helger.photon.app.url.LinkHelper;
+import com.helger.photon.bootstrap4.badge.BootstrapBadge;
+import com.helger.photon.bootstrap4.badge.EBootstrapBadgeType;
+import com.helger.photon.bootstrap4.button.BootstrapButton;
+import com.helger.photon.bootstrap4.button.EBootstrapButtonSize;
 import com.helger.photon.bootstrap4.buttongroup.BootstrapButtonToolbar;
+import com.helger.photon.bootstrap4.form.BootstrapForm;
+import com.helger.photon.bootstrap4.form.BootstrapFormGroup;
 import com.helger.photon.bootstrap4.table.BootstrapTable;
+import com.helger.photon.core.execcontext.ILayoutExecutionContext;
+import com.helger.photon.core.execcontext.LayoutExecutionContext;
+import com.helger.photon.core.form.RequestField;
 import com.helger.photon.uicore.css.CPageParam;
 import com.helger.photon.uicore.icon.EDefaultIcon;
+import com.helger.photon.uicore.js.JSJQueryHelper;
 import com.helger.photon.uicore.page.WebPageExecutionContext;
 import com.helger.photon.uictrls.famfam.EFamFamIcon;
 
 /**
  * Class to manage endpoints that belong to a service group. To use this page at
- * least one service group must exist.
+ * least one service group must exist.<br>
+ * The service groups are shown page by page. The document types of a service
+ * group and the processes and endpoints of a document type are only loaded via
+ * AJAX when they are expanded.
  *
  * @author Philip Helger
  */
 public final class PageSecureEndpointTree extends AbstractPageSecureEndpoint
 {
+  private static final String FIELD_FILTER = "filter";
+  private static final String PARAM_PAGE = "page";
+  private static final String PARAM_SERVICE_GROUP_ID = "sgid";
+  private static final String PARAM_DOCTYPE_ID = "doctypeid";
+
+  /** The number of service groups shown per page */
+  private static final int SERVICE_GROUPS_PER_PAGE = 50;
+
+  private static final IAjaxFunctionDeclaration AJAX_DOCUMENT_TYPES;
+  private static final IAjaxFunctionDeclaration AJAX_PROCESSES;
+
+  static
+  {
+    // Ensure they can only be accessed by logged in users
+    AJAX_DOCUMENT_TYPES = CAjax.addAjaxWithLogin ( (aRequestScope, aAjaxResponse) -> {
+      final LayoutExecutionContext aLEC = LayoutExecutionContext.createForAjaxOrAction (aRequestScope);
+      final ISMPServiceGroup aServiceGroup = _getServiceGroup (aLEC);
+
+      // Build the HTML response
+      aAjaxResponse.html (aServiceGroup == null ? _createNotFound ("The service group does not exist anymore.")
+                                                : _createDocumentTypeList (aLEC, aServiceGroup));
+    });
+    AJAX_PROCESSES = CAjax.addAjaxWithLogin ( (aRequestScope, aAjaxResponse) -> {
+      final LayoutExecutionContext aLEC = LayoutExecutionContext.createForAjaxOrAction (aRequestScope);
+      final ISMPServiceGroup aServiceGroup = _getServiceGroup (aLEC);
+      final IDocumentTypeIdentifier aDocTypeID = SimpleIdentifierFactory.INSTANCE.parseDocumentTypeIdentifier (aLEC.params ()
+                                                                                                                 .getAsString (PARAM_DOCTYPE_ID));
+      final ISMPServiceInformation aServiceInfo = SMPMetaManager.getServiceInformationMgr ()
+                                                                .getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                                                        aDocTypeID);
+
+      // Build the HTML response
+      aAjaxResponse.html (aServiceInfo == null ? _createNotFound ("The document type does not exist anymore.")
+                                               : _createProcessList (aLEC, aServiceInfo));
+    });
+  }
+
   public PageSecureEndpointTree (@Nonnull @Nonempty final String sID)
   {
     super (sID, "Endpoint Tree");
   }
 
+  @Nullable
+  private static ISMPServiceGroup _getServiceGroup (@Nonnull final ILayoutExecutionContext aLEC)
+  {
+    // Important to use the Simple IDF here, in case rules get more strict
+    final IParticipantIdentifier aParticipantID = SimpleIdentifierFactory.INSTANCE.parseParticipantIdentifier (aLEC.params ()
+                                                                                                                  .getAsString (PARAM_SERVICE_GROUP_ID));
+    return SMPMetaManager.getServiceGroupMgr ().getSMPServiceGroupOfID (aParticipantID);
+  }
+
+  @Nonnull
+  private static IHCNode _createNotFound (@Nonnull final String sMsg)
+  {
+    return new BootstrapBadge (EBootstrapBadgeType.WARNING).addChild (sMsg);
+  }
+
+  @Nonnull
+  private static ISimpleURL _createPreviewURL (@Nonnull final IParticipantIdentifier aParticipantID,
+                                               @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    return LinkHelper.getURLWithServerAndContext (aParticipantID.getURIPercentEncoded () +
+                                                  SMPRestFilter.PATH_SERVICES +
+                                                  aDocTypeID.getURIPercentEncoded ());
+  }
+
+  /**
+   * Create a button that loads the children via AJAX into a container below
+   * it. The button is removed after the children were loaded.
+   *
+   * @param sText
+   *        The button text. May neither be <code>null</code> nor empty.
+   * @param aAjaxURL
+   *        The URL of the AJAX function that returns the HTML of the children.
+   *        May not be <code>null</code>.
+   * @return The button and the container. Never <code>null</code>.
+   */
+  @Nonnull
+  private static IHCNode _createLazyChildren (@Nonnull @Nonempty final String sText,
+                                              @Nonnull final ISimpleURL aAjaxURL)
+  {
+    final String sButtonID = GlobalIDFactory.getNewStringID ();
+    final String sContainerID = GlobalIDFactory.getNewStringID ();
+
+    final JSAnonymousFunction aJSSuccess = new JSAnonymousFunction ();
+    final JSVar aJSData = aJSSuccess.param ("data");
+    aJSSuccess.body ().add (JQuery.idRef (sButtonID).remove ());
+    aJSSuccess.body ()
+              .add (JQuery.idRef (sContainerID).append (aJSData.ref (PhotonUnifiedResponse.HtmlHelper.PROPERTY_HTML)));
+
+    final JSPackage aOnClick = new JSPackage ();
+    aOnClick.add (new JQueryAjaxBuilder ().url (aAjaxURL)
+                                          .data (new JSAssocArray ())
+                                          .success (JSJQueryHelper.jqueryAjaxSuccessHandler (aJSSuccess, null))
+                                          .build ());
+
+    return new HCNodeList ().addChild (new BootstrapButton (EBootstrapButtonSize.SMALL).setID (sButtonID)
+                                                                                      .setIcon (EDefaultIcon.PLUS)
+                                                                                      .addChild (sText)
+                                                                                      .setOnClick (aOnClick))
+                            .addChild (new HCDiv ().setID (sContainerID));
+  }
+
+  @Nonnull
+  private static IHCNode _createDocumentTypeList (@Nonnull final ILayoutExecutionContext aLEC,
+                                                  @Nonnull final ISMPServiceGroup aServiceGroup)
+  {
+    final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+    final IParticipantIdentifier aParticipantID = aServiceGroup.getParticipantIdentifier ();
+
+    final HCUL aULDT = new HCUL ();
+    for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesOfServiceGroup (aServiceGroup)
+                                                                   .getSortedInline (Comparator.comparing (IDocumentTypeIdentifier::getURIEncoded)))
+    {
+      // Show document type, the processes are loaded on demand
+      final HCLI aLI = aULDT.addItem ();
+      aLI.addChild (new HCDiv ().addChild (NiceNameUI.getDocumentTypeID (aDocTypeID, false))
+                                .addChild (" ")
+                                .addChild (new HCA (_createPreviewURL (aParticipantID,
+                                                                       aDocTypeID)).setTitle ("Perform SMP query on document type ")
+                                                                                   .setTargetBlank ()
+                                                                                   .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ())));
+      aLI.addChild (_createLazyChildren ("Show processes",
+                                         AJAX_PROCESSES.getInvocationURL (aLEC.getRequestScope ())
+                                                       .add (PARAM_SERVICE_GROUP_ID, aParticipantID.getURIEncoded ())
+                                                       .add (PARAM_DOCTYPE_ID, aDocTypeID.getURIEncoded ())));
+    }
+    return aULDT;
+  }
+
+  @Nonnull
+  private static IHCNode _createProcessList (@Nonnull final ILayoutExecutionContext aLEC,
+                                             @Nonnull final ISMPServiceInformation aServiceInfo)
+  {
+    final IParticipantIdentifier aParticipantID = aServiceInfo.getServiceGroup ().getParticipantIdentifier ();
+    final IDocumentTypeIdentifier aDocTypeID = aServiceInfo.getDocumentTypeIdentifier ();
+
+    final ICommonsList <ISMPProcess> aProcesses = aServiceInfo.getAllProcesses ().getSortedInline (ISMPProcess.comparator ());
+    if (aProcesses.isEmpty ())
+    {
+      return new HCA (aLEC.getLinkToMenuItem (CMenuSecure.MENU_ENDPOINT_TREE)
+                          .addAll (createParamMap (aServiceInfo, (ISMPProcess) null, (ISMPEndpoint) null))
+                          .add (CPageParam.PARAM_ACTION, ACTION_DELETE_DOCUMENT_TYPE)).setTitle ("Delete document type")
+                                                                                      .addChild (EDefaultIcon.DELETE.getAsNode ());
+    }
+
+    final HCUL aULP = new HCUL ();
+    for (final ISMPProcess aProcess : aProcesses)
+    {
+      final BootstrapTable aEPTable = new BootstrapTable (HCCol.perc (40), HCCol.perc (40), HCCol.perc (20)).setBordered (true);
+      final ICommonsList <ISMPEndpoint> aEndpoints = aProcess.getAllEndpoints ().getSortedInline (ISMPEndpoint.comparator ());
+      for (final ISMPEndpoint aEndpoint : aEndpoints)
+      {
+        final StringMap aParams = createParamMap (aServiceInfo, aProcess, aEndpoint);
+
+        final HCRow aBodyRow = aEPTable.addBodyRow ();
+
+        final String sTransportProfile = aEndpoint.getTransportProfile ();
+        final ISimpleURL aViewURL = createEndpointURL (aLEC,
+                                                       CMenuSecure.MENU_ENDPOINT_TREE,
+                                                       CPageParam.ACTION_VIEW,
+                                                       aParticipantID,
+                                                       aDocTypeID,
+                                                       aParams);
+        aBodyRow.addCell (new HCA (aViewURL).addChild (NiceNameUI.getTransportProfile (sTransportProfile, false)));
+
+        aBodyRow.addCell (aEndpoint.getEndpointReference ());
+
+        final ISimpleURL aEditURL = createEndpointURL (aLEC,
+                                                       CMenuSecure.MENU_ENDPOINT_TREE,
+                                                       CPageParam.ACTION_EDIT,
+                                                       aParticipantID,
+                                                       aDocTypeID,
+                                                       aParams);
+        final ISimpleURL aCopyURL = createEndpointURL (aLEC,
+                                                       CMenuSecure.MENU_ENDPOINT_TREE,
+                                                       CPageParam.ACTION_COPY,
+                                                       aParticipantID,
+                                                       aDocTypeID,
+                                                       aParams);
+        final ISimpleURL aDeleteURL = createEndpointURL (aLEC,
+                                                         CMenuSecure.MENU_ENDPOINT_TREE,
+                                                         CPageParam.ACTION_DELETE,
+                                                         aParticipantID,
+                                                         aDocTypeID,
+                                                         aParams);
+        final ISimpleURL aPreviewURL = _createPreviewURL (aParticipantID, aDocTypeID);
+        aBodyRow.addAndReturnCell (new HCA (aViewURL).setTitle ("View endpoint")
+                                                     .addChild (EDefaultIcon.MAGNIFIER.getAsNode ()),
+                                   new HCTextNode (" "),
+                                   new HCA (aEditURL).setTitle ("Edit endpoint").addChild (EDefaultIcon.EDIT.getAsNode ()),
+                                   new HCTextNode (" "),
+                                   new HCA (aCopyURL).setTitle ("Copy endpoint").addChild (EDefaultIcon.COPY.getAsNode ()),
+                                   new HCTextNode (" "),
+                                   new HCA (aDeleteURL).setTitle ("Delete endpoint")
+                                                       .addChild (EDefaultIcon.DELETE.getAsNode ()),
+                                   new HCTextNode (" "),
+                                   new HCA (aPreviewURL).setTitle ("Perform SMP query on endpoint")
+                                                        .setTargetBlank ()
+                                                        .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ()))
+                .addClass (CSS_CLASS_RIGHT);
+      }
+
+      // Show process + endpoints
+      final HCLI aLI = aULP.addItem ();
+      final HCDiv aDiv = new HCDiv ().addChild (NiceNameUI.getProcessID (aDocTypeID, aProcess.getProcessIdentifier (), false));
+      aLI.addChild (aDiv);
+      if (aEndpoints.isEmpty ())
+      {
+        aDiv.addChild (" ")
+            .addChild (new HCA (aLEC.getLinkToMenuItem (CMenuSecure.MENU_ENDPOINT_TREE)
+                                    .addAll (createParamMap (aServiceInfo, aProcess, (ISMPEndpoint) null))
+                                    .add (CPageParam.PARAM_ACTION, ACTION_DELETE_PROCESS)).setTitle ("Delete process")
+                                                                                          .addChild (EDefaultIcon.DELETE.getAsNode ()));
+      }
+      else
+        aLI.addChild (aEPTable);
+    }
+    return aULP;
+  }
+
+  @Nonnull
+  private static SimpleURL _createPageURL (@Nonnull final WebPageExecutionContext aWPEC,
+                                           @Nullable final String sFilterText,
+                                           final long nPage)
+  {
+    final SimpleURL ret = aWPEC.getSelfHref ().add (PARAM_PAGE, Long.toString (nPage));
+    if (StringHelper.hasText (sFilterText))
+      ret.add (FIELD_FILTER, sFilterText);
+    return ret;
+  }
+
   @Override
   protected void showListOfExistingObjects (@Nonnull final WebPageExecutionContext aWPEC)
   {
@@ -72,20 +331,39 @@ public final class PageSecureEndpointTree extends AbstractPageSecureEndpoint
     final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
     final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
 
+    final String sFilterText = StringHelper.trim (aWPEC.params ().getAsString (FIELD_FILTER));
+    final long nTotalCount = aServiceGroupMgr.getSMPServiceGroupCount (sFilterText);
+    final long nPageCount = Math.max ((nTotalCount + SERVICE_GROUPS_PER_PAGE - 1) / SERVICE_GROUPS_PER_PAGE, 1);
+    final long nPage = Math.min (Math.max (aWPEC.params ().getAsLong (PARAM_PAGE, 0), 0), nPageCount - 1);
+
     final BootstrapButtonToolbar aToolbar = new BootstrapButtonToolbar (aWPEC);
     aToolbar.addButton ("Create new Endpoint", createCreateURL (aWPEC), EDefaultIcon.NEW);
     aToolbar.addButton ("Refresh", aWPEC.getSelfHref (), EDefaultIcon.REFRESH);
     aToolbar.addButton ("List view", aWPEC.getLinkToMenuItem (CMenuSecure.MENU_ENDPOINT_LIST), EDefaultIcon.MAGNIFIER);
     aNodeList.addChild (aToolbar);
 
-    // Create list of service groups
-    final ICommonsMap <ISMPServiceGroup, ICommonsList <ISMPServiceInformation>> aMap = new CommonsHashMap <> ();
-    aServiceInfoMgr.getAllSMPServiceInformation ()
-                   .forEach (x -> aMap.computeIfAbsent (x.getServiceGroup (), k -> new CommonsArrayList <> ()).add (x));
+    {
+      final BootstrapForm aForm = aNodeList.addAndReturnChild (getUIHandler ().createFormSelf (aWPEC));
+      aForm.addFormGroup (new BootstrapFormGroup ().setLabel ("Service group")
+                                                   .setCtrl (new HCEdit (new RequestField (FIELD_FILTER)))
+                                                   .setHelpText ("Only service groups with a participant ID or owner containing this text are shown"));
+      final BootstrapButtonToolbar aFormToolbar = aForm.addAndReturnChild (getUIHandler ().createToolbar (aWPEC));
+      aFormToolbar.addSubmitButton ("Filter", EDefaultIcon.MAGNIFIER);
+      if (StringHelper.hasText (sFilterText))
+        aFormToolbar.addButton ("Reset filter", aWPEC.getSelfHref (), EDefaultIcon.NO);
+    }
+
+    // Load only the service groups of the current page and aggregate the
+    // counts of them at once
+    final ICommonsList <ISMPServiceGroup> aServiceGroups = new CommonsArrayList <> ();
+    aServiceGroupMgr.forEachSMPServiceGroup (sFilterText,
+                                             ESortOrder.ASCENDING,
+                                             nPage * SERVICE_GROUPS_PER_PAGE,
+                                             SERVICE_GROUPS_PER_PAGE,
+                                             aServiceGroups::add);
+    final ICommonsMap <String, SMPServiceInformationCount> aCounts = aServiceInfoMgr.getServiceInformationCountOfServiceGroups (aServiceGroups);
 
     final HCUL aULSG = new HCUL ();
-    final ICommonsList <ISMPServiceGroup> aServiceGroups = aServiceGroupMgr.getAllSMPServiceGroups ()
-                                                                           .getSortedInline (ISMPServiceGroup.comparator ());
     for (final ISMPServiceGroup aServiceGroup : aServiceGroups)
     {
       // Print service group
@@ -93,110 +371,41 @@ public final class PageSecureEndpointTree extends AbstractPageSecureEndpoint
       final HCLI aLISG = aULSG.addAndReturnItem (new HCA (createViewURL (aWPEC,
                                                                          CMenuSecure.MENU_SERVICE_GROUPS,
                                                                          aServiceGroup)).addChild (aParticipantID.getURIEncoded ()));
-      final HCUL aULDT = new HCUL ();
 
-      final ICommonsList <ISMPServiceInformation> aServiceInfos = aMap.get (aServiceGroup);
-      if (aServiceInfos != null)
-      {
-        for (final ISMPServiceInformation aServiceInfo : aServiceInfos.getSortedInline (ISMPServiceInformation.comparator ()))
-        {
-          final HCUL aULP = new HCUL ();
-          final IDocumentTypeIdentifier aDocTypeID = aServiceInfo.getDocumentTypeIdentifier ();
-
-          final ICommonsList <ISMPProcess> aProcesses = aServiceInfo.getAllProcesses ()
-                                                                    .getSortedInline (ISMPProcess.comparator ());
-          for (final ISMPProcess aProcess : aProcesses)
-          {
-            final BootstrapTable aEPTable = new BootstrapTable (HCCol.perc (40),
-                                                                HCCol.perc (40),
-                                                                HCCol.perc (20)).setBordered (true);
-            final ICommonsList <ISMPEndpoint> aEndpoints = aProcess.getAllEndpoints ()
-                                                                   .getSortedInline (ISMPEndpoint.comparator ());
-            for (final ISMPEndpoint aEndpoint : aEndpoints)
-            {
-              final StringMap aParams = createParamMap (aServiceInfo, aProcess, aEndpoint);
-
-              final HCRow aBodyRow = aEPTable.addBodyRow ();
-
-              final String sTransportProfile = aEndpoint.getTransportProfile ();
-              final ISimpleURL aViewURL = createViewURL (aWPEC, aServiceInfo, aParams);
-              aBodyRow.addCell (new HCA (aViewURL).addChild (NiceNameUI.getTransportProfile (sTransportProfile,
-                                                                                             false)));
-
-              aBodyRow.addCell (aEndpoint.getEndpointReference ());
-
-              final ISimpleURL aEditURL = createEditURL (aWPEC, aServiceInfo).addAll (aParams);
-              final ISimpleURL aCopyURL = createCopyURL (aWPEC, aServiceInfo).addAll (aParams);
-              final ISimpleURL aDeleteURL = createDeleteURL (aWPEC, aServiceInfo).addAll (aParams);
-              final ISimpleURL aPreviewURL = LinkHelper.getURLWithServerAndContext (aParticipantID.getURIPercentEncoded () +
-                                                                                    SMPRestFilter.PATH_SERVICES +
-                                                                                    aDocTypeID.getURIPercentEncoded ());
-              aBodyRow.addAndReturnCell (new HCA (aViewURL).setTitle ("View endpoint")
-                                                           .addChild (EDefaultIcon.MAGNIFIER.getAsNode ()),
-                                         new HCTextNode (" "),
-                                         new HCA (aEditURL).setTitle ("Edit endpoint")
-                                                           .addChild (EDefaultIcon.EDIT.getAsNode ()),
-                                         new HCTextNode (" "),
-                                         new HCA (aCopyURL).setTitle ("Copy endpoint")
-                                                           .addChild (EDefaultIcon.COPY.getAsNode ()),
-                                         new HCTextNode (" "),
-                                         new HCA (aDeleteURL).setTitle ("Delete endpoint")
-                                                             .addChild (EDefaultIcon.DELETE.getAsNode ()),
-                                         new HCTextNode (" "),
-                                         new HCA (aPreviewURL).setTitle ("Perform SMP query on endpoint")
-                                                              .setTargetBlank ()
-                                                              .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ()))
-                      .addClass (CSS_CLASS_RIGHT);
-            }
-
-            // Show process + endpoints
-            final HCLI aLI = aULP.addItem ();
-            final HCDiv aDiv = div (NiceNameUI.getProcessID (aDocTypeID, aProcess.getProcessIdentifier (), false));
-            aLI.addChild (aDiv);
-            if (aEndpoints.isEmpty ())
-            {
-              aDiv.addChild (" ")
-                  .addChild (new HCA (aWPEC.getSelfHref ()
-                                           .addAll (createParamMap (aServiceInfo, aProcess, (ISMPEndpoint) null))
-                                           .add (CPageParam.PARAM_ACTION, ACTION_DELETE_PROCESS))
-                                                                                                 .setTitle ("Delete process")
-                                                                                                 .addChild (EDefaultIcon.DELETE.getAsNode ()));
-            }
-            else
-              aLI.addChild (aEPTable);
-          }
-
-          // Show document types + children
-          final HCLI aLI = aULDT.addItem ();
-          final HCDiv aDiv = div ().addChild (NiceNameUI.getDocumentTypeID (aServiceInfo.getDocumentTypeIdentifier (),
-                                                                            false))
-                                   .addChild (" ")
-                                   .addChild (new HCA (LinkHelper.getURLWithServerAndContext (aParticipantID.getURIPercentEncoded () +
-                                                                                              SMPRestFilter.PATH_SERVICES +
-                                                                                              aDocTypeID.getURIPercentEncoded ())).setTitle ("Perform SMP query on document type ")
-                                                                                                                                  .setTargetBlank ()
-                                                                                                                                  .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ()));
-          aLI.addChild (aDiv);
-          if (aProcesses.isEmpty ())
-          {
-            aDiv.addChild (" ")
-                .addChild (new HCA (aWPEC.getSelfHref ()
-                                         .addAll (createParamMap (aServiceInfo,
-                                                                  (ISMPProcess) null,
-                                                                  (ISMPEndpoint) null))
-                                         .add (CPageParam.PARAM_ACTION, ACTION_DELETE_DOCUMENT_TYPE))
-                                                                                                     .setTitle ("Delete document type")
-                                                                                                     .addChild (EDefaultIcon.DELETE.getAsNode ()));
-          }
-          else
-            aLI.addChild (aULP);
-        }
-      }
-      if (aServiceInfos == null || aServiceInfos.isEmpty () || aULDT.hasNoChildren ())
+      final SMPServiceInformationCount aCount = aCounts.getOrDefault (aServiceGroup.getID (),
+                                                                      SMPServiceInformationCount.EMPTY);
+      if (aCount.getDocumentTypeCount () == 0)
         aLISG.addChild (" ").addChild (badgeInfo ("This service group has no assigned endpoints!"));
       else
-        aLISG.addChild (aULDT);
+      {
+        // The document types are loaded on demand
+        aLISG.addChild (" ")
+             .addChild (badgeInfo (aCount.getDocumentTypeCount () +
+                                   " document type(s), " +
+                                   aCount.getProcessCount () +
+                                   " process(es), " +
+                                   aCount.getEndpointCount () +
+                                   " endpoint(s)"));
+        aLISG.addChild (_createLazyChildren ("Show document types",
+                                             AJAX_DOCUMENT_TYPES.getInvocationURL (aWPEC.getRequestScope ())
+                                                                .add (PARAM_SERVICE_GROUP_ID,
+                                                                      aParticipantID.getURIEncoded ())));
+      }
     }
     aNodeList.addChild (aULSG);
+
+    if (nPageCount > 1)
+    {
+      // Paging
+      final BootstrapButtonToolbar aPagingToolbar = new BootstrapButtonToolbar (aWPEC);
+      aPagingToolbar.addAndReturnButton ("Previous page",
+                                         _createPageURL (aWPEC, sFilterText, nPage - 1),
+                                         EDefaultIcon.BACK)
+                    .setDisabled (nPage == 0);
+      aPagingToolbar.addChild (" Page " + (nPage + 1) + " of " + nPageCount + " (" + nTotalCount + " service groups) ");
+      aPagingToolbar.addAndReturnButton ("Next page", _createPageURL (aWPEC, sFilterText, nPage + 1), null)
+                    .setDisabled (nPage >= nPageCount - 1);
+      aNodeList.addChild (aPagingToolbar);
+    }
   }
 }
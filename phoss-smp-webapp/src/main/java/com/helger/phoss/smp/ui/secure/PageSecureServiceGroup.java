@@ -30,13 +30,14 @@ import org.slf4j.LoggerFactory;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.WorkInProgress;
 import com.helger.commons.collection.attr.StringMap;
+import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsMap;
 import com.helger.commons.compare.ESortOrder;
 import com.helger.commons.state.EValidity;
 import com.helger.commons.state.IValidityIndicator;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.timing.StopWatch;
-import com.helger.commons.url.ISimpleURL;
 import com.helger.commons.url.SimpleURL;
 import com.helger.dns.ip.IPV4Addr;
 import com.helger.html.hc.IHCNode;
@@ -50,6 +51,12 @@ import com.helger.html.hc.html.textlevel.HCCode;
 import com.helger.html.hc.html.textlevel.HCEM;
 import com.helger.html.hc.impl.HCNodeList;
 import com.helger.html.hc.impl.HCTextNode;
+import com.helger.html.hc.render.HCRenderer;
+import com.helger.html.jquery.JQueryAjaxBuilder;
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonArray;
+import com.helger.json.JsonObject;
 import com.helger.network.port.NetworkOnlineStatusDeterminator;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.factory.IIdentifierFactory;
@@ -63,8 +70,8 @@ import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardEntity;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
-import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformationCount;
 import com.helger.phoss.smp.exception.SMPServerException;
 import com.helger.phoss.smp.settings.ISMPSettings;
 import com.helger.phoss.smp.smlhook.IRegistrationHook;
@@ -72,7 +79,11 @@ import com.helger.phoss.smp.smlhook.RegistrationHookException;
 import com.helger.phoss.smp.smlhook.RegistrationHookFactory;
 import com.helger.phoss.smp.ui.AbstractSMPWebPageForm;
 import com.helger.phoss.smp.ui.SMPCommonUI;
+import com.helger.phoss.smp.ui.ajax.AbstractSMPAjaxExecutor;
+import com.helger.phoss.smp.ui.ajax.CAjax;
 import com.helger.phoss.smp.ui.secure.hc.HCUserSelect;
+import com.helger.photon.ajax.decl.IAjaxFunctionDeclaration;
+import com.helger.photon.app.PhotonUnifiedResponse;
 import com.helger.photon.app.url.LinkHelper;
 import com.helger.photon.bootstrap4.alert.BootstrapQuestionBox;
 import com.helger.photon.bootstrap4.badge.BootstrapBadge;
@@ -91,6 +102,8 @@ import com.helger.photon.bootstrap4.pages.handler.AbstractBootstrapWebPageAction
 import com.helger.photon.bootstrap4.uictrls.datatables.BootstrapDTColAction;
 import com.helger.photon.bootstrap4.uictrls.datatables.BootstrapDataTables;
 import com.helger.photon.core.EPhotonCoreText;
+import com.helger.photon.core.execcontext.ILayoutExecutionContext;
+import com.helger.photon.core.execcontext.LayoutExecutionContext;
 import com.helger.photon.core.form.FormErrorList;
 import com.helger.photon.core.form.RequestField;
 import com.helger.photon.security.login.LoggedInUserManager;
@@ -103,6 +116,7 @@ import com.helger.photon.uicore.page.EShowList;
 import com.helger.photon.uicore.page.EWebPageFormAction;
 import com.helger.photon.uicore.page.WebPageExecutionContext;
 import com.helger.photon.uictrls.datatables.DataTables;
+import com.helger.photon.uictrls.datatables.DataTablesLengthMenu;
 import com.helger.photon.uictrls.datatables.column.DTCol;
 import com.helger.photon.uictrls.datatables.column.EDTColType;
 import com.helger.photon.uictrls.famfam.EFamFamIcon;
@@ -127,6 +141,33 @@ public final class PageSecureServiceGroup extends AbstractSMPWebPageForm <ISMPSe
   private static final String ACTION_REGISTER_TO_SML = "register-to-sml";
   private static final String ACTION_UNREGISTER_FROM_SML = "unregister-from-sml";
 
+  // Parameters of the DataTables server-side processing protocol
+  private static final String PARAM_DT_DRAW = "draw";
+  private static final String PARAM_DT_START = "start";
+  private static final String PARAM_DT_LENGTH = "length";
+  private static final String PARAM_DT_SEARCH_VALUE = "search[value]";
+  private static final String PARAM_DT_ORDER_DIR = "order[0][dir]";
+
+  /** The maximum number of service groups returned by a single AJAX call */
+  private static final int MAX_ROWS_PER_REQUEST = 100;
+  private static final DataTablesLengthMenu LENGTH_MENU = new DataTablesLengthMenu ().addItem (25).addItem (50).addItem (MAX_ROWS_PER_REQUEST);
+
+  private static final IAjaxFunctionDeclaration AJAX_LIST;
+
+  static
+  {
+    // Ensure it can only be accessed by logged in users
+    AJAX_LIST = CAjax.addAjaxWithLogin (new AbstractSMPAjaxExecutor ()
+    {
+      @Override
+      protected void mainHandleRequest (@Nonnull final LayoutExecutionContext aLEC,
+                                        @Nonnull final PhotonUnifiedResponse aAjaxResponse) throws Exception
+      {
+        aAjaxResponse.json (_getListOfExistingObjectsAsJson (aLEC));
+      }
+    });
+  }
+
   public PageSecureServiceGroup (@Nonnull @Nonempty final String sID)
   {
     super (sID, "Service groups");
@@ -631,11 +672,20 @@ public final class PageSecureServiceGroup extends AbstractSMPWebPageForm <ISMPSe
     }
   }
 
-  @Override
-  protected void showListOfExistingObjects (@Nonnull final WebPageExecutionContext aWPEC)
+  @Nonnull
+  private static SimpleURL _createServiceGroupURL (@Nonnull final ILayoutExecutionContext aLEC,
+                                                   @Nonnull final String sAction,
+                                                   @Nonnull final ISMPServiceGroup aServiceGroup)
   {
-    final Locale aDisplayLocale = aWPEC.getDisplayLocale ();
-    final HCNodeList aNodeList = aWPEC.getNodeList ();
+    return aLEC.getLinkToMenuItem (CMenuSecure.MENU_SERVICE_GROUPS)
+               .add (CPageParam.PARAM_ACTION, sAction)
+               .add (CPageParam.PARAM_OBJECT, aServiceGroup.getID ());
+  }
+
+  @Nonnull
+  private static IJsonObject _getListOfExistingObjectsAsJson (@Nonnull final LayoutExecutionContext aLEC)
+  {
+    final Locale aDisplayLocale = aLEC.getDisplayLocale ();
     final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
     final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
     final ISMPBusinessCardManager aBCMgr = SMPMetaManager.getBusinessCardMgr ();
@@ -644,46 +694,29 @@ public final class PageSecureServiceGroup extends AbstractSMPWebPageForm <ISMPSe
     final boolean bShowExtensionDetails = SMPWebAppConfiguration.isServiceGroupsExtensionsShow ();
     final boolean bShowBusinessCardName = CSMP.ENABLE_ISSUE_56 && aSettings.isDirectoryIntegrationEnabled ();
 
-    final ICommonsList <ISMPServiceGroup> aAllServiceGroups = aServiceGroupMgr.getAllSMPServiceGroups ();
-
-    final BootstrapButtonToolbar aToolbar = new BootstrapButtonToolbar (aWPEC);
-    aToolbar.addButton ("Create new Service group", createCreateURL (aWPEC), EDefaultIcon.NEW);
-    aToolbar.addButton ("Refresh", aWPEC.getSelfHref (), EDefaultIcon.REFRESH);
-    if (aSettings.isSMLRequired () || aSettings.isSMLEnabled ())
-    {
-      // Disable button if no SML URL is configured
-      // Disable button if no service group is present
-      aToolbar.addAndReturnButton ("Check DNS state",
-                                   aWPEC.getSelfHref ().add (CPageParam.PARAM_ACTION, ACTION_CHECK_DNS),
-                                   EDefaultIcon.MAGNIFIER)
-              .setDisabled (aSettings.getSMLDNSZone () == null || aAllServiceGroups.isEmpty () || !aSettings.isSMLEnabled ());
-    }
-    aNodeList.addChild (aToolbar);
-
-    final boolean bShowDetails = aAllServiceGroups.size () <= 1000;
-
-    final HCTable aTable = new HCTable (new DTCol ("Participant ID").setInitialSorting (ESortOrder.ASCENDING),
-                                        new DTCol ("Owner"),
-                                        bShowBusinessCardName ? new DTCol ("Business Card Name") : null,
-                                        new DTCol (span (bShowExtensionDetails ? "Ext" : "Ext?").setTitle ("Is an Extension present?")),
-                                        bShowDetails ? new DTCol (span ("Docs").setTitle ("Number of assigned document types")).setDisplayType (EDTColType.INT,
-                                                                                                                                                aDisplayLocale)
-                                                     : null,
-                                        bShowDetails ? new DTCol (span ("Procs").setTitle ("Number of assigned processes")).setDisplayType (EDTColType.INT,
-                                                                                                                                            aDisplayLocale)
-                                                     : null,
-                                        bShowDetails ? new DTCol (span ("EPs").setTitle ("Number of assigned endpoints")).setDisplayType (EDTColType.INT,
-                                                                                                                                          aDisplayLocale)
-                                                     : null,
-                                        new BootstrapDTColAction (aDisplayLocale)).setID (getID ());
-    for (final ISMPServiceGroup aCurObject : aAllServiceGroups)
+    // DataTables server-side processing parameters
+    final int nDraw = aLEC.params ().getAsInt (PARAM_DT_DRAW, 0);
+    final int nStart = Math.max (aLEC.params ().getAsInt (PARAM_DT_START, 0), 0);
+    int nLength = aLEC.params ().getAsInt (PARAM_DT_LENGTH, MAX_ROWS_PER_REQUEST);
+    if (nLength <= 0 || nLength > MAX_ROWS_PER_REQUEST)
+      nLength = MAX_ROWS_PER_REQUEST;
+    final String sFilterText = StringHelper.trim (aLEC.params ().getAsString (PARAM_DT_SEARCH_VALUE));
+    // Only the participant ID column is orderable
+    final ESortOrder eSortOrder = "desc".equals (aLEC.params ().getAsString (PARAM_DT_ORDER_DIR)) ? ESortOrder.DESCENDING
+                                                                                                  : ESortOrder.ASCENDING;
+
+    // Load only the requested page and aggregate the counts of it at once
+    final ICommonsList <ISMPServiceGroup> aServiceGroups = new CommonsArrayList <> ();
+    aServiceGroupMgr.forEachSMPServiceGroup (sFilterText, eSortOrder, nStart, nLength, aServiceGroups::add);
+    final ICommonsMap <String, SMPServiceInformationCount> aCounts = aServiceInfoMgr.getServiceInformationCountOfServiceGroups (aServiceGroups);
+
+    final IJsonArray aData = new JsonArray ();
+    for (final ISMPServiceGroup aCurObject : aServiceGroups)
     {
-      final ISimpleURL aViewLink = createViewURL (aWPEC, aCurObject);
       final String sDisplayName = aCurObject.getParticipantIdentifier ().getURIEncoded ();
-
-      final HCRow aRow = aTable.addBodyRow ();
-      aRow.addCell (new HCA (aViewLink).addChild (sDisplayName));
-      aRow.addCell (SMPCommonUI.getOwnerName (aCurObject.getOwnerID ()));
+      final ICommonsList <IHCNode> aCells = new CommonsArrayList <> ();
+      aCells.add (new HCA (_createServiceGroupURL (aLEC, CPageParam.ACTION_VIEW, aCurObject)).addChild (sDisplayName));
+      aCells.add (new HCTextNode (SMPCommonUI.getOwnerName (aCurObject.getOwnerID ())));
       if (bShowBusinessCardName)
       {
         IHCNode aName = null;
@@ -694,42 +727,35 @@ public final class PageSecureServiceGroup extends AbstractSMPWebPageForm <ISMPSe
           if (aEntity != null && aEntity.names ().isNotEmpty ())
             aName = HCTextNode.createOnDemand (aEntity.names ().getFirst ().getName ());
         }
-        aRow.addCell (aName);
+        aCells.add (aName);
       }
       if (bShowExtensionDetails)
       {
         if (aCurObject.getExtensions ().extensions ().isNotEmpty ())
-          aRow.addCell (new HCCode ().addChildren (HCExtHelper.nl2divList (aCurObject.getExtensions ().getFirstExtensionXMLString ())));
+          aCells.add (new HCCode ().addChildren (HCExtHelper.nl2divList (aCurObject.getExtensions ().getFirstExtensionXMLString ())));
         else
-          aRow.addCell ();
+          aCells.add (null);
       }
       else
       {
-        aRow.addCell (EPhotonCoreText.getYesOrNo (aCurObject.getExtensions ().extensions ().isNotEmpty (), aDisplayLocale));
+        aCells.add (new HCTextNode (EPhotonCoreText.getYesOrNo (aCurObject.getExtensions ().extensions ().isNotEmpty (), aDisplayLocale)));
       }
 
-      if (bShowDetails)
-      {
-        int nProcesses = 0;
-        int nEndpoints = 0;
-        final ICommonsList <ISMPServiceInformation> aSIs = aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aCurObject);
-        for (final ISMPServiceInformation aSI : aSIs)
-        {
-          nProcesses += aSI.getProcessCount ();
-          nEndpoints += aSI.getTotalEndpointCount ();
-        }
-
-        aRow.addCell (Integer.toString (aSIs.size ()));
-        aRow.addCell (Integer.toString (nProcesses));
-        aRow.addCell (Integer.toString (nEndpoints));
-      }
+      final SMPServiceInformationCount aCount = aCounts.getOrDefault (aCurObject.getID (), SMPServiceInformationCount.EMPTY);
+      aCells.add (new HCTextNode (Integer.toString (aCount.getDocumentTypeCount ())));
+      aCells.add (new HCTextNode (Integer.toString (aCount.getProcessCount ())));
+      aCells.add (new HCTextNode (Integer.toString (aCount.getEndpointCount ())));
 
       final HCNodeList aActions = new HCNodeList ();
-      aActions.addChildren (createEditLink (aWPEC, aCurObject, "Edit " + sDisplayName),
+      aActions.addChildren (new HCA (_createServiceGroupURL (aLEC, CPageParam.ACTION_EDIT, aCurObject)).setTitle ("Edit " + sDisplayName)
+                                                                                                          .addChild (EDefaultIcon.EDIT.getAsNode ()),
                             new HCTextNode (" "),
-                            createCopyLink (aWPEC, aCurObject, "Copy " + sDisplayName),
+                            new HCA (_createServiceGroupURL (aLEC, CPageParam.ACTION_COPY, aCurObject)).setTitle ("Copy " + sDisplayName)
+                                                                                                          .addChild (EDefaultIcon.COPY.getAsNode ()),
                             new HCTextNode (" "),
-                            createDeleteLink (aWPEC, aCurObject, "Delete " + sDisplayName),
+                            new HCA (_createServiceGroupURL (aLEC, CPageParam.ACTION_DELETE, aCurObject)).setTitle ("Delete " +
+                                                                                                                      sDisplayName)
+                                                                                                            .addChild (EDefaultIcon.DELETE.getAsNode ()),
                             new HCTextNode (" "),
                             new HCA (LinkHelper.getURLWithServerAndContext (aCurObject.getParticipantIdentifier ()
                                                                                       .getURIPercentEncoded ())).setTitle ("Perform SMP query on " +
@@ -746,10 +772,67 @@ public final class PageSecureServiceGroup extends AbstractSMPWebPageForm <ISMPSe
                                                                                                                   .setTargetBlank ()
                                                                                                                   .addChild (EFamFamIcon.SCRIPT_LINK.getAsNode ()));
       }
-      aRow.addCell (aActions);
+      aCells.add (aActions);
+
+      final IJsonArray aRow = new JsonArray ();
+      for (final IHCNode aCell : aCells)
+        aRow.add (aCell == null ? "" : HCRenderer.getAsHTMLStringWithoutNamespaces (aCell));
+      aData.add (aRow);
+    }
+
+    return new JsonObject ().add ("draw", nDraw)
+                            .add ("recordsTotal", Math.max (aServiceGroupMgr.getSMPServiceGroupCount (), 0))
+                            .add ("recordsFiltered", aServiceGroupMgr.getSMPServiceGroupCount (sFilterText))
+                            .addJson ("data", aData);
+  }
+
+  @Override
+  protected void showListOfExistingObjects (@Nonnull final WebPageExecutionContext aWPEC)
+  {
+    final Locale aDisplayLocale = aWPEC.getDisplayLocale ();
+    final HCNodeList aNodeList = aWPEC.getNodeList ();
+    final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+    final ISMPSettings aSettings = SMPMetaManager.getSettings ();
+    final boolean bShowExtensionDetails = SMPWebAppConfiguration.isServiceGroupsExtensionsShow ();
+    final boolean bShowBusinessCardName = CSMP.ENABLE_ISSUE_56 && aSettings.isDirectoryIntegrationEnabled ();
+
+    final BootstrapButtonToolbar aToolbar = new BootstrapButtonToolbar (aWPEC);
+    aToolbar.addButton ("Create new Service group", createCreateURL (aWPEC), EDefaultIcon.NEW);
+    aToolbar.addButton ("Refresh", aWPEC.getSelfHref (), EDefaultIcon.REFRESH);
+    if (aSettings.isSMLRequired () || aSettings.isSMLEnabled ())
+    {
+      // Disable button if no SML URL is configured
+      // Disable button if no service group is present
+      aToolbar.addAndReturnButton ("Check DNS state",
+                                   aWPEC.getSelfHref ().add (CPageParam.PARAM_ACTION, ACTION_CHECK_DNS),
+                                   EDefaultIcon.MAGNIFIER)
+              .setDisabled (aSettings.getSMLDNSZone () == null ||
+                            aServiceGroupMgr.getSMPServiceGroupCount () <= 0 ||
+                            !aSettings.isSMLEnabled ());
     }
+    aNodeList.addChild (aToolbar);
+
+    // The rows are loaded page by page via AJAX, so only the participant ID is
+    // orderable
+    final HCTable aTable = new HCTable (new DTCol ("Participant ID").setInitialSorting (ESortOrder.ASCENDING),
+                                        new DTCol ("Owner").setOrderable (false),
+                                        bShowBusinessCardName ? new DTCol ("Business Card Name").setOrderable (false) : null,
+                                        new DTCol (span (bShowExtensionDetails ? "Ext" : "Ext?").setTitle ("Is an Extension present?")).setOrderable (false),
+                                        new DTCol (span ("Docs").setTitle ("Number of assigned document types")).setDisplayType (EDTColType.INT,
+                                                                                                                                aDisplayLocale)
+                                                                                                               .setOrderable (false),
+                                        new DTCol (span ("Procs").setTitle ("Number of assigned processes")).setDisplayType (EDTColType.INT,
+                                                                                                                            aDisplayLocale)
+                                                                                                           .setOrderable (false),
+                                        new DTCol (span ("EPs").setTitle ("Number of assigned endpoints")).setDisplayType (EDTColType.INT,
+                                                                                                                          aDisplayLocale)
+                                                                                                         .setOrderable (false),
+                                        new BootstrapDTColAction (aDisplayLocale)).setID (getID ());
 
     final DataTables aDataTables = BootstrapDataTables.createDefaultDataTables (aWPEC, aTable);
+    // Use the paging AJAX function instead of the generic one
+    aDataTables.setAjaxBuilder (new JQueryAjaxBuilder ().url (AJAX_LIST.getInvocationURL (aWPEC.getRequestScope ())))
+               .setLengthMenu (LENGTH_MENU);
     aNodeList.addChild (aTable).addChild (aDataTables);
   }
 }
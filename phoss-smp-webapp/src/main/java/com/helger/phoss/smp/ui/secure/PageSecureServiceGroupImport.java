@@ -35,6 +35,7 @@ import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.exchange.CSMPExchange;
+import com.helger.phoss.smp.exchange.EImportMode;
 import com.helger.phoss.smp.exchange.ImportActionItem;
 import com.helger.phoss.smp.exchange.ImportSummary;
 import com.helger.phoss.smp.exchange.ServiceGroupImport;
@@ -74,8 +75,10 @@ public final class PageSecureServiceGroupImport extends AbstractSMPWebPage
 {
   private static final String FIELD_IMPORT_FILE = "importfile";
   private static final String FIELD_OVERWRITE_EXISTING = "overwriteexisting";
+  private static final String FIELD_APPLY_CHANGES = "applychanges";
   private static final String FIELD_DEFAULT_OWNER = "defaultowner";
   private static final boolean DEFAULT_OVERWRITE_EXISTING = false;
+  private static final boolean DEFAULT_APPLY_CHANGES = false;
 
   public PageSecureServiceGroupImport (@Nonnull @Nonempty final String sID)
   {
@@ -102,6 +105,7 @@ public final class PageSecureServiceGroupImport extends AbstractSMPWebPage
       // Start import
       final IFileItem aImportFile = aWPEC.params ().getAsFileItem (FIELD_IMPORT_FILE);
       final boolean bOverwriteExisting = aWPEC.params ().isCheckBoxChecked (FIELD_OVERWRITE_EXISTING, DEFAULT_OVERWRITE_EXISTING);
+      final boolean bApplyChanges = aWPEC.params ().isCheckBoxChecked (FIELD_APPLY_CHANGES, DEFAULT_APPLY_CHANGES);
       final String sDefaultOwnerID = aWPEC.params ().getAsString (FIELD_DEFAULT_OWNER);
       final IUser aDefaultOwner = aUserMgr.getActiveUserOfID (sDefaultOwnerID);
 
@@ -130,7 +134,8 @@ public final class PageSecureServiceGroupImport extends AbstractSMPWebPage
             final ICommonsList <ImportActionItem> aActionList = new CommonsArrayList <> ();
             final ImportSummary aImportSummary = new ImportSummary ();
             ServiceGroupImport.importXMLVer10 (aDoc.getDocumentElement (),
-                                               bOverwriteExisting,
+                                               bApplyChanges ? EImportMode.APPLY_CHANGES
+                                                             : EImportMode.getFromOverwriteExisting (bOverwriteExisting),
                                                aDefaultOwner,
                                                aAllServiceGroupIDs,
                                                aAllBusinessCardIDs,
@@ -199,6 +204,13 @@ public final class PageSecureServiceGroupImport extends AbstractSMPWebPage
                                                                SMPWebAppConfiguration.getDirectoryName () +
                                                                " integration is enabled, existing business cards contained in the import are also overwritten!")
                                                  .setErrorList (aFormErrors.getListOfField (FIELD_OVERWRITE_EXISTING)));
+    aForm.addFormGroup (new BootstrapFormGroup ().setLabel ("Only apply changes")
+                                                 .setCtrl (new HCCheckBox (new RequestFieldBoolean (FIELD_APPLY_CHANGES,
+                                                                                                    DEFAULT_APPLY_CHANGES)))
+                                                 .setHelpText ("If this box is checked, existing service groups" +
+                                                               (bHandleBusinessCards ? " and business cards" : "") +
+                                                               " are compared with the import and only the differences are applied. Unchanged elements are not touched. This takes precedence over the overwrite option.")
+                                                 .setErrorList (aFormErrors.getListOfField (FIELD_APPLY_CHANGES)));
     aForm.addFormGroup (new BootstrapFormGroup ().setLabelMandatory ("Owner of the new service groups")
                                                  .setCtrl (new HCUserSelect (new RequestField (FIELD_DEFAULT_OWNER), aDisplayLocale))
                                                  .setHelpText ("This owner is only selected, if the owner contained in the import file is unknown.")
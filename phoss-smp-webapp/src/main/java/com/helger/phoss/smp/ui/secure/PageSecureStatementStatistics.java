@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.ui.secure;
+
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.compare.ESortOrder;
+import com.helger.html.hc.IHCNode;
+import com.helger.html.hc.html.tabular.HCRow;
+import com.helger.html.hc.impl.HCNodeList;
+import com.helger.phoss.smp.statistics.SMPLatencyHistogram;
+import com.helger.phoss.smp.statistics.SMPStatementStatistics;
+import com.helger.phoss.smp.statistics.SMPStatementStatistics.StatementEntry;
+import com.helger.phoss.smp.ui.AbstractSMPWebPage;
+import com.helger.phoss.smp.ui.ajax.CAjax;
+import com.helger.photon.bootstrap4.CBootstrapCSS;
+import com.helger.photon.bootstrap4.button.BootstrapButton;
+import com.helger.photon.bootstrap4.buttongroup.BootstrapButtonToolbar;
+import com.helger.photon.bootstrap4.nav.BootstrapTabBox;
+import com.helger.photon.bootstrap4.table.BootstrapTable;
+import com.helger.photon.bootstrap4.uictrls.datatables.BootstrapDataTables;
+import com.helger.photon.uicore.css.CPageParam;
+import com.helger.photon.uicore.icon.EDefaultIcon;
+import com.helger.photon.uicore.page.WebPageExecutionContext;
+import com.helger.photon.uictrls.datatables.column.DTCol;
+import com.helger.photon.uictrls.datatables.column.EDTColType;
+
+/**
+ * A read-only page that shows the slowest and the most frequent backend
+ * statements, to be able to tune the database indexes.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public final class PageSecureStatementStatistics extends AbstractSMPWebPage
+{
+  private static final String ACTION_RESET = "reset";
+  private static final int TOP = 50;
+
+  public PageSecureStatementStatistics (@Nonnull @Nonempty final String sID)
+  {
+    super (sID, "Statement Statistics");
+  }
+
+  @Nonnull
+  private static String _getMillis (final long nNanos, @Nonnull final Locale aDisplayLocale)
+  {
+    return String.format (aDisplayLocale, "%.3f", Double.valueOf (nNanos / 1_000_000d));
+  }
+
+  @Nonnull
+  private IHCNode _createList (@Nonnull final WebPageExecutionContext aWPEC,
+                               @Nonnull final ICommonsList <StatementEntry> aEntries,
+                               @Nonnull final String sSuffix,
+                               final int nSortColumn)
+  {
+    final Locale aDisplayLocale = aWPEC.getDisplayLocale ();
+    final DTCol [] aCols = new DTCol [] { new DTCol ("Statement").setWidthPerc (50),
+                                          new DTCol ("Executions").setDisplayType (EDTColType.INT, aDisplayLocale),
+                                          new DTCol ("Avg [ms]").setDisplayType (EDTColType.DOUBLE, aDisplayLocale),
+                                          new DTCol ("p95 [ms]").setDisplayType (EDTColType.DOUBLE, aDisplayLocale),
+                                          new DTCol ("Max [ms]").setDisplayType (EDTColType.DOUBLE, aDisplayLocale),
+                                          new DTCol ("Rows").setDisplayType (EDTColType.INT, aDisplayLocale),
+                                          new DTCol ("Errors").setDisplayType (EDTColType.INT, aDisplayLocale) };
+    aCols[nSortColumn].setInitialSorting (ESortOrder.DESCENDING);
+    final BootstrapTable aTable = new BootstrapTable (aCols).setID (getID () + sSuffix);
+    for (final StatementEntry aEntry : aEntries)
+    {
+      final SMPLatencyHistogram aHisto = aEntry.getDurationHistogram ();
+      final HCRow aRow = aTable.addBodyRow ();
+      aRow.addCell (code (aEntry.getStatement ()).addClass (CBootstrapCSS.TEXT_BREAK));
+      aRow.addCell (Long.toString (aEntry.getExecutionCount ()));
+      aRow.addCell (_getMillis (aEntry.getAverageNanos (), aDisplayLocale));
+      aRow.addCell (_getMillis (aHisto.getQuantileNanos (0.95), aDisplayLocale));
+      aRow.addCell (_getMillis (aHisto.getMaxNanos (), aDisplayLocale));
+      aRow.addCell (Long.toString (aEntry.getRowCount ()));
+      aRow.addCell (Long.toString (aEntry.getErrorCount ()));
+    }
+    return new HCNodeList ().addChild (aTable).addChild (BootstrapDataTables.createDefaultDataTables (aWPEC, aTable));
+  }
+
+  @Override
+  protected void fillContent (@Nonnull final WebPageExecutionContext aWPEC)
+  {
+    final HCNodeList aNodeList = aWPEC.getNodeList ();
+    final Locale aDisplayLocale = aWPEC.getDisplayLocale ();
+
+    if (aWPEC.hasAction (ACTION_RESET))
+    {
+      SMPStatementStatistics.reset ();
+      aNodeList.addChild (success ("Successfully reset the statement statistics"));
+    }
+
+    final BootstrapButtonToolbar aToolbar = aNodeList.addAndReturnChild (new BootstrapButtonToolbar (aWPEC));
+    aToolbar.addButton ("Refresh", aWPEC.getSelfHref (), EDefaultIcon.REFRESH);
+    aToolbar.addChild (new BootstrapButton ().addChild ("Reset")
+                                             .setIcon (EDefaultIcon.DELETE)
+                                             .setOnClick (aWPEC.getSelfHref ()
+                                                               .add (CPageParam.PARAM_ACTION, ACTION_RESET)));
+    aToolbar.addButton ("Show as JSON",
+                        CAjax.FUNCTION_STATEMENT_STATISTICS.getInvocationURL (aWPEC.getRequestScope ()),
+                        EDefaultIcon.MAGNIFIER);
+
+    if (!SMPStatementStatistics.hasAnyStatement ())
+    {
+      aNodeList.addChild (info ("No statement statistics are available. They are only collected for the SQL backend if the configuration property ").addChild (code ("jdbc.statistics.enabled"))
+                                                                                                                                                       .addChild (" is set to ")
+                                                                                                                                                       .addChild (code ("true"))
+                                                                                                                                                       .addChild ("."));
+      return;
+    }
+
+    final SMPLatencyHistogram aAcquire = SMPStatementStatistics.getConnectionAcquireHistogram ();
+    aNodeList.addChild (div ("Connection acquisition: " +
+                             aAcquire.getCount () +
+                             " times; p95 " +
+                             _getMillis (aAcquire.getQuantileNanos (0.95), aDisplayLocale) +
+                             " ms; max " +
+                             _getMillis (aAcquire.getMaxNanos (), aDisplayLocale) +
+                             " ms"));
+
+    final BootstrapTabBox aTabBox = aNodeList.addAndReturnChild (new BootstrapTabBox ());
+    aTabBox.addTab ("slowest",
+                    "Slowest (average)",
+                    _createList (aWPEC, SMPStatementStatistics.getTopSlowest (TOP), "slowest", 2));
+    aTabBox.addTab ("frequent",
+                    "Most frequent",
+                    _createList (aWPEC, SMPStatementStatistics.getTopMostFrequent (TOP), "frequent", 1));
+  }
+}
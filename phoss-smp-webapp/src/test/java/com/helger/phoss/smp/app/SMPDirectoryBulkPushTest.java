@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsVector;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.io.file.SimpleFileIO;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.StringHelper;
+import com.helger.json.IJson;
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonObject;
+import com.helger.json.serialize.JsonReader;
+import com.helger.pd.client.PDClient;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.io.WebFileIO;
+
+/**
+ * Test class for class {@link SMPDirectoryBulkPush}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPDirectoryBulkPushTest
+{
+  private static final class MockPDClient extends PDClient
+  {
+    private final Predicate <String> m_aSuccess;
+    private final ICommonsList <String> m_aCalls = new CommonsVector <> ();
+    private final ICommonsList <Long> m_aCallNanos = new CommonsVector <> ();
+    private Runnable m_aOnCall;
+
+    MockPDClient (@Nonnull final Predicate <String> aSuccess)
+    {
+      super (URI.create ("http://localhost:1"));
+      m_aSuccess = aSuccess;
+    }
+
+    @Override
+    public ESuccess addServiceGroupToIndex (@Nonnull final IParticipantIdentifier aParticipantID)
+    {
+      final String sID = aParticipantID.getURIEncoded ();
+      m_aCalls.add (sID);
+      m_aCallNanos.add (Long.valueOf (System.nanoTime ()));
+      if (m_aOnCall != null)
+        m_aOnCall.run ();
+      return ESuccess.valueOf (m_aSuccess.test (sID));
+    }
+  }
+
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Nonnull
+  private static ICommonsList <String> _createIDs (final int nCount)
+  {
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    for (int i = 0; i < nCount; ++i)
+      ret.add (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME +
+               "::9999:bulkpush" +
+               StringHelper.getLeadingZero (i, 4));
+    return ret;
+  }
+
+  private static void _waitUntilFinished (@Nonnull final SMPDirectoryBulkPush aBulkPush) throws InterruptedException
+  {
+    final long nEnd = System.nanoTime () + TimeUnit.SECONDS.toNanos (30);
+    while (aBulkPush.isRunning ())
+    {
+      assertTrue ("Bulk push did not finish in time", System.nanoTime () < nEnd);
+      Thread.sleep (10);
+    }
+  }
+
+  @Nonnull
+  private static ICommonsList <String> _getFailedIDs (@Nonnull final IJsonObject aState)
+  {
+    final IJsonArray aFailedIDs = aState.getAsArray ("failedParticipantIDs");
+    assertNotNull (aFailedIDs);
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    for (final IJson aItem : aFailedIDs)
+      ret.add (aItem.getAsValue ().getAsString ());
+    return ret;
+  }
+
+  @Nonnull
+  private static IJsonObject _readPersistedState ()
+  {
+    final IJsonObject ret = JsonReader.builder ()
+                                      .source (SimpleFileIO.getFileAsString (WebFileIO.getDataIO ()
+                                                                                      .getFile (SMPDirectoryBulkPush.FILENAME),
+                                                                             StandardCharsets.UTF_8))
+                                      .readAsObject ();
+    assertNotNull (ret);
+    return ret;
+  }
+
+  @Test
+  public void testCheckpointAndResume () throws InterruptedException
+  {
+    final ICommonsList <String> aIDs = _createIDs (250);
+    final SMPDirectoryBulkPush aBulkPush = SMPDirectoryBulkPush.getInstance ();
+
+    // Cancel while the second chunk is in progress
+    final MockPDClient aClient1 = new MockPDClient (x -> true);
+    aClient1.m_aOnCall = () -> {
+      if (aClient1.m_aCalls.size () == 150)
+        aBulkPush.cancel ();
+    };
+    assertTrue (aBulkPush.start ("junit", false, aClient1, aIDs::getClone).isSuccess ());
+    _waitUntilFinished (aBulkPush);
+
+    // The second chunk is finished
+    assertEquals (200, aClient1.m_aCalls.size ());
+    assertTrue (aBulkPush.isResumable ());
+    IJsonObject aState = _readPersistedState ();
+    assertTrue (aState.getAsBoolean ("cancelled", false));
+    assertEquals (250, aState.getAsInt ("total", -1));
+    assertEquals (200, aState.getAsInt ("success", -1));
+    assertEquals (aIDs.get (199), aState.getAsString ("lastParticipantID"));
+    assertFalse (aState.containsKey ("endDateTime"));
+
+    // Resume pushes the remaining participants only
+    final MockPDClient aClient2 = new MockPDClient (x -> true);
+    assertTrue (aBulkPush.start ("junit", true, aClient2, aIDs::getClone).isSuccess ());
+    _waitUntilFinished (aBulkPush);
+
+    assertEquals (aIDs.subList (200, 250), aClient2.m_aCalls.getSortedInline (String::compareTo));
+    assertFalse (aBulkPush.isResumable ());
+    aState = _readPersistedState ();
+    assertFalse (aState.getAsBoolean ("cancelled", true));
+    assertEquals (250, aState.getAsInt ("total", -1));
+    assertEquals (250, aState.getAsInt ("success", -1));
+    assertEquals (0, aState.getAsInt ("failure", -1));
+    assertEquals (aIDs.getLastOrNull (), aState.getAsString ("lastParticipantID"));
+    assertTrue (aState.containsKey ("endDateTime"));
+
+    // Nothing left to resume
+    assertTrue (aBulkPush.start ("junit", true, aClient2, aIDs::getClone).isFailure ());
+  }
+
+  @Test
+  public void testFailedParticipantsAreRetriedOnResume () throws InterruptedException
+  {
+    final ICommonsList <String> aIDs = _createIDs (150);
+    final ICommonsList <String> aFailingIDs = new CommonsArrayList <> (aIDs.get (5), aIDs.get (120));
+    final SMPDirectoryBulkPush aBulkPush = SMPDirectoryBulkPush.getInstance ();
+
+    final MockPDClient aClient1 = new MockPDClient (x -> !aFailingIDs.contains (x));
+    assertTrue (aBulkPush.start ("junit", false, aClient1, aIDs::getClone).isSuccess ());
+    _waitUntilFinished (aBulkPush);
+
+    // Each failing participant was tried 1 + 3 times
+    assertEquals (150 + 2 * 3, aClient1.m_aCalls.size ());
+    IJsonObject aState = _readPersistedState ();
+    assertEquals (148, aState.getAsInt ("success", -1));
+    assertEquals (2, aState.getAsInt ("failure", -1));
+    assertEquals (aFailingIDs, _getFailedIDs (aState));
+    // Finished but can be resumed to retry the failed participants
+    assertTrue (aState.containsKey ("endDateTime"));
+    assertTrue (aBulkPush.isResumable ());
+
+    // Resume retries only the failed participants
+    final MockPDClient aClient2 = new MockPDClient (x -> true);
+    assertTrue (aBulkPush.start ("junit", true, aClient2, aIDs::getClone).isSuccess ());
+    _waitUntilFinished (aBulkPush);
+
+    assertEquals (aFailingIDs, aClient2.m_aCalls.getSortedInline (String::compareTo));
+    aState = _readPersistedState ();
+    assertEquals (150, aState.getAsInt ("total", -1));
+    assertEquals (150, aState.getAsInt ("success", -1));
+    assertEquals (0, aState.getAsInt ("failure", -1));
+    assertTrue (_getFailedIDs (aState).isEmpty ());
+    assertFalse (aBulkPush.isResumable ());
+  }
+
+  @Test
+  public void testBackoff () throws InterruptedException
+  {
+    assertEquals (20, SMPDirectoryBulkPush.getNextRetryDelayMillis (10));
+    assertEquals (40, SMPDirectoryBulkPush.getNextRetryDelayMillis (20));
+    assertEquals (0, SMPDirectoryBulkPush.getNextRetryDelayMillis (0));
+    // Upper limit
+    assertEquals (60_000, SMPDirectoryBulkPush.getNextRetryDelayMillis (40_000));
+    assertEquals (60_000, SMPDirectoryBulkPush.getNextRetryDelayMillis (60_000));
+
+    // Fails twice, succeeds with the third call
+    final ICommonsList <String> aIDs = _createIDs (1);
+    final SMPDirectoryBulkPush aBulkPush = SMPDirectoryBulkPush.getInstance ();
+    final ICommonsList <String> aCalls = new CommonsVector <> ();
+    final MockPDClient aClient = new MockPDClient (x -> {
+      aCalls.add (x);
+      return aCalls.size () >= 3;
+    });
+    assertTrue (aBulkPush.start ("junit", false, aClient, aIDs::getClone).isSuccess ());
+    _waitUntilFinished (aBulkPush);
+
+    assertEquals (3, aClient.m_aCalls.size ());
+    assertEquals (1, _readPersistedState ().getAsInt ("success", -1));
+
+    // 10 ms and 20 ms configured in the test configuration
+    final long nFirstDelay = aClient.m_aCallNanos.get (1).longValue () - aClient.m_aCallNanos.get (0).longValue ();
+    final long nSecondDelay = aClient.m_aCallNanos.get (2).longValue () - aClient.m_aCallNanos.get (1).longValue ();
+    assertTrue (nFirstDelay >= TimeUnit.MILLISECONDS.toNanos (10));
+    assertTrue (nSecondDelay >= TimeUnit.MILLISECONDS.toNanos (20));
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.compare.ESortOrder;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.CSecurity;
+
+/**
+ * Test class for class {@link SMPPublicParticipantSnapshot}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPPublicParticipantSnapshotTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Test
+  public void testPagingAndFilter ()
+  {
+    final IIdentifierFactory aIDFactory = SMPMetaManager.getIdentifierFactory ();
+    final ICommonsList <ISMPServiceGroup> aServiceGroups = new CommonsArrayList <> ();
+    // Add in reverse order to check the sorting
+    for (int i = 9; i >= 0; --i)
+    {
+      final IParticipantIdentifier aPI = aIDFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                 "9999:junit" + i);
+      aServiceGroups.add (new SMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI, null));
+    }
+
+    final SMPPublicParticipantSnapshot aSnapshot = new SMPPublicParticipantSnapshot (aServiceGroups, 10, "sml.example.org");
+    assertEquals (10, aSnapshot.getCount ());
+    assertEquals (10, aSnapshot.getTotalCount ());
+    assertFalse (aSnapshot.isTruncated ());
+    assertEquals ("sml.example.org", aSnapshot.getSMLZoneName ());
+
+    assertEquals (10, aSnapshot.getMatchingCount (null));
+    assertEquals (10, aSnapshot.getMatchingCount ("  "));
+    assertEquals (1, aSnapshot.getMatchingCount ("JUNIT3"));
+    assertEquals (0, aSnapshot.getMatchingCount ("junit10"));
+
+    // First page ascending
+    final ICommonsList <String> aIDs = new CommonsArrayList <> ();
+    aSnapshot.forEachMatching (null, ESortOrder.ASCENDING, 0, 3, (aPI, sExt) -> {
+      assertNull (sExt);
+      aIDs.add (aPI.getValue ());
+    });
+    assertEquals (new CommonsArrayList <> ("9999:junit0", "9999:junit1", "9999:junit2"), aIDs);
+
+    // Last page descending
+    aIDs.clear ();
+    aSnapshot.forEachMatching (null, ESortOrder.DESCENDING, 8, 3, (aPI, sExt) -> aIDs.add (aPI.getValue ()));
+    assertEquals (new CommonsArrayList <> ("9999:junit1", "9999:junit0"), aIDs);
+
+    // Offset beyond the end
+    aIDs.clear ();
+    aSnapshot.forEachMatching (null, ESortOrder.ASCENDING, 20, 3, (aPI, sExt) -> aIDs.add (aPI.getValue ()));
+    assertTrue (aIDs.isEmpty ());
+
+    // Filter with offset
+    aIDs.clear ();
+    aSnapshot.forEachMatching ("junit", ESortOrder.ASCENDING, 5, 2, (aPI, sExt) -> aIDs.add (aPI.getValue ()));
+    assertEquals (new CommonsArrayList <> ("9999:junit5", "9999:junit6"), aIDs);
+  }
+
+  @Test
+  public void testTruncated ()
+  {
+    final IParticipantIdentifier aPI = SMPMetaManager.getIdentifierFactory ()
+                                                     .createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                   "9999:junit");
+    final ICommonsList <ISMPServiceGroup> aServiceGroups = new CommonsArrayList <> (new SMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID,
+                                                                                                        aPI,
+                                                                                                        "<junitext />"));
+    final SMPPublicParticipantSnapshot aSnapshot = new SMPPublicParticipantSnapshot (aServiceGroups, 5, null);
+    assertEquals (1, aSnapshot.getCount ());
+    assertEquals (5, aSnapshot.getTotalCount ());
+    assertTrue (aSnapshot.isTruncated ());
+
+    final ICommonsList <String> aExtensions = new CommonsArrayList <> ();
+    aSnapshot.forEachMatching (null, ESortOrder.ASCENDING, 0, 10, (x, sExt) -> aExtensions.add (sExt));
+    assertEquals (1, aExtensions.size ());
+    assertTrue (aExtensions.getFirst ().contains ("junitext"));
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.domain.changelog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.CSecurity;
+
+/**
+ * Test class for class {@link ISMPChangeLogManager}.
+ *
+ * @author Philip Helger
+ */
+public final class ISMPChangeLogManagerFuncTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Test
+  public void testServiceGroupChanges () throws SMPServerException, InterruptedException
+  {
+    final String sUserID = CSecurity.USER_ADMINISTRATOR_ID;
+    if (SMPMetaManager.getInstance ().getBackendConnectionState ().isFalse ())
+    {
+      // Failed to get DB connection. E.g. MySQL down or misconfigured.
+      return;
+    }
+
+    final IParticipantIdentifier aPI = PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9999:junittest-changelog");
+    assertNotNull (aPI);
+
+    final ISMPChangeLogManager aChangeLogMgr = SMPMetaManager.getChangeLogMgr ();
+    final SMPChangeLogRecorder aRecorder = SMPMetaManager.getChangeLogRecorder ();
+    final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+
+    final long nStart = aChangeLogMgr.getLastSequence ();
+    assertTrue (aChangeLogMgr.getAllChangesAfter (nStart, 10).isEmpty ());
+    assertFalse (aRecorder.waitForChangeAfter (nStart, 0));
+    assertTrue (aChangeLogMgr.getFirstSequence () <= nStart + 1);
+    assertFalse (aChangeLogMgr.isResyncRequired (nStart));
+
+    assertNotNull (aSGMgr.createSMPServiceGroup (sUserID, aPI, null, true));
+    try
+    {
+      assertTrue (aRecorder.waitForChangeAfter (nStart, 0));
+      assertTrue (aSGMgr.deleteSMPServiceGroupNoEx (aPI, true).isChanged ());
+
+      final ICommonsList <SMPChangeLogEntry> aChanges = aChangeLogMgr.getAllChangesAfter (nStart, 10);
+      assertEquals (2, aChanges.size ());
+      assertEquals (aChanges.getLastOrNull ().getSequence (), aChangeLogMgr.getLastSequence ());
+      assertTrue (aChangeLogMgr.getFirstSequence () <= aChanges.get (0).getSequence ());
+      assertFalse (aChangeLogMgr.isResyncRequired (nStart));
+
+      SMPChangeLogEntry aEntry = aChanges.get (0);
+      assertTrue (aEntry.getSequence () > nStart);
+      assertEquals (ESMPChangeLogObjectType.SERVICE_GROUP, aEntry.getObjectType ());
+      assertEquals (ESMPChangeLogAction.CREATE, aEntry.getAction ());
+      assertEquals (aPI.getURIEncoded (), aEntry.getParticipantID ());
+      assertNull (aEntry.getObjectID ());
+
+      aEntry = aChanges.get (1);
+      assertTrue (aEntry.getSequence () > aChanges.get (0).getSequence ());
+      assertEquals (ESMPChangeLogObjectType.SERVICE_GROUP, aEntry.getObjectType ());
+      assertEquals (ESMPChangeLogAction.DELETE, aEntry.getAction ());
+      assertEquals (aPI.getURIEncoded (), aEntry.getParticipantID ());
+
+      // Paging
+      final ICommonsList <SMPChangeLogEntry> aFirstPage = aChangeLogMgr.getAllChangesAfter (nStart, 1);
+      assertEquals (1, aFirstPage.size ());
+      assertEquals (aChanges.get (0).getSequence (), aFirstPage.get (0).getSequence ());
+      final ICommonsList <SMPChangeLogEntry> aSecondPage = aChangeLogMgr.getAllChangesAfter (aFirstPage.get (0)
+                                                                                                         .getSequence (),
+                                                                                             1);
+      assertEquals (1, aSecondPage.size ());
+      assertEquals (aChanges.get (1).getSequence (), aSecondPage.get (0).getSequence ());
+    }
+    finally
+    {
+      aSGMgr.deleteSMPServiceGroupNoEx (aPI, true);
+    }
+  }
+}
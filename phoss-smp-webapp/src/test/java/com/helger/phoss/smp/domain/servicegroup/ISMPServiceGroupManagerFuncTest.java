@@ -22,10 +22,15 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Locale;
+
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestRule;
 
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.compare.ESortOrder;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.peppolid.peppol.PeppolIdentifierHelper;
@@ -173,4 +178,117 @@ public final class ISMPServiceGroupManagerFuncTest
       aSGMgr.deleteSMPServiceGroupNoEx (aPI2, true);
     }
   }
+
+  @Test
+  public void testForEachOfOwner () throws SMPServerException
+  {
+    final IIdentifierFactory aIDFactory = SMPMetaManager.getIdentifierFactory ();
+    final IParticipantIdentifier aPI1 = aIDFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                "9999:junitpaging1");
+    final IParticipantIdentifier aPI2 = aIDFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                "9999:junitpaging2");
+    final IParticipantIdentifier aPI3 = aIDFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                "9999:junitpaging3");
+    final String sSG1 = SMPServiceGroup.createSMPServiceGroupID (aPI1);
+    final String sSG2 = SMPServiceGroup.createSMPServiceGroupID (aPI2);
+    final String sSG3 = SMPServiceGroup.createSMPServiceGroupID (aPI3);
+    final String sOwnerID = CSecurity.USER_ADMINISTRATOR_ID + "paging";
+
+    final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+    assertNotNull (aSGMgr);
+    try
+    {
+      // Create in different order
+      aSGMgr.createSMPServiceGroup (sOwnerID, aPI3, null, true);
+      aSGMgr.createSMPServiceGroup (sOwnerID, aPI1, null, true);
+      aSGMgr.createSMPServiceGroup (sOwnerID, aPI2, null, true);
+
+      // First page
+      final ICommonsList <String> aList = new CommonsArrayList <> ();
+      aSGMgr.forEachSMPServiceGroupOfOwner (sOwnerID, null, 0, 2, x -> aList.add (x.getID ()));
+      assertEquals (new CommonsArrayList <> (sSG1, sSG2), aList);
+
+      // Next page
+      aList.clear ();
+      aSGMgr.forEachSMPServiceGroupOfOwner (sOwnerID, aPI2, 0, 2, x -> aList.add (x.getID ()));
+      assertEquals (new CommonsArrayList <> (sSG3), aList);
+
+      // With offset
+      aList.clear ();
+      aSGMgr.forEachSMPServiceGroupOfOwner (sOwnerID, null, 1, 10, x -> aList.add (x.getID ()));
+      assertEquals (new CommonsArrayList <> (sSG2, sSG3), aList);
+
+      // Other owner
+      aList.clear ();
+      aSGMgr.forEachSMPServiceGroupOfOwner (CSecurity.USER_ADMINISTRATOR_ID + "other",
+                                            null,
+                                            0,
+                                            10,
+                                            x -> aList.add (x.getID ()));
+      assertTrue (aList.isEmpty ());
+    }
+    finally
+    {
+      // Don't care about the result
+      aSGMgr.deleteSMPServiceGroupNoEx (aPI1, true);
+      aSGMgr.deleteSMPServiceGroupNoEx (aPI2, true);
+      aSGMgr.deleteSMPServiceGroupNoEx (aPI3, true);
+    }
+  }
+
+  @Test
+  public void testForEachWithFilter () throws SMPServerException
+  {
+    final IIdentifierFactory aIDFactory = SMPMetaManager.getIdentifierFactory ();
+    final IParticipantIdentifier aPI1 = aIDFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                "9999:junitfilter1");
+    final IParticipantIdentifier aPI2 = aIDFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                "9999:junitfilter2");
+    final IParticipantIdentifier aPI3 = aIDFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                "9999:junitfilter_3");
+    final String sSG1 = SMPServiceGroup.createSMPServiceGroupID (aPI1);
+    final String sSG2 = SMPServiceGroup.createSMPServiceGroupID (aPI2);
+    final String sSG3 = SMPServiceGroup.createSMPServiceGroupID (aPI3);
+    final String sOwnerID = CSecurity.USER_ADMINISTRATOR_ID;
+
+    final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+    assertNotNull (aSGMgr);
+    try
+    {
+      // Create in different order
+      aSGMgr.createSMPServiceGroup (sOwnerID, aPI3, null, true);
+      aSGMgr.createSMPServiceGroup (sOwnerID, aPI1, null, true);
+      aSGMgr.createSMPServiceGroup (sOwnerID, aPI2, null, true);
+      assertTrue (aSGMgr.getSMPServiceGroupCount (null) >= 3);
+
+      // Case insensitive
+      assertEquals (3, aSGMgr.getSMPServiceGroupCount ("JUnitFilter"));
+      final ICommonsList <String> aList = new CommonsArrayList <> ();
+      aSGMgr.forEachSMPServiceGroup ("JUnitFilter", ESortOrder.ASCENDING, 0, 10, x -> aList.add (x.getID ()));
+      assertEquals (new CommonsArrayList <> (sSG1, sSG2, sSG3), aList);
+
+      // Descending with offset and limit
+      aList.clear ();
+      aSGMgr.forEachSMPServiceGroup ("junitfilter", ESortOrder.DESCENDING, 1, 1, x -> aList.add (x.getID ()));
+      assertEquals (new CommonsArrayList <> (sSG2), aList);
+
+      // Wildcard characters are matched literally
+      assertEquals (1, aSGMgr.getSMPServiceGroupCount ("junitfilter_"));
+      aList.clear ();
+      aSGMgr.forEachSMPServiceGroup ("junitfilter_", ESortOrder.ASCENDING, 0, 10, x -> aList.add (x.getID ()));
+      assertEquals (new CommonsArrayList <> (sSG3), aList);
+      assertEquals (0, aSGMgr.getSMPServiceGroupCount ("junitfilter%"));
+
+      // The URI encoded identifier including the scheme matches as well
+      assertEquals (1, aSGMgr.getSMPServiceGroupCount (sSG1.toUpperCase (Locale.ROOT)));
+      assertEquals (3, aSGMgr.getSMPServiceGroupCount ("::9999:JUnitFilter"));
+    }
+    finally
+    {
+      // Don't care about the result
+      aSGMgr.deleteSMPServiceGroupNoEx (aPI1, true);
+      aSGMgr.deleteSMPServiceGroupNoEx (aPI2, true);
+      aSGMgr.deleteSMPServiceGroupNoEx (aPI3, true);
+    }
+  }
 }
@@ -16,13 +16,17 @@
  */
 package com.helger.phoss.smp.domain.serviceinfo;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Locale;
+
 import org.junit.Rule;
 import org.junit.Test;
 
 import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.datetime.PDTFactory;
 import com.helger.commons.datetime.XMLOffsetDateTime;
 import com.helger.peppolid.IDocumentTypeIdentifier;
@@ -92,7 +96,50 @@ public final class ISMPServiceInformationManagerFuncTest
                                                                                    aDocTypeID,
                                                                                    new CommonsArrayList <> (aProcess),
                                                                                    "<extsi/>");
+      assertEquals (SMPServiceInformationCount.EMPTY,
+                    aServiceInfoMgr.getServiceInformationCountOfServiceGroups (new CommonsArrayList <> (aSG)).get (aSG.getID ()));
       assertTrue (aServiceInfoMgr.mergeSMPServiceInformation (aServiceInformation).isSuccess ());
+      assertEquals (new SMPServiceInformationCount (1, 1, 1),
+                    aServiceInfoMgr.getServiceInformationCountOfServiceGroups (new CommonsArrayList <> (aSG)).get (aSG.getID ()));
+
+      // Endpoint filter - restrict to the test participant
+      assertEquals (1, aServiceInfoMgr.getEndpointCount (new SMPEndpointFilter ("JUnitTest1", null, null, null)));
+      assertEquals (1, aServiceInfoMgr.getEndpointCount (new SMPEndpointFilter ("junittest1", "tp", "http://localhost/", "cer")));
+      assertEquals (0, aServiceInfoMgr.getEndpointCount (new SMPEndpointFilter ("junittest1", "tp2", null, null)));
+      assertEquals (0, aServiceInfoMgr.getEndpointCount (new SMPEndpointFilter ("junittest1", null, "https://", null)));
+      assertEquals (0, aServiceInfoMgr.getEndpointCount (new SMPEndpointFilter ("junittest1", null, "http://localhost_", null)));
+      assertEquals (0, aServiceInfoMgr.getEndpointCount (new SMPEndpointFilter ("junittest1", null, null, "%")));
+
+      // The URI encoded identifier including the scheme matches as well
+      assertEquals (1,
+                    aServiceInfoMgr.getEndpointCount (new SMPEndpointFilter (aPI1.getURIEncoded ().toUpperCase (Locale.ROOT),
+                                                                             null,
+                                                                             null,
+                                                                             null)));
+      assertEquals (1, aServiceInfoMgr.getEndpointCount (new SMPEndpointFilter ("::9999:JUnitTest1", null, null, null)));
+      assertTrue (new SMPEndpointFilter (aPI1.getURIEncoded (), null, null, null).isMatchingParticipantID (aPI1));
+
+      final ICommonsList <ISMPEndpoint> aEndpoints = new CommonsArrayList <> ();
+      aServiceInfoMgr.forEachEndpoint (new SMPEndpointFilter ("junittest1", "tp", null, null),
+                                       0,
+                                       10,
+                                       (aParticipantID, aDocTypeID2, aProcessID2, aEndpoint) -> {
+                                         assertTrue (aParticipantID.hasSameContent (aPI1));
+                                         assertTrue (aDocTypeID2.hasSameContent (aDocTypeID));
+                                         assertTrue (aProcessID2.hasSameContent (aProcessID));
+                                         aEndpoints.add (aEndpoint);
+                                       });
+      assertEquals (1, aEndpoints.size ());
+      assertEquals ("http://localhost/as2", aEndpoints.getFirst ().getEndpointReference ());
+      assertEquals ("cert", aEndpoints.getFirst ().getCertificate ());
+
+      // Offset behind the last match
+      aEndpoints.clear ();
+      aServiceInfoMgr.forEachEndpoint (new SMPEndpointFilter ("junittest1", null, null, null),
+                                       1,
+                                       10,
+                                       (aParticipantID, aDocTypeID2, aProcessID2, aEndpoint) -> aEndpoints.add (aEndpoint));
+      assertTrue (aEndpoints.isEmpty ());
     }
     finally
     {
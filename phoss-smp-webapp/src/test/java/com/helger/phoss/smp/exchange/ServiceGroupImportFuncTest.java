@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.exchange;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsHashSet;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.CSecurity;
+import com.helger.photon.security.mgr.PhotonSecurityManager;
+import com.helger.photon.security.user.IUser;
+import com.helger.xml.microdom.IMicroElement;
+
+/**
+ * Test class for class {@link ServiceGroupImport}.
+ *
+ * @author Philip Helger
+ */
+public final class ServiceGroupImportFuncTest
+{
+  private static final IParticipantIdentifier PI = PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9999:importtest");
+  private static final IDocumentTypeIdentifier DOCTYPE_SI = PeppolIdentifierFactory.INSTANCE.createDocumentTypeIdentifierWithDefaultScheme ("junit::testdoc##ext::1.0");
+  private static final IDocumentTypeIdentifier DOCTYPE_REDIRECT = PeppolIdentifierFactory.INSTANCE.createDocumentTypeIdentifierWithDefaultScheme ("junit::testdoc##ext::2.0");
+
+  @Rule
+  public final SMPServerTestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Nonnull
+  private static SMPEndpoint _createEndpoint (@Nonnull final String sTransportProfile)
+  {
+    return new SMPEndpoint (sTransportProfile,
+                            "http://localhost/" + sTransportProfile,
+                            false,
+                            null,
+                            null,
+                            null,
+                            "cert",
+                            "sd",
+                            "tc",
+                            null,
+                            null);
+  }
+
+  @Nonnull
+  private static SMPProcess _createProcess (@Nonnull final String sProcessID)
+  {
+    return new SMPProcess (PeppolIdentifierFactory.INSTANCE.createProcessIdentifierWithDefaultScheme (sProcessID),
+                           new CommonsArrayList <> (_createEndpoint ("tp1"), _createEndpoint ("tp2")),
+                           null);
+  }
+
+  private static void _mergeServiceInfo (@Nonnull final ISMPServiceGroup aSG, final String sExtension)
+  {
+    final SMPServiceInformation aSI = new SMPServiceInformation (aSG,
+                                                                 DOCTYPE_SI,
+                                                                 new CommonsArrayList <> (_createProcess ("proc1"),
+                                                                                          _createProcess ("proc2")),
+                                                                 sExtension);
+    assertTrue (SMPMetaManager.getServiceInformationMgr ().mergeSMPServiceInformation (aSI).isSuccess ());
+  }
+
+  /**
+   * Create the test Service Group with one Service Information and without a
+   * Redirect and return the export of it.
+   */
+  @Nonnull
+  private static IMicroElement _createAndExport () throws SMPServerException
+  {
+    final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+    aSGMgr.deleteSMPServiceGroupNoEx (PI, false);
+    final ISMPServiceGroup aSG = aSGMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, PI, null, false);
+    assertNotNull (aSG);
+    _mergeServiceInfo (aSG, null);
+    return ServiceGroupExport.createExportDataXMLVer10 (new CommonsArrayList <> (aSG), false).getDocumentElement ();
+  }
+
+  /**
+   * Add a Service Group extension and a Redirect that are not part of the
+   * export.
+   */
+  private static void _addExtensionAndRedirect () throws SMPServerException
+  {
+    final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+    aSGMgr.updateSMPServiceGroup (PI, CSecurity.USER_ADMINISTRATOR_ID, "<ext />");
+    assertNotNull (SMPMetaManager.getRedirectMgr ()
+                                 .createOrUpdateSMPRedirect (aSGMgr.getSMPServiceGroupOfID (PI),
+                                                             DOCTYPE_REDIRECT,
+                                                             "http://target.example.org",
+                                                             "suid",
+                                                             null,
+                                                             null));
+  }
+
+  private static void _reverseChildElements (@Nonnull final IMicroElement aParent, @Nonnull final String sElementName)
+  {
+    final ICommonsList <IMicroElement> aChildren = aParent.getAllChildElements (sElementName);
+    for (final IMicroElement aChild : aChildren.getReverseInlined ())
+    {
+      aChild.detachFromParent ();
+      aParent.appendChild (aChild);
+    }
+  }
+
+  @Nonnull
+  private static ImportSummary _import (@Nonnull final IMicroElement eRoot, @Nonnull final EImportMode eMode)
+  {
+    final IUser aOwner = PhotonSecurityManager.getUserMgr ().getUserOfID (CSecurity.USER_ADMINISTRATOR_ID);
+    assertNotNull (aOwner);
+    final ICommonsList <ImportActionItem> aActionList = new CommonsArrayList <> ();
+    final ImportSummary aSummary = new ImportSummary ();
+    ServiceGroupImport.importXMLVer10 (eRoot,
+                                       eMode,
+                                       aOwner,
+                                       SMPMetaManager.getServiceGroupMgr ().getAllSMPServiceGroupIDs (),
+                                       new CommonsHashSet <> (),
+                                       aActionList,
+                                       aSummary);
+    assertFalse (aActionList.toString (), aActionList.containsAny (ImportActionItem::isError));
+    return aSummary;
+  }
+
+  @Test
+  public void testSkipExisting () throws SMPServerException
+  {
+    if (SMPMetaManager.getInstance ().getBackendConnectionState ().isFalse ())
+      return;
+
+    final IMicroElement eRoot = _createAndExport ();
+    try
+    {
+      _addExtensionAndRedirect ();
+
+      final ImportSummary aSummary = _import (eRoot, EImportMode.SKIP_EXISTING);
+      for (final EImportSummaryAction eAction : EImportSummaryAction.values ())
+        assertEquals (eAction.getID (), 0, aSummary.getSuccessCount (eAction));
+
+      // Nothing was touched
+      final ISMPServiceGroup aSG = SMPMetaManager.getServiceGroupMgr ().getSMPServiceGroupOfID (PI);
+      assertTrue (aSG.getExtensions ().extensions ().isNotEmpty ());
+      assertNotNull (SMPMetaManager.getRedirectMgr ().getSMPRedirectOfServiceGroupAndDocumentType (aSG, DOCTYPE_REDIRECT));
+    }
+    finally
+    {
+      SMPMetaManager.getServiceGroupMgr ().deleteSMPServiceGroupNoEx (PI, false);
+    }
+  }
+
+  @Test
+  public void testOverwriteExisting () throws SMPServerException
+  {
+    if (SMPMetaManager.getInstance ().getBackendConnectionState ().isFalse ())
+      return;
+
+    final IMicroElement eRoot = _createAndExport ();
+    try
+    {
+      _addExtensionAndRedirect ();
+
+      final ImportSummary aSummary = _import (eRoot, EImportMode.OVERWRITE_EXISTING);
+      assertEquals (1, aSummary.getSuccessCount (EImportSummaryAction.DELETE_SG));
+      assertEquals (1, aSummary.getSuccessCount (EImportSummaryAction.CREATE_SG));
+      assertEquals (1, aSummary.getSuccessCount (EImportSummaryAction.CREATE_SI));
+      assertEquals (0, aSummary.getSuccessCount (EImportSummaryAction.CREATE_REDIRECT));
+
+      // Everything is exactly like in the import
+      final ISMPServiceGroup aSG = SMPMetaManager.getServiceGroupMgr ().getSMPServiceGroupOfID (PI);
+      assertTrue (aSG.getExtensions ().extensions ().isEmpty ());
+      assertNull (SMPMetaManager.getRedirectMgr ().getSMPRedirectOfServiceGroupAndDocumentType (aSG, DOCTYPE_REDIRECT));
+      final ISMPServiceInformation aSI = SMPMetaManager.getServiceInformationMgr ()
+                                                      .getSMPServiceInformationOfServiceGroupAndDocumentType (aSG,
+                                                                                                              DOCTYPE_SI);
+      assertNotNull (aSI);
+      assertEquals (4, aSI.getTotalEndpointCount ());
+    }
+    finally
+    {
+      SMPMetaManager.getServiceGroupMgr ().deleteSMPServiceGroupNoEx (PI, false);
+    }
+  }
+
+  @Test
+  public void testApplyChangesUnchanged () throws SMPServerException
+  {
+    if (SMPMetaManager.getInstance ().getBackendConnectionState ().isFalse ())
+      return;
+
+    final IMicroElement eRoot = _createAndExport ();
+    try
+    {
+      // The order of processes and endpoints must not matter
+      for (final IMicroElement eSI : eRoot.getFirstChildElement (CSMPExchange.ELEMENT_SERVICEGROUP)
+                                          .getAllChildElements (CSMPExchange.ELEMENT_SERVICEINFO))
+      {
+        for (final IMicroElement eProcess : eSI.getAllChildElements ("process"))
+          _reverseChildElements (eProcess, "endpoint");
+        _reverseChildElements (eSI, "process");
+      }
+
+      final ImportSummary aSummary = _import (eRoot, EImportMode.APPLY_CHANGES);
+      assertEquals (1, aSummary.getSuccessCount (EImportSummaryAction.UNCHANGED_SG));
+      assertEquals (1, aSummary.getSuccessCount (EImportSummaryAction.UNCHANGED_SI));
+      assertEquals (0, aSummary.getSuccessCount (EImportSummaryAction.UPDATE_SG));
+      assertEquals (0, aSummary.getSuccessCount (EImportSummaryAction.UPDATE_SI));
+      assertEquals (0, aSummary.getSuccessCount (EImportSummaryAction.DELETE_SG));
+      assertEquals (0, aSummary.getSuccessCount (EImportSummaryAction.CREATE_SG));
+    }
+    finally
+    {
+      SMPMetaManager.getServiceGroupMgr ().deleteSMPServiceGroupNoEx (PI, false);
+    }
+  }
+
+  @Test
+  public void testApplyChangesDeletions () throws SMPServerException
+  {
+    if (SMPMetaManager.getInstance ().getBackendConnectionState ().isFalse ())
+      return;
+
+    final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+    final ISMPServiceInformationManager aSIMgr = SMPMetaManager.getServiceInformationMgr ();
+    final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
+    final IMicroElement eRoot = _createAndExport ();
+    try
+    {
+      // Add extensions and a Redirect, that are not part of the import
+      _addExtensionAndRedirect ();
+      _mergeServiceInfo (aSGMgr.getSMPServiceGroupOfID (PI), "<extsi />");
+
+      final ImportSummary aSummary = _import (eRoot, EImportMode.APPLY_CHANGES);
+      assertEquals (1, aSummary.getSuccessCount (EImportSummaryAction.UPDATE_SG));
+      assertEquals (1, aSummary.getSuccessCount (EImportSummaryAction.UPDATE_SI));
+      assertEquals (1, aSummary.getSuccessCount (EImportSummaryAction.DELETE_REDIRECT));
+      assertEquals (0, aSummary.getSuccessCount (EImportSummaryAction.DELETE_SG));
+      assertEquals (0, aSummary.getSuccessCount (EImportSummaryAction.DELETE_SI));
+
+      // The extensions and the Redirect are gone
+      final ISMPServiceGroup aSG = aSGMgr.getSMPServiceGroupOfID (PI);
+      assertTrue (aSG.getExtensions ().extensions ().isEmpty ());
+      assertNull (aRedirectMgr.getSMPRedirectOfServiceGroupAndDocumentType (aSG, DOCTYPE_REDIRECT));
+      final ISMPServiceInformation aSI = aSIMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aSG,
+                                                                                                       DOCTYPE_SI);
+      assertNotNull (aSI);
+      assertTrue (aSI.getExtensions ().extensions ().isEmpty ());
+      assertEquals (4, aSI.getTotalEndpointCount ());
+
+      // Importing it again changes nothing
+      final ImportSummary aSummary2 = _import (eRoot, EImportMode.APPLY_CHANGES);
+      assertEquals (1, aSummary2.getSuccessCount (EImportSummaryAction.UNCHANGED_SG));
+      assertEquals (1, aSummary2.getSuccessCount (EImportSummaryAction.UNCHANGED_SI));
+      assertEquals (0, aSummary2.getSuccessCount (EImportSummaryAction.DELETE_REDIRECT));
+    }
+    finally
+    {
+      aSGMgr.deleteSMPServiceGroupNoEx (PI, false);
+    }
+  }
+}
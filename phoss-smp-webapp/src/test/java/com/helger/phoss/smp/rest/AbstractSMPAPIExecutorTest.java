@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link AbstractSMPAPIExecutor}.
+ *
+ * @author Philip Helger
+ */
+public final class AbstractSMPAPIExecutorTest
+{
+  @Test
+  public void testIsGZipAccepted ()
+  {
+    assertTrue (AbstractSMPAPIExecutor.isGZipAccepted ("gzip"));
+    assertTrue (AbstractSMPAPIExecutor.isGZipAccepted ("GZIP"));
+    assertTrue (AbstractSMPAPIExecutor.isGZipAccepted ("x-gzip"));
+    assertTrue (AbstractSMPAPIExecutor.isGZipAccepted ("deflate, gzip;q=1.0, *;q=0.5"));
+    assertTrue (AbstractSMPAPIExecutor.isGZipAccepted ("br;q=1.0, gzip;q=0.8"));
+    assertTrue (AbstractSMPAPIExecutor.isGZipAccepted ("*"));
+    assertTrue (AbstractSMPAPIExecutor.isGZipAccepted ("identity, *;q=0.1"));
+
+    assertFalse (AbstractSMPAPIExecutor.isGZipAccepted (null));
+    assertFalse (AbstractSMPAPIExecutor.isGZipAccepted (""));
+    assertFalse (AbstractSMPAPIExecutor.isGZipAccepted ("identity"));
+    assertFalse (AbstractSMPAPIExecutor.isGZipAccepted ("deflate, br"));
+    assertFalse (AbstractSMPAPIExecutor.isGZipAccepted ("gzip;q=0"));
+    assertFalse (AbstractSMPAPIExecutor.isGZipAccepted ("gzip;q=0, *"));
+    assertFalse (AbstractSMPAPIExecutor.isGZipAccepted ("*;q=0"));
+    assertFalse (AbstractSMPAPIExecutor.isGZipAccepted ("gzip;q=abc"));
+  }
+}
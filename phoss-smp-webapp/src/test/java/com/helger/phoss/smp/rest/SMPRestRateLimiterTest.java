@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsHashMap;
+import com.helger.commons.collection.impl.CommonsHashSet;
+import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.http.EHttpMethod;
+import com.helger.phoss.smp.rest.SMPRestRateLimiter.ECategory;
+import com.helger.phoss.smp.rest.SMPRestRateLimiter.TokenBucket;
+
+/**
+ * Test class for class {@link SMPRestRateLimiter}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPRestRateLimiterTest
+{
+  @Test
+  public void testGetCategory ()
+  {
+    assertSame (ECategory.READ, ECategory.getCategory (EHttpMethod.GET, "/{ServiceGroupId}"));
+    assertSame (ECategory.READ, ECategory.getCategory (EHttpMethod.GET, "/businesscard/{ServiceGroupId}"));
+    assertSame (ECategory.READ, ECategory.getCategory (EHttpMethod.HEAD, "/complete/{ServiceGroupId}"));
+    assertSame (ECategory.WRITE, ECategory.getCategory (EHttpMethod.PUT, "/{ServiceGroupId}"));
+    assertSame (ECategory.WRITE, ECategory.getCategory (EHttpMethod.DELETE, "/{ServiceGroupId}"));
+    assertSame (ECategory.WRITE, ECategory.getCategory (EHttpMethod.PUT, "/exchange/import/xml/v1/{UserId}"));
+    assertSame (ECategory.EXPORT, ECategory.getCategory (EHttpMethod.GET, "/exchange/export/all/xml/v1"));
+    assertSame (ECategory.REMOTE_QUERY, ECategory.getCategory (EHttpMethod.GET, "/smpquery/{ServiceGroupId}"));
+    assertSame (ECategory.REMOTE_QUERY,
+                ECategory.getCategory (EHttpMethod.GET, "/businesscardquery/{ServiceGroupId}"));
+  }
+
+  @Test
+  public void testTokenBucket ()
+  {
+    final long nStart = 1_000_000;
+    // 60 per minute = 1 per second, burst 2
+    final TokenBucket aBucket = new TokenBucket (60, 2, nStart);
+    assertTrue (aBucket.isFull (nStart));
+    assertEquals (0, aBucket.tryConsume (nStart));
+    assertFalse (aBucket.isFull (nStart));
+    assertEquals (0, aBucket.tryConsume (nStart));
+
+    // Empty - one token per second
+    final long nWait = aBucket.tryConsume (nStart);
+    assertTrue (nWait > 0);
+    assertTrue (nWait <= TimeUnit.SECONDS.toNanos (1));
+
+    // After one second, one token is available again
+    final long nLater = nStart + TimeUnit.SECONDS.toNanos (1);
+    assertEquals (0, aBucket.tryConsume (nLater));
+    assertTrue (aBucket.tryConsume (nLater) > 0);
+
+    // Refills up to the capacity only
+    final long nMuchLater = nLater + TimeUnit.MINUTES.toNanos (5);
+    assertTrue (aBucket.isFull (nMuchLater));
+    assertEquals (0, aBucket.tryConsume (nMuchLater));
+    assertEquals (0, aBucket.tryConsume (nMuchLater));
+    assertTrue (aBucket.tryConsume (nMuchLater) > 0);
+  }
+
+  @Test
+  public void testRemoveIdleBuckets ()
+  {
+    final long nStart = 1_000_000;
+    final ICommonsMap <String, TokenBucket> aBuckets = new CommonsHashMap <> ();
+    for (int i = 0; i < 10; ++i)
+    {
+      final TokenBucket aBucket = new TokenBucket (60, 2, nStart);
+      // Client i was last active i * 10 ms after the start
+      aBucket.tryConsume (nStart + TimeUnit.SECONDS.toNanos (i) / 100);
+      aBuckets.put ("client" + i, aBucket);
+    }
+    final TokenBucket aFull = new TokenBucket (60, 2, nStart);
+    aBuckets.put ("full", aFull);
+
+    // Below the limit - only the full bucket is removed
+    final long nNow = nStart + TimeUnit.SECONDS.toNanos (1) / 10;
+    SMPRestRateLimiter.removeIdleBuckets (aBuckets, 100, nNow);
+    assertEquals (10, aBuckets.size ());
+    assertFalse (aBuckets.containsKey ("full"));
+
+    // At the limit - the least recently used clients are removed, the others
+    // keep their state
+    SMPRestRateLimiter.removeIdleBuckets (aBuckets, 10, nNow);
+    assertEquals (9, aBuckets.size ());
+    assertFalse (aBuckets.containsKey ("client0"));
+    for (int i = 1; i < 10; ++i)
+      assertTrue (aBuckets.containsKey ("client" + i));
+  }
+
+  @Test
+  public void testGetClientIP ()
+  {
+    final ICommonsSet <String> aNoProxies = new CommonsHashSet <> ();
+    final ICommonsSet <String> aProxies = new CommonsHashSet <> ("10.0.0.1", "10.0.0.2");
+
+    // No trusted proxies - the header is ignored
+    assertEquals ("10.0.0.1", SMPRestRateLimiter.getClientIP ("10.0.0.1", "1.2.3.4", aNoProxies));
+    // Not from a trusted proxy - the header is ignored
+    assertEquals ("5.6.7.8", SMPRestRateLimiter.getClientIP ("5.6.7.8", "1.2.3.4", aProxies));
+    // From a trusted proxy
+    assertEquals ("10.0.0.1", SMPRestRateLimiter.getClientIP ("10.0.0.1", null, aProxies));
+    assertEquals ("1.2.3.4", SMPRestRateLimiter.getClientIP ("10.0.0.1", "1.2.3.4", aProxies));
+    // Chain of trusted proxies
+    assertEquals ("1.2.3.4", SMPRestRateLimiter.getClientIP ("10.0.0.1", "1.2.3.4, 10.0.0.2", aProxies));
+    // Spoofed entries left of the client are ignored
+    assertEquals ("1.2.3.4", SMPRestRateLimiter.getClientIP ("10.0.0.1", "9.9.9.9, 1.2.3.4", aProxies));
+    // Only proxies
+    assertEquals ("10.0.0.1", SMPRestRateLimiter.getClientIP ("10.0.0.1", "10.0.0.2", aProxies));
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link SMPRestResponseValidators}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPRestResponseValidatorsTest
+{
+  private static final OffsetDateTime LAST_MODIFIED = OffsetDateTime.of (2023, 5, 17, 10, 30, 0, 0, ZoneOffset.UTC);
+
+  @Test
+  public void testETag ()
+  {
+    final SMPRestResponseValidators aValidators = new SMPRestResponseValidators ("abc-3", LAST_MODIFIED);
+    assertEquals ("\"abc-3\"", aValidators.getETag (false));
+    assertEquals ("\"abc-3-gzip\"", aValidators.getETag (true));
+    assertNotEquals (aValidators.getETag (false), aValidators.getETag (true));
+    assertEquals ("Wed, 17 May 2023 10:30:00 GMT", aValidators.getLastModified ());
+  }
+
+  @Test
+  public void testMatchingETag ()
+  {
+    final SMPRestResponseValidators aValidators = new SMPRestResponseValidators ("abc-3", LAST_MODIFIED);
+    assertNull (aValidators.getMatchingETag (null, false));
+    assertNull (aValidators.getMatchingETag ("", true));
+    assertNull (aValidators.getMatchingETag ("\"abc-2\"", true));
+    assertNull (aValidators.getMatchingETag ("abc-3", false));
+
+    assertEquals ("\"abc-3\"", aValidators.getMatchingETag ("\"abc-3\"", false));
+    assertEquals ("\"abc-3\"", aValidators.getMatchingETag ("\"abc-3\"", true));
+    assertEquals ("\"abc-3\"", aValidators.getMatchingETag ("W/\"abc-3\"", false));
+    assertEquals ("\"abc-3\"", aValidators.getMatchingETag ("\"abc-1\", \"abc-3\"", false));
+
+    // The GZip variant only matches if GZip is accepted
+    assertNull (aValidators.getMatchingETag ("\"abc-3-gzip\"", false));
+    assertEquals ("\"abc-3-gzip\"", aValidators.getMatchingETag ("\"abc-3-gzip\"", true));
+
+    // Wildcard
+    assertEquals ("\"abc-3\"", aValidators.getMatchingETag ("*", false));
+    assertEquals ("\"abc-3-gzip\"", aValidators.getMatchingETag ("*", true));
+  }
+
+  @Test
+  public void testNotModifiedSince ()
+  {
+    final SMPRestResponseValidators aValidators = new SMPRestResponseValidators ("abc-3", LAST_MODIFIED);
+    assertFalse (aValidators.isNotModifiedSince (null));
+    assertFalse (aValidators.isNotModifiedSince (""));
+    assertFalse (aValidators.isNotModifiedSince ("yesterday"));
+    assertFalse (aValidators.isNotModifiedSince (DateTimeFormatter.RFC_1123_DATE_TIME.format (LAST_MODIFIED.minusSeconds (1))));
+    assertTrue (aValidators.isNotModifiedSince (DateTimeFormatter.RFC_1123_DATE_TIME.format (LAST_MODIFIED)));
+    assertTrue (aValidators.isNotModifiedSince (DateTimeFormatter.RFC_1123_DATE_TIME.format (LAST_MODIFIED.plusDays (1))));
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.io.stream.StreamHelper;
+
+/**
+ * Test class for class {@link SMPRestStreamingContent}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPRestStreamingContentTest
+{
+  private static final int CHUNKS = 1000;
+
+  @Nonnull
+  private static SMPRestStreamingContent.IChunkWriter _createWriter ()
+  {
+    final int [] aIndex = { 0 };
+    return aOS -> {
+      // Include an empty chunk
+      if (aIndex[0] != 5)
+        aOS.write (("chunk" + aIndex[0] + "\n").getBytes (StandardCharsets.UTF_8));
+      return ++aIndex[0] < CHUNKS;
+    };
+  }
+
+  @Nonnull
+  private static String _getExpected ()
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 0; i < CHUNKS; ++i)
+      if (i != 5)
+        aSB.append ("chunk").append (i).append ('\n');
+    return aSB.toString ();
+  }
+
+  @Test
+  public void testPlain () throws IOException
+  {
+    final SMPRestStreamingContent aContent = new SMPRestStreamingContent (_createWriter (), false);
+    assertFalse (aContent.isReadMultiple ());
+    try (final InputStream aIS = aContent.getInputStream ())
+    {
+      assertEquals (_getExpected (), new String (StreamHelper.getAllBytes (aIS), StandardCharsets.UTF_8));
+    }
+
+    try
+    {
+      aContent.getInputStream ();
+      fail ();
+    }
+    catch (final IllegalStateException ex)
+    {
+      // expected
+    }
+  }
+
+  @Test
+  public void testGZip () throws IOException
+  {
+    final SMPRestStreamingContent aContent = new SMPRestStreamingContent (_createWriter (), true);
+    try (final InputStream aIS = new GZIPInputStream (aContent.getInputStream ()))
+    {
+      assertEquals (_getExpected (), new String (StreamHelper.getAllBytes (aIS), StandardCharsets.UTF_8));
+    }
+  }
+}
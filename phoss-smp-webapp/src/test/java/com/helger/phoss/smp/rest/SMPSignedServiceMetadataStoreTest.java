@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.phoss.smp.security.SMPKeyManager;
+import com.helger.photon.security.CSecurity;
+
+/**
+ * Test class for class {@link SMPSignedServiceMetadataStore}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPSignedServiceMetadataStoreTest
+{
+  private static final IParticipantIdentifier PI = PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9999:signedstore");
+  private static final IDocumentTypeIdentifier DOCTYPE_ID = PeppolIdentifierFactory.INSTANCE.createDocumentTypeIdentifierWithDefaultScheme ("junit::testdoc##ext::1.0");
+
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  private static boolean _isTestable ()
+  {
+    // Failed to get DB connection or no signing key
+    return SMPMetaManager.getInstance ().getBackendConnectionState ().isTrue () && SMPKeyManager.isKeyStoreValid ();
+  }
+
+  private static void _assertContains (@Nullable final byte [] aSignedBytes, @Nonnull final String sText)
+  {
+    assertNotNull (aSignedBytes);
+    assertTrue (new String (aSignedBytes, StandardCharsets.UTF_8).contains (sText));
+  }
+
+  @Nonnull
+  private static byte [] _materialize (@Nonnull final SMPSignedServiceMetadataStore aStore) throws SMPServerException
+  {
+    final byte [] ret = aStore.materialize (PI, DOCTYPE_ID);
+    assertNotNull (ret);
+    // Now it is stored
+    assertNotNull (aStore.getSignedServiceMetadata (PI, DOCTYPE_ID));
+    return ret;
+  }
+
+  @Test
+  public void testRedirectChanges () throws SMPServerException
+  {
+    if (!_isTestable ())
+      return;
+
+    final SMPSignedServiceMetadataStore aStore = SMPSignedServiceMetadataStore.getInstance ();
+    final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+    final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
+    final ISMPServiceGroup aSG = aSGMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, PI, null, false);
+    assertNotNull (aSG);
+    try
+    {
+      aRedirectMgr.createOrUpdateSMPRedirect (aSG, DOCTYPE_ID, "http://target1.example.org", "suid", null, null);
+      final byte [] aOld = _materialize (aStore);
+      _assertContains (aOld, "http://target1.example.org");
+
+      // Update the redirect - the old response must be gone
+      aRedirectMgr.createOrUpdateSMPRedirect (aSG, DOCTYPE_ID, "http://target2.example.org", "suid", null, null);
+      final byte [] aCurrent = aStore.getSignedServiceMetadata (PI, DOCTYPE_ID);
+      assertNotSame (aOld, aCurrent);
+      if (aCurrent != null)
+      {
+        // Already recreated in the background
+        _assertContains (aCurrent, "http://target2.example.org");
+      }
+      _assertContains (_materialize (aStore), "http://target2.example.org");
+
+      // Delete the redirect - nothing to serve anymore
+      aRedirectMgr.deleteSMPRedirect (aRedirectMgr.getSMPRedirectOfServiceGroupAndDocumentType (aSG, DOCTYPE_ID));
+      assertNull (aStore.getSignedServiceMetadata (PI, DOCTYPE_ID));
+      assertNull (aStore.materialize (PI, DOCTYPE_ID));
+      assertNull (aStore.getSignedServiceMetadata (PI, DOCTYPE_ID));
+    }
+    finally
+    {
+      aSGMgr.deleteSMPServiceGroupNoEx (PI, false);
+    }
+  }
+
+  @Test
+  public void testServiceGroupChanges () throws SMPServerException
+  {
+    if (!_isTestable ())
+      return;
+
+    final SMPSignedServiceMetadataStore aStore = SMPSignedServiceMetadataStore.getInstance ();
+    final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+    final ISMPServiceGroup aSG = aSGMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, PI, null, false);
+    assertNotNull (aSG);
+    try
+    {
+      SMPMetaManager.getRedirectMgr ()
+                    .createOrUpdateSMPRedirect (aSG, DOCTYPE_ID, "http://target1.example.org", "suid", null, null);
+      final byte [] aOld = _materialize (aStore);
+
+      // Update the service group - the old response must be gone
+      aSGMgr.updateSMPServiceGroup (PI, CSecurity.USER_ADMINISTRATOR_ID, "<ext />");
+      final byte [] aCurrent = aStore.getSignedServiceMetadata (PI, DOCTYPE_ID);
+      assertNotSame (aOld, aCurrent);
+      if (aCurrent != null)
+      {
+        // Already recreated in the background
+        _assertContains (aCurrent, "http://target1.example.org");
+      }
+      _materialize (aStore);
+
+      // Delete the service group - all responses must be gone
+      aSGMgr.deleteSMPServiceGroup (PI, false);
+      assertNull (aStore.getSignedServiceMetadata (PI, DOCTYPE_ID));
+      assertNull (aStore.materialize (PI, DOCTYPE_ID));
+    }
+    finally
+    {
+      aSGMgr.deleteSMPServiceGroupNoEx (PI, false);
+    }
+  }
+}
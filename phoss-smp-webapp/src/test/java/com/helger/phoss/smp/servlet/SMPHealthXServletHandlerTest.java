@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.servlet;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.commons.http.CHttp;
+import com.helger.commons.http.EHttpMethod;
+import com.helger.commons.state.ETriState;
+import com.helger.http.EHttpVersion;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.servlet.mock.MockHttpServletResponse;
+import com.helger.servlet.response.UnifiedResponse;
+import com.helger.web.scope.mgr.WebScopeManager;
+import com.helger.web.scope.mgr.WebScoped;
+
+/**
+ * Test class for class {@link SMPHealthXServletHandler}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPHealthXServletHandlerTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  private static int _getStatus (@Nonnull final String sPath) throws Exception
+  {
+    final MockHttpServletRequest aHttpRequest = new MockHttpServletRequest ();
+    aHttpRequest.setMethod (EHttpMethod.GET);
+    aHttpRequest.setPathInfo (sPath);
+    try (final WebScoped aWS = new WebScoped (aHttpRequest))
+    {
+      final UnifiedResponse aUnifiedResponse = new UnifiedResponse (EHttpVersion.HTTP_11,
+                                                                    EHttpMethod.GET,
+                                                                    aHttpRequest);
+      new SMPHealthXServletHandler ().handleRequest (WebScopeManager.getRequestScope (), aUnifiedResponse);
+
+      final MockHttpServletResponse aHttpResponse = new MockHttpServletResponse ();
+      aUnifiedResponse.applyToResponse (aHttpResponse);
+      return aHttpResponse.getStatus ();
+    }
+  }
+
+  @Test
+  public void testBackendUp () throws Exception
+  {
+    SMPMetaManager.getInstance ().setBackendConnectionState (ETriState.TRUE, false);
+    assertEquals (CHttp.HTTP_OK, _getStatus (SMPHealthXServletHandler.PATH_LIVE));
+    assertEquals (CHttp.HTTP_OK, _getStatus ("/ready"));
+    assertEquals (CHttp.HTTP_OK, _getStatus (""));
+  }
+
+  @Test
+  public void testBackendUnknown () throws Exception
+  {
+    // Not yet known to be broken
+    SMPMetaManager.getInstance ().setBackendConnectionState (ETriState.UNDEFINED, false);
+    assertEquals (CHttp.HTTP_OK, _getStatus ("/ready"));
+  }
+
+  @Test
+  public void testBackendDown () throws Exception
+  {
+    SMPMetaManager.getInstance ().setBackendConnectionState (ETriState.FALSE, false);
+    // Liveness is not affected
+    assertEquals (CHttp.HTTP_OK, _getStatus (SMPHealthXServletHandler.PATH_LIVE));
+    assertEquals (CHttp.HTTP_SERVICE_UNAVAILABLE, _getStatus ("/ready"));
+    assertEquals (CHttp.HTTP_SERVICE_UNAVAILABLE, _getStatus (""));
+  }
+}
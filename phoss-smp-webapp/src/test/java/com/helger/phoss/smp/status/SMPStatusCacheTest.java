@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2014-2023 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.status;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+
+/**
+ * Test class for class {@link SMPStatusCache}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPStatusCacheTest
+{
+  private static final long CACHE_MILLIS = 200;
+
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Nonnull
+  private static Supplier <String> _createBuilder (@Nonnull final AtomicInteger aBuildCount)
+  {
+    return () -> "v" + aBuildCount.incrementAndGet ();
+  }
+
+  private static void _waitForBuildCount (@Nonnull final AtomicInteger aBuildCount,
+                                          final int nExpected) throws InterruptedException
+  {
+    final long nEnd = System.nanoTime () + TimeUnit.SECONDS.toNanos (10);
+    while (aBuildCount.get () < nExpected)
+    {
+      assertTrue ("Background refresh did not happen in time", System.nanoTime () < nEnd);
+      Thread.sleep (5);
+    }
+  }
+
+  @Test
+  public void testDisabled ()
+  {
+    final SMPStatusCache aCache = SMPStatusCache.getInstance ();
+    final AtomicInteger aBuildCount = new AtomicInteger (0);
+    final Supplier <String> aBuilder = _createBuilder (aBuildCount);
+    assertEquals ("v1", aCache.getStatusDataAsString (false, 0, aBuilder));
+    assertEquals ("v2", aCache.getStatusDataAsString (false, 0, aBuilder));
+  }
+
+  @Test
+  public void testStaleWhileRevalidate () throws InterruptedException
+  {
+    final SMPStatusCache aCache = SMPStatusCache.getInstance ();
+    final AtomicInteger aBuildCount = new AtomicInteger (0);
+    final Supplier <String> aBuilder = _createBuilder (aBuildCount);
+
+    // Initial build is synchronous
+    assertEquals ("v1", aCache.getStatusDataAsString (false, CACHE_MILLIS, aBuilder));
+    // Fresh
+    assertEquals ("v1", aCache.getStatusDataAsString (false, CACHE_MILLIS, aBuilder));
+    assertEquals (1, aBuildCount.get ());
+    // The other variant is cached separately
+    assertEquals ("v2", aCache.getStatusDataAsString (true, CACHE_MILLIS, aBuilder));
+
+    // Outdated but within the stale limit - returned while refreshing
+    Thread.sleep (CACHE_MILLIS + 50);
+    assertEquals ("v1", aCache.getStatusDataAsString (false, CACHE_MILLIS, aBuilder));
+    _waitForBuildCount (aBuildCount, 3);
+    assertEquals ("v3", aCache.getStatusDataAsString (false, CACHE_MILLIS, aBuilder));
+    assertEquals (3, aBuildCount.get ());
+  }
+
+  @Test
+  public void testOnlyOneBackgroundRefresh () throws InterruptedException
+  {
+    final SMPStatusCache aCache = SMPStatusCache.getInstance ();
+    final AtomicInteger aBuildCount = new AtomicInteger (0);
+    assertEquals ("v1", aCache.getStatusDataAsString (false, CACHE_MILLIS, _createBuilder (aBuildCount)));
+
+    // Block the background refresh
+    final CountDownLatch aStarted = new CountDownLatch (1);
+    final CountDownLatch aRelease = new CountDownLatch (1);
+    final Supplier <String> aBlockingBuilder = () -> {
+      aStarted.countDown ();
+      try
+      {
+        aRelease.await ();
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+      }
+      return "v" + aBuildCount.incrementAndGet ();
+    };
+
+    Thread.sleep (CACHE_MILLIS + 50);
+    assertEquals ("v1", aCache.getStatusDataAsString (false, CACHE_MILLIS, aBlockingBuilder));
+    assertTrue (aStarted.await (10, TimeUnit.SECONDS));
+    // Refresh in progress - the stale status is returned without waiting
+    for (int i = 0; i < 10; ++i)
+      assertEquals ("v1", aCache.getStatusDataAsString (false, CACHE_MILLIS, aBlockingBuilder));
+    aRelease.countDown ();
+
+    _waitForBuildCount (aBuildCount, 2);
+    // Wait until the refresh flag is reset
+    Thread.sleep (50);
+    assertEquals (2, aBuildCount.get ());
+    assertEquals ("v2", aCache.getStatusDataAsString (false, CACHE_MILLIS, aBlockingBuilder));
+  }
+
+  @Test
+  public void testStaleCutoff () throws InterruptedException
+  {
+    final SMPStatusCache aCache = SMPStatusCache.getInstance ();
+    final AtomicInteger aBuildCount = new AtomicInteger (0);
+    final Supplier <String> aBuilder = _createBuilder (aBuildCount);
+    assertEquals ("v1", aCache.getStatusDataAsString (false, CACHE_MILLIS, aBuilder));
+
+    // Older than the stale limit - the caller waits for the new status
+    Thread.sleep (CACHE_MILLIS * SMPStatusCache.MAX_STALE_FACTOR + 50);
+    assertEquals ("v2", aCache.getStatusDataAsString (false, CACHE_MILLIS, aBuilder));
+    assertEquals (2, aBuildCount.get ());
+    assertEquals ("v2", aCache.getStatusDataAsString (false, CACHE_MILLIS, aBuilder));
+  }
+}